@@ -75,9 +75,12 @@ import javax.swing.border.Border;
 import javax.swing.plaf.basic.BasicSplitPaneDivider;
 
 import com.eteks.sweethome3d.io.AutoRecoveryManager;
+import com.eteks.sweethome3d.io.ContentDigestManager;
 import com.eteks.sweethome3d.io.FileUserPreferences;
 import com.eteks.sweethome3d.io.HomeFileRecorder;
 import com.eteks.sweethome3d.j3d.Component3DManager;
+import com.eteks.sweethome3d.j3d.ModelCache;
+import com.eteks.sweethome3d.j3d.ModelManager;
 import com.eteks.sweethome3d.model.CollectionEvent;
 import com.eteks.sweethome3d.model.CollectionListener;
 import com.eteks.sweethome3d.model.Home;
@@ -138,7 +141,11 @@ import com.eteks.sweethome3d.viewcontroller.ViewFactory;
  * {@linkplain com.sun.j3d.loaders.Loader loader} classes that Sweet Home 3D will use to read 3D models content
  * at formats not supported by default in Sweet Home 3D.<br>
  * The classes cited in this property must be available in the classpath and if more than one class is
- * cited, they should be separated by a colon or a space.</li></ul>
+ * cited, they should be separated by a colon or a space.</li>
+ *
+ * <li><code>com.eteks.sweethome3d.modelCacheSize</code> defines the maximum size in MB of the files
+ * stored in the <code>models</code> subfolder of the application folder to cache the 3D models
+ * once loaded. Its default value is 256 and setting it to 0 disables this cache.</li></ul>
  * 
  * <p>The value of a System property can be set with the -D 
  * <a href="http://download.oracle.com/javase/6/docs/technotes/tools/windows/java.html">java</a> option.
@@ -148,6 +155,9 @@ public class SweetHome3D extends HomeApplication {
   private static final String     PREFERENCES_FOLDER             = "com.eteks.sweethome3d.preferencesFolder";
   private static final String     APPLICATION_FOLDERS            = "com.eteks.sweethome3d.applicationFolders";
   private static final String     APPLICATION_PLUGINS_SUB_FOLDER = "plugins";
+  private static final String     MODEL_CACHE_SIZE               = "com.eteks.sweethome3d.modelCacheSize";
+  private static final String     MODEL_CACHE_SUB_FOLDER         = "models";
+  private static final String     LAZY_CONTENT_LOADING           = "com.eteks.sweethome3d.lazyContentLoading";
 
   private HomeRecorder            homeRecorder;
   private HomeRecorder            compressedHomeRecorder;
@@ -176,7 +186,9 @@ public class SweetHome3D extends HomeApplication {
   public HomeRecorder getHomeRecorder() {
     // Initialize homeRecorder lazily
     if (this.homeRecorder == null) {
-      this.homeRecorder = new HomeFileRecorder(0, false, getUserPreferences(), false, true, true);
+      // Read content lazily only on demand as it skips the integrity check of home files at opening time
+      this.homeRecorder = new HomeFileRecorder(0, false, getUserPreferences(), false, true, true, true, true,
+          Boolean.getBoolean(LAZY_CONTENT_LOADING));
     }
     return this.homeRecorder;
   }
@@ -186,7 +198,7 @@ public class SweetHome3D extends HomeApplication {
     if (type == HomeRecorder.Type.COMPRESSED) {
       // Initialize compressedHomeRecorder lazily
       if (this.compressedHomeRecorder == null) {
-        this.compressedHomeRecorder = new HomeFileRecorder(9, false, getUserPreferences(), false, true, true);
+        this.compressedHomeRecorder = new HomeFileRecorder(9, false, getUserPreferences(), false, true, true, true);
       }
       return this.compressedHomeRecorder;
     } else {
@@ -456,6 +468,7 @@ public class SweetHome3D extends HomeApplication {
     addComponent3DRenderingErrorObserver();
 
     getUserPreferences();
+    initModelCache();
     try {
       // Set User Agent to follow statistics on used operating systems 
       System.setProperty("http.agent", getId() + "/" + getVersion()  
@@ -612,6 +625,28 @@ public class SweetHome3D extends HomeApplication {
     }
   }
 
+  /**
+   * Sets the persistent cache of the 3D models loaded by the application.
+   */
+  private void initModelCache() {
+    long maximumSize = Long.getLong(MODEL_CACHE_SIZE, 256);
+    if (!Boolean.getBoolean("com.eteks.sweethome3d.no3D")
+        && maximumSize > 0) {
+      try {
+        UserPreferences userPreferences = getUserPreferences();
+        File applicationFolder = userPreferences instanceof FileUserPreferences
+            ? ((FileUserPreferences)userPreferences).getApplicationFolder()
+            : OperatingSystem.getDefaultApplicationFolder();
+        ModelManager.getInstance().setModelCache(new ModelCache(
+            new File(applicationFolder, MODEL_CACHE_SUB_FOLDER), maximumSize << 20,
+            ContentDigestManager.getInstance()::getContentDigest));
+      } catch (IOException ex) {
+        // Too bad models won't be cached
+        ex.printStackTrace();
+      }
+    }
+  }
+
   /**
    * Sets the rendering error listener bound to Java 3D to avoid default System
    * exit in case of error during 3D rendering.
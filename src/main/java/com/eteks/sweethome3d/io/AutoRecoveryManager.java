@@ -34,6 +34,7 @@ import java.util.Comparator;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Objects;
 import java.util.Timer;
 import java.util.TimerTask;
 import java.util.UUID;
@@ -46,6 +47,7 @@ import com.eteks.sweethome3d.model.CollectionListener;
 import com.eteks.sweethome3d.model.Home;
 import com.eteks.sweethome3d.model.HomeApplication;
 import com.eteks.sweethome3d.model.HomeRecorder;
+import com.eteks.sweethome3d.model.HomeSnapshot;
 import com.eteks.sweethome3d.model.InterruptedRecorderException;
 import com.eteks.sweethome3d.model.RecorderException;
 import com.eteks.sweethome3d.model.UserPreferences;
@@ -71,6 +73,11 @@ public class AutoRecoveryManager {
   // only in autoSaveForRecoveryExecutor single thread executor
   private final Map<Home, File>             autoSavedFiles      = new HashMap<Home, File>();
   private final Map<File, FileOutputStream> lockedOutputStreams = new HashMap<File, FileOutputStream>();
+  // The journals, saved modification counts and properties of homes are handled only in Event Dispatch Thread
+  private final Map<Home, HomeJournal>      journals            = new HashMap<Home, HomeJournal>();
+  private final Map<Home, Long>             savedModificationCounts = new HashMap<Home, Long>();
+  private final Map<Home, Integer>          savedPropertiesHashCodes = new HashMap<Home, Integer>();
+  private volatile AutoSaveStatistics       lastAutoSaveStatistics;
   private final ExecutorService             autoSaveForRecoveryExecutor;
   private Timer                             timer;
   private long                              lastAutoSaveTime;
@@ -102,12 +109,19 @@ public class AutoRecoveryManager {
     application.addHomesListener(ev -> {
       if (ev.getType() == CollectionEvent.Type.DELETE) {
         final Home home = ev.getItem();
+        HomeJournal journal = this.journals.remove(home);
+        if (journal != null) {
+          journal.dispose();
+        }
+        this.savedModificationCounts.remove(home);
+        this.savedPropertiesHashCodes.remove(home);
         autoSaveForRecoveryExecutor.submit(() -> {
           try {
             final File homeFile = autoSavedFiles.get(home);
             if (homeFile != null) {
               freeLockedFile(homeFile);
               homeFile.delete();
+              HomeJournal.getJournalFile(homeFile).delete();
               autoSavedFiles.remove(home);
             }
           } catch (RecorderException ex) {
@@ -148,6 +162,7 @@ public class AutoRecoveryManager {
               home.addPropertyChangeListener(Home.Property.RECOVERED, evt -> {
                 if (!home.isRecovered()) {
                   file.delete();
+                  HomeJournal.getJournalFile(file).delete();
                 }
               });
               this.recoveredHomes.add(home);
@@ -234,24 +249,100 @@ public class AutoRecoveryManager {
   }
 
   /**
-   * Clones application homes and saves them in automatic save executor.
+   * Returns a hash code computed from the names and the values of the properties of <code>home</code>.
+   */
+  private static int getPropertiesHashCode(Home home) {
+    int hashCode = 0;
+    for (String name : home.getPropertyNames()) {
+      hashCode += name.hashCode() ^ Objects.hashCode(home.getProperty(name));
+    }
+    return hashCode;
+  }
+
+  /**
+   * Takes a snapshot of application homes and saves them in automatic save executor.
+   * The homes not modified since their last automatic save are ignored, and if the home 
+   * recorder of the application is journaled, only the changes of homes are saved when possible.
    */
   private void cloneAndSaveHomes() {
     try {
       EventQueue.invokeAndWait(() -> {
-        // Handle and clone application homes in Event Dispatch Thread
+        // Handle and take a snapshot of application homes in Event Dispatch Thread
+        long startTime = System.nanoTime();
+        int skippedHomeCount = 0;
+        int journaledHomeCount = 0;
+        int savedHomeCount = 0;
         for (final Home home : application.getHomes()) {
-          final Home autoSavedHome = home.clone();
+          HomeSnapshot snapshot = HomeSnapshot.getInstance(home);
+          Long savedModificationCount = this.savedModificationCounts.get(home);
+          // Home properties are modified without notifying listeners
+          int propertiesHashCode = getPropertiesHashCode(home);
+          Integer savedPropertiesHashCode = this.savedPropertiesHashCodes.put(home, propertiesHashCode);
+          boolean propertiesModified = savedPropertiesHashCode != null
+              && savedPropertiesHashCode != propertiesHashCode;
+          if (!propertiesModified
+              && (savedModificationCount != null
+                    ? savedModificationCount == snapshot.getModificationCount()
+                    : !home.isModified())) {
+            // Home didn't change since its last automatic save or was never modified
+            this.savedModificationCounts.put(home, snapshot.getModificationCount());
+            skippedHomeCount++;
+            continue;
+          }
+          this.savedModificationCounts.put(home, snapshot.getModificationCount());
+
           final HomeRecorder homeRecorder = application.getHomeRecorder();
-          autoSaveForRecoveryExecutor.submit(() -> {
+          HomeJournal journal = this.journals.get(home);
+          byte [] journalRecord = null;
+          if (journal != null
+              && home.isModified()
+              && !propertiesModified // Not recorded by journals
+              && journal.isAppendable()) {
             try {
-              // Save home clone in an other thread
-              saveHome(home, autoSavedHome, homeRecorder);
-            } catch (RecorderException ex) {
-              ex.printStackTrace();
+              journalRecord = journal.createRecord();
+            } catch (IOException ex) {
+              // Save home fully
+            }
+          }
+
+          if (journalRecord != null) {
+            journaledHomeCount++;
+            final HomeJournal homeJournal = journal;
+            final byte [] record = journalRecord;
+            autoSaveForRecoveryExecutor.submit(() -> {
+              try {
+                // Save home changes in an other thread
+                saveHomeChanges(home, homeJournal, record, (HomeFileRecorder)homeRecorder);
+              } catch (RecorderException ex) {
+                ex.printStackTrace();
+              }
+            });
+          } else {
+            if (journal != null) {
+              journal.dispose();
+              this.journals.remove(home);
             }
-          });
+            final HomeJournal homeJournal = homeRecorder instanceof HomeFileRecorder && home.isModified()
+                ? ((HomeFileRecorder)homeRecorder).createJournal(home)
+                : null;
+            if (homeJournal != null) {
+              this.journals.put(home, homeJournal);
+            }
+            // Share with the previous snapshot the items of home that didn't change
+            final Home autoSavedHome = snapshot.getHome();
+            savedHomeCount++;
+            autoSaveForRecoveryExecutor.submit(() -> {
+              try {
+                // Save home snapshot in an other thread
+                saveHome(home, autoSavedHome, homeRecorder, homeJournal);
+              } catch (RecorderException ex) {
+                ex.printStackTrace();
+              }
+            });
+          }
         }
+        this.lastAutoSaveStatistics = new AutoSaveStatistics(
+            savedHomeCount, journaledHomeCount, skippedHomeCount, System.nanoTime() - startTime);
       });
     } catch (InvocationTargetException ex) {
       throw new RuntimeException(ex);
@@ -264,7 +355,8 @@ public class AutoRecoveryManager {
    * Saves the given <code>home</code> in recovery folder.
    * Must be run only from auto save thread.
    */
-  private void saveHome(Home home, Home autoSavedHome, HomeRecorder homeRecorder) throws RecorderException {
+  private void saveHome(Home home, Home autoSavedHome, HomeRecorder homeRecorder,
+                        HomeJournal journal) throws RecorderException {
     File autoSavedHomeFile = this.autoSavedFiles.get(home);
     if (autoSavedHomeFile == null) {
       File recoveredFilesFolder = getRecoveryFolder();
@@ -291,7 +383,11 @@ public class AutoRecoveryManager {
       this.autoSavedFiles.put(home, autoSavedHomeFile);
       try {
         // Save home and lock the saved file to avoid possible auto recovery processes to read it 
-        homeRecorder.writeHome(autoSavedHome, autoSavedHomeFile.getPath());
+        if (journal != null) {
+          ((HomeFileRecorder)homeRecorder).writeHome(autoSavedHome, autoSavedHomeFile.getPath(), journal);
+        } else {
+          homeRecorder.writeHome(autoSavedHome, autoSavedHomeFile.getPath());
+        }
         
         FileOutputStream lockedOutputStream = null;
         try {
@@ -315,11 +411,25 @@ public class AutoRecoveryManager {
       } 
     } else {
       autoSavedHomeFile.delete();
+      HomeJournal.getJournalFile(autoSavedHomeFile).delete();
       this.autoSavedFiles.remove(home);
     }
     this.lastAutoSaveTime = Math.max(this.lastAutoSaveTime, System.currentTimeMillis());
   }
 
+  /**
+   * Appends the given <code>record</code> of the changes of <code>home</code> to the journal
+   * of its file in recovery folder.
+   * Must be run only from auto save thread.
+   */
+  private void saveHomeChanges(Home home, HomeJournal journal, byte [] record,
+                               HomeFileRecorder homeRecorder) throws RecorderException {
+    if (this.autoSavedFiles.containsKey(home)) {
+      homeRecorder.writeHomeChanges(journal, record);
+    }
+    this.lastAutoSaveTime = Math.max(this.lastAutoSaveTime, System.currentTimeMillis());
+  }
+
   /**
    * Frees the given <code>file</code> if it's locked.
    * Must be run only from auto save thread.
@@ -350,4 +460,64 @@ public class AutoRecoveryManager {
       throw new RecorderException("Can't retrieve recovered files folder", ex);
     }
   }
+
+  /**
+   * Returns the statistics of the last automatic save operation, 
+   * or <code>null</code> if homes weren't automatically saved yet.
+   */
+  public AutoSaveStatistics getLastAutoSaveStatistics() {
+    return this.lastAutoSaveStatistics;
+  }
+
+  /**
+   * The count of homes handled during an automatic save operation and the time 
+   * during which Event Dispatch Thread was blocked to prepare their save.
+   */
+  public static class AutoSaveStatistics {
+    private final int  savedHomeCount;
+    private final int  journaledHomeCount;
+    private final int  skippedHomeCount;
+    private final long pauseTime;
+
+    private AutoSaveStatistics(int savedHomeCount, int journaledHomeCount, int skippedHomeCount, long pauseTime) {
+      this.savedHomeCount = savedHomeCount;
+      this.journaledHomeCount = journaledHomeCount;
+      this.skippedHomeCount = skippedHomeCount;
+      this.pauseTime = pauseTime;
+    }
+
+    /**
+     * Returns the count of homes fully saved from a snapshot.
+     */
+    public int getSavedHomeCount() {
+      return this.savedHomeCount;
+    }
+
+    /**
+     * Returns the count of homes which changes were appended to their journal.
+     */
+    public int getJournaledHomeCount() {
+      return this.journaledHomeCount;
+    }
+
+    /**
+     * Returns the count of homes ignored because they didn't change since their last automatic save.
+     */
+    public int getSkippedHomeCount() {
+      return this.skippedHomeCount;
+    }
+
+    /**
+     * Returns the time in nanoseconds during which Event Dispatch Thread was blocked.
+     */
+    public long getPauseTime() {
+      return this.pauseTime;
+    }
+
+    @Override
+    public String toString() {
+      return "Auto save [saved " + getSavedHomeCount() + ", journaled " + getJournaledHomeCount() 
+          + ", skipped " + getSkippedHomeCount() + ", pause " + getPauseTime() / 1000 + " us]";
+    }
+  }
 }
\ No newline at end of file
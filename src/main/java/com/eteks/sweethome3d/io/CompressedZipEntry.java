@@ -0,0 +1,287 @@
+/*
+ * CompressedZipEntry.java 17 oct. 2026
+ *
+ * Sweet Home 3D, Copyright (c) 2026 Emmanuel PUYBARET / eTeks <info@eteks.com>
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation; either version 2 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA  02111-1307  USA
+ */
+package com.eteks.sweethome3d.io;
+
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.io.OutputStream;
+import java.util.zip.CRC32;
+import java.util.zip.Deflater;
+import java.util.zip.ZipEntry;
+
+import com.eteks.sweethome3d.tools.OperatingSystem;
+
+/**
+ * A zip entry which data was compressed ahead of its writing in a {@link RawZipOutputStream},
+ * and kept in memory or in a temporary file when it's too large, or which compressed data
+ * will be copied from an other zip file.
+ * @author Emmanuel Puybaret
+ */
+class CompressedZipEntry {
+  private static final int MEMORY_THRESHOLD = 4 * 1024 * 1024;
+
+  private final String name;
+  private int          method;
+  private long         crc;
+  private long         size;
+  private long         compressedSize;
+  private byte []      data;
+  private int          dataLength;
+  private File         dataFile;
+  private RawZipFile   sourceZipFile;
+  private RawZipFile.Entry sourceEntry;
+
+  private CompressedZipEntry(String name) {
+    this.name = name;
+  }
+
+  /**
+   * Returns a new entry named <code>name</code> containing the data read from <code>in</code>,
+   * deflated at the given compression level. The data of images and zip files is stored
+   * without compression since deflating it again would only cost time.
+   * The given stream isn't closed by this method.
+   */
+  public static CompressedZipEntry compress(String name, InputStream in,
+                                            int compressionLevel) throws IOException {
+    CompressedZipEntry entry = new CompressedZipEntry(name);
+    byte [] buffer = new byte [65536];
+    int length = readFully(in, buffer);
+    entry.method = compressionLevel == 0 || isCompressedData(buffer, length)
+        ? ZipEntry.STORED
+        : ZipEntry.DEFLATED;
+    CRC32 crc = new CRC32();
+    SpillableOutputStream out = new SpillableOutputStream();
+    Deflater deflater = entry.method == ZipEntry.DEFLATED
+        ? new Deflater(compressionLevel, true)
+        : null;
+    byte [] deflatedBuffer = deflater != null
+        ? new byte [buffer.length]
+        : null;
+    try {
+      while (length > 0) {
+        if (Thread.currentThread().isInterrupted()) {
+          throw new InterruptedIOException();
+        }
+        crc.update(buffer, 0, length);
+        entry.size += length;
+        if (deflater != null) {
+          deflater.setInput(buffer, 0, length);
+          while (!deflater.needsInput()) {
+            int deflatedLength = deflater.deflate(deflatedBuffer);
+            out.write(deflatedBuffer, 0, deflatedLength);
+          }
+        } else {
+          out.write(buffer, 0, length);
+        }
+        length = readFully(in, buffer);
+      }
+      if (deflater != null) {
+        deflater.finish();
+        while (!deflater.finished()) {
+          int deflatedLength = deflater.deflate(deflatedBuffer);
+          out.write(deflatedBuffer, 0, deflatedLength);
+        }
+      }
+      out.close();
+    } catch (IOException ex) {
+      out.dispose();
+      throw ex;
+    } finally {
+      if (deflater != null) {
+        deflater.end();
+      }
+    }
+    entry.crc = crc.getValue();
+    entry.compressedSize = out.getCount();
+    entry.data = out.getData();
+    entry.dataLength = (int)Math.min(out.getCount(), Integer.MAX_VALUE);
+    entry.dataFile = out.getFile();
+    return entry;
+  }
+
+  /**
+   * Returns a new entry named <code>name</code> which data will be copied 
+   * without being decompressed from the given <code>entry</code> of <code>zipFile</code>.
+   */
+  public static CompressedZipEntry copy(String name, RawZipFile zipFile, RawZipFile.Entry entry) {
+    CompressedZipEntry copiedEntry = new CompressedZipEntry(name);
+    copiedEntry.method = entry.getMethod();
+    copiedEntry.crc = entry.getCrc();
+    copiedEntry.size = entry.getSize();
+    copiedEntry.compressedSize = entry.getCompressedSize();
+    copiedEntry.sourceZipFile = zipFile;
+    copiedEntry.sourceEntry = entry;
+    return copiedEntry;
+  }
+
+  /**
+   * Returns <code>true</code> if the given first bytes of a content are the ones of a JPEG,
+   * PNG, GIF or zip file.
+   */
+  static boolean isCompressedData(byte [] bytes, int length) {
+    if (length >= 4) {
+      return (bytes [0] & 0xFF) == 0xFF && (bytes [1] & 0xFF) == 0xD8 && (bytes [2] & 0xFF) == 0xFF
+          || (bytes [0] & 0xFF) == 0x89 && bytes [1] == 'P' && bytes [2] == 'N' && bytes [3] == 'G'
+          || bytes [0] == 'G' && bytes [1] == 'I' && bytes [2] == 'F' && bytes [3] == '8'
+          || bytes [0] == 'P' && bytes [1] == 'K' && bytes [2] == 3 && bytes [3] == 4;
+    } else {
+      return false;
+    }
+  }
+
+  /**
+   * Reads <code>in</code> until <code>buffer</code> is full or the end of stream is reached,
+   * and returns the count of read bytes.
+   */
+  private static int readFully(InputStream in, byte [] buffer) throws IOException {
+    int length = 0;
+    for (int size; length < buffer.length
+                   && (size = in.read(buffer, length, buffer.length - length)) != -1; ) {
+      length += size;
+    }
+    return length;
+  }
+
+  /**
+   * Returns the name of this entry.
+   */
+  public String getName() {
+    return this.name;
+  }
+
+  /**
+   * Returns the uncompressed size of this entry.
+   */
+  public long getSize() {
+    return this.size;
+  }
+
+  /**
+   * Returns the compressed size of this entry.
+   */
+  public long getCompressedSize() {
+    return this.compressedSize;
+  }
+
+  /**
+   * Writes this entry and its compressed data in the given stream.
+   */
+  public void writeTo(RawZipOutputStream zipOut) throws IOException {
+    if (this.sourceZipFile != null) {
+      this.sourceZipFile.copyEntry(this.sourceEntry, this.name, zipOut);
+    } else {
+      zipOut.putNextEntry(this.name, this.method, this.crc, this.size, this.compressedSize);
+      if (this.dataFile != null) {
+        try (InputStream in = new FileInputStream(this.dataFile)) {
+          byte [] buffer = new byte [65536];
+          int size;
+          while ((size = in.read(buffer)) != -1) {
+            zipOut.write(buffer, 0, size);
+          }
+        }
+      } else {
+        zipOut.write(this.data, 0, this.dataLength);
+      }
+      zipOut.closeEntry();
+    }
+  }
+
+  /**
+   * Releases the memory or the temporary file used by the data of this entry.
+   */
+  public void dispose() {
+    this.data = null;
+    if (this.dataFile != null) {
+      this.dataFile.delete();
+      this.dataFile = null;
+    }
+  }
+
+  /**
+   * An output stream which keeps data in memory until it gets too large,
+   * then continues in a temporary file.
+   */
+  private static class SpillableOutputStream extends OutputStream {
+    private ByteArrayOutputStream memoryOut = new ByteArrayOutputStream(8192);
+    private OutputStream          fileOut;
+    private File                  file;
+    private long                  count;
+
+    @Override
+    public void write(int b) throws IOException {
+      write(new byte [] {(byte)b}, 0, 1);
+    }
+
+    @Override
+    public void write(byte [] b, int off, int len) throws IOException {
+      if (this.fileOut == null
+          && this.count + len > MEMORY_THRESHOLD) {
+        this.file = OperatingSystem.createTemporaryFile("entry", ".tmp");
+        this.fileOut = new BufferedOutputStream(new FileOutputStream(this.file), 65536);
+        this.memoryOut.writeTo(this.fileOut);
+        this.memoryOut = null;
+      }
+      if (this.fileOut != null) {
+        this.fileOut.write(b, off, len);
+      } else {
+        this.memoryOut.write(b, off, len);
+      }
+      this.count += len;
+    }
+
+    @Override
+    public void close() throws IOException {
+      if (this.fileOut != null) {
+        this.fileOut.close();
+      }
+    }
+
+    public long getCount() {
+      return this.count;
+    }
+
+    public byte [] getData() {
+      return this.memoryOut != null
+          ? this.memoryOut.toByteArray()
+          : null;
+    }
+
+    public File getFile() {
+      return this.file;
+    }
+
+    public void dispose() {
+      try {
+        close();
+      } catch (IOException ex) {
+        // Ignore close exception
+      }
+      if (this.file != null) {
+        this.file.delete();
+      }
+    }
+  }
+}
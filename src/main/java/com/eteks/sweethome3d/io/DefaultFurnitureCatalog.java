@@ -33,13 +33,20 @@ import java.util.Arrays;
 import java.util.Collections;
 import java.util.Enumeration;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Locale;
 import java.util.Map;
 import java.util.MissingResourceException;
 import java.util.ResourceBundle;
+import java.util.Set;
+import java.util.TreeMap;
 import java.util.WeakHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 
 import com.eteks.sweethome3d.model.CatalogDoorOrWindow;
 import com.eteks.sweethome3d.model.CatalogLight;
@@ -366,9 +373,11 @@ public class DefaultFurnitureCatalog extends FurnitureCatalog {
   private static final String CONTRIBUTED_FURNITURE_CATALOG_FAMILY = "ContributedFurnitureCatalog";
   private static final String ADDITIONAL_FURNITURE_CATALOG_FAMILY  = "AdditionalFurnitureCatalog";
   
-  private static Map<ResourceBundle, Map<Integer, List<String>>> furnitureAdditionalKeys = new WeakHashMap<>();
+  private static Map<ResourceBundle, Map<Integer, List<String>>> furnitureAdditionalKeys = 
+      Collections.synchronizedMap(new WeakHashMap<>());
   
-  private List<Library> libraries = new ArrayList<>();
+  private List<Library>           libraries = new ArrayList<>();
+  private List<LoadingStatistics> loadingStatistics = new ArrayList<>();
   
   /**
    * Creates a default furniture catalog read from resources in the package of this class.
@@ -397,30 +406,36 @@ public class DefaultFurnitureCatalog extends FurnitureCatalog {
   /**
    * Creates a default furniture catalog read from resources and   
    * furniture plugin folders if <code>furniturePluginFolders</code> isn't <code>null</code>.
+   * Plugin files are read in parallel, then their furniture is added to this catalog at once.
    */
   public DefaultFurnitureCatalog(final UserPreferences preferences, 
                                  File [] furniturePluginFolders) {
-    Map<FurnitureCategory, Map<CatalogPieceOfFurniture, Integer>> furnitureHomonymsCounter =
-            new HashMap<>();
-    List<String> identifiedFurniture = new ArrayList<>();
+    Map<FurnitureCategory, List<CatalogPieceOfFurniture>> furniture = new TreeMap<>();
+    Set<String> identifiedFurniture = new HashSet<>();
     
-    readDefaultFurnitureCatalogs(preferences, furnitureHomonymsCounter, identifiedFurniture);
+    readDefaultFurnitureCatalogs(preferences, furniture, identifiedFurniture);
     
     if (furniturePluginFolders != null) {
+      List<File> pluginFurnitureCatalogFiles = new ArrayList<>();
       for (File furniturePluginFolder : furniturePluginFolders) {
         // Try to load sh3f files from furniture plugin folder
-        File [] pluginFurnitureCatalogFiles = furniturePluginFolder.listFiles(pathname -> pathname.isFile());
+        File [] folderFiles = furniturePluginFolder.listFiles(pathname -> pathname.isFile());
         
-        if (pluginFurnitureCatalogFiles != null) {
+        if (folderFiles != null) {
           // Treat furniture catalog files in reverse order of their version
-          Arrays.sort(pluginFurnitureCatalogFiles, Collections.reverseOrder(OperatingSystem.getFileVersionComparator()));
-          for (File pluginFurnitureCatalogFile : pluginFurnitureCatalogFiles) {
-            // Try to load the properties file describing furniture catalog from current file  
-            readPluginFurnitureCatalog(pluginFurnitureCatalogFile, identifiedFurniture);
-          }
+          Arrays.sort(folderFiles, Collections.reverseOrder(OperatingSystem.getFileVersionComparator()));
+          pluginFurnitureCatalogFiles.addAll(Arrays.asList(folderFiles));
+        }
+      }
+      // Merge furniture in the order of files to keep the first piece read among the ones with a same ID 
+      for (LibraryFurniture libraryFurniture : readPluginFurnitureCatalogs(pluginFurnitureCatalogFiles)) {
+        if (libraryFurniture.library != null) {
+          this.libraries.add(0, libraryFurniture.library);
         }
+        mergeFurniture(libraryFurniture, furniture, identifiedFurniture);
       }
     }
+    addFurniture(furniture);
   }
 
   /**
@@ -437,7 +452,8 @@ public class DefaultFurnitureCatalog extends FurnitureCatalog {
    */
   public DefaultFurnitureCatalog(URL [] pluginFurnitureCatalogUrls,
                                  URL    furnitureResourcesUrlBase) {
-    List<String> identifiedFurniture = new ArrayList<>();
+    Map<FurnitureCategory, List<CatalogPieceOfFurniture>> furniture = new TreeMap<>();
+    Set<String> identifiedFurniture = new HashSet<>();
     try {
       SecurityManager securityManager = System.getSecurityManager();
       if (securityManager != null) {
@@ -445,21 +461,28 @@ public class DefaultFurnitureCatalog extends FurnitureCatalog {
       }
 
       for (URL pluginFurnitureCatalogUrl : pluginFurnitureCatalogUrls) {
+        long startTime = System.nanoTime();
+        LibraryFurniture libraryFurniture = new LibraryFurniture(pluginFurnitureCatalogUrl.toExternalForm());
         try {        
           ResourceBundle resource = ResourceBundle.getBundle(PLUGIN_FURNITURE_CATALOG_FAMILY, Locale.getDefault(), 
               new URLContentClassLoader(pluginFurnitureCatalogUrl));
-          this.libraries.add(0, new DefaultLibrary(pluginFurnitureCatalogUrl.toExternalForm(), 
+          this.libraries.add(0, new DefaultLibrary(libraryFurniture.location, 
               UserPreferences.FURNITURE_LIBRARY_TYPE, resource));
-          readFurniture(resource, pluginFurnitureCatalogUrl, furnitureResourcesUrlBase, identifiedFurniture);
+          readFurniture(resource, pluginFurnitureCatalogUrl, furnitureResourcesUrlBase, libraryFurniture);
         } catch (MissingResourceException | IllegalArgumentException ex) {
           // Ignore malformed furniture catalog
         }
+        libraryFurniture.loadTime = System.nanoTime() - startTime;
+        mergeFurniture(libraryFurniture, furniture, identifiedFurniture);
       }
     } catch (AccessControlException ex) {
       // Use only furniture accessible through classpath
       ResourceBundle resource = ResourceBundle.getBundle(PLUGIN_FURNITURE_CATALOG_FAMILY, Locale.getDefault());
-      readFurniture(resource, null, furnitureResourcesUrlBase, identifiedFurniture);
+      LibraryFurniture libraryFurniture = new LibraryFurniture(PLUGIN_FURNITURE_CATALOG_FAMILY);
+      readFurniture(resource, null, furnitureResourcesUrlBase, libraryFurniture);
+      mergeFurniture(libraryFurniture, furniture, identifiedFurniture);
     }
+    addFurniture(furniture);
   }
   
   /**
@@ -470,13 +493,57 @@ public class DefaultFurnitureCatalog extends FurnitureCatalog {
     return Collections.unmodifiableList(this.libraries);
   }
 
-  private static final Map<File,URL> pluginFurnitureCatalogUrlUpdates = new HashMap<>();
+  /**
+   * Returns the count of pieces read in each library or resource family 
+   * of this catalog and the time spent to read them, in reading order.
+   */
+  public List<LoadingStatistics> getLoadingStatistics() {
+    return Collections.unmodifiableList(this.loadingStatistics);
+  }
+
+  private static final Map<File,URL> pluginFurnitureCatalogUrlUpdates = Collections.synchronizedMap(new HashMap<>());
   
+  /**
+   * Reads plug-in furniture catalogs from the given files in parallel, one task per file.
+   * @return the furniture read in each file, in the order of <code>pluginFurnitureCatalogFiles</code>.
+   */
+  private List<LibraryFurniture> readPluginFurnitureCatalogs(List<File> pluginFurnitureCatalogFiles) {
+    List<LibraryFurniture> librariesFurniture = new ArrayList<>(pluginFurnitureCatalogFiles.size());
+    if (pluginFurnitureCatalogFiles.size() == 1) {
+      librariesFurniture.add(readPluginFurnitureCatalog(pluginFurnitureCatalogFiles.get(0)));
+    } else if (pluginFurnitureCatalogFiles.size() > 1) {
+      ExecutorService furnitureCatalogsReader = Executors.newFixedThreadPool(
+          Math.min(pluginFurnitureCatalogFiles.size(), Runtime.getRuntime().availableProcessors()));
+      try {
+        List<Future<LibraryFurniture>> readFurniture = new ArrayList<>(pluginFurnitureCatalogFiles.size());
+        for (final File pluginFurnitureCatalogFile : pluginFurnitureCatalogFiles) {
+          readFurniture.add(furnitureCatalogsReader.submit(() -> readPluginFurnitureCatalog(pluginFurnitureCatalogFile)));
+        }
+        for (Future<LibraryFurniture> libraryFurniture : readFurniture) {
+          librariesFurniture.add(libraryFurniture.get());
+        }
+      } catch (InterruptedException ex) {
+        // Keep furniture read until now
+        Thread.currentThread().interrupt();
+      } catch (ExecutionException ex) {
+        if (ex.getCause() instanceof RuntimeException) {
+          throw (RuntimeException)ex.getCause();
+        } else {
+          throw new RuntimeException(ex.getCause());
+        }
+      } finally {
+        furnitureCatalogsReader.shutdownNow();
+      }
+    }
+    return librariesFurniture;
+  }
+
   /**
    * Reads plug-in furniture catalog from the <code>pluginFurnitureCatalogFile</code> file. 
    */
-  private void readPluginFurnitureCatalog(File pluginFurnitureCatalogFile,
-                                          List<String> identifiedFurniture) {
+  private LibraryFurniture readPluginFurnitureCatalog(File pluginFurnitureCatalogFile) {
+    long startTime = System.nanoTime();
+    LibraryFurniture libraryFurniture = new LibraryFurniture(pluginFurnitureCatalogFile.getPath());
     try {
       final URL pluginFurnitureCatalogUrl;
       long urlModificationDate = pluginFurnitureCatalogFile.lastModified();
@@ -498,33 +565,35 @@ public class DefaultFurnitureCatalog extends FurnitureCatalog {
       
       final ClassLoader urlLoader = new URLContentClassLoader(pluginFurnitureCatalogUrl);
       ResourceBundle resourceBundle = ResourceBundle.getBundle(PLUGIN_FURNITURE_CATALOG_FAMILY, Locale.getDefault(), urlLoader);
-      this.libraries.add(0, new DefaultLibrary(pluginFurnitureCatalogFile.getCanonicalPath(), 
-          UserPreferences.FURNITURE_LIBRARY_TYPE, resourceBundle));
-      readFurniture(resourceBundle, pluginFurnitureCatalogUrl, null, identifiedFurniture);
+      libraryFurniture.library = new DefaultLibrary(pluginFurnitureCatalogFile.getCanonicalPath(), 
+          UserPreferences.FURNITURE_LIBRARY_TYPE, resourceBundle);
+      readFurniture(resourceBundle, pluginFurnitureCatalogUrl, null, libraryFurniture);
     } catch (MissingResourceException | IOException | IllegalArgumentException ex) {
       // Ignore malformed furniture catalog
     }
+    libraryFurniture.loadTime = System.nanoTime() - startTime;
+    return libraryFurniture;
   }
   
   /**
    * Reads the default furniture described in properties files accessible through classpath.
    */
   private void readDefaultFurnitureCatalogs(UserPreferences preferences,
-                                            Map<FurnitureCategory, Map<CatalogPieceOfFurniture, Integer>> furnitureHomonymsCounter,
-                                            List<String> identifiedFurniture) {
+                                            Map<FurnitureCategory, List<CatalogPieceOfFurniture>> furniture,
+                                            Set<String> identifiedFurniture) {
     // Try to load com.eteks.sweethome3d.io.DefaultFurnitureCatalog property file from classpath 
     String defaultFurnitureCatalogFamily = DefaultFurnitureCatalog.class.getName();
     readFurnitureCatalog(defaultFurnitureCatalogFamily, 
-        preferences, furnitureHomonymsCounter, identifiedFurniture);
+        preferences, furniture, identifiedFurniture);
     
     // Try to load com.eteks.sweethome3d.io.ContributedFurnitureCatalog property file from classpath 
     String classPackage = defaultFurnitureCatalogFamily.substring(0, defaultFurnitureCatalogFamily.lastIndexOf("."));
     readFurnitureCatalog(classPackage + "." + CONTRIBUTED_FURNITURE_CATALOG_FAMILY, 
-        preferences, furnitureHomonymsCounter, identifiedFurniture);
+        preferences, furniture, identifiedFurniture);
     
     // Try to load com.eteks.sweethome3d.io.AdditionalFurnitureCatalog property file from classpath
     readFurnitureCatalog(classPackage + "." + ADDITIONAL_FURNITURE_CATALOG_FAMILY, 
-        preferences, furnitureHomonymsCounter, identifiedFurniture);
+        preferences, furniture, identifiedFurniture);
   }
   
   /**
@@ -532,8 +601,9 @@ public class DefaultFurnitureCatalog extends FurnitureCatalog {
    */
   private void readFurnitureCatalog(final String furnitureCatalogFamily,
                                     final UserPreferences preferences,
-                                    Map<FurnitureCategory, Map<CatalogPieceOfFurniture, Integer>> furnitureHomonymsCounter,
-                                    List<String> identifiedFurniture) {
+                                    Map<FurnitureCategory, List<CatalogPieceOfFurniture>> furniture,
+                                    Set<String> identifiedFurniture) {
+    long startTime = System.nanoTime();
     ResourceBundle resource;
     if (preferences != null) {
       // Adapt getLocalizedString to ResourceBundle
@@ -572,7 +642,10 @@ public class DefaultFurnitureCatalog extends FurnitureCatalog {
         return;
       }
     }
-    readFurniture(resource, null, null, identifiedFurniture);
+    LibraryFurniture libraryFurniture = new LibraryFurniture(furnitureCatalogFamily);
+    readFurniture(resource, null, null, libraryFurniture);
+    libraryFurniture.loadTime = System.nanoTime() - startTime;
+    mergeFurniture(libraryFurniture, furniture, identifiedFurniture);
   }
   
   /**
@@ -583,7 +656,7 @@ public class DefaultFurnitureCatalog extends FurnitureCatalog {
   private void readFurniture(ResourceBundle resource, 
                              URL furnitureCatalogUrl,
                              URL furnitureResourcesUrlBase,
-                             List<String> identifiedFurniture) {
+                             LibraryFurniture libraryFurniture) {
     int index = 0;
     while (true) {
       // Ignore furniture with a key ignored# set at true
@@ -603,24 +676,40 @@ public class DefaultFurnitureCatalog extends FurnitureCatalog {
           // Read furniture until no data is found at current index
           break;
         } else {
-          if (piece.getId() != null) {
-            // Take into account only furniture that have an ID
-            if (identifiedFurniture.contains(piece.getId())) {
-              continue;
-            } else {
-              // Add id to identifiedFurniture to be sure that two pieces with a same ID
-              // won't be added twice to furniture catalog (in case they are cited twice
-              // in different furniture properties files)
-              identifiedFurniture.add(piece.getId());
-            }
-          } 
-          FurnitureCategory pieceCategory = readFurnitureCategory(resource, index);
-          add(pieceCategory, piece);
+          libraryFurniture.categories.add(readFurnitureCategory(resource, index));
+          libraryFurniture.furniture.add(piece);
         }
       } 
     } 
   }
 
+  /**
+   * Adds the furniture read in a library to the given <code>furniture</code> map 
+   * and records its loading statistics.
+   */
+  private void mergeFurniture(LibraryFurniture libraryFurniture, 
+                              Map<FurnitureCategory, List<CatalogPieceOfFurniture>> furniture,
+                              Set<String> identifiedFurniture) {
+    for (int i = 0; i < libraryFurniture.furniture.size(); i++) {
+      CatalogPieceOfFurniture piece = libraryFurniture.furniture.get(i);
+      // Take into account only furniture that have an ID and add its id to identifiedFurniture 
+      // to be sure that two pieces with a same ID won't be added twice to furniture catalog 
+      // (in case they are cited twice in different furniture properties files)
+      if (piece.getId() == null 
+          || identifiedFurniture.add(piece.getId())) {
+        FurnitureCategory pieceCategory = libraryFurniture.categories.get(i);
+        List<CatalogPieceOfFurniture> categoryFurniture = furniture.get(pieceCategory);
+        if (categoryFurniture == null) {
+          categoryFurniture = new ArrayList<>();
+          furniture.put(pieceCategory, categoryFurniture);
+        }
+        categoryFurniture.add(piece);
+      }
+    }
+    this.loadingStatistics.add(new LoadingStatistics(libraryFurniture.location, 
+        libraryFurniture.furniture.size(), libraryFurniture.loadTime));
+  }
+
   /**
    * Returns the properties of the piece at the given <code>index</code> 
    * different from default properties.
@@ -690,6 +779,7 @@ public class DefaultFurnitureCatalog extends FurnitureCatalog {
   /**
    * Returns the piece of furniture at the given <code>index</code> of a 
    * localized <code>resource</code> bundle. 
+   * This method may be called in parallel for the bundles of different plug-in files.
    * @param resource             a resource bundle 
    * @param index                the index of the read piece
    * @param furnitureCatalogUrl  the URL from which piece resources will be loaded 
@@ -1062,5 +1152,61 @@ public class DefaultFurnitureCatalog extends FurnitureCatalog {
       return defaultValue;
     }
   }
-}
 
+  /**
+   * The furniture read in a library or a resource family with the category of each piece.
+   */
+  private static class LibraryFurniture {
+    private final String                        location;
+    private final List<CatalogPieceOfFurniture> furniture = new ArrayList<>();
+    private final List<FurnitureCategory>       categories = new ArrayList<>();
+    private Library                             library;
+    private long                                loadTime;
+
+    public LibraryFurniture(String location) {
+      this.location = location;
+    }
+  }
+
+  /**
+   * The count of pieces read in a furniture library or a resource family and the time spent to read them.
+   */
+  public static class LoadingStatistics {
+    private final String location;
+    private final int    furnitureCount;
+    private final long   loadTime;
+
+    private LoadingStatistics(String location, int furnitureCount, long loadTime) {
+      this.location = location;
+      this.furnitureCount = furnitureCount;
+      this.loadTime = loadTime;
+    }
+
+    /**
+     * Returns the location of the library file or the name of the resource family.
+     */
+    public String getLocation() {
+      return this.location;
+    }
+
+    /**
+     * Returns the count of pieces read, including the ones ignored because of a duplicated ID.
+     */
+    public int getFurnitureCount() {
+      return this.furnitureCount;
+    }
+
+    /**
+     * Returns the time in nanoseconds spent to read the pieces.
+     */
+    public long getLoadTime() {
+      return this.loadTime;
+    }
+
+    @Override
+    public String toString() {
+      return this.location + " [furniture " + getFurnitureCount() 
+          + ", time " + getLoadTime() / 1000000 + " ms]";
+    }
+  }
+}
@@ -66,8 +66,10 @@ public class DefaultHomeInputStream extends FilterInputStream {
   private final HomeXMLHandler     xmlHandler;
   private final UserPreferences    preferences;
   private final boolean            preferPreferencesContent;
+  private final boolean            lazyContentLoading;
 
-  private File zipFile;
+  private File               zipFile;
+  private HomeContentContext contentContext;
 
   /**
    * Creates a home input stream filter able to read a home and its content
@@ -125,11 +127,41 @@ public class DefaultHomeInputStream extends FilterInputStream {
                                 HomeXMLHandler xmlHandler,
                                 UserPreferences preferences,
                                 boolean preferPreferencesContent) {
+    this(in, contentRecording, xmlHandler, preferences, preferPreferencesContent, false);
+  }
+
+  /**
+   * Creates a home input stream filter able to read a home and its content
+   * from <code>in</code>.
+   * @param in  the zipped stream from which the home will be read
+   * @param contentRecording  specifies whether content referenced by the read home is included
+   *            or not in the stream.
+   * @param xmlHandler  SAX handler used to parse <code>Home.xml</code> entry when present, or
+   *            <code>null</code> if only <code>Home</code> entry should taken into account.
+   * @param preferences  if not <code>null</code> and <code>preferPreferencesContent</code>
+   *            is <code>true</code>, the furniture and textures contents it references will
+   *            replace the one of the read home when they are equal.
+   *            If <code>preferPreferencesContent</code> is <code>false</code>, preferences
+   *            content will be used only to replace damaged equal content that might be found
+   *            in read home files.
+   * @param preferPreferencesContent if <code>true</code>, the returned home will reference
+   *            contents in preferences when equal.
+   * @param lazyContentLoading if <code>true</code>, the entries of the zipped stream won't be
+   *            all checked before the home is read, and the contents of the returned home will be
+   *            inflated only once they're used. Damaged contents will be detected only when read.
+   */
+  public DefaultHomeInputStream(InputStream in,
+                                ContentRecording contentRecording,
+                                HomeXMLHandler xmlHandler,
+                                UserPreferences preferences,
+                                boolean preferPreferencesContent,
+                                boolean lazyContentLoading) {
     super(new PushbackInputStream(in, 5));
     this.contentRecording = contentRecording;
     this.xmlHandler = xmlHandler;
     this.preferences = preferences;
     this.preferPreferencesContent = preferPreferencesContent;
+    this.lazyContentLoading = lazyContentLoading;
   }
 
   /**
@@ -161,6 +193,7 @@ public class DefaultHomeInputStream extends FilterInputStream {
     this.xmlHandler = xmlHandler;
     this.preferences = preferences;
     this.preferPreferencesContent = preferPreferencesContent;
+    this.lazyContentLoading = false;
   }
 
   /**
@@ -219,14 +252,24 @@ public class DefaultHomeInputStream extends FilterInputStream {
     boolean validZipFile = true;
     URL homeUrl = null;
     HomeContentContext contentContext = null;
+    SharedZipFile homeZipFile = null;
     if (this.contentRecording != ContentRecording.INCLUDE_NO_CONTENT) {
       InputStream homeIn = null;
       if (this.zipFile == null) {
         if (isZipPrefix()) {
           // If it's a zipped content stream, copy home stream in a temporary file
           this.zipFile = OperatingSystem.createTemporaryFile("open", ".sweethome3d");
-          OutputStream fileCopyOut = new BufferedOutputStream(new FileOutputStream(this.zipFile));
-          homeIn = new CopiedInputStream(new BufferedInputStream(this.in), fileCopyOut);
+          if (this.lazyContentLoading) {
+            // Copy the stream as is and read its entries only when needed
+            copyInputStreamToFile(this.in, this.zipFile);
+            homeZipFile = openZipFile(this.zipFile);
+            if (homeZipFile == null) {
+              homeIn = new FileInputStream(this.zipFile);
+            }
+          } else {
+            OutputStream fileCopyOut = new BufferedOutputStream(new FileOutputStream(this.zipFile));
+            homeIn = new CopiedInputStream(new BufferedInputStream(this.in), fileCopyOut);
+          }
         } else {
           zipContent = false;
           validZipFile = false;
@@ -235,7 +278,11 @@ public class DefaultHomeInputStream extends FilterInputStream {
         homeIn = this.in;
       }
 
-      if (validZipFile) {
+      if (homeZipFile != null) {
+        homeUrl = this.zipFile.toURI().toURL();
+        contentContext = new HomeContentContext(homeUrl, homeZipFile, this.preferences, this.preferPreferencesContent);
+        this.contentContext = contentContext;
+      } else if (validZipFile) {
         // Check if all entries in the home file can be fully read using a zipped input stream
         List<ZipEntry> validEntries = new ArrayList<ZipEntry>();
         validZipFile = isZipFileValidUsingInputStream(homeIn, validEntries) && validEntries.size() > 0;
@@ -255,13 +302,41 @@ public class DefaultHomeInputStream extends FilterInputStream {
 
         homeUrl = this.zipFile.toURI().toURL();
         contentContext = new HomeContentContext(homeUrl, this.preferences, this.preferPreferencesContent);
+        this.contentContext = contentContext;
       }
     }
 
     InputStream homeObjectIn = null;
     try {
       Home home;
-      if (zipContent) {
+      if (homeZipFile != null) {
+        // Read Home.xml or Home entry directly from zip file
+        homeObjectIn = this.xmlHandler != null
+            ? homeZipFile.getInputStream("Home.xml")
+            : null;
+        boolean homeXmlEntry = homeObjectIn != null;
+        if (homeObjectIn == null) {
+          homeObjectIn = homeZipFile.getInputStream("Home");
+        }
+        if (homeObjectIn == null) {
+          throw new IOException("Missing entry \"Home\" or \"Home.xml\"");
+        }
+        checkCurrentThreadIsntInterrupted();
+        if (homeXmlEntry) {
+          home = readHomeXML(homeObjectIn, contentContext);
+        } else {
+          home = readHomeObject(homeObjectIn, contentContext);
+        }
+
+        // Check all content exists
+        if (contentContext.containsInvalidContents()) {
+          if (contentContext.containsCheckedContents()) {
+            home.setRepaired(true);
+          } else {
+            throw new DamagedHomeIOException(home, contentContext.getInvalidContents());
+          }
+        }
+      } else if (zipContent) {
         boolean homeEntry = false;
         boolean homeXmlEntry = false;
 
@@ -341,6 +416,40 @@ public class DefaultHomeInputStream extends FilterInputStream {
     }
   }
 
+  /**
+   * Copies the given input stream in <code>file</code>.
+   */
+  private void copyInputStreamToFile(InputStream in, File file) throws IOException {
+    try (OutputStream out = new FileOutputStream(file)) {
+      byte [] buffer = new byte [65536];
+      int size;
+      while ((size = in.read(buffer)) != -1) {
+        out.write(buffer, 0, size);
+        checkCurrentThreadIsntInterrupted();
+      }
+    }
+  }
+
+  /**
+   * Returns the given zip <code>file</code> shared to read its entries on demand,
+   * or <code>null</code> if its central directory can't be read.
+   */
+  private SharedZipFile openZipFile(File file) {
+    try {
+      return new SharedZipFile(file);
+    } catch (IOException ex) {
+      return null;
+    }
+  }
+
+  /**
+   * Returns the context used to look up the content of the last read home,
+   * or <code>null</code> if its content wasn't read from a zipped stream.
+   */
+  HomeContentContext getContentContext() {
+    return this.contentContext;
+  }
+
   /**
    * Returns the home read from the given serialized input stream.
    */
@@ -19,6 +19,8 @@
  */
 package com.eteks.sweethome3d.io;
 
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
 import java.io.File;
 import java.io.FilterOutputStream;
 import java.io.IOException;
@@ -29,12 +31,22 @@ import java.io.OutputStream;
 import java.io.OutputStreamWriter;
 import java.net.URISyntaxException;
 import java.net.URL;
+import java.net.URLDecoder;
 import java.net.URLEncoder;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 import java.util.zip.ZipEntry;
 import java.util.zip.ZipOutputStream;
 
@@ -56,6 +68,8 @@ public class DefaultHomeOutputStream extends FilterOutputStream {
   private ContentRecording contentRecording;
   private boolean          serializedHome;
   private HomeXMLExporter  homeXmlExporter;
+  private boolean          parallelCompression;
+  private Map<Content, String> savedContentNames;
   
   /**
    * Creates a stream that will save a home and all the contents it references
@@ -113,6 +127,32 @@ public class DefaultHomeOutputStream extends FilterOutputStream {
                                  ContentRecording contentRecording,
                                  boolean          serializedHome,
                                  HomeXMLExporter  homeXmlExporter) throws IOException {
+    this(out, compressionLevel, contentRecording, serializedHome, homeXmlExporter, false);
+  }
+
+  /**
+   * Creates a stream that will serialize a home in a zip stream. Home data will be serialized 
+   * in an entry named <code>Home</code> if <code>serializedHome</code> is <code>true</code>, 
+   * and saved in <code>Home.xml</code> entry at XML format if <code>homeXmlExporter</code> is not <code>null</code>.
+   * @param compressionLevel 0-9
+   * @param contentRecording specifies how content should be recorded with home  
+   * @param serializedHome if <code>true</code>, zip stream will include a <code>Home</code> 
+   *            entry containing the serialized home
+   * @param homeXmlExporter  if not <code>null</code>, sets how a home will be saved
+   *            in an additional <code>Home.xml</code> entry
+   * @param parallelCompression if <code>true</code>, content entries will be compressed 
+   *            in parallel by as many threads as available processors, and content 
+   *            already compressed like JPEG or PNG images and zip files will be stored 
+   *            without being deflated again. Content entries coming from local zip files, 
+   *            like the ones of a previously saved home, will be copied without being 
+   *            decompressed when their compression is compatible with <code>compressionLevel</code>
+   */
+  public DefaultHomeOutputStream(OutputStream out,
+                                 int          compressionLevel, 
+                                 ContentRecording contentRecording,
+                                 boolean          serializedHome,
+                                 HomeXMLExporter  homeXmlExporter,
+                                 boolean          parallelCompression) throws IOException {
     super(out);
     if (!serializedHome && homeXmlExporter == null) {
       throw new IllegalArgumentException("No entry specified for home data");
@@ -121,6 +161,7 @@ public class DefaultHomeOutputStream extends FilterOutputStream {
     this.contentRecording = contentRecording;
     this.serializedHome = serializedHome;
     this.homeXmlExporter = homeXmlExporter;
+    this.parallelCompression = parallelCompression;
   }
 
   /**
@@ -139,9 +180,6 @@ public class DefaultHomeOutputStream extends FilterOutputStream {
    * it points to.
    */
   public void writeHome(Home home) throws IOException {
-    // Create a zip output on out stream 
-    ZipOutputStream zipOut = new ZipOutputStream(this.out);
-    zipOut.setLevel(this.compressionLevel);
     checkCurrentThreadIsntInterrupted();
     // Track content that must be saved in the zip stream with a dummy output stream 
     HomeContentObjectsTracker contentTracker = new HomeContentObjectsTracker(new OutputStream() {
@@ -152,86 +190,307 @@ public class DefaultHomeOutputStream extends FilterOutputStream {
       });
     contentTracker.writeObject(home);
     Map<Content, String> savedContentNames = contentTracker.getSavedContentNames();
-
-    if (this.serializedHome) {
-      // Write home in the first entry named "Home"
-      zipOut.putNextEntry(new ZipEntry("Home"));
-      // Save home replacing Content objects if needed
-      HomeObjectOutputStream objectOut = new HomeObjectOutputStream(zipOut, savedContentNames);
-      objectOut.writeObject(home);
-      objectOut.flush();
-      zipOut.closeEntry();
+    this.savedContentNames = savedContentNames;
+    if (this.parallelCompression) {
+      writeHomeWithParallelCompression(home, savedContentNames);
+    } else {
+      // Create a zip output on out stream 
+      ZipOutputStream zipOut = new ZipOutputStream(this.out);
+      zipOut.setLevel(this.compressionLevel);
+      if (this.serializedHome) {
+        // Write home in the first entry named "Home"
+        zipOut.putNextEntry(new ZipEntry("Home"));
+        writeHomeObject(zipOut, home, savedContentNames);
+        zipOut.closeEntry();
+      }
+  
+      if (this.homeXmlExporter != null) {
+        // Write home at XML format in the second entry named "Home.xml"
+        zipOut.putNextEntry(new ZipEntry("Home.xml"));
+        writeHomeXML(zipOut, home, savedContentNames);
+        zipOut.closeEntry();
+      }
+      
+      if (savedContentNames.size() > 0) {
+        // In the next entry named "ContentDigests", write content digests to help repair damaged files     
+        zipOut.putNextEntry(new ZipEntry("ContentDigests"));
+        writeContentDigests(zipOut, savedContentNames);
+        zipOut.closeEntry();
+      
+        // Write Content objects in additional zip entries
+        for (Map.Entry<String, Content> contentEntry : getContentEntries(savedContentNames).entrySet()) {
+          writeZipEntry(zipOut, contentEntry.getKey(), contentEntry.getValue());
+        }  
+      }
+      // Finish zip writing
+      zipOut.finish();
     }
+  }
 
-    if (this.homeXmlExporter != null) {
-      // Write home at XML format in the second entry named "Home.xml"
-      zipOut.putNextEntry(new ZipEntry("Home.xml"));
-      // Save home replacing Content objects if needed
-      XMLWriter xmlWriter = new XMLWriter(zipOut);
-      this.homeXmlExporter.setSavedContentNames(savedContentNames);
-      this.homeXmlExporter.writeElement(xmlWriter, home);
-      xmlWriter.flush();
-      zipOut.closeEntry();
-    }
-    
-    if (savedContentNames.size() > 0) {
-      Set<String> contentEntryNames = new HashSet<String>(); 
-      // In the next entry named "ContentDigests", write content digests to help repair damaged files     
-      zipOut.putNextEntry(new ZipEntry("ContentDigests"));
-      OutputStreamWriter writer = new OutputStreamWriter(zipOut, "UTF-8");
-      ContentDigestManager digestManager = ContentDigestManager.getInstance();
-      writer.write("ContentDigests-Version: 1.0\n\n");
-      for (Map.Entry<Content, String> savedContent : savedContentNames.entrySet()) {
-        String contentEntryName = savedContent.getValue();
-        if (!contentEntryNames.contains(contentEntryName)) {
-          contentEntryNames.add(contentEntryName);
-          writer.write("Name: " + contentEntryName + "\n");
-          writer.write("SHA-1-Digest: " + Base64.encodeBytes(digestManager.getContentDigest(savedContent.getKey())) + "\n\n");
+  /**
+   * Returns the names of the entries where the content referenced by the last written home was saved.
+   */
+  Map<Content, String> getSavedContentNames() {
+    return this.savedContentNames;
+  }
+
+  /**
+   * Writes home and the <code>Content</code> objects it points to, compressing
+   * each content entry in a pool of threads before writing them in the order 
+   * of <code>savedContentNames</code>.
+   */
+  private void writeHomeWithParallelCompression(Home home, 
+                                                Map<Content, String> savedContentNames) throws IOException {
+    RawZipOutputStream zipOut = new RawZipOutputStream(this.out);
+    List<Map.Entry<String, Content>> contentEntries = 
+        new ArrayList<Map.Entry<String, Content>>(getContentEntries(savedContentNames).entrySet());
+    int threadCount = Runtime.getRuntime().availableProcessors();
+    ExecutorService compressionExecutor = Executors.newFixedThreadPool(threadCount);
+    // Keep a limited count of compressed entries waiting to be written
+    int maxPendingEntries = threadCount * 2;
+    Deque<Future<CompressedZipEntry>> pendingEntries = new ArrayDeque<Future<CompressedZipEntry>>();
+    Map<URL, RawZipFile> sourceZipFiles = new HashMap<URL, RawZipFile>();
+    try {
+      // Start compressing content entries while home entries are written
+      int nextEntryIndex = 0;
+      for ( ; nextEntryIndex < contentEntries.size() && pendingEntries.size() < maxPendingEntries; nextEntryIndex++) {
+        pendingEntries.add(submitContentEntry(contentEntries.get(nextEntryIndex), 
+            compressionExecutor, sourceZipFiles));
+      }
+      
+      if (this.serializedHome) {
+        ByteArrayOutputStream homeOut = new ByteArrayOutputStream();
+        writeHomeObject(homeOut, home, savedContentNames);
+        writeCompressedEntry(zipOut, "Home", homeOut);
+      }
+      if (this.homeXmlExporter != null) {
+        ByteArrayOutputStream homeXmlOut = new ByteArrayOutputStream();
+        writeHomeXML(homeXmlOut, home, savedContentNames);
+        writeCompressedEntry(zipOut, "Home.xml", homeXmlOut);
+      }
+      if (savedContentNames.size() > 0) {
+        ByteArrayOutputStream digestsOut = new ByteArrayOutputStream();
+        writeContentDigests(digestsOut, savedContentNames);
+        writeCompressedEntry(zipOut, "ContentDigests", digestsOut);
+      }
+
+      // Write compressed content entries in the order they were submitted 
+      while (!pendingEntries.isEmpty()) {
+        CompressedZipEntry compressedEntry = getCompressedEntry(pendingEntries.poll());
+        try {
+          compressedEntry.writeTo(zipOut);
+        } finally {
+          compressedEntry.dispose();
+        }
+        if (nextEntryIndex < contentEntries.size()) {
+          pendingEntries.add(submitContentEntry(contentEntries.get(nextEntryIndex++), 
+              compressionExecutor, sourceZipFiles));
         }
       }
-      writer.flush();
-      zipOut.closeEntry();
-    
-      // Write Content objects in additional zip entries
-      contentEntryNames.clear(); 
-      for (Map.Entry<Content, String> savedContent : savedContentNames.entrySet()) {
-        String contentEntryName = savedContent.getValue();
-        if (!contentEntryNames.contains(contentEntryName)) {
-          contentEntryNames.add(contentEntryName);
-          Content content = savedContent.getKey();
-          int slashIndex = contentEntryName.indexOf('/');
-          if (slashIndex > 0) {
-            contentEntryName = contentEntryName.substring(0, slashIndex);
+      zipOut.finish();
+    } finally {
+      compressionExecutor.shutdownNow();
+      // Free entries compressed but not written because of an error
+      for (Future<CompressedZipEntry> pendingEntry : pendingEntries) {
+        if (!pendingEntry.cancel(true)) {
+          try {
+            pendingEntry.get().dispose();
+          } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+          } catch (ExecutionException ex) {
+            // Entry compression failed
           }
-          if (content instanceof ResourceURLContent) {
-            writeResourceZipEntries(zipOut, contentEntryName, (ResourceURLContent)content);
-          } else if (content instanceof URLContent
-                     && !(content instanceof SimpleURLContent)
-                     && ((URLContent)content).isJAREntry()) {
-            URLContent urlContent = (URLContent)content;
-            // If content comes from a home stream
-            if (urlContent instanceof HomeURLContent) {
-              writeHomeZipEntries(zipOut, contentEntryName, (HomeURLContent)urlContent);            
+        }
+      }
+      for (RawZipFile sourceZipFile : sourceZipFiles.values()) {
+        if (sourceZipFile != null) {
+          sourceZipFile.close();
+        }
+      }
+    }
+  }
+
+  /**
+   * Returns the future entry matching the given content entry. If the content is stored
+   * in a local zip file with a compression compatible with the one of this stream, 
+   * its data will be copied without being decompressed once its CRC is checked, 
+   * otherwise it will be compressed by <code>compressionExecutor</code>.
+   */
+  private Future<CompressedZipEntry> submitContentEntry(Map.Entry<String, Content> contentEntry,
+                                                        ExecutorService compressionExecutor,
+                                                        Map<URL, RawZipFile> sourceZipFiles) throws IOException {
+    Content content = contentEntry.getValue();
+    if (content instanceof URLContent
+        && ((URLContent)content).isJAREntry()) {
+      URLContent urlContent = (URLContent)content;
+      URL zipUrl = urlContent.getJAREntryURL();
+      if ("file".equals(zipUrl.getProtocol())) {
+        RawZipFile zipFile;
+        if (sourceZipFiles.containsKey(zipUrl)) {
+          zipFile = sourceZipFiles.get(zipUrl);
+        } else {
+          try {
+            zipFile = new RawZipFile(new File(zipUrl.toURI()));
+          } catch (URISyntaxException | IllegalArgumentException | IOException ex) {
+            // Compress content from its stream
+            zipFile = null;
+          }
+          sourceZipFiles.put(zipUrl, zipFile);
+        }
+        if (zipFile != null) {
+          // Jar entry names are encoded in URLs except for the + character 
+          String entryName = URLDecoder.decode(urlContent.getJAREntryName().replace("+", "%2B"), "UTF-8");
+          RawZipFile.Entry entry = zipFile.getEntry(entryName);
+          if (entry != null) {
+            boolean compatibleEntry;
+            if (this.compressionLevel == 0) {
+              compatibleEntry = entry.getMethod() == ZipEntry.STORED;
+            } else if (entry.getMethod() == ZipEntry.DEFLATED) {
+              compatibleEntry = true;
             } else {
-              writeZipEntries(zipOut, contentEntryName, urlContent);
+              // Accept stored entries at a higher compression level only if they contain compressed data
+              byte [] prefix = zipFile.getStoredDataPrefix(entry, 4);
+              compatibleEntry = CompressedZipEntry.isCompressedData(prefix, prefix.length);
             }
+            if (compatibleEntry) {
+              final RawZipFile sourceZipFile = zipFile;
+              return compressionExecutor.submit(() -> {
+                  // Check copied data to avoid propagating damaged content in saved file
+                  if (sourceZipFile.isValidEntry(entry)) {
+                    return CompressedZipEntry.copy(contentEntry.getKey(), sourceZipFile, entry);
+                  } else {
+                    // Compress content from its stream that will report the error
+                    return new ContentCompressionTask(contentEntry).call();
+                  }
+                });
+            }
+          }
+        }
+      }
+    }
+    return compressionExecutor.submit(new ContentCompressionTask(contentEntry));
+  }
+
+  /**
+   * Returns the compressed entry computed by the given task.
+   */
+  private CompressedZipEntry getCompressedEntry(Future<CompressedZipEntry> compressionTask) throws IOException {
+    try {
+      return compressionTask.get();
+    } catch (InterruptedException ex) {
+      throw new InterruptedIOException();
+    } catch (ExecutionException ex) {
+      if (ex.getCause() instanceof IOException) {
+        throw (IOException)ex.getCause();
+      } else if (ex.getCause() instanceof RuntimeException) {
+        throw (RuntimeException)ex.getCause();
+      } else {
+        throw new IOException(ex.getCause());
+      }
+    }
+  }
+
+  /**
+   * Compresses the data written in <code>entryOut</code> and writes it in a new entry of <code>zipOut</code>.
+   */
+  private void writeCompressedEntry(RawZipOutputStream zipOut, String entryName, 
+                                    ByteArrayOutputStream entryOut) throws IOException {
+    checkCurrentThreadIsntInterrupted();
+    CompressedZipEntry compressedEntry = CompressedZipEntry.compress(entryName, 
+        new ByteArrayInputStream(entryOut.toByteArray()), this.compressionLevel);
+    try {
+      compressedEntry.writeTo(zipOut);
+    } finally {
+      compressedEntry.dispose();
+    }
+  }
+
+  /**
+   * Serializes <code>home</code> in <code>out</code> stream.
+   */
+  private void writeHomeObject(OutputStream out, Home home, 
+                               Map<Content, String> savedContentNames) throws IOException {
+    // Save home replacing Content objects if needed
+    HomeObjectOutputStream objectOut = new HomeObjectOutputStream(out, savedContentNames);
+    objectOut.writeObject(home);
+    objectOut.flush();
+  }
+
+  /**
+   * Writes <code>home</code> at XML format in <code>out</code> stream.
+   */
+  private void writeHomeXML(OutputStream out, Home home, 
+                            Map<Content, String> savedContentNames) throws IOException {
+    // Save home replacing Content objects if needed
+    XMLWriter xmlWriter = new XMLWriter(out);
+    this.homeXmlExporter.setSavedContentNames(savedContentNames);
+    this.homeXmlExporter.writeElement(xmlWriter, home);
+    xmlWriter.flush();
+  }
+
+  /**
+   * Writes the digests of saved content in <code>out</code> stream.
+   */
+  private void writeContentDigests(OutputStream out, 
+                                   Map<Content, String> savedContentNames) throws IOException {
+    Set<String> contentEntryNames = new HashSet<String>(); 
+    OutputStreamWriter writer = new OutputStreamWriter(out, "UTF-8");
+    ContentDigestManager digestManager = ContentDigestManager.getInstance();
+    writer.write("ContentDigests-Version: 1.0\n\n");
+    for (Map.Entry<Content, String> savedContent : savedContentNames.entrySet()) {
+      String contentEntryName = savedContent.getValue();
+      if (!contentEntryNames.contains(contentEntryName)) {
+        contentEntryNames.add(contentEntryName);
+        writer.write("Name: " + contentEntryName + "\n");
+        writer.write("SHA-1-Digest: " + Base64.encodeBytes(digestManager.getContentDigest(savedContent.getKey())) + "\n\n");
+      }
+    }
+    writer.flush();
+  }
+
+  /**
+   * Returns the zip entries that should be written for the given saved contents, 
+   * mapped to the content that each one should contain, in the order they should be written.
+   */
+  private Map<String, Content> getContentEntries(Map<Content, String> savedContentNames) throws IOException {
+    Map<String, Content> contentEntries = new LinkedHashMap<String, Content>();
+    Set<String> contentEntryNames = new HashSet<String>(); 
+    for (Map.Entry<Content, String> savedContent : savedContentNames.entrySet()) {
+      String contentEntryName = savedContent.getValue();
+      if (!contentEntryNames.contains(contentEntryName)) {
+        contentEntryNames.add(contentEntryName);
+        Content content = savedContent.getKey();
+        int slashIndex = contentEntryName.indexOf('/');
+        if (slashIndex > 0) {
+          contentEntryName = contentEntryName.substring(0, slashIndex);
+        }
+        if (content instanceof ResourceURLContent) {
+          addResourceZipEntries(contentEntries, contentEntryName, (ResourceURLContent)content);
+        } else if (content instanceof URLContent
+                   && !(content instanceof SimpleURLContent)
+                   && ((URLContent)content).isJAREntry()) {
+          URLContent urlContent = (URLContent)content;
+          // If content comes from a home stream
+          if (urlContent instanceof HomeURLContent) {
+            addHomeZipEntries(contentEntries, contentEntryName, (HomeURLContent)urlContent);            
           } else {
-            writeZipEntry(zipOut, contentEntryName, content);
+            addZipEntries(contentEntries, contentEntryName, urlContent);
           }
+        } else {
+          contentEntries.put(contentEntryName, content);
         }
-      }  
+      }
     }
-    // Finish zip writing
-    zipOut.finish();
+    return contentEntries;
   }
 
   /**
-   * Writes in <code>zipOut</code> stream one or more entries matching the content
+   * Adds to <code>contentEntries</code> one or more entries matching the content
    * <code>urlContent</code> coming from a resource file.
    */
-  private void writeResourceZipEntries(ZipOutputStream zipOut,
-                                       String entryNameOrDirectory,
-                                       ResourceURLContent urlContent) throws IOException {
+  private void addResourceZipEntries(Map<String, Content> contentEntries,
+                                     String entryNameOrDirectory,
+                                     ResourceURLContent urlContent) throws IOException {
     if (urlContent.isMultiPartResource()) {
       if (urlContent.isJAREntry()) {
         URL zipUrl = urlContent.getJAREntryURL();
@@ -246,12 +505,12 @@ public class DefaultHomeOutputStream extends FilterOutputStream {
             if (zipEntryName.startsWith(entryDirectory)) {
               Content siblingContent = new URLContent(new URL("jar:" + zipUrl + "!/" 
                   + URLEncoder.encode(zipEntryName, "UTF-8").replace("+", "%20")));
-              writeZipEntry(zipOut, entryNameOrDirectory + zipEntryName.substring(lastSlashIndex), siblingContent);
+              contentEntries.put(entryNameOrDirectory + zipEntryName.substring(lastSlashIndex), siblingContent);
             }
           }
         } else {
           // Consider the content as not a multipart resource
-          writeZipEntry(zipOut, entryNameOrDirectory, urlContent);
+          contentEntries.put(entryNameOrDirectory, urlContent);
         }
       } else {
         // This should be the case only when resource isn't in a JAR file during development
@@ -262,7 +521,7 @@ public class DefaultHomeOutputStream extends FilterOutputStream {
           // Write in home stream each file that is stored in the same directory  
           for (File siblingFile : siblingFiles) {
             if (!siblingFile.isDirectory()) {
-              writeZipEntry(zipOut, entryNameOrDirectory + "/" + siblingFile.getName(), 
+              contentEntries.put(entryNameOrDirectory + "/" + siblingFile.getName(), 
                   new URLContent(siblingFile.toURI().toURL()));
             }
           }
@@ -271,17 +530,17 @@ public class DefaultHomeOutputStream extends FilterOutputStream {
         }
       }
     } else {
-      writeZipEntry(zipOut, entryNameOrDirectory, urlContent);
+      contentEntries.put(entryNameOrDirectory, urlContent);
     }
   }
 
   /**
-   * Writes in <code>zipOut</code> stream one or more entries matching the content
+   * Adds to <code>contentEntries</code> one or more entries matching the content
    * <code>urlContent</code> coming from a home file.
    */
-  private void writeHomeZipEntries(ZipOutputStream zipOut,
-                                   String entryNameOrDirectory,
-                                   HomeURLContent urlContent) throws IOException {
+  private void addHomeZipEntries(Map<String, Content> contentEntries,
+                                 String entryNameOrDirectory,
+                                 HomeURLContent urlContent) throws IOException {
     String entryName = urlContent.getJAREntryName();
     int slashIndex = entryName.indexOf('/');
     // If content comes from a directory of a home file
@@ -294,27 +553,27 @@ public class DefaultHomeOutputStream extends FilterOutputStream {
         if (zipEntryName.startsWith(entryDirectory)) {
           Content siblingContent = new URLContent(new URL("jar:" + zipUrl + "!/" 
               + URLEncoder.encode(zipEntryName, "UTF-8").replace("+", "%20")));
-          writeZipEntry(zipOut, entryNameOrDirectory + zipEntryName.substring(slashIndex), siblingContent);
+          contentEntries.put(entryNameOrDirectory + zipEntryName.substring(slashIndex), siblingContent);
         }
       }
     } else {
-      writeZipEntry(zipOut, entryNameOrDirectory, urlContent);
+      contentEntries.put(entryNameOrDirectory, urlContent);
     }
   }
 
   /**
-   * Writes in <code>zipOut</code> stream all the sibling files of the zipped 
+   * Adds to <code>contentEntries</code> all the sibling files of the zipped 
    * <code>urlContent</code>.
    */
-  private void writeZipEntries(ZipOutputStream zipOut, 
-                               String directory,
-                               URLContent urlContent) throws IOException {
+  private void addZipEntries(Map<String, Content> contentEntries, 
+                             String directory,
+                             URLContent urlContent) throws IOException {
     // Write in alphabetic order each zipped stream entry in home stream
     for (ContentDigestManager.ZipEntryData zipEntry : ContentDigestManager.getInstance().getZipURLEntries(urlContent)) {
       String zipEntryName = zipEntry.getName();
       Content siblingContent = new URLContent(new URL("jar:" + urlContent.getJAREntryURL() + "!/" 
           + URLEncoder.encode(zipEntryName, "UTF-8").replace("+", "%20")));
-      writeZipEntry(zipOut, directory + "/" + zipEntryName, siblingContent);
+      contentEntries.put(directory + "/" + zipEntryName, siblingContent);
     }
   }
 
@@ -341,6 +600,25 @@ public class DefaultHomeOutputStream extends FilterOutputStream {
     }
   }
 
+  /**
+   * A task that compresses a content entry in a zip entry.
+   */
+  private class ContentCompressionTask implements Callable<CompressedZipEntry> {
+    private final String  entryName;
+    private final Content content;
+
+    public ContentCompressionTask(Map.Entry<String, Content> contentEntry) {
+      this.entryName = contentEntry.getKey();
+      this.content = contentEntry.getValue();
+    }
+
+    public CompressedZipEntry call() throws IOException {
+      try (InputStream contentIn = this.content.openStream()) {
+        return CompressedZipEntry.compress(this.entryName, contentIn, compressionLevel);
+      }
+    }
+  }
+
   /**
    * A dummy <code>ObjectOutputStream</code> that keeps track of the <code>Content</code> 
    * objects of a home that should be saved.
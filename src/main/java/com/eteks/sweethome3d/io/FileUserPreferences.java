@@ -561,11 +561,12 @@ public class FileUserPreferences extends UserPreferences {
       // Read default furniture catalog
       final FurnitureCatalog resourceFurnitureCatalog =
           readFurnitureCatalogFromResource(getFurnitureLibrariesPluginFolders());
-      for (final FurnitureCategory category : resourceFurnitureCatalog.getCategories()) {
-        for (final CatalogPieceOfFurniture piece : category.getFurniture()) {
-          updater.execute(() -> furnitureCatalog.add(category, piece));
-        }
+      // Add read furniture at once, categories furniture being already sorted 
+      final Map<FurnitureCategory, List<CatalogPieceOfFurniture>> furniture = new HashMap<>();
+      for (FurnitureCategory category : resourceFurnitureCatalog.getCategories()) {
+        furniture.put(category, category.getFurniture());
       }
+      updater.execute(() -> furnitureCatalog.addFurniture(furniture));
       if (resourceFurnitureCatalog instanceof DefaultFurnitureCatalog) {
         updater.execute(() -> {
           removeLibraries(FURNITURE_LIBRARY_TYPE);
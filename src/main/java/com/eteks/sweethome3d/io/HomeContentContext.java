@@ -25,6 +25,7 @@ import java.io.InputStream;
 import java.io.InputStreamReader;
 import java.io.InterruptedIOException;
 import java.net.URL;
+import java.net.URLDecoder;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.HashMap;
@@ -49,6 +50,7 @@ import com.eteks.sweethome3d.tools.URLContent;
  */
 class HomeContentContext {
   private URL                      homeUrl;
+  private SharedZipFile            homeZipFile;
   private boolean                  containsInvalidContents;
   private List<Content>            invalidContents;
   private List<URLContent>         validContentsNotInPreferences;
@@ -60,7 +62,20 @@ class HomeContentContext {
   public HomeContentContext(URL homeSource,
                             UserPreferences preferences,
                             boolean preferPreferencesContent) {
+    this(homeSource, null, preferences, preferPreferencesContent);
+  }
+
+  /**
+   * Creates a context for the given home. If <code>homeZipFile</code> isn't <code>null</code>,
+   * looked up contents will be read on demand from this file without checking
+   * their data, and their digest will be the one stored in home when available.
+   */
+  public HomeContentContext(URL homeSource,
+                            SharedZipFile homeZipFile,
+                            UserPreferences preferences,
+                            boolean preferPreferencesContent) {
     this.homeUrl = homeSource;
+    this.homeZipFile = homeZipFile;
     this.preferPreferencesContent = preferPreferencesContent;
     this.contentDigests = readContentDigests(homeSource);
     this.invalidContents = new ArrayList<>();
@@ -76,44 +91,31 @@ class HomeContentContext {
    * <code>null</code> if this information doesn't exist in the home file.
    */
   private Map<URLContent, byte []> readContentDigests(URL homeUrl) {
-    ZipInputStream zipIn = null;
+    InputStream in = null;
     try {
-      zipIn = new ZipInputStream(homeUrl.openStream());
-      // Read the content of the entry named "ContentDigests" if it exists
-      ZipEntry entry = null;
-      while ((entry = zipIn.getNextEntry()) != null) {
-        if ("ContentDigests".equals(entry.getName())) {
-          BufferedReader reader = new BufferedReader(new InputStreamReader(zipIn, "UTF-8"));
-          String line = reader.readLine();
-          if (line != null
-              && line.trim().startsWith("ContentDigests-Version: 1")) {
-            Map<URLContent, byte []> contentDigests = new HashMap<>();
-            // Read Name / SHA-1-Digest lines  
-            String entryName = null;
-            while ((line = reader.readLine()) != null) {
-              if (line.startsWith("Name:")) {
-                entryName = line.substring("Name:".length()).trim();
-              } else if (line.startsWith("SHA-1-Digest:")) {
-                byte [] digest = Base64.decode(line.substring("SHA-1-Digest:".length()).trim());
-                if (entryName == null) {
-                  throw new IOException("Missing entry name");
-                } else {
-                  URL url = new URL("jar:" + homeUrl + "!/" + entryName);
-                  contentDigests.put(new HomeURLContent(url), digest);
-                  entryName = null;
-                }
-              }
-            }
-            return contentDigests;
+      if (this.homeZipFile != null) {
+        // Read directly the entry named "ContentDigests" if it exists
+        in = this.homeZipFile.getInputStream("ContentDigests");
+        if (in != null) {
+          return readContentDigests(in, homeUrl);
+        }
+      } else {
+        ZipInputStream zipIn = new ZipInputStream(homeUrl.openStream());
+        in = zipIn;
+        // Read the content of the entry named "ContentDigests" if it exists
+        ZipEntry entry = null;
+        while ((entry = zipIn.getNextEntry()) != null) {
+          if ("ContentDigests".equals(entry.getName())) {
+            return readContentDigests(zipIn, homeUrl);
           }
         }
       }
     } catch (IOException ex) {
       // Ignore issues in ContentDigests (this entry exists only from version 4.4)
     } finally {
-      if (zipIn != null) {
+      if (in != null) {
         try {
-          zipIn.close();
+          in.close();
         } catch (IOException ex) {
         }
       }
@@ -121,11 +123,46 @@ class HomeContentContext {
     return null;
   }
 
+  /**
+   * Returns the digests listed in the given <code>ContentDigests</code> entry stream,
+   * or <code>null</code> if its version isn't supported.
+   */
+  private Map<URLContent, byte []> readContentDigests(InputStream in, URL homeUrl) throws IOException {
+    BufferedReader reader = new BufferedReader(new InputStreamReader(in, "UTF-8"));
+    String line = reader.readLine();
+    if (line != null
+        && line.trim().startsWith("ContentDigests-Version: 1")) {
+      Map<URLContent, byte []> contentDigests = new HashMap<>();
+      // Read Name / SHA-1-Digest lines  
+      String entryName = null;
+      while ((line = reader.readLine()) != null) {
+        if (line.startsWith("Name:")) {
+          entryName = line.substring("Name:".length()).trim();
+        } else if (line.startsWith("SHA-1-Digest:")) {
+          byte [] digest = Base64.decode(line.substring("SHA-1-Digest:".length()).trim());
+          if (entryName == null) {
+            throw new IOException("Missing entry name");
+          } else {
+            URL url = new URL("jar:" + homeUrl + "!/" + entryName);
+            contentDigests.put(new HomeURLContent(url), digest);
+            entryName = null;
+          }
+        }
+      }
+      return contentDigests;
+    } else {
+      return null;
+    }
+  }
+
   /**
    * Returns the {@link Content} instance matching the given entry name in home stream.
    */
   public Content lookupContent(String contentEntryName) throws IOException {
     URL fileURL = new URL("jar:" + this.homeUrl + "!/" + contentEntryName);
+    if (this.homeZipFile != null) {
+      return lookupLazyContent(new HomeURLContent(fileURL, this.homeZipFile));
+    }
     HomeURLContent urlContent = new HomeURLContent(fileURL);
     ContentDigestManager contentDigestManager = ContentDigestManager.getInstance();
     if (!isValid(urlContent)) {
@@ -178,6 +215,49 @@ class HomeContentContext {
     return urlContent;
   }
 
+  /**
+   * Returns the given content or an equal content without reading its data.
+   * Contents are only checked to exist in home zip file, and can be shared with
+   * other contents only if their digest is stored in home.
+   */
+  private Content lookupLazyContent(HomeURLContent urlContent) throws IOException {
+    String entryName = URLDecoder.decode(urlContent.getJAREntryName().replace("+", "%2B"), "UTF-8");
+    if (!this.homeZipFile.containsEntry(entryName)
+        && !this.homeZipFile.containsEntry(entryName + "/")) {
+      this.containsInvalidContents = true;
+      URLContent preferencesContent = findUserPreferencesContent(urlContent);
+      if (preferencesContent != null) {
+        return preferencesContent;
+      } else {
+        this.invalidContents.add(urlContent);
+        return urlContent;
+      }
+    }
+
+    byte [] contentDigest;
+    if (this.contentDigests != null
+        && (contentDigest = this.contentDigests.get(urlContent)) != null) {
+      ContentDigestManager contentDigestManager = ContentDigestManager.getInstance();
+      // Trust the stored digest to avoid reading content
+      contentDigestManager.setContentDigest(urlContent, contentDigest);
+      for (URLContent content : this.validContentsNotInPreferences) {
+        if (contentDigestManager.isContentDigestEqual(content, contentDigest)) {
+          return content;
+        }
+      }
+      if (this.preferencesContentsCache != null
+          && this.preferPreferencesContent) {
+        for (URLContent preferencesContent : this.preferencesContentsCache) {
+          if (contentDigestManager.isContentDigestEqual(preferencesContent, contentDigest)) {
+            return preferencesContent;
+          }
+        }
+      }
+      this.validContentsNotInPreferences.add(urlContent);
+    }
+    return urlContent;
+  }
+
   /**
    * Returns <code>true</code> if the given <code>content</code> exists.
    */
@@ -29,7 +29,22 @@ import java.io.InterruptedIOException;
 import java.io.OutputStream;
 import java.net.URL;
 import java.net.URLConnection;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.FileAlreadyExistsException;
+import java.nio.file.Files;
+import java.nio.file.InvalidPathException;
+import java.nio.file.LinkOption;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.AclFileAttributeView;
+import java.nio.file.attribute.DosFileAttributeView;
+import java.nio.file.attribute.DosFileAttributes;
+import java.nio.file.attribute.PosixFileAttributeView;
+import java.nio.file.attribute.PosixFileAttributes;
+import java.util.Map;
+import java.util.Random;
 
+import com.eteks.sweethome3d.model.Content;
 import com.eteks.sweethome3d.model.DamagedHomeRecorderException;
 import com.eteks.sweethome3d.model.Home;
 import com.eteks.sweethome3d.model.HomeRecorder;
@@ -51,6 +66,10 @@ public class HomeFileRecorder implements HomeRecorder {
   private final boolean         preferPreferencesContent;
   private final boolean         preferXmlEntry;
   private final boolean         acceptUrl;
+  private final boolean         parallelCompression;
+  private final boolean         journaled;
+  private final boolean         lazyContentLoading;
+  private volatile SaveStatistics lastSaveStatistics;
 
   /**
    * Creates a home recorder able to write and read homes in uncompressed files.
@@ -161,27 +180,434 @@ public class HomeFileRecorder implements HomeRecorder {
                           boolean         preferPreferencesContent,
                           boolean         preferXmlEntry,
                           boolean         acceptUrl) {
+    this(compressionLevel, includeOnlyTemporaryContent, preferences, preferPreferencesContent, preferXmlEntry, acceptUrl, false);
+  }
+
+  /**
+   * Creates a home recorder able to write and read homes in files compressed
+   * at a level from 0 to 9.
+   * @param compressionLevel 0-9
+   * @param includeOnlyTemporaryContent if <code>true</code>, content instances of
+   *            <code>TemporaryURLContent</code> class referenced by the saved home
+   *            as well as the content previously saved with it will be written.
+   *            If <code>false</code>, all the content instances
+   *            referenced by the saved home will be written in the zip stream.
+   * @param preferences If not <code>null</code>, the furniture and textures contents
+   *            it references might be used to replace the one of read homes
+   *            when they are equal.
+   * @param preferPreferencesContent If <code>true</code>, the furniture and textures contents
+   *            referenced by <code>preferences</code> will replace the one of read homes
+   *            as often as possible when they are equal. Otherwise, these contents will be
+   *            used only to replace damaged content that might be found in read home files.
+   * @param preferXmlEntry If <code>true</code>, an additional <code>Home.xml</code> entry
+   *            will be saved in files and read in priority from saved files.
+   * @param acceptUrl If <code>true</code>, this recorder will try to read a home from a URL
+   *            if the path passed as parameter to {@link #readHome(String) readHome} isn't a file.
+   * @param parallelCompression If <code>true</code>, the content saved with homes will be
+   *            compressed in parallel with {@link DefaultHomeOutputStream}.
+   */
+  public HomeFileRecorder(int             compressionLevel,
+                          boolean         includeOnlyTemporaryContent,
+                          UserPreferences preferences,
+                          boolean         preferPreferencesContent,
+                          boolean         preferXmlEntry,
+                          boolean         acceptUrl,
+                          boolean         parallelCompression) {
+    this(compressionLevel, includeOnlyTemporaryContent, preferences, preferPreferencesContent, preferXmlEntry, acceptUrl, parallelCompression, false);
+  }
+
+  /**
+   * Creates a home recorder able to write and read homes in files compressed
+   * at a level from 0 to 9.
+   * @param compressionLevel 0-9
+   * @param includeOnlyTemporaryContent if <code>true</code>, content instances of
+   *            <code>TemporaryURLContent</code> class referenced by the saved home
+   *            as well as the content previously saved with it will be written.
+   *            If <code>false</code>, all the content instances
+   *            referenced by the saved home will be written in the zip stream.
+   * @param preferences If not <code>null</code>, the furniture and textures contents
+   *            it references might be used to replace the one of read homes
+   *            when they are equal.
+   * @param preferPreferencesContent If <code>true</code>, the furniture and textures contents
+   *            referenced by <code>preferences</code> will replace the one of read homes
+   *            as often as possible when they are equal. Otherwise, these contents will be
+   *            used only to replace damaged content that might be found in read home files.
+   * @param preferXmlEntry If <code>true</code>, an additional <code>Home.xml</code> entry
+   *            will be saved in files and read in priority from saved files.
+   * @param acceptUrl If <code>true</code>, this recorder will try to read a home from a URL
+   *            if the path passed as parameter to {@link #readHome(String) readHome} isn't a file.
+   * @param parallelCompression If <code>true</code>, the content saved with homes will be
+   *            compressed in parallel with {@link DefaultHomeOutputStream}.
+   * @param journaled If <code>true</code>, this recorder will be able to create journals
+   *            with {@link #createJournal(Home) createJournal} to save the changes of homes
+   *            without writing them fully.
+   */
+  public HomeFileRecorder(int             compressionLevel,
+                          boolean         includeOnlyTemporaryContent,
+                          UserPreferences preferences,
+                          boolean         preferPreferencesContent,
+                          boolean         preferXmlEntry,
+                          boolean         acceptUrl,
+                          boolean         parallelCompression,
+                          boolean         journaled) {
+    this(compressionLevel, includeOnlyTemporaryContent, preferences, preferPreferencesContent, preferXmlEntry, acceptUrl, parallelCompression, journaled, false);
+  }
+
+  /**
+   * Creates a home recorder able to write and read homes in files compressed
+   * at a level from 0 to 9.
+   * @param compressionLevel 0-9
+   * @param includeOnlyTemporaryContent if <code>true</code>, content instances of
+   *            <code>TemporaryURLContent</code> class referenced by the saved home
+   *            as well as the content previously saved with it will be written.
+   *            If <code>false</code>, all the content instances
+   *            referenced by the saved home will be written in the zip stream.
+   * @param preferences If not <code>null</code>, the furniture and textures contents
+   *            it references might be used to replace the one of read homes
+   *            when they are equal.
+   * @param preferPreferencesContent If <code>true</code>, the furniture and textures contents
+   *            referenced by <code>preferences</code> will replace the one of read homes
+   *            as often as possible when they are equal. Otherwise, these contents will be
+   *            used only to replace damaged content that might be found in read home files.
+   * @param preferXmlEntry If <code>true</code>, an additional <code>Home.xml</code> entry
+   *            will be saved in files and read in priority from saved files.
+   * @param acceptUrl If <code>true</code>, this recorder will try to read a home from a URL
+   *            if the path passed as parameter to {@link #readHome(String) readHome} isn't a file.
+   * @param parallelCompression If <code>true</code>, the content saved with homes will be
+   *            compressed in parallel with {@link DefaultHomeOutputStream}.
+   * @param journaled If <code>true</code>, this recorder will be able to create journals
+   *            with {@link #createJournal(Home) createJournal} to save the changes of homes
+   *            without writing them fully.
+   * @param lazyContentLoading If <code>true</code>, the content of read homes will be read
+   *            from their file only once it's used, without checking it beforehand.
+   */
+  public HomeFileRecorder(int             compressionLevel,
+                          boolean         includeOnlyTemporaryContent,
+                          UserPreferences preferences,
+                          boolean         preferPreferencesContent,
+                          boolean         preferXmlEntry,
+                          boolean         acceptUrl,
+                          boolean         parallelCompression,
+                          boolean         journaled,
+                          boolean         lazyContentLoading) {
     this.compressionLevel = compressionLevel;
     this.includeOnlyTemporaryContent = includeOnlyTemporaryContent;
     this.preferences = preferences;
     this.preferPreferencesContent = preferPreferencesContent;
     this.preferXmlEntry = preferXmlEntry;
     this.acceptUrl = acceptUrl;
+    this.parallelCompression = parallelCompression;
+    this.journaled = journaled;
+    this.lazyContentLoading = lazyContentLoading;
   }
 
   /**
    * Writes home data.
+   * The home is first written in a temporary file stored in the same directory as the saved file,
+   * then this file is renamed to replace the existing one. If the existing file attributes
+   * can't be kept that way, home is written in a temporary file stored in the default temporary
+   * folder then copied over the existing file. The journal of the existing file is deleted if it exists.
    * @throws RecorderException if a problem occurred while writing home.
    */
   public void writeHome(Home home, String name) throws RecorderException {
+    writeHome(home, name, null);
+  }
+
+  /**
+   * Writes home data as {@link #writeHome(Home, String) writeHome} does, then starts the given
+   * <code>journal</code> to be able to save the next changes of the home it tracks in a journal file
+   * stored next to the saved file.
+   * @param journal a journal returned by {@link #createJournal(Home) createJournal} for <code>home</code>
+   *            or for the home cloned as <code>home</code>, or <code>null</code>
+   * @throws RecorderException if a problem occurred while writing home.
+   */
+  public void writeHome(Home home, String name, HomeJournal journal) throws RecorderException {
     File homeFile = new File(name);
     if (homeFile.exists()
         && !homeFile.canWrite()) {
       throw new RecorderException("Can't write over file " + name);
     }
 
+    SaveStatistics statistics = new SaveStatistics(homeFile);
+    Map<Content, String> savedContentNames = null;
+    Path homePath = getHomePath(homeFile);
+    if (homePath != null
+        && isFileReplaceable(homePath)) {
+      try {
+        savedContentNames = writeHomeInSiblingFile(home, homeFile, homePath, statistics);
+      } catch (InterruptedRecorderException ex) {
+        throw ex;
+      } catch (RecorderException ex) {
+        // Try again with a copy
+        statistics = new SaveStatistics(homeFile);
+      }
+    }
+    if (savedContentNames == null) {
+      savedContentNames = writeHomeInTemporaryFile(home, homeFile, statistics);
+    }
+
+    long startTime = System.nanoTime();
+    if (journal != null) {
+      try {
+        journal.start(homeFile, savedContentNames);
+        statistics.setPhase("journal start", -1, startTime);
+      } catch (IOException ex) {
+        // Changes will be saved fully next time
+        journal.invalidate();
+      }
+    } else {
+      HomeJournal.getJournalFile(homeFile).delete();
+    }
+    this.lastSaveStatistics = statistics;
+  }
+
+  /**
+   * Returns the statistics of the last home or home changes written by this recorder,
+   * or <code>null</code> if nothing was written yet.
+   */
+  public SaveStatistics getLastSaveStatistics() {
+    return this.lastSaveStatistics;
+  }
+
+  /**
+   * Returns a new journal that tracks the changes of the given <code>home</code>
+   * or <code>null</code> if this recorder isn't journaled. The journal should be started
+   * with {@link #writeHome(Home, String, HomeJournal) writeHome}, then the records
+   * it {@link HomeJournal#createRecord() creates} written with {@link #writeHomeChanges(HomeJournal, byte[])
+   * writeHomeChanges} as long as it's {@link HomeJournal#isAppendable() appendable}.
+   * Must be called from the thread where home is modified, just before home or its clone is written.
+   */
+  public HomeJournal createJournal(Home home) {
+    if (this.journaled) {
+      return new HomeJournal(home, this.includeOnlyTemporaryContent
+          ? ContentRecording.INCLUDE_TEMPORARY_CONTENT
+          : ContentRecording.INCLUDE_ALL_CONTENT);
+    } else {
+      return null;
+    }
+  }
+
+  /**
+   * Appends the given <code>record</code> to the journal file of the home tracked by <code>journal</code>.
+   * @throws RecorderException if a problem occurred while writing the record. In that case,
+   *            the home should be fully written with a new journal.
+   */
+  public void writeHomeChanges(HomeJournal journal, byte [] record) throws RecorderException {
+    File journalFile = journal.getJournalFile();
+    if (journalFile == null) {
+      throw new RecorderException("Journal not started");
+    }
+    SaveStatistics statistics = new SaveStatistics(journalFile);
+    long startTime = System.nanoTime();
+    try {
+      statistics.setPhase("append", journal.appendRecord(record), startTime);
+    } catch (IOException ex) {
+      // Lost changes will be saved at next full write
+      journal.invalidate();
+      throw new RecorderException("Can't save home changes in " + journalFile, ex);
+    }
+    this.lastSaveStatistics = statistics;
+  }
+
+  /**
+   * Returns the path of the file that should be replaced to save <code>homeFile</code>,
+   * i.e. the file targeted by <code>homeFile</code> if it's a symbolic link,
+   * or <code>null</code> if this path can't be computed.
+   */
+  private Path getHomePath(File homeFile) {
+    try {
+      Path homePath = homeFile.toPath().toAbsolutePath();
+      if (Files.exists(homePath)) {
+        // Replace the file targeted by symbolic links rather than the links themselves
+        return homePath.toRealPath();
+      } else {
+        return homePath;
+      }
+    } catch (IOException | InvalidPathException | SecurityException ex) {
+      return null;
+    }
+  }
+
+  /**
+   * Returns <code>true</code> if the file at the given path may be replaced by a renamed file
+   * without losing its attributes.
+   */
+  private boolean isFileReplaceable(Path homePath) {
+    try {
+      Path directory = homePath.getParent();
+      if (directory == null
+          || !Files.isWritable(directory)) {
+        return false;
+      } else if (Files.exists(homePath, LinkOption.NOFOLLOW_LINKS)) {
+        try {
+          Object linkCount = Files.getAttribute(homePath, "unix:nlink");
+          if (linkCount instanceof Integer
+              && (Integer)linkCount > 1) {
+            // Renaming would break hard links
+            return false;
+          }
+        } catch (UnsupportedOperationException | IllegalArgumentException ex) {
+          // Ignore hard links check on file systems that don't support it
+        }
+      }
+      return true;
+    } catch (IOException | SecurityException ex) {
+      return false;
+    }
+  }
+
+  /**
+   * Writes home in a temporary file created in the same directory as <code>homePath</code>
+   * then renames it to replace the file at <code>homePath</code>.
+   * @return the names of the entries where home content was saved, or <code>null</code>
+   *            if the attributes of the existing home file can't be kept with a rename.
+   */
+  private Map<Content, String> writeHomeInSiblingFile(Home home, File homeFile, Path homePath,
+                                                      SaveStatistics statistics) throws RecorderException {
+    String name = homeFile.getPath();
+    Path tempPath = null;
+    boolean replaced = false;
+    try {
+      try {
+        tempPath = createSiblingFile(homePath);
+      } catch (IOException ex) {
+        return null;
+      }
+      if (Files.exists(homePath)
+          && !copyFileAttributes(homePath, tempPath)) {
+        return null;
+      }
+
+      long startTime = System.nanoTime();
+      FileOutputStream fileOut = null;
+      DefaultHomeOutputStream homeOut = null;
+      Map<Content, String> savedContentNames;
+      try {
+        fileOut = new FileOutputStream(tempPath.toFile());
+        homeOut = new DefaultHomeOutputStream(fileOut, this.compressionLevel,
+            this.includeOnlyTemporaryContent
+                ? ContentRecording.INCLUDE_TEMPORARY_CONTENT
+                : ContentRecording.INCLUDE_ALL_CONTENT,
+            true,
+            this.preferXmlEntry
+                ? getHomeXMLExporter()
+                : null,
+            this.parallelCompression);
+        homeOut.writeHome(home);
+        homeOut.flush();
+        savedContentNames = homeOut.getSavedContentNames();
+        statistics.setPhase("write", Files.size(tempPath), startTime);
+        // Ensure saved data is on disk before replacing the existing file
+        startTime = System.nanoTime();
+        fileOut.getFD().sync();
+        statistics.setPhase("sync", -1, startTime);
+      } catch (InterruptedIOException ex) {
+        throw new InterruptedRecorderException("Save " + name + " interrupted");
+      } catch (IOException ex) {
+        throw new RecorderException("Can't save home " + name, ex);
+      } finally {
+        try {
+          if (homeOut != null) {
+            homeOut.close();
+          } else if (fileOut != null) {
+            fileOut.close();
+          }
+        } catch (IOException ex) {
+          throw new RecorderException("Can't close temporary file " + name, ex);
+        }
+      }
+
+      // Check prefix of saved file to ensure file is not completely false
+      // (some users reported some files containing only 0 for unknown reasons)
+      startTime = System.nanoTime();
+      checkFilePrefix(tempPath.toFile());
+      statistics.setPhase("verify", -1, startTime);
+
+      startTime = System.nanoTime();
+      try {
+        Files.move(tempPath, homePath, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+      } catch (AtomicMoveNotSupportedException ex) {
+        return null;
+      } catch (IOException ex) {
+        throw new RecorderException("Can't replace file " + name, ex);
+      }
+      statistics.setPhase("rename", -1, startTime);
+      replaced = true;
+      return savedContentNames;
+    } finally {
+      if (tempPath != null && !replaced) {
+        tempPath.toFile().delete();
+      }
+    }
+  }
+
+  /**
+   * Creates an empty hidden file in the directory of <code>homePath</code>.
+   * Unlike <code>Files#createTempFile</code>, the file is created with default permissions
+   * to keep the permissions of new homes unchanged.
+   */
+  private Path createSiblingFile(Path homePath) throws IOException {
+    Random random = new Random();
+    while (true) {
+      Path siblingPath = homePath.resolveSibling("." + homePath.getFileName() 
+          + Long.toString(random.nextLong() & Long.MAX_VALUE, 36) + ".tmp");
+      try {
+        return Files.createFile(siblingPath);
+      } catch (FileAlreadyExistsException ex) {
+        // Try another name
+      }
+    }
+  }
+
+  /**
+   * Copies the owner, the permissions and the attributes of <code>source</code> file to <code>target</code>
+   * and returns <code>true</code> if it was successful.
+   */
+  private boolean copyFileAttributes(Path source, Path target) {
+    try {
+      PosixFileAttributeView sourcePosixView = Files.getFileAttributeView(source, PosixFileAttributeView.class);
+      if (sourcePosixView != null) {
+        PosixFileAttributes sourceAttributes = sourcePosixView.readAttributes();
+        PosixFileAttributeView targetPosixView = Files.getFileAttributeView(target, PosixFileAttributeView.class);
+        PosixFileAttributes targetAttributes = targetPosixView.readAttributes();
+        if (!sourceAttributes.owner().equals(targetAttributes.owner())) {
+          // Only the super user may change file owner
+          return false;
+        }
+        if (!sourceAttributes.group().equals(targetAttributes.group())) {
+          targetPosixView.setGroup(sourceAttributes.group());
+        }
+        targetPosixView.setPermissions(sourceAttributes.permissions());
+        return true;
+      }
+      AclFileAttributeView sourceAclView = Files.getFileAttributeView(source, AclFileAttributeView.class);
+      if (sourceAclView != null) {
+        Files.getFileAttributeView(target, AclFileAttributeView.class).setAcl(sourceAclView.getAcl());
+      }
+      DosFileAttributeView sourceDosView = Files.getFileAttributeView(source, DosFileAttributeView.class);
+      if (sourceDosView != null) {
+        DosFileAttributes sourceAttributes = sourceDosView.readAttributes();
+        DosFileAttributeView targetDosView = Files.getFileAttributeView(target, DosFileAttributeView.class);
+        targetDosView.setHidden(sourceAttributes.isHidden());
+        targetDosView.setArchive(sourceAttributes.isArchive());
+      }
+      return sourceAclView != null || sourceDosView != null;
+    } catch (IOException | UnsupportedOperationException | SecurityException ex) {
+      return false;
+    }
+  }
+
+  /**
+   * Writes home in a temporary file then copies it to <code>homeFile</code>.
+   * @return the names of the entries where home content was saved
+   */
+  private Map<Content, String> writeHomeInTemporaryFile(Home home, File homeFile,
+                                                        SaveStatistics statistics) throws RecorderException {
+    String name = homeFile.getPath();
+    long startTime = System.nanoTime();
     DefaultHomeOutputStream homeOut = null;
     File tempFile = null;
+    Map<Content, String> savedContentNames;
     try {
       // Open a stream on a temporary file
       tempFile = OperatingSystem.createTemporaryFile("save", ".sweethome3d");
@@ -193,9 +619,13 @@ public class HomeFileRecorder implements HomeRecorder {
           true,
           this.preferXmlEntry
               ? getHomeXMLExporter()
-              : null);
+              : null,
+          this.parallelCompression);
       // Write home with HomeOuputStream
       homeOut.writeHome(home);
+      homeOut.flush();
+      savedContentNames = homeOut.getSavedContentNames();
+      statistics.setPhase("write", tempFile.length(), startTime);
     } catch (InterruptedIOException ex) {
       throw new InterruptedRecorderException("Save " + name + " interrupted");
     } catch (IOException ex) {
@@ -246,6 +676,7 @@ public class HomeFileRecorder implements HomeRecorder {
 
     // Copy temporary file to home file
     // Overwriting home file will ensure that its rights are kept
+    startTime = System.nanoTime();
     byte [] buffer = new byte [8192];
     DefaultHomeInputStream in = null;
     try {
@@ -277,15 +708,28 @@ public class HomeFileRecorder implements HomeRecorder {
       }
     }
 
+    statistics.setPhase("copy", homeFile.length(), startTime);
+
     // Finally check prefix of home file to ensure file is not completely false
     // (some users reported some files containing only 0 for unknown reasons)
+    startTime = System.nanoTime();
+    checkFilePrefix(homeFile);
+    statistics.setPhase("verify", -1, startTime);
+    return savedContentNames;
+  }
+
+  /**
+   * Checks the prefix of the given file is the one of a home file.
+   */
+  private void checkFilePrefix(File file) throws RecorderException {
+    DefaultHomeInputStream in = null;
     try {
-      in = new DefaultHomeInputStream(new FileInputStream(homeFile));
+      in = new DefaultHomeInputStream(new FileInputStream(file));
       if (!in.isPrefixCorrect()) {
-        throw new RecorderException("Incorrect prefix in file " + homeFile);
+        throw new RecorderException("Incorrect prefix in file " + file);
       }
     } catch (IOException ex) {
-      throw new RecorderException("Can't check file " + name);
+      throw new RecorderException("Can't check file " + file);
     } finally {
       try {
         if (in != null) {
@@ -306,10 +750,19 @@ public class HomeFileRecorder implements HomeRecorder {
 
   /**
    * Returns a home instance read from its file <code>name</code> or an URL if it can be opened as a file.
+   * If the file has a journal, the changes it contains are applied to the read home.
    * @throws RecorderException if a problem occurred while reading home,
    *   or if file or URL <code>name</code> doesn't exist.
    */
   public Home readHome(String name) throws RecorderException {
+    return readHome(name, true);
+  }
+
+  /**
+   * Returns a home instance read from its file <code>name</code> or an URL if it can be opened as a file,
+   * applying the changes stored in its journal if <code>journalReplayed</code> is <code>true</code>.
+   */
+  private Home readHome(String name, boolean journalReplayed) throws RecorderException {
     DefaultHomeInputStream homeInputStream = null;
     try {
       InputStream in;
@@ -329,8 +782,20 @@ public class HomeFileRecorder implements HomeRecorder {
       // Read home with HomeInputStream
       homeInputStream = new DefaultHomeInputStream(in, ContentRecording.INCLUDE_ALL_CONTENT,
           this.preferXmlEntry ? getHomeXMLHandler() : null,
-          this.preferences, this.preferPreferencesContent);
+          this.preferences, this.preferPreferencesContent, this.lazyContentLoading);
       Home home = homeInputStream.readHome();
+      if (journalReplayed) {
+        File homeFile = new File(name);
+        try {
+          HomeJournal.replay(home, homeFile, homeInputStream.getContentContext());
+        } catch (IOException | ClassNotFoundException | RuntimeException ex) {
+          // Read again the home as it was before the changes of its journal
+          ex.printStackTrace();
+          homeInputStream.close();
+          homeInputStream = null;
+          home = readHome(name, false);
+        }
+      }
       return home;
     } catch (InterruptedIOException ex) {
       throw new InterruptedRecorderException("Read " + name + " interrupted");
@@ -365,4 +830,51 @@ public class HomeFileRecorder implements HomeRecorder {
   public boolean exists(String name) throws RecorderException {
     return new File(name).exists();
   }
+
+  /**
+   * The bytes written and the time spent in each phase of a save.
+   */
+  public static class SaveStatistics {
+    private final File          file;
+    private final StringBuilder phases = new StringBuilder();
+    private final long          startTime = System.nanoTime();
+    private long                time;
+
+    private SaveStatistics(File file) {
+      this.file = file;
+    }
+
+    /**
+     * Records the given phase that started at <code>startTime</code> and ends now.
+     * @param bytes the count of bytes written during this phase or -1
+     */
+    private void setPhase(String phase, long bytes, long startTime) {
+      long now = System.nanoTime();
+      this.phases.append(this.phases.length() > 0 ? ", " : "").append(phase);
+      if (bytes >= 0) {
+        this.phases.append(" ").append(bytes).append(" bytes");
+      }
+      this.phases.append(" in ").append((now - startTime) / 1000000).append(" ms");
+      this.time = now - this.startTime;
+    }
+
+    /**
+     * Returns the written home or journal file.
+     */
+    public File getFile() {
+      return this.file;
+    }
+
+    /**
+     * Returns the time in nanoseconds spent until the end of the last phase.
+     */
+    public long getTime() {
+      return this.time;
+    }
+
+    @Override
+    public String toString() {
+      return "Saved " + this.file + " in " + this.time / 1000000 + " ms: " + this.phases;
+    }
+  }
 }
@@ -0,0 +1,1147 @@
+/*
+ * HomeJournal.java 17 oct. 2026
+ *
+ * Sweet Home 3D, Copyright (c) 2026 Emmanuel PUYBARET / eTeks <info@eteks.com>
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation; either version 2 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA  02111-1307  USA
+ */
+package com.eteks.sweethome3d.io;
+
+import java.beans.PropertyChangeListener;
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InvalidObjectException;
+import java.io.NotSerializableException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.OutputStream;
+import java.io.RandomAccessFile;
+import java.io.Serializable;
+import java.net.URL;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.zip.CRC32;
+
+import com.eteks.sweethome3d.model.BackgroundImage;
+import com.eteks.sweethome3d.model.BatchCollectionListener;
+import com.eteks.sweethome3d.model.Camera;
+import com.eteks.sweethome3d.model.CollectionEvent;
+import com.eteks.sweethome3d.model.CollectionListener;
+import com.eteks.sweethome3d.model.Compass;
+import com.eteks.sweethome3d.model.Content;
+import com.eteks.sweethome3d.model.DimensionLine;
+import com.eteks.sweethome3d.model.Home;
+import com.eteks.sweethome3d.model.HomeDoorOrWindow;
+import com.eteks.sweethome3d.model.HomeEnvironment;
+import com.eteks.sweethome3d.model.HomeFurnitureGroup;
+import com.eteks.sweethome3d.model.HomeItemListeners;
+import com.eteks.sweethome3d.model.HomeLight;
+import com.eteks.sweethome3d.model.HomeObject;
+import com.eteks.sweethome3d.model.HomePieceOfFurniture;
+import com.eteks.sweethome3d.model.HomePrint;
+import com.eteks.sweethome3d.model.Label;
+import com.eteks.sweethome3d.model.Level;
+import com.eteks.sweethome3d.model.ObserverCamera;
+import com.eteks.sweethome3d.model.Polyline;
+import com.eteks.sweethome3d.model.Room;
+import com.eteks.sweethome3d.model.Wall;
+import com.eteks.sweethome3d.tools.TemporaryURLContent;
+import com.eteks.sweethome3d.tools.URLContent;
+
+/**
+ * A journal that records the changes of a home since it was fully written in a file,
+ * to be able to save these changes by appending them to a journal file stored next to the home file.
+ * Each record of the journal contains the state of the home items modified since the previous record,
+ * and the new order of the home lists in which items were added, deleted or moved.
+ * Items are identified by their index in the lists of the base home, followed by the index
+ * of their addition in the journal.<br>
+ * Modified items are tracked with the property change and collection listeners of home and its items.
+ * Therefore the changes that don't notify listeners, like the ones of home properties, will be saved only
+ * at the next full write of the home. The changes that reference a content not saved in the home file,
+ * like a new piece imported from the furniture catalog, can't be recorded either and require a full write.
+ * @author Emmanuel Puybaret
+ */
+public class HomeJournal {
+  /**
+   * The extension appended to the name of a home file to build the name of its journal file.
+   */
+  public static final String JOURNAL_FILE_EXTENSION = ".journal";
+
+  private static final long   JOURNAL_MAGIC_NUMBER = 0x5348334A524E4CL; // "SH3JRNL"
+  private static final int    JOURNAL_VERSION      = 1;
+  private static final int    HEADER_LENGTH        = 8 + 4 + 8 + 8 + 4 * 7;
+  private static final int    RECORD_HEADER_LENGTH = 4 + 8;
+  private static final int    FINGERPRINT_LENGTH   = 65536;
+  private static final int    MAXIMUM_RECORD_COUNT = 100;
+  private static final long   MINIMUM_COMPACTION_LENGTH = 256 * 1024;
+
+  private static final int    TOP_CAMERA_ID      = 0;
+  private static final int    OBSERVER_CAMERA_ID = 1;
+  private static final int    ENVIRONMENT_ID     = 2;
+  private static final int    COMPASS_ID         = 3;
+  private static final int    FIRST_ITEM_ID      = 4;
+
+  private static final int    LEVELS          = 0;
+  private static final int    FURNITURE       = 1;
+  private static final int    WALLS           = 2;
+  private static final int    ROOMS           = 3;
+  private static final int    POLYLINES       = 4;
+  private static final int    DIMENSION_LINES = 5;
+  private static final int    LABELS          = 6;
+  private static final int    LIST_COUNT      = 7;
+
+  private static final Home.Property [] JOURNALED_HOME_PROPERTIES = {
+      Home.Property.NAME, Home.Property.FURNITURE_SORTED_PROPERTY, Home.Property.FURNITURE_DESCENDING_SORTED,
+      Home.Property.FURNITURE_VISIBLE_PROPERTIES, Home.Property.BACKGROUND_IMAGE, Home.Property.CAMERA,
+      Home.Property.PRINT, Home.Property.BASE_PLAN_LOCKED, Home.Property.STORED_CAMERAS, Home.Property.SELECTED_LEVEL};
+
+  private final Home                                 home;
+  private final ContentRecording                     contentRecording;
+  // Tracked items and their listeners, modified only in the thread where home is modified
+  private final Map<Object, Integer>                 itemIds       = new IdentityHashMap<Object, Integer>();
+  private final Map<Integer, Object>                 items         = new HashMap<Integer, Object>();
+  private final Map<Integer, PropertyChangeListener> itemListeners = new HashMap<Integer, PropertyChangeListener>();
+  private final int [][]                             itemLists     = new int [LIST_COUNT][];
+  private final int []                               baseListSizes = new int [LIST_COUNT];
+  private final Set<Integer>                         modifiedItemIds = new LinkedHashSet<Integer>();
+  private final boolean []                           modifiedLists = new boolean [LIST_COUNT];
+  private final CollectionListener<?> []             listListeners = new CollectionListener<?> [LIST_COUNT];
+  private final PropertyChangeListener               homeListener;
+  private boolean                                    homeModified;
+  private int                                        nextItemId;
+  // Journal file state, shared with the thread where records are written
+  private boolean                                    fullWriteRequired;
+  private boolean                                    disposed;
+  private File                                       journalFile;
+  private Map<Content, String>                       baseContentNames;
+  private long                                       baseLength;
+  private long                                       journalLength;
+  private int                                        recordCount;
+
+  /**
+   * Creates a journal that starts to track the changes of <code>home</code>.
+   * As this constructor adds listeners to home and its items, it should be invoked
+   * from the thread where home is modified, just before home or its clone is fully written.
+   */
+  HomeJournal(Home home, ContentRecording contentRecording) {
+    this.home = home;
+    this.contentRecording = contentRecording;
+    trackItem(home.getTopCamera(), TOP_CAMERA_ID);
+    trackItem(home.getObserverCamera(), OBSERVER_CAMERA_ID);
+    trackItem(home.getEnvironment(), ENVIRONMENT_ID);
+    trackItem(home.getCompass(), COMPASS_ID);
+    this.nextItemId = FIRST_ITEM_ID;
+    for (int list = 0; list < LIST_COUNT; list++) {
+      List<?> listItems = getItems(home, list);
+      int [] itemIds = new int [listItems.size()];
+      for (int i = 0; i < itemIds.length; i++) {
+        itemIds [i] = this.nextItemId++;
+        trackItem(listItems.get(i), itemIds [i]);
+      }
+      this.itemLists [list] = itemIds;
+      this.baseListSizes [list] = itemIds.length;
+    }
+
+    // Add listeners to home lists to update tracked items at next record
+    for (int list = 0; list < LIST_COUNT; list++) {
+      if (list == FURNITURE) {
+        // A piece added to or deleted from a group notifies an event without index
+        this.listListeners [list] = new BatchCollectionListener<HomePieceOfFurniture>() {
+            public void collectionChanged(CollectionEvent<HomePieceOfFurniture> ev) {
+              if (ev.getIndex() == -1) {
+                invalidate();
+              } else {
+                modifiedLists [FURNITURE] = true;
+              }
+            }
+          };
+      } else {
+        this.listListeners [list] = new ListListener<Object>(list);
+      }
+    }
+    home.addLevelsListener(this.<Level>getListListener(LEVELS));
+    home.addFurnitureListener(this.<HomePieceOfFurniture>getListListener(FURNITURE));
+    home.addWallsListener(this.<Wall>getListListener(WALLS));
+    home.addRoomsListener(this.<Room>getListListener(ROOMS));
+    home.addPolylinesListener(this.<Polyline>getListListener(POLYLINES));
+    home.addDimensionLinesListener(this.<DimensionLine>getListListener(DIMENSION_LINES));
+    home.addLabelsListener(this.<Label>getListListener(LABELS));
+    this.homeListener = ev -> this.homeModified = true;
+    for (Home.Property property : JOURNALED_HOME_PROPERTIES) {
+      home.addPropertyChangeListener(property, this.homeListener);
+    }
+  }
+
+  /**
+   * Returns the listener of the given home <code>list</code>.
+   */
+  @SuppressWarnings("unchecked")
+  private <T> CollectionListener<T> getListListener(int list) {
+    return (CollectionListener<T>)this.listListeners [list];
+  }
+
+  /**
+   * Returns the items of the given <code>list</code> of a home.
+   */
+  private static List<?> getItems(Home home, int list) {
+    switch (list) {
+      case LEVELS :
+        return home.getLevels();
+      case FURNITURE :
+        return home.getFurniture();
+      case WALLS :
+        return new ArrayList<Wall>(home.getWalls());
+      case ROOMS :
+        return home.getRooms();
+      case POLYLINES :
+        return home.getPolylines();
+      case DIMENSION_LINES :
+        return new ArrayList<DimensionLine>(home.getDimensionLines());
+      default :
+        return new ArrayList<Label>(home.getLabels());
+    }
+  }
+
+  /**
+   * Stores the given <code>item</code> under <code>id</code> and listens to its changes.
+   */
+  private void trackItem(Object item, final int id) {
+    this.itemIds.put(item, id);
+    this.items.put(id, item);
+    PropertyChangeListener listener = ev -> {
+      this.modifiedItemIds.add(id);
+      if (ev.getSource() instanceof Level) {
+        // Levels order depends on their elevation
+        this.modifiedLists [LEVELS] = true;
+      }
+    };
+    this.itemListeners.put(id, listener);
+    HomeItemListeners.addPropertyChangeListener(item, listener);
+    if (item instanceof HomeFurnitureGroup) {
+      // Track the pieces of a group as a part of the group
+      for (HomePieceOfFurniture piece : ((HomeFurnitureGroup)item).getAllFurniture()) {
+        HomeItemListeners.addPropertyChangeListener(piece, listener);
+      }
+    }
+  }
+
+  /**
+   * Stops to track the item stored under <code>id</code>.
+   */
+  private void untrackItem(int id) {
+    Object item = this.items.remove(id);
+    this.itemIds.remove(item);
+    PropertyChangeListener listener = this.itemListeners.remove(id);
+    HomeItemListeners.removePropertyChangeListener(item, listener);
+    if (item instanceof HomeFurnitureGroup) {
+      for (HomePieceOfFurniture piece : ((HomeFurnitureGroup)item).getAllFurniture()) {
+        HomeItemListeners.removePropertyChangeListener(piece, listener);
+      }
+    }
+  }
+
+  /**
+   * Returns the file of the journal associated to the given home file.
+   */
+  public static File getJournalFile(File homeFile) {
+    return new File(homeFile.getPath() + JOURNAL_FILE_EXTENSION);
+  }
+
+  /**
+   * Returns the journal file where records are appended or <code>null</code> if this journal isn't started.
+   */
+  synchronized File getJournalFile() {
+    return this.journalFile;
+  }
+
+  /**
+   * Returns <code>true</code> if the changes of the tracked home can be appended to the journal file.
+   * Once the journal contains too many records or is too large compared to the home file,
+   * this method returns <code>false</code> to compact the journal in a new full write of the home.
+   */
+  public synchronized boolean isAppendable() {
+    return this.journalFile != null
+        && !this.fullWriteRequired
+        && !this.disposed
+        && this.recordCount < MAXIMUM_RECORD_COUNT
+        && this.journalLength < Math.max(this.baseLength / 4, MINIMUM_COMPACTION_LENGTH);
+  }
+
+  /**
+   * Marks this journal as unusable until the tracked home is fully written again.
+   */
+  synchronized void invalidate() {
+    this.fullWriteRequired = true;
+  }
+
+  /**
+   * Stops to track the changes of home.
+   * Must be called from the thread where home is modified.
+   */
+  public void dispose() {
+    synchronized (this) {
+      this.disposed = true;
+    }
+    for (Integer id : new ArrayList<Integer>(this.items.keySet())) {
+      untrackItem(id);
+    }
+    this.home.removeLevelsListener(this.<Level>getListListener(LEVELS));
+    this.home.removeFurnitureListener(this.<HomePieceOfFurniture>getListListener(FURNITURE));
+    this.home.removeWallsListener(this.<Wall>getListListener(WALLS));
+    this.home.removeRoomsListener(this.<Room>getListListener(ROOMS));
+    this.home.removePolylinesListener(this.<Polyline>getListListener(POLYLINES));
+    this.home.removeDimensionLinesListener(this.<DimensionLine>getListListener(DIMENSION_LINES));
+    this.home.removeLabelsListener(this.<Label>getListListener(LABELS));
+    for (Home.Property property : JOURNALED_HOME_PROPERTIES) {
+      this.home.removePropertyChangeListener(property, this.homeListener);
+    }
+  }
+
+  /**
+   * Starts a new journal for the tracked home, once it was fully written in <code>homeFile</code>.
+   * @param savedContentNames the names of the entries of <code>homeFile</code> where the content
+   *            referenced by home was saved
+   */
+  void start(File homeFile, Map<Content, String> savedContentNames) throws IOException {
+    File journalFile = getJournalFile(homeFile);
+    journalFile.delete();
+    synchronized (this) {
+      if (this.disposed) {
+        return;
+      }
+    }
+    long baseLength = homeFile.length();
+    long fingerprint = getFingerprint(homeFile);
+    try (FileOutputStream out = new FileOutputStream(journalFile)) {
+      DataOutputStream dataOut = new DataOutputStream(new BufferedOutputStream(out));
+      dataOut.writeLong(JOURNAL_MAGIC_NUMBER);
+      dataOut.writeInt(JOURNAL_VERSION);
+      dataOut.writeLong(baseLength);
+      dataOut.writeLong(fingerprint);
+      for (int size : this.baseListSizes) {
+        dataOut.writeInt(size);
+      }
+      dataOut.flush();
+      out.getFD().sync();
+    }
+    synchronized (this) {
+      this.journalFile = journalFile;
+      this.baseContentNames = savedContentNames;
+      this.baseLength = baseLength;
+      this.journalLength = HEADER_LENGTH;
+      this.recordCount = 0;
+    }
+  }
+
+  /**
+   * Returns a value computed from the end of the given file, where zip files store
+   * the central directory that lists the size and CRC of their entries.
+   */
+  private static long getFingerprint(File file) throws IOException {
+    try (RandomAccessFile in = new RandomAccessFile(file, "r")) {
+      int length = (int)Math.min(in.length(), FINGERPRINT_LENGTH);
+      byte [] tail = new byte [length];
+      in.seek(in.length() - length);
+      in.readFully(tail);
+      CRC32 crc = new CRC32();
+      crc.update(tail);
+      return crc.getValue();
+    }
+  }
+
+  /**
+   * Returns the data of a new record describing the changes of home since the previous record.
+   * Must be called from the thread where home is modified.
+   * @throws IOException if the changes can't be recorded in the journal and home should be fully written
+   */
+  public byte [] createRecord() throws IOException {
+    Map<Content, String> baseContentNames;
+    synchronized (this) {
+      if (!isAppendable()) {
+        throw new IOException("Journal requires a full write of home");
+      }
+      baseContentNames = this.baseContentNames;
+    }
+
+    try {
+      // Update the items of modified lists
+      Map<Integer, int []> modifiedItemLists = new LinkedHashMap<Integer, int []>();
+      for (int list = 0; list < LIST_COUNT; list++) {
+        if (this.modifiedLists [list]) {
+          this.modifiedLists [list] = false;
+          List<?> listItems = getItems(this.home, list);
+          int [] itemIds = new int [listItems.size()];
+          Set<Integer> keptItemIds = new LinkedHashSet<Integer>();
+          for (int i = 0; i < itemIds.length; i++) {
+            Object item = listItems.get(i);
+            Integer id = this.itemIds.get(item);
+            if (id == null) {
+              id = this.nextItemId++;
+              trackItem(item, id);
+              this.modifiedItemIds.add(id);
+            }
+            itemIds [i] = id;
+            keptItemIds.add(id);
+          }
+          for (int id : this.itemLists [list]) {
+            if (!keptItemIds.contains(id)) {
+              untrackItem(id);
+              this.modifiedItemIds.remove(id);
+            }
+          }
+          if (!Arrays.equals(itemIds, this.itemLists [list])) {
+            this.itemLists [list] = itemIds;
+            modifiedItemLists.put(list, itemIds);
+          }
+        }
+      }
+
+      ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+      DataOutputStream out = new DataOutputStream(bytes);
+      out.writeInt(modifiedItemLists.size());
+      for (Map.Entry<Integer, int []> entry : modifiedItemLists.entrySet()) {
+        out.writeByte(entry.getKey());
+        out.writeInt(entry.getValue().length);
+        for (int id : entry.getValue()) {
+          out.writeInt(id);
+        }
+      }
+
+      // Write the state of modified items
+      List<Integer> modifiedItemIds = new ArrayList<Integer>();
+      for (Integer id : this.modifiedItemIds) {
+        if (this.items.containsKey(id)) {
+          modifiedItemIds.add(id);
+        }
+      }
+      out.writeInt(modifiedItemIds.size());
+      for (Integer id : modifiedItemIds) {
+        Object item = this.items.get(id);
+        ByteArrayOutputStream itemBytes = new ByteArrayOutputStream();
+        JournalObjectOutputStream itemOut = new JournalObjectOutputStream(itemBytes, item, baseContentNames);
+        itemOut.writeObject(item);
+        itemOut.close();
+        out.writeInt(id);
+        out.writeInt(itemBytes.size());
+        itemBytes.writeTo(out);
+      }
+
+      // Write the state of home
+      out.writeBoolean(this.homeModified);
+      if (this.homeModified) {
+        ByteArrayOutputStream homeBytes = new ByteArrayOutputStream();
+        JournalObjectOutputStream homeOut = new JournalObjectOutputStream(homeBytes, null, baseContentNames);
+        homeOut.writeObject(this.home.getName());
+        homeOut.writeBoolean(this.home.getCamera() == this.home.getObserverCamera());
+        homeOut.writeObject(new ArrayList<Camera>(this.home.getStoredCameras()));
+        homeOut.writeObject(this.home.getFurnitureSortedProperty());
+        homeOut.writeBoolean(this.home.isFurnitureDescendingSorted());
+        homeOut.writeObject(new ArrayList<HomePieceOfFurniture.SortableProperty>(this.home.getFurnitureVisibleProperties()));
+        homeOut.writeObject(this.home.getBackgroundImage());
+        homeOut.writeObject(this.home.getPrint());
+        homeOut.writeBoolean(this.home.isBasePlanLocked());
+        homeOut.writeObject(this.home.getSelectedLevel());
+        homeOut.close();
+        out.writeInt(homeBytes.size());
+        homeBytes.writeTo(out);
+      }
+      out.close();
+
+      this.modifiedItemIds.clear();
+      this.homeModified = false;
+      return bytes.toByteArray();
+    } catch (IOException | RuntimeException ex) {
+      // Tracked items are out of sync with the journal file
+      invalidate();
+      throw ex;
+    }
+  }
+
+  /**
+   * Appends the given <code>record</code> to the journal file and returns its length.
+   * @throws IOException if the record couldn't be written. In that case, home should be fully written.
+   */
+  long appendRecord(byte [] record) throws IOException {
+    File journalFile;
+    synchronized (this) {
+      journalFile = this.journalFile;
+      if (journalFile == null
+          || this.fullWriteRequired) {
+        throw new IOException("Journal requires a full write of home");
+      }
+    }
+    try (FileOutputStream out = new FileOutputStream(journalFile, true)) {
+      CRC32 crc = new CRC32();
+      crc.update(record);
+      DataOutputStream dataOut = new DataOutputStream(new BufferedOutputStream(out, RECORD_HEADER_LENGTH + record.length));
+      dataOut.writeInt(record.length);
+      dataOut.writeLong(crc.getValue());
+      dataOut.write(record);
+      dataOut.flush();
+      out.getFD().sync();
+    } catch (IOException ex) {
+      invalidate();
+      throw ex;
+    }
+    synchronized (this) {
+      this.journalLength += RECORD_HEADER_LENGTH + record.length;
+      this.recordCount++;
+    }
+    return RECORD_HEADER_LENGTH + record.length;
+  }
+
+  /**
+   * Applies to <code>home</code> read from <code>homeFile</code> the records of its journal file.
+   * @return the count of applied records, or -1 if there's no journal matching <code>homeFile</code>
+   * @throws IOException if a record couldn't be applied. In that case, home is in an undetermined state.
+   */
+  static int replay(Home home, File homeFile,
+                    HomeContentContext contentContext) throws IOException, ClassNotFoundException {
+    File journalFile = getJournalFile(homeFile);
+    if (contentContext == null
+        || !journalFile.isFile()) {
+      return -1;
+    }
+    byte [] journal = Files.readAllBytes(journalFile.toPath());
+    DataInputStream in = new DataInputStream(new ByteArrayInputStream(journal));
+    if (journal.length < HEADER_LENGTH
+        || in.readLong() != JOURNAL_MAGIC_NUMBER
+        || in.readInt() != JOURNAL_VERSION
+        || in.readLong() != homeFile.length()
+        || in.readLong() != getFingerprint(homeFile)) {
+      return -1;
+    }
+    for (int list = 0; list < LIST_COUNT; list++) {
+      if (in.readInt() != getItems(home, list).size()) {
+        return -1;
+      }
+    }
+
+    Map<Integer, Object> items = new HashMap<Integer, Object>();
+    items.put(TOP_CAMERA_ID, home.getTopCamera());
+    items.put(OBSERVER_CAMERA_ID, home.getObserverCamera());
+    items.put(ENVIRONMENT_ID, home.getEnvironment());
+    items.put(COMPASS_ID, home.getCompass());
+    int id = FIRST_ITEM_ID;
+    for (int list = 0; list < LIST_COUNT; list++) {
+      for (Object item : getItems(home, list)) {
+        items.put(id++, item);
+      }
+    }
+
+    int recordCount = 0;
+    for (int offset = HEADER_LENGTH; offset + RECORD_HEADER_LENGTH <= journal.length; ) {
+      int length = in.readInt();
+      long crc = in.readLong();
+      if (length < 0
+          || offset + RECORD_HEADER_LENGTH + length > journal.length) {
+        // Ignore a record partially written
+        break;
+      }
+      CRC32 recordCrc = new CRC32();
+      recordCrc.update(journal, offset + RECORD_HEADER_LENGTH, length);
+      if (recordCrc.getValue() != crc) {
+        break;
+      }
+      applyRecord(home, items, new ByteArrayInputStream(journal, offset + RECORD_HEADER_LENGTH, length), contentContext);
+      in.skipBytes(length);
+      offset += RECORD_HEADER_LENGTH + length;
+      recordCount++;
+    }
+    return recordCount;
+  }
+
+  /**
+   * Applies to <code>home</code> the record read from the given input stream.
+   */
+  @SuppressWarnings("unchecked")
+  private static void applyRecord(Home home, Map<Integer, Object> items, InputStream recordIn,
+                                  HomeContentContext contentContext) throws IOException, ClassNotFoundException {
+    DataInputStream in = new DataInputStream(recordIn);
+    Map<Integer, int []> itemLists = new HashMap<Integer, int []>();
+    for (int i = in.readInt(); i > 0; i--) {
+      int list = in.readByte();
+      int [] itemIds = new int [in.readInt()];
+      for (int j = 0; j < itemIds.length; j++) {
+        itemIds [j] = in.readInt();
+      }
+      itemLists.put(list, itemIds);
+    }
+    Map<Integer, byte []> itemStates = new LinkedHashMap<Integer, byte []>();
+    for (int i = in.readInt(); i > 0; i--) {
+      int id = in.readInt();
+      byte [] state = new byte [in.readInt()];
+      in.readFully(state);
+      itemStates.put(id, state);
+    }
+    byte [] homeState = null;
+    if (in.readBoolean()) {
+      homeState = new byte [in.readInt()];
+      in.readFully(homeState);
+    }
+
+    // Create new items first, ignoring the references to other new items
+    for (Map.Entry<Integer, byte []> entry : itemStates.entrySet()) {
+      if (!items.containsKey(entry.getKey())) {
+        items.put(entry.getKey(), readItem(entry.getValue(), items, contentContext, true));
+      }
+    }
+    // Then update all modified items
+    for (Map.Entry<Integer, byte []> entry : itemStates.entrySet()) {
+      Object state = readItem(entry.getValue(), items, contentContext, false);
+      Object item = items.get(entry.getKey());
+      if (item instanceof HomeFurnitureGroup) {
+        // Replace groups which listen to their pieces, as no other item may reference them
+        int index = home.getFurniture().indexOf(item);
+        if (index != -1) {
+          home.deletePieceOfFurniture((HomePieceOfFurniture)item);
+          addItem(home, FURNITURE, state, index);
+        }
+        items.put(entry.getKey(), state);
+      } else {
+        updateItem(item, state);
+      }
+    }
+
+    // Update home lists, adding levels first and deleting them at last
+    // to avoid deleting the items they contain
+    if (itemLists.containsKey(LEVELS)) {
+      updateItemList(home, LEVELS, itemLists.get(LEVELS), items, true);
+    }
+    for (int list = FURNITURE; list < LIST_COUNT; list++) {
+      if (itemLists.containsKey(list)) {
+        updateItemList(home, list, itemLists.get(list), items, false);
+      }
+    }
+    if (itemLists.containsKey(LEVELS)) {
+      updateItemList(home, LEVELS, itemLists.get(LEVELS), items, false);
+    }
+
+    if (homeState != null) {
+      ObjectInputStream homeIn = new JournalObjectInputStream(
+          new ByteArrayInputStream(homeState), items, contentContext, false);
+      home.setName((String)homeIn.readObject());
+      home.setCamera(homeIn.readBoolean() ? home.getObserverCamera() : home.getTopCamera());
+      home.setStoredCameras((List<Camera>)homeIn.readObject());
+      home.setFurnitureSortedProperty((HomePieceOfFurniture.SortableProperty)homeIn.readObject());
+      home.setFurnitureDescendingSorted(homeIn.readBoolean());
+      home.setFurnitureVisibleProperties((List<HomePieceOfFurniture.SortableProperty>)homeIn.readObject());
+      home.setBackgroundImage((BackgroundImage)homeIn.readObject());
+      home.setPrint((HomePrint)homeIn.readObject());
+      home.setBasePlanLocked(homeIn.readBoolean());
+      home.setSelectedLevel((Level)homeIn.readObject());
+    }
+  }
+
+  /**
+   * Returns the item read from the given <code>state</code>.
+   */
+  private static Object readItem(byte [] state, Map<Integer, Object> items, HomeContentContext contentContext,
+                                 boolean unknownItemsIgnored) throws IOException, ClassNotFoundException {
+    ObjectInputStream in = new JournalObjectInputStream(
+        new ByteArrayInputStream(state), items, contentContext, unknownItemsIgnored);
+    return in.readObject();
+  }
+
+  /**
+   * Sets the properties of <code>state</code> to the given <code>item</code> with its public setters,
+   * to keep the references of other items and the listeners of home to this item.
+   */
+  private static void updateItem(Object item, Object state) throws IOException {
+    if (item.getClass() != state.getClass()) {
+      throw new InvalidObjectException("Incompatible state " + state.getClass() + " for " + item.getClass());
+    }
+    try {
+      if (item instanceof Camera) {
+        updateCamera((Camera)item, (Camera)state);
+      } else if (item instanceof HomeEnvironment) {
+        updateEnvironment((HomeEnvironment)item, (HomeEnvironment)state);
+      } else if (item instanceof Compass) {
+        updateCompass((Compass)item, (Compass)state);
+      } else if (item instanceof Level) {
+        updateLevel((Level)item, (Level)state);
+      } else if (item instanceof HomePieceOfFurniture) {
+        updatePieceOfFurniture((HomePieceOfFurniture)item, (HomePieceOfFurniture)state);
+      } else if (item instanceof Wall) {
+        updateWall((Wall)item, (Wall)state);
+      } else if (item instanceof Room) {
+        updateRoom((Room)item, (Room)state);
+      } else if (item instanceof Polyline) {
+        updatePolyline((Polyline)item, (Polyline)state);
+      } else if (item instanceof DimensionLine) {
+        updateDimensionLine((DimensionLine)item, (DimensionLine)state);
+      } else if (item instanceof Label) {
+        updateLabel((Label)item, (Label)state);
+      } else {
+        throw new InvalidObjectException("Unexpected item " + item.getClass());
+      }
+      if (item instanceof HomeObject) {
+        HomeObject homeObject = (HomeObject)item;
+        HomeObject homeObjectState = (HomeObject)state;
+        for (String name : new ArrayList<String>(homeObject.getPropertyNames())) {
+          if (homeObjectState.getProperty(name) == null) {
+            homeObject.setProperty(name, null);
+          }
+        }
+        for (String name : homeObjectState.getPropertyNames()) {
+          homeObject.setProperty(name, homeObjectState.getProperty(name));
+        }
+      }
+    } catch (RuntimeException ex) {
+      throw new IOException("Can't update " + item.getClass(), ex);
+    }
+  }
+
+  private static void updateCamera(Camera camera, Camera state) {
+    if (camera instanceof ObserverCamera) {
+      ((ObserverCamera)camera).setFixedSize(((ObserverCamera)state).isFixedSize());
+    }
+    camera.setName(state.getName());
+    camera.setCamera(state);
+    camera.setTime(state.getTime());
+    camera.setLens(state.getLens());
+  }
+
+  private static void updateEnvironment(HomeEnvironment environment, HomeEnvironment state) {
+    environment.setObserverCameraElevationAdjusted(state.isObserverCameraElevationAdjusted());
+    environment.setGroundColor(state.getGroundColor());
+    environment.setGroundTexture(state.getGroundTexture());
+    environment.setSkyColor(state.getSkyColor());
+    environment.setSkyTexture(state.getSkyTexture());
+    environment.setLightColor(state.getLightColor());
+    environment.setCeillingLightColor(state.getCeillingLightColor());
+    environment.setWallsAlpha(state.getWallsAlpha());
+    environment.setDrawingMode(state.getDrawingMode());
+    environment.setSubpartSizeUnderLight(state.getSubpartSizeUnderLight());
+    environment.setAllLevelsVisible(state.isAllLevelsVisible());
+    environment.setPhotoAspectRatio(state.getPhotoAspectRatio());
+    environment.setPhotoWidth(state.getPhotoWidth());
+    environment.setPhotoHeight(state.getPhotoHeight());
+    environment.setPhotoQuality(state.getPhotoQuality());
+    environment.setVideoAspectRatio(state.getVideoAspectRatio());
+    environment.setVideoWidth(state.getVideoWidth());
+    environment.setVideoQuality(state.getVideoQuality());
+    environment.setVideoFrameRate(state.getVideoFrameRate());
+    environment.setVideoCameraPath(state.getVideoCameraPath());
+  }
+
+  private static void updateCompass(Compass compass, Compass state) {
+    compass.setX(state.getX());
+    compass.setY(state.getY());
+    compass.setDiameter(state.getDiameter());
+    compass.setVisible(state.isVisible());
+    compass.setNorthDirection(state.getNorthDirection());
+    compass.setLatitude(state.getLatitude());
+    compass.setLongitude(state.getLongitude());
+    compass.setTimeZone(state.getTimeZone());
+  }
+
+  private static void updateLevel(Level level, Level state) {
+    level.setName(state.getName());
+    level.setElevation(state.getElevation());
+    level.setFloorThickness(state.getFloorThickness());
+    level.setHeight(state.getHeight());
+    level.setBackgroundImage(state.getBackgroundImage());
+    level.setVisible(state.isVisible());
+    level.setViewable(state.isViewable());
+    level.setElevationIndex(state.getElevationIndex());
+  }
+
+  private static void updatePieceOfFurniture(HomePieceOfFurniture piece, HomePieceOfFurniture state) {
+    piece.setName(state.getName());
+    piece.setNameVisible(state.isNameVisible());
+    piece.setNameXOffset(state.getNameXOffset());
+    piece.setNameYOffset(state.getNameYOffset());
+    piece.setNameStyle(state.getNameStyle());
+    piece.setNameAngle(state.getNameAngle());
+    piece.setDescription(state.getDescription());
+    piece.setX(state.getX());
+    piece.setY(state.getY());
+    piece.setAngle(state.getAngle());
+    // Setters of resizable, texturable and horizontally rotatable properties
+    // can't be called on pieces which don't support them, but their values can't change either
+    if (piece.isHorizontallyRotatable()) {
+      piece.setPitch(state.getPitch());
+      piece.setRoll(state.getRoll());
+    }
+    piece.setElevation(state.getElevation());
+    if (piece.isResizable()) {
+      piece.setWidth(state.getWidth());
+      piece.setDepth(state.getDepth());
+      piece.setHeight(state.getHeight());
+      piece.setModelMirrored(state.isModelMirrored());
+    }
+    piece.setWidthInPlan(state.getWidthInPlan());
+    piece.setDepthInPlan(state.getDepthInPlan());
+    piece.setHeightInPlan(state.getHeightInPlan());
+    piece.setMovable(state.isMovable());
+    piece.setVisible(state.isVisible());
+    piece.setModelSize(state.getModelSize());
+    piece.setModelCenteredAtOrigin(state.isModelCenteredAtOrigin());
+    piece.setModelTransformations(state.getModelTransformations());
+    if (piece.isTexturable()) {
+      piece.setModelMaterials(state.getModelMaterials());
+      piece.setColor(state.getColor());
+      piece.setTexture(state.getTexture());
+      piece.setShininess(state.getShininess());
+    }
+    piece.setPrice(state.getPrice());
+    piece.setValueAddedTaxPercentage(state.getValueAddedTaxPercentage());
+    piece.setCurrency(state.getCurrency());
+    piece.setLevel(state.getLevel());
+    if (piece instanceof HomeDoorOrWindow) {
+      HomeDoorOrWindow doorOrWindow = (HomeDoorOrWindow)piece;
+      HomeDoorOrWindow doorOrWindowState = (HomeDoorOrWindow)state;
+      doorOrWindow.setWallThickness(doorOrWindowState.getWallThickness());
+      doorOrWindow.setWallDistance(doorOrWindowState.getWallDistance());
+      doorOrWindow.setWallWidth(doorOrWindowState.getWallWidth());
+      doorOrWindow.setWallLeft(doorOrWindowState.getWallLeft());
+      doorOrWindow.setWallHeight(doorOrWindowState.getWallHeight());
+      doorOrWindow.setWallTop(doorOrWindowState.getWallTop());
+      doorOrWindow.setSashes(doorOrWindowState.getSashes());
+      // Set boundToWall flag once location, angle and depth are updated since their setters may reset it
+      doorOrWindow.setBoundToWall(doorOrWindowState.isBoundToWall());
+    } else if (piece instanceof HomeLight) {
+      ((HomeLight)piece).setPower(((HomeLight)state).getPower());
+    }
+  }
+
+  private static void updateWall(Wall wall, Wall state) {
+    wall.setXStart(state.getXStart());
+    wall.setYStart(state.getYStart());
+    wall.setXEnd(state.getXEnd());
+    wall.setYEnd(state.getYEnd());
+    wall.setArcExtent(state.getArcExtent());
+    wall.setWallAtStart(state.getWallAtStart());
+    wall.setWallAtEnd(state.getWallAtEnd());
+    wall.setThickness(state.getThickness());
+    wall.setHeight(state.getHeight());
+    wall.setHeightAtEnd(state.getHeightAtEnd());
+    wall.setLeftSideColor(state.getLeftSideColor());
+    wall.setRightSideColor(state.getRightSideColor());
+    wall.setLeftSideTexture(state.getLeftSideTexture());
+    wall.setRightSideTexture(state.getRightSideTexture());
+    wall.setLeftSideShininess(state.getLeftSideShininess());
+    wall.setRightSideShininess(state.getRightSideShininess());
+    wall.setLeftSideBaseboard(state.getLeftSideBaseboard());
+    wall.setRightSideBaseboard(state.getRightSideBaseboard());
+    wall.setPattern(state.getPattern());
+    wall.setTopColor(state.getTopColor());
+    wall.setLevel(state.getLevel());
+  }
+
+  private static void updateRoom(Room room, Room state) {
+    room.setName(state.getName());
+    room.setNameXOffset(state.getNameXOffset());
+    room.setNameYOffset(state.getNameYOffset());
+    room.setNameStyle(state.getNameStyle());
+    room.setNameAngle(state.getNameAngle());
+    room.setPoints(state.getPoints());
+    room.setAreaVisible(state.isAreaVisible());
+    room.setAreaXOffset(state.getAreaXOffset());
+    room.setAreaYOffset(state.getAreaYOffset());
+    room.setAreaStyle(state.getAreaStyle());
+    room.setAreaAngle(state.getAreaAngle());
+    room.setFloorColor(state.getFloorColor());
+    room.setFloorTexture(state.getFloorTexture());
+    room.setFloorVisible(state.isFloorVisible());
+    room.setFloorShininess(state.getFloorShininess());
+    room.setCeilingColor(state.getCeilingColor());
+    room.setCeilingTexture(state.getCeilingTexture());
+    room.setCeilingVisible(state.isCeilingVisible());
+    room.setCeilingShininess(state.getCeilingShininess());
+    room.setLevel(state.getLevel());
+  }
+
+  private static void updatePolyline(Polyline polyline, Polyline state) {
+    polyline.setPoints(state.getPoints());
+    polyline.setThickness(state.getThickness());
+    polyline.setCapStyle(state.getCapStyle());
+    polyline.setJoinStyle(state.getJoinStyle());
+    polyline.setDashStyle(state.getDashStyle());
+    polyline.setStartArrowStyle(state.getStartArrowStyle());
+    polyline.setEndArrowStyle(state.getEndArrowStyle());
+    polyline.setClosedPath(state.isClosedPath());
+    polyline.setColor(state.getColor());
+    polyline.setLevel(state.getLevel());
+  }
+
+  private static void updateDimensionLine(DimensionLine dimensionLine, DimensionLine state) {
+    dimensionLine.setXStart(state.getXStart());
+    dimensionLine.setYStart(state.getYStart());
+    dimensionLine.setXEnd(state.getXEnd());
+    dimensionLine.setYEnd(state.getYEnd());
+    dimensionLine.setOffset(state.getOffset());
+    dimensionLine.setLengthStyle(state.getLengthStyle());
+    dimensionLine.setLevel(state.getLevel());
+  }
+
+  private static void updateLabel(Label label, Label state) {
+    label.setText(state.getText());
+    label.setX(state.getX());
+    label.setY(state.getY());
+    label.setElevation(state.getElevation());
+    label.setStyle(state.getStyle());
+    label.setColor(state.getColor());
+    label.setOutlineColor(state.getOutlineColor());
+    label.setAngle(state.getAngle());
+    label.setPitch(state.getPitch());
+    label.setLevel(state.getLevel());
+  }
+
+  /**
+   * Updates the given <code>list</code> of home to match the given item ids.
+   * @param additionsOnly if <code>true</code> only the missing items will be added to the list
+   */
+  private static void updateItemList(Home home, int list, int [] itemIds, Map<Integer, Object> items,
+                                     boolean additionsOnly) throws IOException {
+    List<Object> listItems = new ArrayList<Object>(itemIds.length);
+    Set<Object> listItemsSet = Collections.newSetFromMap(new IdentityHashMap<Object, Boolean>());
+    for (int id : itemIds) {
+      Object item = items.get(id);
+      if (item == null) {
+        throw new InvalidObjectException("Unknown item " + id);
+      }
+      listItems.add(item);
+      listItemsSet.add(item);
+    }
+
+    Set<Object> homeItemsSet = Collections.newSetFromMap(new IdentityHashMap<Object, Boolean>());
+    for (Object item : getItems(home, list)) {
+      if (listItemsSet.contains(item)) {
+        homeItemsSet.add(item);
+      } else if (!additionsOnly) {
+        deleteItem(home, list, item);
+      }
+    }
+    boolean indexedList = list == FURNITURE || list == ROOMS || list == POLYLINES;
+    for (int i = 0; i < listItems.size(); i++) {
+      Object item = listItems.get(i);
+      if (indexedList) {
+        List<?> homeItems = getItems(home, list);
+        if (i >= homeItems.size()
+            || homeItems.get(i) != item) {
+          if (homeItemsSet.contains(item)) {
+            // Move item
+            deleteItem(home, list, item);
+          }
+          addItem(home, list, item, i);
+          homeItemsSet.add(item);
+        }
+      } else if (!homeItemsSet.contains(item)) {
+        addItem(home, list, item, -1);
+        homeItemsSet.add(item);
+      }
+    }
+  }
+
+  /**
+   * Adds the given <code>item</code> to home, keeping its level.
+   */
+  private static void addItem(Home home, int list, Object item, int index) {
+    switch (list) {
+      case LEVELS :
+        home.addLevel((Level)item);
+        break;
+      case FURNITURE :
+        HomePieceOfFurniture piece = (HomePieceOfFurniture)item;
+        Level pieceLevel = piece.getLevel();
+        home.addPieceOfFurniture(piece, index);
+        piece.setLevel(pieceLevel);
+        break;
+      case WALLS :
+        Wall wall = (Wall)item;
+        Level wallLevel = wall.getLevel();
+        home.addWall(wall);
+        wall.setLevel(wallLevel);
+        break;
+      case ROOMS :
+        Room room = (Room)item;
+        Level roomLevel = room.getLevel();
+        home.addRoom(room, index);
+        room.setLevel(roomLevel);
+        break;
+      case POLYLINES :
+        Polyline polyline = (Polyline)item;
+        Level polylineLevel = polyline.getLevel();
+        home.addPolyline(polyline, index);
+        polyline.setLevel(polylineLevel);
+        break;
+      case DIMENSION_LINES :
+        DimensionLine dimensionLine = (DimensionLine)item;
+        Level dimensionLineLevel = dimensionLine.getLevel();
+        home.addDimensionLine(dimensionLine);
+        dimensionLine.setLevel(dimensionLineLevel);
+        break;
+      default :
+        Label label = (Label)item;
+        Level labelLevel = label.getLevel();
+        home.addLabel(label);
+        label.setLevel(labelLevel);
+        break;
+    }
+  }
+
+  /**
+   * Deletes the given <code>item</code> from home.
+   */
+  private static void deleteItem(Home home, int list, Object item) {
+    switch (list) {
+      case LEVELS :
+        home.deleteLevel((Level)item);
+        break;
+      case FURNITURE :
+        home.deletePieceOfFurniture((HomePieceOfFurniture)item);
+        break;
+      case WALLS :
+        home.deleteWall((Wall)item);
+        break;
+      case ROOMS :
+        home.deleteRoom((Room)item);
+        break;
+      case POLYLINES :
+        home.deletePolyline((Polyline)item);
+        break;
+      case DIMENSION_LINES :
+        home.deleteDimensionLine((DimensionLine)item);
+        break;
+      default :
+        home.deleteLabel((Label)item);
+        break;
+    }
+  }
+
+  /**
+   * A listener that marks a list of home as modified.
+   */
+  private class ListListener<T> implements BatchCollectionListener<T> {
+    private final int list;
+
+    public ListListener(int list) {
+      this.list = list;
+    }
+
+    public void collectionChanged(CollectionEvent<T> ev) {
+      modifiedLists [this.list] = true;
+    }
+  }
+
+  /**
+   * A reference to a tracked item, saved in place of the item.
+   */
+  private static class ItemReference implements Serializable {
+    private static final long serialVersionUID = 1L;
+
+    private final int id;
+
+    public ItemReference(int id) {
+      this.id = id;
+    }
+  }
+
+  /**
+   * <code>ObjectOutputStream</code> that replaces tracked items other than the written one
+   * by references, and <code>Content</code> objects saved in home file by temporary
+   * <code>URLContent</code> objects as done by <code>DefaultHomeOutputStream</code>.
+   */
+  private class JournalObjectOutputStream extends ObjectOutputStream {
+    private final Object               writtenItem;
+    private final Map<Content, String> baseContentNames;
+
+    public JournalObjectOutputStream(OutputStream out, Object writtenItem,
+                                     Map<Content, String> baseContentNames) throws IOException {
+      super(out);
+      this.writtenItem = writtenItem;
+      this.baseContentNames = baseContentNames;
+      enableReplaceObject(true);
+    }
+
+    @Override
+    protected Object replaceObject(Object obj) throws IOException {
+      if (obj != this.writtenItem) {
+        Integer id = itemIds.get(obj);
+        if (id != null) {
+          return new ItemReference(id);
+        }
+      }
+      if (obj instanceof Content
+          && contentRecording != ContentRecording.INCLUDE_NO_CONTENT) {
+        String savedContentName = this.baseContentNames.get(obj);
+        if (savedContentName != null) {
+          return new URLContent(new URL("jar:file:temp!/" + savedContentName));
+        } else if (obj instanceof TemporaryURLContent
+            || obj instanceof HomeURLContent
+            || contentRecording == ContentRecording.INCLUDE_ALL_CONTENT) {
+          throw new NotSerializableException("Content " + obj + " not saved in home file");
+        }
+      }
+      return obj;
+    }
+  }
+
+  /**
+   * <code>ObjectInputStream</code> that resolves the references to tracked items,
+   * and temporary <code>URLContent</code> objects to the content saved in home file.
+   */
+  private static class JournalObjectInputStream extends ObjectInputStream {
+    private final Map<Integer, Object> items;
+    private final HomeContentContext   contentContext;
+    private final boolean              unknownItemsIgnored;
+
+    public JournalObjectInputStream(InputStream in, Map<Integer, Object> items,
+                                    HomeContentContext contentContext,
+                                    boolean unknownItemsIgnored) throws IOException {
+      super(in);
+      this.items = items;
+      this.contentContext = contentContext;
+      this.unknownItemsIgnored = unknownItemsIgnored;
+      enableResolveObject(true);
+    }
+
+    @Override
+    protected Object resolveObject(Object obj) throws IOException {
+      if (obj instanceof ItemReference) {
+        Object item = this.items.get(((ItemReference)obj).id);
+        if (item == null
+            && !this.unknownItemsIgnored) {
+          throw new InvalidObjectException("Unknown item " + ((ItemReference)obj).id);
+        }
+        return item;
+      } else if (obj instanceof URLContent) {
+        String url = ((URLContent)obj).getURL().toString();
+        if (url.startsWith("jar:file:temp!/")) {
+          return this.contentContext.lookupContent(url.substring(url.indexOf('!') + 2));
+        }
+      }
+      return obj;
+    }
+  }
+}
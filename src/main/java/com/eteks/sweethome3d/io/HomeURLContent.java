@@ -19,7 +19,10 @@
  */
 package com.eteks.sweethome3d.io;
 
+import java.io.IOException;
+import java.io.InputStream;
 import java.net.URL;
+import java.net.URLDecoder;
 
 import com.eteks.sweethome3d.tools.URLContent;
 
@@ -27,7 +30,34 @@ import com.eteks.sweethome3d.tools.URLContent;
  * An URL content read from a home stream stored in a temporary file.
  */
 class HomeURLContent extends URLContent {
+  private transient SharedZipFile homeZipFile;
+
   public HomeURLContent(URL url) {
     super(url);
   }
+
+  /**
+   * Creates a content which data will be read on demand from the given
+   * home zip file, shared by all the contents of a home.
+   */
+  public HomeURLContent(URL url, SharedZipFile homeZipFile) {
+    super(url);
+    this.homeZipFile = homeZipFile;
+  }
+
+  /**
+   * Returns an input stream on the data of this content, inflated from the entry
+   * of the home zip file given at creation time if it exists.
+   */
+  @Override
+  public InputStream openStream() throws IOException {
+    if (this.homeZipFile != null) {
+      String entryName = URLDecoder.decode(getJAREntryName().replace("+", "%2B"), "UTF-8");
+      InputStream in = this.homeZipFile.getInputStream(entryName);
+      if (in != null) {
+        return in;
+      }
+    }
+    return super.openStream();
+  }
 }
\ No newline at end of file
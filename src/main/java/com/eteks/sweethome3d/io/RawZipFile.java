@@ -0,0 +1,330 @@
+/*
+ * RawZipFile.java 17 oct. 2026
+ *
+ * Sweet Home 3D, Copyright (c) 2026 Emmanuel PUYBARET / eTeks <info@eteks.com>
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation; either version 2 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA  02111-1307  USA
+ */
+package com.eteks.sweethome3d.io;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.StandardOpenOption;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.zip.CRC32;
+import java.util.zip.DataFormatException;
+import java.util.zip.Inflater;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipException;
+
+/**
+ * A read only access to the entries of a zip file that gives the location
+ * of their compressed data, to be able to copy it without decompressing it.
+ * @author Emmanuel Puybaret
+ */
+class RawZipFile implements Closeable {
+  private static final int  CENTRAL_HEADER_SIGNATURE          = 0x02014b50;
+  private static final int  END_OF_CENTRAL_SIGNATURE          = 0x06054b50;
+  private static final int  ZIP64_END_OF_CENTRAL_SIGNATURE    = 0x06064b50;
+  private static final int  ZIP64_END_OF_CENTRAL_LOCATOR_SIGNATURE = 0x07064b50;
+  private static final int  ZIP64_EXTRA_FIELD_ID              = 0x0001;
+  private static final long ZIP64_MAGIC_VALUE                 = 0xFFFFFFFFL;
+  private static final int  ZIP64_MAGIC_COUNT                 = 0xFFFF;
+  private static final int  END_OF_CENTRAL_LENGTH             = 22;
+  private static final int  MAX_COMMENT_LENGTH                = 0xFFFF;
+
+  private final FileChannel         channel;
+  private final Map<String, Entry>  entries;
+
+  /**
+   * Opens the given zip <code>file</code> and reads its central directory.
+   * @throws IOException if the file can't be read or isn't a valid zip file
+   */
+  public RawZipFile(File file) throws IOException {
+    this.channel = FileChannel.open(file.toPath(), StandardOpenOption.READ);
+    try {
+      this.entries = readCentralDirectory();
+    } catch (IOException | RuntimeException ex) {
+      this.channel.close();
+      throw ex;
+    }
+  }
+
+  /**
+   * Returns the entries listed in the central directory of this file.
+   */
+  private Map<String, Entry> readCentralDirectory() throws IOException {
+    long fileSize = this.channel.size();
+    int tailLength = (int)Math.min(fileSize, END_OF_CENTRAL_LENGTH + MAX_COMMENT_LENGTH);
+    ByteBuffer tail = read(fileSize - tailLength, tailLength);
+    int endOfCentralIndex = -1;
+    for (int i = tailLength - END_OF_CENTRAL_LENGTH; i >= 0; i--) {
+      if (tail.getInt(i) == END_OF_CENTRAL_SIGNATURE) {
+        endOfCentralIndex = i;
+        break;
+      }
+    }
+    if (endOfCentralIndex == -1) {
+      throw new ZipException("Missing end of central directory");
+    }
+    long entryCount = tail.getShort(endOfCentralIndex + 10) & 0xFFFF;
+    long centralDirectorySize = tail.getInt(endOfCentralIndex + 12) & ZIP64_MAGIC_VALUE;
+    long centralDirectoryOffset = tail.getInt(endOfCentralIndex + 16) & ZIP64_MAGIC_VALUE;
+    if (entryCount == ZIP64_MAGIC_COUNT
+        || centralDirectorySize == ZIP64_MAGIC_VALUE
+        || centralDirectoryOffset == ZIP64_MAGIC_VALUE) {
+      long locatorOffset = fileSize - tailLength + endOfCentralIndex - 20;
+      if (locatorOffset >= 0) {
+        ByteBuffer locator = read(locatorOffset, 20);
+        if (locator.getInt(0) == ZIP64_END_OF_CENTRAL_LOCATOR_SIGNATURE) {
+          ByteBuffer zip64End = read(locator.getLong(8), 56);
+          if (zip64End.getInt(0) != ZIP64_END_OF_CENTRAL_SIGNATURE) {
+            throw new ZipException("Invalid Zip64 end of central directory");
+          }
+          entryCount = zip64End.getLong(32);
+          centralDirectorySize = zip64End.getLong(40);
+          centralDirectoryOffset = zip64End.getLong(48);
+        }
+      }
+    }
+    if (centralDirectorySize > Integer.MAX_VALUE
+        || centralDirectoryOffset + centralDirectorySize > fileSize) {
+      throw new ZipException("Invalid central directory");
+    }
+
+    ByteBuffer centralDirectory = read(centralDirectoryOffset, (int)centralDirectorySize);
+    Map<String, Entry> entries = new HashMap<String, Entry>((int)Math.min(entryCount * 2, 1 << 16));
+    int index = 0;
+    for (long i = 0; i < entryCount; i++) {
+      if (index + 46 > centralDirectory.limit()
+          || centralDirectory.getInt(index) != CENTRAL_HEADER_SIGNATURE) {
+        throw new ZipException("Invalid central directory header");
+      }
+      int flags = centralDirectory.getShort(index + 8) & 0xFFFF;
+      int method = centralDirectory.getShort(index + 10) & 0xFFFF;
+      long crc = centralDirectory.getInt(index + 16) & ZIP64_MAGIC_VALUE;
+      long compressedSize = centralDirectory.getInt(index + 20) & ZIP64_MAGIC_VALUE;
+      long size = centralDirectory.getInt(index + 24) & ZIP64_MAGIC_VALUE;
+      int nameLength = centralDirectory.getShort(index + 28) & 0xFFFF;
+      int extraLength = centralDirectory.getShort(index + 30) & 0xFFFF;
+      int commentLength = centralDirectory.getShort(index + 32) & 0xFFFF;
+      long localHeaderOffset = centralDirectory.getInt(index + 42) & ZIP64_MAGIC_VALUE;
+      byte [] nameBytes = new byte [nameLength];
+      centralDirectory.position(index + 46);
+      centralDirectory.get(nameBytes);
+      String name = new String(nameBytes, StandardCharsets.UTF_8);
+
+      // Search Zip64 values in extra field
+      int extraIndex = index + 46 + nameLength;
+      int extraEnd = extraIndex + extraLength;
+      while (extraIndex + 4 <= extraEnd) {
+        int id = centralDirectory.getShort(extraIndex) & 0xFFFF;
+        int length = centralDirectory.getShort(extraIndex + 2) & 0xFFFF;
+        if (id == ZIP64_EXTRA_FIELD_ID) {
+          int valueIndex = extraIndex + 4;
+          if (size == ZIP64_MAGIC_VALUE) {
+            size = centralDirectory.getLong(valueIndex);
+            valueIndex += 8;
+          }
+          if (compressedSize == ZIP64_MAGIC_VALUE) {
+            compressedSize = centralDirectory.getLong(valueIndex);
+            valueIndex += 8;
+          }
+          if (localHeaderOffset == ZIP64_MAGIC_VALUE) {
+            localHeaderOffset = centralDirectory.getLong(valueIndex);
+          }
+          break;
+        }
+        extraIndex += 4 + length;
+      }
+
+      // Ignore encrypted entries and entries compressed with unsupported methods
+      if ((flags & 1) == 0
+          && (method == ZipEntry.STORED || method == ZipEntry.DEFLATED)) {
+        entries.put(name, new Entry(name, method, crc, size, compressedSize, localHeaderOffset));
+      }
+      index += 46 + nameLength + extraLength + commentLength;
+    }
+    return entries;
+  }
+
+  /**
+   * Returns the bytes of this file stored at the given <code>position</code>.
+   */
+  private ByteBuffer read(long position, int length) throws IOException {
+    ByteBuffer buffer = ByteBuffer.allocate(length).order(ByteOrder.LITTLE_ENDIAN);
+    while (buffer.hasRemaining()) {
+      if (this.channel.read(buffer, position + buffer.position()) == -1) {
+        throw new ZipException("Unexpected end of zip file");
+      }
+    }
+    buffer.flip();
+    return buffer;
+  }
+
+  /**
+   * Returns the entry of the given <code>name</code> or <code>null</code> if it doesn't exist
+   * or if its data can't be copied.
+   */
+  public Entry getEntry(String name) {
+    return this.entries.get(name);
+  }
+
+  /**
+   * Returns the first bytes of the uncompressed data of the given stored <code>entry</code>.
+   */
+  public byte [] getStoredDataPrefix(Entry entry, int length) throws IOException {
+    if (entry.getMethod() != ZipEntry.STORED) {
+      throw new IllegalArgumentException("Entry " + entry.getName() + " isn't stored");
+    }
+    ByteBuffer buffer = read(getDataOffset(entry), (int)Math.min(length, entry.getCompressedSize()));
+    byte [] prefix = new byte [buffer.remaining()];
+    buffer.get(prefix);
+    return prefix;
+  }
+
+  /**
+   * Returns <code>true</code> if the uncompressed data of the given <code>entry</code>
+   * matches the CRC and the size stored in the central directory.
+   * This method may be called from multiple threads.
+   */
+  public boolean isValidEntry(Entry entry) throws IOException {
+    if (entry.getMethod() != ZipEntry.STORED
+        && entry.getMethod() != ZipEntry.DEFLATED) {
+      return false;
+    }
+    long dataOffset = getDataOffset(entry);
+    CRC32 crc = new CRC32();
+    Inflater inflater = entry.getMethod() == ZipEntry.DEFLATED ? new Inflater(true) : null;
+    try {
+      byte [] inflatedData = new byte [8192];
+      long size = 0;
+      for (long position = 0; position < entry.getCompressedSize(); ) {
+        ByteBuffer buffer = read(dataOffset + position, (int)Math.min(8192, entry.getCompressedSize() - position));
+        position += buffer.remaining();
+        if (inflater == null) {
+          crc.update(buffer.array(), 0, buffer.remaining());
+          size += buffer.remaining();
+        } else {
+          inflater.setInput(buffer.array(), 0, buffer.remaining());
+          for (int length; (length = inflater.inflate(inflatedData)) > 0; ) {
+            crc.update(inflatedData, 0, length);
+            size += length;
+          }
+          if (inflater.needsDictionary()) {
+            return false;
+          }
+        }
+      }
+      if (inflater != null) {
+        // Inflate remaining data 
+        for (int length; (length = inflater.inflate(inflatedData)) > 0; ) {
+          crc.update(inflatedData, 0, length);
+          size += length;
+        }
+        if (!inflater.finished()) {
+          return false;
+        }
+      }
+      return crc.getValue() == entry.getCrc()
+          && size == entry.getSize();
+    } catch (DataFormatException ex) {
+      return false;
+    } finally {
+      if (inflater != null) {
+        inflater.end();
+      }
+    }
+  }
+
+  /**
+   * Writes the given <code>entry</code> with its compressed data in <code>zipOut</code>
+   * under the name <code>entryName</code>.
+   */
+  public void copyEntry(Entry entry, String entryName, RawZipOutputStream zipOut) throws IOException {
+    zipOut.putNextEntry(entryName, entry.getMethod(), entry.getCrc(), entry.getSize(), entry.getCompressedSize());
+    zipOut.transferFrom(this.channel, getDataOffset(entry), entry.getCompressedSize());
+    zipOut.closeEntry();
+  }
+
+  /**
+   * Returns the offset of the compressed data of the given <code>entry</code>
+   * read from its local header.
+   */
+  private long getDataOffset(Entry entry) throws IOException {
+    if (entry.dataOffset == -1) {
+      ByteBuffer localHeader = read(entry.localHeaderOffset, 30);
+      int nameLength = localHeader.getShort(26) & 0xFFFF;
+      int extraLength = localHeader.getShort(28) & 0xFFFF;
+      entry.dataOffset = entry.localHeaderOffset + 30 + nameLength + extraLength;
+      if (entry.dataOffset + entry.getCompressedSize() > this.channel.size()) {
+        throw new ZipException("Invalid entry " + entry.getName());
+      }
+    }
+    return entry.dataOffset;
+  }
+
+  public void close() throws IOException {
+    this.channel.close();
+  }
+
+  /**
+   * An entry of a zip file.
+   */
+  static class Entry {
+    private final String name;
+    private final int    method;
+    private final long   crc;
+    private final long   size;
+    private final long   compressedSize;
+    private final long   localHeaderOffset;
+    private long         dataOffset = -1;
+
+    private Entry(String name, int method, long crc, long size, long compressedSize, long localHeaderOffset) {
+      this.name = name;
+      this.method = method;
+      this.crc = crc;
+      this.size = size;
+      this.compressedSize = compressedSize;
+      this.localHeaderOffset = localHeaderOffset;
+    }
+
+    public String getName() {
+      return this.name;
+    }
+
+    public int getMethod() {
+      return this.method;
+    }
+
+    public long getCrc() {
+      return this.crc;
+    }
+
+    public long getSize() {
+      return this.size;
+    }
+
+    public long getCompressedSize() {
+      return this.compressedSize;
+    }
+  }
+}
@@ -0,0 +1,356 @@
+/*
+ * RawZipOutputStream.java 17 oct. 2026
+ *
+ * Sweet Home 3D, Copyright (c) 2026 Emmanuel PUYBARET / eTeks <info@eteks.com>
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation; either version 2 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA  02111-1307  USA
+ */
+package com.eteks.sweethome3d.io;
+
+import java.io.ByteArrayOutputStream;
+import java.io.EOFException;
+import java.io.FileOutputStream;
+import java.io.FilterOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Calendar;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipException;
+
+/**
+ * An output stream that writes zip entries which data is already compressed
+ * (or stored), with its CRC and sizes known before the entry is written.
+ * Contrary to <code>ZipOutputStream</code>, this stream never deflates data itself,
+ * which allows to compress entries in other threads or to copy them raw from another zip file.
+ * Entries are written with their sizes in their local header and without data descriptor,
+ * and Zip64 extensions are used only when sizes or offsets require it.
+ * @author Emmanuel Puybaret
+ */
+class RawZipOutputStream extends FilterOutputStream {
+  private static final int  LOCAL_HEADER_SIGNATURE            = 0x04034b50;
+  private static final int  CENTRAL_HEADER_SIGNATURE          = 0x02014b50;
+  private static final int  END_OF_CENTRAL_SIGNATURE          = 0x06054b50;
+  private static final int  ZIP64_END_OF_CENTRAL_SIGNATURE    = 0x06064b50;
+  private static final int  ZIP64_END_OF_CENTRAL_LOCATOR_SIGNATURE = 0x07064b50;
+  private static final int  ZIP64_EXTRA_FIELD_ID              = 0x0001;
+  private static final int  UTF8_FLAG                         = 0x0800;
+  private static final int  VERSION                           = 20;
+  private static final int  ZIP64_VERSION                     = 45;
+  private static final long ZIP64_MAGIC_VALUE                 = 0xFFFFFFFFL;
+  private static final int  ZIP64_MAGIC_COUNT                 = 0xFFFF;
+
+  private final List<EntryHeader> entries = new ArrayList<EntryHeader>();
+  private final Set<String>       entryNames = new HashSet<String>();
+  private final byte []           headerBuffer = new byte [64];
+  private final long              dosTime;
+  private long                    written;
+  private EntryHeader             currentEntry;
+  private boolean                 finished;
+
+  public RawZipOutputStream(OutputStream out) {
+    super(out);
+    this.dosTime = toDosTime(System.currentTimeMillis());
+  }
+
+  /**
+   * Starts a new entry which compressed data will be written with {@link #write(byte[], int, int) write} methods.
+   * @param name    the name of the entry
+   * @param method  {@link ZipEntry#STORED} or {@link ZipEntry#DEFLATED}
+   * @param crc     the CRC-32 of the uncompressed data
+   * @param size    the size of the uncompressed data
+   * @param compressedSize the size of the data that will be written
+   * @throws ZipException if an entry with the same name was already written
+   */
+  public void putNextEntry(String name, int method,
+                           long crc, long size, long compressedSize) throws IOException {
+    closeEntry();
+    if (!this.entryNames.add(name)) {
+      throw new ZipException("duplicate entry: " + name);
+    }
+    if (method == ZipEntry.STORED && size != compressedSize) {
+      throw new ZipException("invalid compressed size for stored entry " + name);
+    }
+    EntryHeader entry = new EntryHeader(name.getBytes(StandardCharsets.UTF_8),
+        method, crc, size, compressedSize, this.written);
+    writeLocalHeader(entry);
+    this.currentEntry = entry;
+    this.currentEntry.dataStart = this.written;
+  }
+
+  /**
+   * Ends the current entry and checks the count of written bytes matches its compressed size.
+   */
+  public void closeEntry() throws IOException {
+    if (this.currentEntry != null) {
+      long writtenData = this.written - this.currentEntry.dataStart;
+      if (writtenData != this.currentEntry.compressedSize) {
+        throw new ZipException("invalid entry compressed size (expected "
+            + this.currentEntry.compressedSize + " but got " + writtenData + " bytes)");
+      }
+      this.entries.add(this.currentEntry);
+      this.currentEntry = null;
+    }
+  }
+
+  @Override
+  public void write(int b) throws IOException {
+    this.out.write(b);
+    this.written++;
+  }
+
+  @Override
+  public void write(byte [] b, int off, int len) throws IOException {
+    this.out.write(b, off, len);
+    this.written += len;
+  }
+
+  /**
+   * Writes <code>count</code> bytes read from <code>source</code> at the given <code>position</code>.
+   * Bytes are transferred from channel to channel if the underlying stream is a file.
+   */
+  public void transferFrom(FileChannel source, long position, long count) throws IOException {
+    long end = position + count;
+    if (this.out instanceof FileOutputStream) {
+      this.out.flush();
+      FileChannel target = ((FileOutputStream)this.out).getChannel();
+      while (position < end) {
+        long transferred = source.transferTo(position, end - position, target);
+        if (transferred <= 0) {
+          break;
+        }
+        position += transferred;
+        this.written += transferred;
+      }
+    }
+    if (position < end) {
+      byte [] buffer = new byte [65536];
+      ByteBuffer byteBuffer = ByteBuffer.wrap(buffer);
+      while (position < end) {
+        byteBuffer.clear();
+        byteBuffer.limit((int)Math.min(buffer.length, end - position));
+        int size = source.read(byteBuffer, position);
+        if (size == -1) {
+          throw new EOFException("Unexpected end of file");
+        }
+        write(buffer, 0, size);
+        position += size;
+      }
+    }
+  }
+
+  /**
+   * Returns the count of bytes written so far in the underlying stream.
+   */
+  public long getWrittenByteCount() {
+    return this.written;
+  }
+
+  /**
+   * Writes the central directory of the zip stream without closing the underlying stream.
+   */
+  public void finish() throws IOException {
+    if (!this.finished) {
+      closeEntry();
+      long centralDirectoryOffset = this.written;
+      for (EntryHeader entry : this.entries) {
+        writeCentralHeader(entry);
+      }
+      long centralDirectorySize = this.written - centralDirectoryOffset;
+      int entryCount = this.entries.size();
+      if (entryCount >= ZIP64_MAGIC_COUNT
+          || centralDirectoryOffset >= ZIP64_MAGIC_VALUE
+          || centralDirectorySize >= ZIP64_MAGIC_VALUE) {
+        long zip64EndOffset = this.written;
+        ByteArrayOutputStream end = new ByteArrayOutputStream(76);
+        writeInt(end, ZIP64_END_OF_CENTRAL_SIGNATURE);
+        writeLong(end, 44);
+        writeShort(end, ZIP64_VERSION);
+        writeShort(end, ZIP64_VERSION);
+        writeInt(end, 0);
+        writeInt(end, 0);
+        writeLong(end, entryCount);
+        writeLong(end, entryCount);
+        writeLong(end, centralDirectorySize);
+        writeLong(end, centralDirectoryOffset);
+        writeInt(end, ZIP64_END_OF_CENTRAL_LOCATOR_SIGNATURE);
+        writeInt(end, 0);
+        writeLong(end, zip64EndOffset);
+        writeInt(end, 1);
+        end.writeTo(this);
+        entryCount = Math.min(entryCount, ZIP64_MAGIC_COUNT);
+        centralDirectoryOffset = Math.min(centralDirectoryOffset, ZIP64_MAGIC_VALUE);
+        centralDirectorySize = Math.min(centralDirectorySize, ZIP64_MAGIC_VALUE);
+      }
+      ByteArrayOutputStream end = new ByteArrayOutputStream(22);
+      writeInt(end, END_OF_CENTRAL_SIGNATURE);
+      writeShort(end, 0);
+      writeShort(end, 0);
+      writeShort(end, entryCount);
+      writeShort(end, entryCount);
+      writeInt(end, centralDirectorySize);
+      writeInt(end, centralDirectoryOffset);
+      writeShort(end, 0);
+      end.writeTo(this);
+      this.out.flush();
+      this.finished = true;
+    }
+  }
+
+  @Override
+  public void close() throws IOException {
+    try {
+      finish();
+    } finally {
+      this.out.close();
+    }
+  }
+
+  /**
+   * Writes the local header of the given <code>entry</code>.
+   */
+  private void writeLocalHeader(EntryHeader entry) throws IOException {
+    boolean zip64 = entry.size >= ZIP64_MAGIC_VALUE
+        || entry.compressedSize >= ZIP64_MAGIC_VALUE;
+    ByteArrayOutputStream header = new ByteArrayOutputStream(30 + entry.name.length + 20);
+    writeInt(header, LOCAL_HEADER_SIGNATURE);
+    writeShort(header, zip64 ? ZIP64_VERSION : VERSION);
+    writeShort(header, UTF8_FLAG);
+    writeShort(header, entry.method);
+    writeInt(header, this.dosTime);
+    writeInt(header, entry.crc);
+    writeInt(header, zip64 ? ZIP64_MAGIC_VALUE : entry.compressedSize);
+    writeInt(header, zip64 ? ZIP64_MAGIC_VALUE : entry.size);
+    writeShort(header, entry.name.length);
+    writeShort(header, zip64 ? 20 : 0);
+    header.write(entry.name);
+    if (zip64) {
+      writeShort(header, ZIP64_EXTRA_FIELD_ID);
+      writeShort(header, 16);
+      writeLong(header, entry.size);
+      writeLong(header, entry.compressedSize);
+    }
+    header.writeTo(this);
+  }
+
+  /**
+   * Writes the central directory header of the given <code>entry</code>.
+   */
+  private void writeCentralHeader(EntryHeader entry) throws IOException {
+    boolean zip64Size = entry.size >= ZIP64_MAGIC_VALUE;
+    boolean zip64CompressedSize = entry.compressedSize >= ZIP64_MAGIC_VALUE;
+    boolean zip64Offset = entry.offset >= ZIP64_MAGIC_VALUE;
+    int extraLength = (zip64Size ? 8 : 0) + (zip64CompressedSize ? 8 : 0) + (zip64Offset ? 8 : 0);
+    boolean zip64 = extraLength > 0;
+    ByteArrayOutputStream header = new ByteArrayOutputStream(46 + entry.name.length + 28);
+    writeInt(header, CENTRAL_HEADER_SIGNATURE);
+    writeShort(header, zip64 ? ZIP64_VERSION : VERSION);
+    writeShort(header, zip64 ? ZIP64_VERSION : VERSION);
+    writeShort(header, UTF8_FLAG);
+    writeShort(header, entry.method);
+    writeInt(header, this.dosTime);
+    writeInt(header, entry.crc);
+    writeInt(header, zip64CompressedSize ? ZIP64_MAGIC_VALUE : entry.compressedSize);
+    writeInt(header, zip64Size ? ZIP64_MAGIC_VALUE : entry.size);
+    writeShort(header, entry.name.length);
+    writeShort(header, zip64 ? extraLength + 4 : 0);
+    writeShort(header, 0);
+    writeShort(header, 0);
+    writeShort(header, 0);
+    writeInt(header, 0);
+    writeInt(header, zip64Offset ? ZIP64_MAGIC_VALUE : entry.offset);
+    header.write(entry.name);
+    if (zip64) {
+      writeShort(header, ZIP64_EXTRA_FIELD_ID);
+      writeShort(header, extraLength);
+      if (zip64Size) {
+        writeLong(header, entry.size);
+      }
+      if (zip64CompressedSize) {
+        writeLong(header, entry.compressedSize);
+      }
+      if (zip64Offset) {
+        writeLong(header, entry.offset);
+      }
+    }
+    header.writeTo(this);
+  }
+
+  private void writeShort(OutputStream out, int value) throws IOException {
+    this.headerBuffer [0] = (byte)value;
+    this.headerBuffer [1] = (byte)(value >>> 8);
+    out.write(this.headerBuffer, 0, 2);
+  }
+
+  private void writeInt(OutputStream out, long value) throws IOException {
+    for (int i = 0; i < 4; i++) {
+      this.headerBuffer [i] = (byte)(value >>> (i * 8));
+    }
+    out.write(this.headerBuffer, 0, 4);
+  }
+
+  private void writeLong(OutputStream out, long value) throws IOException {
+    for (int i = 0; i < 8; i++) {
+      this.headerBuffer [i] = (byte)(value >>> (i * 8));
+    }
+    out.write(this.headerBuffer, 0, 8);
+  }
+
+  /**
+   * Returns the given time converted to MS-DOS date and time format.
+   */
+  private static long toDosTime(long time) {
+    Calendar calendar = Calendar.getInstance();
+    calendar.setTimeInMillis(time);
+    int year = calendar.get(Calendar.YEAR);
+    if (year < 1980) {
+      return (1 << 21) | (1 << 16);
+    }
+    return ((year - 1980) << 25
+        | (calendar.get(Calendar.MONTH) + 1) << 21
+        | calendar.get(Calendar.DAY_OF_MONTH) << 16
+        | calendar.get(Calendar.HOUR_OF_DAY) << 11
+        | calendar.get(Calendar.MINUTE) << 5
+        | calendar.get(Calendar.SECOND) >> 1) & 0xFFFFFFFFL;
+  }
+
+  /**
+   * The information written about an entry in its local and central headers.
+   */
+  private static class EntryHeader {
+    private final byte [] name;
+    private final int     method;
+    private final long    crc;
+    private final long    size;
+    private final long    compressedSize;
+    private final long    offset;
+    private long          dataStart;
+
+    public EntryHeader(byte [] name, int method, long crc, long size, long compressedSize, long offset) {
+      this.name = name;
+      this.method = method;
+      this.crc = crc;
+      this.size = size;
+      this.compressedSize = compressedSize;
+      this.offset = offset;
+    }
+  }
+}
@@ -0,0 +1,117 @@
+/*
+ * SharedZipFile.java 18 oct. 2026
+ *
+ * Sweet Home 3D, Copyright (c) 2026 Emmanuel PUYBARET / eTeks <info@eteks.com>
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation; either version 2 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA  02111-1307  USA
+ */
+package com.eteks.sweethome3d.io;
+
+import java.io.File;
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipFile;
+
+/**
+ * A zip file shared by the contents of a home read lazily. The file is opened
+ * only while it's used and closed once all the streams read from it are closed.
+ * @author Emmanuel Puybaret
+ */
+class SharedZipFile {
+  private final File file;
+  private ZipFile    zipFile;
+  private int        useCount;
+
+  /**
+   * Creates a shared access to the given zip <code>file</code>.
+   * @throws IOException if the file can't be opened as a zip file
+   */
+  public SharedZipFile(File file) throws IOException {
+    this.file = file;
+    // Check file can be opened
+    open();
+    release();
+  }
+
+  /**
+   * Returns the zip file opened if necessary. Each call to this method
+   * must be balanced by a call to {@link #release()}.
+   */
+  public synchronized ZipFile open() throws IOException {
+    if (this.zipFile == null) {
+      this.zipFile = new ZipFile(this.file);
+    }
+    this.useCount++;
+    return this.zipFile;
+  }
+
+  /**
+   * Closes the zip file if it's not used anymore.
+   */
+  public synchronized void release() throws IOException {
+    if (--this.useCount == 0) {
+      ZipFile zipFile = this.zipFile;
+      this.zipFile = null;
+      zipFile.close();
+    }
+  }
+
+  /**
+   * Returns <code>true</code> if this zip file contains the given entry.
+   */
+  public boolean containsEntry(String entryName) throws IOException {
+    ZipFile zipFile = open();
+    try {
+      return zipFile.getEntry(entryName) != null;
+    } finally {
+      release();
+    }
+  }
+
+  /**
+   * Returns an input stream on the data of the given entry that keeps this
+   * zip file opened until it's closed, or <code>null</code> if the entry doesn't exist.
+   */
+  public InputStream getInputStream(String entryName) throws IOException {
+    ZipFile zipFile = open();
+    try {
+      ZipEntry entry = zipFile.getEntry(entryName);
+      if (entry != null) {
+        return new FilterInputStream(zipFile.getInputStream(entry)) {
+            private boolean closed;
+
+            @Override
+            public void close() throws IOException {
+              if (!this.closed) {
+                this.closed = true;
+                try {
+                  super.close();
+                } finally {
+                  release();
+                }
+              }
+            }
+          };
+      }
+    } catch (IOException | RuntimeException ex) {
+      release();
+      throw ex;
+    }
+    release();
+    return null;
+  }
+}
@@ -0,0 +1,442 @@
+/*
+ * DoorsAndWindowsIndex.java 17 oct. 2026
+ *
+ * Sweet Home 3D, Copyright (c) 2026 Emmanuel PUYBARET / eTeks <info@eteks.com>
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation; either version 2 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA  02111-1307  USA
+ */
+package com.eteks.sweethome3d.j3d;
+
+import java.awt.geom.Rectangle2D;
+import java.beans.PropertyChangeListener;
+import java.lang.ref.WeakReference;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.WeakHashMap;
+
+import com.eteks.sweethome3d.model.BatchCollectionListener;
+import com.eteks.sweethome3d.model.CollectionEvent;
+import com.eteks.sweethome3d.model.Home;
+import com.eteks.sweethome3d.model.HomeSnapshot;
+import com.eteks.sweethome3d.model.HomeFurnitureGroup;
+import com.eteks.sweethome3d.model.HomePieceOfFurniture;
+import com.eteks.sweethome3d.model.Level;
+import com.eteks.sweethome3d.model.Wall;
+
+/**
+ * A spatial index of the footprints of the visible doors and windows of a home,
+ * and of the walls they may cut out, grouped by level.
+ * This index lets 3D walls search the doors and windows that may intersect them,
+ * and lets 3D views search the walls that may intersect a door or a window,
+ * by comparing their bounding boxes and their elevation ranges before computing
+ * any area intersection.
+ * The index is rebuilt lazily once one of the indexed objects or their level was modified.
+ * The methods of this class are synchronized because walls geometry may be computed
+ * out of Event Dispatch Thread.
+ * @author Emmanuel Puybaret
+ */
+public class DoorsAndWindowsIndex {
+  private static final float CELL_SIZE      = 250;
+  private static final int   MAX_CELL_COUNT = 64;
+
+  private static final Set<String> DOOR_OR_WINDOW_GEOMETRY_PROPERTIES = new HashSet<>();
+  private static final Set<String> WALL_GEOMETRY_PROPERTIES = new HashSet<>();
+
+  static {
+    for (HomePieceOfFurniture.Property property : new HomePieceOfFurniture.Property [] {
+        HomePieceOfFurniture.Property.X, HomePieceOfFurniture.Property.Y,
+        HomePieceOfFurniture.Property.ELEVATION, HomePieceOfFurniture.Property.ANGLE,
+        HomePieceOfFurniture.Property.PITCH, HomePieceOfFurniture.Property.ROLL,
+        HomePieceOfFurniture.Property.WIDTH, HomePieceOfFurniture.Property.WIDTH_IN_PLAN,
+        HomePieceOfFurniture.Property.DEPTH, HomePieceOfFurniture.Property.DEPTH_IN_PLAN,
+        HomePieceOfFurniture.Property.HEIGHT, HomePieceOfFurniture.Property.HEIGHT_IN_PLAN,
+        HomePieceOfFurniture.Property.MODEL_MIRRORED, HomePieceOfFurniture.Property.VISIBLE,
+        HomePieceOfFurniture.Property.LEVEL}) {
+      DOOR_OR_WINDOW_GEOMETRY_PROPERTIES.add(property.name());
+    }
+    for (Wall.Property property : new Wall.Property [] {
+        Wall.Property.X_START, Wall.Property.Y_START, Wall.Property.X_END, Wall.Property.Y_END,
+        Wall.Property.ARC_EXTENT, Wall.Property.WALL_AT_START, Wall.Property.WALL_AT_END,
+        Wall.Property.THICKNESS, Wall.Property.HEIGHT, Wall.Property.HEIGHT_AT_END,
+        Wall.Property.LEVEL}) {
+      WALL_GEOMETRY_PROPERTIES.add(property.name());
+    }
+  }
+
+  private static final Map<Home, DoorsAndWindowsIndex> instances = new WeakHashMap<>();
+
+  private final WeakReference<Home>                       home;
+  private Map<Level, LevelGrid<HomePieceOfFurniture>>     doorsAndWindowsGrids;
+  private Map<Level, LevelGrid<Wall>>                     wallsGrids;
+
+  private DoorsAndWindowsIndex(Home home) {
+    this.home = new WeakReference<>(home);
+    if (HomeSnapshot.isSnapshot(home)) {
+      // Items of home snapshots never change and are shared among snapshots
+      return;
+    }
+    // Listeners added to home don't refer to it to let it be garbage collected
+    final PropertyChangeListener doorOrWindowChangeListener = ev -> {
+      if (DOOR_OR_WINDOW_GEOMETRY_PROPERTIES.contains(ev.getPropertyName())) {
+        invalidateDoorsAndWindows();
+      }
+    };
+    for (HomePieceOfFurniture piece : home.getFurniture()) {
+      addDoorOrWindowChangeListener(piece, doorOrWindowChangeListener);
+    }
+    home.addFurnitureListener((BatchCollectionListener<HomePieceOfFurniture>)ev -> {
+      boolean doorsAndWindowsUpdated = false;
+      for (HomePieceOfFurniture piece : ev.getItems()) {
+        if (ev.getType() == CollectionEvent.Type.ADD) {
+          doorsAndWindowsUpdated |= addDoorOrWindowChangeListener(piece, doorOrWindowChangeListener);
+        } else if (ev.getType() == CollectionEvent.Type.DELETE) {
+          doorsAndWindowsUpdated |= removeDoorOrWindowChangeListener(piece, doorOrWindowChangeListener);
+        }
+      }
+      if (doorsAndWindowsUpdated) {
+        invalidateDoorsAndWindows();
+      }
+    });
+
+    final PropertyChangeListener wallChangeListener = ev -> {
+      if (WALL_GEOMETRY_PROPERTIES.contains(ev.getPropertyName())) {
+        invalidateWalls();
+      }
+    };
+    for (Wall wall : home.getWalls()) {
+      wall.addPropertyChangeListener(wallChangeListener);
+    }
+    home.addWallsListener((BatchCollectionListener<Wall>)ev -> {
+      for (Wall wall : ev.getItems()) {
+        if (ev.getType() == CollectionEvent.Type.ADD) {
+          wall.addPropertyChangeListener(wallChangeListener);
+        } else if (ev.getType() == CollectionEvent.Type.DELETE) {
+          wall.removePropertyChangeListener(wallChangeListener);
+        }
+      }
+      invalidateWalls();
+    });
+
+    // Level changes may change the visibility and the elevation of doors, windows and walls
+    final PropertyChangeListener levelChangeListener = ev -> {
+      if (!Level.Property.NAME.name().equals(ev.getPropertyName())
+          && !Level.Property.BACKGROUND_IMAGE.name().equals(ev.getPropertyName())) {
+        invalidateDoorsAndWindows();
+        invalidateWalls();
+      }
+    };
+    for (Level level : home.getLevels()) {
+      level.addPropertyChangeListener(levelChangeListener);
+    }
+    home.addLevelsListener(ev -> {
+        if (ev.getType() == CollectionEvent.Type.ADD) {
+          ev.getItem().addPropertyChangeListener(levelChangeListener);
+        } else if (ev.getType() == CollectionEvent.Type.DELETE) {
+          ev.getItem().removePropertyChangeListener(levelChangeListener);
+        }
+        invalidateDoorsAndWindows();
+        invalidateWalls();
+      });
+  }
+
+  /**
+   * Returns the index of doors and windows shared by all the users of the given <code>home</code>.
+   */
+  public static synchronized DoorsAndWindowsIndex getInstance(Home home) {
+    DoorsAndWindowsIndex index = instances.get(home);
+    if (index == null) {
+      index = new DoorsAndWindowsIndex(home);
+      instances.put(home, index);
+    }
+    return index;
+  }
+
+  /**
+   * Adds the given listener to <code>piece</code> if it's a door or a window,
+   * or to the doors and windows of the group it is and to its subgroups.
+   * @return <code>true</code> if <code>piece</code> is or contains a door or a window
+   */
+  private boolean addDoorOrWindowChangeListener(HomePieceOfFurniture piece, PropertyChangeListener listener) {
+    if (piece instanceof HomeFurnitureGroup) {
+      boolean containsDoorsOrWindows = false;
+      for (HomePieceOfFurniture childPiece : ((HomeFurnitureGroup)piece).getFurniture()) {
+        containsDoorsOrWindows |= addDoorOrWindowChangeListener(childPiece, listener);
+      }
+      piece.addPropertyChangeListener(listener);
+      return containsDoorsOrWindows;
+    } else if (piece.isDoorOrWindow()) {
+      piece.addPropertyChangeListener(listener);
+      return true;
+    } else {
+      return false;
+    }
+  }
+
+  private boolean removeDoorOrWindowChangeListener(HomePieceOfFurniture piece, PropertyChangeListener listener) {
+    if (piece instanceof HomeFurnitureGroup) {
+      boolean containsDoorsOrWindows = false;
+      for (HomePieceOfFurniture childPiece : ((HomeFurnitureGroup)piece).getFurniture()) {
+        containsDoorsOrWindows |= removeDoorOrWindowChangeListener(childPiece, listener);
+      }
+      piece.removePropertyChangeListener(listener);
+      return containsDoorsOrWindows;
+    } else if (piece.isDoorOrWindow()) {
+      piece.removePropertyChangeListener(listener);
+      return true;
+    } else {
+      return false;
+    }
+  }
+
+  private synchronized void invalidateDoorsAndWindows() {
+    this.doorsAndWindowsGrids = null;
+  }
+
+  private synchronized void invalidateWalls() {
+    this.wallsGrids = null;
+  }
+
+  /**
+   * Returns the visible doors and windows which bounding box intersects the given <code>bounds</code>,
+   * and which elevation range intersects the range between <code>minElevation</code>
+   * and <code>maxElevation</code>, excluded. The returned list is sorted in the order
+   * of home furniture, pieces of groups being listed at the place of their group.
+   */
+  public synchronized List<HomePieceOfFurniture> getVisibleDoorsAndWindows(Rectangle2D bounds,
+                                                                           float minElevation,
+                                                                           float maxElevation) {
+    if (this.doorsAndWindowsGrids == null) {
+      this.doorsAndWindowsGrids = new HashMap<>();
+      Home home = this.home.get();
+      if (home != null) {
+        addVisibleDoorsAndWindows(home.getFurniture(), new int [1]);
+      }
+    }
+    return search(this.doorsAndWindowsGrids, bounds, minElevation, maxElevation);
+  }
+
+  /**
+   * Adds to index the visible doors and windows in the given <code>furniture</code>.
+   */
+  private void addVisibleDoorsAndWindows(List<HomePieceOfFurniture> furniture, int [] order) {
+    for (HomePieceOfFurniture piece : furniture) {
+      if (piece.isVisible()
+          && (piece.getLevel() == null
+              || piece.getLevel().isViewableAndVisible())) {
+        if (piece instanceof HomeFurnitureGroup) {
+          addVisibleDoorsAndWindows(((HomeFurnitureGroup)piece).getFurniture(), order);
+        } else if (piece.isDoorOrWindow()) {
+          float pieceElevation = piece.getGroundElevation();
+          add(this.doorsAndWindowsGrids, piece.getLevel(),
+              new Entry<HomePieceOfFurniture>(piece, piece.getPoints(),
+                  pieceElevation, pieceElevation + piece.getHeight(), order [0]++));
+        }
+      }
+    }
+  }
+
+  /**
+   * Returns the walls which bounding box intersects the given <code>bounds</code>,
+   * and which may have a part between <code>minElevation</code> and <code>maxElevation</code>,
+   * excluded. The returned list is sorted in the order of home walls.
+   */
+  public synchronized List<Wall> getWalls(Rectangle2D bounds,
+                                          float minElevation,
+                                          float maxElevation) {
+    if (this.wallsGrids == null) {
+      this.wallsGrids = new HashMap<>();
+      Home home = this.home.get();
+      if (home != null) {
+        int order = 0;
+        for (Wall wall : home.getWalls()) {
+          // Compute an elevation range that contains the wall, its baseboards and the floor under it
+          Level level = wall.getLevel();
+          float levelElevation = level != null ? level.getElevation() : 0;
+          float wallHeight = wall.getHeight() != null ? wall.getHeight() : home.getWallHeight();
+          if (wall.getHeightAtEnd() != null) {
+            wallHeight = Math.max(wallHeight, wall.getHeightAtEnd());
+          }
+          add(this.wallsGrids, level, new Entry<Wall>(wall, wall.getPoints(),
+              levelElevation - (level != null ? level.getFloorThickness() : 0) - 1,
+              levelElevation + wallHeight + 1, order++));
+        }
+      }
+    }
+    return search(this.wallsGrids, bounds, minElevation, maxElevation);
+  }
+
+  private static <T> void add(Map<Level, LevelGrid<T>> grids, Level level, Entry<T> entry) {
+    LevelGrid<T> grid = grids.get(level);
+    if (grid == null) {
+      grid = new LevelGrid<T>();
+      grids.put(level, grid);
+    }
+    grid.add(entry);
+  }
+
+  private static <T> List<T> search(Map<Level, LevelGrid<T>> grids, Rectangle2D bounds,
+                                    float minElevation, float maxElevation) {
+    List<Entry<T>> entries = new ArrayList<>();
+    for (LevelGrid<T> grid : grids.values()) {
+      if (grid.maxElevation > minElevation
+          && grid.minElevation < maxElevation) {
+        grid.search((float)bounds.getMinX(), (float)bounds.getMinY(),
+            (float)bounds.getMaxX(), (float)bounds.getMaxY(), minElevation, maxElevation, entries);
+      }
+    }
+    if (entries.isEmpty()) {
+      return Collections.emptyList();
+    }
+    // Sort entries and remove the ones found in several cells
+    Collections.sort(entries, (entry1, entry2) -> Integer.compare(entry1.order, entry2.order));
+    List<T> items = new ArrayList<>(entries.size());
+    Entry<T> previousEntry = null;
+    for (Entry<T> entry : entries) {
+      if (entry != previousEntry) {
+        items.add(entry.item);
+        previousEntry = entry;
+      }
+    }
+    return items;
+  }
+
+  /**
+   * An indexed item with its bounding box and its elevation range.
+   */
+  private static class Entry<T> {
+    private final T     item;
+    private final float xMin;
+    private final float yMin;
+    private final float xMax;
+    private final float yMax;
+    private final float minElevation;
+    private final float maxElevation;
+    private final int   order;
+
+    public Entry(T item, float [][] points, float minElevation, float maxElevation, int order) {
+      this.item = item;
+      float xMin = Float.POSITIVE_INFINITY;
+      float yMin = Float.POSITIVE_INFINITY;
+      float xMax = Float.NEGATIVE_INFINITY;
+      float yMax = Float.NEGATIVE_INFINITY;
+      for (float [] point : points) {
+        xMin = Math.min(xMin, point [0]);
+        yMin = Math.min(yMin, point [1]);
+        xMax = Math.max(xMax, point [0]);
+        yMax = Math.max(yMax, point [1]);
+      }
+      this.xMin = xMin;
+      this.yMin = yMin;
+      this.xMax = xMax;
+      this.yMax = yMax;
+      this.minElevation = minElevation;
+      this.maxElevation = maxElevation;
+      this.order = order;
+    }
+
+    public boolean intersects(float xMin, float yMin, float xMax, float yMax,
+                              float minElevation, float maxElevation) {
+      return this.xMin <= xMax && this.xMax >= xMin
+          && this.yMin <= yMax && this.yMax >= yMin
+          && this.maxElevation > minElevation
+          && this.minElevation < maxElevation;
+    }
+  }
+
+  /**
+   * The entries of a level stored in the square cells of a uniform grid.
+   * Entries spanning too many cells are stored apart.
+   */
+  private static class LevelGrid<T> {
+    private final Map<Long, List<Entry<T>>> cells = new HashMap<>();
+    private final List<Entry<T>>            largeEntries = new ArrayList<>();
+    private float minElevation = Float.POSITIVE_INFINITY;
+    private float maxElevation = Float.NEGATIVE_INFINITY;
+
+    public void add(Entry<T> entry) {
+      this.minElevation = Math.min(this.minElevation, entry.minElevation);
+      this.maxElevation = Math.max(this.maxElevation, entry.maxElevation);
+      int cellXMin = getCell(entry.xMin);
+      int cellYMin = getCell(entry.yMin);
+      int cellXMax = getCell(entry.xMax);
+      int cellYMax = getCell(entry.yMax);
+      if ((long)(cellXMax - cellXMin + 1) * (cellYMax - cellYMin + 1) > MAX_CELL_COUNT) {
+        this.largeEntries.add(entry);
+      } else {
+        for (int cellX = cellXMin; cellX <= cellXMax; cellX++) {
+          for (int cellY = cellYMin; cellY <= cellYMax; cellY++) {
+            Long key = getCellKey(cellX, cellY);
+            List<Entry<T>> cellEntries = this.cells.get(key);
+            if (cellEntries == null) {
+              cellEntries = new ArrayList<>(4);
+              this.cells.put(key, cellEntries);
+            }
+            cellEntries.add(entry);
+          }
+        }
+      }
+    }
+
+    public void search(float xMin, float yMin, float xMax, float yMax,
+                       float minElevation, float maxElevation, List<Entry<T>> entries) {
+      for (Entry<T> entry : this.largeEntries) {
+        if (entry.intersects(xMin, yMin, xMax, yMax, minElevation, maxElevation)) {
+          entries.add(entry);
+        }
+      }
+      int cellXMin = getCell(xMin);
+      int cellYMin = getCell(yMin);
+      int cellXMax = getCell(xMax);
+      int cellYMax = getCell(yMax);
+      if ((long)(cellXMax - cellXMin + 1) * (cellYMax - cellYMin + 1) > this.cells.size()) {
+        // Browse all the cells rather than the ones covered by a large area
+        for (List<Entry<T>> cellEntries : this.cells.values()) {
+          search(cellEntries, xMin, yMin, xMax, yMax, minElevation, maxElevation, entries);
+        }
+      } else {
+        for (int cellX = cellXMin; cellX <= cellXMax; cellX++) {
+          for (int cellY = cellYMin; cellY <= cellYMax; cellY++) {
+            List<Entry<T>> cellEntries = this.cells.get(getCellKey(cellX, cellY));
+            if (cellEntries != null) {
+              search(cellEntries, xMin, yMin, xMax, yMax, minElevation, maxElevation, entries);
+            }
+          }
+        }
+      }
+    }
+
+    private void search(List<Entry<T>> cellEntries, float xMin, float yMin, float xMax, float yMax,
+                        float minElevation, float maxElevation, List<Entry<T>> entries) {
+      for (Entry<T> entry : cellEntries) {
+        if (entry.intersects(xMin, yMin, xMax, yMax, minElevation, maxElevation)) {
+          entries.add(entry);
+        }
+      }
+    }
+
+    private int getCell(float coordinate) {
+      return (int)Math.floor(Math.max(Integer.MIN_VALUE / 2, Math.min(Integer.MAX_VALUE / 2, coordinate / CELL_SIZE)));
+    }
+
+    private Long getCellKey(int cellX, int cellY) {
+      return ((long)cellX << 32) | (cellY & 0xFFFFFFFFL);
+    }
+  }
+}
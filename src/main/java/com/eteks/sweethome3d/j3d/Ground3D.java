@@ -29,6 +29,8 @@ import java.util.Comparator;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.function.Function;
 
 import javax.media.j3d.Appearance;
 import javax.media.j3d.Shape3D;
@@ -66,6 +68,16 @@ public class Ground3D extends Object3DBranch {
                   float width,
                   float depth,
                   boolean waitTextureLoadingEnd) {
+    this(home, originX, originY, width, depth, waitTextureLoadingEnd, true);
+  }
+
+  private Ground3D(Home home,
+                   float originX,
+                   float originY,
+                   float width,
+                   float depth,
+                   boolean waitTextureLoadingEnd,
+                   boolean updateAppearance) {
     setUserData(home);
     this.originX = originX;
     this.originY = originY;
@@ -91,7 +103,10 @@ public class Ground3D extends Object3DBranch {
 
     addChild(groundShape);
 
-    update(waitTextureLoadingEnd);
+    if (updateAppearance) {
+      updateAppearance(waitTextureLoadingEnd);
+    }
+    updateGeometry();
   }
 
   /**
@@ -99,17 +114,39 @@ public class Ground3D extends Object3DBranch {
    */
   @Override
   public void update() {
-    update(false);
+    updateAppearance(false);
+    updateGeometry();
   }
 
   /**
-   * Updates the geometry and attributes of ground and sublevels.
+   * Returns a task that computes the geometry of this ground from a copy of home.
    */
-  private void update(boolean waitTextureLoadingEnd) {
+  @Override
+  public Callable<Runnable> getGeometryUpdater(Function<Object, Object> homeCopies) {
+    final Home homeCopy = (Home)homeCopies.apply(getUserData());
+    if (homeCopy == null) {
+      return null;
+    } else {
+      return () -> {
+          final Ground3D groundCopy3D = new Ground3D(homeCopy,
+              this.originX, this.originY, this.width, this.depth, true, false);
+          return () -> {
+              if (replaceGeometries(groundCopy3D)) {
+                updateAppearance(false);
+              } else {
+                update();
+              }
+            };
+        };
+    }
+  }
+
+  /**
+   * Updates ground coloring and texture attributes from home ground color and texture.
+   */
+  private void updateAppearance(boolean waitTextureLoadingEnd) {
     final Home home = (Home)getUserData();
     Shape3D groundShape = (Shape3D)getChild(0);
-    int currentGeometriesCount = groundShape.numGeometries();
-
     final Appearance groundAppearance = groundShape.getAppearance();
     HomeTexture groundTexture = home.getEnvironment().getGroundTexture();
     if (groundTexture == null) {
@@ -133,6 +170,16 @@ public class Ground3D extends Object3DBranch {
               }
             });
     }
+  }
+
+  /**
+   * Updates the geometry of ground and sublevels.
+   */
+  private void updateGeometry() {
+    Home home = (Home)getUserData();
+    Shape3D groundShape = (Shape3D)getChild(0);
+    int currentGeometriesCount = groundShape.numGeometries();
+    HomeTexture groundTexture = home.getEnvironment().getGroundTexture();
 
     Area areaRemovedFromGround = new Area();
     // Compute the union of the rooms, the underground walls and furniture areas
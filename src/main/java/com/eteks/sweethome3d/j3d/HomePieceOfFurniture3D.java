@@ -758,7 +758,7 @@ public class HomePieceOfFurniture3D extends Object3DBranch {
             appearance.setTexCoordGeneration(getTextureCoordinates(texture, pieceSize, modelBounds));
             appearance.setTextureAttributes(getTextureAttributes(texture, true));
             appearance.setMaterial(getMaterial(DEFAULT_COLOR, DEFAULT_AMBIENT_COLOR, materialShininess));
-            TextureManager.getInstance().loadTexture(texture.getImage(),
+            TextureManager.getInstance().loadTexture(texture.getImage(), 0, getTextureImageSize(texture),
                 waitTextureLoadingEnd, getTextureObserver(appearance));
           }
         } else if (materialModified) {
@@ -789,15 +789,20 @@ public class HomePieceOfFurniture3D extends Object3DBranch {
                   appearance.setPolygonAttributes(defaultMaterialAndTexture.getPolygonAttributes());
                 } else if (color == null && material.getTexture() != null) {
                   HomeTexture materialTexture = material.getTexture();
+                  int textureImageSize;
                   if (isTexturesCoordinatesDefined(shape)) {
                     restoreDefaultTextureCoordinatesGeneration(appearance);
                     appearance.setTextureAttributes(getTextureAttributes(materialTexture));
+                    // Texture coordinates of the model are supposed to spread the image on piece
+                    textureImageSize = getTextureImageSize(materialTexture, 
+                        Math.max(pieceSize.x, Math.max(pieceSize.y, pieceSize.z)));
                   } else {
                     appearance.setTexCoordGeneration(getTextureCoordinates(material.getTexture(), pieceSize, modelBounds));
                     appearance.setTextureAttributes(getTextureAttributes(materialTexture, true));
+                    textureImageSize = getTextureImageSize(materialTexture);
                   }
                   appearance.setMaterial(getMaterial(DEFAULT_COLOR, DEFAULT_AMBIENT_COLOR, materialShininess));
-                  TextureManager.getInstance().loadTexture(materialTexture.getImage(),
+                  TextureManager.getInstance().loadTexture(materialTexture.getImage(), 0, textureImageSize,
                       waitTextureLoadingEnd, getTextureObserver(appearance));
                 } else {
                   restoreDefaultMaterialAndTexture(appearance, material.getShininess());
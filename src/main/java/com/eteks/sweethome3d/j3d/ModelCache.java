@@ -0,0 +1,1569 @@
+/*
+ * ModelCache.java 17 oct. 2026
+ *
+ * Sweet Home 3D, Copyright (c) 2026 Emmanuel PUYBARET / eTeks <info@eteks.com>
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation; either version 2 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA  02111-1307  USA
+ */
+package com.eteks.sweethome3d.j3d;
+
+import java.awt.image.BufferedImage;
+import java.io.File;
+import java.io.IOException;
+import java.net.URL;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.IdentityHashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+
+import javax.media.j3d.Appearance;
+import javax.media.j3d.BranchGroup;
+import javax.media.j3d.ColoringAttributes;
+import javax.media.j3d.Geometry;
+import javax.media.j3d.GeometryArray;
+import javax.media.j3d.GeometryStripArray;
+import javax.media.j3d.Group;
+import javax.media.j3d.ImageComponent;
+import javax.media.j3d.ImageComponent2D;
+import javax.media.j3d.IndexedGeometryArray;
+import javax.media.j3d.IndexedGeometryStripArray;
+import javax.media.j3d.IndexedLineArray;
+import javax.media.j3d.IndexedLineStripArray;
+import javax.media.j3d.IndexedPointArray;
+import javax.media.j3d.IndexedQuadArray;
+import javax.media.j3d.IndexedTriangleArray;
+import javax.media.j3d.IndexedTriangleFanArray;
+import javax.media.j3d.IndexedTriangleStripArray;
+import javax.media.j3d.Light;
+import javax.media.j3d.LineArray;
+import javax.media.j3d.LineAttributes;
+import javax.media.j3d.LineStripArray;
+import javax.media.j3d.Link;
+import javax.media.j3d.Material;
+import javax.media.j3d.Node;
+import javax.media.j3d.NodeComponent;
+import javax.media.j3d.PointArray;
+import javax.media.j3d.PointAttributes;
+import javax.media.j3d.PolygonAttributes;
+import javax.media.j3d.QuadArray;
+import javax.media.j3d.RenderingAttributes;
+import javax.media.j3d.SceneGraphObject;
+import javax.media.j3d.Shape3D;
+import javax.media.j3d.SharedGroup;
+import javax.media.j3d.TexCoordGeneration;
+import javax.media.j3d.Texture;
+import javax.media.j3d.Texture2D;
+import javax.media.j3d.TextureAttributes;
+import javax.media.j3d.Transform3D;
+import javax.media.j3d.TransformGroup;
+import javax.media.j3d.TransparencyAttributes;
+import javax.media.j3d.TriangleArray;
+import javax.media.j3d.TriangleFanArray;
+import javax.media.j3d.TriangleStripArray;
+import javax.vecmath.Color3f;
+import javax.vecmath.Color4f;
+import javax.vecmath.Vector4f;
+
+import com.eteks.sweethome3d.model.Content;
+import com.eteks.sweethome3d.tools.URLContent;
+
+/**
+ * A persistent cache of the 3D models loaded by {@link ModelManager}, stored in a folder
+ * as one binary file per model. Each file contains the scene graph of a model once
+ * post-processed by model manager, with its geometries and texture images stored as raw
+ * arrays, in such a way a model can be rebuilt from a memory-mapped file without parsing
+ * its original format. Cached models are identified by the digest of their content,
+ * and the least recently used files are deleted once the total size of the cache
+ * exceeds a maximum size.<br>
+ * Only scene graphs made of groups, links and shapes with by copy or by reference
+ * float geometries and simple appearances can be cached.
+ * This class is threadsafe.
+ * @author Emmanuel Puybaret
+ */
+public class ModelCache {
+  private static final int    MAGIC_NUMBER   = 0x53483344;
+  private static final int    FORMAT_VERSION = 1;
+  private static final String FILE_SUFFIX    = ".model";
+  private static final String TEMPORARY_FILE_SUFFIX = ".tmp";
+
+  private static final byte BRANCH_GROUP           = 1;
+  private static final byte GROUP                  = 2;
+  private static final byte TRANSFORM_GROUP        = 3;
+  private static final byte SHARED_GROUP           = 4;
+  private static final byte LINK                   = 5;
+  private static final byte SHAPE                  = 6;
+  private static final byte APPEARANCE             = 10;
+  private static final byte MATERIAL               = 11;
+  private static final byte OBJ_MATERIAL           = 12;
+  private static final byte COLORING_ATTRIBUTES    = 13;
+  private static final byte TRANSPARENCY_ATTRIBUTES = 14;
+  private static final byte RENDERING_ATTRIBUTES   = 15;
+  private static final byte POLYGON_ATTRIBUTES     = 16;
+  private static final byte LINE_ATTRIBUTES        = 17;
+  private static final byte POINT_ATTRIBUTES       = 18;
+  private static final byte TEXTURE_ATTRIBUTES     = 19;
+  private static final byte TEX_COORD_GENERATION   = 20;
+  private static final byte TEXTURE_2D             = 21;
+  private static final byte TRIANGLE_ARRAY         = 30;
+  private static final byte QUAD_ARRAY             = 31;
+  private static final byte LINE_ARRAY             = 32;
+  private static final byte POINT_ARRAY            = 33;
+  private static final byte TRIANGLE_STRIP_ARRAY   = 34;
+  private static final byte TRIANGLE_FAN_ARRAY     = 35;
+  private static final byte LINE_STRIP_ARRAY       = 36;
+  private static final byte INDEXED_TRIANGLE_ARRAY = 40;
+  private static final byte INDEXED_QUAD_ARRAY     = 41;
+  private static final byte INDEXED_LINE_ARRAY     = 42;
+  private static final byte INDEXED_POINT_ARRAY    = 43;
+  private static final byte INDEXED_TRIANGLE_STRIP_ARRAY = 44;
+  private static final byte INDEXED_TRIANGLE_FAN_ARRAY   = 45;
+  private static final byte INDEXED_LINE_STRIP_ARRAY     = 46;
+
+  private final File                      folder;
+  private final long                      maximumSize;
+  private final Function<Content, byte []> contentDigester;
+  // Cached file sizes mapped to their key, in least recently used order
+  private LinkedHashMap<String, Long>     entries;
+  private long                            size;
+  private long                            hitCount;
+  private long                            missCount;
+  private long                            writeCount;
+  private long                            rejectionCount;
+  private long                            evictionCount;
+
+  /**
+   * Creates a cache storing models in the given <code>folder</code>.
+   * @param folder  the folder where cached models are stored, created if it doesn't exist
+   * @param maximumSize the maximum size in bytes of the files stored in folder
+   * @param contentDigester a function returning the digest of a content,
+   *            or an empty array if its digest can't be computed
+   */
+  public ModelCache(File folder, long maximumSize, Function<Content, byte []> contentDigester) {
+    this.folder = folder;
+    this.maximumSize = maximumSize;
+    this.contentDigester = contentDigester;
+  }
+
+  /**
+   * Returns the folder of this cache.
+   */
+  public File getFolder() {
+    return this.folder;
+  }
+
+  /**
+   * Returns the maximum size in bytes of this cache.
+   */
+  public long getMaximumSize() {
+    return this.maximumSize;
+  }
+
+  /**
+   * Returns the model cached for the given <code>content</code> rebuilt in a new branch group,
+   * or <code>null</code> if it's not cached or can't be read anymore.
+   * The textures of the returned model aren't shared with {@link TextureManager}.
+   */
+  public BranchGroup getModel(Content content) {
+    String key = getKey(content);
+    File file;
+    synchronized (this) {
+      if (key == null
+          || getEntries().get(key) == null) {
+        this.missCount++;
+        return null;
+      }
+      file = new File(this.folder, key + FILE_SUFFIX);
+    }
+
+    BranchGroup model = null;
+    try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+      ByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+      model = new ModelReader(buffer, content).readModel();
+    } catch (IOException | RuntimeException ex) {
+      // Consider a missing or corrupted file as a cache miss
+    }
+
+    synchronized (this) {
+      if (model != null) {
+        this.hitCount++;
+        file.setLastModified(System.currentTimeMillis());
+      } else {
+        this.missCount++;
+        Long fileSize = getEntries().remove(key);
+        if (fileSize != null) {
+          this.size -= fileSize;
+          file.delete();
+        }
+      }
+    }
+    return model;
+  }
+
+  /**
+   * Stores the given <code>model</code> loaded from <code>content</code> in this cache.
+   * Models with nodes or attributes which can't be cached are ignored.
+   */
+  public void putModel(Content content, BranchGroup model) {
+    String key = getKey(content);
+    if (key == null) {
+      return;
+    }
+    ModelOutput output;
+    try {
+      output = new ModelWriter(content).writeModel(model);
+    } catch (UnsupportedModelException ex) {
+      synchronized (this) {
+        this.rejectionCount++;
+      }
+      return;
+    }
+
+    File temporaryFile = null;
+    try {
+      this.folder.mkdirs();
+      temporaryFile = File.createTempFile("model", TEMPORARY_FILE_SUFFIX, this.folder);
+      try (FileChannel channel = FileChannel.open(temporaryFile.toPath(), StandardOpenOption.WRITE)) {
+        ByteBuffer buffer = output.getBuffer();
+        while (buffer.hasRemaining()) {
+          channel.write(buffer);
+        }
+      }
+      File file = new File(this.folder, key + FILE_SUFFIX);
+      long fileSize = temporaryFile.length();
+      synchronized (this) {
+        Map<String, Long> entries = getEntries();
+        try {
+          Files.move(temporaryFile.toPath(), file.toPath(),
+              StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (AtomicMoveNotSupportedException ex) {
+          Files.move(temporaryFile.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING);
+        }
+        Long previousSize = entries.put(key, fileSize);
+        if (previousSize != null) {
+          this.size -= previousSize;
+        }
+        this.size += fileSize;
+        this.writeCount++;
+        evictEntries();
+      }
+    } catch (IOException ex) {
+      // Ignore models that can't be written, for example if an other process uses the same file
+      if (temporaryFile != null) {
+        temporaryFile.delete();
+      }
+    }
+  }
+
+  /**
+   * Deletes the files stored in this cache.
+   */
+  public synchronized void clear() {
+    for (Iterator<String> it = getEntries().keySet().iterator(); it.hasNext(); ) {
+      new File(this.folder, it.next() + FILE_SUFFIX).delete();
+      it.remove();
+    }
+    this.size = 0;
+  }
+
+  /**
+   * Returns the count of models found in this cache.
+   */
+  public synchronized long getHitCount() {
+    return this.hitCount;
+  }
+
+  /**
+   * Returns the count of models not found in this cache.
+   */
+  public synchronized long getMissCount() {
+    return this.missCount;
+  }
+
+  /**
+   * Returns the count of models written in this cache.
+   */
+  public synchronized long getWriteCount() {
+    return this.writeCount;
+  }
+
+  /**
+   * Returns the count of models that couldn't be written in this cache
+   * because their scene graph isn't supported.
+   */
+  public synchronized long getRejectionCount() {
+    return this.rejectionCount;
+  }
+
+  /**
+   * Returns the count of models deleted from this cache to keep its size under its maximum size.
+   */
+  public synchronized long getEvictionCount() {
+    return this.evictionCount;
+  }
+
+  /**
+   * Returns the count of models stored in this cache.
+   */
+  public synchronized int getModelCount() {
+    return getEntries().size();
+  }
+
+  /**
+   * Returns the total size in bytes of the models stored in this cache.
+   */
+  public synchronized long getSize() {
+    getEntries();
+    return this.size;
+  }
+
+  @Override
+  public synchronized String toString() {
+    return "ModelCache [" + this.folder + ", " + getModelCount() + " models, " + this.size + "/" + this.maximumSize
+        + " bytes, hits " + this.hitCount + ", misses " + this.missCount + ", writes " + this.writeCount
+        + ", rejections " + this.rejectionCount + ", evictions " + this.evictionCount + "]";
+  }
+
+  /**
+   * Returns the entries of this cache, read from its folder at first call.
+   * The files in folder are sorted by modification date to retrieve their usage order.
+   */
+  private Map<String, Long> getEntries() {
+    if (this.entries == null) {
+      this.entries = new LinkedHashMap<String, Long>(16, 0.75f, true);
+      File [] files = this.folder.listFiles();
+      if (files != null) {
+        final Map<File, Long> lastModifiedDates = new IdentityHashMap<File, Long>();
+        List<File> modelFiles = new ArrayList<File>();
+        for (File file : files) {
+          String name = file.getName();
+          if (name.endsWith(FILE_SUFFIX)) {
+            lastModifiedDates.put(file, file.lastModified());
+            modelFiles.add(file);
+          } else if (name.endsWith(TEMPORARY_FILE_SUFFIX)) {
+            // Delete files that weren't written completely
+            file.delete();
+          }
+        }
+        modelFiles.sort(Comparator.comparing(lastModifiedDates::get));
+        for (File file : modelFiles) {
+          String name = file.getName();
+          long fileSize = file.length();
+          this.entries.put(name.substring(0, name.length() - FILE_SUFFIX.length()), fileSize);
+          this.size += fileSize;
+        }
+      }
+      evictEntries();
+    }
+    return this.entries;
+  }
+
+  /**
+   * Deletes the least recently used files until the size of this cache is under its maximum size.
+   */
+  private void evictEntries() {
+    for (Iterator<Map.Entry<String, Long>> it = this.entries.entrySet().iterator();
+         this.size > this.maximumSize && it.hasNext(); ) {
+      Map.Entry<String, Long> entry = it.next();
+      // Deletion may fail if the file is still mapped under Windows, but it will be retried at next launch
+      new File(this.folder, entry.getKey() + FILE_SUFFIX).delete();
+      this.size -= entry.getValue();
+      this.evictionCount++;
+      it.remove();
+    }
+  }
+
+  /**
+   * Returns the key of the file matching <code>content</code>, built from its digest
+   * and the name of its entry if it's stored in a ZIP file, since the digest of a ZIP
+   * entry is computed on all the entries of the ZIP file.
+   */
+  private String getKey(Content content) {
+    byte [] digest = this.contentDigester.apply(content);
+    if (digest == null || digest.length == 0) {
+      return null;
+    }
+    try {
+      MessageDigest messageDigest = MessageDigest.getInstance("SHA-1");
+      messageDigest.update(digest);
+      if (content instanceof URLContent
+          && ((URLContent)content).isJAREntry()) {
+        messageDigest.update(((URLContent)content).getJAREntryName().getBytes(StandardCharsets.UTF_8));
+      }
+      StringBuilder key = new StringBuilder();
+      for (byte b : messageDigest.digest()) {
+        key.append(Character.forDigit((b >> 4) & 0xF, 16)).append(Character.forDigit(b & 0xF, 16));
+      }
+      return key.toString();
+    } catch (NoSuchAlgorithmException ex) {
+      return null;
+    }
+  }
+
+  /**
+   * Returns the base URL of the texture images of the model in <code>content</code>.
+   */
+  private static String getBaseUrl(Content content) {
+    if (content instanceof URLContent) {
+      String url = ((URLContent)content).getURL().toString();
+      return url.substring(0, url.lastIndexOf('/') + 1);
+    } else {
+      return null;
+    }
+  }
+
+  /**
+   * Exception thrown when a scene graph contains objects that can't be cached.
+   */
+  private static class UnsupportedModelException extends Exception {
+    private static final long serialVersionUID = 1L;
+
+    public UnsupportedModelException(String message) {
+      super(message);
+    }
+  }
+
+  /**
+   * A growable byte buffer.
+   */
+  private static class ModelOutput {
+    private ByteBuffer buffer = ByteBuffer.allocate(65536);
+
+    private void ensureCapacity(int length) {
+      if (this.buffer.remaining() < length) {
+        ByteBuffer buffer = ByteBuffer.allocate(Math.max(this.buffer.position() + length, this.buffer.capacity() * 2));
+        this.buffer.flip();
+        buffer.put(this.buffer);
+        this.buffer = buffer;
+      }
+    }
+
+    public void putByte(byte value) {
+      ensureCapacity(1);
+      this.buffer.put(value);
+    }
+
+    public void putBoolean(boolean value) {
+      putByte(value ? (byte)1 : (byte)0);
+    }
+
+    public void putInt(int value) {
+      ensureCapacity(4);
+      this.buffer.putInt(value);
+    }
+
+    public void putLong(long value) {
+      ensureCapacity(8);
+      this.buffer.putLong(value);
+    }
+
+    public void putFloat(float value) {
+      ensureCapacity(4);
+      this.buffer.putFloat(value);
+    }
+
+    public void putDouble(double value) {
+      ensureCapacity(8);
+      this.buffer.putDouble(value);
+    }
+
+    public void putString(String value) {
+      if (value == null) {
+        putInt(-1);
+      } else {
+        byte [] bytes = value.getBytes(StandardCharsets.UTF_8);
+        putInt(bytes.length);
+        ensureCapacity(bytes.length);
+        this.buffer.put(bytes);
+      }
+    }
+
+    public void putFloats(float [] values) {
+      putInt(values.length);
+      ensureCapacity(values.length * 4);
+      this.buffer.asFloatBuffer().put(values);
+      this.buffer.position(this.buffer.position() + values.length * 4);
+    }
+
+    public void putInts(int [] values) {
+      putInt(values.length);
+      ensureCapacity(values.length * 4);
+      this.buffer.asIntBuffer().put(values);
+      this.buffer.position(this.buffer.position() + values.length * 4);
+    }
+
+    /**
+     * Returns a buffer ready to be read.
+     */
+    public ByteBuffer getBuffer() {
+      ByteBuffer buffer = this.buffer.duplicate();
+      buffer.flip();
+      return buffer;
+    }
+  }
+
+  /**
+   * Writer of the scene graph of a model. Each scene graph object is written
+   * with an identifier followed by its data the first time it's met,
+   * then with its identifier only, to keep the objects shared in the graph.
+   */
+  private static class ModelWriter {
+    private final ModelOutput          output = new ModelOutput();
+    private final Map<Object, Integer> identifiers = new IdentityHashMap<Object, Integer>();
+    private final String               baseUrl;
+
+    public ModelWriter(Content content) {
+      this.baseUrl = getBaseUrl(content);
+    }
+
+    public ModelOutput writeModel(BranchGroup model) throws UnsupportedModelException {
+      this.output.putInt(MAGIC_NUMBER);
+      this.output.putInt(FORMAT_VERSION);
+      writeObject(model);
+      return this.output;
+    }
+
+    /**
+     * Writes the identifier of the given object, followed by its type and data
+     * if it wasn't written yet.
+     */
+    private void writeObject(SceneGraphObject object) throws UnsupportedModelException {
+      if (object == null) {
+        this.output.putInt(-1);
+        return;
+      }
+      Integer identifier = this.identifiers.get(object);
+      if (identifier != null) {
+        this.output.putInt(identifier);
+        return;
+      }
+      this.output.putInt(this.identifiers.size());
+      this.identifiers.put(object, this.identifiers.size());
+
+      Class<?> objectClass = object.getClass();
+      if (objectClass == BranchGroup.class) {
+        this.output.putByte(BRANCH_GROUP);
+        writeGroup((Group)object);
+      } else if (objectClass == Group.class) {
+        this.output.putByte(GROUP);
+        writeGroup((Group)object);
+      } else if (objectClass == TransformGroup.class) {
+        this.output.putByte(TRANSFORM_GROUP);
+        double [] matrix = new double [16];
+        Transform3D transform = new Transform3D();
+        ((TransformGroup)object).getTransform(transform);
+        transform.get(matrix);
+        for (double value : matrix) {
+          this.output.putDouble(value);
+        }
+        writeGroup((Group)object);
+      } else if (objectClass == SharedGroup.class) {
+        this.output.putByte(SHARED_GROUP);
+        writeGroup((Group)object);
+      } else if (objectClass == Link.class) {
+        this.output.putByte(LINK);
+        writeNode((Node)object);
+        writeObject(((Link)object).getSharedGroup());
+      } else if (objectClass == Shape3D.class) {
+        this.output.putByte(SHAPE);
+        writeShape((Shape3D)object);
+      } else if (objectClass == Appearance.class) {
+        this.output.putByte(APPEARANCE);
+        writeAppearance((Appearance)object);
+      } else if (objectClass == Material.class
+          || objectClass == OBJMaterial.class) {
+        this.output.putByte(objectClass == Material.class ? MATERIAL : OBJ_MATERIAL);
+        writeMaterial((Material)object);
+      } else if (objectClass == ColoringAttributes.class) {
+        this.output.putByte(COLORING_ATTRIBUTES);
+        writeNodeComponent((NodeComponent)object);
+        ColoringAttributes attributes = (ColoringAttributes)object;
+        Color3f color = new Color3f();
+        attributes.getColor(color);
+        writeColor(color);
+        this.output.putInt(attributes.getShadeModel());
+      } else if (objectClass == TransparencyAttributes.class) {
+        this.output.putByte(TRANSPARENCY_ATTRIBUTES);
+        writeNodeComponent((NodeComponent)object);
+        TransparencyAttributes attributes = (TransparencyAttributes)object;
+        this.output.putInt(attributes.getTransparencyMode());
+        this.output.putFloat(attributes.getTransparency());
+        this.output.putInt(attributes.getSrcBlendFunction());
+        this.output.putInt(attributes.getDstBlendFunction());
+      } else if (objectClass == RenderingAttributes.class) {
+        this.output.putByte(RENDERING_ATTRIBUTES);
+        writeRenderingAttributes((RenderingAttributes)object);
+      } else if (objectClass == PolygonAttributes.class) {
+        this.output.putByte(POLYGON_ATTRIBUTES);
+        writeNodeComponent((NodeComponent)object);
+        PolygonAttributes attributes = (PolygonAttributes)object;
+        this.output.putInt(attributes.getPolygonMode());
+        this.output.putInt(attributes.getCullFace());
+        this.output.putFloat(attributes.getPolygonOffset());
+        this.output.putBoolean(attributes.getBackFaceNormalFlip());
+        this.output.putFloat(attributes.getPolygonOffsetFactor());
+      } else if (objectClass == LineAttributes.class) {
+        this.output.putByte(LINE_ATTRIBUTES);
+        writeNodeComponent((NodeComponent)object);
+        LineAttributes attributes = (LineAttributes)object;
+        this.output.putFloat(attributes.getLineWidth());
+        this.output.putInt(attributes.getLinePattern());
+        this.output.putBoolean(attributes.getLineAntialiasingEnable());
+        this.output.putInt(attributes.getPatternMask());
+        this.output.putInt(attributes.getPatternScaleFactor());
+      } else if (objectClass == PointAttributes.class) {
+        this.output.putByte(POINT_ATTRIBUTES);
+        writeNodeComponent((NodeComponent)object);
+        PointAttributes attributes = (PointAttributes)object;
+        this.output.putFloat(attributes.getPointSize());
+        this.output.putBoolean(attributes.getPointAntialiasingEnable());
+      } else if (objectClass == TextureAttributes.class) {
+        this.output.putByte(TEXTURE_ATTRIBUTES);
+        writeTextureAttributes((TextureAttributes)object);
+      } else if (objectClass == TexCoordGeneration.class) {
+        this.output.putByte(TEX_COORD_GENERATION);
+        writeTexCoordGeneration((TexCoordGeneration)object);
+      } else if (objectClass == Texture2D.class) {
+        this.output.putByte(TEXTURE_2D);
+        writeTexture((Texture2D)object);
+      } else if (object instanceof GeometryArray) {
+        writeGeometryArray((GeometryArray)object);
+      } else {
+        throw new UnsupportedModelException("Unsupported class " + objectClass);
+      }
+    }
+
+    private void writeSceneGraphObject(SceneGraphObject object) throws UnsupportedModelException {
+      long capabilities = 0;
+      for (int bit = 0; bit < 64; bit++) {
+        if (object.getCapability(bit)) {
+          capabilities |= 1L << bit;
+        }
+      }
+      this.output.putLong(capabilities);
+      this.output.putString(object.getName());
+      Object userData = object.getUserData();
+      if (userData == null || userData instanceof String) {
+        this.output.putString((String)userData);
+      } else {
+        throw new UnsupportedModelException("Unsupported user data " + userData);
+      }
+    }
+
+    private void writeNode(Node node) throws UnsupportedModelException {
+      if (!node.getBoundsAutoCompute()) {
+        throw new UnsupportedModelException("Unsupported bounds");
+      }
+      writeSceneGraphObject(node);
+      this.output.putBoolean(node.getPickable());
+      this.output.putBoolean(node.getCollidable());
+    }
+
+    private void writeNodeComponent(NodeComponent nodeComponent) throws UnsupportedModelException {
+      writeSceneGraphObject(nodeComponent);
+      this.output.putBoolean(nodeComponent.getDuplicateOnCloneTree());
+    }
+
+    private void writeGroup(Group group) throws UnsupportedModelException {
+      writeNode(group);
+      List<Node> children = new ArrayList<Node>(group.numChildren());
+      for (int i = 0, n = group.numChildren(); i < n; i++) {
+        Node child = group.getChild(i);
+        // Ignore lights turned off by model manager
+        if (!(child instanceof Light)
+            || ((Light)child).getEnable()) {
+          children.add(child);
+        }
+      }
+      this.output.putInt(children.size());
+      for (Node child : children) {
+        writeObject(child);
+      }
+    }
+
+    private void writeShape(Shape3D shape) throws UnsupportedModelException {
+      writeNode(shape);
+      this.output.putBoolean(shape.getAppearanceOverrideEnable());
+      writeObject(shape.getAppearance());
+      int geometryCount = shape.numGeometries();
+      this.output.putInt(geometryCount);
+      for (int i = 0; i < geometryCount; i++) {
+        writeObject(shape.getGeometry(i));
+      }
+    }
+
+    private void writeAppearance(Appearance appearance) throws UnsupportedModelException {
+      if (appearance.getTextureUnitCount() > 0) {
+        throw new UnsupportedModelException("Unsupported texture units");
+      }
+      writeNodeComponent(appearance);
+      writeObject(appearance.getMaterial());
+      writeObject(appearance.getColoringAttributes());
+      writeObject(appearance.getTransparencyAttributes());
+      writeObject(appearance.getRenderingAttributes());
+      writeObject(appearance.getPolygonAttributes());
+      writeObject(appearance.getLineAttributes());
+      writeObject(appearance.getPointAttributes());
+      writeObject(appearance.getTextureAttributes());
+      writeObject(appearance.getTexCoordGeneration());
+      writeObject(appearance.getTexture());
+    }
+
+    private void writeColor(Color3f color) {
+      this.output.putFloat(color.x);
+      this.output.putFloat(color.y);
+      this.output.putFloat(color.z);
+    }
+
+    private void writeMaterial(Material material) throws UnsupportedModelException {
+      writeNodeComponent(material);
+      Color3f color = new Color3f();
+      material.getAmbientColor(color);
+      writeColor(color);
+      material.getEmissiveColor(color);
+      writeColor(color);
+      material.getDiffuseColor(color);
+      writeColor(color);
+      material.getSpecularColor(color);
+      writeColor(color);
+      this.output.putFloat(material.getShininess());
+      this.output.putBoolean(material.getLightingEnable());
+      this.output.putInt(material.getColorTarget());
+      if (material instanceof OBJMaterial) {
+        OBJMaterial objMaterial = (OBJMaterial)material;
+        this.output.putBoolean(objMaterial.isOpticalDensitySet());
+        if (objMaterial.isOpticalDensitySet()) {
+          this.output.putFloat(objMaterial.getOpticalDensity());
+        }
+        this.output.putBoolean(objMaterial.isIlluminationModelSet());
+        if (objMaterial.isIlluminationModelSet()) {
+          this.output.putInt(objMaterial.getIlluminationModel());
+        }
+        this.output.putBoolean(objMaterial.isSharpnessSet());
+        if (objMaterial.isSharpnessSet()) {
+          this.output.putFloat(objMaterial.getSharpness());
+        }
+      }
+    }
+
+    private void writeRenderingAttributes(RenderingAttributes attributes) throws UnsupportedModelException {
+      if (attributes.getStencilEnable()) {
+        throw new UnsupportedModelException("Unsupported stencil");
+      }
+      writeNodeComponent(attributes);
+      this.output.putBoolean(attributes.getDepthBufferEnable());
+      this.output.putBoolean(attributes.getDepthBufferWriteEnable());
+      this.output.putFloat(attributes.getAlphaTestValue());
+      this.output.putInt(attributes.getAlphaTestFunction());
+      this.output.putBoolean(attributes.getVisible());
+      this.output.putBoolean(attributes.getIgnoreVertexColors());
+      this.output.putBoolean(attributes.getRasterOpEnable());
+      this.output.putInt(attributes.getRasterOp());
+      this.output.putInt(attributes.getDepthTestFunction());
+    }
+
+    private void writeTextureAttributes(TextureAttributes attributes) throws UnsupportedModelException {
+      if (attributes.getTextureMode() == TextureAttributes.COMBINE
+          || attributes.getTextureColorTableSize() > 0) {
+        throw new UnsupportedModelException("Unsupported texture attributes");
+      }
+      writeNodeComponent(attributes);
+      this.output.putInt(attributes.getTextureMode());
+      this.output.putInt(attributes.getPerspectiveCorrectionMode());
+      Color4f color = new Color4f();
+      attributes.getTextureBlendColor(color);
+      this.output.putFloat(color.x);
+      this.output.putFloat(color.y);
+      this.output.putFloat(color.z);
+      this.output.putFloat(color.w);
+      Transform3D transform = new Transform3D();
+      attributes.getTextureTransform(transform);
+      double [] matrix = new double [16];
+      transform.get(matrix);
+      for (double value : matrix) {
+        this.output.putDouble(value);
+      }
+    }
+
+    private void writeTexCoordGeneration(TexCoordGeneration generation) throws UnsupportedModelException {
+      writeNodeComponent(generation);
+      this.output.putBoolean(generation.getEnable());
+      this.output.putInt(generation.getGenMode());
+      this.output.putInt(generation.getFormat());
+      Vector4f plane = new Vector4f();
+      generation.getPlaneS(plane);
+      writePlane(plane);
+      generation.getPlaneT(plane);
+      writePlane(plane);
+      generation.getPlaneR(plane);
+      writePlane(plane);
+      generation.getPlaneQ(plane);
+      writePlane(plane);
+    }
+
+    private void writePlane(Vector4f plane) {
+      this.output.putFloat(plane.x);
+      this.output.putFloat(plane.y);
+      this.output.putFloat(plane.z);
+      this.output.putFloat(plane.w);
+    }
+
+    /**
+     * Writes the attributes and the image of the given texture, and the URL of its image
+     * relative to the model when possible.
+     */
+    private void writeTexture(Texture2D texture) throws UnsupportedModelException {
+      ImageComponent [] images = texture.getImages();
+      if (texture.getMipMapMode() != Texture.BASE_LEVEL
+          || images.length != 1
+          || !(images [0] instanceof ImageComponent2D)) {
+        throw new UnsupportedModelException("Unsupported texture images");
+      }
+      Object userData = texture.getUserData();
+      if (userData != null && !(userData instanceof URL)) {
+        throw new UnsupportedModelException("Unsupported texture user data " + userData);
+      }
+      ImageComponent2D image = (ImageComponent2D)images [0];
+      BufferedImage bufferedImage;
+      try {
+        bufferedImage = image.getImage();
+      } catch (IllegalStateException ex) {
+        throw new UnsupportedModelException("Unsupported texture image");
+      }
+      if (bufferedImage == null) {
+        throw new UnsupportedModelException("Unsupported texture image");
+      }
+
+      long capabilities = 0;
+      for (int bit = 0; bit < 64; bit++) {
+        if (texture.getCapability(bit)) {
+          capabilities |= 1L << bit;
+        }
+      }
+      this.output.putLong(capabilities);
+      this.output.putString(texture.getName());
+      String url = userData != null ? userData.toString() : null;
+      boolean relativeUrl = url != null && this.baseUrl != null && url.startsWith(this.baseUrl);
+      this.output.putBoolean(relativeUrl);
+      this.output.putString(relativeUrl ? url.substring(this.baseUrl.length()) : url);
+      this.output.putInt(texture.getFormat());
+      this.output.putInt(texture.getWidth());
+      this.output.putInt(texture.getHeight());
+      this.output.putInt(texture.getBoundaryModeS());
+      this.output.putInt(texture.getBoundaryModeT());
+      this.output.putInt(texture.getMinFilter());
+      this.output.putInt(texture.getMagFilter());
+      this.output.putBoolean(texture.getEnable());
+
+      capabilities = 0;
+      for (int bit = 0; bit < 64; bit++) {
+        if (image.getCapability(bit)) {
+          capabilities |= 1L << bit;
+        }
+      }
+      this.output.putLong(capabilities);
+      this.output.putInt(image.getFormat());
+      this.output.putBoolean(image.isByReference());
+      this.output.putBoolean(image.isYUp());
+      int width = bufferedImage.getWidth();
+      int height = bufferedImage.getHeight();
+      this.output.putInt(width);
+      this.output.putInt(height);
+      this.output.putInts(bufferedImage.getRGB(0, 0, width, height, null, 0, width));
+    }
+
+    private void writeGeometryArray(GeometryArray geometry) throws UnsupportedModelException {
+      Class<?> geometryClass = geometry.getClass();
+      byte type;
+      if (geometryClass == TriangleArray.class) {
+        type = TRIANGLE_ARRAY;
+      } else if (geometryClass == QuadArray.class) {
+        type = QUAD_ARRAY;
+      } else if (geometryClass == LineArray.class) {
+        type = LINE_ARRAY;
+      } else if (geometryClass == PointArray.class) {
+        type = POINT_ARRAY;
+      } else if (geometryClass == TriangleStripArray.class) {
+        type = TRIANGLE_STRIP_ARRAY;
+      } else if (geometryClass == TriangleFanArray.class) {
+        type = TRIANGLE_FAN_ARRAY;
+      } else if (geometryClass == LineStripArray.class) {
+        type = LINE_STRIP_ARRAY;
+      } else if (geometryClass == IndexedTriangleArray.class) {
+        type = INDEXED_TRIANGLE_ARRAY;
+      } else if (geometryClass == IndexedQuadArray.class) {
+        type = INDEXED_QUAD_ARRAY;
+      } else if (geometryClass == IndexedLineArray.class) {
+        type = INDEXED_LINE_ARRAY;
+      } else if (geometryClass == IndexedPointArray.class) {
+        type = INDEXED_POINT_ARRAY;
+      } else if (geometryClass == IndexedTriangleStripArray.class) {
+        type = INDEXED_TRIANGLE_STRIP_ARRAY;
+      } else if (geometryClass == IndexedTriangleFanArray.class) {
+        type = INDEXED_TRIANGLE_FAN_ARRAY;
+      } else if (geometryClass == IndexedLineStripArray.class) {
+        type = INDEXED_LINE_STRIP_ARRAY;
+      } else {
+        throw new UnsupportedModelException("Unsupported class " + geometryClass);
+      }
+
+      int format = geometry.getVertexFormat();
+      int vertexCount = geometry.getVertexCount();
+      boolean stripArray = geometry instanceof GeometryStripArray
+          || geometry instanceof IndexedGeometryStripArray;
+      if ((format & (GeometryArray.USE_NIO_BUFFER | GeometryArray.VERTEX_ATTRIBUTES)) != 0
+          || !stripArray && geometry.getValidVertexCount() != vertexCount) {
+        throw new UnsupportedModelException("Unsupported geometry format");
+      }
+      this.output.putByte(type);
+      writeNodeComponent(geometry);
+      this.output.putInt(format);
+      this.output.putInt(vertexCount);
+      int texCoordSetCount = geometry.getTexCoordSetCount();
+      this.output.putInt(texCoordSetCount);
+      int [] texCoordSetMap = new int [geometry.getTexCoordSetMapLength()];
+      geometry.getTexCoordSetMap(texCoordSetMap);
+      this.output.putInts(texCoordSetMap);
+      if (geometry instanceof IndexedGeometryArray) {
+        IndexedGeometryArray indexedGeometry = (IndexedGeometryArray)geometry;
+        if (indexedGeometry.getInitialIndexIndex() != 0
+            || !stripArray && indexedGeometry.getValidIndexCount() != indexedGeometry.getIndexCount()) {
+          throw new UnsupportedModelException("Unsupported geometry indices");
+        }
+        this.output.putInt(indexedGeometry.getIndexCount());
+      }
+      int [] stripCounts = null;
+      if (geometry instanceof GeometryStripArray) {
+        GeometryStripArray stripGeometry = (GeometryStripArray)geometry;
+        stripCounts = new int [stripGeometry.getNumStrips()];
+        stripGeometry.getStripVertexCounts(stripCounts);
+      } else if (geometry instanceof IndexedGeometryStripArray) {
+        IndexedGeometryStripArray stripGeometry = (IndexedGeometryStripArray)geometry;
+        stripCounts = new int [stripGeometry.getNumStrips()];
+        stripGeometry.getStripIndexCounts(stripCounts);
+      }
+      if (stripCounts != null) {
+        this.output.putInts(stripCounts);
+      }
+
+      int colorSize = getColorSize(format);
+      int textureCoordinateSize = getTextureCoordinateSize(format);
+      if ((format & GeometryArray.BY_REFERENCE) != 0) {
+        if ((format & GeometryArray.INTERLEAVED) != 0) {
+          if (geometry.getInitialVertexIndex() != 0) {
+            throw new UnsupportedModelException("Unsupported geometry initial index");
+          }
+          this.output.putFloats(geometry.getInterleavedVertices());
+        } else {
+          if (geometry.getInitialCoordIndex() != 0) {
+            throw new UnsupportedModelException("Unsupported geometry initial index");
+          }
+          writeReferenceFloats(geometry.getCoordRefFloat());
+          if ((format & GeometryArray.NORMALS) != 0) {
+            if (geometry.getInitialNormalIndex() != 0) {
+              throw new UnsupportedModelException("Unsupported geometry initial index");
+            }
+            writeReferenceFloats(geometry.getNormalRefFloat());
+          }
+          if (colorSize > 0) {
+            if (geometry.getInitialColorIndex() != 0) {
+              throw new UnsupportedModelException("Unsupported geometry initial index");
+            }
+            writeReferenceFloats(geometry.getColorRefFloat());
+          }
+          for (int i = 0; textureCoordinateSize > 0 && i < texCoordSetCount; i++) {
+            if (geometry.getInitialTexCoordIndex(i) != 0) {
+              throw new UnsupportedModelException("Unsupported geometry initial index");
+            }
+            writeReferenceFloats(geometry.getTexCoordRefFloat(i));
+          }
+        }
+      } else {
+        if (geometry.getInitialVertexIndex() != 0) {
+          throw new UnsupportedModelException("Unsupported geometry initial index");
+        }
+        float [] values = new float [vertexCount * 3];
+        geometry.getCoordinates(0, values);
+        this.output.putFloats(values);
+        if ((format & GeometryArray.NORMALS) != 0) {
+          geometry.getNormals(0, values);
+          this.output.putFloats(values);
+        }
+        if (colorSize > 0) {
+          values = new float [vertexCount * colorSize];
+          geometry.getColors(0, values);
+          this.output.putFloats(values);
+        }
+        if (textureCoordinateSize > 0) {
+          values = new float [vertexCount * textureCoordinateSize];
+          for (int i = 0; i < texCoordSetCount; i++) {
+            geometry.getTextureCoordinates(i, 0, values);
+            this.output.putFloats(values);
+          }
+        }
+      }
+
+      if (geometry instanceof IndexedGeometryArray) {
+        IndexedGeometryArray indexedGeometry = (IndexedGeometryArray)geometry;
+        int [] indices = new int [indexedGeometry.getIndexCount()];
+        if ((format & GeometryArray.BY_REFERENCE_INDICES) != 0) {
+          int [] indicesReference = indexedGeometry.getCoordIndicesRef();
+          if (indicesReference == null) {
+            throw new UnsupportedModelException("Unsupported geometry indices");
+          }
+          this.output.putInts(indicesReference);
+        } else {
+          indexedGeometry.getCoordinateIndices(0, indices);
+          this.output.putInts(indices);
+          if ((format & GeometryArray.USE_COORD_INDEX_ONLY) == 0) {
+            if ((format & GeometryArray.NORMALS) != 0) {
+              indexedGeometry.getNormalIndices(0, indices);
+              this.output.putInts(indices);
+            }
+            if (colorSize > 0) {
+              indexedGeometry.getColorIndices(0, indices);
+              this.output.putInts(indices);
+            }
+            for (int i = 0; textureCoordinateSize > 0 && i < texCoordSetCount; i++) {
+              indexedGeometry.getTextureCoordinateIndices(i, 0, indices);
+              this.output.putInts(indices);
+            }
+          }
+        }
+      }
+    }
+
+    private void writeReferenceFloats(float [] values) throws UnsupportedModelException {
+      if (values == null) {
+        // Data referenced with other types
+        throw new UnsupportedModelException("Unsupported geometry data");
+      }
+      this.output.putFloats(values);
+    }
+  }
+
+  /**
+   * Returns the count of color components in vertices at the given <code>format</code>.
+   */
+  private static int getColorSize(int format) {
+    if ((format & GeometryArray.COLOR_3) != GeometryArray.COLOR_3) {
+      return 0;
+    } else {
+      return (format & GeometryArray.COLOR_4) == GeometryArray.COLOR_4 ? 4 : 3;
+    }
+  }
+
+  /**
+   * Returns the count of texture coordinates in vertices at the given <code>format</code>.
+   */
+  private static int getTextureCoordinateSize(int format) {
+    if ((format & GeometryArray.TEXTURE_COORDINATE_4) == GeometryArray.TEXTURE_COORDINATE_4) {
+      return 4;
+    } else if ((format & GeometryArray.TEXTURE_COORDINATE_3) == GeometryArray.TEXTURE_COORDINATE_3) {
+      return 3;
+    } else if ((format & GeometryArray.TEXTURE_COORDINATE_2) == GeometryArray.TEXTURE_COORDINATE_2) {
+      return 2;
+    } else {
+      return 0;
+    }
+  }
+
+  /**
+   * Reader of the scene graph written by {@link ModelWriter} in a buffer.
+   */
+  private static class ModelReader {
+    private final ByteBuffer   buffer;
+    private final List<Object> objects = new ArrayList<Object>();
+    private final String       baseUrl;
+
+    public ModelReader(ByteBuffer buffer, Content content) {
+      this.buffer = buffer;
+      this.baseUrl = getBaseUrl(content);
+    }
+
+    public BranchGroup readModel() throws IOException {
+      if (this.buffer.getInt() != MAGIC_NUMBER
+          || this.buffer.getInt() != FORMAT_VERSION) {
+        throw new IOException("Unsupported cache file");
+      }
+      return (BranchGroup)readObject();
+    }
+
+    /**
+     * Returns the object matching the next identifier in buffer,
+     * reading its type and data if it wasn't read yet.
+     */
+    private Object readObject() throws IOException {
+      int identifier = this.buffer.getInt();
+      if (identifier == -1) {
+        return null;
+      } else if (identifier < this.objects.size()) {
+        return this.objects.get(identifier);
+      } else if (identifier != this.objects.size()) {
+        throw new IOException("Unexpected identifier " + identifier);
+      }
+      // Reserve the identifier of the object before reading the objects it refers to
+      this.objects.add(null);
+
+      Object object;
+      byte type = this.buffer.get();
+      switch (type) {
+        case BRANCH_GROUP :
+          object = readGroup(new BranchGroup());
+          break;
+        case GROUP :
+          object = readGroup(new Group());
+          break;
+        case TRANSFORM_GROUP :
+          object = readGroup(new TransformGroup(new Transform3D(readMatrix())));
+          break;
+        case SHARED_GROUP :
+          object = readGroup(new SharedGroup());
+          break;
+        case LINK :
+          Link link = new Link();
+          readNode(link);
+          link.setSharedGroup((SharedGroup)readObject());
+          object = link;
+          break;
+        case SHAPE :
+          object = readShape();
+          break;
+        case APPEARANCE :
+          object = readAppearance();
+          break;
+        case MATERIAL :
+        case OBJ_MATERIAL :
+          object = readMaterial(type == MATERIAL ? new Material() : new OBJMaterial());
+          break;
+        case COLORING_ATTRIBUTES :
+          ColoringAttributes coloringAttributes = new ColoringAttributes();
+          readNodeComponent(coloringAttributes);
+          coloringAttributes.setColor(readColor());
+          coloringAttributes.setShadeModel(this.buffer.getInt());
+          object = coloringAttributes;
+          break;
+        case TRANSPARENCY_ATTRIBUTES :
+          TransparencyAttributes transparencyAttributes = new TransparencyAttributes();
+          readNodeComponent(transparencyAttributes);
+          transparencyAttributes.setTransparencyMode(this.buffer.getInt());
+          transparencyAttributes.setTransparency(this.buffer.getFloat());
+          transparencyAttributes.setSrcBlendFunction(this.buffer.getInt());
+          transparencyAttributes.setDstBlendFunction(this.buffer.getInt());
+          object = transparencyAttributes;
+          break;
+        case RENDERING_ATTRIBUTES :
+          RenderingAttributes renderingAttributes = new RenderingAttributes();
+          readNodeComponent(renderingAttributes);
+          renderingAttributes.setDepthBufferEnable(readBoolean());
+          renderingAttributes.setDepthBufferWriteEnable(readBoolean());
+          renderingAttributes.setAlphaTestValue(this.buffer.getFloat());
+          renderingAttributes.setAlphaTestFunction(this.buffer.getInt());
+          renderingAttributes.setVisible(readBoolean());
+          renderingAttributes.setIgnoreVertexColors(readBoolean());
+          renderingAttributes.setRasterOpEnable(readBoolean());
+          renderingAttributes.setRasterOp(this.buffer.getInt());
+          renderingAttributes.setDepthTestFunction(this.buffer.getInt());
+          object = renderingAttributes;
+          break;
+        case POLYGON_ATTRIBUTES :
+          PolygonAttributes polygonAttributes = new PolygonAttributes();
+          readNodeComponent(polygonAttributes);
+          polygonAttributes.setPolygonMode(this.buffer.getInt());
+          polygonAttributes.setCullFace(this.buffer.getInt());
+          polygonAttributes.setPolygonOffset(this.buffer.getFloat());
+          polygonAttributes.setBackFaceNormalFlip(readBoolean());
+          polygonAttributes.setPolygonOffsetFactor(this.buffer.getFloat());
+          object = polygonAttributes;
+          break;
+        case LINE_ATTRIBUTES :
+          LineAttributes lineAttributes = new LineAttributes();
+          readNodeComponent(lineAttributes);
+          lineAttributes.setLineWidth(this.buffer.getFloat());
+          lineAttributes.setLinePattern(this.buffer.getInt());
+          lineAttributes.setLineAntialiasingEnable(readBoolean());
+          lineAttributes.setPatternMask(this.buffer.getInt());
+          lineAttributes.setPatternScaleFactor(this.buffer.getInt());
+          object = lineAttributes;
+          break;
+        case POINT_ATTRIBUTES :
+          PointAttributes pointAttributes = new PointAttributes();
+          readNodeComponent(pointAttributes);
+          pointAttributes.setPointSize(this.buffer.getFloat());
+          pointAttributes.setPointAntialiasingEnable(readBoolean());
+          object = pointAttributes;
+          break;
+        case TEXTURE_ATTRIBUTES :
+          object = readTextureAttributes();
+          break;
+        case TEX_COORD_GENERATION :
+          object = readTexCoordGeneration();
+          break;
+        case TEXTURE_2D :
+          object = readTexture();
+          break;
+        default :
+          object = readGeometryArray(type);
+          break;
+      }
+      this.objects.set(identifier, object);
+      return object;
+    }
+
+    private boolean readBoolean() {
+      return this.buffer.get() != 0;
+    }
+
+    private String readString() {
+      int length = this.buffer.getInt();
+      if (length == -1) {
+        return null;
+      } else {
+        byte [] bytes = new byte [length];
+        this.buffer.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+      }
+    }
+
+    private float [] readFloats() {
+      float [] values = new float [this.buffer.getInt()];
+      this.buffer.asFloatBuffer().get(values);
+      this.buffer.position(this.buffer.position() + values.length * 4);
+      return values;
+    }
+
+    private int [] readInts() {
+      int [] values = new int [this.buffer.getInt()];
+      this.buffer.asIntBuffer().get(values);
+      this.buffer.position(this.buffer.position() + values.length * 4);
+      return values;
+    }
+
+    private double [] readMatrix() {
+      double [] matrix = new double [16];
+      for (int i = 0; i < matrix.length; i++) {
+        matrix [i] = this.buffer.getDouble();
+      }
+      return matrix;
+    }
+
+    private Color3f readColor() {
+      return new Color3f(this.buffer.getFloat(), this.buffer.getFloat(), this.buffer.getFloat());
+    }
+
+    private Vector4f readPlane() {
+      return new Vector4f(this.buffer.getFloat(), this.buffer.getFloat(), this.buffer.getFloat(), this.buffer.getFloat());
+    }
+
+    private void readSceneGraphObject(SceneGraphObject object) {
+      setCapabilities(object, this.buffer.getLong());
+      object.setName(readString());
+      object.setUserData(readString());
+    }
+
+    private void readNode(Node node) {
+      readSceneGraphObject(node);
+      node.setPickable(readBoolean());
+      node.setCollidable(readBoolean());
+    }
+
+    private void readNodeComponent(NodeComponent nodeComponent) {
+      readSceneGraphObject(nodeComponent);
+      nodeComponent.setDuplicateOnCloneTree(readBoolean());
+    }
+
+    private Group readGroup(Group group) throws IOException {
+      readNode(group);
+      for (int i = this.buffer.getInt(); i > 0; i--) {
+        group.addChild((Node)readObject());
+      }
+      return group;
+    }
+
+    private Shape3D readShape() throws IOException {
+      Shape3D shape = new Shape3D();
+      readNode(shape);
+      shape.setAppearanceOverrideEnable(readBoolean());
+      shape.setAppearance((Appearance)readObject());
+      int geometryCount = this.buffer.getInt();
+      for (int i = 0; i < geometryCount; i++) {
+        Geometry geometry = (Geometry)readObject();
+        if (i == 0) {
+          shape.setGeometry(geometry);
+        } else {
+          shape.addGeometry(geometry);
+        }
+      }
+      return shape;
+    }
+
+    private Appearance readAppearance() throws IOException {
+      Appearance appearance = new Appearance();
+      readNodeComponent(appearance);
+      appearance.setMaterial((Material)readObject());
+      appearance.setColoringAttributes((ColoringAttributes)readObject());
+      appearance.setTransparencyAttributes((TransparencyAttributes)readObject());
+      appearance.setRenderingAttributes((RenderingAttributes)readObject());
+      appearance.setPolygonAttributes((PolygonAttributes)readObject());
+      appearance.setLineAttributes((LineAttributes)readObject());
+      appearance.setPointAttributes((PointAttributes)readObject());
+      appearance.setTextureAttributes((TextureAttributes)readObject());
+      appearance.setTexCoordGeneration((TexCoordGeneration)readObject());
+      appearance.setTexture((Texture)readObject());
+      return appearance;
+    }
+
+    private Material readMaterial(Material material) {
+      readNodeComponent(material);
+      material.setAmbientColor(readColor());
+      material.setEmissiveColor(readColor());
+      material.setDiffuseColor(readColor());
+      material.setSpecularColor(readColor());
+      material.setShininess(this.buffer.getFloat());
+      material.setLightingEnable(readBoolean());
+      material.setColorTarget(this.buffer.getInt());
+      if (material instanceof OBJMaterial) {
+        OBJMaterial objMaterial = (OBJMaterial)material;
+        if (readBoolean()) {
+          objMaterial.setOpticalDensity(this.buffer.getFloat());
+        }
+        if (readBoolean()) {
+          objMaterial.setIlluminationModel(this.buffer.getInt());
+        }
+        if (readBoolean()) {
+          objMaterial.setSharpness(this.buffer.getFloat());
+        }
+      }
+      return material;
+    }
+
+    private TextureAttributes readTextureAttributes() {
+      TextureAttributes attributes = new TextureAttributes();
+      readNodeComponent(attributes);
+      attributes.setTextureMode(this.buffer.getInt());
+      attributes.setPerspectiveCorrectionMode(this.buffer.getInt());
+      attributes.setTextureBlendColor(new Color4f(this.buffer.getFloat(), this.buffer.getFloat(),
+          this.buffer.getFloat(), this.buffer.getFloat()));
+      attributes.setTextureTransform(new Transform3D(readMatrix()));
+      return attributes;
+    }
+
+    private TexCoordGeneration readTexCoordGeneration() {
+      TexCoordGeneration generation = new TexCoordGeneration();
+      readNodeComponent(generation);
+      generation.setEnable(readBoolean());
+      generation.setGenMode(this.buffer.getInt());
+      generation.setFormat(this.buffer.getInt());
+      generation.setPlaneS(readPlane());
+      generation.setPlaneT(readPlane());
+      generation.setPlaneR(readPlane());
+      generation.setPlaneQ(readPlane());
+      return generation;
+    }
+
+    private Texture2D readTexture() throws IOException {
+      long capabilities = this.buffer.getLong();
+      String name = readString();
+      boolean relativeUrl = readBoolean();
+      String url = readString();
+      if (relativeUrl) {
+        if (this.baseUrl == null) {
+          throw new IOException("No base URL");
+        }
+        url = this.baseUrl + url;
+      }
+      int format = this.buffer.getInt();
+      int textureWidth = this.buffer.getInt();
+      int textureHeight = this.buffer.getInt();
+      Texture2D texture = new Texture2D(Texture.BASE_LEVEL, format, textureWidth, textureHeight);
+      texture.setBoundaryModeS(this.buffer.getInt());
+      texture.setBoundaryModeT(this.buffer.getInt());
+      texture.setMinFilter(this.buffer.getInt());
+      texture.setMagFilter(this.buffer.getInt());
+      texture.setEnable(readBoolean());
+
+      long imageCapabilities = this.buffer.getLong();
+      int imageFormat = this.buffer.getInt();
+      boolean byReference = readBoolean();
+      boolean yUp = readBoolean();
+      int width = this.buffer.getInt();
+      int height = this.buffer.getInt();
+      BufferedImage bufferedImage = new BufferedImage(width, height, BufferedImage.TYPE_INT_ARGB);
+      bufferedImage.setRGB(0, 0, width, height, readInts(), 0, width);
+      ImageComponent2D image = new ImageComponent2D(imageFormat, bufferedImage, byReference, yUp);
+      texture.setImage(0, image);
+      setCapabilities(texture, capabilities);
+      setCapabilities(image, imageCapabilities);
+      texture.setName(name);
+      if (url != null) {
+        texture.setUserData(new URL(url));
+      }
+      return texture;
+    }
+
+    private void setCapabilities(SceneGraphObject object, long capabilities) {
+      for (int bit = 0; bit < 64; bit++) {
+        if ((capabilities & (1L << bit)) != 0) {
+          object.setCapability(bit);
+        } else if (object.getCapability(bit)) {
+          object.clearCapability(bit);
+        }
+      }
+    }
+
+    private GeometryArray readGeometryArray(byte type) throws IOException {
+      long capabilities = this.buffer.getLong();
+      String name = readString();
+      String userData = readString();
+      boolean duplicateOnCloneTree = readBoolean();
+      int format = this.buffer.getInt();
+      int vertexCount = this.buffer.getInt();
+      int texCoordSetCount = this.buffer.getInt();
+      int [] texCoordSetMap = readInts();
+      if (texCoordSetMap.length == 0) {
+        texCoordSetMap = null;
+      }
+      int indexCount = type >= INDEXED_TRIANGLE_ARRAY
+          ? this.buffer.getInt()
+          : 0;
+      int [] stripCounts = type == TRIANGLE_STRIP_ARRAY
+              || type == TRIANGLE_FAN_ARRAY
+              || type == LINE_STRIP_ARRAY
+              || type == INDEXED_TRIANGLE_STRIP_ARRAY
+              || type == INDEXED_TRIANGLE_FAN_ARRAY
+              || type == INDEXED_LINE_STRIP_ARRAY
+          ? readInts()
+          : null;
+
+      GeometryArray geometry;
+      switch (type) {
+        case TRIANGLE_ARRAY :
+          geometry = new TriangleArray(vertexCount, format, texCoordSetCount, texCoordSetMap);
+          break;
+        case QUAD_ARRAY :
+          geometry = new QuadArray(vertexCount, format, texCoordSetCount, texCoordSetMap);
+          break;
+        case LINE_ARRAY :
+          geometry = new LineArray(vertexCount, format, texCoordSetCount, texCoordSetMap);
+          break;
+        case POINT_ARRAY :
+          geometry = new PointArray(vertexCount, format, texCoordSetCount, texCoordSetMap);
+          break;
+        case TRIANGLE_STRIP_ARRAY :
+          geometry = new TriangleStripArray(vertexCount, format, texCoordSetCount, texCoordSetMap, stripCounts);
+          break;
+        case TRIANGLE_FAN_ARRAY :
+          geometry = new TriangleFanArray(vertexCount, format, texCoordSetCount, texCoordSetMap, stripCounts);
+          break;
+        case LINE_STRIP_ARRAY :
+          geometry = new LineStripArray(vertexCount, format, texCoordSetCount, texCoordSetMap, stripCounts);
+          break;
+        case INDEXED_TRIANGLE_ARRAY :
+          geometry = new IndexedTriangleArray(vertexCount, format, texCoordSetCount, texCoordSetMap, indexCount);
+          break;
+        case INDEXED_QUAD_ARRAY :
+          geometry = new IndexedQuadArray(vertexCount, format, texCoordSetCount, texCoordSetMap, indexCount);
+          break;
+        case INDEXED_LINE_ARRAY :
+          geometry = new IndexedLineArray(vertexCount, format, texCoordSetCount, texCoordSetMap, indexCount);
+          break;
+        case INDEXED_POINT_ARRAY :
+          geometry = new IndexedPointArray(vertexCount, format, texCoordSetCount, texCoordSetMap, indexCount);
+          break;
+        case INDEXED_TRIANGLE_STRIP_ARRAY :
+          geometry = new IndexedTriangleStripArray(vertexCount, format, texCoordSetCount, texCoordSetMap,
+              indexCount, stripCounts);
+          break;
+        case INDEXED_TRIANGLE_FAN_ARRAY :
+          geometry = new IndexedTriangleFanArray(vertexCount, format, texCoordSetCount, texCoordSetMap,
+              indexCount, stripCounts);
+          break;
+        case INDEXED_LINE_STRIP_ARRAY :
+          geometry = new IndexedLineStripArray(vertexCount, format, texCoordSetCount, texCoordSetMap,
+              indexCount, stripCounts);
+          break;
+        default :
+          throw new IOException("Unexpected type " + type);
+      }
+      setCapabilities(geometry, capabilities);
+      geometry.setName(name);
+      geometry.setUserData(userData);
+      geometry.setDuplicateOnCloneTree(duplicateOnCloneTree);
+
+      int colorSize = getColorSize(format);
+      int textureCoordinateSize = getTextureCoordinateSize(format);
+      if ((format & GeometryArray.BY_REFERENCE) != 0) {
+        if ((format & GeometryArray.INTERLEAVED) != 0) {
+          geometry.setInterleavedVertices(readFloats());
+        } else {
+          geometry.setCoordRefFloat(readFloats());
+          if ((format & GeometryArray.NORMALS) != 0) {
+            geometry.setNormalRefFloat(readFloats());
+          }
+          if (colorSize > 0) {
+            geometry.setColorRefFloat(readFloats());
+          }
+          for (int i = 0; textureCoordinateSize > 0 && i < texCoordSetCount; i++) {
+            geometry.setTexCoordRefFloat(i, readFloats());
+          }
+        }
+      } else {
+        geometry.setCoordinates(0, readFloats());
+        if ((format & GeometryArray.NORMALS) != 0) {
+          geometry.setNormals(0, readFloats());
+        }
+        if (colorSize > 0) {
+          geometry.setColors(0, readFloats());
+        }
+        for (int i = 0; textureCoordinateSize > 0 && i < texCoordSetCount; i++) {
+          geometry.setTextureCoordinates(i, 0, readFloats());
+        }
+      }
+
+      if (geometry instanceof IndexedGeometryArray) {
+        IndexedGeometryArray indexedGeometry = (IndexedGeometryArray)geometry;
+        if ((format & GeometryArray.BY_REFERENCE_INDICES) != 0) {
+          indexedGeometry.setCoordIndicesRef(readInts());
+        } else {
+          indexedGeometry.setCoordinateIndices(0, readInts());
+          if ((format & GeometryArray.USE_COORD_INDEX_ONLY) == 0) {
+            if ((format & GeometryArray.NORMALS) != 0) {
+              indexedGeometry.setNormalIndices(0, readInts());
+            }
+            if (colorSize > 0) {
+              indexedGeometry.setColorIndices(0, readInts());
+            }
+            for (int i = 0; textureCoordinateSize > 0 && i < texCoordSetCount; i++) {
+              indexedGeometry.setTextureCoordinateIndices(i, 0, readInts());
+            }
+          }
+        }
+      }
+      return geometry;
+    }
+  }
+}
@@ -28,6 +28,9 @@ import java.awt.geom.PathIterator;
 import java.awt.geom.Rectangle2D;
 import java.io.File;
 import java.io.IOException;
+import java.io.InputStream;
+import java.lang.ref.ReferenceQueue;
+import java.lang.ref.WeakReference;
 import java.lang.reflect.Constructor;
 import java.lang.reflect.InvocationTargetException;
 import java.lang.reflect.Modifier;
@@ -35,8 +38,10 @@ import java.net.JarURLConnection;
 import java.net.URISyntaxException;
 import java.net.URL;
 import java.net.URLConnection;
+import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collections;
 import java.util.Comparator;
 import java.util.Enumeration;
 import java.util.HashMap;
@@ -44,12 +49,17 @@ import java.util.HashSet;
 import java.util.IdentityHashMap;
 import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Locale;
 import java.util.Map;
 import java.util.Set;
 import java.util.TreeSet;
 import java.util.WeakHashMap;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.LongAdder;
 
 import javax.media.j3d.Appearance;
 import javax.media.j3d.BoundingBox;
@@ -71,10 +81,12 @@ import javax.media.j3d.LineAttributes;
 import javax.media.j3d.Link;
 import javax.media.j3d.Material;
 import javax.media.j3d.Node;
+import javax.media.j3d.NodeComponent;
 import javax.media.j3d.PointAttributes;
 import javax.media.j3d.PolygonAttributes;
 import javax.media.j3d.QuadArray;
 import javax.media.j3d.RenderingAttributes;
+import javax.media.j3d.SceneGraphObject;
 import javax.media.j3d.Shape3D;
 import javax.media.j3d.SharedGroup;
 import javax.media.j3d.TexCoordGeneration;
@@ -87,11 +99,13 @@ import javax.media.j3d.TriangleArray;
 import javax.media.j3d.TriangleFanArray;
 import javax.media.j3d.TriangleStripArray;
 import javax.vecmath.Color3f;
+import javax.vecmath.Color4f;
 import javax.vecmath.Matrix3f;
 import javax.vecmath.Point3d;
 import javax.vecmath.Point3f;
 import javax.vecmath.Vector3d;
 import javax.vecmath.Vector3f;
+import javax.vecmath.Vector4f;
 
 import org.apache.batik.parser.AWTPathProducer;
 import org.apache.batik.parser.ParseException;
@@ -202,27 +216,53 @@ public class ModelManager {
 
   private static final String   ADDITIONAL_LOADER_CLASSES = "com.eteks.sweethome3d.j3d.additionalLoaderClasses";
 
+  // Formats read by default loaders, in the order they're tried when format isn't detected
+  private static final String [] DEFAULT_LOADER_FORMATS = {"OBJ", "DAE", "3DS", "LWS"};
+  private static final int       OBJ_FORMAT     = 0;
+  private static final int       DAE_FORMAT     = 1;
+  private static final int       MAX_3DS_FORMAT = 2;
+  private static final int       LWS_FORMAT     = 3;
+  // Count of default loaders which don't keep parsed data once a model is loaded
+  private static final int       REUSABLE_LOADERS_COUNT = 3;
+  private static final int       FORMAT_DETECTION_LENGTH = 1024;
+  // Maximum count of bounds kept for the different transformations of a model
+  private static final int       MAX_TRANSFORMED_BOUNDS_COUNT = 64;
+  private static final Set<String> OBJ_KEYWORDS = new HashSet<String>(Arrays.asList(
+      "v", "vt", "vn", "vp", "f", "l", "p", "g", "o", "s", "mg", "mtllib", "usemtl",
+      "cstype", "deg", "bmat", "step", "curv", "curv2", "surf", "parm", "trim", "hole",
+      "scrv", "sp", "end", "con", "lod", "maplib", "usemap", "bevel", "c_interp",
+      "d_interp", "shadow_obj", "trace_obj", "ctech", "stech"));
+
   private static ModelManager instance;
 
-  // Map storing loaded model nodes
-  private Map<Content, BranchGroup> loadedModelNodes;
-  // Map storing model nodes being loaded
-  private Map<Content, List<ModelObserver>> loadingModelObservers;
-  // Map storing the bounds of transformed model nodes
-  private Map<Content, Map<Transform3D, BoundingBox>> transformedModelNodeBounds;
+  // Map storing loaded model nodes or the model nodes being loaded with the bounds of their transformed nodes
+  private final Map<ContentKey, LoadedModel> loadedModels;
+  // Queue of the contents of loaded models that were garbage collected
+  private final ReferenceQueue<Content> collectedContents;
+  // Lock used when scene graph objects must be cloned with Java 3D methods which aren't thread safe
+  private final Object              cloningLock;
   // Executor used to load models
   private ExecutorService           modelsLoader;
   // List of additional loader classes
   private Class<Loader> []          additionalLoaderClasses;
   // SVG path Shapes
   private final Map<String, Shape>  parsedShapes;
+  // Persistent cache of loaded models
+  private volatile ModelCache       modelCache;
+  // Default loaders reused by each thread
+  private final ThreadLocal<Loader []> reusableLoaders;
+  // Loading statistics per format
+  private final Map<String, LoadingStatistics> loadingStatistics;
 
   private ModelManager() {
     // This class is a singleton
-    this.loadedModelNodes = new WeakHashMap<Content, BranchGroup>();
-    this.loadingModelObservers = new HashMap<Content, List<ModelObserver>>();
-    this.transformedModelNodeBounds = new WeakHashMap<Content, Map<Transform3D, BoundingBox>>();
+    this.loadedModels = new ConcurrentHashMap<ContentKey, LoadedModel>();
+    this.collectedContents = new ReferenceQueue<Content>();
+    this.cloningLock = new Object();
     this.parsedShapes = new WeakHashMap<String, Shape>();
+    this.reusableLoaders = ThreadLocal.withInitial(
+        () -> new Loader [] {new OBJLoader(), new DAELoader(), new Max3DSLoader()});
+    this.loadingStatistics = new ConcurrentHashMap<String, LoadingStatistics>();
     // Load other optional Loader classes
     List<Class<Loader>> loaderClasses = new ArrayList<Class<Loader>>();
     String loaderClassNames = System.getProperty(ADDITIONAL_LOADER_CLASSES);
@@ -285,10 +325,7 @@ public class ModelManager {
       this.modelsLoader.shutdownNow();
       this.modelsLoader = null;
     }
-    synchronized (this.loadedModelNodes) {
-      this.loadedModelNodes.clear();
-    }
-    this.loadingModelObservers.clear();
+    this.loadedModels.clear();
   }
 
   /**
@@ -411,8 +448,9 @@ public class ModelManager {
                  && node instanceof BranchGroup
                  && node.getUserData() instanceof Content) {
         // Check if it's the node of a model
-        modelBounds = this.transformedModelNodeBounds.get(node.getUserData());
-        if (modelBounds != null) {
+        LoadedModel loadedModel = this.loadedModels.get(new ContentKey((Content)node.getUserData()));
+        if (loadedModel != null) {
+          modelBounds = loadedModel.getTransformedBounds();
           // Retrieve the bounds that may have been previously computed for the requested transformation
           transformationModelBounds = modelBounds.get(parentTransformation);
         }
@@ -436,8 +474,11 @@ public class ModelManager {
         }
 
         if (modelBounds != null) {
-          // Store the computed bounds of the model
-          modelBounds.put(parentTransformation, transformationModelBounds = combinedBounds);
+          // Store the computed bounds of the model, forgetting previous ones if there are too many
+          if (modelBounds.size() >= MAX_TRANSFORMED_BOUNDS_COUNT) {
+            modelBounds.clear();
+          }
+          modelBounds.put(new Transform3D(parentTransformation), transformationModelBounds = combinedBounds);
         }
       }
 
@@ -730,78 +771,99 @@ public class ModelManager {
    */
   public void loadModel(final Content content,
                         boolean synchronous,
-                        ModelObserver modelObserver) {
-    BranchGroup modelRoot;
-    synchronized (this.loadedModelNodes) {
-      modelRoot = this.loadedModelNodes.get(content);
-    }
-    if (modelRoot != null) {
+                        final ModelObserver modelObserver) {
+    purgeLoadedModels();
+    LoadedModel loadedModel = this.loadedModels.get(new ContentKey(content));
+    if (loadedModel != null
+        && loadedModel.isLoaded()) {
       // Notify cached model to observer with a clone of the model
-      modelObserver.modelUpdated((BranchGroup)cloneNode(modelRoot));
-    } else if (synchronous) {
-      try {
-        modelRoot = loadModel(content);
-        synchronized (this.loadedModelNodes) {
-          // Store in cache model node for future copies
-          this.loadedModelNodes.put(content, (BranchGroup)modelRoot);
-          this.transformedModelNodeBounds.put(content, new WeakHashMap<Transform3D, BoundingBox>());
+      modelObserver.modelUpdated((BranchGroup)cloneNode(loadedModel.getModel().join()));
+      return;
+    } else if (!synchronous
+               && !EventQueue.isDispatchThread()) {
+      throw new IllegalStateException("Asynchronous call out of Event Dispatch Thread");
+    }
+
+    if (loadedModel == null) {
+      // Register the future model of content, unless an other thread did it in the mean time
+      LoadedModel newLoadedModel = new LoadedModel();
+      loadedModel = this.loadedModels.putIfAbsent(new ContentKey(content, this.collectedContents), newLoadedModel);
+      if (loadedModel == null) {
+        loadedModel = newLoadedModel;
+        if (synchronous) {
+          loadModel(content, loadedModel);
+        } else {
+          if (this.modelsLoader == null) {
+            this.modelsLoader = Executors.newFixedThreadPool(Runtime.getRuntime().availableProcessors());
+          }
+          // Load the model in an other thread
+          final LoadedModel loadingModel = loadedModel;
+          this.modelsLoader.execute(new Runnable() {
+              public void run() {
+                loadModel(content, loadingModel);
+              }
+            });
         }
-        modelObserver.modelUpdated((BranchGroup)cloneNode(modelRoot));
-      } catch (IOException ex) {
-        modelObserver.modelError(ex);
       }
-    } else if (!EventQueue.isDispatchThread()) {
-      throw new IllegalStateException("Asynchronous call out of Event Dispatch Thread");
+    }
+
+    if (synchronous) {
+      // Wait for the model, possibly loaded by an other thread
+      try {
+        modelObserver.modelUpdated((BranchGroup)cloneNode(loadedModel.getModel().join()));
+      } catch (CompletionException ex) {
+        modelObserver.modelError(getLoadingException(ex));
+      }
     } else {
-      if (this.modelsLoader == null) {
-        this.modelsLoader = Executors.newFixedThreadPool(Runtime.getRuntime().availableProcessors());
-      }
-      List<ModelObserver> observers = this.loadingModelObservers.get(content);
-      if (observers != null) {
-        // If observers list exists, content model is already being loaded
-        // register observer for future notification
-        observers.add(modelObserver);
-      } else {
-        // Create a list of observers that will be notified once content model is loaded
-        observers = new ArrayList<ModelObserver>();
-        observers.add(modelObserver);
-        this.loadingModelObservers.put(content, observers);
-
-        // Load the model in an other thread
-        this.modelsLoader.execute(new Runnable() {
-          public void run() {
-            try {
-              final BranchGroup loadedModel = loadModel(content);
-              synchronized (ModelManager.this.loadedModelNodes) {
-                // Update loaded models cache and notify registered observers
-                ModelManager.this.loadedModelNodes.put(content, loadedModel);
-                ModelManager.this.transformedModelNodeBounds.put(content, new WeakHashMap<Transform3D, BoundingBox>());
-              }
-              EventQueue.invokeLater(new Runnable() {
-                  public void run() {
-                    List<ModelObserver> observers = ModelManager.this.loadingModelObservers.remove(content);
-                    if (observers != null) {
-                      for (final ModelObserver observer : observers) {
-                        observer.modelUpdated((BranchGroup)cloneNode(loadedModel));
-                      }
-                    }
-                  }
-                });
-            } catch (final IOException ex) {
-              EventQueue.invokeLater(new Runnable() {
-                  public void run() {
-                    List<ModelObserver> observers = ModelManager.this.loadingModelObservers.remove(content);
-                    if (observers != null) {
-                      for (final ModelObserver observer : observers) {
-                        observer.modelError(ex);
-                      }
-                    }
-                  }
-                });
-            }
+      // Notify observer in Event Dispatch Thread once content model is loaded
+      loadedModel.getModel().whenComplete((model, ex) -> EventQueue.invokeLater(() -> {
+          if (ex == null) {
+            modelObserver.modelUpdated((BranchGroup)cloneNode(model));
+          } else {
+            modelObserver.modelError(getLoadingException(ex));
           }
-        });
-      }
+        }));
+    }
+  }
+
+  /**
+   * Loads the model of the given <code>content</code> and completes the future model
+   * of <code>loadedModel</code> with it. If loading fails, <code>loadedModel</code> is
+   * removed from loaded models to let a next call try again.
+   */
+  private void loadModel(Content content, LoadedModel loadedModel) {
+    try {
+      loadedModel.getModel().complete(loadModel(content));
+    } catch (IOException | RuntimeException | Error ex) {
+      this.loadedModels.remove(new ContentKey(content), loadedModel);
+      loadedModel.getModel().completeExceptionally(ex);
+    }
+  }
+
+  /**
+   * Returns the exception that made fail the loading of a model,
+   * or throws it if it's not a checked exception.
+   */
+  private Exception getLoadingException(Throwable ex) {
+    if (ex instanceof CompletionException
+        && ex.getCause() != null) {
+      ex = ex.getCause();
+    }
+    if (ex instanceof RuntimeException) {
+      throw (RuntimeException)ex;
+    } else if (ex instanceof Error) {
+      throw (Error)ex;
+    } else {
+      return (Exception)ex;
+    }
+  }
+
+  /**
+   * Removes from loaded models the ones of contents that were garbage collected.
+   */
+  private void purgeLoadedModels() {
+    for (Object key; (key = this.collectedContents.poll()) != null; ) {
+      this.loadedModels.remove(key);
     }
   }
 
@@ -809,66 +871,66 @@ public class ModelManager {
    * Returns a clone of the given <code>node</code>.
    * All the children and the attributes of the given node are duplicated except the geometries
    * and the texture images of shapes.
+   * This method is thread safe and doesn't lock other threads when the given node and its children
+   * aren't live.
    */
   public Node cloneNode(Node node) {
-    // Clone node in a synchronized block because cloneNodeComponent is not thread safe
-    synchronized (this.loadedModelNodes) {
-      return cloneNode(node, new HashMap<SharedGroup, SharedGroup>());
-    }
+    return cloneNode(node, new HashMap<SharedGroup, SharedGroup>());
   }
 
   private Node cloneNode(Node node, Map<SharedGroup, SharedGroup> clonedSharedGroups) {
     if (node instanceof Shape3D) {
       Shape3D shape = (Shape3D)node;
-      Shape3D clonedShape = (Shape3D)shape.cloneNode(false);
-      Appearance appearance = shape.getAppearance();
-      if (appearance != null) {
-        // Duplicate node's appearance except its texture
-        Appearance clonedAppearance = (Appearance)appearance.cloneNodeComponent(false);
-        Material material = appearance.getMaterial();
-        if (material != null) {
-          clonedAppearance.setMaterial((Material)material.cloneNodeComponent(true));
-        }
-        ColoringAttributes coloringAttributes = appearance.getColoringAttributes();
-        if (coloringAttributes != null) {
-          clonedAppearance.setColoringAttributes((ColoringAttributes)coloringAttributes.cloneNodeComponent(true));
-        }
-        TransparencyAttributes transparencyAttributes = appearance.getTransparencyAttributes();
-        if (transparencyAttributes != null) {
-          clonedAppearance.setTransparencyAttributes((TransparencyAttributes)transparencyAttributes.cloneNodeComponent(true));
-        }
-        RenderingAttributes renderingAttributes = appearance.getRenderingAttributes();
-        if (renderingAttributes != null) {
-          clonedAppearance.setRenderingAttributes((RenderingAttributes)renderingAttributes.cloneNodeComponent(true));
-        }
-        PolygonAttributes polygonAttributes = appearance.getPolygonAttributes();
-        if (polygonAttributes != null) {
-          clonedAppearance.setPolygonAttributes((PolygonAttributes)polygonAttributes.cloneNodeComponent(true));
-        }
-        LineAttributes lineAttributes = appearance.getLineAttributes();
-        if (lineAttributes != null) {
-          clonedAppearance.setLineAttributes((LineAttributes)lineAttributes.cloneNodeComponent(true));
-        }
-        PointAttributes pointAttributes = appearance.getPointAttributes();
-        if (pointAttributes != null) {
-          clonedAppearance.setPointAttributes((PointAttributes)pointAttributes.cloneNodeComponent(true));
+      Shape3D clonedShape = null;
+      if (shape.getClass() == Shape3D.class
+          && isCopyable(shape)) {
+        // Create a new shape sharing the geometries of the original one
+        clonedShape = new Shape3D();
+        for (int i = 0, n = shape.numGeometries(); i < n && clonedShape != null; i++) {
+          Geometry geometry = shape.getGeometry(i);
+          if (geometry != null
+              && geometry.getDuplicateOnCloneTree()) {
+            clonedShape = null;
+          } else if (i == 0) {
+            clonedShape.setGeometry(geometry);
+          } else {
+            clonedShape.addGeometry(geometry);
+          }
         }
-        TextureAttributes textureAttributes = appearance.getTextureAttributes();
-        if (textureAttributes != null) {
-          clonedAppearance.setTextureAttributes((TextureAttributes)textureAttributes.cloneNodeComponent(true));
+        if (clonedShape != null) {
+          copyNodeAttributes(shape, clonedShape);
+          clonedShape.setAppearanceOverrideEnable(shape.getAppearanceOverrideEnable());
+          Bounds collisionBounds = shape.getCollisionBounds();
+          if (collisionBounds != null) {
+            clonedShape.setCollisionBounds(collisionBounds);
+          }
         }
-        TexCoordGeneration texCoordGeneration = appearance.getTexCoordGeneration();
-        if (texCoordGeneration != null) {
-          clonedAppearance.setTexCoordGeneration((TexCoordGeneration)texCoordGeneration.cloneNodeComponent(true));
+      }
+      if (clonedShape == null) {
+        synchronized (this.cloningLock) {
+          clonedShape = (Shape3D)shape.cloneNode(false);
         }
-
-        clonedShape.setAppearance(clonedAppearance);
+      }
+      Appearance appearance = shape.getAppearance();
+      if (appearance != null) {
+        // Duplicate node's appearance except its texture
+        clonedShape.setAppearance(cloneAppearance(appearance));
       }
       return clonedShape;
     } else if (node instanceof Link) {
-      Link clonedLink = (Link)node.cloneNode(true);
+      Link link = (Link)node;
+      Link clonedLink;
+      if (link.getClass() == Link.class
+          && isCopyable(link)) {
+        clonedLink = new Link();
+        copyNodeAttributes(link, clonedLink);
+      } else {
+        synchronized (this.cloningLock) {
+          clonedLink = (Link)link.cloneNode(true);
+        }
+      }
       // Force duplication of shared groups too
-      SharedGroup sharedGroup = clonedLink.getSharedGroup();
+      SharedGroup sharedGroup = link.getSharedGroup();
       if (sharedGroup != null) {
         SharedGroup clonedSharedGroup = clonedSharedGroups.get(sharedGroup);
         if (clonedSharedGroup == null) {
@@ -879,7 +941,36 @@ public class ModelManager {
       }
       return clonedLink;
     } else {
-      Node clonedNode = node.cloneNode(true);
+      Node clonedNode = null;
+      if (isCopyable(node)) {
+        Class<?> nodeClass = node.getClass();
+        if (nodeClass == BranchGroup.class) {
+          clonedNode = new BranchGroup();
+        } else if (nodeClass == Group.class) {
+          clonedNode = new Group();
+        } else if (nodeClass == SharedGroup.class) {
+          clonedNode = new SharedGroup();
+        } else if (nodeClass == TransformGroup.class) {
+          Transform3D transform = new Transform3D();
+          ((TransformGroup)node).getTransform(transform);
+          clonedNode = new TransformGroup(transform);
+        }
+      }
+      if (clonedNode != null) {
+        Group group = (Group)node;
+        Group clonedGroup = (Group)clonedNode;
+        copyNodeAttributes(group, clonedGroup);
+        clonedGroup.setAlternateCollisionTarget(group.getAlternateCollisionTarget());
+        Bounds collisionBounds = group.getCollisionBounds();
+        if (collisionBounds != null) {
+          clonedGroup.setCollisionBounds(collisionBounds);
+        }
+      } else {
+        // Let Java 3D clone other nodes
+        synchronized (this.cloningLock) {
+          clonedNode = node.cloneNode(true);
+        }
+      }
       if (node instanceof Group) {
         Group group = (Group)node;
         Group clonedGroup = (Group)clonedNode;
@@ -893,7 +984,254 @@ public class ModelManager {
   }
 
   /**
-   * Returns the node loaded synchronously from <code>content</code> with supported loaders.
+   * Returns a copy of the given <code>appearance</code> sharing its texture
+   * but with duplicated attributes.
+   */
+  private Appearance cloneAppearance(Appearance appearance) {
+    Appearance clonedAppearance;
+    Texture texture = appearance.getTexture();
+    if (appearance.getClass() == Appearance.class
+        && isCopyable(appearance)
+        && (texture == null || !texture.getDuplicateOnCloneTree())
+        && appearance.getTextureUnitCount() == 0) {
+      clonedAppearance = new Appearance();
+      copyNodeComponentAttributes(appearance, clonedAppearance);
+      clonedAppearance.setTexture(texture);
+    } else {
+      synchronized (this.cloningLock) {
+        clonedAppearance = (Appearance)appearance.cloneNodeComponent(false);
+      }
+    }
+    Material material = appearance.getMaterial();
+    if (material != null) {
+      clonedAppearance.setMaterial((Material)cloneNodeComponent(material));
+    }
+    ColoringAttributes coloringAttributes = appearance.getColoringAttributes();
+    if (coloringAttributes != null) {
+      clonedAppearance.setColoringAttributes((ColoringAttributes)cloneNodeComponent(coloringAttributes));
+    }
+    TransparencyAttributes transparencyAttributes = appearance.getTransparencyAttributes();
+    if (transparencyAttributes != null) {
+      clonedAppearance.setTransparencyAttributes((TransparencyAttributes)cloneNodeComponent(transparencyAttributes));
+    }
+    RenderingAttributes renderingAttributes = appearance.getRenderingAttributes();
+    if (renderingAttributes != null) {
+      clonedAppearance.setRenderingAttributes((RenderingAttributes)cloneNodeComponent(renderingAttributes));
+    }
+    PolygonAttributes polygonAttributes = appearance.getPolygonAttributes();
+    if (polygonAttributes != null) {
+      clonedAppearance.setPolygonAttributes((PolygonAttributes)cloneNodeComponent(polygonAttributes));
+    }
+    LineAttributes lineAttributes = appearance.getLineAttributes();
+    if (lineAttributes != null) {
+      clonedAppearance.setLineAttributes((LineAttributes)cloneNodeComponent(lineAttributes));
+    }
+    PointAttributes pointAttributes = appearance.getPointAttributes();
+    if (pointAttributes != null) {
+      clonedAppearance.setPointAttributes((PointAttributes)cloneNodeComponent(pointAttributes));
+    }
+    TextureAttributes textureAttributes = appearance.getTextureAttributes();
+    if (textureAttributes != null) {
+      clonedAppearance.setTextureAttributes((TextureAttributes)cloneNodeComponent(textureAttributes));
+    }
+    TexCoordGeneration texCoordGeneration = appearance.getTexCoordGeneration();
+    if (texCoordGeneration != null) {
+      clonedAppearance.setTexCoordGeneration((TexCoordGeneration)cloneNodeComponent(texCoordGeneration));
+    }
+    return clonedAppearance;
+  }
+
+  /**
+   * Returns a duplicated copy of the given appearance <code>component</code>.
+   * The copy is built from the values read in <code>component</code> without modifying it,
+   * contrary to <code>NodeComponent#cloneNodeComponent</code> method which changes
+   * the state of the cloned component and is called only in a synchronized block.
+   */
+  private NodeComponent cloneNodeComponent(NodeComponent component) {
+    NodeComponent clonedComponent = null;
+    if (isCopyable(component)) {
+      Class<?> componentClass = component.getClass();
+      if (componentClass == Material.class
+          || componentClass == OBJMaterial.class) {
+        Material material = (Material)component;
+        Material clonedMaterial;
+        if (componentClass == OBJMaterial.class) {
+          OBJMaterial objMaterial = (OBJMaterial)material;
+          OBJMaterial clonedObjMaterial = new OBJMaterial();
+          if (objMaterial.isOpticalDensitySet()) {
+            clonedObjMaterial.setOpticalDensity(objMaterial.getOpticalDensity());
+          }
+          if (objMaterial.isIlluminationModelSet()) {
+            clonedObjMaterial.setIlluminationModel(objMaterial.getIlluminationModel());
+          }
+          if (objMaterial.isSharpnessSet()) {
+            clonedObjMaterial.setSharpness(objMaterial.getSharpness());
+          }
+          clonedMaterial = clonedObjMaterial;
+        } else {
+          clonedMaterial = new Material();
+        }
+        Color3f color = new Color3f();
+        material.getAmbientColor(color);
+        clonedMaterial.setAmbientColor(color);
+        material.getEmissiveColor(color);
+        clonedMaterial.setEmissiveColor(color);
+        material.getDiffuseColor(color);
+        clonedMaterial.setDiffuseColor(color);
+        material.getSpecularColor(color);
+        clonedMaterial.setSpecularColor(color);
+        clonedMaterial.setShininess(material.getShininess());
+        clonedMaterial.setLightingEnable(material.getLightingEnable());
+        clonedMaterial.setColorTarget(material.getColorTarget());
+        clonedComponent = clonedMaterial;
+      } else if (componentClass == ColoringAttributes.class) {
+        ColoringAttributes coloringAttributes = (ColoringAttributes)component;
+        Color3f color = new Color3f();
+        coloringAttributes.getColor(color);
+        clonedComponent = new ColoringAttributes(color, coloringAttributes.getShadeModel());
+      } else if (componentClass == TransparencyAttributes.class) {
+        TransparencyAttributes transparencyAttributes = (TransparencyAttributes)component;
+        clonedComponent = new TransparencyAttributes(transparencyAttributes.getTransparencyMode(),
+            transparencyAttributes.getTransparency(), transparencyAttributes.getSrcBlendFunction(),
+            transparencyAttributes.getDstBlendFunction());
+      } else if (componentClass == RenderingAttributes.class) {
+        RenderingAttributes renderingAttributes = (RenderingAttributes)component;
+        RenderingAttributes clonedRenderingAttributes = new RenderingAttributes(
+            renderingAttributes.getDepthBufferEnable(), renderingAttributes.getDepthBufferWriteEnable(),
+            renderingAttributes.getAlphaTestValue(), renderingAttributes.getAlphaTestFunction(),
+            renderingAttributes.getVisible(), renderingAttributes.getIgnoreVertexColors(),
+            renderingAttributes.getRasterOpEnable(), renderingAttributes.getRasterOp());
+        clonedRenderingAttributes.setDepthTestFunction(renderingAttributes.getDepthTestFunction());
+        clonedRenderingAttributes.setStencilEnable(renderingAttributes.getStencilEnable());
+        int [] stencilValues = new int [3];
+        renderingAttributes.getStencilOp(stencilValues);
+        clonedRenderingAttributes.setStencilOp(stencilValues);
+        renderingAttributes.getStencilFunction(stencilValues);
+        clonedRenderingAttributes.setStencilFunction(stencilValues);
+        clonedRenderingAttributes.setStencilWriteMask(renderingAttributes.getStencilWriteMask());
+        clonedComponent = clonedRenderingAttributes;
+      } else if (componentClass == PolygonAttributes.class) {
+        PolygonAttributes polygonAttributes = (PolygonAttributes)component;
+        clonedComponent = new PolygonAttributes(polygonAttributes.getPolygonMode(),
+            polygonAttributes.getCullFace(), polygonAttributes.getPolygonOffset(),
+            polygonAttributes.getBackFaceNormalFlip(), polygonAttributes.getPolygonOffsetFactor());
+      } else if (componentClass == LineAttributes.class) {
+        LineAttributes lineAttributes = (LineAttributes)component;
+        LineAttributes clonedLineAttributes = new LineAttributes();
+        clonedLineAttributes.setLineWidth(lineAttributes.getLineWidth());
+        clonedLineAttributes.setLinePattern(lineAttributes.getLinePattern());
+        clonedLineAttributes.setLineAntialiasingEnable(lineAttributes.getLineAntialiasingEnable());
+        clonedLineAttributes.setPatternMask(lineAttributes.getPatternMask());
+        clonedLineAttributes.setPatternScaleFactor(lineAttributes.getPatternScaleFactor());
+        clonedComponent = clonedLineAttributes;
+      } else if (componentClass == PointAttributes.class) {
+        PointAttributes pointAttributes = (PointAttributes)component;
+        clonedComponent = new PointAttributes(pointAttributes.getPointSize(),
+            pointAttributes.getPointAntialiasingEnable());
+      } else if (componentClass == TextureAttributes.class) {
+        TextureAttributes textureAttributes = (TextureAttributes)component;
+        // Let Java 3D clone texture attributes using combine mode or a color table
+        if (textureAttributes.getTextureMode() != TextureAttributes.COMBINE
+            && textureAttributes.getTextureColorTableSize() == 0) {
+          Transform3D textureTransform = new Transform3D();
+          textureAttributes.getTextureTransform(textureTransform);
+          Color4f blendColor = new Color4f();
+          textureAttributes.getTextureBlendColor(blendColor);
+          clonedComponent = new TextureAttributes(textureAttributes.getTextureMode(),
+              textureTransform, blendColor, textureAttributes.getPerspectiveCorrectionMode());
+        }
+      } else if (componentClass == TexCoordGeneration.class) {
+        TexCoordGeneration texCoordGeneration = (TexCoordGeneration)component;
+        Vector4f planeS = new Vector4f();
+        texCoordGeneration.getPlaneS(planeS);
+        Vector4f planeT = new Vector4f();
+        texCoordGeneration.getPlaneT(planeT);
+        Vector4f planeR = new Vector4f();
+        texCoordGeneration.getPlaneR(planeR);
+        Vector4f planeQ = new Vector4f();
+        texCoordGeneration.getPlaneQ(planeQ);
+        TexCoordGeneration clonedTexCoordGeneration = new TexCoordGeneration(texCoordGeneration.getGenMode(),
+            texCoordGeneration.getFormat(), planeS, planeT, planeR, planeQ);
+        clonedTexCoordGeneration.setEnable(texCoordGeneration.getEnable());
+        clonedComponent = clonedTexCoordGeneration;
+      }
+    }
+
+    if (clonedComponent != null) {
+      copyNodeComponentAttributes(component, clonedComponent);
+      return clonedComponent;
+    } else {
+      synchronized (this.cloningLock) {
+        return component.cloneNodeComponent(true);
+      }
+    }
+  }
+
+  /**
+   * Returns <code>true</code> if the given scene graph object can be copied
+   * with its getters, i.e. if it's neither live nor compiled.
+   */
+  private boolean isCopyable(SceneGraphObject object) {
+    return !object.isLive()
+        && !object.isCompiled();
+  }
+
+  /**
+   * Copies the attributes of <code>node</code> managed by <code>Node</code> class to <code>clonedNode</code>.
+   */
+  private void copyNodeAttributes(Node node, Node clonedNode) {
+    copySceneGraphObjectAttributes(node, clonedNode);
+    clonedNode.setPickable(node.getPickable());
+    clonedNode.setCollidable(node.getCollidable());
+    if (!node.getBoundsAutoCompute()) {
+      clonedNode.setBoundsAutoCompute(false);
+      clonedNode.setBounds(node.getBounds());
+    }
+  }
+
+  /**
+   * Copies the attributes of <code>component</code> managed by <code>NodeComponent</code> class
+   * to <code>clonedComponent</code>.
+   */
+  private void copyNodeComponentAttributes(NodeComponent component, NodeComponent clonedComponent) {
+    copySceneGraphObjectAttributes(component, clonedComponent);
+    clonedComponent.setDuplicateOnCloneTree(component.getDuplicateOnCloneTree());
+  }
+
+  /**
+   * Copies the capabilities, the name and the user data of <code>object</code> to <code>clonedObject</code>.
+   */
+  private void copySceneGraphObjectAttributes(SceneGraphObject object, SceneGraphObject clonedObject) {
+    for (int bit = 0; bit < 64; bit++) {
+      if (object.getCapability(bit)) {
+        clonedObject.setCapability(bit);
+      }
+      if (!object.getCapabilityIsFrequent(bit)) {
+        clonedObject.clearCapabilityIsFrequent(bit);
+      }
+    }
+    clonedObject.setName(object.getName());
+    clonedObject.setUserData(object.getUserData());
+  }
+
+  /**
+   * Sets the persistent cache where loaded models are stored and searched
+   * before being parsed by loaders, or <code>null</code> to disable it.
+   */
+  public void setModelCache(ModelCache modelCache) {
+    this.modelCache = modelCache;
+  }
+
+  /**
+   * Returns the persistent cache of loaded models or <code>null</code> if it's not used.
+   */
+  public ModelCache getModelCache() {
+    return this.modelCache;
+  }
+
+  /**
+   * Returns the node loaded synchronously from <code>content</code> with supported loaders,
+   * or rebuilt from model cache if it's available.
    * This method is threadsafe and may be called from any thread.
    * @param content an object containing a model
    */
@@ -905,27 +1243,42 @@ public class ModelManager {
     } else {
       urlContent = TemporaryURLContent.copyToTemporaryURLContent(content);
     }
-    Loader []  defaultLoaders = new Loader [] {new OBJLoader(),
-                                               new DAELoader(),
-                                               new Max3DSLoader(),
-                                               new Lw3dLoader()};
-    Loader [] loaders = new Loader [defaultLoaders.length + this.additionalLoaderClasses.length];
-    System.arraycopy(defaultLoaders, 0, loaders, 0, defaultLoaders.length);
-    for (int i = 0; i < this.additionalLoaderClasses.length; i++) {
-      try {
-        loaders [defaultLoaders.length + i] = this.additionalLoaderClasses [i].newInstance();
-      } catch (InstantiationException ex) {
-        // Can't happen: getLoaderClass checked this class is instantiable
-        throw new InternalError(ex.getMessage());
-      } catch (IllegalAccessException ex) {
-        // Can't happen: getLoaderClass checked this class is instantiable
-        throw new InternalError(ex.getMessage());
+    ModelCache modelCache = this.modelCache;
+    if (modelCache != null) {
+      BranchGroup modelNode = modelCache.getModel(urlContent);
+      if (modelNode != null) {
+        // Share textures of the model already post-processed before being cached
+        turnOffLightsShareAndModulateTextures(modelNode, new IdentityHashMap<Texture, Texture>());
+        modelNode.setUserData(content);
+        return modelNode;
+      }
+    }
+    Boolean useCaches = shouldUseCaches(urlContent);
+    // Try first the loader matching the format detected in content,
+    // and the other default loaders only if the format couldn't be detected
+    List<Integer> loaderIndices = new ArrayList<Integer>();
+    int detectedFormat = detectModelFormat(urlContent, useCaches);
+    if (detectedFormat >= 0) {
+      loaderIndices.add(detectedFormat);
+    } else {
+      int hintedFormat = getModelFormatFromName(urlContent);
+      if (hintedFormat >= 0) {
+        loaderIndices.add(hintedFormat);
+      }
+      for (int i = 0; i < DEFAULT_LOADER_FORMATS.length; i++) {
+        if (i != hintedFormat) {
+          loaderIndices.add(i);
+        }
       }
     }
+    for (int i = 0; i < this.additionalLoaderClasses.length; i++) {
+      loaderIndices.add(DEFAULT_LOADER_FORMATS.length + i);
+    }
 
     Exception lastException = null;
-    Boolean useCaches = shouldUseCaches(urlContent);
-    for (Loader loader : loaders) {
+    for (int loaderIndex : loaderIndices) {
+      Loader loader = getLoader(loaderIndex);
+      LoadingStatistics statistics = getLoadingStatistics(loaderIndex);
       boolean loadSynchronously = false;
       try {
         // Call setUseCaches(Boolean) by reflection
@@ -952,23 +1305,12 @@ public class ModelManager {
             & ~(Loader.LOAD_LIGHT_NODES | Loader.LOAD_FOG_NODES
                 | Loader.LOAD_BACKGROUND_NODES | Loader.LOAD_VIEW_GROUPS));
         // Return the first scene that can be loaded from model URL content
-        Scene scene;
-        if (loadSynchronously) {
-          synchronized (this) {
-            URLConnection connection = urlContent.getURL().openConnection();
-            try {
-              connection.setDefaultUseCaches(useCaches);
-              scene = loader.load(urlContent.getURL());
-            } finally {
-              if (connection.getDefaultUseCaches() == useCaches) {
-                // Restore the default global value only when it didn't change yet,
-                // in case an other thread not synchronized on the same lock changed it
-                connection.setDefaultUseCaches(!useCaches);
-              }
-            }
-          }
-        } else {
-          scene = loader.load(urlContent.getURL());
+        Scene scene = null;
+        long loadStart = System.nanoTime();
+        try {
+          scene = loadScene(loader, urlContent, loadSynchronously, useCaches);
+        } finally {
+          statistics.addLoad(scene != null, System.nanoTime() - loadStart);
         }
 
         BranchGroup modelNode = scene.getSceneGroup();
@@ -983,6 +1325,9 @@ public class ModelManager {
         turnOffLightsShareAndModulateTextures(modelNode, new IdentityHashMap<Texture, Texture>());
         updateDeformableModelHierarchy(modelNode);
         checkAppearancesName(modelNode);
+        if (modelCache != null) {
+          modelCache.putModel(urlContent, modelNode);
+        }
         modelNode.setUserData(content);
         return modelNode;
       } catch (IllegalArgumentException ex) {
@@ -1021,6 +1366,157 @@ public class ModelManager {
     }
   }
 
+  /**
+   * Returns the scene read by <code>loader</code> from the given content.
+   */
+  private Scene loadScene(Loader loader, URLContent urlContent,
+                          boolean loadSynchronously, Boolean useCaches) throws IOException {
+    if (loadSynchronously) {
+      synchronized (this) {
+        URLConnection connection = urlContent.getURL().openConnection();
+        try {
+          connection.setDefaultUseCaches(useCaches);
+          return loader.load(urlContent.getURL());
+        } finally {
+          if (connection.getDefaultUseCaches() == useCaches) {
+            // Restore the default global value only when it didn't change yet,
+            // in case an other thread not synchronized on the same lock changed it
+            connection.setDefaultUseCaches(!useCaches);
+          }
+        }
+      }
+    } else {
+      return loader.load(urlContent.getURL());
+    }
+  }
+
+  /**
+   * Returns a loader able to read the format at the given index, either from the loaders
+   * reused by current thread for default formats, or a new instance otherwise.
+   */
+  private Loader getLoader(int loaderIndex) {
+    if (loaderIndex < REUSABLE_LOADERS_COUNT) {
+      return this.reusableLoaders.get() [loaderIndex];
+    } else if (loaderIndex < DEFAULT_LOADER_FORMATS.length) {
+      return new Lw3dLoader();
+    } else {
+      try {
+        return this.additionalLoaderClasses [loaderIndex - DEFAULT_LOADER_FORMATS.length].newInstance();
+      } catch (InstantiationException ex) {
+        // Can't happen: getLoaderClass checked this class is instantiable
+        throw new InternalError(ex.getMessage());
+      } catch (IllegalAccessException ex) {
+        // Can't happen: getLoaderClass checked this class is instantiable
+        throw new InternalError(ex.getMessage());
+      }
+    }
+  }
+
+  /**
+   * Returns the statistics of the loader at the given index.
+   */
+  private LoadingStatistics getLoadingStatistics(int loaderIndex) {
+    String format = loaderIndex < DEFAULT_LOADER_FORMATS.length
+        ? DEFAULT_LOADER_FORMATS [loaderIndex]
+        : this.additionalLoaderClasses [loaderIndex - DEFAULT_LOADER_FORMATS.length].getName();
+    return this.loadingStatistics.computeIfAbsent(format, LoadingStatistics::new);
+  }
+
+  /**
+   * Returns the loading statistics of each model format, sorted by format name.
+   * Formats of additional loaders are identified by the name of their class.
+   */
+  public List<LoadingStatistics> getLoadingStatistics() {
+    List<LoadingStatistics> statistics = new ArrayList<LoadingStatistics>(this.loadingStatistics.values());
+    Collections.sort(statistics, Comparator.comparing(LoadingStatistics::getFormat));
+    return statistics;
+  }
+
+  /**
+   * Returns the index of the default loader able to read the given content
+   * from its first bytes, or -1 if its format can't be detected surely.
+   */
+  private int detectModelFormat(URLContent urlContent, Boolean useCaches) {
+    byte [] header = new byte [FORMAT_DETECTION_LENGTH];
+    int length = 0;
+    try {
+      URLConnection connection = urlContent.getURL().openConnection();
+      connection.setUseCaches(useCaches);
+      try (InputStream in = connection.getInputStream()) {
+        for (int count; length < header.length
+             && (count = in.read(header, length, header.length - length)) != -1; ) {
+          length += count;
+        }
+      }
+    } catch (IOException ex) {
+      // Let loaders report the error
+      return -1;
+    }
+
+    if (length >= 6) {
+      int chunkId = (header [0] & 0xFF) | (header [1] & 0xFF) << 8;
+      if (chunkId == 0x4D4D || chunkId == 0x3DAA || chunkId == 0xC23D) {
+        // 3DS main chunk identifiers followed by their size
+        return MAX_3DS_FORMAT;
+      } else if (header [0] == 'L' && header [1] == 'W' && header [2] == 'S' && header [3] == 'C') {
+        return LWS_FORMAT;
+      }
+    }
+    int i = 0;
+    if (length >= 3
+        && (header [0] & 0xFF) == 0xEF && (header [1] & 0xFF) == 0xBB && (header [2] & 0xFF) == 0xBF) {
+      // Skip UTF-8 byte order mark
+      i = 3;
+    }
+    // Search the first character that isn't a space or in a comment
+    for (boolean comment = false; i < length; i++) {
+      byte b = header [i];
+      if (b == '\n' || b == '\r') {
+        comment = false;
+      } else if (b >= 0 && b < ' ' && b != '\t') {
+        // Not a text file
+        return -1;
+      } else if (!comment && b == '#') {
+        comment = true;
+      } else if (!comment && b != ' ' && b != '\t') {
+        break;
+      }
+    }
+    if (i < length) {
+      if (header [i] == '<') {
+        // Only DAE loader reads XML files
+        return DAE_FORMAT;
+      }
+      int keywordEnd = i;
+      while (keywordEnd < length
+          && (header [keywordEnd] & 0xFF) > ' ') {
+        keywordEnd++;
+      }
+      if (keywordEnd < length
+          && OBJ_KEYWORDS.contains(new String(header, i, keywordEnd - i, StandardCharsets.ISO_8859_1))) {
+        return OBJ_FORMAT;
+      }
+    }
+    return -1;
+  }
+
+  /**
+   * Returns the index of the default loader matching the extension of the given content,
+   * or -1 if it's unknown.
+   */
+  private int getModelFormatFromName(URLContent urlContent) {
+    String name = urlContent.isJAREntry()
+        ? urlContent.getJAREntryName()
+        : urlContent.getURL().getPath();
+    name = name.toLowerCase(Locale.ENGLISH);
+    for (int i = 0; i < DEFAULT_LOADER_FORMATS.length; i++) {
+      if (name.endsWith("." + DEFAULT_LOADER_FORMATS [i].toLowerCase(Locale.ENGLISH))) {
+        return i;
+      }
+    }
+    return -1;
+  }
+
   /**
    * Returns <code>true</code> if reading from the given content should be done using caches.
    */
@@ -2188,6 +2684,129 @@ public class ModelManager {
     }
   }
 
+  /**
+   * The count of models read by the loader of a format and the time spent to read them.
+   */
+  public static class LoadingStatistics {
+    private final String     format;
+    private final LongAdder  loadCount   = new LongAdder();
+    private final LongAdder  failureCount = new LongAdder();
+    private final LongAdder  loadTime    = new LongAdder();
+
+    private LoadingStatistics(String format) {
+      this.format = format;
+    }
+
+    private void addLoad(boolean successful, long time) {
+      this.loadCount.increment();
+      if (!successful) {
+        this.failureCount.increment();
+      }
+      this.loadTime.add(time);
+    }
+
+    /**
+     * Returns the format read by the loader.
+     */
+    public String getFormat() {
+      return this.format;
+    }
+
+    /**
+     * Returns the count of contents read by the loader, including the failed ones.
+     */
+    public long getLoadCount() {
+      return this.loadCount.sum();
+    }
+
+    /**
+     * Returns the count of contents the loader failed to read.
+     */
+    public long getFailureCount() {
+      return this.failureCount.sum();
+    }
+
+    /**
+     * Returns the total time in nanoseconds spent by the loader to read contents.
+     */
+    public long getLoadTime() {
+      return this.loadTime.sum();
+    }
+
+    @Override
+    public String toString() {
+      return this.format + " [loads " + getLoadCount() + ", failures " + getFailureCount()
+          + ", time " + getLoadTime() / 1000000 + " ms]";
+    }
+  }
+
+  /**
+   * The key of a loaded model which doesn't prevent its content from being garbage collected.
+   */
+  private static class ContentKey extends WeakReference<Content> {
+    private final int hashCode;
+
+    public ContentKey(Content content) {
+      this(content, null);
+    }
+
+    public ContentKey(Content content, ReferenceQueue<Content> queue) {
+      super(content, queue);
+      this.hashCode = content.hashCode();
+    }
+
+    @Override
+    public int hashCode() {
+      return this.hashCode;
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+      if (obj == this) {
+        return true;
+      } else if (obj instanceof ContentKey) {
+        Content content = get();
+        return content != null
+            && content.equals(((ContentKey)obj).get());
+      } else {
+        return false;
+      }
+    }
+  }
+
+  /**
+   * A model loaded or being loaded, shared by all the threads requesting it,
+   * with the bounds computed for its transformed nodes.
+   */
+  private static class LoadedModel {
+    private final CompletableFuture<BranchGroup>  model;
+    private final Map<Transform3D, BoundingBox>   transformedBounds;
+
+    public LoadedModel() {
+      this.model = new CompletableFuture<BranchGroup>();
+      this.transformedBounds = new ConcurrentHashMap<Transform3D, BoundingBox>();
+    }
+
+    /**
+     * Returns the future root of the model, never modified once completed.
+     */
+    public CompletableFuture<BranchGroup> getModel() {
+      return this.model;
+    }
+
+    /**
+     * Returns <code>true</code> if the model was successfully loaded.
+     */
+    public boolean isLoaded() {
+      return this.model.isDone()
+          && !this.model.isCompletedExceptionally();
+    }
+
+    public Map<Transform3D, BoundingBox> getTransformedBounds() {
+      return this.transformedBounds;
+    }
+  }
+
   /**
    * An observer that receives model loading notifications.
    */
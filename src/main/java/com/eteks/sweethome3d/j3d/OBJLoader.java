@@ -30,11 +30,12 @@ import java.io.InputStreamReader;
 import java.io.Reader;
 import java.io.StreamTokenizer;
 import java.io.StringReader;
-import java.io.UnsupportedEncodingException;
 import java.net.MalformedURLException;
 import java.net.URL;
 import java.net.URLConnection;
+import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.ConcurrentModificationException;
 import java.util.HashMap;
 import java.util.LinkedHashMap;
@@ -996,9 +997,12 @@ public class OBJLoader extends LoaderBase implements Loader {
   }
 
   private Boolean                 useCaches;
-  private List<Point3f>           vertices;
-  private List<TexCoord2f>        textureCoordinates;
-  private List<Vector3f>          normals;
+  private FloatArray              vertices;
+  private FloatArray              textureCoordinates;
+  private FloatArray              normals;
+  private IntArray                vertexIndices;
+  private IntArray                textureCoordinateIndices;
+  private IntArray                normalIndices;
   private Map<String, Group>      groups;
   private Group                   currentGroup;
   private String                  currentMaterial;
@@ -1030,12 +1034,7 @@ public class OBJLoader extends LoaderBase implements Loader {
     } catch (MalformedURLException ex) {
       throw new FileNotFoundException(file);
     }
-    try {
-      return load(new InputStreamReader(new FileInputStream(file), "ISO-8859-1"), baseUrl);
-    } catch (UnsupportedEncodingException ex) {
-      // Shouldn't happen
-      return load(new InputStreamReader(new FileInputStream(file)));
-    }
+    return load(new FileInputStream(file), baseUrl);
   }
 
   /**
@@ -1052,12 +1051,7 @@ public class OBJLoader extends LoaderBase implements Loader {
     } catch (IOException ex) {
       throw new FileNotFoundException("Can't read " + url);
     }
-    try {
-      return load(new InputStreamReader(in, "ISO-8859-1"), baseUrl);
-    } catch (UnsupportedEncodingException ex) {
-      // Shouldn't happen
-      return load(new InputStreamReader(in));
-    }
+    return load(in, baseUrl);
   }
 
   /**
@@ -1086,10 +1080,12 @@ public class OBJLoader extends LoaderBase implements Loader {
       reader = new BufferedReader(reader);
     }
     try {
-      return parseObjectStream(reader, baseUrl);
+      parseObjectStream(reader, baseUrl);
+      return createScene();
     } catch (IOException ex) {
       throw new ParsingErrorException(ex.getMessage());
     } finally {
+      clearParsedObjects();
       try {
         reader.close();
       } catch (IOException ex) {
@@ -1099,19 +1095,63 @@ public class OBJLoader extends LoaderBase implements Loader {
   }
 
   /**
-   * Returns the scene parsed from a stream.
+   * Returns the scene described in the given OBJ input stream.
    */
-  private Scene parseObjectStream(Reader reader,
-                                  URL baseUrl) throws IOException {
-    this.vertices = new ArrayList<Point3f>();
-    this.textureCoordinates = new ArrayList<TexCoord2f>();
-    this.normals = new ArrayList<Vector3f>();
+  private Scene load(InputStream in, URL baseUrl) throws FileNotFoundException {
+    try {
+      parseObjectStream(in, baseUrl);
+      return createScene();
+    } catch (IOException ex) {
+      throw new ParsingErrorException(ex.getMessage());
+    } finally {
+      clearParsedObjects();
+      try {
+        in.close();
+      } catch (IOException ex) {
+        throw new ParsingErrorException(ex.getMessage());
+      }
+    }
+  }
+
+  /**
+   * Initializes the objects filled during parsing.
+   */
+  private void initParsedObjects() {
+    this.vertices = new FloatArray(3);
+    this.textureCoordinates = new FloatArray(2);
+    this.normals = new FloatArray(3);
+    this.vertexIndices = new IntArray();
+    this.textureCoordinateIndices = new IntArray();
+    this.normalIndices = new IntArray();
     this.groups = new LinkedHashMap<String, Group>();
     this.currentGroup = new Group("default");
     this.groups.put("default", this.currentGroup);
     this.currentMaterial = "default";
+    this.currentSmooth = false;
     this.appearances = new HashMap<String, Appearance>(DEFAULT_APPEARANCES);
+  }
+
+  /**
+   * Releases the objects filled during parsing.
+   */
+  private void clearParsedObjects() {
+    this.vertices = null;
+    this.textureCoordinates = null;
+    this.normals = null;
+    this.vertexIndices = null;
+    this.textureCoordinateIndices = null;
+    this.normalIndices = null;
+    this.groups = null;
+    this.currentGroup = null;
+    this.appearances = null;
+  }
 
+  /**
+   * Parses the objects described in a character stream.
+   */
+  private void parseObjectStream(Reader reader,
+                                 URL baseUrl) throws IOException {
+    initParsedObjects();
     StreamTokenizer tokenizer = createTokenizer(reader);
     while (tokenizer.nextToken() != StreamTokenizer.TT_EOF) {
       switch (tokenizer.ttype) {
@@ -1125,15 +1165,19 @@ public class OBJLoader extends LoaderBase implements Loader {
               + " at row " + tokenizer.lineno());
       }
     }
+  }
 
-    try {
-      return createScene();
-    } finally {
-      this.vertices = null;
-      this.textureCoordinates = null;
-      this.normals = null;
-      this.groups = null;
-      this.appearances = null;
+  /**
+   * Parses the objects described in a byte stream encoded in ISO-8859-1.
+   * Contrary to the tokenizer used for character streams, numbers are read
+   * directly from the bytes of each line without creating any string.
+   */
+  private void parseObjectStream(InputStream in,
+                                 URL baseUrl) throws IOException {
+    initParsedObjects();
+    LineReader reader = new LineReader(in);
+    while (reader.nextLine()) {
+      parseObjectLine(reader, baseUrl);
     }
   }
 
@@ -1141,10 +1185,21 @@ public class OBJLoader extends LoaderBase implements Loader {
    * Returns a new scene created from the parsed objects.
    */
   private SceneBase createScene() {
-    Point3f [] vertices = this.vertices.toArray(new Point3f [this.vertices.size()]);
-    TexCoord2f [] textureCoordinates =
-        this.textureCoordinates.toArray(new TexCoord2f [this.textureCoordinates.size()]);
-    Vector3f [] normals = this.normals.toArray(new Vector3f [this.normals.size()]);
+    float [] vertexCoordinates = this.vertices.getValues();
+    Point3f [] vertices = new Point3f [this.vertices.size()];
+    for (int i = 0, j = 0; i < vertices.length; i++, j += 3) {
+      vertices [i] = new Point3f(vertexCoordinates [j], vertexCoordinates [j + 1], vertexCoordinates [j + 2]);
+    }
+    float [] textureCoordinateValues = this.textureCoordinates.getValues();
+    TexCoord2f [] textureCoordinates = new TexCoord2f [this.textureCoordinates.size()];
+    for (int i = 0, j = 0; i < textureCoordinates.length; i++, j += 2) {
+      textureCoordinates [i] = new TexCoord2f(textureCoordinateValues [j], textureCoordinateValues [j + 1]);
+    }
+    float [] normalCoordinates = this.normals.getValues();
+    Vector3f [] normals = new Vector3f [this.normals.size()];
+    for (int i = 0, j = 0; i < normals.length; i++, j += 3) {
+      normals [i] = new Vector3f(normalCoordinates [j], normalCoordinates [j + 1], normalCoordinates [j + 2]);
+    }
 
     SceneBase scene = new SceneBase();
     BranchGroup sceneRoot = new BranchGroup();
@@ -1298,7 +1353,7 @@ public class OBJLoader extends LoaderBase implements Loader {
       float y = parseNumber(tokenizer);
       skipBackSlash(tokenizer);
       float z = parseNumber(tokenizer);
-      this.vertices.add(new Point3f(x, y, z));
+      this.vertices.add(x, y, z);
       // Skip next number if it exists
       if (tokenizer.nextToken() == StreamTokenizer.TT_EOL) {
         tokenizer.pushBack();
@@ -1310,14 +1365,14 @@ public class OBJLoader extends LoaderBase implements Loader {
       float y = parseNumber(tokenizer);
       skipBackSlash(tokenizer);
       float z = parseNumber(tokenizer);
-      this.normals.add(new Vector3f(x, y, z));
+      this.normals.add(x, y, z);
     } else if ("vt".equals(tokenizer.sval)) {
       // Read texture coordinate vt x y
       //                       or vt x y z
       float x = parseNumber(tokenizer);
       skipBackSlash(tokenizer);
       float y = parseNumber(tokenizer);
-      this.textureCoordinates.add(new TexCoord2f(x, y));
+      this.textureCoordinates.add(x, y);
       // Skip next number if it exists
       if (tokenizer.nextToken() == StreamTokenizer.TT_EOL) {
         tokenizer.pushBack();
@@ -1326,8 +1381,10 @@ public class OBJLoader extends LoaderBase implements Loader {
       tokenizer.ordinaryChar('/');
       // Read line l v       v       v       ...
       //        or l v/vt    v/vt    v/vt    ...
-      List<Integer> vertexIndices = new ArrayList<Integer>(2);
-      List<Integer> textureCoordinateIndices = new ArrayList<Integer>(2);
+      IntArray vertexIndices = this.vertexIndices;
+      IntArray textureCoordinateIndices = this.textureCoordinateIndices;
+      vertexIndices.clear();
+      textureCoordinateIndices.clear();
       boolean first = true;
       while (true) {
         if (first) {
@@ -1376,9 +1433,12 @@ public class OBJLoader extends LoaderBase implements Loader {
       //        or f v//vn   v//vn   v//vn   ...
       //        or f v/vt    v/vt    v/vt    ...
       //        or f v/vt/vn v/vt/vn v/vt/vn ...
-      List<Integer> vertexIndices = new ArrayList<Integer>(4);
-      List<Integer> textureCoordinateIndices = new ArrayList<Integer>(4);
-      List<Integer> normalIndices = new ArrayList<Integer>(4);
+      IntArray vertexIndices = this.vertexIndices;
+      IntArray textureCoordinateIndices = this.textureCoordinateIndices;
+      IntArray normalIndices = this.normalIndices;
+      vertexIndices.clear();
+      textureCoordinateIndices.clear();
+      normalIndices.clear();
       boolean first = true;
       while (true) {
         if (first) {
@@ -1486,19 +1546,7 @@ public class OBJLoader extends LoaderBase implements Loader {
       int mtllibToken = tokenizer.nextToken();
       tokenizer.whitespaceChars(' ', ' ');
       if (mtllibToken == StreamTokenizer.TT_WORD) {
-        String mtllibString = tokenizer.sval.trim();
-        // First try to parse space separated library files
-        int validLibCount = 0;
-        String [] libs = mtllibString.split(" ");
-        for (String lib : libs) {
-          if (parseMaterial(lib, baseUrl)) {
-            validLibCount++;
-          }
-        }
-        if (libs.length > 1 && validLibCount == 0) {
-          // Even if not in format specifications, give a chance to file names with spaces
-          parseMaterial(mtllibString, baseUrl);
-        }
+        parseMaterialLibraries(tokenizer.sval.trim(), baseUrl);
       } else {
         throw new IncorrectFormatException("Expected material library at line " + tokenizer.lineno());
       }
@@ -1517,6 +1565,213 @@ public class OBJLoader extends LoaderBase implements Loader {
     }
   }
 
+  /**
+   * Parses the line read by the given <code>reader</code>.
+   */
+  private void parseObjectLine(LineReader reader,
+                               URL baseUrl) throws IOException {
+    if (reader.isLineEnd()) {
+      // Ignore empty lines
+      return;
+    } else if (!reader.readWord(false)) {
+      throw new IncorrectFormatException("Unexpected character at line " + reader.getLineNumber());
+    } else if (reader.isWord("v")) {
+      // Read vertex v x y z
+      float x = reader.readNumber();
+      reader.skipBackSlash();
+      float y = reader.readNumber();
+      reader.skipBackSlash();
+      float z = reader.readNumber();
+      this.vertices.add(x, y, z);
+      // Skip next number if it exists
+      reader.readWord(false);
+    } else if (reader.isWord("vn")) {
+      // Read normal vn x y z
+      float x = reader.readNumber();
+      reader.skipBackSlash();
+      float y = reader.readNumber();
+      reader.skipBackSlash();
+      float z = reader.readNumber();
+      this.normals.add(x, y, z);
+    } else if (reader.isWord("vt")) {
+      // Read texture coordinate vt x y
+      //                       or vt x y z
+      float x = reader.readNumber();
+      reader.skipBackSlash();
+      float y = reader.readNumber();
+      this.textureCoordinates.add(x, y);
+      // Skip next number if it exists
+      reader.readWord(false);
+    } else if (reader.isWord("l")) {
+      // Read line l v       v       v       ...
+      //        or l v/vt    v/vt    v/vt    ...
+      IntArray vertexIndices = this.vertexIndices;
+      IntArray textureCoordinateIndices = this.textureCoordinateIndices;
+      vertexIndices.clear();
+      textureCoordinateIndices.clear();
+      for (boolean first = true; ; first = false) {
+        if (!first) {
+          reader.skipBackSlash();
+        }
+        if (reader.isLineEnd()) {
+          break;
+        }
+        // Read vertex index
+        int vertexIndex = reader.readInteger() - 1;
+        if (vertexIndex < 0) {
+          vertexIndex += this.vertices.size() + 1;
+        }
+        vertexIndices.add(vertexIndex);
+
+        if (reader.readSlash()) {
+          // l v/vt : read texture coordinate index
+          int textureCoordinateIndex = reader.readInteger() - 1;
+          if (textureCoordinateIndex < 0) {
+            textureCoordinateIndex += this.textureCoordinates.size() + 1;
+          }
+          textureCoordinateIndices.add(textureCoordinateIndex);
+        }
+      }
+      if (textureCoordinateIndices.size() != 0
+          && textureCoordinateIndices.size() != vertexIndices.size()) {
+        // Ignore unconsistent texture coordinate
+        textureCoordinateIndices.clear();
+      }
+      if (vertexIndices.size() > 1) {
+        this.currentGroup.addGeometry(new Line(vertexIndices, textureCoordinateIndices,
+            this.currentMaterial));
+      }
+    } else if (reader.isWord("f")) {
+      // Read face f v       v       v       ...
+      //        or f v//vn   v//vn   v//vn   ...
+      //        or f v/vt    v/vt    v/vt    ...
+      //        or f v/vt/vn v/vt/vn v/vt/vn ...
+      IntArray vertexIndices = this.vertexIndices;
+      IntArray textureCoordinateIndices = this.textureCoordinateIndices;
+      IntArray normalIndices = this.normalIndices;
+      vertexIndices.clear();
+      textureCoordinateIndices.clear();
+      normalIndices.clear();
+      for (boolean first = true; ; first = false) {
+        if (!first) {
+          reader.skipBackSlash();
+        }
+        if (reader.isLineEnd()) {
+          break;
+        }
+        // Read vertex index
+        int vertexIndex = reader.readInteger() - 1;
+        if (vertexIndex < 0) {
+          vertexIndex += this.vertices.size() + 1;
+        }
+        vertexIndices.add(vertexIndex);
+
+        if (reader.readSlash()) {
+          boolean normalIndex = reader.readSlash();
+          if (!normalIndex) {
+            // f v/vt : read texture coordinate index
+            int textureCoordinateIndex = reader.readInteger() - 1;
+            if (textureCoordinateIndex < 0) {
+              textureCoordinateIndex += this.textureCoordinates.size() + 1;
+            }
+            textureCoordinateIndices.add(textureCoordinateIndex);
+            normalIndex = reader.readSlash();
+          }
+          if (normalIndex) {
+            //    f v//vn
+            // or f v/vt/vn : read normal index
+            int normalIndexValue = reader.readInteger() - 1;
+            if (normalIndexValue < 0) {
+              normalIndexValue += this.normals.size() + 1;
+            }
+            normalIndices.add(normalIndexValue);
+          }
+        }
+      }
+      if (textureCoordinateIndices.size() != 0
+          && textureCoordinateIndices.size() != vertexIndices.size()) {
+        // Ignore unconsistent texture coordinate
+        textureCoordinateIndices.clear();
+      }
+      if (normalIndices.size() != 0
+          && normalIndices.size() != vertexIndices.size()) {
+        // Ignore unconsistent normals
+        normalIndices.clear();
+      }
+      if (vertexIndices.size() > 2) {
+        this.currentGroup.addGeometry(new Face(vertexIndices, textureCoordinateIndices, normalIndices,
+            this.currentSmooth, this.currentMaterial));
+      }
+    } else if (reader.isWord("g")
+               || reader.isWord("o")) {
+      // Read group name g name
+      //  or object name o name
+      if (reader.readWord(false)) {
+        String name = reader.getWord();
+        this.currentGroup = this.groups.get(name);
+        if (this.currentGroup == null) {
+          this.currentGroup = new Group(name);
+          this.groups.put(name, this.currentGroup);
+        }
+      } else if (reader.isLineEnd()) {
+        // Use default group
+        this.currentGroup = this.groups.get("default");
+      } else {
+        throw new IncorrectFormatException("Expected group or object name at line " + reader.getLineNumber());
+      }
+      // Skip other names
+      while (reader.readWord(false)) {
+      }
+    } else if (reader.isWord("s")) {
+      // Read smoothing group s n
+      //                   or s off
+      if (reader.readWord(false)) {
+        this.currentSmooth = !reader.isWord("off");
+      } else {
+        throw new IncorrectFormatException("Expected smoothing group or off at line " + reader.getLineNumber());
+      }
+    } else if (reader.isWord("usemtl")) {
+      // Read the material name usemtl name (tolerating space in the name)
+      if (reader.readWord(true)) {
+        this.currentMaterial = reader.getWord();
+      } else {
+        throw new IncorrectFormatException("Expected material name at line " + reader.getLineNumber());
+      }
+    } else if (reader.isWord("mtllib")) {
+      // Read characters following mtllib in case they contain a file name with spaces
+      if (reader.readWord(true)) {
+        parseMaterialLibraries(reader.getWord().trim(), baseUrl);
+      } else {
+        throw new IncorrectFormatException("Expected material library at line " + reader.getLineNumber());
+      }
+    } else {
+      // Skip other lines (including comment lines starting by #)
+      reader.skipLine();
+    }
+
+    if (!reader.isLineEnd()) {
+      throw new IncorrectFormatException("Expected end of line at line " + reader.getLineNumber());
+    }
+  }
+
+  /**
+   * Parses the material libraries listed in the given string.
+   */
+  private void parseMaterialLibraries(String mtllibString, URL baseUrl) {
+    // First try to parse space separated library files
+    int validLibCount = 0;
+    String [] libs = mtllibString.split(" ");
+    for (String lib : libs) {
+      if (parseMaterial(lib, baseUrl)) {
+        validLibCount++;
+      }
+    }
+    if (libs.length > 1 && validLibCount == 0) {
+      // Even if not in format specifications, give a chance to file names with spaces
+      parseMaterial(mtllibString, baseUrl);
+    }
+  }
+
   /**
    * Returns a new tokenizer for an OBJ or MTL stream.
    */
@@ -1859,18 +2114,12 @@ public class OBJLoader extends LoaderBase implements Loader {
     private int [] textureCoordinateIndices;
     private String material;
 
-    public Geometry(List<Integer> vertexIndices,
-                    List<Integer> textureCoordinateIndices,
-                    String        material) {
-      this.vertexIndices = new int [vertexIndices.size()];
-      for (int i = 0; i < this.vertexIndices.length; i++) {
-        this.vertexIndices [i] = vertexIndices.get(i);
-      }
+    public Geometry(IntArray vertexIndices,
+                    IntArray textureCoordinateIndices,
+                    String   material) {
+      this.vertexIndices = vertexIndices.toArray();
       if (textureCoordinateIndices.size() != 0) {
-        this.textureCoordinateIndices = new int [textureCoordinateIndices.size()];
-        for (int i = 0; i < this.textureCoordinateIndices.length; i++) {
-          this.textureCoordinateIndices [i] = textureCoordinateIndices.get(i);
-        }
+        this.textureCoordinateIndices = textureCoordinateIndices.toArray();
       }
       this.material = material;
     }
@@ -1897,9 +2146,9 @@ public class OBJLoader extends LoaderBase implements Loader {
    * The coordinates indices of a line.
    */
   private static class Line extends Geometry {
-    public Line(List<Integer> vertexIndices,
-                List<Integer> textureCoordinateIndices,
-                String        material) {
+    public Line(IntArray vertexIndices,
+                IntArray textureCoordinateIndices,
+                String   material) {
       super(vertexIndices, textureCoordinateIndices, material);
     }
   }
@@ -1911,18 +2160,15 @@ public class OBJLoader extends LoaderBase implements Loader {
     private int []  normalIndices;
     private boolean smooth;
 
-    public Face(List<Integer> vertexIndices,
-                List<Integer> textureCoordinateIndices,
-                List<Integer> normalIndices,
-                boolean       smooth,
-                String        material) {
+    public Face(IntArray vertexIndices,
+                IntArray textureCoordinateIndices,
+                IntArray normalIndices,
+                boolean  smooth,
+                String   material) {
       super(vertexIndices, textureCoordinateIndices, material);
       this.smooth = smooth;
       if (normalIndices.size() != 0) {
-        this.normalIndices = new int [normalIndices.size()];
-        for (int i = 0; i < this.normalIndices.length; i++) {
-          this.normalIndices [i] = normalIndices.get(i);
-        }
+        this.normalIndices = normalIndices.toArray();
       }
     }
 
@@ -1964,4 +2210,384 @@ public class OBJLoader extends LoaderBase implements Loader {
       return this.geometries;
     }
   }
+
+  /**
+   * A growable array of float tuples.
+   */
+  private static class FloatArray {
+    private final int tupleSize;
+    private float []  values;
+    private int       length;
+
+    public FloatArray(int tupleSize) {
+      this.tupleSize = tupleSize;
+      this.values = new float [tupleSize * 1024];
+    }
+
+    private void ensureCapacity(int length) {
+      if (length > this.values.length) {
+        this.values = Arrays.copyOf(this.values, Math.max(length, this.values.length * 2));
+      }
+    }
+
+    public void add(float x, float y) {
+      ensureCapacity(this.length + 2);
+      this.values [this.length++] = x;
+      this.values [this.length++] = y;
+    }
+
+    public void add(float x, float y, float z) {
+      ensureCapacity(this.length + 3);
+      this.values [this.length++] = x;
+      this.values [this.length++] = y;
+      this.values [this.length++] = z;
+    }
+
+    /**
+     * Returns the count of tuples in this array.
+     */
+    public int size() {
+      return this.length / this.tupleSize;
+    }
+
+    /**
+     * Returns the values of this array, that may be longer than the values added to it.
+     */
+    public float [] getValues() {
+      return this.values;
+    }
+  }
+
+  /**
+   * A growable array of integers.
+   */
+  private static class IntArray {
+    private int [] values = new int [8];
+    private int    size;
+
+    public void add(int value) {
+      if (this.size == this.values.length) {
+        this.values = Arrays.copyOf(this.values, this.size * 2);
+      }
+      this.values [this.size++] = value;
+    }
+
+    public int size() {
+      return this.size;
+    }
+
+    public void clear() {
+      this.size = 0;
+    }
+
+    public int [] toArray() {
+      return Arrays.copyOf(this.values, this.size);
+    }
+  }
+
+  /**
+   * A reader able to parse the words and the numbers of an ISO-8859-1 encoded
+   * OBJ stream line by line, directly from its bytes.
+   */
+  private static class LineReader {
+    private static final double [] POWERS_OF_TEN = {
+        1E0, 1E1, 1E2, 1E3, 1E4, 1E5, 1E6, 1E7, 1E8, 1E9, 1E10, 1E11,
+        1E12, 1E13, 1E14, 1E15, 1E16, 1E17, 1E18, 1E19, 1E20, 1E21, 1E22};
+
+    private final InputStream in;
+    private byte []           buffer;
+    private int               limit;
+    private boolean           endOfStream;
+    private int               position;
+    private int               lineEnd;
+    private int               lineNumber;
+    private int               wordStart;
+    private int               wordEnd;
+
+    public LineReader(InputStream in) {
+      this.in = in;
+      this.buffer = new byte [65536];
+      this.lineEnd = -1;
+      this.lineNumber = 1;
+    }
+
+    /**
+     * Reads more bytes in buffer, keeping the bytes from current position.
+     * Returns <code>false</code> if the end of stream was reached.
+     */
+    private boolean readMore() throws IOException {
+      if (this.endOfStream) {
+        return false;
+      }
+      if (this.position > 0) {
+        System.arraycopy(this.buffer, this.position, this.buffer, 0, this.limit - this.position);
+        this.limit -= this.position;
+        this.wordStart -= this.position;
+        this.wordEnd -= this.position;
+        this.position = 0;
+      } else if (this.limit == this.buffer.length) {
+        // Enlarge buffer for lines longer than buffer
+        this.buffer = Arrays.copyOf(this.buffer, this.buffer.length * 2);
+      }
+      int count = this.in.read(this.buffer, this.limit, this.buffer.length - this.limit);
+      if (count == -1) {
+        this.endOfStream = true;
+        return false;
+      } else {
+        this.limit += count;
+        return true;
+      }
+    }
+
+    /**
+     * Moves to the next line and ensures all its bytes are available in buffer.
+     * Returns <code>false</code> if the end of stream was reached.
+     */
+    public boolean nextLine() throws IOException {
+      if (this.lineEnd >= 0) {
+        this.position = this.lineEnd;
+        if (this.position == this.limit) {
+          // Last line wasn't followed by an end of line
+          return false;
+        }
+        // Skip \n, \r or \r\n
+        if (this.buffer [this.position++] == '\r'
+            && (this.position < this.limit || readMore())
+            && this.buffer [this.position] == '\n') {
+          this.position++;
+        }
+        this.lineNumber++;
+      }
+      for (int i = this.position; ; ) {
+        for ( ; i < this.limit; i++) {
+          byte b = this.buffer [i];
+          if (b == '\n' || b == '\r') {
+            this.lineEnd = i;
+            return true;
+          }
+        }
+        int offset = i - this.position;
+        if (!readMore()) {
+          this.lineEnd = this.limit;
+          return this.position < this.limit;
+        }
+        i = this.position + offset;
+      }
+    }
+
+    public int getLineNumber() {
+      return this.lineNumber;
+    }
+
+    private void skipSpaces() {
+      while (this.position < this.lineEnd
+          && (this.buffer [this.position] == ' ' || this.buffer [this.position] == '\t')) {
+        this.position++;
+      }
+    }
+
+    /**
+     * Returns <code>true</code> if only spaces remain in the current line.
+     */
+    public boolean isLineEnd() {
+      skipSpaces();
+      return this.position == this.lineEnd;
+    }
+
+    /**
+     * Skips the remaining bytes of the current line.
+     */
+    public void skipLine() {
+      this.position = this.lineEnd;
+    }
+
+    /**
+     * Reads the next word made of printable ASCII and ISO-8859-1 characters,
+     * including spaces if <code>withSpaces</code> is <code>true</code>.
+     * Returns <code>false</code> if there's no word at current position.
+     */
+    public boolean readWord(boolean withSpaces) {
+      return readWord(withSpaces, false);
+    }
+
+    private boolean readWord(boolean withSpaces, boolean stopAtSlash) {
+      skipSpaces();
+      this.wordStart = this.position;
+      while (this.position < this.lineEnd) {
+        byte b = this.buffer [this.position];
+        if ((b >= '!' && b <= '~' || b < 0 || withSpaces && b == ' ')
+            && (b != '/' || !stopAtSlash)) {
+          this.position++;
+        } else {
+          break;
+        }
+      }
+      this.wordEnd = this.position;
+      return this.wordEnd > this.wordStart;
+    }
+
+    /**
+     * Returns <code>true</code> if the last read word is equal to the given one.
+     */
+    public boolean isWord(String word) {
+      int length = this.wordEnd - this.wordStart;
+      if (length != word.length()) {
+        return false;
+      }
+      for (int i = 0; i < length; i++) {
+        if ((this.buffer [this.wordStart + i] & 0xFF) != word.charAt(i)) {
+          return false;
+        }
+      }
+      return true;
+    }
+
+    /**
+     * Returns the last read word.
+     */
+    public String getWord() {
+      return new String(this.buffer, this.wordStart, this.wordEnd - this.wordStart, StandardCharsets.ISO_8859_1);
+    }
+
+    /**
+     * Skips the slash at current position and returns <code>true</code> if it exists.
+     */
+    public boolean readSlash() {
+      skipSpaces();
+      if (this.position < this.lineEnd
+          && this.buffer [this.position] == '/') {
+        this.position++;
+        return true;
+      } else {
+        return false;
+      }
+    }
+
+    /**
+     * Skips the back slash at current position and moves to next line if it exists.
+     */
+    public void skipBackSlash() throws IOException {
+      skipSpaces();
+      if (this.position < this.lineEnd
+          && this.buffer [this.position] == '\\') {
+        this.position++;
+        if (!isLineEnd()
+            || this.lineEnd == this.limit) {
+          throw new IncorrectFormatException("Expected new line after \\ character");
+        }
+        nextLine();
+      }
+    }
+
+    /**
+     * Returns the integer contained in the next word.
+     */
+    public int readInteger() {
+      if (!readWord(false, true)) {
+        throw new IncorrectFormatException("Expected an integer at line " + this.lineNumber);
+      }
+      int i = this.wordStart;
+      boolean negative = this.buffer [i] == '-';
+      if (negative || this.buffer [i] == '+') {
+        i++;
+      }
+      // Parse directly integers of 9 digits at most which can't overflow
+      if (i < this.wordEnd && this.wordEnd - i <= 9) {
+        int value = 0;
+        for ( ; i < this.wordEnd; i++) {
+          int digit = this.buffer [i] - '0';
+          if (digit < 0 || digit > 9) {
+            break;
+          }
+          value = value * 10 + digit;
+        }
+        if (i == this.wordEnd) {
+          return negative ? -value : value;
+        }
+      }
+      try {
+        return Integer.parseInt(getWord());
+      } catch (NumberFormatException ex) {
+        throw new IncorrectFormatException("Found " + getWord() +
+            " instead of an integer at line " + this.lineNumber);
+      }
+    }
+
+    /**
+     * Returns the number contained in the next word.
+     */
+    public float readNumber() {
+      if (!readWord(false)) {
+        throw new IncorrectFormatException("Expected a number at line " + this.lineNumber);
+      }
+      int i = this.wordStart;
+      boolean negative = this.buffer [i] == '-';
+      if (negative || this.buffer [i] == '+') {
+        i++;
+      }
+      long significand = 0;
+      int significantDigitCount = 0;
+      int digitCount = 0;
+      int exponent = 0;
+      for ( ; i < this.wordEnd && this.buffer [i] >= '0' && this.buffer [i] <= '9'; i++, digitCount++) {
+        significand = significand * 10 + this.buffer [i] - '0';
+        if (significand != 0) {
+          significantDigitCount++;
+        }
+      }
+      if (i < this.wordEnd && this.buffer [i] == '.') {
+        for (i++; i < this.wordEnd && this.buffer [i] >= '0' && this.buffer [i] <= '9'; i++, digitCount++) {
+          significand = significand * 10 + this.buffer [i] - '0';
+          if (significand != 0) {
+            significantDigitCount++;
+          }
+          exponent--;
+        }
+      }
+      if (digitCount > 0
+          && i < this.wordEnd
+          && (this.buffer [i] == 'e' || this.buffer [i] == 'E')) {
+        i++;
+        boolean negativeExponent = i < this.wordEnd && this.buffer [i] == '-';
+        if (i < this.wordEnd && (negativeExponent || this.buffer [i] == '+')) {
+          i++;
+        }
+        int exponentStart = i;
+        int exponentValue = 0;
+        for ( ; i < this.wordEnd && this.buffer [i] >= '0' && this.buffer [i] <= '9' && i - exponentStart < 4; i++) {
+          exponentValue = exponentValue * 10 + this.buffer [i] - '0';
+        }
+        if (i == exponentStart) {
+          // Let parseFloat handle missing exponent
+          digitCount = 0;
+        }
+        exponent += negativeExponent ? -exponentValue : exponentValue;
+      }
+
+      // Compute directly numbers with at most 15 significant digits and a small exponent,
+      // where the significand and the power of ten are exact doubles and the double
+      // result of their product or quotient is correctly rounded
+      if (digitCount > 0
+          && i == this.wordEnd
+          && significantDigitCount <= 15
+          && exponent >= -22
+          && exponent <= 22) {
+        double value = exponent < 0
+            ? significand / POWERS_OF_TEN [-exponent]
+            : significand * POWERS_OF_TEN [exponent];
+        // Check the double isn't exactly halfway between two floats
+        // to avoid a rounding different from the one of Float.parseFloat
+        if ((Double.doubleToRawLongBits(value) & 0x1FFFFFFFL) != 0x10000000L) {
+          float number = (float)value;
+          return negative ? -number : number;
+        }
+      }
+      try {
+        return Float.parseFloat(getWord());
+      } catch (NumberFormatException ex) {
+        throw new IncorrectFormatException("Found " + getWord() +
+            " instead of a number at line " + this.lineNumber);
+      }
+    }
+  }
 }
@@ -102,6 +102,8 @@ import javax.vecmath.Vector4f;
  * @author Emmanuel Puybaret
  */
 public class OBJWriter extends FilterWriter {
+  private static final int NODE_BUFFER_SIZE = 65536;
+
   private final NumberFormat defaultNumberFormat = 
       new DecimalFormat("0.#######", new DecimalFormatSymbols(Locale.US));
   private final NumberFormat numberFormat;  
@@ -111,6 +113,10 @@ public class OBJWriter extends FilterWriter {
   private String  mtlFileName;
 
   private int shapeIndex = 1;
+  // The buffers where are formatted the lines of the written node and the normals of its geometries
+  private final StringBuilder nodeBuffer = new StringBuilder(NODE_BUFFER_SIZE);
+  private final StringBuilder normalsBuffer = new StringBuilder();
+  private final char []       nodeBufferChars = new char [NODE_BUFFER_SIZE];
   private Map<Point3f, Integer>    vertexIndices = new HashMap<Point3f, Integer>();
   private Map<Vector3f, Integer>   normalIndices = new HashMap<Vector3f, Integer>();
   private Map<TexCoord2f, Integer> textureCoordinatesIndices = new HashMap<TexCoord2f, Integer>();  
@@ -326,7 +332,22 @@ public class OBJWriter extends FilterWriter {
       this.firstNode = false;
     }
     
+    // Format node in a buffer written once its geometries are formatted
+    this.nodeBuffer.setLength(0);
     writeNode(node, nodeName, new Transform3D());
+    writeNodeBuffer();
+  }
+
+  /**
+   * Writes the content of the node buffer to output and empties it.
+   */
+  private void writeNodeBuffer() throws IOException {
+    for (int i = 0, length = this.nodeBuffer.length(); i < length; i += this.nodeBufferChars.length) {
+      int end = Math.min(length, i + this.nodeBufferChars.length);
+      this.nodeBuffer.getChars(i, end, this.nodeBufferChars, 0);
+      this.out.write(this.nodeBufferChars, 0, end - i);
+    }
+    this.nodeBuffer.setLength(0);
   }
 
   /**
@@ -372,7 +393,7 @@ public class OBJWriter extends FilterWriter {
         objectName += String.valueOf(this.shapeIndex++);
         
         // Start a new object at OBJ format 
-        this.out.write("g " + objectName + "\n");
+        this.nodeBuffer.append("g ").append(objectName).append('\n');
         
         TexCoordGeneration texCoordGeneration = null;
         Transform3D textureTransform = new Transform3D();
@@ -440,7 +461,7 @@ public class OBJWriter extends FilterWriter {
                 }
               }
             } 
-            this.out.write("usemtl " + appearanceName + "\n");
+            this.nodeBuffer.append("usemtl ").append(appearanceName).append('\n');
           }
         }
         
@@ -527,7 +548,8 @@ public class OBJWriter extends FilterWriter {
       StringBuilder normalsBuffer;
       List<Vector3f> addedNormals;
       if (normalsDefined) {
-        normalsBuffer = new StringBuilder(geometryArray.getVertexCount() * 3 * 10);
+        normalsBuffer = this.normalsBuffer;
+        normalsBuffer.setLength(0);
         addedNormals = new ArrayList<Vector3f>();
       } else {
         normalsBuffer = null;
@@ -673,7 +695,7 @@ public class OBJWriter extends FilterWriter {
 
       if (normalsDefined) {
         // Write normals only if they all contain valid values 
-        out.write(normalsBuffer.toString());
+        this.nodeBuffer.append(normalsBuffer);
       } else if (addedNormals != null) {
         // Remove ignored normals
         for (Vector3f normal : addedNormals) {
@@ -804,6 +826,11 @@ public class OBJWriter extends FilterWriter {
           }
         }
       }
+
+      if (this.nodeBuffer.length() >= NODE_BUFFER_SIZE) {
+        // Don't let the buffer grow too much for large nodes
+        writeNodeBuffer();
+      }
     } 
   }
 
@@ -831,9 +858,13 @@ public class OBJWriter extends FilterWriter {
       vertexIndexSubstitutes [index] = this.vertexIndices.size() + 1;
       this.vertexIndices.put(vertex, vertexIndexSubstitutes [index]);
       // Write only once unique vertices
-      this.out.write("v " + format(vertex.x) 
-          + " " + format(vertex.y) 
-          + " " + format(vertex.z) + "\n");
+      this.nodeBuffer.append("v ");
+      appendNumber(this.nodeBuffer, vertex.x);
+      this.nodeBuffer.append(' ');
+      appendNumber(this.nodeBuffer, vertex.y);
+      this.nodeBuffer.append(' ');
+      appendNumber(this.nodeBuffer, vertex.z);
+      this.nodeBuffer.append('\n');
     } else {
       vertexIndexSubstitutes [index] = vertexIndex;
     }
@@ -857,6 +888,26 @@ public class OBJWriter extends FilterWriter {
     }      
   }
 
+  /**
+   * Appends a float number to <code>buffer</code> with the same characters as the ones
+   * returned by {@link #format(float) format}, but without creating an intermediate string
+   * in the default case.
+   */
+  private void appendNumber(StringBuilder buffer, float number) {
+    if (this.numberFormat != null) {
+      buffer.append(this.numberFormat.format(number));
+    } else {
+      int start = buffer.length();
+      // StringBuilder#append(float) produces the same characters as String#valueOf(float)
+      buffer.append(number);
+      if (buffer.indexOf("E", start) != -1) {
+        // Avoid scientific notation
+        buffer.setLength(start);
+        buffer.append(this.defaultNumberFormat.format(number));
+      }
+    }
+  }
+
   /**
    * Applies to <code>normal</code> the given transformation, and appends to <code>normalsBuffer</code> 
    * its values in a line vn at OBJ format, if the normal wasn't written yet.  
@@ -885,9 +936,13 @@ public class OBJWriter extends FilterWriter {
       this.normalIndices.put(normal, normalIndexSubstitutes [index]);
       addedNormals.add(normal);
       // Write only once unique normals
-      normalsBuffer.append("vn " + format(normal.x) 
-          + " " + format(normal.y) 
-          + " " + format(normal.z) + "\n");
+      normalsBuffer.append("vn ");
+      appendNumber(normalsBuffer, normal.x);
+      normalsBuffer.append(' ');
+      appendNumber(normalsBuffer, normal.y);
+      normalsBuffer.append(' ');
+      appendNumber(normalsBuffer, normal.z);
+      normalsBuffer.append('\n');
     } else {
       normalIndexSubstitutes [index] = normalIndex;
     }
@@ -919,8 +974,11 @@ public class OBJWriter extends FilterWriter {
       textureCoordinatesIndexSubstitutes [index] = this.textureCoordinatesIndices.size() + 1;
       this.textureCoordinatesIndices.put(textureCoordinates, textureCoordinatesIndexSubstitutes [index]);
       // Write only once unique texture coordinates
-      this.out.write("vt " + format(textureCoordinates.x) 
-          + " " + format(textureCoordinates.y) + " 0\n");
+      this.nodeBuffer.append("vt ");
+      appendNumber(this.nodeBuffer, textureCoordinates.x);
+      this.nodeBuffer.append(' ');
+      appendNumber(this.nodeBuffer, textureCoordinates.y);
+      this.nodeBuffer.append(" 0\n");
     } else {
       textureCoordinatesIndexSubstitutes [index] = textureCoordinatesIndex;
     }
@@ -935,13 +993,13 @@ public class OBJWriter extends FilterWriter {
                                 int [] vertexIndexSubstitutes, 
                                 int [] textureCoordinatesIndexSubstitutes) throws IOException {
     if ((geometryArray.getVertexFormat() & GeometryArray.TEXTURE_COORDINATE_2) != 0) {
-      this.out.write("l " + (vertexIndexSubstitutes [geometryArray.getCoordinateIndex(vertexIndex1)]) 
-          + "/" + (textureCoordinatesIndexSubstitutes [geometryArray.getTextureCoordinateIndex(0, vertexIndex1)]) 
-          + " " + (vertexIndexSubstitutes [geometryArray.getCoordinateIndex(vertexIndex2)]) 
-          + "/" + (textureCoordinatesIndexSubstitutes [geometryArray.getTextureCoordinateIndex(0, vertexIndex2)]) + "\n");
+      this.nodeBuffer.append("l ").append(vertexIndexSubstitutes [geometryArray.getCoordinateIndex(vertexIndex1)])
+          .append('/').append(textureCoordinatesIndexSubstitutes [geometryArray.getTextureCoordinateIndex(0, vertexIndex1)])
+          .append(' ').append(vertexIndexSubstitutes [geometryArray.getCoordinateIndex(vertexIndex2)])
+          .append('/').append(textureCoordinatesIndexSubstitutes [geometryArray.getTextureCoordinateIndex(0, vertexIndex2)]).append('\n');
     } else {
-      this.out.write("l " + (vertexIndexSubstitutes [geometryArray.getCoordinateIndex(vertexIndex1)]) 
-          + " "  + (vertexIndexSubstitutes [geometryArray.getCoordinateIndex(vertexIndex2)]) + "\n");
+      this.nodeBuffer.append("l ").append(vertexIndexSubstitutes [geometryArray.getCoordinateIndex(vertexIndex1)])
+          .append(' ').append(vertexIndexSubstitutes [geometryArray.getCoordinateIndex(vertexIndex2)]).append('\n');
     }
   }
   
@@ -966,54 +1024,54 @@ public class OBJWriter extends FilterWriter {
     
     if (textureCoordinatesGenerated) {
       if (normalsDefined) {
-        this.out.write("f " + (vertexIndexSubstitutes [geometryArray.getCoordinateIndex(vertexIndex1)]) 
-            + "/" + (textureCoordinatesIndexSubstitutes [geometryArray.getCoordinateIndex(vertexIndex1)]) 
-            + "/" + (normalIndexSubstitutes [geometryArray.getNormalIndex(vertexIndex1)]) 
-            + " " + (vertexIndexSubstitutes [geometryArray.getCoordinateIndex(vertexIndex2)]) 
-            + "/" + (textureCoordinatesIndexSubstitutes [geometryArray.getCoordinateIndex(vertexIndex2)]) 
-            + "/" + (normalIndexSubstitutes [geometryArray.getNormalIndex(vertexIndex2)]) 
-            + " " + (vertexIndexSubstitutes [geometryArray.getCoordinateIndex(vertexIndex3)]) 
-            + "/" + (textureCoordinatesIndexSubstitutes [geometryArray.getCoordinateIndex(vertexIndex3)]) 
-            + "/" + (normalIndexSubstitutes [geometryArray.getNormalIndex(vertexIndex3)]) + "\n");
+        this.nodeBuffer.append("f ").append(vertexIndexSubstitutes [geometryArray.getCoordinateIndex(vertexIndex1)])
+            .append('/').append(textureCoordinatesIndexSubstitutes [geometryArray.getCoordinateIndex(vertexIndex1)])
+            .append('/').append(normalIndexSubstitutes [geometryArray.getNormalIndex(vertexIndex1)])
+            .append(' ').append(vertexIndexSubstitutes [geometryArray.getCoordinateIndex(vertexIndex2)])
+            .append('/').append(textureCoordinatesIndexSubstitutes [geometryArray.getCoordinateIndex(vertexIndex2)])
+            .append('/').append(normalIndexSubstitutes [geometryArray.getNormalIndex(vertexIndex2)])
+            .append(' ').append(vertexIndexSubstitutes [geometryArray.getCoordinateIndex(vertexIndex3)])
+            .append('/').append(textureCoordinatesIndexSubstitutes [geometryArray.getCoordinateIndex(vertexIndex3)])
+            .append('/').append(normalIndexSubstitutes [geometryArray.getNormalIndex(vertexIndex3)]).append('\n');
       } else {
-        this.out.write("f " + (vertexIndexSubstitutes [geometryArray.getCoordinateIndex(vertexIndex1)]) 
-            + "/" + (textureCoordinatesIndexSubstitutes [geometryArray.getCoordinateIndex(vertexIndex1)]) 
-            + " " + (vertexIndexSubstitutes [geometryArray.getCoordinateIndex(vertexIndex2)]) 
-            + "/" + (textureCoordinatesIndexSubstitutes [geometryArray.getCoordinateIndex(vertexIndex2)]) 
-            + " " + (vertexIndexSubstitutes [geometryArray.getCoordinateIndex(vertexIndex3)]) 
-            + "/" + (textureCoordinatesIndexSubstitutes [geometryArray.getCoordinateIndex(vertexIndex3)]) + "\n");
+        this.nodeBuffer.append("f ").append(vertexIndexSubstitutes [geometryArray.getCoordinateIndex(vertexIndex1)])
+            .append('/').append(textureCoordinatesIndexSubstitutes [geometryArray.getCoordinateIndex(vertexIndex1)])
+            .append(' ').append(vertexIndexSubstitutes [geometryArray.getCoordinateIndex(vertexIndex2)])
+            .append('/').append(textureCoordinatesIndexSubstitutes [geometryArray.getCoordinateIndex(vertexIndex2)])
+            .append(' ').append(vertexIndexSubstitutes [geometryArray.getCoordinateIndex(vertexIndex3)])
+            .append('/').append(textureCoordinatesIndexSubstitutes [geometryArray.getCoordinateIndex(vertexIndex3)]).append('\n');
       }
     } else if ((geometryArray.getVertexFormat() & GeometryArray.TEXTURE_COORDINATE_2) != 0) {
       if (normalsDefined) {
-        this.out.write("f " + (vertexIndexSubstitutes [geometryArray.getCoordinateIndex(vertexIndex1)]) 
-            + "/" + (textureCoordinatesIndexSubstitutes [geometryArray.getTextureCoordinateIndex(0, vertexIndex1)]) 
-            + "/" + (normalIndexSubstitutes [geometryArray.getNormalIndex(vertexIndex1)]) 
-            + " " + (vertexIndexSubstitutes [geometryArray.getCoordinateIndex(vertexIndex2)]) 
-            + "/" + (textureCoordinatesIndexSubstitutes [geometryArray.getTextureCoordinateIndex(0, vertexIndex2)]) 
-            + "/" + (normalIndexSubstitutes [geometryArray.getNormalIndex(vertexIndex2)]) 
-            + " " + (vertexIndexSubstitutes [geometryArray.getCoordinateIndex(vertexIndex3)]) 
-            + "/" + (textureCoordinatesIndexSubstitutes [geometryArray.getTextureCoordinateIndex(0, vertexIndex3)]) 
-            + "/" + (normalIndexSubstitutes [geometryArray.getNormalIndex(vertexIndex3)]) + "\n");
+        this.nodeBuffer.append("f ").append(vertexIndexSubstitutes [geometryArray.getCoordinateIndex(vertexIndex1)])
+            .append('/').append(textureCoordinatesIndexSubstitutes [geometryArray.getTextureCoordinateIndex(0, vertexIndex1)])
+            .append('/').append(normalIndexSubstitutes [geometryArray.getNormalIndex(vertexIndex1)])
+            .append(' ').append(vertexIndexSubstitutes [geometryArray.getCoordinateIndex(vertexIndex2)])
+            .append('/').append(textureCoordinatesIndexSubstitutes [geometryArray.getTextureCoordinateIndex(0, vertexIndex2)])
+            .append('/').append(normalIndexSubstitutes [geometryArray.getNormalIndex(vertexIndex2)])
+            .append(' ').append(vertexIndexSubstitutes [geometryArray.getCoordinateIndex(vertexIndex3)])
+            .append('/').append(textureCoordinatesIndexSubstitutes [geometryArray.getTextureCoordinateIndex(0, vertexIndex3)])
+            .append('/').append(normalIndexSubstitutes [geometryArray.getNormalIndex(vertexIndex3)]).append('\n');
       } else {
-        this.out.write("f " + (vertexIndexSubstitutes [geometryArray.getCoordinateIndex(vertexIndex1)]) 
-            + "/" + (textureCoordinatesIndexSubstitutes [geometryArray.getTextureCoordinateIndex(0, vertexIndex1)]) 
-            + " " + (vertexIndexSubstitutes [geometryArray.getCoordinateIndex(vertexIndex2)]) 
-            + "/" + (textureCoordinatesIndexSubstitutes [geometryArray.getTextureCoordinateIndex(0, vertexIndex2)]) 
-            + " " + (vertexIndexSubstitutes [geometryArray.getCoordinateIndex(vertexIndex3)]) 
-            + "/" + (textureCoordinatesIndexSubstitutes [geometryArray.getTextureCoordinateIndex(0, vertexIndex3)]) + "\n");
+        this.nodeBuffer.append("f ").append(vertexIndexSubstitutes [geometryArray.getCoordinateIndex(vertexIndex1)])
+            .append('/').append(textureCoordinatesIndexSubstitutes [geometryArray.getTextureCoordinateIndex(0, vertexIndex1)])
+            .append(' ').append(vertexIndexSubstitutes [geometryArray.getCoordinateIndex(vertexIndex2)])
+            .append('/').append(textureCoordinatesIndexSubstitutes [geometryArray.getTextureCoordinateIndex(0, vertexIndex2)])
+            .append(' ').append(vertexIndexSubstitutes [geometryArray.getCoordinateIndex(vertexIndex3)])
+            .append('/').append(textureCoordinatesIndexSubstitutes [geometryArray.getTextureCoordinateIndex(0, vertexIndex3)]).append('\n');
       }
     } else {
       if (normalsDefined) {
-        this.out.write("f " + (vertexIndexSubstitutes [geometryArray.getCoordinateIndex(vertexIndex1)]) 
-            + "//" + (normalIndexSubstitutes [geometryArray.getNormalIndex(vertexIndex1)]) 
-            + " "  + (vertexIndexSubstitutes [geometryArray.getCoordinateIndex(vertexIndex2)]) 
-            + "//" + (normalIndexSubstitutes [geometryArray.getNormalIndex(vertexIndex2)]) 
-            + " "  + (vertexIndexSubstitutes [geometryArray.getCoordinateIndex(vertexIndex3)]) 
-            + "//" + (normalIndexSubstitutes [geometryArray.getNormalIndex(vertexIndex3)]) + "\n");
+        this.nodeBuffer.append("f ").append(vertexIndexSubstitutes [geometryArray.getCoordinateIndex(vertexIndex1)])
+            .append("//").append(normalIndexSubstitutes [geometryArray.getNormalIndex(vertexIndex1)])
+            .append(' ').append(vertexIndexSubstitutes [geometryArray.getCoordinateIndex(vertexIndex2)])
+            .append("//").append(normalIndexSubstitutes [geometryArray.getNormalIndex(vertexIndex2)])
+            .append(' ').append(vertexIndexSubstitutes [geometryArray.getCoordinateIndex(vertexIndex3)])
+            .append("//").append(normalIndexSubstitutes [geometryArray.getNormalIndex(vertexIndex3)]).append('\n');
       } else {
-        this.out.write("f " + (vertexIndexSubstitutes [geometryArray.getCoordinateIndex(vertexIndex1)]) 
-            + " "  + (vertexIndexSubstitutes [geometryArray.getCoordinateIndex(vertexIndex2)]) 
-            + " "  + (vertexIndexSubstitutes [geometryArray.getCoordinateIndex(vertexIndex3)]) + "\n");
+        this.nodeBuffer.append("f ").append(vertexIndexSubstitutes [geometryArray.getCoordinateIndex(vertexIndex1)])
+            .append(' ').append(vertexIndexSubstitutes [geometryArray.getCoordinateIndex(vertexIndex2)])
+            .append(' ').append(vertexIndexSubstitutes [geometryArray.getCoordinateIndex(vertexIndex3)]).append('\n');
       }
     }
 
@@ -1049,67 +1107,67 @@ public class OBJWriter extends FilterWriter {
     
     if (textureCoordinatesGenerated) {
       if (normalsDefined) {
-        this.out.write("f " + (vertexIndexSubstitutes [geometryArray.getCoordinateIndex(vertexIndex1)]) 
-            + "/" + (textureCoordinatesIndexSubstitutes [geometryArray.getCoordinateIndex(vertexIndex1)]) 
-            + "/" + (normalIndexSubstitutes [geometryArray.getNormalIndex(vertexIndex1)]) 
-            + " " + (vertexIndexSubstitutes [geometryArray.getCoordinateIndex(vertexIndex2)]) 
-            + "/" + (textureCoordinatesIndexSubstitutes [geometryArray.getCoordinateIndex(vertexIndex2)]) 
-            + "/" + (normalIndexSubstitutes [geometryArray.getNormalIndex(vertexIndex2)]) 
-            + " " + (vertexIndexSubstitutes [geometryArray.getCoordinateIndex(vertexIndex3)]) 
-            + "/" + (textureCoordinatesIndexSubstitutes [geometryArray.getCoordinateIndex(vertexIndex3)]) 
-            + "/" + (normalIndexSubstitutes [geometryArray.getNormalIndex(vertexIndex3)]) 
-            + " " + (vertexIndexSubstitutes [geometryArray.getCoordinateIndex(vertexIndex4)]) 
-            + "/" + (textureCoordinatesIndexSubstitutes [geometryArray.getCoordinateIndex(vertexIndex4)]) 
-            + "/" + (normalIndexSubstitutes [geometryArray.getNormalIndex(vertexIndex4)]) + "\n");
+        this.nodeBuffer.append("f ").append(vertexIndexSubstitutes [geometryArray.getCoordinateIndex(vertexIndex1)])
+            .append('/').append(textureCoordinatesIndexSubstitutes [geometryArray.getCoordinateIndex(vertexIndex1)])
+            .append('/').append(normalIndexSubstitutes [geometryArray.getNormalIndex(vertexIndex1)])
+            .append(' ').append(vertexIndexSubstitutes [geometryArray.getCoordinateIndex(vertexIndex2)])
+            .append('/').append(textureCoordinatesIndexSubstitutes [geometryArray.getCoordinateIndex(vertexIndex2)])
+            .append('/').append(normalIndexSubstitutes [geometryArray.getNormalIndex(vertexIndex2)])
+            .append(' ').append(vertexIndexSubstitutes [geometryArray.getCoordinateIndex(vertexIndex3)])
+            .append('/').append(textureCoordinatesIndexSubstitutes [geometryArray.getCoordinateIndex(vertexIndex3)])
+            .append('/').append(normalIndexSubstitutes [geometryArray.getNormalIndex(vertexIndex3)])
+            .append(' ').append(vertexIndexSubstitutes [geometryArray.getCoordinateIndex(vertexIndex4)])
+            .append('/').append(textureCoordinatesIndexSubstitutes [geometryArray.getCoordinateIndex(vertexIndex4)])
+            .append('/').append(normalIndexSubstitutes [geometryArray.getNormalIndex(vertexIndex4)]).append('\n');
       } else {
-        this.out.write("f " + (vertexIndexSubstitutes [geometryArray.getCoordinateIndex(vertexIndex1)]) 
-            + "/" + (textureCoordinatesIndexSubstitutes [geometryArray.getCoordinateIndex(vertexIndex1)]) 
-            + " " + (vertexIndexSubstitutes [geometryArray.getCoordinateIndex(vertexIndex2)]) 
-            + "/" + (textureCoordinatesIndexSubstitutes [geometryArray.getCoordinateIndex(vertexIndex2)]) 
-            + " " + (vertexIndexSubstitutes [geometryArray.getCoordinateIndex(vertexIndex3)]) 
-            + "/" + (textureCoordinatesIndexSubstitutes [geometryArray.getCoordinateIndex(vertexIndex3)]) 
-            + " " + (vertexIndexSubstitutes [geometryArray.getCoordinateIndex(vertexIndex4)]) 
-            + "/" + (textureCoordinatesIndexSubstitutes [geometryArray.getCoordinateIndex(vertexIndex4)]) + "\n");
+        this.nodeBuffer.append("f ").append(vertexIndexSubstitutes [geometryArray.getCoordinateIndex(vertexIndex1)])
+            .append('/').append(textureCoordinatesIndexSubstitutes [geometryArray.getCoordinateIndex(vertexIndex1)])
+            .append(' ').append(vertexIndexSubstitutes [geometryArray.getCoordinateIndex(vertexIndex2)])
+            .append('/').append(textureCoordinatesIndexSubstitutes [geometryArray.getCoordinateIndex(vertexIndex2)])
+            .append(' ').append(vertexIndexSubstitutes [geometryArray.getCoordinateIndex(vertexIndex3)])
+            .append('/').append(textureCoordinatesIndexSubstitutes [geometryArray.getCoordinateIndex(vertexIndex3)])
+            .append(' ').append(vertexIndexSubstitutes [geometryArray.getCoordinateIndex(vertexIndex4)])
+            .append('/').append(textureCoordinatesIndexSubstitutes [geometryArray.getCoordinateIndex(vertexIndex4)]).append('\n');
       }
     } else if ((geometryArray.getVertexFormat() & GeometryArray.TEXTURE_COORDINATE_2) != 0) {
       if (normalsDefined) {
-        this.out.write("f " + (vertexIndexSubstitutes [geometryArray.getCoordinateIndex(vertexIndex1)]) 
-            + "/" + (textureCoordinatesIndexSubstitutes [geometryArray.getTextureCoordinateIndex(0, vertexIndex1)]) 
-            + "/" + (normalIndexSubstitutes [geometryArray.getNormalIndex(vertexIndex1)]) 
-            + " " + (vertexIndexSubstitutes [geometryArray.getCoordinateIndex(vertexIndex2)]) 
-            + "/" + (textureCoordinatesIndexSubstitutes [geometryArray.getTextureCoordinateIndex(0, vertexIndex2)]) 
-            + "/" + (normalIndexSubstitutes [geometryArray.getNormalIndex(vertexIndex2)]) 
-            + " " + (vertexIndexSubstitutes [geometryArray.getCoordinateIndex(vertexIndex3)]) 
-            + "/" + (textureCoordinatesIndexSubstitutes [geometryArray.getTextureCoordinateIndex(0, vertexIndex3)]) 
-            + "/" + (normalIndexSubstitutes [geometryArray.getNormalIndex(vertexIndex3)]) 
-            + " " + (vertexIndexSubstitutes [geometryArray.getCoordinateIndex(vertexIndex4)]) 
-            + "/" + (textureCoordinatesIndexSubstitutes [geometryArray.getTextureCoordinateIndex(0, vertexIndex4)]) 
-            + "/" + (normalIndexSubstitutes [geometryArray.getNormalIndex(vertexIndex4)]) + "\n");
+        this.nodeBuffer.append("f ").append(vertexIndexSubstitutes [geometryArray.getCoordinateIndex(vertexIndex1)])
+            .append('/').append(textureCoordinatesIndexSubstitutes [geometryArray.getTextureCoordinateIndex(0, vertexIndex1)])
+            .append('/').append(normalIndexSubstitutes [geometryArray.getNormalIndex(vertexIndex1)])
+            .append(' ').append(vertexIndexSubstitutes [geometryArray.getCoordinateIndex(vertexIndex2)])
+            .append('/').append(textureCoordinatesIndexSubstitutes [geometryArray.getTextureCoordinateIndex(0, vertexIndex2)])
+            .append('/').append(normalIndexSubstitutes [geometryArray.getNormalIndex(vertexIndex2)])
+            .append(' ').append(vertexIndexSubstitutes [geometryArray.getCoordinateIndex(vertexIndex3)])
+            .append('/').append(textureCoordinatesIndexSubstitutes [geometryArray.getTextureCoordinateIndex(0, vertexIndex3)])
+            .append('/').append(normalIndexSubstitutes [geometryArray.getNormalIndex(vertexIndex3)])
+            .append(' ').append(vertexIndexSubstitutes [geometryArray.getCoordinateIndex(vertexIndex4)])
+            .append('/').append(textureCoordinatesIndexSubstitutes [geometryArray.getTextureCoordinateIndex(0, vertexIndex4)])
+            .append('/').append(normalIndexSubstitutes [geometryArray.getNormalIndex(vertexIndex4)]).append('\n');
       } else {
-        this.out.write("f " + (vertexIndexSubstitutes [geometryArray.getCoordinateIndex(vertexIndex1)]) 
-            + "/" + (textureCoordinatesIndexSubstitutes [geometryArray.getTextureCoordinateIndex(0, vertexIndex1)]) 
-            + " " + (vertexIndexSubstitutes [geometryArray.getCoordinateIndex(vertexIndex2)]) 
-            + "/" + (textureCoordinatesIndexSubstitutes [geometryArray.getTextureCoordinateIndex(0, vertexIndex2)]) 
-            + " " + (vertexIndexSubstitutes [geometryArray.getCoordinateIndex(vertexIndex3)]) 
-            + "/" + (textureCoordinatesIndexSubstitutes [geometryArray.getTextureCoordinateIndex(0, vertexIndex3)]) 
-            + " " + (vertexIndexSubstitutes [geometryArray.getCoordinateIndex(vertexIndex4)]) 
-            + "/" + (textureCoordinatesIndexSubstitutes [geometryArray.getTextureCoordinateIndex(0, vertexIndex4)]) + "\n");
+        this.nodeBuffer.append("f ").append(vertexIndexSubstitutes [geometryArray.getCoordinateIndex(vertexIndex1)])
+            .append('/').append(textureCoordinatesIndexSubstitutes [geometryArray.getTextureCoordinateIndex(0, vertexIndex1)])
+            .append(' ').append(vertexIndexSubstitutes [geometryArray.getCoordinateIndex(vertexIndex2)])
+            .append('/').append(textureCoordinatesIndexSubstitutes [geometryArray.getTextureCoordinateIndex(0, vertexIndex2)])
+            .append(' ').append(vertexIndexSubstitutes [geometryArray.getCoordinateIndex(vertexIndex3)])
+            .append('/').append(textureCoordinatesIndexSubstitutes [geometryArray.getTextureCoordinateIndex(0, vertexIndex3)])
+            .append(' ').append(vertexIndexSubstitutes [geometryArray.getCoordinateIndex(vertexIndex4)])
+            .append('/').append(textureCoordinatesIndexSubstitutes [geometryArray.getTextureCoordinateIndex(0, vertexIndex4)]).append('\n');
       }
     } else {
       if (normalsDefined) {
-        this.out.write("f " + (vertexIndexSubstitutes [geometryArray.getCoordinateIndex(vertexIndex1)]) 
-            + "//" + (normalIndexSubstitutes [geometryArray.getNormalIndex(vertexIndex1)]) 
-            + " "  + (vertexIndexSubstitutes [geometryArray.getCoordinateIndex(vertexIndex2)]) 
-            + "//" + (normalIndexSubstitutes [geometryArray.getNormalIndex(vertexIndex2)]) 
-            + " "  + (vertexIndexSubstitutes [geometryArray.getCoordinateIndex(vertexIndex3)]) 
-            + "//" + (normalIndexSubstitutes [geometryArray.getNormalIndex(vertexIndex3)]) 
-            + " "  + (vertexIndexSubstitutes [geometryArray.getCoordinateIndex(vertexIndex4)]) 
-            + "//" + (normalIndexSubstitutes [geometryArray.getNormalIndex(vertexIndex4)]) + "\n");
+        this.nodeBuffer.append("f ").append(vertexIndexSubstitutes [geometryArray.getCoordinateIndex(vertexIndex1)])
+            .append("//").append(normalIndexSubstitutes [geometryArray.getNormalIndex(vertexIndex1)])
+            .append(' ').append(vertexIndexSubstitutes [geometryArray.getCoordinateIndex(vertexIndex2)])
+            .append("//").append(normalIndexSubstitutes [geometryArray.getNormalIndex(vertexIndex2)])
+            .append(' ').append(vertexIndexSubstitutes [geometryArray.getCoordinateIndex(vertexIndex3)])
+            .append("//").append(normalIndexSubstitutes [geometryArray.getNormalIndex(vertexIndex3)])
+            .append(' ').append(vertexIndexSubstitutes [geometryArray.getCoordinateIndex(vertexIndex4)])
+            .append("//").append(normalIndexSubstitutes [geometryArray.getNormalIndex(vertexIndex4)]).append('\n');
       } else {
-        this.out.write("f " + (vertexIndexSubstitutes [geometryArray.getCoordinateIndex(vertexIndex1)]) 
-            + " "  + (vertexIndexSubstitutes [geometryArray.getCoordinateIndex(vertexIndex2)]) 
-            + " "  + (vertexIndexSubstitutes [geometryArray.getCoordinateIndex(vertexIndex3)]) 
-            + " "  + (vertexIndexSubstitutes [geometryArray.getCoordinateIndex(vertexIndex4)]) + "\n");
+        this.nodeBuffer.append("f ").append(vertexIndexSubstitutes [geometryArray.getCoordinateIndex(vertexIndex1)])
+            .append(' ').append(vertexIndexSubstitutes [geometryArray.getCoordinateIndex(vertexIndex2)])
+            .append(' ').append(vertexIndexSubstitutes [geometryArray.getCoordinateIndex(vertexIndex3)])
+            .append(' ').append(vertexIndexSubstitutes [geometryArray.getCoordinateIndex(vertexIndex4)]).append('\n');
       }
     }
 
@@ -1130,13 +1188,13 @@ public class OBJWriter extends FilterWriter {
                          int [] vertexIndexSubstitutes,  
                          int [] textureCoordinatesIndexSubstitutes) throws IOException {
     if ((geometryArray.getVertexFormat() & GeometryArray.TEXTURE_COORDINATE_2) != 0) {
-      this.out.write("l " + (vertexIndexSubstitutes [vertexIndex1]) 
-          + "/" + (textureCoordinatesIndexSubstitutes [vertexIndex1]) 
-          + " " + (vertexIndexSubstitutes [vertexIndex2]) 
-          + "/" + (textureCoordinatesIndexSubstitutes [vertexIndex2]) + "\n");
+      this.nodeBuffer.append("l ").append(vertexIndexSubstitutes [vertexIndex1])
+          .append('/').append(textureCoordinatesIndexSubstitutes [vertexIndex1])
+          .append(' ').append(vertexIndexSubstitutes [vertexIndex2])
+          .append('/').append(textureCoordinatesIndexSubstitutes [vertexIndex2]).append('\n');
     } else {
-      this.out.write("l " + (vertexIndexSubstitutes [vertexIndex1]) 
-          + " "  + (vertexIndexSubstitutes [vertexIndex2]) + "\n");
+      this.nodeBuffer.append("l ").append(vertexIndexSubstitutes [vertexIndex1])
+          .append(' ').append(vertexIndexSubstitutes [vertexIndex2]).append('\n');
     }
   }
   
@@ -1162,35 +1220,35 @@ public class OBJWriter extends FilterWriter {
     if (textureCoordinatesGenerated
         || (geometryArray.getVertexFormat() & GeometryArray.TEXTURE_COORDINATE_2) != 0) {
       if (normalsDefined) {
-        this.out.write("f " + (vertexIndexSubstitutes [vertexIndex1]) 
-            + "/" + (textureCoordinatesIndexSubstitutes [vertexIndex1]) 
-            + "/" + (normalIndexSubstitutes [vertexIndex1]) 
-            + " " + (vertexIndexSubstitutes [vertexIndex2]) 
-            + "/" + (textureCoordinatesIndexSubstitutes [vertexIndex2]) 
-            + "/" + (normalIndexSubstitutes [vertexIndex2]) 
-            + " " + (vertexIndexSubstitutes [vertexIndex3]) 
-            + "/" + (textureCoordinatesIndexSubstitutes [vertexIndex3]) 
-            + "/" + (normalIndexSubstitutes [vertexIndex3]) + "\n");
+        this.nodeBuffer.append("f ").append(vertexIndexSubstitutes [vertexIndex1])
+            .append('/').append(textureCoordinatesIndexSubstitutes [vertexIndex1])
+            .append('/').append(normalIndexSubstitutes [vertexIndex1])
+            .append(' ').append(vertexIndexSubstitutes [vertexIndex2])
+            .append('/').append(textureCoordinatesIndexSubstitutes [vertexIndex2])
+            .append('/').append(normalIndexSubstitutes [vertexIndex2])
+            .append(' ').append(vertexIndexSubstitutes [vertexIndex3])
+            .append('/').append(textureCoordinatesIndexSubstitutes [vertexIndex3])
+            .append('/').append(normalIndexSubstitutes [vertexIndex3]).append('\n');
       } else {
-        this.out.write("f " + (vertexIndexSubstitutes [vertexIndex1]) 
-            + "/" + (textureCoordinatesIndexSubstitutes [vertexIndex1]) 
-            + " " + (vertexIndexSubstitutes [vertexIndex2]) 
-            + "/" + (textureCoordinatesIndexSubstitutes [vertexIndex2]) 
-            + " " + (vertexIndexSubstitutes [vertexIndex3]) 
-            + "/" + (textureCoordinatesIndexSubstitutes [vertexIndex3]) + "\n");
+        this.nodeBuffer.append("f ").append(vertexIndexSubstitutes [vertexIndex1])
+            .append('/').append(textureCoordinatesIndexSubstitutes [vertexIndex1])
+            .append(' ').append(vertexIndexSubstitutes [vertexIndex2])
+            .append('/').append(textureCoordinatesIndexSubstitutes [vertexIndex2])
+            .append(' ').append(vertexIndexSubstitutes [vertexIndex3])
+            .append('/').append(textureCoordinatesIndexSubstitutes [vertexIndex3]).append('\n');
       }
     } else {
       if (normalsDefined) {
-        this.out.write("f " + (vertexIndexSubstitutes [vertexIndex1]) 
-            + "//" + (normalIndexSubstitutes [vertexIndex1]) 
-            + " "  + (vertexIndexSubstitutes [vertexIndex2]) 
-            + "//" + (normalIndexSubstitutes [vertexIndex2]) 
-            + " "  + (vertexIndexSubstitutes [vertexIndex3]) 
-            + "//" + (normalIndexSubstitutes [vertexIndex3]) + "\n");
+        this.nodeBuffer.append("f ").append(vertexIndexSubstitutes [vertexIndex1])
+            .append("//").append(normalIndexSubstitutes [vertexIndex1])
+            .append(' ').append(vertexIndexSubstitutes [vertexIndex2])
+            .append("//").append(normalIndexSubstitutes [vertexIndex2])
+            .append(' ').append(vertexIndexSubstitutes [vertexIndex3])
+            .append("//").append(normalIndexSubstitutes [vertexIndex3]).append('\n');
       } else {
-        this.out.write("f " + (vertexIndexSubstitutes [vertexIndex1]) 
-            + " "  + (vertexIndexSubstitutes [vertexIndex2]) 
-            + " "  + (vertexIndexSubstitutes [vertexIndex3]) + "\n");
+        this.nodeBuffer.append("f ").append(vertexIndexSubstitutes [vertexIndex1])
+            .append(' ').append(vertexIndexSubstitutes [vertexIndex2])
+            .append(' ').append(vertexIndexSubstitutes [vertexIndex3]).append('\n');
       }
     }
 
@@ -1227,43 +1285,43 @@ public class OBJWriter extends FilterWriter {
     if (textureCoordinatesGenerated
         || (geometryArray.getVertexFormat() & GeometryArray.TEXTURE_COORDINATE_2) != 0) {
       if (normalsDefined) {
-        this.out.write("f " + (vertexIndexSubstitutes [vertexIndex1]) 
-            + "/" + (textureCoordinatesIndexSubstitutes [vertexIndex1]) 
-            + "/" + (normalIndexSubstitutes [vertexIndex1]) 
-            + " " + (vertexIndexSubstitutes [vertexIndex2]) 
-            + "/" + (textureCoordinatesIndexSubstitutes [vertexIndex2]) 
-            + "/" + (normalIndexSubstitutes [vertexIndex2]) 
-            + " " + (vertexIndexSubstitutes [vertexIndex3]) 
-            + "/" + (textureCoordinatesIndexSubstitutes [vertexIndex3]) 
-            + "/" + (normalIndexSubstitutes [vertexIndex3]) 
-            + " " + (vertexIndexSubstitutes [vertexIndex4]) 
-            + "/" + (textureCoordinatesIndexSubstitutes [vertexIndex4]) 
-            + "/" + (normalIndexSubstitutes [vertexIndex4]) + "\n");
+        this.nodeBuffer.append("f ").append(vertexIndexSubstitutes [vertexIndex1])
+            .append('/').append(textureCoordinatesIndexSubstitutes [vertexIndex1])
+            .append('/').append(normalIndexSubstitutes [vertexIndex1])
+            .append(' ').append(vertexIndexSubstitutes [vertexIndex2])
+            .append('/').append(textureCoordinatesIndexSubstitutes [vertexIndex2])
+            .append('/').append(normalIndexSubstitutes [vertexIndex2])
+            .append(' ').append(vertexIndexSubstitutes [vertexIndex3])
+            .append('/').append(textureCoordinatesIndexSubstitutes [vertexIndex3])
+            .append('/').append(normalIndexSubstitutes [vertexIndex3])
+            .append(' ').append(vertexIndexSubstitutes [vertexIndex4])
+            .append('/').append(textureCoordinatesIndexSubstitutes [vertexIndex4])
+            .append('/').append(normalIndexSubstitutes [vertexIndex4]).append('\n');
       } else {
-        this.out.write("f " + (vertexIndexSubstitutes [vertexIndex1]) 
-            + "/" + (textureCoordinatesIndexSubstitutes [vertexIndex1]) 
-            + " " + (vertexIndexSubstitutes [vertexIndex2]) 
-            + "/" + (textureCoordinatesIndexSubstitutes [vertexIndex2]) 
-            + " " + (vertexIndexSubstitutes [vertexIndex3]) 
-            + "/" + (textureCoordinatesIndexSubstitutes [vertexIndex3]) 
-            + " " + (vertexIndexSubstitutes [vertexIndex4]) 
-            + "/" + (textureCoordinatesIndexSubstitutes [vertexIndex4]) + "\n");
+        this.nodeBuffer.append("f ").append(vertexIndexSubstitutes [vertexIndex1])
+            .append('/').append(textureCoordinatesIndexSubstitutes [vertexIndex1])
+            .append(' ').append(vertexIndexSubstitutes [vertexIndex2])
+            .append('/').append(textureCoordinatesIndexSubstitutes [vertexIndex2])
+            .append(' ').append(vertexIndexSubstitutes [vertexIndex3])
+            .append('/').append(textureCoordinatesIndexSubstitutes [vertexIndex3])
+            .append(' ').append(vertexIndexSubstitutes [vertexIndex4])
+            .append('/').append(textureCoordinatesIndexSubstitutes [vertexIndex4]).append('\n');
       }
     } else {
       if (normalsDefined) {
-        this.out.write("f " + (vertexIndexSubstitutes [vertexIndex1]) 
-            + "//" + (normalIndexSubstitutes [vertexIndex1]) 
-            + " "  + (vertexIndexSubstitutes [vertexIndex2]) 
-            + "//" + (normalIndexSubstitutes [vertexIndex2]) 
-            + " "  + (vertexIndexSubstitutes [vertexIndex3]) 
-            + "//" + (normalIndexSubstitutes [vertexIndex3]) 
-            + " "  + (vertexIndexSubstitutes [vertexIndex4]) 
-            + "//" + (normalIndexSubstitutes [vertexIndex4]) + "\n");
+        this.nodeBuffer.append("f ").append(vertexIndexSubstitutes [vertexIndex1])
+            .append("//").append(normalIndexSubstitutes [vertexIndex1])
+            .append(' ').append(vertexIndexSubstitutes [vertexIndex2])
+            .append("//").append(normalIndexSubstitutes [vertexIndex2])
+            .append(' ').append(vertexIndexSubstitutes [vertexIndex3])
+            .append("//").append(normalIndexSubstitutes [vertexIndex3])
+            .append(' ').append(vertexIndexSubstitutes [vertexIndex4])
+            .append("//").append(normalIndexSubstitutes [vertexIndex4]).append('\n');
       } else {
-        this.out.write("f " + (vertexIndexSubstitutes [vertexIndex1]) 
-            + " "  + (vertexIndexSubstitutes [vertexIndex2]) 
-            + " "  + (vertexIndexSubstitutes [vertexIndex3]) 
-            + " "  + (vertexIndexSubstitutes [vertexIndex4]) + "\n");
+        this.nodeBuffer.append("f ").append(vertexIndexSubstitutes [vertexIndex1])
+            .append(' ').append(vertexIndexSubstitutes [vertexIndex2])
+            .append(' ').append(vertexIndexSubstitutes [vertexIndex3])
+            .append(' ').append(vertexIndexSubstitutes [vertexIndex4]).append('\n');
       }
     }
 
@@ -26,17 +26,22 @@ import java.awt.geom.PathIterator;
 import java.awt.geom.Point2D;
 import java.util.ArrayList;
 import java.util.Collections;
+import java.util.Enumeration;
 import java.util.HashMap;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
 import java.util.WeakHashMap;
+import java.util.concurrent.Callable;
+import java.util.function.Function;
 
 import javax.media.j3d.BranchGroup;
 import javax.media.j3d.ColoringAttributes;
+import javax.media.j3d.Group;
 import javax.media.j3d.LineAttributes;
 import javax.media.j3d.Material;
 import javax.media.j3d.PolygonAttributes;
+import javax.media.j3d.Shape3D;
 import javax.media.j3d.Texture;
 import javax.media.j3d.TextureAttributes;
 import javax.media.j3d.Transform3D;
@@ -63,6 +68,9 @@ public abstract class Object3DBranch extends BranchGroup {
   protected static final Integer  DEFAULT_AMBIENT_COLOR = 0x333333;
   protected static final Material DEFAULT_MATERIAL      = new Material();
 
+  // Texture image resolution sufficient to display textures, in pixels per centimeter 
+  private static final float TEXTURE_PIXELS_PER_CENTIMETER = 10;
+
   private static final Map<Long, Material>                materials = new HashMap<Long, Material>();
   private static final Map<TextureKey, TextureAttributes> textureAttributes = new HashMap<TextureKey, TextureAttributes>();
   private static final Map<Home, Map<Texture, Texture>>   homesTextures = new WeakHashMap<Home, Map<Texture, Texture>>();
@@ -78,6 +86,62 @@ public abstract class Object3DBranch extends BranchGroup {
    */
   public abstract void update();
 
+  /**
+   * Returns a task able to compute the geometry of this branch out of Event Dispatch Thread,
+   * or <code>null</code> if this branch must be updated with {@link #update() update} method.
+   * The returned task computes the geometry from the copies of the objects of home,
+   * then returns the operation that will replace the geometry of this branch,
+   * which must be run in Event Dispatch Thread.
+   * This method must be called in Event Dispatch Thread.
+   * @param homeCopies a function returning the copy of the given home object or of home itself,
+   *                   or <code>null</code> if the object wasn't copied
+   */
+  public Callable<Runnable> getGeometryUpdater(Function<Object, Object> homeCopies) {
+    return null;
+  }
+
+  /**
+   * Replaces the geometries of the shapes of this branch by the geometries
+   * of the shapes of the given <code>branch</code> built with the same structure.
+   * @return <code>false</code> if the shapes of the two branches don't match
+   */
+  protected boolean replaceGeometries(Object3DBranch branch) {
+    List<Shape3D> shapes = new ArrayList<Shape3D>();
+    searchShapes(this, shapes);
+    List<Shape3D> branchShapes = new ArrayList<Shape3D>();
+    searchShapes(branch, branchShapes);
+    if (shapes.size() != branchShapes.size()) {
+      return false;
+    } else {
+      for (int i = 0; i < shapes.size(); i++) {
+        Shape3D shape = shapes.get(i);
+        Shape3D branchShape = branchShapes.get(i);
+        int currentGeometriesCount = shape.numGeometries();
+        for (int j = 0, n = branchShape.numGeometries(); j < n; j++) {
+          if (branchShape.getGeometry(j) != null) {
+            shape.addGeometry(branchShape.getGeometry(j));
+          }
+        }
+        for (int j = currentGeometriesCount - 1; j >= 0; j--) {
+          shape.removeGeometry(j);
+        }
+      }
+      return true;
+    }
+  }
+
+  private void searchShapes(Group group, List<Shape3D> shapes) {
+    Enumeration<?> enumeration = group.getAllChildren();
+    while (enumeration.hasMoreElements()) {
+      Object child = enumeration.nextElement();
+      if (child instanceof Group) {
+        searchShapes((Group)child, shapes);
+      } else if (child instanceof Shape3D) {
+        shapes.add((Shape3D)child);
+      }
+    }
+  }
+
   /**
    * Returns a cloned instance of texture shared per <code>home</code> or 
    * the texture itself if <code>home</code> is <code>null</code>.
@@ -88,17 +152,20 @@ public abstract class Object3DBranch extends BranchGroup {
     if (home == null || texture == null) {
       return texture;
     } else {
-      Map<Texture, Texture> homeTextures = homesTextures.get(home);
-      if (homeTextures == null) {
-        homeTextures = new WeakHashMap<Texture, Texture>();
-        homesTextures.put(home, homeTextures);
-      }
-      Texture clonedTexture = homeTextures.get(texture);
-      if (clonedTexture == null) {
-        clonedTexture = (Texture)texture.cloneNodeComponent(false);
-        homeTextures.put(texture, clonedTexture);
+      // Home textures may be requested by 3D objects built in parallel
+      synchronized (homesTextures) {
+        Map<Texture, Texture> homeTextures = homesTextures.get(home);
+        if (homeTextures == null) {
+          homeTextures = new WeakHashMap<Texture, Texture>();
+          homesTextures.put(home, homeTextures);
+        }
+        Texture clonedTexture = homeTextures.get(texture);
+        if (clonedTexture == null) {
+          clonedTexture = (Texture)texture.cloneNodeComponent(false);
+          homeTextures.put(texture, clonedTexture);
+        }
+        return clonedTexture;
       }
-      return clonedTexture;
     }
   }
   
@@ -121,21 +188,23 @@ public abstract class Object3DBranch extends BranchGroup {
   protected Material getMaterial(Integer diffuseColor, Integer ambientColor, float shininess) {
     if (diffuseColor != null) {
       Long materialKey = new Long(diffuseColor + (ambientColor << 24) + ((char)(shininess * 128) << 48));
-      Material material = materials.get(materialKey); 
-      if (material == null) {
-        Color3f ambientMaterialColor = new Color3f(((ambientColor >>> 16) & 0xFF) / 255f,
-                                                    ((ambientColor >>> 8) & 0xFF) / 255f,
-                                                            (ambientColor & 0xFF) / 255f);
-        Color3f diffuseMaterialColor = new Color3f(((diffuseColor >>> 16) & 0xFF) / 255f,
-                                                    ((diffuseColor >>> 8) & 0xFF) / 255f,
-                                                            (diffuseColor & 0xFF) / 255f);
-        material = new Material(ambientMaterialColor, new Color3f(), diffuseMaterialColor, 
-            new Color3f(shininess, shininess, shininess), Math.max(1, shininess * 128));
-        material.setCapability(Material.ALLOW_COMPONENT_READ);
-        // Store created materials in cache
-        materials.put(materialKey, material);
+      synchronized (materials) {
+        Material material = materials.get(materialKey); 
+        if (material == null) {
+          Color3f ambientMaterialColor = new Color3f(((ambientColor >>> 16) & 0xFF) / 255f,
+                                                      ((ambientColor >>> 8) & 0xFF) / 255f,
+                                                              (ambientColor & 0xFF) / 255f);
+          Color3f diffuseMaterialColor = new Color3f(((diffuseColor >>> 16) & 0xFF) / 255f,
+                                                      ((diffuseColor >>> 8) & 0xFF) / 255f,
+                                                              (diffuseColor & 0xFF) / 255f);
+          material = new Material(ambientMaterialColor, new Color3f(), diffuseMaterialColor, 
+              new Color3f(shininess, shininess, shininess), Math.max(1, shininess * 128));
+          material.setCapability(Material.ALLOW_COMPONENT_READ);
+          // Store created materials in cache
+          materials.put(materialKey, material);
+        }
+        return material;
       }
-      return material;
     } else {
       return getMaterial(DEFAULT_COLOR, DEFAULT_AMBIENT_COLOR, shininess);
     }
@@ -166,26 +235,58 @@ public abstract class Object3DBranch extends BranchGroup {
     TextureKey key = scaled
         ? new TextureKey(textureWidth, textureHeight, textureAngle, textureScale)
         : new TextureKey(-1f, -1f, textureAngle, textureScale);
-    TextureAttributes textureAttributes = Object3DBranch.textureAttributes.get(key);
-    if (textureAttributes == null) {
-      textureAttributes = new TextureAttributes();
-      // Mix texture and color
-      textureAttributes.setTextureMode(TextureAttributes.MODULATE);
-      Transform3D rotation = new Transform3D();
-      rotation.rotZ(textureAngle);
-      Transform3D transform = new Transform3D();
-      // Change scale if required
-      if (scaled) {
-        transform.setScale(new Vector3d(textureScale / textureWidth, textureScale / textureHeight, textureScale));
-      } else {
-        transform.setScale(textureScale);
+    synchronized (Object3DBranch.textureAttributes) {
+      TextureAttributes textureAttributes = Object3DBranch.textureAttributes.get(key);
+      if (textureAttributes == null) {
+        textureAttributes = new TextureAttributes();
+        // Mix texture and color
+        textureAttributes.setTextureMode(TextureAttributes.MODULATE);
+        Transform3D rotation = new Transform3D();
+        rotation.rotZ(textureAngle);
+        Transform3D transform = new Transform3D();
+        // Change scale if required
+        if (scaled) {
+          transform.setScale(new Vector3d(textureScale / textureWidth, textureScale / textureHeight, textureScale));
+        } else {
+          transform.setScale(textureScale);
+        }
+        transform.mul(rotation);
+        textureAttributes.setTextureTransform(transform);
+        textureAttributes.setCapability(TextureAttributes.ALLOW_TRANSFORM_READ);
+        Object3DBranch.textureAttributes.put(key, textureAttributes);
       }
-      transform.mul(rotation);
-      textureAttributes.setTextureTransform(transform);
-      textureAttributes.setCapability(TextureAttributes.ALLOW_TRANSFORM_READ);
-      Object3DBranch.textureAttributes.put(key, textureAttributes);
+      return textureAttributes;
+    }
+  }
+
+  /**
+   * Returns the image size in pixels sufficient to display the given texture scaled 
+   * to its width and height, used to load a lower resolution of large texture images.
+   */
+  protected int getTextureImageSize(HomeTexture texture) {
+    float textureWidth = texture.getWidth();
+    float textureHeight = texture.getHeight();
+    if (textureWidth == -1 || textureHeight == -1) {
+      // Use the same default value of 1m as in getTextureAttributes
+      textureWidth = 100;
+      textureHeight = 100;
     }
-    return textureAttributes;
+    return getTextureImageSize(Math.max(textureWidth, textureHeight) * texture.getScale());
+  }
+
+  /**
+   * Returns the image size in pixels sufficient to display the given texture 
+   * spread on an object of a given size in centimeters.
+   */
+  protected int getTextureImageSize(HomeTexture texture, float objectSize) {
+    return getTextureImageSize(objectSize * texture.getScale());
+  }
+
+  private int getTextureImageSize(float imageLength) {
+    float imageSize = (float)Math.ceil(imageLength * TEXTURE_PIXELS_PER_CENTIMETER);
+    return imageSize > 0 && imageSize < Integer.MAX_VALUE
+        ? (int)imageSize
+        : Integer.MAX_VALUE;
   }
 
   /**
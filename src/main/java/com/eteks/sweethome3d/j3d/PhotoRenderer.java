@@ -497,6 +497,34 @@ public class PhotoRenderer {
     return null;
   }
 
+  /**
+   * Returns the quality used by this renderer.
+   */
+  public Quality getQuality() {
+    return this.quality;
+  }
+
+  /**
+   * Sets the count of threads used to render an image, or 0 to use as many threads as available processors.
+   * Reducing this count is useful when several renderers run in parallel.
+   */
+  public void setThreadCount(int threadCount) {
+    this.sunflow.parameter("threads", threadCount);
+    this.sunflow.options(SunflowAPI.DEFAULT_OPTIONS);
+  }
+
+  /**
+   * Returns <code>true</code> if the scene exported by this renderer can be rendered
+   * from the given <code>camera</code> without being exported again.
+   * As lights and rooms are exported differently for the observer camera and the top camera,
+   * this is the case for cameras of the same kind as the home camera at construction time.
+   * This allows to render several points of view of a home with the same renderer,
+   * only the camera and the sun being updated between calls to <code>render</code>.
+   */
+  public boolean isCameraSupported(Camera camera) {
+    return this.useSunskyLight == !(camera instanceof ObserverCamera);
+  }
+
   /**
    * Renders home in <code>image</code> at the given <code>camera</code> location and image size.
    * The rendered objects of the home are the same ones since last call to render or construction.
@@ -26,7 +26,11 @@ import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.Comparator;
+import java.util.IdentityHashMap;
 import java.util.List;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.function.Function;
 
 import javax.media.j3d.Appearance;
 import javax.media.j3d.BranchGroup;
@@ -56,7 +60,9 @@ public class Room3D extends Object3DBranch {
   private static final int FLOOR_PART  = 0;
   private static final int CEILING_PART = 1;
   
-  private final Home home;
+  private final Home          home;
+  private Set<Wall>           ceilingWalls;
+  private List<CeilingPoint>  ceilingPoints;
 
   /**
    * Creates the 3D room matching the given home <code>room</code>.
@@ -71,6 +77,13 @@ public class Room3D extends Object3DBranch {
   public Room3D(Room room, Home home,
                 boolean ignoreCeilingPart,
                 boolean waitTextureLoadingEnd) {
+    this(room, home, ignoreCeilingPart, waitTextureLoadingEnd, true);
+  }
+
+  private Room3D(Room room, Home home,
+                 boolean ignoreCeilingPart,
+                 boolean waitTextureLoadingEnd,
+                 boolean updateAppearance) {
     setUserData(room);
     this.home = home;
 
@@ -84,7 +97,9 @@ public class Room3D extends Object3DBranch {
     addChild(createRoomPartShape());
     // Set room shape geometry and appearance
     updateRoomGeometry();
-    updateRoomAppearance(waitTextureLoadingEnd);
+    if (updateAppearance) {
+      updateRoomAppearance(waitTextureLoadingEnd);
+    }
     
     if (ignoreCeilingPart) {
       removeChild(CEILING_PART);
@@ -127,11 +142,49 @@ public class Room3D extends Object3DBranch {
     updateRoomGeometry();
     updateRoomAppearance(false);
   }
+
+  /**
+   * Returns a task that computes the geometry of this room from the copy of its room
+   * in a copy of home.
+   */
+  @Override
+  public Callable<Runnable> getGeometryUpdater(final Function<Object, Object> homeCopies) {
+    final Room roomCopy = (Room)homeCopies.apply(getUserData());
+    final Home homeCopy = (Home)homeCopies.apply(this.home);
+    if (roomCopy == null || homeCopy == null) {
+      return null;
+    } else {
+      final boolean ignoreCeilingPart = numChildren() == 1;
+      return () -> {
+          final Room3D roomCopy3D = new Room3D(roomCopy, homeCopy, ignoreCeilingPart, true, false);
+          return () -> {
+              if (replaceGeometries(roomCopy3D)) {
+                // Retrieve the walls of home matching the walls copies used to compute ceiling height
+                Set<Wall> ceilingWalls = Collections.newSetFromMap(new IdentityHashMap<Wall, Boolean>());
+                if (!roomCopy3D.ceilingWalls.isEmpty()) {
+                  for (Wall wall : this.home.getWalls()) {
+                    if (roomCopy3D.ceilingWalls.contains(homeCopies.apply(wall))) {
+                      ceilingWalls.add(wall);
+                    }
+                  }
+                }
+                this.ceilingWalls = ceilingWalls;
+                this.ceilingPoints = roomCopy3D.ceilingPoints;
+                updateRoomAppearance(false);
+              } else {
+                update();
+              }
+            };
+        };
+    }
+  }
   
   /**
    * Sets the 3D geometry of this room shapes that matches its 2D geometry.  
    */
   private void updateRoomGeometry() {
+    this.ceilingWalls = Collections.newSetFromMap(new IdentityHashMap<Wall, Boolean>());
+    this.ceilingPoints = new ArrayList<CeilingPoint>();
     updateRoomPartGeometry(FLOOR_PART, ((Room)getUserData()).getFloorTexture());
     updateRoomPartGeometry(CEILING_PART, ((Room)getUserData()).getCeilingTexture());
   }
@@ -184,9 +237,19 @@ public class Room3D extends Object3DBranch {
 
       // Find rooms at the same elevation 
       // and room ceilings at same elevation as the floor bottom  
+      // among the rooms which level elevation or top is close to the one of the room level
       final List<Room> roomsAtSameElevation = new ArrayList<Room>();
       List<Room> ceilingsAtSameFloorBottomElevation = new ArrayList<Room>();
-      for (Room homeRoom : this.home.getRooms()) {
+      RoomElevationIndex roomElevationIndex = RoomElevationIndex.getInstance(this.home);
+      List<Room> candidateRooms;
+      if (roomLevel == null) {
+        candidateRooms = roomElevationIndex.getRoomsWithoutLevel();
+      } else if (roomPart == FLOOR_PART) {
+        candidateRooms = roomElevationIndex.getRooms(roomElevation, floorBottomVisible ? floorBottomElevation : null);
+      } else {
+        candidateRooms = roomElevationIndex.getRooms(null, roomElevation + roomLevel.getHeight());
+      }
+      for (Room homeRoom : candidateRooms) {
         Level homeRoomLevel = homeRoom.getLevel();
         if (homeRoomLevel == null || homeRoomLevel.isViewableAndVisible()) {
           if (room == homeRoom // Store also the room itself to know its order among rooms at same elevation
@@ -632,7 +695,10 @@ public class Room3D extends Object3DBranch {
         }
       }
       
+      // Keep track of the walls and the points used to compute the ceiling height
+      this.ceilingPoints.add(new CeilingPoint(x, y, smallestDistance));
       if (closestWall != null) {
+        this.ceilingWalls.add(closestWall);
         roomHeight = closestWall.getLevel() == null ? 0 : closestWall.getLevel().getElevation();
         Float wallHeightAtStart = closestWall.getHeight();
         if (closestIndex == 0 || closestIndex == closestWallPoints.length - 1) { // Wall start
@@ -674,6 +740,29 @@ public class Room3D extends Object3DBranch {
     return roomHeight;
   }
   
+  /**
+   * Returns <code>true</code> if the geometry of this room may change once the given <code>wall</code>
+   * was added, modified or deleted, because its ceiling height depends on the closest walls.
+   */
+  public boolean isAffectedBy(Wall wall) {
+    if (this.ceilingWalls.contains(wall)) {
+      return true;
+    } else if (!this.ceilingPoints.isEmpty()
+               && (wall.getLevel() == null || wall.getLevel().isViewable())
+               && wall.isAtLevel(((Room)getUserData()).getLevel())) {
+      // Check if the wall became the closest wall of a point of the ceiling
+      float [][] wallPoints = wall.getPoints();
+      for (CeilingPoint ceilingPoint : this.ceilingPoints) {
+        for (float [] wallPoint : wallPoints) {
+          if (Point2D.distanceSq(wallPoint [0], wallPoint [1], ceilingPoint.x, ceilingPoint.y) <= ceilingPoint.smallestDistance) {
+            return true;
+          }
+        }
+      }
+    }
+    return false;
+  }
+
   /**
    * Returns <code>true</code> if the given level is the last level in home.
    */
@@ -713,7 +802,8 @@ public class Room3D extends Object3DBranch {
       roomPartAppearance.setMaterial(getMaterial(DEFAULT_COLOR, DEFAULT_AMBIENT_COLOR, shininess));
       roomPartAppearance.setTextureAttributes(getTextureAttributes(roomPartTexture, true));
       final TextureManager textureManager = TextureManager.getInstance();
-      textureManager.loadTexture(roomPartTexture.getImage(), waitTextureLoadingEnd,
+      textureManager.loadTexture(roomPartTexture.getImage(), 0, 
+          getTextureImageSize(roomPartTexture), waitTextureLoadingEnd,
           new TextureManager.TextureObserver() {
               public void textureUpdated(Texture texture) {
                 texture = getHomeTextureClone(texture, home);
@@ -737,4 +827,19 @@ public class Room3D extends Object3DBranch {
     RenderingAttributes renderingAttributes = roomPartAppearance.getRenderingAttributes();
     renderingAttributes.setVisible(visible);
   }
-}
\ No newline at end of file
+
+  /**
+   * A point of the ceiling which height was computed from the closest wall.
+   */
+  private static class CeilingPoint {
+    private final float  x;
+    private final float  y;
+    private final double smallestDistance;
+
+    public CeilingPoint(float x, float y, double smallestDistance) {
+      this.x = x;
+      this.y = y;
+      this.smallestDistance = smallestDistance;
+    }
+  }
+}
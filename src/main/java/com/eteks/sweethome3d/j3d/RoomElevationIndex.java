@@ -0,0 +1,197 @@
+/*
+ * RoomElevationIndex.java 17 oct. 2026
+ *
+ * Sweet Home 3D, Copyright (c) 2026 Emmanuel PUYBARET / eTeks <info@eteks.com>
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation; either version 2 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA  02111-1307  USA
+ */
+package com.eteks.sweethome3d.j3d;
+
+import java.beans.PropertyChangeListener;
+import java.lang.ref.WeakReference;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.TreeMap;
+import java.util.WeakHashMap;
+
+import com.eteks.sweethome3d.model.BatchCollectionListener;
+import com.eteks.sweethome3d.model.CollectionEvent;
+import com.eteks.sweethome3d.model.Home;
+import com.eteks.sweethome3d.model.HomeSnapshot;
+import com.eteks.sweethome3d.model.Level;
+import com.eteks.sweethome3d.model.Room;
+
+/**
+ * An index of the rooms of a home grouped by the elevation of their level floor
+ * and by the elevation of their level top, used by 3D rooms to search
+ * the rooms they may overlap without browsing all the rooms of home.
+ * The index is rebuilt lazily once a room was added, deleted or moved to an other level,
+ * or once levels changed.
+ * The methods of this class are synchronized because rooms geometry may be computed
+ * out of Event Dispatch Thread.
+ * @author Emmanuel Puybaret
+ */
+public class RoomElevationIndex {
+  private static final float ELEVATION_MARGIN = 1E-3f;
+
+  private static final Map<Home, RoomElevationIndex> instances = new WeakHashMap<>();
+
+  private final WeakReference<Home>          home;
+  private Map<Room, Integer>                 roomsOrder;
+  private List<Room>                         roomsWithoutLevel;
+  private NavigableMap<Float, List<Room>>    roomsAtFloorElevation;
+  private NavigableMap<Float, List<Room>>    roomsAtCeilingElevation;
+
+  private RoomElevationIndex(Home home) {
+    this.home = new WeakReference<>(home);
+    if (HomeSnapshot.isSnapshot(home)) {
+      // Items of home snapshots never change and are shared among snapshots
+      return;
+    }
+    // Listeners added to home don't refer to it to let it be garbage collected
+    final PropertyChangeListener roomChangeListener = ev -> {
+      if (Room.Property.LEVEL.name().equals(ev.getPropertyName())) {
+        invalidate();
+      }
+    };
+    for (Room room : home.getRooms()) {
+      room.addPropertyChangeListener(roomChangeListener);
+    }
+    home.addRoomsListener((BatchCollectionListener<Room>)ev -> {
+      for (Room room : ev.getItems()) {
+        if (ev.getType() == CollectionEvent.Type.ADD) {
+          room.addPropertyChangeListener(roomChangeListener);
+        } else if (ev.getType() == CollectionEvent.Type.DELETE) {
+          room.removePropertyChangeListener(roomChangeListener);
+        }
+      }
+      invalidate();
+    });
+
+    final PropertyChangeListener levelChangeListener = ev -> {
+      if (Level.Property.ELEVATION.name().equals(ev.getPropertyName())
+          || Level.Property.HEIGHT.name().equals(ev.getPropertyName())) {
+        invalidate();
+      }
+    };
+    for (Level level : home.getLevels()) {
+      level.addPropertyChangeListener(levelChangeListener);
+    }
+    home.addLevelsListener(ev -> {
+        if (ev.getType() == CollectionEvent.Type.ADD) {
+          ev.getItem().addPropertyChangeListener(levelChangeListener);
+        } else if (ev.getType() == CollectionEvent.Type.DELETE) {
+          ev.getItem().removePropertyChangeListener(levelChangeListener);
+        }
+        invalidate();
+      });
+  }
+
+  /**
+   * Returns the index of rooms shared by all the users of the given <code>home</code>.
+   */
+  public static synchronized RoomElevationIndex getInstance(Home home) {
+    RoomElevationIndex index = instances.get(home);
+    if (index == null) {
+      index = new RoomElevationIndex(home);
+      instances.put(home, index);
+    }
+    return index;
+  }
+
+  private synchronized void invalidate() {
+    this.roomsOrder = null;
+  }
+
+  private void update() {
+    if (this.roomsOrder == null) {
+      this.roomsOrder = new IdentityHashMap<>();
+      this.roomsWithoutLevel = new ArrayList<>();
+      this.roomsAtFloorElevation = new TreeMap<>();
+      this.roomsAtCeilingElevation = new TreeMap<>();
+      Home home = this.home.get();
+      if (home != null) {
+        for (Room room : home.getRooms()) {
+          this.roomsOrder.put(room, this.roomsOrder.size());
+          Level level = room.getLevel();
+          if (level == null) {
+            this.roomsWithoutLevel.add(room);
+          } else {
+            add(this.roomsAtFloorElevation, level.getElevation(), room);
+            add(this.roomsAtCeilingElevation, level.getElevation() + level.getHeight(), room);
+          }
+        }
+      }
+    }
+  }
+
+  private void add(Map<Float, List<Room>> rooms, float elevation, Room room) {
+    List<Room> elevationRooms = rooms.get(elevation);
+    if (elevationRooms == null) {
+      elevationRooms = new ArrayList<>();
+      rooms.put(elevation, elevationRooms);
+    }
+    elevationRooms.add(room);
+  }
+
+  /**
+   * Returns the rooms of home which don't belong to a level, in home order.
+   */
+  public synchronized List<Room> getRoomsWithoutLevel() {
+    update();
+    return Collections.unmodifiableList(this.roomsWithoutLevel);
+  }
+
+  /**
+   * Returns the rooms of home at a level which elevation is close to <code>floorElevation</code>,
+   * or which top elevation is close to <code>ceilingElevation</code>, in home order.
+   * The returned rooms may contain rooms farther than the tolerance used by callers.
+   * @param floorElevation   the searched floor elevation or <code>null</code>
+   * @param ceilingElevation the searched ceiling elevation or <code>null</code>
+   */
+  public synchronized List<Room> getRooms(Float floorElevation, Float ceilingElevation) {
+    update();
+    List<Room> rooms = new ArrayList<>();
+    if (floorElevation != null) {
+      addRooms(this.roomsAtFloorElevation, floorElevation, rooms);
+    }
+    if (ceilingElevation != null) {
+      addRooms(this.roomsAtCeilingElevation, ceilingElevation, rooms);
+    }
+    if (rooms.size() > 1) {
+      // Sort rooms in home order and remove rooms found twice
+      final Map<Room, Integer> roomsOrder = this.roomsOrder;
+      Collections.sort(rooms, (room1, room2) -> Integer.compare(roomsOrder.get(room1), roomsOrder.get(room2)));
+      for (int i = rooms.size() - 1; i > 0; i--) {
+        if (rooms.get(i) == rooms.get(i - 1)) {
+          rooms.remove(i);
+        }
+      }
+    }
+    return rooms;
+  }
+
+  private void addRooms(NavigableMap<Float, List<Room>> elevationRooms, float elevation, List<Room> rooms) {
+    for (Collection<Room> elevationRoomsSublist : elevationRooms.subMap(
+        elevation - ELEVATION_MARGIN, true, elevation + ELEVATION_MARGIN, true).values()) {
+      rooms.addAll(elevationRoomsSublist);
+    }
+  }
+}
@@ -28,11 +28,10 @@ import java.awt.TexturePaint;
 import java.awt.geom.Rectangle2D;
 import java.awt.image.BufferedImage;
 import java.io.IOException;
-import java.io.InputStream;
 import java.lang.ref.WeakReference;
 import java.util.ArrayList;
 import java.util.Arrays;
-import java.util.ConcurrentModificationException;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
@@ -40,7 +39,6 @@ import java.util.WeakHashMap;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
 
-import javax.imageio.ImageIO;
 import javax.media.j3d.ImageComponent;
 import javax.media.j3d.ImageComponent2D;
 import javax.media.j3d.Texture;
@@ -64,17 +62,23 @@ public class TextureManager {
   private final Map<Content, List<ComparableTextureAngleTuple>> contentTextures;
   // Map storing loaded textures used to compare their images
   private final Map<Texture, ComparableTexture>                 textures;
+  // Map storing loaded textures by the hash code of their image
+  private final Map<Integer, List<ComparableTexture>>           texturesByImageHashCode;
   // Map storing model textures being loaded
   private Map<RotatedContentKey, List<TextureObserver>>         loadingTextureObservers;
   // Executor used to load images
   private ExecutorService       texturesLoader;
+  // Cache of the images decoded at the resolution required by textures
+  private final TexturePyramid  texturePyramid;
 
   private TextureManager() {
     this.errorTexture = getColoredImageTexture(Color.RED);
     this.waitTexture = getColoredImageTexture(Color.WHITE);
     this.contentTextures = new WeakHashMap<Content, List<ComparableTextureAngleTuple>>();
     this.textures = new WeakHashMap<Texture, ComparableTexture>();
+    this.texturesByImageHashCode = new HashMap<Integer, List<ComparableTexture>>();
     this.loadingTextureObservers = new HashMap<RotatedContentKey, List<TextureObserver>>();
+    this.texturePyramid = new TexturePyramid(Runtime.getRuntime().maxMemory() / 10);
   }
 
   /**
@@ -98,9 +102,19 @@ public class TextureManager {
     synchronized (this.textures) {
       this.contentTextures.clear();
       this.textures.clear();
+      this.texturesByImageHashCode.clear();
     }
+    this.texturePyramid.clear();
     this.loadingTextureObservers.clear();
   }
+
+  /**
+   * Returns the cache of texture images decoded by this manager, 
+   * which gives access to its hit, miss and resident size metrics.
+   */
+  public TexturePyramid getTexturePyramid() {
+    return this.texturePyramid;
+  }
   
   /**
    * Returns a texture image of one pixel of the given <code>color</code>. 
@@ -167,12 +181,38 @@ public class TextureManager {
                           final float   angle,
                           boolean synchronous,
                           final TextureObserver textureObserver) {
+    loadTexture(content, angle, Integer.MAX_VALUE, synchronous, textureObserver);
+  }
+
+  /**
+   * Reads a texture image from <code>content</code> notified to <code>textureObserver</code>,
+   * decoded at the smallest resolution which width and height are larger than <code>maximumImageSize</code>. 
+   * If the texture isn't loaded in cache yet and <code>synchronous</code> is false, a one pixel 
+   * white image texture will be notified immediately to the given <code>textureObserver</code>, 
+   * then a second notification will be given in Event Dispatch Thread once the image texture is loaded. 
+   * If the texture is in cache, it will be notified immediately to the given <code>textureObserver</code>.
+   * @param content an object containing an image
+   * @param angle   the rotation angle applied to the image
+   * @param maximumImageSize the size in pixels sufficient for the width and height of the image
+   *            or {@link Integer#MAX_VALUE} to load its full resolution
+   * @param synchronous if <code>true</code>, this method will return only once image content is loaded.
+   * @param textureObserver the observer that will be notified once the texture is available
+   * @throws IllegalStateException if synchronous is <code>false</code> and the current thread isn't 
+   *    the Event Dispatch Thread.  
+   */
+  public void loadTexture(final Content content,
+                          final float   angle,
+                          final int     maximumImageSize,
+                          boolean synchronous,
+                          final TextureObserver textureObserver) {
     Texture texture = null;
+    int level = getLevel(content, maximumImageSize);
     synchronized (this.textures) { // Use one mutex for both maps
       List<ComparableTextureAngleTuple> contentTexturesList = this.contentTextures.get(content);
       if (contentTexturesList != null) {
         for (ComparableTextureAngleTuple textureAngleTuple : contentTexturesList) {
-          if (textureAngleTuple.getAngle() == angle) {
+          if (textureAngleTuple.getAngle() == angle
+              && textureAngleTuple.getLevel() == level) {
             texture = textureAngleTuple.getTexture(); 
           }
         }
@@ -180,7 +220,8 @@ public class TextureManager {
     }
     if (texture == null) {
       if (synchronous) {
-        texture = shareTexture(loadTexture(content, angle), angle, content);
+        texture = shareTexture(loadTexture(content, angle, maximumImageSize), angle, 
+            getLevel(content, maximumImageSize), content);
         // Notify loaded texture to observer
         textureObserver.textureUpdated(texture);
       } else if (!EventQueue.isDispatchThread()) {
@@ -192,7 +233,7 @@ public class TextureManager {
           this.texturesLoader = Executors.newFixedThreadPool(Runtime.getRuntime().availableProcessors());
         }
         
-        final RotatedContentKey contentKey = new RotatedContentKey(content, angle);
+        final RotatedContentKey contentKey = new RotatedContentKey(content, angle, maximumImageSize);
         List<TextureObserver> observers = this.loadingTextureObservers.get(contentKey);
         if (observers != null) {
           // If observers list exists, content texture is already being loaded
@@ -207,7 +248,8 @@ public class TextureManager {
           // Load the image in a different thread
           this.texturesLoader.execute(new Runnable () {
               public void run() {
-                final Texture texture = shareTexture(loadTexture(content, angle), angle, content);
+                final Texture texture = shareTexture(loadTexture(content, angle, maximumImageSize), angle, 
+                    getLevel(content, maximumImageSize), content);
                 EventQueue.invokeLater(new Runnable() {
                     public void run() {
                       // Notify loaded texture to observer
@@ -233,28 +275,31 @@ public class TextureManager {
    * Returns a texture created from the image from <code>content</code>. 
    */
   public Texture loadTexture(final Content content) {
-    return loadTexture(content, 0);
+    return loadTexture(content, 0, Integer.MAX_VALUE);
   }
   
+  /**
+   * Returns the level in texture pyramid of the image of <code>content</code> matching
+   * <code>maximumImageSize</code>, or -1 if it's unknown because the image wasn't read yet.
+   */
+  private int getLevel(Content content, int maximumImageSize) {
+    if (maximumImageSize == Integer.MAX_VALUE) {
+      return 0;
+    } else {
+      Integer level = this.texturePyramid.getLevel(content, maximumImageSize);
+      return level != null ? level : -1;
+    }
+  }
+
   /**
    * Returns a texture created from the image from <code>content</code>  
    * and rotated of a given <code>angle</code> in radians. 
    */
-  private Texture loadTexture(final Content content, float angle) {
+  private Texture loadTexture(final Content content, float angle, int maximumImageSize) {
     try {
-      // Read the image 
-      InputStream contentStream = content.openStream();
-      BufferedImage image;          
-      try {
-        image = ImageIO.read(contentStream);
-      } catch (ConcurrentModificationException ex) {
-        // Try to read the image once more, 
-        // see unfixed Java bug http://bugs.sun.com/bugdatabase/view_bug.do?bug_id=6986863
-        contentStream.close();
-        contentStream = content.openStream();
-       image = ImageIO.read(contentStream);
-      }
-      if (angle != 0) {
+      // Read the image at the required resolution
+      BufferedImage image = this.texturePyramid.getImage(content, maximumImageSize);
+      if (image != null && angle != 0) {
         double cos = Math.cos(angle);
         double sin = Math.sin(angle);
         BufferedImage rotatedImage = new BufferedImage((int)Math.round(Math.abs(image.getWidth() * cos) + Math.abs(image.getHeight() * sin)), 
@@ -270,7 +315,6 @@ public class TextureManager {
         g2D.dispose();
         image = rotatedImage;
       }
-      contentStream.close();
       if (image != null) {
         Texture texture = new TextureLoader(image).getTexture();
         // Keep in user data the URL of the texture image
@@ -301,43 +345,77 @@ public class TextureManager {
    * if the same texture as the one in parameter is already shared.
    */
   public Texture shareTexture(Texture texture) {
-    return shareTexture(texture, 0, null);
+    return shareTexture(texture, 0, 0, null);
   }
   
   /**
    * Returns the texture matching <code>content</code>, either 
    * the <code>texture</code> in parameter or a shared texture if the 
    * same texture as the one in parameter is already shared.
+   * The image of the texture is hashed out of the mutex of maps, then only the shared textures 
+   * with the same hash code are compared to it.
    */
   private Texture shareTexture(final Texture texture,
                                final float   angle,
+                               final int     level,
                                final Content content) {
-    ComparableTexture textureData = new ComparableTexture(texture);
-    Texture sharedTexture = null;
-    synchronized (this.textures) { // Use one mutex for both maps
-      // Search which existing key matches texture key to share unique texture
-      for (Map.Entry<Texture, ComparableTexture> entry : this.textures.entrySet()) {
-        if (textureData.equalsImage(entry.getValue())) {
-          sharedTexture = entry.getKey();
-          textureData = entry.getValue(); 
+    ComparableTexture textureData;
+    synchronized (this.textures) { 
+      textureData = this.textures.get(texture);
+    }
+    List<ComparableTexture> sameHashCodeTextures = null;
+    if (textureData == null) {
+      textureData = new ComparableTexture(texture);
+      // Compute image hash code without locking other threads
+      Integer imageHashCode = textureData.getImageBitsHashCode();
+      synchronized (this.textures) { 
+        List<ComparableTexture> sharedTextures = this.texturesByImageHashCode.get(imageHashCode);
+        sameHashCodeTextures = sharedTextures != null
+            ? new ArrayList<ComparableTexture>(sharedTextures)
+            : Collections.<ComparableTexture>emptyList();
+      }
+      // Compare images out of the mutex, in case their bits must be computed again 
+      for (ComparableTexture sharedTextureData : sameHashCodeTextures) {
+        if (textureData.equalsImage(sharedTextureData)) {
+          textureData = sharedTextureData;
+          sameHashCodeTextures = null;
           break;
         }
       }
-      if (sharedTexture == null) {
-        sharedTexture = texture;
-        setSharedTextureAttributesAndCapabilities(sharedTexture);
-        this.textures.put(sharedTexture, textureData);
+    }
+    
+    synchronized (this.textures) { // Use one mutex for both maps
+      if (sameHashCodeTextures != null) {
+        // Search among textures shared in the mean time by other threads if none matched
+        List<ComparableTexture> sharedTextures = this.texturesByImageHashCode.get(textureData.getImageBitsHashCode());
+        if (sharedTextures == null) {
+          sharedTextures = new ArrayList<ComparableTexture>(1);
+          this.texturesByImageHashCode.put(textureData.getImageBitsHashCode(), sharedTextures);
+        }
+        for (int i = sameHashCodeTextures.size(); i < sharedTextures.size(); i++) {
+          if (textureData.equalsImage(sharedTextures.get(i))) {
+            textureData = sharedTextures.get(i);
+            sameHashCodeTextures = null;
+            break;
+          }
+        }
+        if (sameHashCodeTextures != null) {
+          setSharedTextureAttributesAndCapabilities(texture);
+          this.textures.put(texture, textureData);
+          sharedTextures.add(textureData);
+        }
       }
+      Texture sharedTexture = textureData.getTexture();
       if (content != null) {
         List<ComparableTextureAngleTuple> contentTexturesList = this.contentTextures.get(content);
         if (contentTexturesList == null) {
           contentTexturesList = new ArrayList<ComparableTextureAngleTuple>(1);
           this.contentTextures.put(content, contentTexturesList);
         }
-        contentTexturesList.add(new ComparableTextureAngleTuple(textureData, angle));
+        contentTexturesList.add(new ComparableTextureAngleTuple(textureData, angle, level));
       }
+      return sharedTexture;
     }
-    return sharedTexture;
   }
 
   /**
@@ -411,10 +489,12 @@ public class TextureManager {
   private static class RotatedContentKey {
     private Content content;
     private float   angle;
+    private int     maximumImageSize;
     
-    public RotatedContentKey(Content content, float angle) {
+    public RotatedContentKey(Content content, float angle, int maximumImageSize) {
       this.content = content;
       this.angle = angle;
+      this.maximumImageSize = maximumImageSize;
     }
     
     @Override
@@ -424,7 +504,8 @@ public class TextureManager {
       } else if (obj instanceof RotatedContentKey) {
         RotatedContentKey rotatedContentKey = (RotatedContentKey)obj;
         return this.content.equals(rotatedContentKey.content)
-            && this.angle == rotatedContentKey.angle;
+            && this.angle == rotatedContentKey.angle
+            && this.maximumImageSize == rotatedContentKey.maximumImageSize;
       }
       return false;
     }
@@ -432,7 +513,8 @@ public class TextureManager {
     @Override
     public int hashCode() {
       return this.content.hashCode() 
-          + Float.floatToIntBits(this.angle);
+          + Float.floatToIntBits(this.angle)
+          + 31 * this.maximumImageSize;
     }    
   }
 
@@ -485,12 +567,13 @@ public class TextureManager {
     }
 
     /**
-     * Returns an hash code for the image of the texture that allows
+     * Returns an hash code for the image of the texture and its size that allows
      * a faster comparison and storing images bits in a weak reference.
      */
-    private int getImageBitsHashCode() {
+    private Integer getImageBitsHashCode() {
       if (this.imageBitsHashCode == null) {
-        this.imageBitsHashCode = Arrays.hashCode(getImageBits());
+        ImageComponent2D image = (ImageComponent2D)this.texture.getImage(0);
+        this.imageBitsHashCode = 31 * (31 * image.getWidth() + image.getHeight()) + Arrays.hashCode(getImageBits());
       }
       return this.imageBitsHashCode;
     }
@@ -528,8 +611,11 @@ public class TextureManager {
         return true;
       } else if (this.texture == comparableTexture.texture) {
         return true;
-      } else if (getImageBitsHashCode() == comparableTexture.getImageBitsHashCode()){
-        return Arrays.equals(getImageBits(), comparableTexture.getImageBits());
+      } else if (getImageBitsHashCode().equals(comparableTexture.getImageBitsHashCode())) {
+        ImageComponent2D image = (ImageComponent2D)this.texture.getImage(0);
+        ImageComponent2D otherImage = (ImageComponent2D)comparableTexture.texture.getImage(0);
+        return image.getWidth() == otherImage.getWidth()
+            && Arrays.equals(getImageBits(), comparableTexture.getImageBits());
       }
       return false;
     }
@@ -541,10 +627,12 @@ public class TextureManager {
   private static class ComparableTextureAngleTuple {
     private ComparableTexture texture;
     private float             angle;
+    private int               level;
 
-    public ComparableTextureAngleTuple(ComparableTexture texture, float angle) {
+    public ComparableTextureAngleTuple(ComparableTexture texture, float angle, int level) {
       this.texture = texture;
       this.angle = angle;
+      this.level = level;
     }
 
     public Texture getTexture() {
@@ -554,5 +642,9 @@ public class TextureManager {
     public float getAngle() {
       return this.angle;
     }
+
+    public int getLevel() {
+      return this.level;
+    }
   }
 }
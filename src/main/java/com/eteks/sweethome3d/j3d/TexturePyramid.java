@@ -0,0 +1,281 @@
+/*
+ * TexturePyramid.java 18 oct. 2026
+ *
+ * Sweet Home 3D, Copyright (c) 2026 Emmanuel PUYBARET / eTeks <info@eteks.com>
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation; either version 2 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA  02111-1307  USA
+ */
+package com.eteks.sweethome3d.j3d;
+
+import java.awt.Dimension;
+import java.awt.image.BufferedImage;
+import java.awt.image.DataBuffer;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ConcurrentModificationException;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.WeakHashMap;
+
+import javax.imageio.ImageIO;
+import javax.imageio.ImageReadParam;
+import javax.imageio.ImageReader;
+import javax.imageio.stream.ImageInputStream;
+
+import com.eteks.sweethome3d.model.Content;
+
+/**
+ * A cache of the images of textures decoded at different levels of resolution.
+ * The level 0 of an image is its full resolution image, and each following level 
+ * is subsampled by 2 along its width and its height, in such a way large images
+ * can be decoded at the resolution sufficient for the object they're displayed on, 
+ * without decoding their full resolution image.
+ * The least recently used images are removed from cache once the total size in bytes 
+ * of the cached images exceeds a maximum size.
+ * This class is threadsafe.
+ * @author Emmanuel Puybaret
+ */
+public class TexturePyramid {
+  private final long                       maximumSize;
+  // Size of images mapped to their content
+  private final Map<Content, Dimension>    imagesSize;
+  // Decoded images mapped to their key, in least recently used order
+  private final LinkedHashMap<LevelKey, BufferedImage> images;
+  private long                             size;
+  private long                             hitCount;
+  private long                             missCount;
+  private long                             evictionCount;
+
+  /**
+   * Creates a cache of texture images.
+   * @param maximumSize the maximum size in bytes of the images kept in cache
+   */
+  public TexturePyramid(long maximumSize) {
+    this.maximumSize = maximumSize;
+    this.imagesSize = new WeakHashMap<Content, Dimension>();
+    this.images = new LinkedHashMap<LevelKey, BufferedImage>(16, 0.75f, true);
+  }
+
+  /**
+   * Returns the maximum size in bytes of this cache.
+   */
+  public long getMaximumSize() {
+    return this.maximumSize;
+  }
+
+  /**
+   * Returns the level of the image of <code>content</code> with the smallest resolution 
+   * which width and height are still larger than <code>maximumImageSize</code>, 
+   * or <code>null</code> if the size of this image isn't known yet.
+   * @param content          an object containing an image
+   * @param maximumImageSize the maximum size in pixels required for the width and height of the image
+   */
+  public synchronized Integer getLevel(Content content, int maximumImageSize) {
+    Dimension imageSize = this.imagesSize.get(content);
+    if (imageSize == null) {
+      return null;
+    } else {
+      return getLevel(imageSize, maximumImageSize);
+    }
+  }
+
+  private int getLevel(Dimension imageSize, int maximumImageSize) {
+    int level = 0;
+    for (int imageMaxSize = Math.max(imageSize.width, imageSize.height);
+         imageMaxSize / 2 >= Math.max(1, maximumImageSize);
+         imageMaxSize /= 2) {
+      level++;
+    }
+    return level;
+  }
+
+  /**
+   * Returns the image of <code>content</code> at the level matching <code>maximumImageSize</code>,
+   * decoded with a subsampling if it's not in cache.
+   * @param content          an object containing an image
+   * @param maximumImageSize the maximum size in pixels required for the width and height of the image,
+   *                         or {@link Integer#MAX_VALUE} to get its full resolution image
+   * @return the image at the matching level or <code>null</code> if the content isn't a supported image
+   * @throws IOException if the content couldn't be read
+   */
+  public BufferedImage getImage(Content content, int maximumImageSize) throws IOException {
+    Integer level = getLevel(content, maximumImageSize);
+    if (level != null) {
+      synchronized (this) {
+        BufferedImage image = this.images.get(new LevelKey(content, level));
+        if (image != null) {
+          this.hitCount++;
+          return image;
+        }
+      }
+    }
+    synchronized (this) {
+      this.missCount++;
+    }
+
+    BufferedImage image;
+    InputStream contentStream = content.openStream();
+    try {
+      image = readImage(content, contentStream, maximumImageSize);
+    } catch (ConcurrentModificationException ex) {
+      // Try to read the image once more, 
+      // see unfixed Java bug http://bugs.sun.com/bugdatabase/view_bug.do?bug_id=6986863
+      contentStream.close();
+      contentStream = content.openStream();
+      image = readImage(content, contentStream, maximumImageSize);
+    } finally {
+      contentStream.close();
+    }
+    return image;
+  }
+
+  /**
+   * Reads the image available in the given stream and stores it in cache.
+   */
+  private BufferedImage readImage(Content content, InputStream contentStream, 
+                                  int maximumImageSize) throws IOException {
+    ImageInputStream imageStream = ImageIO.createImageInputStream(contentStream);
+    if (imageStream == null) {
+      return null;
+    }
+    try {
+      Iterator<ImageReader> readers = ImageIO.getImageReaders(imageStream);
+      if (!readers.hasNext()) {
+        return null;
+      }
+      ImageReader reader = readers.next();
+      try {
+        reader.setInput(imageStream, true, true);
+        Dimension imageSize = new Dimension(reader.getWidth(0), reader.getHeight(0));
+        int level = getLevel(imageSize, maximumImageSize);
+        ImageReadParam param = reader.getDefaultReadParam();
+        if (level > 0) {
+          param.setSourceSubsampling(1 << level, 1 << level, 0, 0);
+        }
+        BufferedImage image = reader.read(0, param);
+        synchronized (this) {
+          this.imagesSize.put(content, imageSize);
+          BufferedImage previousImage = this.images.put(new LevelKey(content, level), image);
+          if (previousImage != null) {
+            // Image was read at the same time by an other thread
+            this.size -= getImageSize(previousImage);
+          }
+          this.size += getImageSize(image);
+          for (Iterator<BufferedImage> it = this.images.values().iterator(); 
+               this.size > this.maximumSize && it.hasNext(); ) {
+            BufferedImage evictedImage = it.next();
+            if (evictedImage != image) {
+              this.size -= getImageSize(evictedImage);
+              this.evictionCount++;
+              it.remove();
+            }
+          }
+        }
+        return image;
+      } finally {
+        reader.dispose();
+      }
+    } finally {
+      imageStream.close();
+    }
+  }
+
+  /**
+   * Returns the size in bytes of the pixels of the given <code>image</code>.
+   */
+  private long getImageSize(BufferedImage image) {
+    DataBuffer dataBuffer = image.getRaster().getDataBuffer();
+    return (long)dataBuffer.getSize() * dataBuffer.getNumBanks() * DataBuffer.getDataTypeSize(dataBuffer.getDataType()) / 8;
+  }
+
+  /**
+   * Removes the images stored in this cache.
+   */
+  public synchronized void clear() {
+    this.images.clear();
+    this.imagesSize.clear();
+    this.size = 0;
+  }
+
+  /**
+   * Returns the count of images found in this cache.
+   */
+  public synchronized long getHitCount() {
+    return this.hitCount;
+  }
+
+  /**
+   * Returns the count of images not found in this cache and decoded.
+   */
+  public synchronized long getMissCount() {
+    return this.missCount;
+  }
+
+  /**
+   * Returns the count of images removed from this cache to keep its size under its maximum size.
+   */
+  public synchronized long getEvictionCount() {
+    return this.evictionCount;
+  }
+
+  /**
+   * Returns the count of images stored in this cache.
+   */
+  public synchronized int getImageCount() {
+    return this.images.size();
+  }
+
+  /**
+   * Returns the total size in bytes of the images resident in this cache.
+   */
+  public synchronized long getSize() {
+    return this.size;
+  }
+
+  @Override
+  public synchronized String toString() {
+    return "TexturePyramid [" + this.images.size() + " images, " + this.size + "/" + this.maximumSize
+        + " bytes, hits " + this.hitCount + ", misses " + this.missCount + ", evictions " + this.evictionCount + "]";
+  }
+
+  /**
+   * The key of an image at a given level.
+   */
+  private static class LevelKey {
+    private final Content content;
+    private final int     level;
+
+    public LevelKey(Content content, int level) {
+      this.content = content;
+      this.level = level;
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+      if (obj instanceof LevelKey) {
+        LevelKey key = (LevelKey)obj;
+        return this.content.equals(key.content)
+            && this.level == key.level;
+      }
+      return false;
+    }
+
+    @Override
+    public int hashCode() {
+      return this.content.hashCode() + 31 * this.level;
+    }
+  }
+}
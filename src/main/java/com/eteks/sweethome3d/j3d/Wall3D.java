@@ -35,6 +35,8 @@ import java.util.Comparator;
 import java.util.List;
 import java.util.Map;
 import java.util.WeakHashMap;
+import java.util.concurrent.Callable;
+import java.util.function.Function;
 
 import javax.media.j3d.Appearance;
 import javax.media.j3d.BranchGroup;
@@ -56,7 +58,6 @@ import com.eteks.sweethome3d.model.Content;
 import com.eteks.sweethome3d.model.Home;
 import com.eteks.sweethome3d.model.HomeDoorOrWindow;
 import com.eteks.sweethome3d.model.HomeEnvironment;
-import com.eteks.sweethome3d.model.HomeFurnitureGroup;
 import com.eteks.sweethome3d.model.HomePieceOfFurniture;
 import com.eteks.sweethome3d.model.HomeTexture;
 import com.eteks.sweethome3d.model.Level;
@@ -75,8 +76,11 @@ public class Wall3D extends Object3DBranch {
   private static final int WALL_LEFT_SIDE  = 0;
   private static final int WALL_RIGHT_SIDE = 1;
 
-  private static Map<HomePieceOfFurniture, ModelRotationTuple> doorOrWindowRotatedModels = new WeakHashMap<HomePieceOfFurniture, ModelRotationTuple>();
-  private static Map<ModelRotationTuple, Area>                 rotatedModelsFrontAreas   = new WeakHashMap<ModelRotationTuple, Area>();
+  // Synchronized maps because wall geometry may be computed out of Event Dispatch Thread
+  private static Map<HomePieceOfFurniture, ModelRotationTuple> doorOrWindowRotatedModels =
+      Collections.synchronizedMap(new WeakHashMap<HomePieceOfFurniture, ModelRotationTuple>());
+  private static Map<ModelRotationTuple, Area>                 rotatedModelsFrontAreas   =
+      Collections.synchronizedMap(new WeakHashMap<ModelRotationTuple, Area>());
 
   private final Home home;
 
@@ -92,6 +96,11 @@ public class Wall3D extends Object3DBranch {
    */
   public Wall3D(Wall wall, Home home, boolean ignoreDrawingMode,
                 boolean waitModelAndTextureLoadingEnd) {
+    this(wall, home, ignoreDrawingMode, waitModelAndTextureLoadingEnd, true);
+  }
+
+  private Wall3D(Wall wall, Home home, boolean ignoreDrawingMode,
+                 boolean waitModelAndTextureLoadingEnd, boolean updateAppearance) {
     setUserData(wall);
     this.home = home;
 
@@ -114,7 +123,9 @@ public class Wall3D extends Object3DBranch {
 
     // Set wall shape geometry and appearance
     updateWallGeometry(waitModelAndTextureLoadingEnd);
-    updateWallAppearance(waitModelAndTextureLoadingEnd);
+    if (updateAppearance) {
+      updateWallAppearance(waitModelAndTextureLoadingEnd);
+    }
   }
 
   /**
@@ -160,6 +171,31 @@ public class Wall3D extends Object3DBranch {
     updateWallAppearance(false);
   }
 
+  /**
+   * Returns a task that computes the geometry of this wall from the copy of its wall
+   * in a copy of home, waiting for the models of the doors and windows it intersects.
+   */
+  @Override
+  public Callable<Runnable> getGeometryUpdater(Function<Object, Object> homeCopies) {
+    final Wall wallCopy = (Wall)homeCopies.apply(getUserData());
+    final Home homeCopy = (Home)homeCopies.apply(this.home);
+    if (wallCopy == null || homeCopy == null) {
+      return null;
+    } else {
+      final boolean ignoreDrawingMode = ((Group)getChild(0)).numChildren() == 1;
+      return () -> {
+          final Wall3D wallCopy3D = new Wall3D(wallCopy, homeCopy, ignoreDrawingMode, true, false);
+          return () -> {
+              if (replaceGeometries(wallCopy3D)) {
+                updateWallAppearance(false);
+              } else {
+                update();
+              }
+            };
+        };
+    }
+  }
+
   /**
    * Sets the 3D geometry of this wall shapes that matches its 2D geometry.
    */
@@ -286,10 +322,13 @@ public class Wall3D extends Object3DBranch {
       topLineBeta = topElevationAtStart - topLineAlpha * wallXStartWithZeroYaw;
     }
 
-    // Search which doors or windows intersect with this wall side or its baseboard
     List<DoorOrWindowArea> windowIntersections = new ArrayList<DoorOrWindowArea>();
     List<HomePieceOfFurniture> intersectingDoorOrWindows = new ArrayList<HomePieceOfFurniture>();
-    for (HomePieceOfFurniture piece : getVisibleDoorsAndWindows(this.home.getFurniture())) {
+    // Search which doors or windows intersect with this wall side or its baseboard
+    // among the ones which bounds and elevation intersect the wall ones
+    List<HomePieceOfFurniture> candidateDoorOrWindows = DoorsAndWindowsIndex.getInstance(this.home)
+        .getVisibleDoorsAndWindows(wallShape.getBounds2D(), wallElevation, maxTopElevation);
+    for (HomePieceOfFurniture piece : candidateDoorOrWindows) {
       float pieceElevation = piece.getGroundElevation();
       if (pieceElevation + piece.getHeight() > wallElevation
           && pieceElevation < maxTopElevation) {
@@ -531,6 +570,15 @@ public class Wall3D extends Object3DBranch {
                 || Math.abs(angleDifference - Math.PI) < epsilon) {
               final int frontOrBackSide = Math.abs(angleDifference - Math.PI) < epsilon ? 1 : -1;
               ModelRotationTuple rotatedModel = doorOrWindowRotatedModels.get(doorOrWindow);
+              if (rotatedModel == null) {
+                // Search the front area computed for an other piece with the same model and rotation,
+                // like the piece this door or window was copied from
+                ModelRotationTuple sameRotatedModel = new ModelRotationTuple(doorOrWindow.getModel(), doorOrWindow.getModelRotation());
+                if (rotatedModelsFrontAreas.get(sameRotatedModel) != null) {
+                  doorOrWindowRotatedModels.put(doorOrWindow, sameRotatedModel);
+                  rotatedModel = sameRotatedModel;
+                }
+              }
               if (rotatedModel != null
                   && (missingModels.size() == 0 || !waitDoorOrWindowModelsLoadingEnd)) {
                 createGeometriesSurroundingDoorOrWindow((HomeDoorOrWindow)doorOrWindow, rotatedModelsFrontAreas.get(rotatedModel), frontOrBackSide,
@@ -608,25 +656,6 @@ public class Wall3D extends Object3DBranch {
     }
   }
 
-  /**
-   * Returns all the visible doors and windows in the given <code>furniture</code>.
-   */
-  private List<HomePieceOfFurniture> getVisibleDoorsAndWindows(List<HomePieceOfFurniture> furniture) {
-    List<HomePieceOfFurniture> visibleDoorsAndWindows = new ArrayList<HomePieceOfFurniture>(furniture.size());
-    for (HomePieceOfFurniture piece : furniture) {
-      if (piece.isVisible()
-          && (piece.getLevel() == null
-          || piece.getLevel().isViewableAndVisible())) {
-        if (piece instanceof HomeFurnitureGroup) {
-          visibleDoorsAndWindows.addAll(getVisibleDoorsAndWindows(((HomeFurnitureGroup)piece).getFurniture()));
-        } else if (piece.isDoorOrWindow()) {
-          visibleDoorsAndWindows.add(piece);
-        }
-      }
-    }
-    return visibleDoorsAndWindows;
-  }
-
   /**
    * Returns the points of one of the side of this wall.
    */
@@ -1348,7 +1377,8 @@ public class Wall3D extends Object3DBranch {
       wallSideAppearance.setMaterial(getMaterial(DEFAULT_COLOR, DEFAULT_AMBIENT_COLOR, shininess));
       wallSideAppearance.setTextureAttributes(getTextureAttributes(wallSideTexture, true));
       final TextureManager textureManager = TextureManager.getInstance();
-      textureManager.loadTexture(wallSideTexture.getImage(), waitTextureLoadingEnd,
+      textureManager.loadTexture(wallSideTexture.getImage(), 0, 
+          getTextureImageSize(wallSideTexture), waitTextureLoadingEnd,
           new TextureManager.TextureObserver() {
               public void textureUpdated(Texture texture) {
                 wallSideAppearance.setTexture(getHomeTextureClone(texture, home));
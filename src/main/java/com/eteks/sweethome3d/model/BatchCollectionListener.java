@@ -0,0 +1,31 @@
+/*
+ * BatchCollectionListener.java 17 oct. 2026
+ *
+ * Sweet Home 3D, Copyright (c) 2026 Emmanuel PUYBARET / eTeks <info@eteks.com>
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation; either version 2 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA  02111-1307  USA
+ */
+package com.eteks.sweethome3d.model;
+
+/**
+ * A collection listener able to handle in one call the items added or deleted
+ * at once in a collection. When several items are added or deleted together,
+ * this listener receives a single event which {@link CollectionEvent#getItems() items}
+ * list all of them, whereas other collection listeners receive one event per item.
+ * <code>T</code> is the type of item stored in the collection.
+ * @author Emmanuel Puybaret
+ */
+public interface BatchCollectionListener<T> extends CollectionListener<T> {
+}
@@ -1023,7 +1023,7 @@ public class CatalogPieceOfFurniture implements Comparable<CatalogPieceOfFurnitu
     byte [][] filterCriteriaCollationKeys = getFilterCollationKeys(filter);
     int checkedCriteria = 0;
     if (filterCriteriaCollationKeys.length > 0) {
-      byte [] furnitureCollationKey = getPieceOfFurnitureCollationKey();
+      byte [] furnitureCollationKey = getFilterCollationKey();
       for (byte[] filterCriteriaCollationKey : filterCriteriaCollationKeys) {
         if (isSubCollationKey(furnitureCollationKey, filterCriteriaCollationKey, 0)) {
           checkedCriteria++;
@@ -1038,7 +1038,7 @@ public class CatalogPieceOfFurniture implements Comparable<CatalogPieceOfFurnitu
   /**
    * Returns the collation key bytes of each criterion in the given <code>filter</code>.
    */
-  private byte [][] getFilterCollationKeys(String filter) {
+  static byte [][] getFilterCollationKeys(String filter) {
     if (filter.length() == 0) {
       return EMPTY_CRITERIA;
     }
@@ -1063,9 +1063,9 @@ public class CatalogPieceOfFurniture implements Comparable<CatalogPieceOfFurnitu
   }
 
   /**
-   * Returns the collation key bytes used to compare the given <code>piece</code> with filter.
+   * Returns the collation key bytes used to compare this piece with filter.
    */
-  private byte [] getPieceOfFurnitureCollationKey() {
+  byte [] getFilterCollationKey() {
     if (this.filterCollationKey == null) {
       // Prepare filter string collation key  
       // (collect the name, category, creator, description and tags of each piece)
@@ -85,4 +85,43 @@ public class CollectionChangeSupport<T> {
       }
     }
   }
+
+  /**
+   * Fires a collection event about a batch of <code>items</code>.
+   * {@link BatchCollectionListener Batch listeners} receive a single event for all the items,
+   * whereas other listeners receive one event per item in the order of <code>items</code>.
+   * @param items     the added or deleted items, sorted as described in
+   *                  {@link CollectionEvent#CollectionEvent(Object, List, int[], CollectionEvent.Type) CollectionEvent}
+   * @param indices   the optional indices at which the items were added or deleted
+   * @param eventType <code>CollectionEvent.Type.ADD</code> or <code>CollectionEvent.Type.DELETE</code>
+   */
+  public void fireCollectionChanged(List<T> items, int [] indices,
+                                    CollectionEvent.Type eventType) {
+    if (!this.collectionListeners.isEmpty()
+        && !items.isEmpty()) {
+      CollectionEvent<T> batchEvent = null;
+      List<CollectionEvent<T>> itemEvents = null;
+      // Copy listeners list in case a listener modifies it
+      List<CollectionListener<T>> listeners = new ArrayList<>(this.collectionListeners);
+      for (CollectionListener<T> listener : listeners) {
+        if (listener instanceof BatchCollectionListener) {
+          if (batchEvent == null) {
+            batchEvent = new CollectionEvent<>(this.source, items, indices, eventType);
+          }
+          listener.collectionChanged(batchEvent);
+        } else {
+          if (itemEvents == null) {
+            itemEvents = new ArrayList<>(items.size());
+            for (int i = 0; i < items.size(); i++) {
+              itemEvents.add(new CollectionEvent<>(this.source, items.get(i),
+                  indices != null ? indices [i] : -1, eventType));
+            }
+          }
+          for (CollectionEvent<T> event : itemEvents) {
+            listener.collectionChanged(event);
+          }
+        }
+      }
+    }
+  }
 }
@@ -19,10 +19,15 @@
  */
 package com.eteks.sweethome3d.model;
 
+import java.util.Arrays;
+import java.util.Collections;
 import java.util.EventObject;
+import java.util.List;
 
 /**
  * Type of event notified when an item is added or deleted from a list.
+ * An event may also describe a batch of items added or deleted at once, notified
+ * only to {@link BatchCollectionListener batch listeners}.
  * <code>T</code> is the type of item stored in the collection.
  * @author Emmanuel Puybaret
  */
@@ -32,9 +37,11 @@ public class CollectionEvent<T> extends EventObject {
    */
   public enum Type {ADD, DELETE}
 
-  private final T    item;
-  private final int  index;
-  private final Type type;
+  private final T       item;
+  private final int     index;
+  private final List<T> items;
+  private final int []  indices;
+  private final Type    type;
 
   /**
    * Creates an event for an item that has no index.
@@ -57,11 +64,36 @@ public class CollectionEvent<T> extends EventObject {
     super(source);
     this.item = item;
     this.index = index;
+    this.items = null;
+    this.indices = null;
     this.type =  type;
   }
-  
+
+  /**
+   * Creates an event for a batch of items with their indices.
+   * Added items are listed in the ascending order of their indices in the collection
+   * once all of them are added, and deleted items in the descending order of their
+   * indices in the collection before their deletion, so that each index stays valid
+   * if the changes are applied one after the other.
+   * @param source  the object to which items were added or deleted
+   * @param items   the added or deleted items
+   * @param indices the indices at which the items were added or deleted, or <code>null</code> if unknown
+   * @param type    <code>CollectionEvent.Type.ADD</code> or <code>CollectionEvent.Type.DELETE</code>
+   */
+  public CollectionEvent(Object source, List<T> items, int [] indices, Type type) {
+    super(source);
+    if (indices != null && indices.length != items.size()) {
+      throw new IllegalArgumentException("Items and indices count different");
+    }
+    this.item = items.isEmpty() ? null : items.get(0);
+    this.index = indices != null && indices.length > 0 ? indices [0] : -1;
+    this.items = Collections.unmodifiableList(items);
+    this.indices = indices;
+    this.type =  type;
+  }
+
   /**
-   * Returns the added or deleted item.
+   * Returns the added or deleted item, or the first one of a batch event.
    */
   public T getItem() {
     return this.item;
@@ -74,6 +106,40 @@ public class CollectionEvent<T> extends EventObject {
     return this.index;
   }
 
+  /**
+   * Returns the items added or deleted with this event.
+   */
+  public List<T> getItems() {
+    if (this.items != null) {
+      return this.items;
+    } else {
+      return Collections.singletonList(this.item);
+    }
+  }
+
+  /**
+   * Returns the indices of the items returned by {@link #getItems() getItems},
+   * where unknown indices are equal to -1.
+   */
+  public int [] getIndices() {
+    if (this.items == null) {
+      return new int [] {this.index};
+    } else if (this.indices != null) {
+      return this.indices.clone();
+    } else {
+      int [] indices = new int [this.items.size()];
+      Arrays.fill(indices, -1);
+      return indices;
+    }
+  }
+
+  /**
+   * Returns <code>true</code> if this event is about a batch of items.
+   */
+  public boolean isBatch() {
+    return this.items != null;
+  }
+
   /**
    * Returns the type of event. 
    */
@@ -22,6 +22,7 @@ package com.eteks.sweethome3d.model;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
+import java.util.Map;
 
 /**
  * Furniture catalog.
@@ -92,6 +93,61 @@ public class FurnitureCatalog {
         category.getIndexOfPieceOfFurniture(piece), CollectionEvent.Type.ADD);
   }
 
+  /**
+   * Adds the given <code>furniture</code> grouped by category to this catalog,
+   * merging each category only once with its new pieces.
+   * Once the furniture is added, furniture listeners added to this catalog will receive a single
+   * {@link CollectionListener#collectionChanged(CollectionEvent) collectionChanged}
+   * notification if they're {@link BatchCollectionListener batch listeners},
+   * or one notification per piece otherwise. The pieces of the event are grouped 
+   * by category in the order of the categories of this catalog, and the index of each piece
+   * is its index in its category.
+   * @param furniture the pieces to add mapped to their category. Adding is faster 
+   *                  when the lists of pieces are already sorted by name. 
+   */
+  public void addFurniture(Map<FurnitureCategory, ? extends List<CatalogPieceOfFurniture>> furniture) {
+    List<FurnitureCategory> sortedCategories = new ArrayList<>(furniture.keySet());
+    Collections.sort(sortedCategories);
+    List<CatalogPieceOfFurniture> addedFurniture = new ArrayList<>();
+    List<int []> categoriesIndices = new ArrayList<>(sortedCategories.size());
+    // Make a copy of the list to avoid conflicts in the list returned by getCategories
+    this.categories = new ArrayList<>(this.categories);
+    for (FurnitureCategory category : sortedCategories) {
+      List<CatalogPieceOfFurniture> categoryFurniture = furniture.get(category);
+      if (!categoryFurniture.isEmpty()) {
+        if (!isSorted(categoryFurniture)) {
+          categoryFurniture = new ArrayList<>(categoryFurniture);
+          Collections.sort(categoryFurniture);
+        }
+        int index = Collections.binarySearch(this.categories, category);
+        if (index < 0) {
+          category = new FurnitureCategory(category.getName());
+          this.categories.add(-index - 1, category);
+        } else {
+          category = this.categories.get(index);
+        }
+        categoriesIndices.add(category.addAll(categoryFurniture));
+        addedFurniture.addAll(categoryFurniture);
+      }
+    }
+    int [] indices = new int [addedFurniture.size()];
+    int i = 0;
+    for (int [] categoryIndices : categoriesIndices) {
+      System.arraycopy(categoryIndices, 0, indices, i, categoryIndices.length);
+      i += categoryIndices.length;
+    }
+    this.furnitureChangeSupport.fireCollectionChanged(addedFurniture, indices, CollectionEvent.Type.ADD);
+  }
+
+  private boolean isSorted(List<CatalogPieceOfFurniture> furniture) {
+    for (int i = 1; i < furniture.size(); i++) {
+      if (furniture.get(i - 1).compareTo(furniture.get(i)) > 0) {
+        return false;
+      }
+    }
+    return true;
+  }
+
   /**
    * Deletes the <code>piece</code> from this catalog.
    * If then piece category is empty, it will be removed from the categories of this catalog. 
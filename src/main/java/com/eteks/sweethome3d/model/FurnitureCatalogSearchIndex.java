@@ -0,0 +1,304 @@
+/*
+ * FurnitureCatalogSearchIndex.java 17 oct. 2026
+ *
+ * Sweet Home 3D, Copyright (c) 2026 Emmanuel PUYBARET / eTeks <info@eteks.com>
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation; either version 2 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA  02111-1307  USA
+ */
+package com.eteks.sweethome3d.model;
+
+import java.lang.ref.WeakReference;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * An index of the furniture of a catalog that searches the pieces matching a filter text
+ * without comparing the filter with all the pieces of the catalog.
+ * The index stores the pieces containing each pair of successive characters found
+ * in the collation key of their name, category, creator, description and tags,
+ * then checks with {@link CatalogPieceOfFurniture#matchesFilter(String) matchesFilter}
+ * only the pieces containing all the pairs of characters of the filter criteria.
+ * The index is updated each time a piece is added to or deleted from catalog.
+ * @author Emmanuel Puybaret
+ */
+public class FurnitureCatalogSearchIndex {
+  private final FurnitureCatalog                      catalog;
+  private List<CatalogPieceOfFurniture>               pieces;
+  private Map<CatalogPieceOfFurniture, Integer>       piecesIds;
+  private Map<Integer, PieceIds>                      bigramsPiecesIds;
+  private int                                         deletedPieceCount;
+  private int []                                      piecesRanks;
+
+  /**
+   * Creates an index of the furniture of the given <code>catalog</code>.
+   */
+  public FurnitureCatalogSearchIndex(FurnitureCatalog catalog) {
+    this.catalog = catalog;
+    catalog.addFurnitureListener(new FurnitureCatalogListener(this));
+    buildIndex();
+  }
+
+  private void buildIndex() {
+    this.pieces = new ArrayList<CatalogPieceOfFurniture>();
+    this.piecesIds = new IdentityHashMap<CatalogPieceOfFurniture, Integer>();
+    // Bigrams will be computed at the first search that needs them
+    this.bigramsPiecesIds = null;
+    this.deletedPieceCount = 0;
+    this.piecesRanks = null;
+    for (FurnitureCategory category : this.catalog.getCategories()) {
+      for (CatalogPieceOfFurniture piece : category.getFurniture()) {
+        addPieceOfFurniture(piece);
+      }
+    }
+  }
+
+  private synchronized void addPieceOfFurniture(CatalogPieceOfFurniture piece) {
+    if (!this.piecesIds.containsKey(piece)) {
+      int pieceId = this.pieces.size();
+      this.pieces.add(piece);
+      this.piecesIds.put(piece, pieceId);
+      if (this.bigramsPiecesIds != null) {
+        addBigrams(piece, pieceId);
+      }
+      this.piecesRanks = null;
+    }
+  }
+
+  /**
+   * Stores piece id for each bigram found in its collation key, at even indices
+   * since each character of a collation key is encoded on two bytes.
+   */
+  private void addBigrams(CatalogPieceOfFurniture piece, int pieceId) {
+    byte [] collationKey = piece.getFilterCollationKey();
+    for (int i = 0, n = collationKey.length - 4; i + 4 <= n; i += 2) {
+      int bigram = getBigram(collationKey, i);
+      PieceIds bigramPiecesIds = this.bigramsPiecesIds.get(bigram);
+      if (bigramPiecesIds == null) {
+        bigramPiecesIds = new PieceIds();
+        this.bigramsPiecesIds.put(bigram, bigramPiecesIds);
+      }
+      bigramPiecesIds.add(pieceId);
+    }
+  }
+
+  private synchronized void deletePieceOfFurniture(CatalogPieceOfFurniture piece) {
+    Integer pieceId = this.piecesIds.remove(piece);
+    if (pieceId != null) {
+      // Keep the id of the deleted piece in bigrams until too many pieces were deleted
+      this.pieces.set(pieceId, null);
+      if (++this.deletedPieceCount > this.pieces.size() / 2) {
+        buildIndex();
+      } else {
+        this.piecesRanks = null;
+      }
+    }
+  }
+
+  private static int getBigram(byte [] collationKey, int index) {
+    return (collationKey [index] << 24)
+        | ((collationKey [index + 1] & 0xFF) << 16)
+        | ((collationKey [index + 2] & 0xFF) << 8)
+        | (collationKey [index + 3] & 0xFF);
+  }
+
+  /**
+   * Returns the pieces of the catalog which belong to the given <code>category</code> if it's not <code>null</code>
+   * and which match the given <code>filter</code>, sorted in the same order as pieces sorted by name.
+   */
+  public synchronized List<CatalogPieceOfFurniture> getFurniture(FurnitureCategory category, String filter) {
+    BitSet candidates = getCandidates(filter);
+    List<CatalogPieceOfFurniture> furniture = new ArrayList<CatalogPieceOfFurniture>();
+    for (int id = candidates != null ? candidates.nextSetBit(0) : 0;
+         id >= 0 && id < this.pieces.size();
+         id = candidates != null ? candidates.nextSetBit(id + 1) : id + 1) {
+      CatalogPieceOfFurniture piece = this.pieces.get(id);
+      if (piece != null
+          && (category == null || piece.getCategory().equals(category))
+          && piece.matchesFilter(filter)) {
+        furniture.add(piece);
+      }
+    }
+    final int [] piecesRanks = getPiecesRanks();
+    final Map<CatalogPieceOfFurniture, Integer> piecesIds = this.piecesIds;
+    Collections.sort(furniture, (piece1, piece2) ->
+        Integer.compare(piecesRanks [piecesIds.get(piece1)], piecesRanks [piecesIds.get(piece2)]));
+    return furniture;
+  }
+
+  /**
+   * Returns the pieces among the given <code>furniture</code> which belong to the given <code>category</code>
+   * if it's not <code>null</code> and which match the given <code>filter</code>, in the same order.
+   * This method is useful to refine the pieces found with a filter once some text was appended to it.
+   */
+  public synchronized List<CatalogPieceOfFurniture> getFurniture(List<CatalogPieceOfFurniture> furniture,
+                                                                 FurnitureCategory category, String filter) {
+    BitSet candidates = getCandidates(filter);
+    List<CatalogPieceOfFurniture> filteredFurniture = new ArrayList<CatalogPieceOfFurniture>();
+    for (CatalogPieceOfFurniture piece : furniture) {
+      Integer pieceId = this.piecesIds.get(piece);
+      if (pieceId != null
+          && (candidates == null || candidates.get(pieceId))
+          && (category == null || piece.getCategory().equals(category))
+          && piece.matchesFilter(filter)) {
+        filteredFurniture.add(piece);
+      }
+    }
+    return filteredFurniture;
+  }
+
+  /**
+   * Returns the rank of each piece in the list of catalog pieces sorted by name.
+   */
+  private int [] getPiecesRanks() {
+    if (this.piecesRanks == null) {
+      // Sort furniture as it was always sorted in furniture catalog list
+      List<CatalogPieceOfFurniture> sortedFurniture = new ArrayList<CatalogPieceOfFurniture>(this.piecesIds.size());
+      for (FurnitureCategory category : this.catalog.getCategories()) {
+        sortedFurniture.addAll(category.getFurniture());
+      }
+      Collections.sort(sortedFurniture);
+      this.piecesRanks = new int [this.pieces.size()];
+      for (int i = 0; i < sortedFurniture.size(); i++) {
+        Integer pieceId = this.piecesIds.get(sortedFurniture.get(i));
+        if (pieceId != null) {
+          this.piecesRanks [pieceId] = i;
+        }
+      }
+    }
+    return this.piecesRanks;
+  }
+
+  /**
+   * Returns the ids of the pieces which may match all the criteria of <code>filter</code>,
+   * or <code>null</code> if the filter criteria are too short to select pieces.
+   */
+  private BitSet getCandidates(String filter) {
+    BitSet candidates = null;
+    for (byte [] criterionCollationKey : CatalogPieceOfFurniture.getFilterCollationKeys(filter)) {
+      BitSet criterionCandidates = getCriterionCandidates(criterionCollationKey);
+      if (criterionCandidates != null) {
+        if (candidates == null) {
+          candidates = criterionCandidates;
+        } else {
+          candidates.and(criterionCandidates);
+        }
+      }
+    }
+    return candidates;
+  }
+
+  /**
+   * Returns the ids of the pieces which contain all the bigrams of the given criterion.
+   */
+  private BitSet getCriterionCandidates(byte [] criterionCollationKey) {
+    // Ignore the last 4 bytes of the collator key like in CatalogPieceOfFurniture#isSubCollationKey
+    int length = criterionCollationKey.length - 4;
+    if (length < 5) {
+      return null;
+    } else {
+      // As a criterion may match a piece key at an odd index, search the pieces containing
+      // the bigrams of the criterion starting at even indices, then the ones starting at odd indices
+      BitSet candidates = getBigramsCandidates(criterionCollationKey, 0, length);
+      candidates.or(getBigramsCandidates(criterionCollationKey, 1, length));
+      return candidates;
+    }
+  }
+
+  private BitSet getBigramsCandidates(byte [] criterionCollationKey, int start, int length) {
+    if (this.bigramsPiecesIds == null) {
+      this.bigramsPiecesIds = new HashMap<Integer, PieceIds>();
+      for (int id = 0; id < this.pieces.size(); id++) {
+        if (this.pieces.get(id) != null) {
+          addBigrams(this.pieces.get(id), id);
+        }
+      }
+    }
+    List<PieceIds> bigramsPiecesIds = new ArrayList<PieceIds>();
+    for (int i = start; i + 4 <= length; i += 2) {
+      PieceIds bigramPiecesIds = this.bigramsPiecesIds.get(getBigram(criterionCollationKey, i));
+      if (bigramPiecesIds == null) {
+        return new BitSet();
+      }
+      bigramsPiecesIds.add(bigramPiecesIds);
+    }
+    // Intersect pieces ids starting from the smallest set
+    Collections.sort(bigramsPiecesIds, (ids1, ids2) -> Integer.compare(ids1.size, ids2.size));
+    BitSet candidates = bigramsPiecesIds.get(0).toBitSet();
+    for (int i = 1; i < bigramsPiecesIds.size() && !candidates.isEmpty(); i++) {
+      candidates.and(bigramsPiecesIds.get(i).toBitSet());
+    }
+    return candidates;
+  }
+
+  /**
+   * A growing list of increasing piece ids.
+   */
+  private static class PieceIds {
+    private int [] ids = new int [4];
+    private int    size;
+
+    public void add(int id) {
+      // Ignore an id added twice for the same piece
+      if (this.size == 0 || this.ids [this.size - 1] != id) {
+        if (this.size == this.ids.length) {
+          this.ids = Arrays.copyOf(this.ids, this.size * 2);
+        }
+        this.ids [this.size++] = id;
+      }
+    }
+
+    public BitSet toBitSet() {
+      BitSet bitSet = new BitSet(this.ids [this.size - 1] + 1);
+      for (int i = 0; i < this.size; i++) {
+        bitSet.set(this.ids [i]);
+      }
+      return bitSet;
+    }
+  }
+
+  /**
+   * Catalog furniture listener bound to this index with a weak reference to avoid
+   * strong link between catalog and this index.
+   */
+  private static class FurnitureCatalogListener implements BatchCollectionListener<CatalogPieceOfFurniture> {
+    private WeakReference<FurnitureCatalogSearchIndex> index;
+
+    public FurnitureCatalogListener(FurnitureCatalogSearchIndex index) {
+      this.index = new WeakReference<FurnitureCatalogSearchIndex>(index);
+    }
+
+    public void collectionChanged(CollectionEvent<CatalogPieceOfFurniture> ev) {
+      // If index was garbage collected, remove this listener from catalog
+      FurnitureCatalogSearchIndex index = this.index.get();
+      if (index == null) {
+        ((FurnitureCatalog)ev.getSource()).removeFurnitureListener(this);
+      } else {
+        for (CatalogPieceOfFurniture piece : ev.getItems()) {
+          if (ev.getType() == CollectionEvent.Type.ADD) {
+            index.addPieceOfFurniture(piece);
+          } else if (ev.getType() == CollectionEvent.Type.DELETE) {
+            index.deletePieceOfFurniture(piece);
+          }
+        }
+      }
+    }
+  }
+}
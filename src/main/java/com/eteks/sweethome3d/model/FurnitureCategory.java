@@ -93,6 +93,35 @@ public class FurnitureCategory implements Comparable<FurnitureCategory> {
     this.furniture.add(index, piece);    
   }
 
+  /**
+   * Adds the given furniture sorted by name to this category, merging it
+   * with the existing furniture in a new list.
+   * @param furniture the pieces to add, sorted in their natural order.
+   * @return the indices of the added pieces in this category once all of them are added,
+   *         in ascending order.
+   */
+  int [] addAll(List<CatalogPieceOfFurniture> furniture) {
+    List<CatalogPieceOfFurniture> mergedFurniture = new ArrayList<>(this.furniture.size() + furniture.size());
+    int [] indices = new int [furniture.size()];
+    int i = 0;
+    for (CatalogPieceOfFurniture existingPiece : this.furniture) {
+      for ( ; i < indices.length && furniture.get(i).compareTo(existingPiece) < 0; i++) {
+        indices [i] = mergedFurniture.size();
+        mergedFurniture.add(furniture.get(i));
+      }
+      mergedFurniture.add(existingPiece);
+    }
+    for ( ; i < indices.length; i++) {
+      indices [i] = mergedFurniture.size();
+      mergedFurniture.add(furniture.get(i));
+    }
+    for (CatalogPieceOfFurniture piece : furniture) {
+      piece.setCategory(this);
+    }
+    this.furniture = mergedFurniture;
+    return indices;
+  }
+
   /**
    * Deletes a piece of furniture from this category.
    * @param piece the piece to remove.
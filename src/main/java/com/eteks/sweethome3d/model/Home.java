@@ -31,8 +31,11 @@ import java.util.Collection;
 import java.util.Collections;
 import java.util.Comparator;
 import java.util.HashMap;
+import java.util.IdentityHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
 
 /**
  * The home managed by the application with its furniture and walls.
@@ -584,36 +587,12 @@ public class Home implements Serializable, Cloneable {
   public void deleteLevel(Level level) {
     int index = this.levels.indexOf(level);
     if (index != -1) {
-      for (HomePieceOfFurniture piece : this.furniture) {
-        if (piece.getLevel() == level) {
-          deletePieceOfFurniture(piece);
-        }
-      }
-      for (Room room : this.rooms) {
-        if (room.getLevel() == level) {
-          deleteRoom(room);
-        }
-      }
-      for (Wall wall : this.walls) {
-        if (wall.getLevel() == level) {
-          deleteWall(wall);
-        }
-      }
-      for (Polyline polyline : this.polylines) {
-        if (polyline.getLevel() == level) {
-          deletePolyline(polyline);
-        }
-      }
-      for (DimensionLine dimensionLine : this.dimensionLines) {
-        if (dimensionLine.getLevel() == level) {
-          deleteDimensionLine(dimensionLine);
-        }
-      }
-      for (Label label : this.labels) {
-        if (label.getLevel() == level) {
-          deleteLabel(label);
-        }
-      }
+      deleteFurniture(getItemsAtLevel(this.furniture, level));
+      deleteRooms(getItemsAtLevel(this.rooms, level));
+      deleteWalls(getItemsAtLevel(this.walls, level));
+      deletePolylines(getItemsAtLevel(this.polylines, level));
+      deleteDimensionLines(getItemsAtLevel(this.dimensionLines, level));
+      deleteLabels(getItemsAtLevel(this.labels, level));
       if (this.selectedLevel == level) {
         if (this.levels.size() == 1) {
           setSelectedLevel(null);
@@ -629,6 +608,19 @@ public class Home implements Serializable, Cloneable {
     }
   }
 
+  /**
+   * Returns the items of the given list which belong to <code>level</code>.
+   */
+  private static <T extends Elevatable> List<T> getItemsAtLevel(List<T> items, Level level) {
+    List<T> levelItems = new ArrayList<>();
+    for (T item : items) {
+      if (item.getLevel() == level) {
+        levelItems.add(item);
+      }
+    }
+    return levelItems;
+  }
+
   /**
    * Returns the selected level in home or <code>null</code> if home has no level.
    * @since 3.4
@@ -720,6 +712,40 @@ public class Home implements Serializable, Cloneable {
     this.furnitureChangeSupport.fireCollectionChanged(piece, index, CollectionEvent.Type.ADD);
   }
 
+  /**
+   * Adds the given <code>furniture</code> at the end of the furniture list of this home.
+   * Once the furniture is added, furniture listeners added to this home will receive a single
+   * {@link CollectionListener#collectionChanged(CollectionEvent) collectionChanged}
+   * notification if they're {@link BatchCollectionListener batch listeners},
+   * or one notification per piece otherwise.
+   * @param furniture  the furniture to add
+   */
+  public void addFurniture(List<? extends HomePieceOfFurniture> furniture) {
+    addFurniture(furniture, null);
+  }
+
+  /**
+   * Adds the given <code>furniture</code> at the given <code>indices</code>,
+   * copying the furniture list only once.
+   * Once the furniture is added, furniture listeners added to this home will receive a single
+   * {@link CollectionListener#collectionChanged(CollectionEvent) collectionChanged}
+   * notification if they're {@link BatchCollectionListener batch listeners},
+   * or one notification per piece otherwise.
+   * @param furniture  the furniture to add
+   * @param indices    the indices in ascending order that each piece will have in the furniture
+   *                   list once added, or <code>null</code> to add furniture at the end of the list
+   */
+  public void addFurniture(List<? extends HomePieceOfFurniture> furniture, int [] indices) {
+    List<HomePieceOfFurniture> addedFurniture = new ArrayList<>(furniture);
+    indices = getAddedItemsIndices(this.furniture, addedFurniture, indices);
+    // Make a copy of the list to avoid conflicts in the list returned by getFurniture
+    this.furniture = getListWithAddedItems(this.furniture, addedFurniture, indices);
+    for (HomePieceOfFurniture piece : addedFurniture) {
+      piece.setLevel(this.selectedLevel);
+    }
+    this.furnitureChangeSupport.fireCollectionChanged(addedFurniture, indices, CollectionEvent.Type.ADD);
+  }
+
   /**
    * Adds the <code>piece</code> in parameter at the <code>index</code> in the given <code>group</code>.
    * Once the <code>piece</code> is added, furniture listeners added to this home will receive a
@@ -765,6 +791,41 @@ public class Home implements Serializable, Cloneable {
     }
   }
 
+  /**
+   * Deletes the given <code>furniture</code> from this home, copying the furniture list only once.
+   * Once the furniture is deleted, furniture listeners added to this home will receive a single
+   * {@link CollectionListener#collectionChanged(CollectionEvent) collectionChanged}
+   * notification if they're {@link BatchCollectionListener batch listeners},
+   * or one notification per piece otherwise.
+   * Pieces which belong to a group are deleted one by one as with
+   * {@link #deletePieceOfFurniture(HomePieceOfFurniture) deletePieceOfFurniture}.
+   * @param furniture  the furniture to remove
+   */
+  public void deleteFurniture(Collection<? extends HomePieceOfFurniture> furniture) {
+    // Ensure selectedItems don't keep a reference to furniture
+    deselectItems(furniture);
+    List<HomePieceOfFurniture> keptFurniture = new ArrayList<>(this.furniture.size());
+    List<HomePieceOfFurniture> deletedFurniture = new ArrayList<>();
+    int [] indices = splitItems(this.furniture, furniture, keptFurniture, deletedFurniture);
+    if (deletedFurniture.size() < furniture.size()) {
+      Set<HomePieceOfFurniture> deletedFurnitureSet = Collections.newSetFromMap(new IdentityHashMap<>());
+      deletedFurnitureSet.addAll(deletedFurniture);
+      for (HomePieceOfFurniture piece : furniture) {
+        if (!deletedFurnitureSet.contains(piece)) {
+          // Piece may belong to a group
+          deletePieceOfFurniture(piece);
+        }
+      }
+    }
+    if (!deletedFurniture.isEmpty()) {
+      for (HomePieceOfFurniture piece : deletedFurniture) {
+        piece.setLevel(null);
+      }
+      this.furniture = keptFurniture;
+      this.furnitureChangeSupport.fireCollectionChanged(deletedFurniture, indices, CollectionEvent.Type.DELETE);
+    }
+  }
+
   /**
    * Returns the furniture group that contains the given <code>piece</code> or <code>null</code>
    * if it can't be found.
@@ -842,6 +903,98 @@ public class Home implements Serializable, Cloneable {
     }
   }
 
+  /**
+   * Deselects the given <code>items</code> that are selected and notifies listeners selection change.
+   */
+  private void deselectItems(Collection<? extends Selectable> items) {
+    if (!this.selectedItems.isEmpty()) {
+      Set<Selectable> deselectedItems = Collections.newSetFromMap(new IdentityHashMap<>());
+      deselectedItems.addAll(items);
+      List<Selectable> selectedItems = new ArrayList<>(this.selectedItems.size());
+      for (Selectable item : this.selectedItems) {
+        if (!deselectedItems.contains(item)) {
+          selectedItems.add(item);
+        }
+      }
+      if (selectedItems.size() != this.selectedItems.size()) {
+        setSelectedItems(selectedItems);
+      }
+    }
+  }
+
+  /**
+   * Returns the indices that <code>addedItems</code> will have in <code>list</code>
+   * once added at the given <code>indices</code>, checking them if they're not <code>null</code>.
+   */
+  private static <T> int [] getAddedItemsIndices(List<T> list, List<T> addedItems, int [] indices) {
+    if (indices == null) {
+      indices = new int [addedItems.size()];
+      for (int i = 0; i < indices.length; i++) {
+        indices [i] = list.size() + i;
+      }
+    } else {
+      if (indices.length != addedItems.size()) {
+        throw new IllegalArgumentException("Items and indices count different");
+      }
+      for (int i = 0; i < indices.length; i++) {
+        if (indices [i] < i
+            || indices [i] - i > list.size()
+            || i > 0 && indices [i] <= indices [i - 1]) {
+          throw new IndexOutOfBoundsException("Index: " + indices [i] + ", Size: " + (list.size() + i));
+        }
+      }
+      indices = indices.clone();
+    }
+    return indices;
+  }
+
+  /**
+   * Returns a copy of <code>list</code> where <code>addedItems</code> are inserted
+   * at the given ascending <code>indices</code> of the returned list.
+   */
+  private static <T> List<T> getListWithAddedItems(List<T> list, List<T> addedItems, int [] indices) {
+    List<T> listWithAddedItems = new ArrayList<>(list.size() + addedItems.size());
+    int listIndex = 0;
+    for (int i = 0; i < indices.length; i++) {
+      while (listWithAddedItems.size() < indices [i]) {
+        listWithAddedItems.add(list.get(listIndex++));
+      }
+      listWithAddedItems.add(addedItems.get(i));
+    }
+    listWithAddedItems.addAll(list.subList(listIndex, list.size()));
+    return listWithAddedItems;
+  }
+
+  /**
+   * Splits the items of <code>list</code> in <code>keptItems</code> and <code>deletedItems</code>,
+   * where deleted items are the ones contained in <code>items</code> stored
+   * in the descending order of their index.
+   * @return the indices in <code>list</code> of the deleted items
+   */
+  private static <T> int [] splitItems(List<T> list, Collection<? extends T> items,
+                                       List<T> keptItems, List<T> deletedItems) {
+    Set<T> itemsSet = Collections.newSetFromMap(new IdentityHashMap<>());
+    itemsSet.addAll(items);
+    int [] indices = new int [Math.min(list.size(), itemsSet.size())];
+    int deletedItemCount = 0;
+    for (int i = 0; i < list.size(); i++) {
+      T item = list.get(i);
+      if (itemsSet.contains(item)) {
+        indices [deletedItemCount++] = i;
+        deletedItems.add(item);
+      } else {
+        keptItems.add(item);
+      }
+    }
+    // Notify deletions from the last item to keep indices valid if they're applied one after the other
+    Collections.reverse(deletedItems);
+    int [] deletedItemsIndices = new int [deletedItemCount];
+    for (int i = 0; i < deletedItemCount; i++) {
+      deletedItemsIndices [i] = indices [deletedItemCount - 1 - i];
+    }
+    return deletedItemsIndices;
+  }
+
   /**
    * Adds the room <code>listener</code> in parameter to this home.
    * @param listener the listener to add
@@ -894,6 +1047,40 @@ public class Home implements Serializable, Cloneable {
     this.roomsChangeSupport.fireCollectionChanged(room, index, CollectionEvent.Type.ADD);
   }
 
+  /**
+   * Adds the given <code>rooms</code> at the end of the rooms list of this home.
+   * Once the rooms are added, room listeners added to this home will receive a single
+   * {@link CollectionListener#collectionChanged(CollectionEvent) collectionChanged}
+   * notification if they're {@link BatchCollectionListener batch listeners},
+   * or one notification per room otherwise.
+   * @param rooms  the rooms to add
+   */
+  public void addRooms(List<? extends Room> rooms) {
+    addRooms(rooms, null);
+  }
+
+  /**
+   * Adds the given <code>rooms</code> at the given <code>indices</code>,
+   * copying the rooms list only once.
+   * Once the rooms are added, room listeners added to this home will receive a single
+   * {@link CollectionListener#collectionChanged(CollectionEvent) collectionChanged}
+   * notification if they're {@link BatchCollectionListener batch listeners},
+   * or one notification per room otherwise.
+   * @param rooms    the rooms to add
+   * @param indices  the indices in ascending order that each room will have in the rooms
+   *                 list once added, or <code>null</code> to add rooms at the end of the list
+   */
+  public void addRooms(List<? extends Room> rooms, int [] indices) {
+    List<Room> addedRooms = new ArrayList<>(rooms);
+    indices = getAddedItemsIndices(this.rooms, addedRooms, indices);
+    // Make a copy of the list to avoid conflicts in the list returned by getRooms
+    this.rooms = getListWithAddedItems(this.rooms, addedRooms, indices);
+    for (Room room : addedRooms) {
+      room.setLevel(this.selectedLevel);
+    }
+    this.roomsChangeSupport.fireCollectionChanged(addedRooms, indices, CollectionEvent.Type.ADD);
+  }
+
   /**
    * Removes the given <code>room</code> from the set of rooms of this home.
    * Once the <code>room</code> is removed, room listeners added to this home will receive a
@@ -915,6 +1102,29 @@ public class Home implements Serializable, Cloneable {
     }
   }
 
+  /**
+   * Removes the given <code>rooms</code> from this home, copying the rooms list only once.
+   * Once the rooms are removed, room listeners added to this home will receive a single
+   * {@link CollectionListener#collectionChanged(CollectionEvent) collectionChanged}
+   * notification if they're {@link BatchCollectionListener batch listeners},
+   * or one notification per room otherwise.
+   * @param rooms  the rooms to remove
+   */
+  public void deleteRooms(Collection<? extends Room> rooms) {
+    //  Ensure selectedItems don't keep a reference to rooms
+    deselectItems(rooms);
+    List<Room> keptRooms = new ArrayList<>(this.rooms.size());
+    List<Room> deletedRooms = new ArrayList<>();
+    int [] indices = splitItems(this.rooms, rooms, keptRooms, deletedRooms);
+    if (!deletedRooms.isEmpty()) {
+      for (Room room : deletedRooms) {
+        room.setLevel(null);
+      }
+      this.rooms = keptRooms;
+      this.roomsChangeSupport.fireCollectionChanged(deletedRooms, indices, CollectionEvent.Type.DELETE);
+    }
+  }
+
   /**
    * Adds the wall <code>listener</code> in parameter to this home.
    * @param listener the listener to add
@@ -954,6 +1164,28 @@ public class Home implements Serializable, Cloneable {
     this.wallsChangeSupport.fireCollectionChanged(wall, CollectionEvent.Type.ADD);
   }
 
+  /**
+   * Adds the given <code>walls</code> to the set of walls of this home,
+   * copying the walls list only once.
+   * Once the walls are added, wall listeners added to this home will receive a single
+   * {@link CollectionListener#collectionChanged(CollectionEvent) collectionChanged}
+   * notification if they're {@link BatchCollectionListener batch listeners},
+   * or one notification per wall otherwise.
+   * @param walls  the walls to add
+   */
+  public void addWalls(List<? extends Wall> walls) {
+    List<Wall> addedWalls = new ArrayList<>(walls);
+    // Make a copy of the list to avoid conflicts in the list returned by getWalls
+    List<Wall> homeWalls = new ArrayList<>(this.walls.size() + addedWalls.size());
+    homeWalls.addAll(this.walls);
+    homeWalls.addAll(addedWalls);
+    this.walls = homeWalls;
+    for (Wall wall : addedWalls) {
+      wall.setLevel(this.selectedLevel);
+    }
+    this.wallsChangeSupport.fireCollectionChanged(addedWalls, null, CollectionEvent.Type.ADD);
+  }
+
   /**
    * Removes the given <code>wall</code> from the set of walls of this home.
    * Once the <code>wall</code> is removed, wall listeners added to this home will receive a
@@ -984,6 +1216,42 @@ public class Home implements Serializable, Cloneable {
     }
   }
 
+  /**
+   * Removes the given <code>walls</code> from the set of walls of this home,
+   * copying the walls list only once.
+   * Once the walls are removed, wall listeners added to this home will receive a single
+   * {@link CollectionListener#collectionChanged(CollectionEvent) collectionChanged}
+   * notification if they're {@link BatchCollectionListener batch listeners},
+   * or one notification per wall otherwise.
+   * Walls attached to the removed walls will be detached from them.
+   * @param walls  the walls to remove
+   */
+  public void deleteWalls(Collection<? extends Wall> walls) {
+    //  Ensure selectedItems don't keep a reference to walls
+    deselectItems(walls);
+    Set<Wall> deletedWallsSet = Collections.newSetFromMap(new IdentityHashMap<>());
+    deletedWallsSet.addAll(walls);
+    // Detach any other wall attached to deleted walls
+    for (Wall otherWall : getWalls()) {
+      if (deletedWallsSet.contains(otherWall.getWallAtStart())) {
+        otherWall.setWallAtStart(null);
+      }
+      if (deletedWallsSet.contains(otherWall.getWallAtEnd())) {
+        otherWall.setWallAtEnd(null);
+      }
+    }
+    List<Wall> keptWalls = new ArrayList<>(this.walls.size());
+    List<Wall> deletedWalls = new ArrayList<>();
+    splitItems(this.walls, deletedWallsSet, keptWalls, deletedWalls);
+    if (!deletedWalls.isEmpty()) {
+      for (Wall wall : deletedWalls) {
+        wall.setLevel(null);
+      }
+      this.walls = keptWalls;
+      this.wallsChangeSupport.fireCollectionChanged(deletedWalls, null, CollectionEvent.Type.DELETE);
+    }
+  }
+
   /**
    * Adds the polyline <code>listener</code> in parameter to this home.
    * @param listener the listener to add
@@ -1041,6 +1309,40 @@ public class Home implements Serializable, Cloneable {
     this.polylinesChangeSupport.fireCollectionChanged(polyline, CollectionEvent.Type.ADD);
   }
 
+  /**
+   * Adds the given <code>polylines</code> at the end of the polylines list of this home.
+   * Once the polylines are added, polyline listeners added to this home will receive a single
+   * {@link CollectionListener#collectionChanged(CollectionEvent) collectionChanged}
+   * notification if they're {@link BatchCollectionListener batch listeners},
+   * or one notification per polyline otherwise.
+   * @param polylines  the polylines to add
+   */
+  public void addPolylines(List<? extends Polyline> polylines) {
+    addPolylines(polylines, null);
+  }
+
+  /**
+   * Adds the given <code>polylines</code> at the given <code>indices</code>,
+   * copying the polylines list only once.
+   * Once the polylines are added, polyline listeners added to this home will receive a single
+   * {@link CollectionListener#collectionChanged(CollectionEvent) collectionChanged}
+   * notification if they're {@link BatchCollectionListener batch listeners},
+   * or one notification per polyline otherwise.
+   * @param polylines  the polylines to add
+   * @param indices    the indices in ascending order that each polyline will have in the polylines
+   *                   list once added, or <code>null</code> to add polylines at the end of the list
+   */
+  public void addPolylines(List<? extends Polyline> polylines, int [] indices) {
+    List<Polyline> addedPolylines = new ArrayList<>(polylines);
+    indices = getAddedItemsIndices(this.polylines, addedPolylines, indices);
+    // Make a copy of the list to avoid conflicts in the list returned by getPolylines
+    this.polylines = getListWithAddedItems(this.polylines, addedPolylines, indices);
+    for (Polyline polyline : addedPolylines) {
+      polyline.setLevel(this.selectedLevel);
+    }
+    this.polylinesChangeSupport.fireCollectionChanged(addedPolylines, null, CollectionEvent.Type.ADD);
+  }
+
   /**
    * Removes a given <code>polyline</code> from the set of polylines of this home.
    * Once the <code>polyline</code> is removed, polyline listeners added to this home will receive a
@@ -1063,6 +1365,29 @@ public class Home implements Serializable, Cloneable {
     }
   }
 
+  /**
+   * Removes the given <code>polylines</code> from this home, copying the polylines list only once.
+   * Once the polylines are removed, polyline listeners added to this home will receive a single
+   * {@link CollectionListener#collectionChanged(CollectionEvent) collectionChanged}
+   * notification if they're {@link BatchCollectionListener batch listeners},
+   * or one notification per polyline otherwise.
+   * @param polylines  the polylines to remove
+   */
+  public void deletePolylines(Collection<? extends Polyline> polylines) {
+    //  Ensure selectedItems don't keep a reference to polylines
+    deselectItems(polylines);
+    List<Polyline> keptPolylines = new ArrayList<>(this.polylines.size());
+    List<Polyline> deletedPolylines = new ArrayList<>();
+    splitItems(this.polylines, polylines, keptPolylines, deletedPolylines);
+    if (!deletedPolylines.isEmpty()) {
+      for (Polyline polyline : deletedPolylines) {
+        polyline.setLevel(null);
+      }
+      this.polylines = keptPolylines;
+      this.polylinesChangeSupport.fireCollectionChanged(deletedPolylines, null, CollectionEvent.Type.DELETE);
+    }
+  }
+
   /**
    * Adds the dimension line <code>listener</code> in parameter to this home.
    * @param listener the listener to add
@@ -1103,6 +1428,28 @@ public class Home implements Serializable, Cloneable {
     this.dimensionLinesChangeSupport.fireCollectionChanged(dimensionLine, CollectionEvent.Type.ADD);
   }
 
+  /**
+   * Adds the given dimension lines to the set of dimension lines of this home,
+   * copying the dimension lines list only once.
+   * Once the dimension lines are added, dimension line listeners added to this home will receive a single
+   * {@link CollectionListener#collectionChanged(CollectionEvent) collectionChanged}
+   * notification if they're {@link BatchCollectionListener batch listeners},
+   * or one notification per dimension line otherwise.
+   * @param dimensionLines  the dimension lines to add
+   */
+  public void addDimensionLines(List<? extends DimensionLine> dimensionLines) {
+    List<DimensionLine> addedDimensionLines = new ArrayList<>(dimensionLines);
+    // Make a copy of the list to avoid conflicts in the list returned by getDimensionLines
+    List<DimensionLine> homeDimensionLines = new ArrayList<>(this.dimensionLines.size() + addedDimensionLines.size());
+    homeDimensionLines.addAll(this.dimensionLines);
+    homeDimensionLines.addAll(addedDimensionLines);
+    this.dimensionLines = homeDimensionLines;
+    for (DimensionLine dimensionLine : addedDimensionLines) {
+      dimensionLine.setLevel(this.selectedLevel);
+    }
+    this.dimensionLinesChangeSupport.fireCollectionChanged(addedDimensionLines, null, CollectionEvent.Type.ADD);
+  }
+
   /**
    * Removes the given dimension line from the set of dimension lines of this home.
    * Once <code>dimensionLine</code> is removed, dimension line listeners added
@@ -1125,6 +1472,30 @@ public class Home implements Serializable, Cloneable {
     }
   }
 
+  /**
+   * Removes the given dimension lines from the set of dimension lines of this home,
+   * copying the dimension lines list only once.
+   * Once the dimension lines are removed, dimension line listeners added to this home will receive a single
+   * {@link CollectionListener#collectionChanged(CollectionEvent) collectionChanged}
+   * notification if they're {@link BatchCollectionListener batch listeners},
+   * or one notification per dimension line otherwise.
+   * @param dimensionLines  the dimension lines to remove
+   */
+  public void deleteDimensionLines(Collection<? extends DimensionLine> dimensionLines) {
+    //  Ensure selectedItems don't keep a reference to dimension lines
+    deselectItems(dimensionLines);
+    List<DimensionLine> keptDimensionLines = new ArrayList<>(this.dimensionLines.size());
+    List<DimensionLine> deletedDimensionLines = new ArrayList<>();
+    splitItems(this.dimensionLines, dimensionLines, keptDimensionLines, deletedDimensionLines);
+    if (!deletedDimensionLines.isEmpty()) {
+      for (DimensionLine dimensionLine : deletedDimensionLines) {
+        dimensionLine.setLevel(null);
+      }
+      this.dimensionLines = keptDimensionLines;
+      this.dimensionLinesChangeSupport.fireCollectionChanged(deletedDimensionLines, null, CollectionEvent.Type.DELETE);
+    }
+  }
+
   /**
    * Adds the label <code>listener</code> in parameter to this home.
    * @param listener the listener to add
@@ -1165,6 +1536,27 @@ public class Home implements Serializable, Cloneable {
     this.labelsChangeSupport.fireCollectionChanged(label, CollectionEvent.Type.ADD);
   }
 
+  /**
+   * Adds the given labels to the set of labels of this home, copying the labels list only once.
+   * Once the labels are added, label listeners added to this home will receive a single
+   * {@link CollectionListener#collectionChanged(CollectionEvent) collectionChanged}
+   * notification if they're {@link BatchCollectionListener batch listeners},
+   * or one notification per label otherwise.
+   * @param labels  the labels to add
+   */
+  public void addLabels(List<? extends Label> labels) {
+    List<Label> addedLabels = new ArrayList<>(labels);
+    // Make a copy of the list to avoid conflicts in the list returned by getLabels
+    List<Label> homeLabels = new ArrayList<>(this.labels.size() + addedLabels.size());
+    homeLabels.addAll(this.labels);
+    homeLabels.addAll(addedLabels);
+    this.labels = homeLabels;
+    for (Label label : addedLabels) {
+      label.setLevel(this.selectedLevel);
+    }
+    this.labelsChangeSupport.fireCollectionChanged(addedLabels, null, CollectionEvent.Type.ADD);
+  }
+
   /**
    * Removes the given label from the set of labels of this home.
    * Once <code>label</code> is removed, label listeners added to this home will receive a
@@ -1186,6 +1578,29 @@ public class Home implements Serializable, Cloneable {
     }
   }
 
+  /**
+   * Removes the given labels from the set of labels of this home, copying the labels list only once.
+   * Once the labels are removed, label listeners added to this home will receive a single
+   * {@link CollectionListener#collectionChanged(CollectionEvent) collectionChanged}
+   * notification if they're {@link BatchCollectionListener batch listeners},
+   * or one notification per label otherwise.
+   * @param labels  the labels to remove
+   */
+  public void deleteLabels(Collection<? extends Label> labels) {
+    //  Ensure selectedItems don't keep a reference to labels
+    deselectItems(labels);
+    List<Label> keptLabels = new ArrayList<>(this.labels.size());
+    List<Label> deletedLabels = new ArrayList<>();
+    splitItems(this.labels, labels, keptLabels, deletedLabels);
+    if (!deletedLabels.isEmpty()) {
+      for (Label label : deletedLabels) {
+        label.setLevel(null);
+      }
+      this.labels = keptLabels;
+      this.labelsChangeSupport.fireCollectionChanged(deletedLabels, null, CollectionEvent.Type.DELETE);
+    }
+  }
+
   /**
    * Returns all the selectable and viewable items in this home, except the observer camera.
    * @return a list containing viewable walls, furniture, dimension lines, labels and compass.
@@ -1672,31 +2087,76 @@ public class Home implements Serializable, Cloneable {
     }
   }
 
+  /**
+   * Returns a copy of this home that contains the copies of its items returned by <code>itemCopies</code>.
+   * The returned home doesn't listen to its items, in such a way these copies may be shared 
+   * with other copies of this home, as long as none of them is modified.
+   * @param itemCopies a function that returns the copy of the items, levels, cameras, environment
+   *            and compass of this home, already bound to the copies of their level and joined walls
+   */
+  Home clone(Function<Object, Object> itemCopies) {
+    try {
+      Home clone = (Home)super.clone();
+      copyHomeProperties(this, clone);
+      clone.furniture = copyItems(this.furniture, itemCopies);
+      clone.walls = copyItems(this.walls, itemCopies);
+      clone.rooms = copyItems(this.rooms, itemCopies);
+      clone.polylines = copyItems(this.polylines, itemCopies);
+      clone.dimensionLines = copyItems(this.dimensionLines, itemCopies);
+      clone.labels = copyItems(this.labels, itemCopies);
+      clone.levels = copyItems(this.levels, itemCopies);
+      clone.selectedLevel = this.selectedLevel != null
+          ? (Level)itemCopies.apply(this.selectedLevel)
+          : null;
+      clone.selectedItems = new ArrayList<>(this.selectedItems.size());
+      for (Selectable item : this.selectedItems) {
+        Selectable itemCopy = (Selectable)itemCopies.apply(item);
+        if (itemCopy != null) {
+          clone.selectedItems.add(itemCopy);
+        }
+      }
+      clone.observerCamera = (ObserverCamera)itemCopies.apply(this.observerCamera);
+      clone.topCamera = (Camera)itemCopies.apply(this.topCamera);
+      clone.camera = this.camera == this.observerCamera
+          ? clone.observerCamera
+          : clone.topCamera;
+      clone.storedCameras = new ArrayList<>(this.storedCameras.size());
+      for (Camera camera : this.storedCameras) {
+        clone.storedCameras.add(camera.clone());
+      }
+      clone.environment = (HomeEnvironment)itemCopies.apply(this.environment);
+      clone.compass = (Compass)itemCopies.apply(this.compass);
+      clone.furnitureVisibleProperties = new ArrayList<>(this.furnitureVisibleProperties);
+      clone.visualProperties = new HashMap<>(this.visualProperties);
+      clone.properties = new HashMap<>(this.properties);
+      initListenersSupport(clone);
+      return clone;
+    } catch (CloneNotSupportedException ex) {
+      throw new IllegalStateException("Super class isn't cloneable");
+    }
+  }
+
+  @SuppressWarnings("unchecked")
+  private static <T> List<T> copyItems(List<T> items, Function<Object, Object> itemCopies) {
+    List<T> copies = new ArrayList<>(items.size());
+    for (T item : items) {
+      copies.add((T)itemCopies.apply(item));
+    }
+    return copies;
+  }
+
   /**
    * Copies all data of a <code>source</code> home to a <code>destination</code> home.
    */
   private static void copyHomeData(Home source, Home destination) {
-    // Copy non mutable data
-    destination.allLevelsSelection = source.allLevelsSelection;
-    destination.name = source.name;
-    destination.modified = source.modified;
-    destination.recovered = source.recovered;
-    destination.repaired = source.repaired;
-    destination.backgroundImage = source.backgroundImage;
-    destination.print = source.print;
-    destination.furnitureDescendingSorted = source.furnitureDescendingSorted;
-    destination.version = source.version;
-    destination.basePlanLocked = source.basePlanLocked;
-    destination.skyColor = source.skyColor;
-    destination.groundColor = source.groundColor;
-    destination.lightColor = source.lightColor;
-    destination.wallsAlpha = source.wallsAlpha;
-    destination.furnitureSortedProperty = source.furnitureSortedProperty;
+    copyHomeProperties(source, destination);
 
     // Deep copy selectable items
+    Set<Selectable> sourceSelectedItems = Collections.newSetFromMap(new IdentityHashMap<>());
+    sourceSelectedItems.addAll(source.selectedItems);
     destination.selectedItems = new ArrayList<>(source.selectedItems.size());
     destination.furniture = cloneSelectableItems(
-        source.furniture, source.selectedItems, destination.selectedItems);
+        source.furniture, sourceSelectedItems, destination.selectedItems);
     for (int i = 0; i < source.furniture.size(); i++) {
       HomePieceOfFurniture piece = source.furniture.get(i);
       if (piece instanceof HomeDoorOrWindow
@@ -1704,25 +2164,28 @@ public class Home implements Serializable, Cloneable {
         ((HomeDoorOrWindow)destination.furniture.get(i)).setBoundToWall(true);
       }
     }
-    destination.rooms = cloneSelectableItems(source.rooms, source.selectedItems, destination.selectedItems);
+    destination.rooms = cloneSelectableItems(source.rooms, sourceSelectedItems, destination.selectedItems);
     destination.dimensionLines = cloneSelectableItems(
-        source.dimensionLines, source.selectedItems, destination.selectedItems);
+        source.dimensionLines, sourceSelectedItems, destination.selectedItems);
     destination.polylines = cloneSelectableItems(
-        source.polylines, source.selectedItems, destination.selectedItems);
-    destination.labels = cloneSelectableItems(source.labels, source.selectedItems, destination.selectedItems);
+        source.polylines, sourceSelectedItems, destination.selectedItems);
+    destination.labels = cloneSelectableItems(source.labels, sourceSelectedItems, destination.selectedItems);
     // Deep copy walls
     destination.walls = Wall.clone(source.walls);
     for (int i = 0; i < source.walls.size(); i++) {
       Wall wall = source.walls.get(i);
-      if (source.selectedItems.contains(wall)) {
+      if (sourceSelectedItems.contains(wall)) {
         destination.selectedItems.add(destination.walls.get(i));
       }
     }
     // Clone levels and set the level of cloned objects
     destination.levels = new ArrayList<>();
     if (source.levels.size() > 0) {
+      Map<Level, Level> levelCopies = new IdentityHashMap<>();
       for (Level level : source.levels) {
-        destination.levels.add(level.clone());
+        Level levelCopy = level.clone();
+        destination.levels.add(levelCopy);
+        levelCopies.put(level, levelCopy);
       }
       for (int i = 0; i < source.furniture.size(); i++) {
         Level pieceLevel = source.furniture.get(i).getLevel();
@@ -1730,41 +2193,41 @@ public class Home implements Serializable, Cloneable {
           // As soon as there's more than one level, every object is supposed to have its level set
           // but as level can still be null for a undetermined reason, prefer to keep level
           // to null in the cloned object and having errors further than throwing exception here
-          destination.furniture.get(i).setLevel(destination.levels.get(source.levels.indexOf(pieceLevel)));
+          destination.furniture.get(i).setLevel(levelCopies.get(pieceLevel));
         }
       }
       for (int i = 0; i < source.rooms.size(); i++) {
         Level roomLevel = source.rooms.get(i).getLevel();
         if (roomLevel != null) {
-          destination.rooms.get(i).setLevel(destination.levels.get(source.levels.indexOf(roomLevel)));
+          destination.rooms.get(i).setLevel(levelCopies.get(roomLevel));
         }
       }
       for (int i = 0; i < source.dimensionLines.size(); i++) {
         Level dimensionLineLevel = source.dimensionLines.get(i).getLevel();
         if (dimensionLineLevel != null) {
-          destination.dimensionLines.get(i).setLevel(destination.levels.get(source.levels.indexOf(dimensionLineLevel)));
+          destination.dimensionLines.get(i).setLevel(levelCopies.get(dimensionLineLevel));
         }
       }
       for (int i = 0; i < source.polylines.size(); i++) {
         Level polylineLevel = source.polylines.get(i).getLevel();
         if (polylineLevel != null) {
-          destination.polylines.get(i).setLevel(destination.levels.get(source.levels.indexOf(polylineLevel)));
+          destination.polylines.get(i).setLevel(levelCopies.get(polylineLevel));
         }
       }
       for (int i = 0; i < source.labels.size(); i++) {
         Level labelLevel = source.labels.get(i).getLevel();
         if (labelLevel != null) {
-          destination.labels.get(i).setLevel(destination.levels.get(source.levels.indexOf(labelLevel)));
+          destination.labels.get(i).setLevel(levelCopies.get(labelLevel));
         }
       }
       for (int i = 0; i < source.walls.size(); i++) {
         Level wallLevel = source.walls.get(i).getLevel();
         if (wallLevel != null) {
-          destination.walls.get(i).setLevel(destination.levels.get(source.levels.indexOf(wallLevel)));
+          destination.walls.get(i).setLevel(levelCopies.get(wallLevel));
         }
       }
       if (source.selectedLevel != null) {
-        destination.selectedLevel = destination.levels.get(source.levels.indexOf(source.selectedLevel));
+        destination.selectedLevel = levelCopies.get(source.selectedLevel);
       }
     }
     // Copy cameras
@@ -1772,7 +2235,7 @@ public class Home implements Serializable, Cloneable {
     destination.topCamera = source.topCamera.clone();
     if (source.camera == source.observerCamera) {
       destination.camera = destination.observerCamera;
-      if (source.selectedItems.contains(source.observerCamera)) {
+      if (sourceSelectedItems.contains(source.observerCamera)) {
         destination.selectedItems.add(destination.observerCamera);
       }
     } else {
@@ -1791,6 +2254,27 @@ public class Home implements Serializable, Cloneable {
     destination.properties = new HashMap<>(source.properties);
   }
 
+  /**
+   * Copies the non mutable data of a <code>source</code> home to a <code>destination</code> home.
+   */
+  private static void copyHomeProperties(Home source, Home destination) {
+    destination.allLevelsSelection = source.allLevelsSelection;
+    destination.name = source.name;
+    destination.modified = source.modified;
+    destination.recovered = source.recovered;
+    destination.repaired = source.repaired;
+    destination.backgroundImage = source.backgroundImage;
+    destination.print = source.print;
+    destination.furnitureDescendingSorted = source.furnitureDescendingSorted;
+    destination.version = source.version;
+    destination.basePlanLocked = source.basePlanLocked;
+    destination.skyColor = source.skyColor;
+    destination.groundColor = source.groundColor;
+    destination.lightColor = source.lightColor;
+    destination.wallsAlpha = source.wallsAlpha;
+    destination.furnitureSortedProperty = source.furnitureSortedProperty;
+  }
+
   /**
    * Returns the list of cloned items in <code>source</code>.
    * If a cloned item is selected its clone will be selected too (ie added to
@@ -1798,7 +2282,7 @@ public class Home implements Serializable, Cloneable {
    */
   @SuppressWarnings("unchecked")
   private static <T extends Selectable> List<T> cloneSelectableItems(List<T> source,
-                                                                     List<Selectable> sourceSelectedItems,
+                                                                     Set<Selectable> sourceSelectedItems,
                                                                      List<Selectable> destinationSelectedItems) {
     List<T> destination = new ArrayList<>(source.size());
     for (T item : source) {
@@ -90,6 +90,8 @@ public abstract class HomeApplication {
       this.homes = new ArrayList<>(this.homes);
       this.homes.remove(index);
       this.homesChangeSupport.fireCollectionChanged(home, index, CollectionEvent.Type.DELETE);
+      // Stop to track the changes of the deleted home once its listeners were notified
+      HomeSnapshot.disposeInstance(home);
     }
   }
 
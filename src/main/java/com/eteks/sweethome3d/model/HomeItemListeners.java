@@ -0,0 +1,94 @@
+/*
+ * HomeItemListeners.java 18 oct. 2026
+ *
+ * Sweet Home 3D, Copyright (c) 2026 Emmanuel PUYBARET / eTeks <info@eteks.com>
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation; either version 2 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA  02111-1307  USA
+ */
+package com.eteks.sweethome3d.model;
+
+import java.beans.PropertyChangeListener;
+
+/**
+ * Helper methods to listen to the property changes of the items stored in a home,
+ * which classes don't share a common listener interface.
+ * @author Emmanuel Puybaret
+ */
+public final class HomeItemListeners {
+  private HomeItemListeners() {
+    // This class contains only static methods
+  }
+
+  /**
+   * Adds the property change <code>listener</code> to the given home <code>item</code>,
+   * either a piece of furniture, a wall, a room, a polyline, a dimension line, a label,
+   * a level, a camera, a compass or the environment of a home.
+   * The pieces of a furniture group aren't listened.
+   */
+  public static void addPropertyChangeListener(Object item, PropertyChangeListener listener) {
+    if (item instanceof HomePieceOfFurniture) {
+      ((HomePieceOfFurniture)item).addPropertyChangeListener(listener);
+    } else if (item instanceof Wall) {
+      ((Wall)item).addPropertyChangeListener(listener);
+    } else if (item instanceof Room) {
+      ((Room)item).addPropertyChangeListener(listener);
+    } else if (item instanceof Polyline) {
+      ((Polyline)item).addPropertyChangeListener(listener);
+    } else if (item instanceof DimensionLine) {
+      ((DimensionLine)item).addPropertyChangeListener(listener);
+    } else if (item instanceof Label) {
+      ((Label)item).addPropertyChangeListener(listener);
+    } else if (item instanceof Level) {
+      ((Level)item).addPropertyChangeListener(listener);
+    } else if (item instanceof Camera) {
+      ((Camera)item).addPropertyChangeListener(listener);
+    } else if (item instanceof Compass) {
+      ((Compass)item).addPropertyChangeListener(listener);
+    } else if (item instanceof HomeEnvironment) {
+      for (HomeEnvironment.Property property : HomeEnvironment.Property.values()) {
+        ((HomeEnvironment)item).addPropertyChangeListener(property, listener);
+      }
+    }
+  }
+
+  /**
+   * Removes the property change <code>listener</code> from the given home <code>item</code>.
+   */
+  public static void removePropertyChangeListener(Object item, PropertyChangeListener listener) {
+    if (item instanceof HomePieceOfFurniture) {
+      ((HomePieceOfFurniture)item).removePropertyChangeListener(listener);
+    } else if (item instanceof Wall) {
+      ((Wall)item).removePropertyChangeListener(listener);
+    } else if (item instanceof Room) {
+      ((Room)item).removePropertyChangeListener(listener);
+    } else if (item instanceof Polyline) {
+      ((Polyline)item).removePropertyChangeListener(listener);
+    } else if (item instanceof DimensionLine) {
+      ((DimensionLine)item).removePropertyChangeListener(listener);
+    } else if (item instanceof Label) {
+      ((Label)item).removePropertyChangeListener(listener);
+    } else if (item instanceof Level) {
+      ((Level)item).removePropertyChangeListener(listener);
+    } else if (item instanceof Camera) {
+      ((Camera)item).removePropertyChangeListener(listener);
+    } else if (item instanceof Compass) {
+      ((Compass)item).removePropertyChangeListener(listener);
+    } else if (item instanceof HomeEnvironment) {
+      for (HomeEnvironment.Property property : HomeEnvironment.Property.values()) {
+        ((HomeEnvironment)item).removePropertyChangeListener(property, listener);
+      }
+    }
+  }
+}
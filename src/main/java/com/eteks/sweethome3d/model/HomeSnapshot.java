@@ -0,0 +1,431 @@
+/*
+ * HomeSnapshot.java 18 oct. 2026
+ *
+ * Sweet Home 3D, Copyright (c) 2026 Emmanuel PUYBARET / eTeks <info@eteks.com>
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation; either version 2 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA  02111-1307  USA
+ */
+package com.eteks.sweethome3d.model;
+
+import java.beans.PropertyChangeListener;
+import java.lang.ref.WeakReference;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.WeakHashMap;
+
+/**
+ * A tracker of the changes of a home able to take snapshots of this home at a low cost.
+ * A snapshot is a copy of home which shares with the previous snapshot the copies
+ * of the items that weren't modified in the meantime. Only the items modified, added,
+ * or bound to a modified level or to a modified wall are copied again.<br>
+ * The changes of items are tracked with their property change listeners and the ones of home lists 
+ * with collection listeners, like in {@link Home#clone() home clone} the data of home that 
+ * don't notify listeners like its properties are copied at each snapshot.<br>
+ * Snapshots give a consistent view of home to the tasks run in background, at a cost proportional
+ * to the count of items of home for the references to their copies, and to the count of items 
+ * changed since the previous snapshot for the copies themselves.<br>
+ * As the items of a snapshot may be shared with other snapshots, the items of snapshots must not be modified, 
+ * nor listened since they never change. Their home may be modified, to change its selection or its camera
+ * for example, because each snapshot is a different <code>Home</code> instance.
+ * The methods of this class must be called from the thread where home is modified.
+ * @author Emmanuel Puybaret
+ */
+public class HomeSnapshot {
+  private static final Map<Home, WeakReference<HomeSnapshot>> instances = new WeakHashMap<>();
+  private static final Set<Home> snapshots = Collections.newSetFromMap(new WeakHashMap<Home, Boolean>());
+
+  private final Home                                home;
+  // The top level items of home and the listeners tracking their changes
+  private final Map<Object, PropertyChangeListener> itemListeners  = new IdentityHashMap<>();
+  // The pieces of the tracked groups, used to detect changes in groups 
+  private final Map<HomeFurnitureGroup, List<HomePieceOfFurniture>> groupsFurniture = new IdentityHashMap<>();
+  // The copies of home items, pieces of groups included
+  private final Map<Object, Object>                 copies         = new IdentityHashMap<>();
+  private final Set<Object>                         modifiedItems  = Collections.newSetFromMap(new IdentityHashMap<>());
+  private final CollectionListener<Object>          listsListener;
+  private final PropertyChangeListener              homeListener;
+  private boolean                                   listsModified;
+  private boolean                                   groupsModified;
+  private long                                      modificationCount;
+  private long                                      copiesModificationCount = -1;
+
+  /**
+   * Creates a tracker of the changes of the given <code>home</code>.
+   * As this constructor adds listeners to home and its items, it should be invoked
+   * from the thread where home is modified.
+   */
+  public HomeSnapshot(Home home) {
+    this.home = home;
+    this.listsListener = ev -> {
+      if (ev.getIndex() == -1 && ev.getItem() instanceof HomePieceOfFurniture) {
+        // A piece was added to or deleted from a group
+        this.groupsModified = true;
+      }
+      this.listsModified = true;
+      this.modificationCount++;
+    };
+    home.addLevelsListener(this.<Level>getListsListener());
+    home.addFurnitureListener(this.<HomePieceOfFurniture>getListsListener());
+    home.addWallsListener(this.<Wall>getListsListener());
+    home.addRoomsListener(this.<Room>getListsListener());
+    home.addPolylinesListener(this.<Polyline>getListsListener());
+    home.addDimensionLinesListener(this.<DimensionLine>getListsListener());
+    home.addLabelsListener(this.<Label>getListsListener());
+    this.homeListener = ev -> this.modificationCount++;
+    for (Home.Property property : Home.Property.values()) {
+      home.addPropertyChangeListener(property, this.homeListener);
+    }
+    updateTrackedItems();
+  }
+
+  /**
+   * Returns the tracker of the changes of <code>home</code> shared by all the users of this home.
+   * Must be called from the thread where home is modified.
+   */
+  public static HomeSnapshot getInstance(Home home) {
+    synchronized (instances) {
+      // Instances are referenced by the listeners they add to their home,
+      // and weakly by this map to let homes be garbage collected
+      WeakReference<HomeSnapshot> reference = instances.get(home);
+      HomeSnapshot snapshot = reference != null ? reference.get() : null;
+      if (snapshot == null) {
+        snapshot = new HomeSnapshot(home);
+        instances.put(home, new WeakReference<>(snapshot));
+      }
+      return snapshot;
+    }
+  }
+
+  /**
+   * Disposes the tracker of the changes of <code>home</code> shared by the users of this home if it exists.
+   * Must be called from the thread where home is modified.
+   */
+  public static void disposeInstance(Home home) {
+    HomeSnapshot snapshot;
+    synchronized (instances) {
+      WeakReference<HomeSnapshot> reference = instances.remove(home);
+      snapshot = reference != null ? reference.get() : null;
+    }
+    if (snapshot != null) {
+      snapshot.dispose();
+    }
+  }
+
+  /**
+   * Returns <code>true</code> if the given <code>home</code> is a snapshot
+   * returned by {@link #getHome()}, which items never change.
+   */
+  public static boolean isSnapshot(Home home) {
+    synchronized (snapshots) {
+      return snapshots.contains(home);
+    }
+  }
+
+  @SuppressWarnings("unchecked")
+  private <T> CollectionListener<T> getListsListener() {
+    return (CollectionListener<T>)(CollectionListener<?>)this.listsListener;
+  }
+
+  /**
+   * Returns the tracked home.
+   */
+  public Home getTrackedHome() {
+    return this.home;
+  }
+
+  /**
+   * Returns a counter incremented each time the tracked home or one of its items notified a change.
+   * Changes that aren't notified to listeners, like the ones of home properties, aren't counted.
+   */
+  public long getModificationCount() {
+    return this.modificationCount;
+  }
+
+  /**
+   * Returns a new snapshot of the tracked home, which may be used out of the thread where home 
+   * is modified. The snapshot shares the copies of the items that didn't change 
+   * with the previous snapshot.
+   */
+  public Home getHome() {
+    if (this.copiesModificationCount != this.modificationCount) {
+      if (this.listsModified) {
+        updateTrackedItems();
+      }
+      // Copy modified levels
+      Set<Level> copiedLevels = Collections.newSetFromMap(new IdentityHashMap<>());
+      for (Level level : this.home.getLevels()) {
+        if (isCopyRequired(level, copiedLevels)) {
+          this.copies.put(level, level.clone());
+          copiedLevels.add(level);
+        }
+      }
+      copyWalls(copiedLevels);
+      copyItems(this.home.getFurniture(), copiedLevels);
+      copyItems(this.home.getRooms(), copiedLevels);
+      copyItems(this.home.getPolylines(), copiedLevels);
+      copyItems(this.home.getDimensionLines(), copiedLevels);
+      copyItems(this.home.getLabels(), copiedLevels);
+      if (isCopyRequired(this.home.getObserverCamera(), copiedLevels)) {
+        this.copies.put(this.home.getObserverCamera(), this.home.getObserverCamera().clone());
+      }
+      if (isCopyRequired(this.home.getTopCamera(), copiedLevels)) {
+        this.copies.put(this.home.getTopCamera(), this.home.getTopCamera().clone());
+      }
+      if (isCopyRequired(this.home.getEnvironment(), copiedLevels)) {
+        this.copies.put(this.home.getEnvironment(), this.home.getEnvironment().clone());
+      }
+      if (isCopyRequired(this.home.getCompass(), copiedLevels)) {
+        this.copies.put(this.home.getCompass(), this.home.getCompass().clone());
+      }
+      this.modifiedItems.clear();
+      this.copiesModificationCount = this.modificationCount;
+    }
+    Home snapshot = this.home.clone(this.copies::get);
+    synchronized (snapshots) {
+      snapshots.add(snapshot);
+    }
+    return snapshot;
+  }
+
+  /**
+   * Returns <code>true</code> if the given <code>item</code> wasn't copied yet, or if it was modified
+   * or bound to a copied level since its last copy.
+   */
+  private boolean isCopyRequired(Object item, Set<Level> copiedLevels) {
+    return this.modifiedItems.contains(item)
+        || !this.copies.containsKey(item)
+        || item instanceof Elevatable
+            && copiedLevels.contains(((Elevatable)item).getLevel());
+  }
+
+  /**
+   * Copies the walls that require a copy, with the walls joined to them.
+   */
+  private void copyWalls(Set<Level> copiedLevels) {
+    Collection<Wall> walls = this.home.getWalls();
+    Set<Wall> copiedWalls = Collections.newSetFromMap(new IdentityHashMap<>());
+    LinkedList<Wall> wallsToCheck = new LinkedList<>();
+    for (Wall wall : walls) {
+      if (isCopyRequired(wall, copiedLevels)) {
+        copiedWalls.add(wall);
+        wallsToCheck.add(wall);
+      }
+    }
+    if (!copiedWalls.isEmpty()) {
+      // As the copies of walls refer to the copies of their joined walls, 
+      // search the walls joined directly or indirectly to the copied walls in both directions
+      Map<Wall, List<Wall>> joinedWalls = new IdentityHashMap<>();
+      for (Wall wall : walls) {
+        addJoinedWall(joinedWalls, wall, wall.getWallAtStart());
+        addJoinedWall(joinedWalls, wall, wall.getWallAtEnd());
+      }
+      while (!wallsToCheck.isEmpty()) {
+        List<Wall> wallsJoinedToWall = joinedWalls.get(wallsToCheck.removeFirst());
+        if (wallsJoinedToWall != null) {
+          for (Wall joinedWall : wallsJoinedToWall) {
+            if (copiedWalls.add(joinedWall)) {
+              wallsToCheck.add(joinedWall);
+            }
+          }
+        }
+      }
+      List<Wall> wallsToCopy = new ArrayList<>(copiedWalls.size());
+      for (Wall wall : walls) {
+        if (copiedWalls.contains(wall)) {
+          wallsToCopy.add(wall);
+        }
+      }
+      List<Wall> wallsCopies = Wall.clone(wallsToCopy);
+      for (int i = 0; i < wallsToCopy.size(); i++) {
+        Wall wall = wallsToCopy.get(i);
+        Wall wallCopy = wallsCopies.get(i);
+        if (wall.getLevel() != null) {
+          wallCopy.setLevel((Level)this.copies.get(wall.getLevel()));
+        }
+        this.copies.put(wall, wallCopy);
+      }
+    }
+  }
+
+  private void addJoinedWall(Map<Wall, List<Wall>> joinedWalls, Wall wall, Wall joinedWall) {
+    if (joinedWall != null
+        && this.itemListeners.containsKey(joinedWall)) {
+      addWall(joinedWalls, wall, joinedWall);
+      addWall(joinedWalls, joinedWall, wall);
+    }
+  }
+
+  private void addWall(Map<Wall, List<Wall>> joinedWalls, Wall wall, Wall joinedWall) {
+    List<Wall> wallsJoinedToWall = joinedWalls.get(wall);
+    if (wallsJoinedToWall == null) {
+      wallsJoinedToWall = new ArrayList<>(2);
+      joinedWalls.put(wall, wallsJoinedToWall);
+    }
+    wallsJoinedToWall.add(joinedWall);
+  }
+
+  /**
+   * Copies the given items that require a copy.
+   */
+  private void copyItems(Collection<? extends Selectable> items, Set<Level> copiedLevels) {
+    for (Selectable item : items) {
+      if (isCopyRequired(item, copiedLevels)) {
+        Selectable copy = item.clone();
+        Level level = ((Elevatable)item).getLevel();
+        Level levelCopy = level != null
+            ? (Level)this.copies.get(level)
+            : null;
+        if (item instanceof HomePieceOfFurniture) {
+          HomePieceOfFurniture piece = (HomePieceOfFurniture)item;
+          HomePieceOfFurniture pieceCopy = (HomePieceOfFurniture)copy;
+          if (piece instanceof HomeDoorOrWindow
+              && ((HomeDoorOrWindow)piece).isBoundToWall()) {
+            ((HomeDoorOrWindow)pieceCopy).setBoundToWall(true);
+          }
+          if (piece instanceof HomeFurnitureGroup) {
+            // Map the pieces of the group to their copy
+            List<HomePieceOfFurniture> groupFurniture = ((HomeFurnitureGroup)piece).getAllFurniture();
+            List<HomePieceOfFurniture> groupFurnitureCopies = ((HomeFurnitureGroup)pieceCopy).getAllFurniture();
+            for (int i = 0; i < groupFurniture.size(); i++) {
+              this.copies.put(groupFurniture.get(i), groupFurnitureCopies.get(i));
+            }
+          }
+          if (levelCopy != null) {
+            pieceCopy.setLevel(levelCopy);
+          }
+        } else if (levelCopy != null) {
+          if (copy instanceof Room) {
+            ((Room)copy).setLevel(levelCopy);
+          } else if (copy instanceof Polyline) {
+            ((Polyline)copy).setLevel(levelCopy);
+          } else if (copy instanceof DimensionLine) {
+            ((DimensionLine)copy).setLevel(levelCopy);
+          } else if (copy instanceof Label) {
+            ((Label)copy).setLevel(levelCopy);
+          }
+        }
+        this.copies.put(item, copy);
+      }
+    }
+  }
+
+  /**
+   * Tracks the items added to home and stops to track the deleted ones.
+   */
+  private void updateTrackedItems() {
+    List<Object> items = new ArrayList<>();
+    items.addAll(this.home.getLevels());
+    items.addAll(this.home.getFurniture());
+    items.addAll(this.home.getWalls());
+    items.addAll(this.home.getRooms());
+    items.addAll(this.home.getPolylines());
+    items.addAll(this.home.getDimensionLines());
+    items.addAll(this.home.getLabels());
+    items.add(this.home.getObserverCamera());
+    items.add(this.home.getTopCamera());
+    items.add(this.home.getEnvironment());
+    items.add(this.home.getCompass());
+    Set<Object> homeItems = Collections.newSetFromMap(new IdentityHashMap<>(items.size()));
+    homeItems.addAll(items);
+    for (Object item : new ArrayList<>(this.itemListeners.keySet())) {
+      if (!homeItems.contains(item)) {
+        untrackItem(item);
+      }
+    }
+    for (Object item : items) {
+      if (!this.itemListeners.containsKey(item)) {
+        trackItem(item);
+      } else if (this.groupsModified
+                 && item instanceof HomeFurnitureGroup
+                 && !this.groupsFurniture.get(item).equals(((HomeFurnitureGroup)item).getAllFurniture())) {
+        // Track again a group which pieces changed
+        untrackItem(item);
+        trackItem(item);
+      }
+    }
+    this.listsModified = false;
+    this.groupsModified = false;
+  }
+
+  /**
+   * Listens to the changes of the given <code>item</code> and marks it as modified.
+   */
+  private void trackItem(final Object item) {
+    PropertyChangeListener listener = ev -> {
+      this.modifiedItems.add(item);
+      this.modificationCount++;
+    };
+    this.itemListeners.put(item, listener);
+    HomeItemListeners.addPropertyChangeListener(item, listener);
+    if (item instanceof HomeFurnitureGroup) {
+      // Track the pieces of a group as a part of the group
+      List<HomePieceOfFurniture> groupFurniture = ((HomeFurnitureGroup)item).getAllFurniture();
+      this.groupsFurniture.put((HomeFurnitureGroup)item, groupFurniture);
+      for (HomePieceOfFurniture piece : groupFurniture) {
+        piece.addPropertyChangeListener(listener);
+      }
+    }
+    this.modifiedItems.add(item);
+  }
+
+  /**
+   * Stops to track the changes of the given <code>item</code> and forgets its copy.
+   */
+  private void untrackItem(Object item) {
+    PropertyChangeListener listener = this.itemListeners.remove(item);
+    HomeItemListeners.removePropertyChangeListener(item, listener);
+    this.copies.remove(item);
+    this.modifiedItems.remove(item);
+    if (item instanceof HomeFurnitureGroup) {
+      for (HomePieceOfFurniture piece : this.groupsFurniture.remove(item)) {
+        piece.removePropertyChangeListener(listener);
+        this.copies.remove(piece);
+      }
+    }
+  }
+
+  /**
+   * Stops to track the changes of home. 
+   * Must be called from the thread where home is modified.
+   */
+  public void dispose() {
+    this.home.removeLevelsListener(this.<Level>getListsListener());
+    this.home.removeFurnitureListener(this.<HomePieceOfFurniture>getListsListener());
+    this.home.removeWallsListener(this.<Wall>getListsListener());
+    this.home.removeRoomsListener(this.<Room>getListsListener());
+    this.home.removePolylinesListener(this.<Polyline>getListsListener());
+    this.home.removeDimensionLinesListener(this.<DimensionLine>getListsListener());
+    this.home.removeLabelsListener(this.<Label>getListsListener());
+    for (Home.Property property : Home.Property.values()) {
+      this.home.removePropertyChangeListener(property, this.homeListener);
+    }
+    for (Object item : new ArrayList<>(this.itemListeners.keySet())) {
+      untrackItem(item);
+    }
+    this.copiesModificationCount = -1;
+    synchronized (instances) {
+      WeakReference<HomeSnapshot> reference = instances.get(this.home);
+      if (reference != null && reference.get() == this) {
+        instances.remove(this.home);
+      }
+    }
+  }
+}
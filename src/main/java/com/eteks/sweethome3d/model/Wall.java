@@ -29,7 +29,9 @@ import java.beans.PropertyChangeSupport;
 import java.io.IOException;
 import java.io.ObjectInputStream;
 import java.util.ArrayList;
+import java.util.IdentityHashMap;
 import java.util.List;
+import java.util.Map;
 
 /**
  * A wall of a home plan.
@@ -766,10 +768,12 @@ public class Wall extends HomeObject implements Selectable, Elevatable {
     this.pointsCache = null;
     this.pointsIncludingBaseboardsCache = null;
     if (this.wallAtStart != null ) {
+      this.wallAtStart.shapeCache = null;
       this.wallAtStart.pointsCache = null;
       this.wallAtStart.pointsIncludingBaseboardsCache = null;
     }
     if (this.wallAtEnd != null) {
+      this.wallAtEnd.shapeCache = null;
       this.wallAtEnd.pointsCache = null;
       this.wallAtEnd.pointsIncludingBaseboardsCache = null;
     }
@@ -1204,19 +1208,24 @@ public class Wall extends HomeObject implements Selectable, Elevatable {
   public static List<Wall> clone(List<Wall> walls) {
     ArrayList<Wall> wallsCopy = new ArrayList<Wall>(walls.size());
     // Clone walls
+    Map<Wall, Wall> wallsCopies = new IdentityHashMap<Wall, Wall>(walls.size());
     for (Wall wall : walls) {
-      wallsCopy.add(wall.clone());
+      Wall wallCopy = wall.clone();
+      wallsCopy.add(wallCopy);
+      if (!wallsCopies.containsKey(wall)) {
+        wallsCopies.put(wall, wallCopy);
+      }
     }
     // Update walls at start and end point
     for (int i = 0; i < walls.size(); i++) {
       Wall wall = walls.get(i);
-      int wallAtStartIndex = walls.indexOf(wall.getWallAtStart());
-      if (wallAtStartIndex != -1) {
-        wallsCopy.get(i).setWallAtStart(wallsCopy.get(wallAtStartIndex));
+      Wall wallAtStartCopy = wallsCopies.get(wall.getWallAtStart());
+      if (wallAtStartCopy != null) {
+        wallsCopy.get(i).setWallAtStart(wallAtStartCopy);
       }
-      int wallAtEndIndex = walls.indexOf(wall.getWallAtEnd());
-      if (wallAtEndIndex != -1) {
-        wallsCopy.get(i).setWallAtEnd(wallsCopy.get(wallAtEndIndex));
+      Wall wallAtEndCopy = wallsCopies.get(wall.getWallAtEnd());
+      if (wallAtEndCopy != null) {
+        wallsCopy.get(i).setWallAtEnd(wallAtEndCopy);
       }
     }
     return wallsCopy;
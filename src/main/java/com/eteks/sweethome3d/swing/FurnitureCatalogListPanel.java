@@ -50,7 +50,6 @@ import java.net.MalformedURLException;
 import java.net.URL;
 import java.util.ArrayList;
 import java.util.Arrays;
-import java.util.Collections;
 import java.util.List;
 
 import javax.swing.AbstractAction;
@@ -90,11 +89,12 @@ import javax.swing.text.Element;
 import javax.swing.text.html.HTML;
 import javax.swing.text.html.HTMLDocument;
 
+import com.eteks.sweethome3d.model.BatchCollectionListener;
 import com.eteks.sweethome3d.model.CatalogPieceOfFurniture;
 import com.eteks.sweethome3d.model.CollectionEvent;
-import com.eteks.sweethome3d.model.CollectionListener;
 import com.eteks.sweethome3d.model.Content;
 import com.eteks.sweethome3d.model.FurnitureCatalog;
+import com.eteks.sweethome3d.model.FurnitureCatalogSearchIndex;
 import com.eteks.sweethome3d.model.FurnitureCategory;
 import com.eteks.sweethome3d.model.SelectionEvent;
 import com.eteks.sweethome3d.model.SelectionListener;
@@ -307,7 +307,7 @@ public class FurnitureCatalogListPanel extends JPanel implements View {
    * Language and catalog listener bound to this component with a weak reference to avoid
    * strong link between preferences and this component.  
    */
-  private static class PreferencesChangeListener implements PropertyChangeListener, CollectionListener<CatalogPieceOfFurniture> {
+  private static class PreferencesChangeListener implements PropertyChangeListener, BatchCollectionListener<CatalogPieceOfFurniture> {
     private final WeakReference<FurnitureCatalogListPanel> furnitureCatalogPanel;
 
     public PreferencesChangeListener(FurnitureCatalogListPanel furnitureCatalogPanel) {
@@ -339,13 +339,20 @@ public class FurnitureCatalogListPanel extends JPanel implements View {
       } else {
         DefaultComboBoxModel model = 
             (DefaultComboBoxModel)furnitureCatalogPanel.categoryFilterComboBox.getModel();
-        FurnitureCategory category = ev.getItem().getCategory();
         List<FurnitureCategory> categories = catalog.getCategories();
-        if (!categories.contains(category)) {
-          model.removeElement(category);
-          furnitureCatalogPanel.categoryFilterComboBox.setSelectedIndex(0);
-        } else if (model.getIndexOf(category) == -1) {
-          model.insertElementAt(category, categories.indexOf(category) + 1);
+        FurnitureCategory previousCategory = null;
+        for (CatalogPieceOfFurniture piece : ev.getItems()) {
+          FurnitureCategory category = piece.getCategory();
+          // Batch items are grouped by category
+          if (category != previousCategory) {
+            if (!categories.contains(category)) {
+              model.removeElement(category);
+              furnitureCatalogPanel.categoryFilterComboBox.setSelectedIndex(0);
+            } else if (model.getIndexOf(category) == -1) {
+              model.insertElementAt(category, categories.indexOf(category) + 1);
+            }
+            previousCategory = category;
+          }
         }
       }
     }
@@ -780,13 +787,13 @@ public class FurnitureCatalogListPanel extends JPanel implements View {
    * List model adaptor to CatalogPieceOfFurniture instances of catalog.  
    */
   private static class FurnitureCatalogListModel extends AbstractListModel {
-    private FurnitureCatalog                catalog;
+    private FurnitureCatalogSearchIndex     searchIndex;
     private List<CatalogPieceOfFurniture>   furniture;
     private FurnitureCategory               filterCategory;
     private String                          filterText;
     
     public FurnitureCatalogListModel(FurnitureCatalog catalog) {
-      this.catalog = catalog;
+      this.searchIndex = new FurnitureCatalogSearchIndex(catalog);
       this.filterText = "";
       catalog.addFurnitureListener(new FurnitureCatalogListener(this));
     }
@@ -797,8 +804,21 @@ public class FurnitureCatalogListPanel extends JPanel implements View {
     }
 
     public void setFilterText(String filterText) {
+      String previousFilterText = this.filterText;
       this.filterText = filterText;
-      resetFurnitureList();
+      if (this.furniture != null
+          && filterText.startsWith(previousFilterText)) {
+        // As the pieces matching the longer filter are among the listed ones,
+        // search them only in the current list
+        this.furniture = this.searchIndex.getFurniture(this.furniture, this.filterCategory, filterText);
+        EventQueue.invokeLater(new Runnable() {
+            public void run() {
+              fireContentsChanged(this, -1, -1);
+            }
+          });
+      } else {
+        resetFurnitureList();
+      }
     }
 
     public Object getElementAt(int index) {
@@ -824,18 +844,7 @@ public class FurnitureCatalogListPanel extends JPanel implements View {
 
     private void checkFurnitureList() {
       if (this.furniture == null) {
-        this.furniture = new ArrayList<>();
-        this.furniture.clear();
-        for (FurnitureCategory category : this.catalog.getCategories()) {
-          for (CatalogPieceOfFurniture piece : category.getFurniture()) {
-            if ((this.filterCategory == null
-                  || piece.getCategory().equals(this.filterCategory))
-                && piece.matchesFilter(this.filterText)) {
-              furniture.add(piece);
-            }
-          }
-        }
-        Collections.sort(this.furniture);
+        this.furniture = this.searchIndex.getFurniture(this.filterCategory, this.filterText);
       }
     }
     
@@ -843,7 +852,7 @@ public class FurnitureCatalogListPanel extends JPanel implements View {
      * Catalog furniture listener bound to this list model with a weak reference to avoid
      * strong link between catalog and this list.  
      */
-    private static class FurnitureCatalogListener implements CollectionListener<CatalogPieceOfFurniture> {
+    private static class FurnitureCatalogListener implements BatchCollectionListener<CatalogPieceOfFurniture> {
       private WeakReference<FurnitureCatalogListModel>  listModel;
 
       public FurnitureCatalogListener(FurnitureCatalogListModel catalogListModel) {
@@ -41,6 +41,7 @@ import java.lang.ref.WeakReference;
 import java.net.MalformedURLException;
 import java.net.URL;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collections;
 import java.util.List;
 
@@ -531,7 +532,7 @@ public class FurnitureCatalogTree extends JTree implements View {
      * Catalog furniture listener bound to this tree model with a weak reference to avoid
      * strong link between catalog and this tree.  
      */
-    private static class CatalogFurnitureListener implements CollectionListener<CatalogPieceOfFurniture> {
+    private static class CatalogFurnitureListener implements BatchCollectionListener<CatalogPieceOfFurniture> {
       private WeakReference<CatalogTreeModel>  catalogTreeModel;
 
       public CatalogFurnitureListener(CatalogTreeModel catalogTreeModel) {
@@ -548,18 +549,27 @@ public class FurnitureCatalogTree extends JTree implements View {
           CatalogPieceOfFurniture piece = ev.getItem();
           switch (ev.getType()) {
             case ADD :
-              if (piece.getCategory().getFurnitureCount() == 1) {
-                // Fire nodes inserted for new category
-                catalogTreeModel.fireTreeNodesInserted(new TreeModelEvent(catalogTreeModel,
-                    new Object [] {catalog}, 
-                    new int [] {Collections.binarySearch(catalog.getCategories(), piece.getCategory())}, 
-                    new Object [] {piece.getCategory()}));
-              } else {
-                // Fire nodes inserted for new piece
-                catalogTreeModel.fireTreeNodesInserted(new TreeModelEvent(catalogTreeModel,
-                    new Object [] {catalog, piece.getCategory()},
-                    new int [] {ev.getIndex()},
-                    new Object [] {piece}));
+              // Fire nodes inserted for each group of pieces added to the same category
+              List<CatalogPieceOfFurniture> addedFurniture = ev.getItems();
+              int [] indices = ev.getIndices();
+              for (int start = 0, end; start < addedFurniture.size(); start = end) {
+                FurnitureCategory category = addedFurniture.get(start).getCategory();
+                for (end = start + 1; end < addedFurniture.size() 
+                                      && addedFurniture.get(end).getCategory() == category; end++) {
+                }
+                if (category.getFurnitureCount() == end - start) {
+                  // Fire nodes inserted for new category
+                  catalogTreeModel.fireTreeNodesInserted(new TreeModelEvent(catalogTreeModel,
+                      new Object [] {catalog}, 
+                      new int [] {Collections.binarySearch(catalog.getCategories(), category)}, 
+                      new Object [] {category}));
+                } else {
+                  // Fire nodes inserted for new pieces
+                  catalogTreeModel.fireTreeNodesInserted(new TreeModelEvent(catalogTreeModel,
+                      new Object [] {catalog, category},
+                      Arrays.copyOfRange(indices, start, end),
+                      addedFurniture.subList(start, end).toArray()));
+                }
               }
               break;
             case DELETE :
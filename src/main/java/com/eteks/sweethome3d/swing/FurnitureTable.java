@@ -536,20 +536,21 @@ public class FurnitureTable extends JTable implements FurnitureView, Printable {
         }
       }
     }
-    home.addFurnitureListener(ev -> {
-        HomePieceOfFurniture piece = ev.getItem();
-        if (ev.getType() == CollectionEvent.Type.ADD) {
-          piece.addPropertyChangeListener(changeListener);
-          if (piece instanceof HomeFurnitureGroup) {
-            for (HomePieceOfFurniture childPiece : ((HomeFurnitureGroup)piece).getAllFurniture()) {
-              childPiece.addPropertyChangeListener(changeListener);
+    home.addFurnitureListener((BatchCollectionListener<HomePieceOfFurniture>)ev -> {
+        for (HomePieceOfFurniture piece : ev.getItems()) {
+          if (ev.getType() == CollectionEvent.Type.ADD) {
+            piece.addPropertyChangeListener(changeListener);
+            if (piece instanceof HomeFurnitureGroup) {
+              for (HomePieceOfFurniture childPiece : ((HomeFurnitureGroup)piece).getAllFurniture()) {
+                childPiece.addPropertyChangeListener(changeListener);
+              }
             }
-          }
-        } else {
-          piece.removePropertyChangeListener(changeListener);
-          if (piece instanceof HomeFurnitureGroup) {
-            for (HomePieceOfFurniture childPiece : ((HomeFurnitureGroup)piece).getAllFurniture()) {
-              childPiece.removePropertyChangeListener(changeListener);
+          } else {
+            piece.removePropertyChangeListener(changeListener);
+            if (piece instanceof HomeFurnitureGroup) {
+              for (HomePieceOfFurniture childPiece : ((HomeFurnitureGroup)piece).getAllFurniture()) {
+                childPiece.removePropertyChangeListener(changeListener);
+              }
             }
           }
         }
@@ -2047,10 +2048,18 @@ public class FurnitureTable extends JTable implements FurnitureView, Printable {
     }
 
     private void addHomeListener(final Home home) {
-      home.addFurnitureListener(new CollectionListener<>()
+      home.addFurnitureListener(new BatchCollectionListener<>()
       {
         public void collectionChanged(CollectionEvent<HomePieceOfFurniture> ev)
         {
+          if (ev.isBatch()) {
+            // Update rows only once when furniture is added or deleted in a batch
+            if (ev.getType() == CollectionEvent.Type.DELETE) {
+              expandedGroups.removeAll(ev.getItems());
+            }
+            filterAndSortFurniture();
+            return;
+          }
           HomePieceOfFurniture piece = ev.getItem();
           int pieceIndex = ev.getIndex();
           switch (ev.getType()) {
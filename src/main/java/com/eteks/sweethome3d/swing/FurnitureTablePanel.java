@@ -19,6 +19,7 @@
  */
 package com.eteks.sweethome3d.swing;
 
+import com.eteks.sweethome3d.model.BatchCollectionListener;
 import com.eteks.sweethome3d.model.CollectionEvent;
 import com.eteks.sweethome3d.model.Home;
 import com.eteks.sweethome3d.model.HomePieceOfFurniture;
@@ -103,11 +104,13 @@ public class FurnitureTablePanel extends JPanel implements FurnitureView, Printa
     for (HomePieceOfFurniture piece : home.getFurniture()) {
       piece.addPropertyChangeListener(furnitureChangeListener);
     }
-    home.addFurnitureListener(ev -> {
-      if (ev.getType() == CollectionEvent.Type.ADD) {
-        ev.getItem().addPropertyChangeListener(furnitureChangeListener);
-      } else if (ev.getType() == CollectionEvent.Type.DELETE) {
-        ev.getItem().removePropertyChangeListener(furnitureChangeListener);
+    home.addFurnitureListener((BatchCollectionListener<HomePieceOfFurniture>)ev -> {
+      for (HomePieceOfFurniture piece : ev.getItems()) {
+        if (ev.getType() == CollectionEvent.Type.ADD) {
+          piece.addPropertyChangeListener(furnitureChangeListener);
+        } else if (ev.getType() == CollectionEvent.Type.DELETE) {
+          piece.removePropertyChangeListener(furnitureChangeListener);
+        }
       }
       updateTotals(home, preferences);
     });
@@ -56,9 +56,14 @@ import java.beans.PropertyChangeListener;
 import java.lang.ref.WeakReference;
 import java.util.*;
 import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
+import java.util.concurrent.FutureTask;
 import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
 
 /**
  * A component that displays home walls, rooms and furniture with Java 3D.
@@ -81,6 +86,8 @@ public class HomeComponent3D extends JComponent implements com.eteks.sweethome3d
   private Light []                                 sceneLights;
   private Collection<Selectable>                   homeObjectsToUpdate;
   private Collection<Selectable>                   lightScopeObjectsToUpdate;
+  private ExecutorService                          geometriesUpdater;
+  private final Map<Object3DBranch, FutureTask<Runnable>> geometryUpdates = new HashMap<>();
   private Component                                component3D;
   private SimpleUniverse                           onscreenUniverse;
   private Camera                                   camera;
@@ -687,6 +694,11 @@ public class HomeComponent3D extends JComponent implements com.eteks.sweethome3d
    * Remove all listeners bound to home that updates 3D scene objects.
    */
   private void removeHomeListeners() {
+    if (this.geometriesUpdater != null) {
+      this.geometriesUpdater.shutdownNow();
+      this.geometriesUpdater = null;
+      this.geometryUpdates.clear();
+    }
     this.home.removePropertyChangeListener(Home.Property.CAMERA, this.homeCameraListener);
     HomeEnvironment homeEnvironment = this.home.getEnvironment();
     homeEnvironment.removePropertyChangeListener(HomeEnvironment.Property.SKY_COLOR, this.backgroundChangeListener);
@@ -1849,7 +1861,7 @@ public class HomeComponent3D extends JComponent implements com.eteks.sweethome3d
             if (this.updater == null) {
               // Group updates
               EventQueue.invokeLater(this.updater = () -> {
-                ground3D.update();
+                updateBranch(ground3D, new HomeCopies(home));
                 updater = null;
               });
             }
@@ -2187,12 +2199,16 @@ public class HomeComponent3D extends JComponent implements com.eteks.sweethome3d
       if (!Wall.Property.PATTERN.name().equals(propertyName)) {
         Wall updatedWall = (Wall)ev.getSource();
         updateWall(updatedWall);
-        List<Level> levels = home.getLevels();
-        if (updatedWall.getLevel() == null
-            || updatedWall.isAtLevel(levels.get(levels.size() - 1))) {
-          // Update rooms which ceiling height may need an update at last level
-          updateObjects(home.getRooms());
-        }
+        // Update rooms which ceiling height may need an update at last level,
+        // once the updated wall or the walls joined to it changed
+        List<Wall> changedWalls = new ArrayList<>(4);
+        changedWalls.add(updatedWall);
+        changedWalls.add(updatedWall.getWallAtStart());
+        changedWalls.add(updatedWall.getWallAtEnd());
+        if (ev.getOldValue() instanceof Wall) {
+          changedWalls.add((Wall)ev.getOldValue());
+        }
+        updateRoomsAffectedBy(changedWalls);
         if (updatedWall.getLevel() != null && updatedWall.getLevel().getElevation() < 0) {
           groundChangeListener.propertyChange(null);
         }
@@ -2212,26 +2228,49 @@ public class HomeComponent3D extends JComponent implements com.eteks.sweethome3d
     for (Wall wall : this.home.getWalls()) {
       wall.addPropertyChangeListener(this.wallChangeListener);
     }
-    this.wallListener = ev -> {
-      Wall wall = ev.getItem();
-      switch (ev.getType()) {
-        case ADD:
-          addObject(group, wall, true, false);
-          wall.addPropertyChangeListener(wallChangeListener);
-          break;
-        case DELETE:
-          deleteObject(wall);
-          wall.removePropertyChangeListener(wallChangeListener);
-          break;
+    this.wallListener = (BatchCollectionListener<Wall>)ev -> {
+      for (Wall wall : ev.getItems()) {
+        switch (ev.getType()) {
+          case ADD:
+            addObject(group, wall, true, false);
+            wall.addPropertyChangeListener(wallChangeListener);
+            break;
+          case DELETE:
+            deleteObject(wall);
+            wall.removePropertyChangeListener(wallChangeListener);
+            break;
+        }
       }
       lightScopeOutsideWallsAreaCache = null;
-      updateObjects(home.getRooms());
+      updateRoomsAffectedBy(ev.getItems());
       groundChangeListener.propertyChange(null);
       updateObjectsLightScope(null);
     };
     this.home.addWallsListener(this.wallListener);
   }
 
+  /**
+   * Updates the rooms which geometry depends on one of the given <code>walls</code>.
+   */
+  private void updateRoomsAffectedBy(List<Wall> walls) {
+    List<Room> affectedRooms = new ArrayList<>();
+    for (Map.Entry<Selectable, Object3DBranch> homeObject : this.homeObjects.entrySet()) {
+      if (homeObject.getValue() instanceof Room3D) {
+        Room3D room3D = (Room3D)homeObject.getValue();
+        for (Wall wall : walls) {
+          if (wall != null
+              && room3D.isAffectedBy(wall)) {
+            affectedRooms.add((Room)homeObject.getKey());
+            break;
+          }
+        }
+      }
+    }
+    if (!affectedRooms.isEmpty()) {
+      updateObjects(affectedRooms);
+    }
+  }
+
   /**
    * Adds a furniture listener to home that updates the children of the given <code>group</code>,
    * each time a piece of furniture is added, updated or deleted.
@@ -2309,46 +2348,51 @@ public class HomeComponent3D extends JComponent implements com.eteks.sweethome3d
         piece.addPropertyChangeListener(this.furnitureChangeListener);
       }
     }
-    this.furnitureListener = ev -> {
-      HomePieceOfFurniture piece = (HomePieceOfFurniture) ev.getItem();
-      switch (ev.getType()) {
-        case ADD:
-          if (piece instanceof HomeFurnitureGroup) {
-            for (HomePieceOfFurniture childPiece : ((HomeFurnitureGroup) piece).getAllFurniture()) {
-              if (!(childPiece instanceof HomeFurnitureGroup)) {
-                addObject(group, childPiece, true, false);
-                childPiece.addPropertyChangeListener(furnitureChangeListener);
+    this.furnitureListener = (BatchCollectionListener<HomePieceOfFurniture>)ev -> {
+      boolean staircasesUpdated = false;
+      for (HomePieceOfFurniture piece : ev.getItems()) {
+        switch (ev.getType()) {
+          case ADD:
+            if (piece instanceof HomeFurnitureGroup) {
+              for (HomePieceOfFurniture childPiece : ((HomeFurnitureGroup) piece).getAllFurniture()) {
+                if (!(childPiece instanceof HomeFurnitureGroup)) {
+                  addObject(group, childPiece, true, false);
+                  childPiece.addPropertyChangeListener(furnitureChangeListener);
+                }
               }
+            } else {
+              addObject(group, piece, true, false);
+              piece.addPropertyChangeListener(furnitureChangeListener);
             }
-          } else {
-            addObject(group, piece, true, false);
-            piece.addPropertyChangeListener(furnitureChangeListener);
-          }
-          break;
-        case DELETE:
-          if (piece instanceof HomeFurnitureGroup) {
-            for (HomePieceOfFurniture childPiece : ((HomeFurnitureGroup) piece).getAllFurniture()) {
-              if (!(childPiece instanceof HomeFurnitureGroup)) {
-                deleteObject(childPiece);
-                childPiece.removePropertyChangeListener(furnitureChangeListener);
+            break;
+          case DELETE:
+            if (piece instanceof HomeFurnitureGroup) {
+              for (HomePieceOfFurniture childPiece : ((HomeFurnitureGroup) piece).getAllFurniture()) {
+                if (!(childPiece instanceof HomeFurnitureGroup)) {
+                  deleteObject(childPiece);
+                  childPiece.removePropertyChangeListener(furnitureChangeListener);
+                }
               }
+            } else {
+              deleteObject(piece);
+              piece.removePropertyChangeListener(furnitureChangeListener);
             }
-          } else {
-            deleteObject(piece);
-            piece.removePropertyChangeListener(furnitureChangeListener);
-          }
-          break;
+            break;
+        }
+        // If piece is or contains a door or a window, update walls that intersect with piece
+        if (containsDoorsAndWindows(piece)) {
+          updateIntersectingWalls(piece);
+        } else if (containsStaircases(piece)) {
+          staircasesUpdated = true;
+        } else {
+          approximateHomeBoundsCache = null;
+        }
       }
-      // If piece is or contains a door or a window, update walls that intersect with piece
-      if (containsDoorsAndWindows(piece)) {
-        updateIntersectingWalls(piece);
-      } else if (containsStaircases(piece)) {
+      if (staircasesUpdated) {
         updateObjects(home.getRooms());
-      } else {
-        approximateHomeBoundsCache = null;
       }
       groundChangeListener.propertyChange(null);
-      updateObjectsLightScope(Collections.singletonList(piece));
+      updateObjectsLightScope(ev.getItems());
     };
     this.home.addFurnitureListener(this.furnitureListener);
   }
@@ -2445,23 +2489,27 @@ public class HomeComponent3D extends JComponent implements com.eteks.sweethome3d
     for (Room room : this.home.getRooms()) {
       room.addPropertyChangeListener(this.roomChangeListener);
     }
-    this.roomListener = ev -> {
-      Room room = ev.getItem();
-      switch (ev.getType()) {
-        case ADD:
-          // Add room to its group at the index indicated by the event
-          // to ensure the 3D rooms are drawn in the same order as in the plan
-          addObject(group, room, ev.getIndex(), true, false);
-          room.addPropertyChangeListener(roomChangeListener);
-          break;
-        case DELETE:
-          deleteObject(room);
-          room.removePropertyChangeListener(roomChangeListener);
-          break;
+    this.roomListener = (BatchCollectionListener<Room>)ev -> {
+      List<Room> rooms = ev.getItems();
+      int [] indices = ev.getIndices();
+      for (int i = 0; i < rooms.size(); i++) {
+        Room room = rooms.get(i);
+        switch (ev.getType()) {
+          case ADD:
+            // Add room to its group at the index indicated by the event
+            // to ensure the 3D rooms are drawn in the same order as in the plan
+            addObject(group, room, indices [i], true, false);
+            room.addPropertyChangeListener(roomChangeListener);
+            break;
+          case DELETE:
+            deleteObject(room);
+            room.removePropertyChangeListener(roomChangeListener);
+            break;
+        }
       }
       updateObjects(home.getRooms());
       groundChangeListener.propertyChange(null);
-      updateObjectsLightScope(Collections.singletonList(room));
+      updateObjectsLightScope(rooms);
       updateObjectsLightScope(getHomeObjects(HomeLight.class));
     };
     this.home.addRoomsListener(this.roomListener);
@@ -2492,17 +2540,18 @@ public class HomeComponent3D extends JComponent implements com.eteks.sweethome3d
     for (Label label : this.home.getLabels()) {
       label.addPropertyChangeListener(this.labelChangeListener);
     }
-    this.labelListener = ev -> {
-      Label label = ev.getItem();
-      switch (ev.getType()) {
-        case ADD:
-          addObject(group, label, true, false);
-          label.addPropertyChangeListener(labelChangeListener);
-          break;
-        case DELETE:
-          deleteObject(label);
-          label.removePropertyChangeListener(labelChangeListener);
-          break;
+    this.labelListener = (BatchCollectionListener<Label>)ev -> {
+      for (Label label : ev.getItems()) {
+        switch (ev.getType()) {
+          case ADD:
+            addObject(group, label, true, false);
+            label.addPropertyChangeListener(labelChangeListener);
+            break;
+          case DELETE:
+            deleteObject(label);
+            label.removePropertyChangeListener(labelChangeListener);
+            break;
+        }
       }
     };
     this.home.addLabelsListener(this.labelListener);
@@ -2568,8 +2617,12 @@ public class HomeComponent3D extends JComponent implements com.eteks.sweethome3d
    * Detaches from the scene the branch matching <code>homeObject</code>.
    */
   private void deleteObject(Selectable homeObject) {
-    this.homeObjects.get(homeObject).detach();
-    this.homeObjects.remove(homeObject);
+    Object3DBranch objectBranch = this.homeObjects.remove(homeObject);
+    objectBranch.detach();
+    FutureTask<Runnable> geometryUpdate = this.geometryUpdates.remove(objectBranch);
+    if (geometryUpdate != null) {
+      geometryUpdate.cancel(false);
+    }
     clearPrintedImageCache();
   }
 
@@ -2583,11 +2636,13 @@ public class HomeComponent3D extends JComponent implements com.eteks.sweethome3d
       this.homeObjectsToUpdate = new HashSet<>(objects);
       // Invoke later the update of objects of homeObjectsToUpdate
       EventQueue.invokeLater(() -> {
+        // Share the same copy of home among the objects updated out of Event Dispatch Thread
+        HomeCopies homeCopies = new HomeCopies(this.home);
         for (Selectable object : homeObjectsToUpdate) {
           Object3DBranch objectBranch = homeObjects.get(object);
           // Check object wasn't deleted since updateObjects call
           if (objectBranch != null) {
-            objectBranch.update();
+            updateBranch(objectBranch, homeCopies);
           }
         }
         homeObjectsToUpdate = null;
@@ -2597,6 +2652,46 @@ public class HomeComponent3D extends JComponent implements com.eteks.sweethome3d
     this.approximateHomeBoundsCache = null;
   }
 
+  /**
+   * Updates the given <code>branch</code>, computing its geometry in a worker thread
+   * from the copy of home objects when the branch supports it.
+   * The geometry computed for a previous update of this branch is ignored.
+   * Should be invoked from Event Dispatch Thread.
+   */
+  private void updateBranch(final Object3DBranch branch, Function<Object, Object> homeCopies) {
+    FutureTask<Runnable> previousGeometryUpdate = this.geometryUpdates.remove(branch);
+    if (previousGeometryUpdate != null) {
+      previousGeometryUpdate.cancel(false);
+    }
+    Callable<Runnable> geometryUpdater = branch.getGeometryUpdater(homeCopies);
+    if (geometryUpdater == null) {
+      branch.update();
+    } else {
+      if (this.geometriesUpdater == null) {
+        this.geometriesUpdater = Executors.newFixedThreadPool(Runtime.getRuntime().availableProcessors());
+      }
+      FutureTask<Runnable> geometryUpdate = new FutureTask<Runnable>(geometryUpdater) {
+          @Override
+          protected void done() {
+            EventQueue.invokeLater(() -> {
+                // Replace branch geometry only if no other update was requested in the meantime
+                if (geometryUpdates.get(branch) == this) {
+                  geometryUpdates.remove(branch);
+                  try {
+                    get().run();
+                  } catch (ExecutionException | InterruptedException ex) {
+                    branch.update();
+                  }
+                  clearPrintedImageCache();
+                }
+              });
+          }
+        };
+      this.geometryUpdates.put(branch, geometryUpdate);
+      this.geometriesUpdater.execute(geometryUpdate);
+    }
+  }
+
   /**
    * Updates walls that may intersect from the given doors or window.
    */
@@ -2612,26 +2707,30 @@ public class HomeComponent3D extends JComponent implements com.eteks.sweethome3d
     }
     // Check if some more walls may require an update
     if (wallCount != walls.size()) {
-      List<Wall> updatedWalls = new ArrayList<>();
-      Rectangle2D doorOrWindowBounds = null;
-      // Compute the approximate bounds of the doors and windows
+      Set<Wall> updatedWalls = new LinkedHashSet<>();
+      DoorsAndWindowsIndex index = DoorsAndWindowsIndex.getInstance(this.home);
       for (HomePieceOfFurniture doorOrWindow : doorOrWindows) {
-        float [][] points = doorOrWindow.getPoints();
-        if (doorOrWindowBounds == null) {
-          doorOrWindowBounds = new Rectangle2D.Float(points [0][0], points [0][1], 0, 0);
-        } else {
-          doorOrWindowBounds.add(points [0][0], points [0][1]);
-        }
-        for (int i = 1; i < points.length; i++) {
-          doorOrWindowBounds.add(points [i][0], points [i][1]);
-        }
-      }
-      // Search walls that intersect the bounds
-      for (Wall wall : walls) {
-        if (wall.intersectsRectangle((float)doorOrWindowBounds.getX(), (float)doorOrWindowBounds.getY(),
-            (float)doorOrWindowBounds.getX() + (float)doorOrWindowBounds.getWidth(),
-            (float)doorOrWindowBounds.getY() + (float)doorOrWindowBounds.getHeight())) {
-          updatedWalls.add(wall);
+        List<HomePieceOfFurniture> pieces = doorOrWindow instanceof HomeFurnitureGroup
+            ? ((HomeFurnitureGroup)doorOrWindow).getAllFurniture()
+            : Collections.singletonList(doorOrWindow);
+        for (HomePieceOfFurniture piece : pieces) {
+          if (piece.isDoorOrWindow()) {
+            // Compute the approximate bounds of the door or window
+            float [][] points = piece.getPoints();
+            Rectangle2D doorOrWindowBounds = new Rectangle2D.Float(points [0][0], points [0][1], 0, 0);
+            for (int i = 1; i < points.length; i++) {
+              doorOrWindowBounds.add(points [i][0], points [i][1]);
+            }
+            float pieceElevation = piece.getGroundElevation();
+            // Search walls that intersect the bounds among the ones at the elevation of the piece
+            for (Wall wall : index.getWalls(doorOrWindowBounds, pieceElevation, pieceElevation + piece.getHeight())) {
+              if (!updatedWalls.contains(wall)
+                  && wall.intersectsRectangle((float)doorOrWindowBounds.getMinX(), (float)doorOrWindowBounds.getMinY(),
+                      (float)doorOrWindowBounds.getMaxX(), (float)doorOrWindowBounds.getMaxY())) {
+                updatedWalls.add(wall);
+              }
+            }
+          }
         }
       }
       updateObjects(updatedWalls);
@@ -2783,4 +2882,38 @@ public class HomeComponent3D extends JComponent implements com.eteks.sweethome3d
     shadow.setAppearance(shadowAppearance);
     homeRoot.addChild(shadow);
   }
+
+  /**
+   * A function returning the copies of home walls, rooms and levels, and of home itself.
+   * Home is copied at the first call to <code>apply</code> in Event Dispatch Thread,
+   * then its copy is never modified and may be read by the threads that compute geometries.
+   * The copy is a snapshot of home which shares with previous copies the items that didn't change.
+   */
+  private static class HomeCopies implements Function<Object, Object> {
+    private final Home          home;
+    private Map<Object, Object> copies;
+
+    public HomeCopies(Home home) {
+      this.home = home;
+    }
+
+    public Object apply(Object item) {
+      if (this.copies == null) {
+        Home homeCopy = HomeSnapshot.getInstance(this.home).getHome();
+        this.copies = new IdentityHashMap<>();
+        this.copies.put(this.home, homeCopy);
+        putCopies(this.home.getWalls(), homeCopy.getWalls());
+        putCopies(this.home.getRooms(), homeCopy.getRooms());
+        putCopies(this.home.getLevels(), homeCopy.getLevels());
+      }
+      return this.copies.get(item);
+    }
+
+    private void putCopies(Collection<?> items, Collection<?> itemsCopies) {
+      Iterator<?> itemsCopiesIterator = itemsCopies.iterator();
+      for (Object item : items) {
+        this.copies.put(item, itemsCopiesIterator.next());
+      }
+    }
+  }
 }
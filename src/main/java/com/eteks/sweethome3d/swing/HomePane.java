@@ -66,6 +66,10 @@ import java.text.DecimalFormat;
 import java.util.*;
 import java.util.List;
 import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 import java.util.concurrent.atomic.AtomicReference;
 
 /**
@@ -4271,11 +4275,30 @@ public class HomePane extends JRootPane implements HomeView {
                                               "exportToOBJ.header", new Date())
         : "";
 
-    // Use a clone of home to ignore selection and for thread safety
-    OBJExporter.exportHomeToFile(cloneHomeInEventDispatchThread(this.home),
+    // Use a snapshot of home to ignore selection and for thread safety
+    OBJExporter.exportHomeToFile(getHomeSnapshotInEventDispatchThread(this.home),
         objFile, header, this.exportAllToOBJ, object3dFactory);
   }
 
+  /**
+   * Returns a snapshot of the given <code>home</code> safely taken in the EDT.
+   */
+  private Home getHomeSnapshotInEventDispatchThread(final Home home) throws RecorderException {
+    if (EventQueue.isDispatchThread()) {
+      return HomeSnapshot.getInstance(home).getHome();
+    } else {
+      try {
+        final AtomicReference<Home> homeSnapshot = new AtomicReference<>();
+        EventQueue.invokeAndWait(() -> homeSnapshot.set(HomeSnapshot.getInstance(home).getHome()));
+        return homeSnapshot.get();
+      } catch (InterruptedException ex) {
+        throw new InterruptedRecorderException(ex.getMessage());
+      } catch (InvocationTargetException ex) {
+        throw new RecorderException("Couldn't take a snapshot of home", ex.getCause());
+      }
+    }
+  }
+
   /**
    * Returns a clone of the given <code>home</code> safely cloned in the EDT.
    */
@@ -4337,18 +4360,34 @@ public class HomePane extends JRootPane implements HomeView {
           }
         }
 
-        // Write 3D objects
-        int i = 0;
-        for (Selectable item : exportedItems) {
-          // Create a not alive new node to be able to explore its coordinates without setting capabilities
-          Node node = (Node)object3dFactory.createObject3D(home, item, true);
-          if (node != null) {
-            if (item instanceof HomePieceOfFurniture) {
-              writer.writeNode(node);
-            } else {
-              writer.writeNode(node, item.getClass().getSimpleName().toLowerCase() + "_" + ++i);
+        // Write 3D objects, building their nodes in a pool of threads
+        // and writing them in the order of exported items
+        int threadCount = Runtime.getRuntime().availableProcessors();
+        ExecutorService nodesExecutor = Executors.newFixedThreadPool(threadCount);
+        // Keep a limited count of built nodes waiting to be written
+        int maxPendingNodes = threadCount * 2;
+        Deque<Future<Node>> pendingNodes = new ArrayDeque<>();
+        try {
+          int nextItemIndex = 0;
+          for ( ; nextItemIndex < exportedItems.size() && pendingNodes.size() < maxPendingNodes; nextItemIndex++) {
+            pendingNodes.add(submitNode(home, exportedItems.get(nextItemIndex), object3dFactory, nodesExecutor));
+          }
+          int i = 0;
+          for (Selectable item : exportedItems) {
+            Node node = getNode(pendingNodes.poll());
+            if (nextItemIndex < exportedItems.size()) {
+              pendingNodes.add(submitNode(home, exportedItems.get(nextItemIndex++), object3dFactory, nodesExecutor));
+            }
+            if (node != null) {
+              if (item instanceof HomePieceOfFurniture) {
+                writer.writeNode(node);
+              } else {
+                writer.writeNode(node, item.getClass().getSimpleName().toLowerCase() + "_" + ++i);
+              }
             }
           }
+        } finally {
+          nodesExecutor.shutdownNow();
         }
       } catch (InterruptedIOException ex) {
         exportInterrupted = true;
@@ -4370,6 +4409,35 @@ public class HomePane extends JRootPane implements HomeView {
       }
     }
 
+    /**
+     * Submits to <code>executor</code> the creation of the 3D node of the given <code>item</code>.
+     */
+    private static Future<Node> submitNode(final Home home, final Selectable item,
+                                           final Object3DFactory object3dFactory,
+                                           ExecutorService executor) {
+      // Create a not alive new node to be able to explore its coordinates without setting capabilities
+      return executor.submit(() -> (Node)object3dFactory.createObject3D(home, item, true));
+    }
+
+    /**
+     * Returns the node built by the given task.
+     */
+    private static Node getNode(Future<Node> nodeTask) throws IOException {
+      try {
+        return nodeTask.get();
+      } catch (InterruptedException ex) {
+        throw new InterruptedIOException();
+      } catch (ExecutionException ex) {
+        if (ex.getCause() instanceof RuntimeException) {
+          throw (RuntimeException)ex.getCause();
+        } else if (ex.getCause() instanceof Error) {
+          throw (Error)ex.getCause();
+        } else {
+          throw new IOException(ex.getCause());
+        }
+      }
+    }
+
     /**
      * Returns <code>home</code> bounds.
      */
@@ -651,8 +651,11 @@ public class PhotoPanel extends JPanel implements DialogView {
     this.photoCardLayout.show(this.photoPanel, WAIT_CARD);
     
     // Compute photo in an other executor thread
-    // Use a clone of home because the user can modify home during photo computation
-    final Home home = this.home.clone();
+    // Use a copy of home because the user can modify home during photo computation,
+    // photo renderer accepting a snapshot of home which shares its unchanged items with previous snapshots
+    final Home home = this.controller.getQuality() >= 2
+        ? HomeSnapshot.getInstance(this.home).getHome()
+        : this.home.clone();
     List<Selectable> emptySelection = Collections.emptyList();
     home.setSelectedItems(emptySelection);
     this.photoCreationExecutor = Executors.newSingleThreadExecutor();
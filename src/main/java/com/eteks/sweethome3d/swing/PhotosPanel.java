@@ -22,6 +22,8 @@ package com.eteks.sweethome3d.swing;
 import com.eteks.sweethome3d.j3d.PhotoRenderer;
 import com.eteks.sweethome3d.model.Camera;
 import com.eteks.sweethome3d.model.Home;
+import com.eteks.sweethome3d.model.HomeSnapshot;
+import com.eteks.sweethome3d.model.ObserverCamera;
 import com.eteks.sweethome3d.model.Selectable;
 import com.eteks.sweethome3d.model.UserPreferences;
 import com.eteks.sweethome3d.tools.OperatingSystem;
@@ -548,8 +550,11 @@ public class PhotosPanel extends JPanel implements DialogView {
       this.photoComponent.setImage(null);
       
       // Compute photos in an other executor thread
-      // Use a clone of home because the user can modify home during photos computation
-      final Home home = this.home.clone();
+      // Use a copy of home because the user can modify home during photos computation,
+      // photo renderer accepting a snapshot of home which shares its unchanged items with previous snapshots
+      final Home home = this.controller.getQuality() >= 2
+          ? HomeSnapshot.getInstance(this.home).getHome()
+          : this.home.clone();
       List<Selectable> emptySelection = Collections.emptyList();
       home.setSelectedItems(emptySelection);
       this.photosCreationExecutor = Executors.newSingleThreadExecutor();
@@ -564,6 +569,8 @@ public class PhotosPanel extends JPanel implements DialogView {
   private void computePhotos(Home home, final Map<Camera, File> cameraFiles) {
     BufferedImage image = null;
     boolean success = false;
+    // Renderers reused for the cameras of the same kind, the scene being exported only once
+    Map<Boolean, PhotoRenderer> photoRenderers = new HashMap<Boolean, PhotoRenderer>(2);
     try {
       int photoIndex = 0;
       for (Map.Entry<Camera, File> cameraEntry : cameraFiles.entrySet()) {
@@ -574,10 +581,20 @@ public class PhotosPanel extends JPanel implements DialogView {
         home.setCamera(camera);
         if (quality >= 2) {
           // Use photo renderer
-          PhotoRenderer photoRenderer = new PhotoRenderer(home, this.object3dFactory,
-            quality == 2 
-                ? PhotoRenderer.Quality.LOW 
-                : PhotoRenderer.Quality.HIGH);
+          PhotoRenderer.Quality rendererQuality = quality == 2
+              ? PhotoRenderer.Quality.LOW
+              : PhotoRenderer.Quality.HIGH;
+          Boolean observerCamera = camera instanceof ObserverCamera;
+          PhotoRenderer photoRenderer = photoRenderers.get(observerCamera);
+          if (photoRenderer == null
+              || photoRenderer.getQuality() != rendererQuality
+              || !photoRenderer.isCameraSupported(camera)) {
+            if (photoRenderer != null) {
+              photoRenderer.dispose();
+            }
+            photoRenderer = new PhotoRenderer(home, this.object3dFactory, rendererQuality);
+            photoRenderers.put(observerCamera, photoRenderer);
+          }
           int bestImageHeight;
           // Update ratio if lens is fisheye or spherical
           if (camera.getLens() == Camera.Lens.FISHEYE) {
@@ -623,6 +640,9 @@ public class PhotosPanel extends JPanel implements DialogView {
     } catch (IOException ex) {
       showPhotosComputingError(ex);
     } finally { 
+      for (PhotoRenderer photoRenderer : photoRenderers.values()) {
+        photoRenderer.dispose();
+      }
       final boolean succeeded = success;
       EventQueue.invokeLater(() -> {
         startStopButton.setAction(getActionMap().get(ActionType.START_PHOTOS_CREATION));
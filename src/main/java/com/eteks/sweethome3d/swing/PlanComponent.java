@@ -27,6 +27,7 @@ import com.eteks.sweethome3d.viewcontroller.Object3DFactory;
 import com.eteks.sweethome3d.viewcontroller.PlanController;
 import com.eteks.sweethome3d.viewcontroller.PlanView;
 import com.eteks.sweethome3d.viewcontroller.View;
+import com.eteks.sweethome3d.viewcontroller.WallsGeometry;
 import com.sun.j3d.utils.universe.SimpleUniverse;
 import com.sun.j3d.utils.universe.Viewer;
 import com.sun.j3d.utils.universe.ViewingPlatform;
@@ -128,6 +129,8 @@ public class PlanComponent extends JComponent implements PlanView, Scrollable, P
   };
 
   private static final float    MARGIN = 40;
+  private static final int      PLAN_TILE_SIZE = 256;
+  private static final int      MAX_PLAN_TILES_PIXEL_COUNT = 4096 * 4096;
 
   private final Home            home;
   private final UserPreferences preferences;
@@ -187,6 +190,10 @@ public class PlanComponent extends JComponent implements PlanView, Scrollable, P
   private Map<HomeDoorOrWindow, Area>       doorOrWindowWallThicknessAreasCache;
   private Map<HomeTexture, BufferedImage>   floorTextureImagesCache;
   private Map<HomePieceOfFurniture, PieceOfFurnitureTopViewIcon> furnitureTopViewIconsCache;
+  private PlanTiles                         planTilesCache;
+  private volatile int                      planContentVersion;
+  private boolean                           planTileRendering;
+  private boolean                           overlayRepaint;
 
 
   private static ExecutorService            backgroundImageLoader;
@@ -630,20 +637,21 @@ public class PlanComponent extends JComponent implements PlanView, Scrollable, P
         }
       }
     }
-    home.addFurnitureListener(ev -> {
-      HomePieceOfFurniture piece = ev.getItem();
-      if (ev.getType() == CollectionEvent.Type.ADD) {
-        piece.addPropertyChangeListener(furnitureChangeListener);
-        if (piece instanceof HomeFurnitureGroup) {
-          for (HomePieceOfFurniture childPiece : ((HomeFurnitureGroup)piece).getAllFurniture()) {
-            childPiece.addPropertyChangeListener(furnitureChangeListener);
+    home.addFurnitureListener((BatchCollectionListener<HomePieceOfFurniture>)ev -> {
+      for (HomePieceOfFurniture piece : ev.getItems()) {
+        if (ev.getType() == CollectionEvent.Type.ADD) {
+          piece.addPropertyChangeListener(furnitureChangeListener);
+          if (piece instanceof HomeFurnitureGroup) {
+            for (HomePieceOfFurniture childPiece : ((HomeFurnitureGroup)piece).getAllFurniture()) {
+              childPiece.addPropertyChangeListener(furnitureChangeListener);
+            }
           }
-        }
-      } else if (ev.getType() == CollectionEvent.Type.DELETE) {
-        piece.removePropertyChangeListener(furnitureChangeListener);
-        if (piece instanceof HomeFurnitureGroup) {
-          for (HomePieceOfFurniture childPiece : ((HomeFurnitureGroup)piece).getAllFurniture()) {
-            childPiece.removePropertyChangeListener(furnitureChangeListener);
+        } else if (ev.getType() == CollectionEvent.Type.DELETE) {
+          piece.removePropertyChangeListener(furnitureChangeListener);
+          if (piece instanceof HomeFurnitureGroup) {
+            for (HomePieceOfFurniture childPiece : ((HomeFurnitureGroup)piece).getAllFurniture()) {
+              childPiece.removePropertyChangeListener(furnitureChangeListener);
+            }
           }
         }
       }
@@ -682,11 +690,13 @@ public class PlanComponent extends JComponent implements PlanView, Scrollable, P
     for (Wall wall : home.getWalls()) {
       wall.addPropertyChangeListener(wallChangeListener);
     }
-    home.addWallsListener(ev -> {
-      if (ev.getType() == CollectionEvent.Type.ADD) {
-        ev.getItem().addPropertyChangeListener(wallChangeListener);
-      } else if (ev.getType() == CollectionEvent.Type.DELETE) {
-        ev.getItem().removePropertyChangeListener(wallChangeListener);
+    home.addWallsListener((BatchCollectionListener<Wall>)ev -> {
+      for (Wall wall : ev.getItems()) {
+        if (ev.getType() == CollectionEvent.Type.ADD) {
+          wall.addPropertyChangeListener(wallChangeListener);
+        } else if (ev.getType() == CollectionEvent.Type.DELETE) {
+          wall.removePropertyChangeListener(wallChangeListener);
+        }
       }
       otherLevelsWallAreaCache = null;
       otherLevelsWallsCache = null;
@@ -723,11 +733,13 @@ public class PlanComponent extends JComponent implements PlanView, Scrollable, P
     for (Room room : home.getRooms()) {
       room.addPropertyChangeListener(roomChangeListener);
     }
-    home.addRoomsListener(ev -> {
-      if (ev.getType() == CollectionEvent.Type.ADD) {
-        ev.getItem().addPropertyChangeListener(roomChangeListener);
-      } else if (ev.getType() == CollectionEvent.Type.DELETE) {
-        ev.getItem().removePropertyChangeListener(roomChangeListener);
+    home.addRoomsListener((BatchCollectionListener<Room>)ev -> {
+      for (Room room : ev.getItems()) {
+        if (ev.getType() == CollectionEvent.Type.ADD) {
+          room.addPropertyChangeListener(roomChangeListener);
+        } else if (ev.getType() == CollectionEvent.Type.DELETE) {
+          room.removePropertyChangeListener(roomChangeListener);
+        }
       }
       sortedLevelRooms = null;
       otherLevelsRoomsCache = null;
@@ -748,11 +760,13 @@ public class PlanComponent extends JComponent implements PlanView, Scrollable, P
      for (Polyline polyline : home.getPolylines()) {
        polyline.addPropertyChangeListener(changeListener);
      }
-     home.addPolylinesListener(ev -> {
-       if (ev.getType() == CollectionEvent.Type.ADD) {
-         ev.getItem().addPropertyChangeListener(changeListener);
-       } else if (ev.getType() == CollectionEvent.Type.DELETE) {
-         ev.getItem().removePropertyChangeListener(changeListener);
+     home.addPolylinesListener((BatchCollectionListener<Polyline>)ev -> {
+       for (Polyline polyline : ev.getItems()) {
+         if (ev.getType() == CollectionEvent.Type.ADD) {
+           polyline.addPropertyChangeListener(changeListener);
+         } else if (ev.getType() == CollectionEvent.Type.DELETE) {
+           polyline.removePropertyChangeListener(changeListener);
+         }
        }
        revalidate();
      });
@@ -762,11 +776,13 @@ public class PlanComponent extends JComponent implements PlanView, Scrollable, P
     for (DimensionLine dimensionLine : home.getDimensionLines()) {
       dimensionLine.addPropertyChangeListener(dimensionLineChangeListener);
     }
-    home.addDimensionLinesListener(ev -> {
-      if (ev.getType() == CollectionEvent.Type.ADD) {
-        ev.getItem().addPropertyChangeListener(dimensionLineChangeListener);
-      } else if (ev.getType() == CollectionEvent.Type.DELETE) {
-        ev.getItem().removePropertyChangeListener(dimensionLineChangeListener);
+    home.addDimensionLinesListener((BatchCollectionListener<DimensionLine>)ev -> {
+      for (DimensionLine dimensionLine : ev.getItems()) {
+        if (ev.getType() == CollectionEvent.Type.ADD) {
+          dimensionLine.addPropertyChangeListener(dimensionLineChangeListener);
+        } else if (ev.getType() == CollectionEvent.Type.DELETE) {
+          dimensionLine.removePropertyChangeListener(dimensionLineChangeListener);
+        }
       }
       revalidate();
     });
@@ -776,11 +792,13 @@ public class PlanComponent extends JComponent implements PlanView, Scrollable, P
     for (Label label : home.getLabels()) {
       label.addPropertyChangeListener(labelChangeListener);
     }
-    home.addLabelsListener(ev -> {
-      if (ev.getType() == CollectionEvent.Type.ADD) {
-        ev.getItem().addPropertyChangeListener(labelChangeListener);
-      } else if (ev.getType() == CollectionEvent.Type.DELETE) {
-        ev.getItem().removePropertyChangeListener(labelChangeListener);
+    home.addLabelsListener((BatchCollectionListener<Label>)ev -> {
+      for (Label label : ev.getItems()) {
+        if (ev.getType() == CollectionEvent.Type.ADD) {
+          label.addPropertyChangeListener(labelChangeListener);
+        } else if (ev.getType() == CollectionEvent.Type.DELETE) {
+          label.removePropertyChangeListener(labelChangeListener);
+        }
       }
       revalidate();
     });
@@ -829,7 +847,7 @@ public class PlanComponent extends JComponent implements PlanView, Scrollable, P
           || ObserverCamera.Property.WIDTH.name().equals(propertyName)
           || ObserverCamera.Property.DEPTH.name().equals(propertyName)
           || ObserverCamera.Property.HEIGHT.name().equals(propertyName)) {
-        revalidate();
+        revalidateOverlay();
       }
     });
     home.getCompass().addPropertyChangeListener(ev -> {
@@ -842,7 +860,7 @@ public class PlanComponent extends JComponent implements PlanView, Scrollable, P
         revalidate();
       }
     });
-    home.addSelectionListener(ev -> repaint());
+    home.addSelectionListener(ev -> repaintOverlay());
     home.addPropertyChangeListener(Home.Property.BACKGROUND_IMAGE,
             ev -> {
               backgroundImageCache = null;
@@ -975,6 +993,45 @@ public class PlanComponent extends JComponent implements PlanView, Scrollable, P
     }
   }
 
+  /**
+   * Repaints the given area of this component and voids the cached tiles of the plan layer,
+   * unless only the overlay painted above them was modified.
+   */
+  @Override
+  public void repaint(long tm, int x, int y, int width, int height) {
+    if (!this.overlayRepaint
+        || !EventQueue.isDispatchThread()) {
+      this.planContentVersion++;
+    }
+    super.repaint(tm, x, y, width, height);
+  }
+
+  /**
+   * Repaints this component keeping the cached tiles of the plan layer,
+   * after a change of selected items or feedback.
+   */
+  private void repaintOverlay() {
+    this.overlayRepaint = true;
+    try {
+      repaint();
+    } finally {
+      this.overlayRepaint = false;
+    }
+  }
+
+  /**
+   * Revalidates this component keeping the cached tiles of the plan layer,
+   * after a change of an item painted in the overlay.
+   */
+  private void revalidateOverlay() {
+    this.overlayRepaint = true;
+    try {
+      revalidate();
+    } finally {
+      this.overlayRepaint = false;
+    }
+  }
+
   /**
    * Invalidates this component voiding plan bounds cache if <code>invalidatePlanBoundsCache</code> is <code>true</code>.
    */
@@ -1141,7 +1198,7 @@ public class PlanComponent extends JComponent implements PlanView, Scrollable, P
       addPropertyChangeListener("Frame.active", ev -> {
         if (!home.getSelectedItems().isEmpty()) {
           // Repaint to update selection color
-          repaint();
+          repaintOverlay();
         }
       });
     }
@@ -1829,7 +1886,7 @@ public class PlanComponent extends JComponent implements PlanView, Scrollable, P
   public void setSelectedItemsOutlinePainted(boolean selectedItemsOutlinePainted) {
     if (this.selectedItemsOutlinePainted != selectedItemsOutlinePainted) {
       this.selectedItemsOutlinePainted = selectedItemsOutlinePainted;
-      repaint();
+      repaintOverlay();
     }
   }
 
@@ -1857,18 +1914,258 @@ public class PlanComponent extends JComponent implements PlanView, Scrollable, P
     // Change component coordinates system to plan system
     Rectangle2D planBounds = getPlanBounds();
     float paintScale = getScale();
-    g2D.translate(insets.left + (MARGIN - planBounds.getMinX()) * paintScale,
-        insets.top + (MARGIN - planBounds.getMinY()) * paintScale);
+    double xOrigin = insets.left + (MARGIN - planBounds.getMinX()) * paintScale;
+    double yOrigin = insets.top + (MARGIN - planBounds.getMinY()) * paintScale;
+    boolean planTilesPainted = paintPlanTiles(g2D, xOrigin, yOrigin, paintScale);
+    g2D.translate(xOrigin, yOrigin);
     g2D.scale(paintScale, paintScale);
     setRenderingHints(g2D);
     try {
-      paintContent(g2D, paintScale, PaintMode.PAINT);
+      if (planTilesPainted) {
+        // Paint selection and feedback above cached plan layer
+        paintSelectedItems(g2D, paintScale);
+        paintFeedback(g2D, paintScale);
+      } else {
+        paintContent(g2D, paintScale, PaintMode.PAINT);
+      }
     } catch (InterruptedIOException ex) {
       // Ignore exception because it may happen only in EXPORT paint mode
     }
     g2D.dispose();
   }
 
+  /**
+   * Paints the plan layer with the images of the tiles intersecting the clip of <code>g2D</code>,
+   * after rendering in one pass the tiles missing in cache. Returns <code>false</code>
+   * if the plan layer can't be painted with tiles, when printing or when the current
+   * transformation isn't a simple scale for example.
+   */
+  private boolean paintPlanTiles(Graphics2D g2D, double xOrigin, double yOrigin, float planScale) {
+    AffineTransform transform = g2D.getTransform();
+    Rectangle clipBounds = g2D.getClipBounds();
+    if (isPaintingForPrint()
+        || clipBounds == null
+        || clipBounds.isEmpty()
+        || transform.getShearX() != 0
+        || transform.getShearY() != 0
+        || transform.getScaleX() != transform.getScaleY()
+        || transform.getScaleX() <= 0) {
+      return false;
+    }
+
+    int minColumn = Math.floorDiv(clipBounds.x, PLAN_TILE_SIZE);
+    int minRow = Math.floorDiv(clipBounds.y, PLAN_TILE_SIZE);
+    int maxColumn = Math.floorDiv(clipBounds.x + clipBounds.width - 1, PLAN_TILE_SIZE);
+    int maxRow = Math.floorDiv(clipBounds.y + clipBounds.height - 1, PLAN_TILE_SIZE);
+    int tilePixelSize = (int)Math.ceil(PLAN_TILE_SIZE * transform.getScaleX());
+    int paintedTileCount = (maxColumn - minColumn + 1) * (maxRow - minRow + 1);
+    if ((long)paintedTileCount * tilePixelSize * tilePixelSize > MAX_PLAN_TILES_PIXEL_COUNT) {
+      // Avoid to cache a too large area
+      return false;
+    }
+
+    boolean opaque = this.backgroundPainted && isOpaque();
+    int contentVersion = this.planContentVersion;
+    List<Selectable> selectedItems = getPlanLayerSelectedItems();
+    Color selectionColor = selectedItems.isEmpty()
+        ? null
+        : getSelectionColor();
+    if (this.planTilesCache == null
+        || !this.planTilesCache.isValid(planScale, xOrigin, yOrigin, tilePixelSize, opaque, contentVersion,
+            selectedItems, selectionColor, this.selectedItemsOutlinePainted)) {
+      this.planTilesCache = new PlanTiles(planScale, xOrigin, yOrigin, tilePixelSize, opaque, contentVersion,
+          selectedItems, selectionColor, this.selectedItemsOutlinePainted);
+    }
+    // Keep in cache the tiles of a few visible areas to avoid rendering them again while panning
+    Rectangle visibleRectangle = getVisibleRect();
+    int visibleTileCount = (visibleRectangle.width / PLAN_TILE_SIZE + 2) * (visibleRectangle.height / PLAN_TILE_SIZE + 2);
+    this.planTilesCache.setMaximumTileCount(Math.max(3 * visibleTileCount, paintedTileCount));
+
+    Rectangle missingTilesBounds = null;
+    for (int column = minColumn; column <= maxColumn; column++) {
+      for (int row = minRow; row <= maxRow; row++) {
+        if (this.planTilesCache.getTile(column, row) == null) {
+          Rectangle tileBounds = new Rectangle(column * PLAN_TILE_SIZE, row * PLAN_TILE_SIZE, PLAN_TILE_SIZE, PLAN_TILE_SIZE);
+          if (missingTilesBounds == null) {
+            missingTilesBounds = tileBounds;
+          } else {
+            missingTilesBounds.add(tileBounds);
+          }
+        }
+      }
+    }
+    if (missingTilesBounds != null) {
+      renderPlanTiles(g2D, missingTilesBounds, xOrigin, yOrigin, planScale);
+    }
+
+    for (int column = minColumn; column <= maxColumn; column++) {
+      for (int row = minRow; row <= maxRow; row++) {
+        g2D.drawImage(this.planTilesCache.getTile(column, row),
+            column * PLAN_TILE_SIZE, row * PLAN_TILE_SIZE, PLAN_TILE_SIZE, PLAN_TILE_SIZE, null);
+      }
+    }
+    return true;
+  }
+
+  /**
+   * Renders the plan layer in the given tiles bounds, then splits the rendered image
+   * in tiles stored in cache.
+   */
+  private void renderPlanTiles(Graphics2D g2D, Rectangle tilesBounds,
+                               double xOrigin, double yOrigin, float planScale) {
+    PlanTiles planTiles = this.planTilesCache;
+    int tilePixelSize = planTiles.getTilePixelSize();
+    int imageType = planTiles.isOpaque()
+        ? BufferedImage.TYPE_INT_RGB
+        : BufferedImage.TYPE_INT_ARGB_PRE;
+    int columnCount = tilesBounds.width / PLAN_TILE_SIZE;
+    int rowCount = tilesBounds.height / PLAN_TILE_SIZE;
+    BufferedImage image = new BufferedImage(columnCount * tilePixelSize, rowCount * tilePixelSize, imageType);
+    Graphics2D imageG2D = image.createGraphics();
+    if (planTiles.isOpaque()) {
+      imageG2D.setColor(getBackgroundColor(PaintMode.PAINT));
+      imageG2D.fillRect(0, 0, image.getWidth(), image.getHeight());
+    }
+    imageG2D.addRenderingHints(g2D.getRenderingHints());
+    imageG2D.setFont(g2D.getFont());
+    imageG2D.setColor(g2D.getColor());
+    double tileScale = (double)tilePixelSize / PLAN_TILE_SIZE;
+    imageG2D.scale(tileScale, tileScale);
+    imageG2D.translate(-tilesBounds.x, -tilesBounds.y);
+    imageG2D.clipRect(tilesBounds.x, tilesBounds.y, tilesBounds.width, tilesBounds.height);
+    imageG2D.translate(xOrigin, yOrigin);
+    imageG2D.scale(planScale, planScale);
+    setRenderingHints(imageG2D);
+    this.planTileRendering = true;
+    try {
+      paintPlanLayer(imageG2D, planScale, PaintMode.PAINT);
+    } catch (InterruptedIOException ex) {
+      // Ignore exception because it may happen only in EXPORT paint mode
+    } finally {
+      this.planTileRendering = false;
+      imageG2D.dispose();
+    }
+
+    int firstColumn = tilesBounds.x / PLAN_TILE_SIZE;
+    int firstRow = tilesBounds.y / PLAN_TILE_SIZE;
+    for (int i = 0; i < columnCount; i++) {
+      for (int j = 0; j < rowCount; j++) {
+        BufferedImage tile = new BufferedImage(tilePixelSize, tilePixelSize, imageType);
+        Graphics2D tileG2D = tile.createGraphics();
+        tileG2D.setComposite(AlphaComposite.Src);
+        tileG2D.drawImage(image, -i * tilePixelSize, -j * tilePixelSize, null);
+        tileG2D.dispose();
+        planTiles.putTile(firstColumn + i, firstRow + j, tile);
+      }
+    }
+  }
+
+  /**
+   * Returns the selected polylines, dimension lines and labels, which are painted
+   * with their selection in the tiles of plan layer, as they are drawn
+   * between other items when the plan is painted directly.
+   */
+  private List<Selectable> getPlanLayerSelectedItems() {
+    List<Selectable> selectedItems = this.home.getSelectedItems();
+    if (selectedItems.isEmpty()) {
+      return selectedItems;
+    } else {
+      List<Selectable> planLayerSelectedItems = new ArrayList<>();
+      for (Selectable item : selectedItems) {
+        if (item instanceof Polyline
+            || item instanceof DimensionLine
+            || item instanceof Label) {
+          planLayerSelectedItems.add(item);
+        }
+      }
+      return planLayerSelectedItems;
+    }
+  }
+
+  /**
+   * The images of the plan layer rendered in square tiles, valid for a given scale,
+   * origin, content version and selected items painted in plan layer.
+   */
+  private static class PlanTiles {
+    private final float            planScale;
+    private final double           xOrigin;
+    private final double           yOrigin;
+    private final int              tilePixelSize;
+    private final boolean          opaque;
+    private final int              contentVersion;
+    private final List<Selectable> selectedItems;
+    private final Color            selectionColor;
+    private final boolean          selectedItemsOutlinePainted;
+    private int                    maximumTileCount;
+    private final Map<Long, BufferedImage> tiles = new LinkedHashMap<Long, BufferedImage>(16, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<Long, BufferedImage> eldest) {
+          // Remove least recently painted tiles
+          return size() > maximumTileCount;
+        }
+      };
+
+    public PlanTiles(float planScale, double xOrigin, double yOrigin,
+                     int tilePixelSize, boolean opaque, int contentVersion,
+                     List<Selectable> selectedItems, Color selectionColor, boolean selectedItemsOutlinePainted) {
+      this.planScale = planScale;
+      this.xOrigin = xOrigin;
+      this.yOrigin = yOrigin;
+      this.tilePixelSize = tilePixelSize;
+      this.opaque = opaque;
+      this.contentVersion = contentVersion;
+      this.selectedItems = selectedItems;
+      this.selectionColor = selectionColor;
+      this.selectedItemsOutlinePainted = selectedItemsOutlinePainted;
+    }
+
+    /**
+     * Returns <code>true</code> if the tiles of this cache can be painted with the given parameters.
+     */
+    public boolean isValid(float planScale, double xOrigin, double yOrigin,
+                           int tilePixelSize, boolean opaque, int contentVersion,
+                           List<Selectable> selectedItems, Color selectionColor, boolean selectedItemsOutlinePainted) {
+      return this.planScale == planScale
+          && this.xOrigin == xOrigin
+          && this.yOrigin == yOrigin
+          && this.tilePixelSize == tilePixelSize
+          && this.opaque == opaque
+          && this.contentVersion == contentVersion
+          && this.selectedItems.equals(selectedItems)
+          && Objects.equals(this.selectionColor, selectionColor)
+          && (this.selectedItems.isEmpty()
+              || this.selectedItemsOutlinePainted == selectedItemsOutlinePainted);
+    }
+
+    public int getTilePixelSize() {
+      return this.tilePixelSize;
+    }
+
+    public List<Selectable> getSelectedItems() {
+      return this.selectedItems;
+    }
+
+    public boolean isOpaque() {
+      return this.opaque;
+    }
+
+    public void setMaximumTileCount(int maximumTileCount) {
+      this.maximumTileCount = maximumTileCount;
+    }
+
+    public BufferedImage getTile(int column, int row) {
+      return this.tiles.get(getTileKey(column, row));
+    }
+
+    public void putTile(int column, int row, BufferedImage tile) {
+      this.tiles.put(getTileKey(column, row), tile);
+    }
+
+    private static long getTileKey(int column, int row) {
+      return ((long)column << 32) | (row & 0xFFFFFFFFL);
+    }
+  }
+
   /**
    * Returns the print preferred scale of the plan drawn in this component
    * to make it fill <code>pageFormat</code> imageable size.
@@ -2413,7 +2710,15 @@ public class PlanComponent extends JComponent implements PlanView, Scrollable, P
     float xMax;
     float yMax;
     Rectangle2D planBounds = getPlanBounds();
-    if (getParent() instanceof JViewport) {
+    if (this.planTileRendering) {
+      // Paint grid in the whole rendered tiles, even out of view
+      Rectangle2D clipBounds = g2D.getClip().getBounds2D();
+      float pixelSize = 1 / gridScale;
+      xMin = (float)clipBounds.getMinX() - pixelSize;
+      yMin = (float)clipBounds.getMinY() - pixelSize;
+      xMax = (float)clipBounds.getMaxX() + pixelSize;
+      yMax = (float)clipBounds.getMaxY() + pixelSize;
+    } else if (getParent() instanceof JViewport) {
       Rectangle viewRectangle = ((JViewport)getParent()).getViewRect();
       xMin = convertXPixelToModel(viewRectangle.x - 1);
       yMin = convertYPixelToModel(viewRectangle.y - 1);
@@ -2538,6 +2843,18 @@ public class PlanComponent extends JComponent implements PlanView, Scrollable, P
    *           if <code>paintMode</code> is equal to <code>PaintMode.EXPORT</code>).
    */
   private void paintContent(Graphics2D g2D, float planScale, PaintMode paintMode) throws InterruptedIOException {
+    paintPlanLayer(g2D, planScale, paintMode);
+    if (paintMode == PaintMode.PAINT) {
+      paintFeedback(g2D, planScale);
+    }
+  }
+
+  /**
+   * Paints background image, other levels, grid and home items.
+   * @throws InterruptedIOException if painting was interrupted (may happen only
+   *           if <code>paintMode</code> is equal to <code>PaintMode.EXPORT</code>).
+   */
+  private void paintPlanLayer(Graphics2D g2D, float planScale, PaintMode paintMode) throws InterruptedIOException {
     Color backgroundColor = getBackgroundColor(paintMode);
     Color foregroundColor = getForegroundColor(paintMode);
     if (this.backgroundPainted) {
@@ -2551,85 +2868,115 @@ public class PlanComponent extends JComponent implements PlanView, Scrollable, P
     }
 
     paintHomeItems(g2D, planScale, backgroundColor, foregroundColor, paintMode);
+  }
 
-    if (paintMode == PaintMode.PAINT) {
-      List<Selectable> selectedItems = this.home.getSelectedItems();
-
+  /**
+   * Paints the outline of selected compass, rooms, walls and furniture above the tiles
+   * of plan layer rendered without their selection.
+   */
+  private void paintSelectedItems(Graphics2D g2D, float planScale) {
+    List<Selectable> selectedItems = this.home.getSelectedItems();
+    if (!selectedItems.isEmpty()) {
+      Color foregroundColor = getForegroundColor(PaintMode.PAINT);
       Color selectionColor = getSelectionColor();
-      Color furnitureOutlineColor = getFurnitureOutlineColor();
       Paint selectionOutlinePaint = new Color(selectionColor.getRed(), selectionColor.getGreen(),
           selectionColor.getBlue(), 128);
       Stroke selectionOutlineStroke = new BasicStroke(6 / planScale,
           BasicStroke.CAP_ROUND, BasicStroke.JOIN_ROUND);
-      Stroke dimensionLinesSelectionOutlineStroke = new BasicStroke(4 / planScale,
-          BasicStroke.CAP_ROUND, BasicStroke.JOIN_ROUND);
-      Stroke locationFeedbackStroke = new BasicStroke(
-          1 / planScale, BasicStroke.CAP_SQUARE, BasicStroke.JOIN_BEVEL, 0,
-          new float [] {20 / planScale, 5 / planScale, 5 / planScale, 5 / planScale}, 4 / planScale);
-
-      paintCamera(g2D, selectedItems, selectionOutlinePaint, selectionOutlineStroke, selectionColor,
-          planScale, backgroundColor, foregroundColor);
-
-      // Paint alignment feedback depending on aligned object class
-      if (this.alignedObjectClass != null) {
-        if (Wall.class.isAssignableFrom(this.alignedObjectClass)) {
-          paintWallAlignmentFeedback(g2D, (Wall)this.alignedObjectFeedback, this.locationFeeback, this.showPointFeedback,
-              selectionColor, locationFeedbackStroke, planScale,
-              selectionOutlinePaint, selectionOutlineStroke);
-        } else if (Room.class.isAssignableFrom(this.alignedObjectClass)) {
-          paintRoomAlignmentFeedback(g2D, (Room)this.alignedObjectFeedback, this.locationFeeback, this.showPointFeedback,
-              selectionColor, locationFeedbackStroke, planScale,
-              selectionOutlinePaint, selectionOutlineStroke);
-        } else if (Polyline.class.isAssignableFrom(this.alignedObjectClass)) {
-          if (this.showPointFeedback) {
-            paintPointFeedback(g2D, this.locationFeeback, selectionColor, planScale, selectionOutlinePaint, selectionOutlineStroke);
-          }
-        } else if (DimensionLine.class.isAssignableFrom(this.alignedObjectClass)) {
-          paintDimensionLineAlignmentFeedback(g2D, (DimensionLine)this.alignedObjectFeedback, this.locationFeeback, this.showPointFeedback,
-              selectionColor, locationFeedbackStroke, planScale,
-              selectionOutlinePaint, selectionOutlineStroke);
-        }
-      }
-      if (this.centerAngleFeedback != null) {
-       paintAngleFeedback(g2D, this.centerAngleFeedback, this.point1AngleFeedback, this.point2AngleFeedback,
-           planScale, selectionColor);
-      }
-      if (this.dimensionLinesFeedback != null) {
-        List<Selectable> emptySelection = Collections.emptyList();
-        paintDimensionLines(g2D, this.dimensionLinesFeedback, emptySelection,
-            null, null, null, locationFeedbackStroke, planScale,
-            backgroundColor, selectionColor, paintMode, true);
+      if (this.selectedItemsOutlinePainted) {
+        paintSelectedItemsOutline(g2D, selectedItems, selectionOutlinePaint, selectionOutlineStroke,
+            selectionColor, planScale, foregroundColor);
       }
+    }
+  }
 
-      if (this.draggedItemsFeedback != null) {
-        paintDimensionLines(g2D, Home.getDimensionLinesSubList(this.draggedItemsFeedback), this.draggedItemsFeedback,
-            selectionOutlinePaint, dimensionLinesSelectionOutlineStroke, null,
-            locationFeedbackStroke, planScale, backgroundColor, foregroundColor, paintMode, false);
-        paintLabels(g2D, Home.getLabelsSubList(this.draggedItemsFeedback), this.draggedItemsFeedback,
-            selectionOutlinePaint, dimensionLinesSelectionOutlineStroke, null,
-            planScale, foregroundColor, paintMode);
-        paintRoomsOutline(g2D, this.draggedItemsFeedback, selectionOutlinePaint, selectionOutlineStroke, null,
-            planScale, foregroundColor);
-        paintWallsOutline(g2D, this.draggedItemsFeedback, selectionOutlinePaint, selectionOutlineStroke, null,
-            planScale, foregroundColor);
-        paintFurniture(g2D, Home.getFurnitureSubList(this.draggedItemsFeedback), selectedItems, planScale, null,
-            foregroundColor, furnitureOutlineColor, paintMode, false);
-        paintFurnitureOutline(g2D, this.draggedItemsFeedback, selectionOutlinePaint, selectionOutlineStroke, null,
-            planScale, foregroundColor);
-      }
+  /**
+   * Paints camera and feedback items.
+   */
+  private void paintFeedback(Graphics2D g2D, float planScale) {
+    PaintMode paintMode = PaintMode.PAINT;
+    Color backgroundColor = getBackgroundColor(paintMode);
+    Color foregroundColor = getForegroundColor(paintMode);
+    List<Selectable> selectedItems = this.home.getSelectedItems();
+
+    Color selectionColor = getSelectionColor();
+    Color furnitureOutlineColor = getFurnitureOutlineColor();
+    Paint selectionOutlinePaint = new Color(selectionColor.getRed(), selectionColor.getGreen(),
+        selectionColor.getBlue(), 128);
+    Stroke selectionOutlineStroke = new BasicStroke(6 / planScale,
+        BasicStroke.CAP_ROUND, BasicStroke.JOIN_ROUND);
+    Stroke dimensionLinesSelectionOutlineStroke = new BasicStroke(4 / planScale,
+        BasicStroke.CAP_ROUND, BasicStroke.JOIN_ROUND);
+    Stroke locationFeedbackStroke = new BasicStroke(
+        1 / planScale, BasicStroke.CAP_SQUARE, BasicStroke.JOIN_BEVEL, 0,
+        new float [] {20 / planScale, 5 / planScale, 5 / planScale, 5 / planScale}, 4 / planScale);
 
-      paintRectangleFeedback(g2D, selectionColor, planScale);
+    paintCamera(g2D, selectedItems, selectionOutlinePaint, selectionOutlineStroke, selectionColor,
+        planScale, backgroundColor, foregroundColor);
+
+    // Paint alignment feedback depending on aligned object class
+    if (this.alignedObjectClass != null) {
+      if (Wall.class.isAssignableFrom(this.alignedObjectClass)) {
+        paintWallAlignmentFeedback(g2D, (Wall)this.alignedObjectFeedback, this.locationFeeback, this.showPointFeedback,
+            selectionColor, locationFeedbackStroke, planScale,
+            selectionOutlinePaint, selectionOutlineStroke);
+      } else if (Room.class.isAssignableFrom(this.alignedObjectClass)) {
+        paintRoomAlignmentFeedback(g2D, (Room)this.alignedObjectFeedback, this.locationFeeback, this.showPointFeedback,
+            selectionColor, locationFeedbackStroke, planScale,
+            selectionOutlinePaint, selectionOutlineStroke);
+      } else if (Polyline.class.isAssignableFrom(this.alignedObjectClass)) {
+        if (this.showPointFeedback) {
+          paintPointFeedback(g2D, this.locationFeeback, selectionColor, planScale, selectionOutlinePaint, selectionOutlineStroke);
+        }
+      } else if (DimensionLine.class.isAssignableFrom(this.alignedObjectClass)) {
+        paintDimensionLineAlignmentFeedback(g2D, (DimensionLine)this.alignedObjectFeedback, this.locationFeeback, this.showPointFeedback,
+            selectionColor, locationFeedbackStroke, planScale,
+            selectionOutlinePaint, selectionOutlineStroke);
+      }
+    }
+    if (this.centerAngleFeedback != null) {
+     paintAngleFeedback(g2D, this.centerAngleFeedback, this.point1AngleFeedback, this.point2AngleFeedback,
+         planScale, selectionColor);
+    }
+    if (this.dimensionLinesFeedback != null) {
+      List<Selectable> emptySelection = Collections.emptyList();
+      paintDimensionLines(g2D, this.dimensionLinesFeedback, emptySelection,
+          null, null, null, locationFeedbackStroke, planScale,
+          backgroundColor, selectionColor, paintMode, true);
+    }
+
+    if (this.draggedItemsFeedback != null) {
+      paintDimensionLines(g2D, Home.getDimensionLinesSubList(this.draggedItemsFeedback), this.draggedItemsFeedback,
+          selectionOutlinePaint, dimensionLinesSelectionOutlineStroke, null,
+          locationFeedbackStroke, planScale, backgroundColor, foregroundColor, paintMode, false);
+      paintLabels(g2D, Home.getLabelsSubList(this.draggedItemsFeedback), this.draggedItemsFeedback,
+          selectionOutlinePaint, dimensionLinesSelectionOutlineStroke, null,
+          planScale, foregroundColor, paintMode);
+      paintRoomsOutline(g2D, this.draggedItemsFeedback, selectionOutlinePaint, selectionOutlineStroke, null,
+          planScale, foregroundColor);
+      paintWallsOutline(g2D, this.draggedItemsFeedback, selectionOutlinePaint, selectionOutlineStroke, null,
+          planScale, foregroundColor);
+      paintFurniture(g2D, Home.getFurnitureSubList(this.draggedItemsFeedback), selectedItems, planScale, null,
+          foregroundColor, furnitureOutlineColor, paintMode, false);
+      paintFurnitureOutline(g2D, this.draggedItemsFeedback, selectionOutlinePaint, selectionOutlineStroke, null,
+          planScale, foregroundColor);
     }
+
+    paintRectangleFeedback(g2D, selectionColor, planScale);
   }
 
   /**
    * Paints home items at the given scale, and with background and foreground colors.
-   * Outline around selected items will be painted only under <code>PAINT</code> mode.
+   * Outline around selected items will be painted only under <code>PAINT</code> mode,
+   * and only selected polylines, dimension lines and labels are painted as selected
+   * while rendering plan tiles.
    */
   protected void paintHomeItems(Graphics g, float planScale,
                                 Color backgroundColor, Color foregroundColor, PaintMode paintMode) throws InterruptedIOException {
     Graphics2D g2D = (Graphics2D)g;
-    List<Selectable> selectedItems = this.home.getSelectedItems();
+    List<Selectable> selectedItems = this.planTileRendering
+        ? this.planTilesCache.getSelectedItems()
+        : this.home.getSelectedItems();
     if (this.sortedLevelFurniture == null) {
       // Sort home furniture in elevation order
       this.sortedLevelFurniture = new ArrayList<>();
@@ -2687,17 +3034,27 @@ public class PlanComponent extends JComponent implements PlanView, Scrollable, P
 
     if (paintMode == PaintMode.PAINT
         && this.selectedItemsOutlinePainted) {
-      paintCompassOutline(g2D, selectedItems, selectionOutlinePaint, selectionOutlineStroke, selectionColor,
-          planScale, foregroundColor);
-      paintRoomsOutline(g2D, selectedItems, selectionOutlinePaint, selectionOutlineStroke, selectionColor,
-          planScale, foregroundColor);
-      paintWallsOutline(g2D, selectedItems, selectionOutlinePaint, selectionOutlineStroke, selectionColor,
-          planScale, foregroundColor);
-      paintFurnitureOutline(g2D, selectedItems, selectionOutlinePaint, selectionOutlineStroke, selectionColor,
+      paintSelectedItemsOutline(g2D, selectedItems, selectionOutlinePaint, selectionOutlineStroke, selectionColor,
           planScale, foregroundColor);
     }
   }
 
+  /**
+   * Paints the outline of the selected compass, rooms, walls and furniture.
+   */
+  private void paintSelectedItemsOutline(Graphics2D g2D, List<Selectable> selectedItems,
+                                         Paint selectionOutlinePaint, Stroke selectionOutlineStroke,
+                                         Paint indicatorPaint, float planScale, Color foregroundColor) {
+    paintCompassOutline(g2D, selectedItems, selectionOutlinePaint, selectionOutlineStroke, indicatorPaint,
+        planScale, foregroundColor);
+    paintRoomsOutline(g2D, selectedItems, selectionOutlinePaint, selectionOutlineStroke, indicatorPaint,
+        planScale, foregroundColor);
+    paintWallsOutline(g2D, selectedItems, selectionOutlinePaint, selectionOutlineStroke, indicatorPaint,
+        planScale, foregroundColor);
+    paintFurnitureOutline(g2D, selectedItems, selectionOutlinePaint, selectionOutlineStroke, indicatorPaint,
+        planScale, foregroundColor);
+  }
+
   /**
    * Returns the color used to draw selection outlines.
    */
@@ -3491,7 +3848,7 @@ public class PlanComponent extends JComponent implements PlanView, Scrollable, P
     }
     Map<Collection<Wall>, Area> wallAreas = new LinkedHashMap<>();
     if (samePattern) {
-      wallAreas.put(walls, getItemsArea(walls));
+      wallAreas.put(walls, WallsGeometry.getInstance(this.home).getWallsArea(walls, false));
     } else {
       // Create walls sublists by pattern
       Map<TextureImage, Collection<Wall>> sortedWalls = new LinkedHashMap<>();
@@ -3508,7 +3865,7 @@ public class PlanComponent extends JComponent implements PlanView, Scrollable, P
         patternWalls.add(wall);
       }
       for (Collection<Wall> patternWalls : sortedWalls.values()) {
-        wallAreas.put(patternWalls, getItemsArea(patternWalls));
+        wallAreas.put(patternWalls, WallsGeometry.getInstance(this.home).getWallsArea(patternWalls, false));
       }
     }
     return wallAreas;
@@ -5125,7 +5482,7 @@ public class PlanComponent extends JComponent implements PlanView, Scrollable, P
   public void setRectangleFeedback(float x0, float y0, float x1, float y1) {
     this.rectangleFeedback = new Rectangle2D.Float(x0, y0, 0, 0);
     this.rectangleFeedback.add(x1, y1);
-    repaint();
+    repaintOverlay();
   }
 
   /**
@@ -5605,7 +5962,7 @@ public class PlanComponent extends JComponent implements PlanView, Scrollable, P
    */
   public void setResizeIndicatorVisible(boolean resizeIndicatorVisible) {
     this.resizeIndicatorVisible = resizeIndicatorVisible;
-    repaint();
+    repaintOverlay();
   }
 
   /**
@@ -5620,7 +5977,7 @@ public class PlanComponent extends JComponent implements PlanView, Scrollable, P
     this.alignedObjectFeedback = alignedObject;
     this.locationFeeback = new Point2D.Float(x, y);
     this.showPointFeedback = showPointFeedback;
-    repaint();
+    repaintOverlay();
   }
 
   /**
@@ -5640,7 +5997,7 @@ public class PlanComponent extends JComponent implements PlanView, Scrollable, P
    */
   public void setDraggedItemsFeedback(List<Selectable> draggedItems) {
     this.draggedItemsFeedback = draggedItems;
-    repaint();
+    repaintOverlay();
   }
 
   /**
@@ -5648,7 +6005,7 @@ public class PlanComponent extends JComponent implements PlanView, Scrollable, P
    */
   public void setDimensionLinesFeedback(List<DimensionLine> dimensionLines) {
     this.dimensionLinesFeedback = dimensionLines;
-    repaint();
+    repaintOverlay();
   }
 
   /**
@@ -5669,7 +6026,7 @@ public class PlanComponent extends JComponent implements PlanView, Scrollable, P
     this.draggedItemsFeedback = null;
 
     this.dimensionLinesFeedback = null;
-    repaint();
+    repaintOverlay();
   }
 
   /**
@@ -24,6 +24,7 @@ import com.eteks.sweethome3d.j3d.PhotoRenderer;
 import com.eteks.sweethome3d.model.*;
 import com.eteks.sweethome3d.tools.OperatingSystem;
 import com.eteks.sweethome3d.tools.ResourceURLContent;
+import com.eteks.sweethome3d.tools.URLContent;
 import com.eteks.sweethome3d.viewcontroller.*;
 
 import javax.imageio.ImageIO;
@@ -49,12 +50,22 @@ import java.beans.PropertyChangeListener;
 import java.io.*;
 import java.lang.ref.WeakReference;
 import java.lang.reflect.Field;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.security.DigestOutputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
 import java.text.DateFormat;
 import java.text.SimpleDateFormat;
 import java.util.*;
 import java.util.List;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutionException;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
 
 /**
  * A panel used for video creation. 
@@ -68,6 +79,14 @@ public class VideoPanel extends JPanel implements DialogView {
   private static final String VIDEO_DIALOG_Y_VISUAL_PROPERTY = "com.eteks.sweethome3d.swing.VideoPanel.VideoDialogY";
 
   private static final int MINIMUM_DELAY_BEFORE_DISCARDING_WITHOUT_WARNING = 30000;
+
+  /**
+   * The name of the system property used to set the count of video frames rendered
+   * in parallel with photo renderer. By default, this count depends on available processors and memory.
+   */
+  public static final String PARALLEL_FRAME_COUNT = "com.eteks.sweethome3d.swing.VideoPanel.parallelFrameCount";
+
+  private static final String FRAMES_CHECKPOINT_FOLDER = "videoFrames";
   
   private static final VideoFormat [] VIDEO_FORMATS = {
       new VideoFormat(VideoFormat.JPEG, new Dimension(176, 132), Format.NOT_SPECIFIED, Format.byteArray, 12), // 4/3
@@ -1234,17 +1253,27 @@ public class VideoPanel extends JPanel implements DialogView {
     this.progressLabel.setText("");
 
     // Compute video in an other executor thread
-    // Use a clone of home because the user can modify home during video computation
-    final Home home = this.home.clone();
+    // Use a copy of home because the user can modify home during video computation,
+    // photo renderers accepting a snapshot of home which shares its unchanged items with previous snapshots
+    final List<Home> homes = new ArrayList<Home>();
+    if (this.controller.getQuality() >= 2) {
+      // Give its own snapshot to each renderer working in parallel, as renderers may modify their home 
+      HomeSnapshot snapshot = HomeSnapshot.getInstance(this.home);
+      for (int i = getParallelFrameCount(); i > 0; i--) {
+        homes.add(snapshot.getHome());
+      }
+    } else {
+      homes.add(this.home.clone());
+    }
     this.videoCreationExecutor = Executors.newSingleThreadExecutor();
-    this.videoCreationExecutor.execute(() -> computeVideo(home));
+    this.videoCreationExecutor.execute(() -> computeVideo(homes));
   }
 
   /**
-   * Computes the video of the given home.
+   * Computes the video of the given copies of home, one copy for each frame rendered in parallel.
    * Caution : this method must be thread safe because it's called from an executor. 
    */
-  private void computeVideo(Home home) {
+  private void computeVideo(List<Home> homes) {
     this.videoCreationStartTime = System.currentTimeMillis();
     int frameRate = this.controller.getFrameRate();
     int quality = this.controller.getQuality();
@@ -1252,7 +1281,9 @@ public class VideoPanel extends JPanel implements DialogView {
     int height = this.controller.getHeight();
     final Camera [] videoFramesPath = getVideoFramesPath(frameRate);
     // Set initial camera location because its type may change rendering setting
-    home.setCamera(videoFramesPath [0]);
+    for (Home home : homes) {
+      home.setCamera(videoFramesPath [0]);
+    }
     final BoundedRangeModel progressModel = this.progressBar.getModel();
     EventQueue.invokeLater(() -> {
       progressModel.setMinimum(0);
@@ -1266,20 +1297,28 @@ public class VideoPanel extends JPanel implements DialogView {
       this.videoFile = null;
     }
     File file = null;
+    FramesCheckpoint framesCheckpoint = null;
     try {
       file = OperatingSystem.createTemporaryFile("video", ".mov"); 
       if (quality >= 2) {
-        frameGenerator = new PhotoImageGenerator(home, width, height, this.object3dFactory, 
+        // Keep rendered frames to be able to resume an interrupted video
+        framesCheckpoint = FramesCheckpoint.getInstance(homes.get(0), videoFramesPath, width, height, quality);
+        frameGenerator = new PhotoImageGenerator(homes, width, height, this.object3dFactory, 
             quality == 2 
               ? PhotoRenderer.Quality.LOW
-              : PhotoRenderer.Quality.HIGH);        
+              : PhotoRenderer.Quality.HIGH, 
+            videoFramesPath, framesCheckpoint);
       } else {
-        frameGenerator = new Image3DGenerator(home, width, height, this.object3dFactory, quality == 1); 
+        frameGenerator = new Image3DGenerator(homes.get(0), width, height, this.object3dFactory, quality == 1); 
       }
       if (!Thread.currentThread().isInterrupted()) {
         ImageDataSource sourceStream = new ImageDataSource((VideoFormat)this.videoFormatComboBox.getSelectedItem(), 
             frameGenerator, videoFramesPath, progressModel);
         new JPEGImagesToVideo().createVideoFile(width, height, frameRate, sourceStream, file);
+        if (framesCheckpoint != null
+            && !Thread.currentThread().isInterrupted()) {
+          framesCheckpoint.delete();
+        }
       }
     } catch (InterruptedIOException ex) {
       if (file != null) {
@@ -1316,6 +1355,24 @@ public class VideoPanel extends JPanel implements DialogView {
     }
   }
 
+  /**
+   * Returns the count of frames that should be rendered in parallel with photo renderer.
+   */
+  private int getParallelFrameCount() {
+    String parallelFrameCount = System.getProperty(PARALLEL_FRAME_COUNT);
+    if (parallelFrameCount != null) {
+      try {
+        return Math.max(1, Integer.parseInt(parallelFrameCount));
+      } catch (NumberFormatException ex) {
+        // Use default count
+      }
+    }
+    // Render one frame per group of 4 processors, each renderer requiring its own copy of the scene
+    long maxMemory = Runtime.getRuntime().maxMemory();
+    return (int)Math.max(1, Math.min(Runtime.getRuntime().availableProcessors() / 4,
+        maxMemory == Long.MAX_VALUE ? Integer.MAX_VALUE : maxMemory / (512L << 20)));
+  }
+
   /**
    * Shows a message error dialog. 
    */
@@ -1565,11 +1622,8 @@ public class VideoPanel extends JPanel implements DialogView {
         buffer.setLength(0);
       } else {
         checkAppContext();
-        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
-        BufferedImage frame = this.frameGenerator.renderImageAt(this.framesPath [this.imageIndex],
+        byte [] data = this.frameGenerator.getFrameData(this.framesPath [this.imageIndex],
             this.imageIndex == this.framesPath.length - 1);
-        ImageIO.write(frame, "JPEG", outputStream);
-        byte [] data = outputStream.toByteArray();
         buffer.setData(data);
         buffer.setLength(data.length);
         buffer.setFormat(this.format);
@@ -1645,43 +1699,316 @@ public class VideoPanel extends JPanel implements DialogView {
     }
     
     public abstract BufferedImage renderImageAt(Camera frameCamera, boolean last) throws IOException;
+
+    /**
+     * Returns the JPEG data of the frame at the given camera location.
+     */
+    public byte [] getFrameData(Camera frameCamera, boolean last) throws IOException {
+      ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+      ImageIO.write(renderImageAt(frameCamera, last), "JPEG", outputStream);
+      return outputStream.toByteArray();
+    }
     
     protected void checkLaunchingThreadIsntInterrupted() throws InterruptedIOException {
-      if (this.launchingThread.isInterrupted()) {
+      if (isLaunchingThreadInterrupted()) {
         throw new InterruptedIOException("Lauching thread interrupted");
       }
     }
+
+    protected boolean isLaunchingThreadInterrupted() {
+      return this.launchingThread.isInterrupted();
+    }
   }
 
   /**
-   * A frame generator using photo renderer.
+   * A frame generator using photo renderers, able to render several frames in parallel.
+   * Frames are rendered ahead of the requested one and kept in a bounded buffer
+   * until they're requested in order.
    */
   private static class PhotoImageGenerator extends FrameGenerator {
-    private PhotoRenderer renderer;
-    private BufferedImage image;
-    
-    public PhotoImageGenerator(Home home, int width, int height,
+    private final int                   width;
+    private final int                   height;
+    private final Object3DFactory       object3dFactory;
+    private final PhotoRenderer.Quality quality;
+    private final Camera []             framesPath;
+    private final int                   parallelFrameCount;
+    private final FramesCheckpoint      framesCheckpoint;
+    private final ExecutorService       renderingExecutor;
+    private final Queue<PhotoRenderer>  availableRenderers;
+    private final List<PhotoRenderer>   renderers;
+    private final Queue<Home>           availableHomes;
+    private final Deque<Future<byte []>> renderedFrames;
+    private int                         nextFrameIndex;
+    private int                         nextRenderedFrameIndex;
+
+    /**
+     * Creates a generator rendering in parallel as many frames as the given <code>homes</code>,
+     * each renderer exporting its own copy of home to avoid concurrent modifications.
+     */
+    public PhotoImageGenerator(List<Home> homes, int width, int height,
                                Object3DFactory object3dFactory,
-                               PhotoRenderer.Quality quality) throws IOException {
-      this.renderer = new PhotoRenderer(home, object3dFactory, quality); 
-      this.image = new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
+                               PhotoRenderer.Quality quality,
+                               Camera [] framesPath,
+                               FramesCheckpoint framesCheckpoint) {
+      this.width = width;
+      this.height = height;
+      this.object3dFactory = object3dFactory;
+      this.quality = quality;
+      this.framesPath = framesPath;
+      this.parallelFrameCount = homes.size();
+      this.framesCheckpoint = framesCheckpoint;
+      this.renderingExecutor = Executors.newFixedThreadPool(this.parallelFrameCount);
+      this.availableRenderers = new ConcurrentLinkedQueue<PhotoRenderer>();
+      this.renderers = Collections.synchronizedList(new ArrayList<PhotoRenderer>());
+      this.availableHomes = new ConcurrentLinkedQueue<Home>(homes);
+      this.renderedFrames = new ArrayDeque<Future<byte []>>();
     }
 
+    @Override
     public BufferedImage renderImageAt(Camera frameCamera, boolean last) throws IOException {
+      return ImageIO.read(new ByteArrayInputStream(getFrameData(frameCamera, last)));
+    }
+
+    @Override
+    public byte [] getFrameData(Camera frameCamera, boolean last) throws IOException {
       try {
         checkLaunchingThreadIsntInterrupted();
-        this.renderer.render(this.image, frameCamera, null);   
-        checkLaunchingThreadIsntInterrupted();
-        return image;
-      } catch(InterruptedIOException ex) {
-        this.renderer = null;
+        if (this.framesPath [this.nextFrameIndex] != frameCamera) {
+          throw new IllegalArgumentException("Frames not requested in order");
+        }
+        // Keep twice as many frames as parallel renderers in the reorder buffer
+        while (this.nextRenderedFrameIndex < this.framesPath.length
+            && this.renderedFrames.size() < 2 * this.parallelFrameCount) {
+          final int frameIndex = this.nextRenderedFrameIndex++;
+          this.renderedFrames.add(this.renderingExecutor.submit(() -> renderFrame(frameIndex)));
+        }
+        this.nextFrameIndex++;
+        Future<byte []> frame = this.renderedFrames.remove();
+        while (true) {
+          try {
+            return frame.get(500, TimeUnit.MILLISECONDS);
+          } catch (TimeoutException ex) {
+            checkLaunchingThreadIsntInterrupted();
+          }
+        }
+      } catch (InterruptedIOException ex) {
+        last = true;
         throw ex;
+      } catch (InterruptedException ex) {
+        last = true;
+        throw new InterruptedIOException("Frame rendering interrupted");
+      } catch (ExecutionException ex) {
+        last = true;
+        Throwable cause = ex.getCause();
+        if (cause instanceof IOException) {
+          throw (IOException)cause;
+        } else if (cause instanceof RuntimeException) {
+          throw (RuntimeException)cause;
+        } else if (cause instanceof Error) {
+          throw (Error)cause;
+        } else {
+          throw new IOException(cause);
+        }
       } finally {
         if (last) {
-          this.renderer.dispose();
-          this.renderer = null;
+          dispose();
+        }
+      }
+    }
+
+    /**
+     * Returns the JPEG data of the frame at the given index, read from checkpoint if it exists.
+     * Caution : this method is called in parallel by rendering threads.
+     */
+    private byte [] renderFrame(int frameIndex) throws IOException {
+      if (this.framesCheckpoint != null) {
+        byte [] data = this.framesCheckpoint.getFrameData(frameIndex);
+        if (data != null) {
+          return data;
+        }
+      }
+
+      PhotoRenderer renderer = this.availableRenderers.poll();
+      if (renderer == null) {
+        // Create a new renderer, that will be reused by next frames
+        renderer = new PhotoRenderer(this.availableHomes.remove(), this.object3dFactory, this.quality);
+        renderer.setThreadCount(Math.max(1, Runtime.getRuntime().availableProcessors() / this.parallelFrameCount));
+        this.renderers.add(renderer);
+      }
+      BufferedImage image = new BufferedImage(this.width, this.height, BufferedImage.TYPE_INT_RGB);
+      try {
+        renderer.render(image, this.framesPath [frameIndex], null);
+      } finally {
+        this.availableRenderers.add(renderer);
+      }
+      // Don't keep an image partially rendered
+      if (Thread.currentThread().isInterrupted()
+          || isLaunchingThreadInterrupted()) {
+        throw new InterruptedIOException("Frame rendering interrupted");
+      }
+
+      ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+      ImageIO.write(image, "JPEG", outputStream);
+      byte [] data = outputStream.toByteArray();
+      if (this.framesCheckpoint != null) {
+        this.framesCheckpoint.putFrameData(frameIndex, data);
+      }
+      return data;
+    }
+
+    /**
+     * Stops rendering threads and disposes renderers.
+     */
+    private void dispose() {
+      this.renderingExecutor.shutdownNow();
+      for (Future<byte []> frame : this.renderedFrames) {
+        frame.cancel(true);
+      }
+      this.renderedFrames.clear();
+      synchronized (this.renderers) {
+        for (PhotoRenderer renderer : this.renderers) {
+          renderer.stop();
+          renderer.dispose();
+        }
+        this.renderers.clear();
+      }
+    }
+  }
+
+  /**
+   * The frames of a video rendered with photo renderer saved on disk, to be able to resume
+   * the creation of a video interrupted by the user or by the end of the program.
+   * Frames are stored in a folder whose name is a digest of the rendered home and video settings,
+   * and only the checkpoint of the last created video is kept.
+   */
+  private static class FramesCheckpoint {
+    private final File folder;
+
+    private FramesCheckpoint(File folder) {
+      this.folder = folder;
+    }
+
+    /**
+     * Returns the checkpoint matching the given home and video settings or <code>null</code>
+     * if it can't be created.
+     */
+    public static FramesCheckpoint getInstance(Home home, Camera [] framesPath,
+                                               int width, int height, int quality) {
+      try {
+        MessageDigest digest = MessageDigest.getInstance("SHA-1");
+        // Digest home with its serialized form
+        ObjectOutputStream out = new ObjectOutputStream(new DigestOutputStream(new OutputStream() {
+            @Override
+            public void write(int b) {
+            }
+
+            @Override
+            public void write(byte [] b, int off, int len) {
+            }
+          }, digest)) {
+            {
+              enableReplaceObject(true);
+            }
+
+            @Override
+            protected Object replaceObject(Object obj) throws IOException {
+              if (obj instanceof URLContent) {
+                // Replace content stored in home file by its entry name which doesn't change
+                // when home file is copied to a different temporary file
+                URLContent content = (URLContent)obj;
+                return content.isJAREntry()
+                    ? content.getJAREntryName()
+                    : content.getURL().toString();
+              } else {
+                return obj;
+              }
+            }
+          };
+        out.writeObject(home);
+        out.writeInt(width);
+        out.writeInt(height);
+        out.writeInt(quality);
+        for (Camera camera : framesPath) {
+          out.writeFloat(camera.getX());
+          out.writeFloat(camera.getY());
+          out.writeFloat(camera.getZ());
+          out.writeFloat(camera.getYaw());
+          out.writeFloat(camera.getPitch());
+          out.writeFloat(camera.getFieldOfView());
+          out.writeLong(camera.getTime());
+          out.writeUTF(camera.getLens().name());
+        }
+        out.close();
+        StringBuilder folderName = new StringBuilder();
+        for (byte b : digest.digest()) {
+          folderName.append(String.format("%02x", b));
+        }
+
+        File checkpointsFolder = new File(OperatingSystem.getDefaultApplicationFolder(), FRAMES_CHECKPOINT_FOLDER);
+        File folder = new File(checkpointsFolder, folderName.toString());
+        // Delete the checkpoints of other videos
+        File [] checkpointFolders = checkpointsFolder.listFiles();
+        if (checkpointFolders != null) {
+          for (File checkpointFolder : checkpointFolders) {
+            if (!checkpointFolder.equals(folder)) {
+              new FramesCheckpoint(checkpointFolder).delete();
+            }
+          }
+        }
+        if (!folder.isDirectory() && !folder.mkdirs()) {
+          return null;
+        }
+        return new FramesCheckpoint(folder);
+      } catch (IOException ex) {
+        return null;
+      } catch (NoSuchAlgorithmException ex) {
+        return null;
+      }
+    }
+
+    private File getFrameFile(int frameIndex) {
+      return new File(this.folder, String.format("frame%06d.jpg", frameIndex));
+    }
+
+    /**
+     * Returns the JPEG data of the frame at the given index or <code>null</code> if it wasn't saved.
+     */
+    public byte [] getFrameData(int frameIndex) {
+      File frameFile = getFrameFile(frameIndex);
+      try {
+        return frameFile.exists()
+            ? Files.readAllBytes(frameFile.toPath())
+            : null;
+      } catch (IOException ex) {
+        return null;
+      }
+    }
+
+    /**
+     * Saves the JPEG data of the frame at the given index.
+     */
+    public void putFrameData(int frameIndex, byte [] data) {
+      try {
+        // Write first a temporary file to ensure a saved frame is complete
+        File temporaryFile = File.createTempFile("frame", ".tmp", this.folder);
+        Files.write(temporaryFile.toPath(), data);
+        Files.move(temporaryFile.toPath(), getFrameFile(frameIndex).toPath(), StandardCopyOption.REPLACE_EXISTING);
+      } catch (IOException ex) {
+        // Frame will be rendered again if needed
+      }
+    }
+
+    /**
+     * Deletes the saved frames.
+     */
+    public void delete() {
+      File [] files = this.folder.listFiles();
+      if (files != null) {
+        for (File file : files) {
+          file.delete();
         }
       }
+      this.folder.delete();
     }
   }
 
@@ -113,11 +113,13 @@ public class FurnitureController implements Controller {
     for (HomePieceOfFurniture piece : home.getFurniture()) {
       piece.addPropertyChangeListener(furnitureChangeListener);
     }
-    this.home.addFurnitureListener(ev -> {
-      if (ev.getType() == CollectionEvent.Type.ADD) {
-        ev.getItem().addPropertyChangeListener(furnitureChangeListener);
-      } else if (ev.getType() == CollectionEvent.Type.DELETE) {
-        ev.getItem().removePropertyChangeListener(furnitureChangeListener);
+    this.home.addFurnitureListener((BatchCollectionListener<HomePieceOfFurniture>)ev -> {
+      for (HomePieceOfFurniture piece : ev.getItems()) {
+        if (ev.getType() == CollectionEvent.Type.ADD) {
+          piece.addPropertyChangeListener(furnitureChangeListener);
+        } else if (ev.getType() == CollectionEvent.Type.DELETE) {
+          piece.removePropertyChangeListener(furnitureChangeListener);
+        }
       }
     });
   }
@@ -206,11 +208,27 @@ public class FurnitureController implements Controller {
                               Level [] furnitureLevels,
                               boolean basePlanLocked,
                               boolean allLevelsSelection) {
+    // Add pieces which don't belong to a group in one batch if their indices are in ascending order
+    List<HomePieceOfFurniture> homeFurniture = new ArrayList<>(furniture.length);
+    int [] homeFurnitureIndex = new int [furniture.length];
+    boolean ascendingIndices = true;
+    for (int i = 0; i < furnitureIndex.length; i++) {
+      if (furnitureGroups == null || furnitureGroups [i] == null) {
+        int homePieceIndex = homeFurniture.size();
+        ascendingIndices &= homePieceIndex == 0
+            || furnitureIndex [i] > homeFurnitureIndex [homePieceIndex - 1];
+        homeFurnitureIndex [homePieceIndex] = furnitureIndex [i];
+        homeFurniture.add(furniture [i]);
+      }
+    }
+    if (ascendingIndices && homeFurniture.size() > 1) {
+      this.home.addFurniture(homeFurniture, Arrays.copyOf(homeFurnitureIndex, homeFurniture.size()));
+    }
     for (int i = 0; i < furnitureIndex.length; i++) {
       if (furnitureGroups != null && furnitureGroups [i] != null) {
         this.home.addPieceOfFurnitureToGroup(furniture [i], furnitureGroups [i], furnitureIndex [i]);
         furniture [i].setVisible(furnitureGroups [i].isVisible());
-      } else {
+      } else if (!ascendingIndices || homeFurniture.size() <= 1) {
         this.home.addPieceOfFurniture(furniture [i], furnitureIndex [i]);
       }
       furniture [i].setLevel(furnitureLevels != null ? furnitureLevels [i] : furnitureLevel);
@@ -258,18 +276,25 @@ public class FurnitureController implements Controller {
     // Sort the deletable furniture in the ascending order of their index in home or their group
     Map<HomeFurnitureGroup, Map<Integer, HomePieceOfFurniture>> deletedFurnitureMap =
             new HashMap<>();
+    Map<HomePieceOfFurniture, Integer> homeFurnitureIndices = new IdentityHashMap<>(homeFurniture.size());
+    for (int i = 0; i < homeFurniture.size(); i++) {
+      homeFurnitureIndices.put(homeFurniture.get(i), i);
+    }
     int deletedFurnitureCount = 0;
     for (HomePieceOfFurniture piece : deletedFurniture) {
       // Check piece is deletable and doesn't belong to a group
       if (isPieceOfFurnitureDeletable(piece)) {
-        HomeFurnitureGroup group = getPieceOfFurnitureGroup(piece, null, homeFurniture);
+        Integer homePieceIndex = homeFurnitureIndices.get(piece);
+        HomeFurnitureGroup group = homePieceIndex == null
+            ? getPieceOfFurnitureGroup(piece, null, homeFurniture)
+            : null;
         Map<Integer, HomePieceOfFurniture> sortedMap = deletedFurnitureMap.get(group);
         if (sortedMap == null) {
           sortedMap = new TreeMap<>();
           deletedFurnitureMap.put(group, sortedMap);
         }
         if (group == null) {
-          sortedMap.put(homeFurniture.indexOf(piece), piece);
+          sortedMap.put(homePieceIndex != null ? homePieceIndex : -1, piece);
         } else {
           sortedMap.put(group.getFurniture().indexOf(piece), piece);
         }
@@ -318,9 +343,7 @@ public class FurnitureController implements Controller {
   private void doDeleteFurniture(HomePieceOfFurniture [] furniture,
                                  boolean basePlanLocked,
                                  boolean allLevelsSelection) {
-    for (HomePieceOfFurniture piece : furniture) {
-      this.home.deletePieceOfFurniture(piece);
-    }
+    this.home.deleteFurniture(Arrays.asList(furniture));
     this.home.setBasePlanLocked(basePlanLocked);
     this.home.setAllLevelsSelection(allLevelsSelection);
   }
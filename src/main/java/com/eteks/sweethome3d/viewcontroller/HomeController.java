@@ -428,7 +428,7 @@ public class HomeController implements Controller {
    * with a weak reference to avoid strong link between catalog and this controller.
    */
   private static class FurnitureCatalogChangeListener extends UserPreferencesChangeListener
-                                                      implements CollectionListener<CatalogPieceOfFurniture> {
+                                                      implements BatchCollectionListener<CatalogPieceOfFurniture> {
     private WeakReference<HomeController> homeController;
 
     public FurnitureCatalogChangeListener(HomeController homeController) {
@@ -1012,7 +1012,7 @@ public class HomeController implements Controller {
   @SuppressWarnings("unchecked")
   private void addHomeItemsListener() {
     CollectionListener homeItemsListener =
-            ev -> {
+            (BatchCollectionListener)ev -> {
               if (ev.getType() == CollectionEvent.Type.ADD
                   || ev.getType() == CollectionEvent.Type.DELETE) {
                 enableSelectAllAction();
@@ -375,42 +375,52 @@ public class HomeController3D implements Controller {
       }
       updateCameraFromHomeBounds(false);
     };
-    private CollectionListener<Wall> wallsListener = ev -> {
-      if (ev.getType() == CollectionEvent.Type.ADD) {
-        ev.getItem().addPropertyChangeListener(objectChangeListener);
-      } else if (ev.getType() == CollectionEvent.Type.DELETE) {
-        ev.getItem().removePropertyChangeListener(objectChangeListener);
+    private CollectionListener<Wall> wallsListener = (BatchCollectionListener<Wall>)ev -> {
+      for (Wall wall : ev.getItems()) {
+        if (ev.getType() == CollectionEvent.Type.ADD) {
+          wall.addPropertyChangeListener(objectChangeListener);
+        } else if (ev.getType() == CollectionEvent.Type.DELETE) {
+          wall.removePropertyChangeListener(objectChangeListener);
+        }
       }
       updateCameraFromHomeBounds(false);
     };
-    private CollectionListener<HomePieceOfFurniture> furnitureListener = new CollectionListener<>()
+    private CollectionListener<HomePieceOfFurniture> furnitureListener = new BatchCollectionListener<>()
     {
       public void collectionChanged(CollectionEvent<HomePieceOfFurniture> ev)
       {
         if (ev.getType() == CollectionEvent.Type.ADD) {
-          ev.getItem().addPropertyChangeListener(objectChangeListener);
+          for (HomePieceOfFurniture piece : ev.getItems()) {
+            piece.addPropertyChangeListener(objectChangeListener);
+          }
           updateCameraFromHomeBounds(home.getFurniture().size() == 1
                   && home.getWalls().isEmpty()
                   && home.getRooms().isEmpty());
         } else if (ev.getType() == CollectionEvent.Type.DELETE) {
-          ev.getItem().removePropertyChangeListener(objectChangeListener);
+          for (HomePieceOfFurniture piece : ev.getItems()) {
+            piece.removePropertyChangeListener(objectChangeListener);
+          }
           updateCameraFromHomeBounds(false);
         }
       }
     };
-    private CollectionListener<Room> roomsListener = ev -> {
-      if (ev.getType() == CollectionEvent.Type.ADD) {
-        ev.getItem().addPropertyChangeListener(objectChangeListener);
-      } else if (ev.getType() == CollectionEvent.Type.DELETE) {
-        ev.getItem().removePropertyChangeListener(objectChangeListener);
+    private CollectionListener<Room> roomsListener = (BatchCollectionListener<Room>)ev -> {
+      for (Room room : ev.getItems()) {
+        if (ev.getType() == CollectionEvent.Type.ADD) {
+          room.addPropertyChangeListener(objectChangeListener);
+        } else if (ev.getType() == CollectionEvent.Type.DELETE) {
+          room.removePropertyChangeListener(objectChangeListener);
+        }
       }
       updateCameraFromHomeBounds(false);
     };
-    private CollectionListener<Label> labelsListener = ev -> {
-      if (ev.getType() == CollectionEvent.Type.ADD) {
-        ev.getItem().addPropertyChangeListener(objectChangeListener);
-      } else if (ev.getType() == CollectionEvent.Type.DELETE) {
-        ev.getItem().removePropertyChangeListener(objectChangeListener);
+    private CollectionListener<Label> labelsListener = (BatchCollectionListener<Label>)ev -> {
+      for (Label label : ev.getItems()) {
+        if (ev.getType() == CollectionEvent.Type.ADD) {
+          label.addPropertyChangeListener(objectChangeListener);
+        } else if (ev.getType() == CollectionEvent.Type.DELETE) {
+          label.removePropertyChangeListener(objectChangeListener);
+        }
       }
       updateCameraFromHomeBounds(false);
     };
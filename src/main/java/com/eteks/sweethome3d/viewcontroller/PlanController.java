@@ -25,8 +25,10 @@ import com.eteks.sweethome3d.model.Label;
 import javax.swing.undo.*;
 import java.awt.*;
 import java.awt.geom.*;
+import java.beans.PropertyChangeEvent;
 import java.beans.PropertyChangeListener;
 import java.beans.PropertyChangeSupport;
+import java.lang.ref.WeakReference;
 import java.util.*;
 import java.util.List;
 
@@ -83,6 +85,7 @@ public class PlanController extends FurnitureController implements Controller {
   private final ContentManager        contentManager;
   private final UndoableEditSupport   undoSupport;
   private final PropertyChangeSupport propertyChangeSupport;
+  private final WallsGeometry         wallsGeometry;
   private PlanView                    planView;
   private SelectionListener           selectionListener;
   private PropertyChangeListener      wallChangeListener;
@@ -146,6 +149,9 @@ public class PlanController extends FurnitureController implements Controller {
   private List<GeneralPath>               roomPathsCache;
   private Map<HomePieceOfFurniture, Area> furnitureSidesCache;
   private List<Selectable>                draggedItems;
+  private PlanSpatialIndex                itemsIndex;
+  private Set<Selectable>                 itemsIndexUpdates;
+  private Map<Selectable, Integer>        itemsOrderCache;
 
   /**
    * Creates the controller of plan view.
@@ -167,6 +173,7 @@ public class PlanController extends FurnitureController implements Controller {
     this.contentManager = contentManager;
     this.undoSupport = undoSupport;
     this.propertyChangeSupport = new PropertyChangeSupport(this);
+    this.wallsGeometry = WallsGeometry.getInstance(home);
     this.furnitureSidesCache = new Hashtable<>();
     // Initialize states
     this.selectionState = new SelectionState();
@@ -1970,6 +1977,154 @@ public class PlanController extends FurnitureController implements Controller {
     this.home.addPropertyChangeListener(Home.Property.SELECTED_LEVEL, ev -> resetAreaCache());
     this.home.getObserverCamera().setFixedSize(home.getLevels().size() >= 2);
     this.home.addLevelsListener(ev -> home.getObserverCamera().setFixedSize(home.getLevels().size() >= 2));
+    addItemsIndexListeners();
+  }
+
+  /**
+   * Adds the listeners that keep up to date the spatial index used to search items in plan.
+   */
+  private void addItemsIndexListeners() {
+    final PropertyChangeListener itemChangeListener = ev -> {
+      if (itemsIndex != null) {
+        Selectable item = (Selectable)ev.getSource();
+        itemsIndexUpdates.add(item);
+        if (item instanceof Wall) {
+          // The shape of a wall depends on the walls joined to it
+          addJoinedWallsToItemsIndexUpdates((Wall)item);
+          if (ev.getOldValue() instanceof Wall) {
+            addJoinedWallsToItemsIndexUpdates((Wall)ev.getOldValue());
+          }
+        }
+      }
+    };
+    for (Label label : this.home.getLabels()) {
+      label.addPropertyChangeListener(itemChangeListener);
+    }
+    this.home.addLabelsListener(ev -> {
+      if (ev.getType() == CollectionEvent.Type.ADD) {
+        ev.getItem().addPropertyChangeListener(itemChangeListener);
+      } else if (ev.getType() == CollectionEvent.Type.DELETE) {
+        ev.getItem().removePropertyChangeListener(itemChangeListener);
+      }
+      updateItemsIndex(ev);
+    });
+    for (DimensionLine dimensionLine : this.home.getDimensionLines()) {
+      dimensionLine.addPropertyChangeListener(itemChangeListener);
+    }
+    this.home.addDimensionLinesListener(ev -> {
+      if (ev.getType() == CollectionEvent.Type.ADD) {
+        ev.getItem().addPropertyChangeListener(itemChangeListener);
+      } else if (ev.getType() == CollectionEvent.Type.DELETE) {
+        ev.getItem().removePropertyChangeListener(itemChangeListener);
+      }
+      updateItemsIndex(ev);
+    });
+    for (Polyline polyline : this.home.getPolylines()) {
+      polyline.addPropertyChangeListener(itemChangeListener);
+    }
+    this.home.addPolylinesListener(ev -> {
+      if (ev.getType() == CollectionEvent.Type.ADD) {
+        ev.getItem().addPropertyChangeListener(itemChangeListener);
+      } else if (ev.getType() == CollectionEvent.Type.DELETE) {
+        ev.getItem().removePropertyChangeListener(itemChangeListener);
+      }
+      updateItemsIndex(ev);
+    });
+    for (HomePieceOfFurniture piece : this.home.getFurniture()) {
+      piece.addPropertyChangeListener(itemChangeListener);
+    }
+    this.home.addFurnitureListener(ev -> {
+      if (ev.getType() == CollectionEvent.Type.ADD) {
+        ev.getItem().addPropertyChangeListener(itemChangeListener);
+      } else if (ev.getType() == CollectionEvent.Type.DELETE) {
+        ev.getItem().removePropertyChangeListener(itemChangeListener);
+      }
+      updateItemsIndex(ev);
+    });
+    for (Wall wall : this.home.getWalls()) {
+      wall.addPropertyChangeListener(itemChangeListener);
+    }
+    this.home.addWallsListener(ev -> {
+      if (ev.getType() == CollectionEvent.Type.ADD) {
+        ev.getItem().addPropertyChangeListener(itemChangeListener);
+      } else if (ev.getType() == CollectionEvent.Type.DELETE) {
+        ev.getItem().removePropertyChangeListener(itemChangeListener);
+      }
+      if (itemsIndex != null) {
+        addJoinedWallsToItemsIndexUpdates(ev.getItem());
+      }
+      updateItemsIndex(ev);
+    });
+    for (Room room : this.home.getRooms()) {
+      room.addPropertyChangeListener(itemChangeListener);
+    }
+    this.home.addRoomsListener(ev -> {
+      if (ev.getType() == CollectionEvent.Type.ADD) {
+        ev.getItem().addPropertyChangeListener(itemChangeListener);
+      } else if (ev.getType() == CollectionEvent.Type.DELETE) {
+        ev.getItem().removePropertyChangeListener(itemChangeListener);
+      }
+      updateItemsIndex(ev);
+    });
+    // Texts displayed in plan depend on unit and default font
+    ItemsIndexChangeListener preferencesChangeListener = new ItemsIndexChangeListener(this);
+    this.preferences.addPropertyChangeListener(UserPreferences.Property.UNIT, preferencesChangeListener);
+    this.preferences.addPropertyChangeListener(UserPreferences.Property.DEFAULT_FONT_NAME, preferencesChangeListener);
+  }
+
+  /**
+   * Preferences listener that resets the spatial index of home items.
+   */
+  private static class ItemsIndexChangeListener implements PropertyChangeListener {
+    private WeakReference<PlanController> planController;
+
+    public ItemsIndexChangeListener(PlanController planController) {
+      this.planController = new WeakReference<>(planController);
+    }
+
+    public void propertyChange(PropertyChangeEvent ev) {
+      // If plan controller was garbage collected, remove this listener from preferences
+      PlanController planController = this.planController.get();
+      UserPreferences preferences = (UserPreferences)ev.getSource();
+      if (planController == null) {
+        preferences.removePropertyChangeListener(UserPreferences.Property.UNIT, this);
+        preferences.removePropertyChangeListener(UserPreferences.Property.DEFAULT_FONT_NAME, this);
+      } else {
+        // Rebuild index at next search
+        planController.itemsIndex = null;
+      }
+    }
+  }
+
+  /**
+   * Adds the given <code>wall</code> and the walls joined to it to the items which location
+   * in the spatial index should be updated.
+   */
+  private void addJoinedWallsToItemsIndexUpdates(Wall wall) {
+    this.itemsIndexUpdates.add(wall);
+    if (wall.getWallAtStart() != null) {
+      this.itemsIndexUpdates.add(wall.getWallAtStart());
+    }
+    if (wall.getWallAtEnd() != null) {
+      this.itemsIndexUpdates.add(wall.getWallAtEnd());
+    }
+  }
+
+  /**
+   * Updates the spatial index of home items once an item was added or deleted.
+   */
+  private void updateItemsIndex(CollectionEvent<? extends Selectable> ev) {
+    this.itemsOrderCache = null;
+    if (this.itemsIndex != null) {
+      Selectable item = ev.getItem();
+      if (ev.getType() == CollectionEvent.Type.ADD) {
+        // Compute item bounds at next search
+        this.itemsIndex.putItem(item, ((Elevatable)item).getLevel(), null);
+        this.itemsIndexUpdates.add(item);
+      } else if (ev.getType() == CollectionEvent.Type.DELETE) {
+        this.itemsIndex.removeItem(item);
+      }
+    }
   }
 
   private void resetAreaCache() {
@@ -3676,7 +3831,8 @@ public class PlanController extends FurnitureController implements Controller {
 
     boolean basePlanLocked = this.home.isBasePlanLocked();
     Level selectedLevel = this.home.getSelectedLevel();
-    for (Label label : this.home.getLabels()) {
+    Set<Selectable> indexedItems = getIndexedItemsIntersectingRectangle(x - margin, y - margin, x + margin, y + margin);
+    for (Label label : getIndexedItems(indexedItems, Label.class)) {
       if ((!basePlanLocked
             || !isItemPartOfBasePlan(label))
           && isLevelNullOrViewable(label.getLevel())
@@ -3691,7 +3847,7 @@ public class PlanController extends FurnitureController implements Controller {
       }
     }
 
-    for (DimensionLine dimensionLine : this.home.getDimensionLines()) {
+    for (DimensionLine dimensionLine : getIndexedItems(indexedItems, DimensionLine.class)) {
       if ((!basePlanLocked
             || !isItemPartOfBasePlan(dimensionLine))
           && isLevelNullOrViewable(dimensionLine.getLevel())
@@ -3704,7 +3860,7 @@ public class PlanController extends FurnitureController implements Controller {
       }
     }
 
-    List<Polyline> polylines = this.home.getPolylines();
+    List<Polyline> polylines = getIndexedItems(indexedItems, Polyline.class);
     // Search in home polylines in reverse order to give priority to last drawn polyline
     for (int i = polylines.size() - 1; i >= 0; i--) {
       Polyline polyline = polylines.get(i);
@@ -3720,7 +3876,7 @@ public class PlanController extends FurnitureController implements Controller {
       }
     }
 
-    List<HomePieceOfFurniture> furniture = this.home.getFurniture();
+    List<HomePieceOfFurniture> furniture = getIndexedItems(indexedItems, HomePieceOfFurniture.class);
     // Search in home furniture in reverse order to give priority to last drawn piece
     // at highest elevation in case it covers an other piece
     List<HomePieceOfFurniture> foundFurniture = new ArrayList<>();
@@ -3814,7 +3970,7 @@ public class PlanController extends FurnitureController implements Controller {
     } else {
       Collections.sort(foundFurniture, (p1, p2) -> -Float.compare(p1.getGroundElevation(), p2.getGroundElevation()));
       items.addAll(foundFurniture);
-      for (Wall wall : this.home.getWalls()) {
+      for (Wall wall : getIndexedItems(indexedItems, Wall.class)) {
         if ((!basePlanLocked
               || !isItemPartOfBasePlan(wall))
             && isLevelNullOrViewable(wall.getLevel())
@@ -3827,7 +3983,7 @@ public class PlanController extends FurnitureController implements Controller {
         }
       }
 
-      List<Room> rooms = this.home.getRooms();
+      List<Room> rooms = getIndexedItems(indexedItems, Room.class);
       // Search in home rooms in reverse order to give priority to last drawn room
       // at highest elevation in case it covers an other piece
       Room foundRoom = null;
@@ -3887,11 +4043,168 @@ public class PlanController extends FurnitureController implements Controller {
    */
   private boolean isItemTextAt(Selectable item, String text, TextStyle textStyle, float xText, float yText, float textAngle,
                                float x, float y, float textMargin) {
+    float [][] textBounds = getItemTextBounds(item, text, textStyle, xText, yText, textAngle);
+    return getPath(textBounds).intersects(x - textMargin, y - textMargin, 2 * textMargin, 2 * textMargin);
+  }
+
+  /**
+   * Returns the points of the rectangle surrounding the <code>text</code> of an <code>item</code>
+   * displayed at the point (<code>xText</code>, <code>yText</code>).
+   */
+  private float [][] getItemTextBounds(Selectable item, String text, TextStyle textStyle,
+                                       float xText, float yText, float textAngle) {
     if (textStyle == null) {
       textStyle = this.preferences.getDefaultTextStyle(item.getClass());
     }
-    float [][] textBounds = getView().getTextBounds(text, textStyle, xText, yText, textAngle);
-    return getPath(textBounds).intersects(x - textMargin, y - textMargin, 2 * textMargin, 2 * textMargin);
+    return getView().getTextBounds(text, textStyle, xText, yText, textAngle);
+  }
+
+  /**
+   * Returns the walls, rooms, dimension lines, polylines, labels and furniture of home
+   * which bounds may intersect the rectangle of (<code>xMin</code>, <code>yMin</code>),
+   * (<code>xMax</code>, <code>yMax</code>) opposite corners, and which level may be visible
+   * at the selected level.
+   */
+  private Set<Selectable> getIndexedItemsIntersectingRectangle(float xMin, float yMin, float xMax, float yMax) {
+    updateItemsIndex();
+    final Level selectedLevel = this.home.getSelectedLevel();
+    // Items are visible only at the levels above their level
+    return this.itemsIndex.getItems(level -> level == null
+            || selectedLevel != null
+               && level.isViewable()
+               && level.getElevation() <= selectedLevel.getElevation(),
+        xMin, yMin, xMax, yMax);
+  }
+
+  /**
+   * Returns the items of the given class among <code>indexedItems</code>,
+   * in the same order as in home.
+   */
+  private <T extends Selectable> List<T> getIndexedItems(Set<Selectable> indexedItems, Class<T> itemClass) {
+    List<T> items = new ArrayList<>();
+    for (Selectable item : indexedItems) {
+      if (itemClass.isInstance(item)) {
+        items.add(itemClass.cast(item));
+      }
+    }
+    if (items.size() > 1) {
+      if (this.itemsOrderCache == null) {
+        this.itemsOrderCache = new IdentityHashMap<>();
+        addItemsOrder(this.home.getLabels());
+        addItemsOrder(this.home.getDimensionLines());
+        addItemsOrder(this.home.getPolylines());
+        addItemsOrder(this.home.getFurniture());
+        addItemsOrder(this.home.getWalls());
+        addItemsOrder(this.home.getRooms());
+      }
+      Collections.sort(items, (item1, item2) -> itemsOrderCache.get(item1) - itemsOrderCache.get(item2));
+    }
+    return items;
+  }
+
+  /**
+   * Stores the index of the given <code>items</code> in order cache.
+   */
+  private void addItemsOrder(Collection<? extends Selectable> items) {
+    int i = 0;
+    for (Selectable item : items) {
+      this.itemsOrderCache.put(item, i++);
+    }
+  }
+
+  /**
+   * Builds the spatial index of home items or updates the location of the items that changed.
+   */
+  private void updateItemsIndex() {
+    if (this.itemsIndex == null) {
+      this.itemsIndex = new PlanSpatialIndex();
+      this.itemsIndexUpdates = Collections.newSetFromMap(new IdentityHashMap<>());
+      addItemsToIndex(this.home.getLabels());
+      addItemsToIndex(this.home.getDimensionLines());
+      addItemsToIndex(this.home.getPolylines());
+      addItemsToIndex(this.home.getFurniture());
+      addItemsToIndex(this.home.getWalls());
+      addItemsToIndex(this.home.getRooms());
+    } else if (!this.itemsIndexUpdates.isEmpty()) {
+      for (Selectable item : this.itemsIndexUpdates) {
+        // Ignore items deleted from home
+        if (this.itemsIndex.containsItem(item)) {
+          this.itemsIndex.putItem(item, ((Elevatable)item).getLevel(), getItemBounds(item));
+        }
+      }
+      this.itemsIndexUpdates.clear();
+    }
+  }
+
+  /**
+   * Adds the given <code>items</code> to the spatial index of home items.
+   */
+  private void addItemsToIndex(Collection<? extends Selectable> items) {
+    for (Selectable item : items) {
+      this.itemsIndex.putItem(item, ((Elevatable)item).getLevel(), getItemBounds(item));
+    }
+  }
+
+  /**
+   * Returns the bounds of the given <code>item</code> in plan, including its texts,
+   * or <code>null</code> if they can't be computed.
+   */
+  private float [] getItemBounds(Selectable item) {
+    Rectangle2D bounds = getPointsBounds(item.getPoints());
+    if (item instanceof Polyline) {
+      Polyline polyline = (Polyline)item;
+      // Include the miters of the stroke and the curves drawn out of polyline points
+      double xPadding = 5 * polyline.getThickness();
+      double yPadding = xPadding;
+      if (polyline.getJoinStyle() == Polyline.JoinStyle.CURVED) {
+        xPadding += bounds.getWidth() / 2;
+        yPadding += bounds.getHeight() / 2;
+      }
+      bounds.setRect(bounds.getX() - xPadding, bounds.getY() - yPadding,
+          bounds.getWidth() + 2 * xPadding, bounds.getHeight() + 2 * yPadding);
+    } else if (item instanceof Label
+        || item instanceof HomePieceOfFurniture
+        || item instanceof Room) {
+      if (getView() == null) {
+        return null;
+      }
+      if (item instanceof Label) {
+        Label label = (Label)item;
+        bounds.add(getPointsBounds(getItemTextBounds(label, label.getText(), label.getStyle(),
+            label.getX(), label.getY(), label.getAngle())));
+      } else if (item instanceof HomePieceOfFurniture) {
+        HomePieceOfFurniture piece = (HomePieceOfFurniture)item;
+        if (piece.getName() != null
+            && piece.isNameVisible()) {
+          bounds.add(getPointsBounds(getItemTextBounds(piece, piece.getName(), piece.getNameStyle(),
+              piece.getX() + piece.getNameXOffset(), piece.getY() + piece.getNameYOffset(), piece.getNameAngle())));
+        }
+      } else {
+        Room room = (Room)item;
+        if (room.getName() != null) {
+          bounds.add(getPointsBounds(getItemTextBounds(room, room.getName(), room.getNameStyle(),
+              room.getXCenter() + room.getNameXOffset(), room.getYCenter() + room.getNameYOffset(), room.getNameAngle())));
+        }
+        if (room.isAreaVisible()) {
+          String areaText = this.preferences.getLengthUnit().getAreaFormatWithUnit().format(room.getArea());
+          bounds.add(getPointsBounds(getItemTextBounds(room, areaText, room.getAreaStyle(),
+              room.getXCenter() + room.getAreaXOffset(), room.getYCenter() + room.getAreaYOffset(), room.getAreaAngle())));
+        }
+      }
+    }
+    return new float [] {(float)bounds.getMinX(), (float)bounds.getMinY(),
+                         (float)bounds.getMaxX(), (float)bounds.getMaxY()};
+  }
+
+  /**
+   * Returns the rectangle surrounding the given <code>points</code>.
+   */
+  private Rectangle2D getPointsBounds(float [][] points) {
+    Rectangle2D bounds = new Rectangle2D.Float(points [0][0], points [0][1], 0, 0);
+    for (int i = 1; i < points.length; i++) {
+      bounds.add(points [i][0], points [i][1]);
+    }
+    return bounds;
   }
 
   /**
@@ -3901,9 +4214,32 @@ public class PlanController extends FurnitureController implements Controller {
   protected List<Selectable> getSelectableItemsIntersectingRectangle(float x0, float y0, float x1, float y1) {
     List<Selectable> items = new ArrayList<>();
     boolean basePlanLocked = this.home.isBasePlanLocked();
-    for (Selectable item : getVisibleItemsAtSelectedLevel()) {
-      if ((!basePlanLocked
-            || !isItemPartOfBasePlan(item))
+    Level selectedLevel = this.home.getSelectedLevel();
+    Set<Selectable> indexedItems = getIndexedItemsIntersectingRectangle(
+        Math.min(x0, x1), Math.min(y0, y1), Math.max(x0, x1), Math.max(y0, y1));
+    // Keep the order of items returned by getVisibleItemsAtSelectedLevel
+    List<Selectable> visibleItems = new ArrayList<>();
+    visibleItems.addAll(getIndexedItems(indexedItems, Wall.class));
+    visibleItems.addAll(getIndexedItems(indexedItems, Room.class));
+    visibleItems.addAll(getIndexedItems(indexedItems, DimensionLine.class));
+    visibleItems.addAll(getIndexedItems(indexedItems, Polyline.class));
+    visibleItems.addAll(getIndexedItems(indexedItems, Label.class));
+    for (HomePieceOfFurniture piece : getIndexedItems(indexedItems, HomePieceOfFurniture.class)) {
+      if (isPieceOfFurnitureVisibleAtSelectedLevel(piece)) {
+        visibleItems.add(piece);
+      }
+    }
+    Compass compass = this.home.getCompass();
+    if (compass.isVisible()) {
+      visibleItems.add(compass);
+    }
+    for (Selectable item : visibleItems) {
+      if ((item instanceof HomePieceOfFurniture
+            || item instanceof Compass
+            || isLevelNullOrViewable(((Elevatable)item).getLevel())
+               && ((Elevatable)item).isAtLevel(selectedLevel))
+          && (!basePlanLocked
+              || !isItemPartOfBasePlan(item))
           && item.intersectsRectangle(x0, y0, x1, y1)) {
         items.add(item);
       }
@@ -4471,20 +4807,14 @@ public class PlanController extends FurnitureController implements Controller {
    */
   private void doDeleteItems(List<Selectable> items) {
     boolean basePlanLocked = this.home.isBasePlanLocked();
+    // Delete items by batches of the same type
+    this.home.deleteWalls(Home.getWallsSubList(items));
+    this.home.deleteDimensionLines(Home.getDimensionLinesSubList(items));
+    this.home.deleteRooms(Home.getRoomsSubList(items));
+    this.home.deletePolylines(Home.getPolylinesSubList(items));
+    this.home.deleteLabels(Home.getLabelsSubList(items));
+    this.home.deleteFurniture(Home.getFurnitureSubList(items));
     for (Selectable item : items) {
-      if (item instanceof Wall) {
-        home.deleteWall((Wall)item);
-      } else if (item instanceof DimensionLine) {
-        home.deleteDimensionLine((DimensionLine)item);
-      } else if (item instanceof Room) {
-        home.deleteRoom((Room)item);
-      } else if (item instanceof Polyline) {
-        home.deletePolyline((Polyline)item);
-      } else if (item instanceof Label) {
-        home.deleteLabel((Label)item);
-      } else if (item instanceof HomePieceOfFurniture) {
-        home.deletePieceOfFurniture((HomePieceOfFurniture)item);
-      }
       // Unlock base plan if item is a part of it
       basePlanLocked &= !isItemPartOfBasePlan(item);
     }
@@ -4779,9 +5109,7 @@ public class PlanController extends FurnitureController implements Controller {
    * Adds <code>walls</code> to home and post an undoable new wall operation.
    */
   public void addWalls(List<Wall> walls) {
-    for (Wall wall : walls) {
-      this.home.addWall(wall);
-    }
+    this.home.addWalls(walls);
     postCreateWalls(walls, this.home.getSelectedItems(),
         home.isBasePlanLocked(), home.isAllLevelsSelection());
   }
@@ -4839,10 +5167,9 @@ public class PlanController extends FurnitureController implements Controller {
    */
   private void doAddWalls(JoinedWall [] joinedWalls, boolean basePlanLocked) {
     // First add all walls to home
+    this.home.addWalls(JoinedWall.getWalls(joinedWalls));
     for (JoinedWall joinedNewWall : joinedWalls) {
-      Wall wall = joinedNewWall.getWall();
-      this.home.addWall(wall);
-      wall.setLevel(joinedNewWall.getLevel());
+      joinedNewWall.getWall().setLevel(joinedNewWall.getLevel());
     }
     this.home.setBasePlanLocked(basePlanLocked);
 
@@ -4875,9 +5202,7 @@ public class PlanController extends FurnitureController implements Controller {
    */
   private void doDeleteWalls(JoinedWall [] joinedDeletedWalls,
                              boolean basePlanLocked) {
-    for (JoinedWall joinedWall : joinedDeletedWalls) {
-      this.home.deleteWall(joinedWall.getWall());
-    }
+    this.home.deleteWalls(JoinedWall.getWalls(joinedDeletedWalls));
     this.home.setBasePlanLocked(basePlanLocked);
   }
 
@@ -4891,8 +5216,8 @@ public class PlanController extends FurnitureController implements Controller {
     int endIndex = home.getRooms().size();
     for (int i = 0; i < roomsIndex.length; i++) {
       roomsIndex [i] = endIndex++;
-      this.home.addRoom(newRooms [i], roomsIndex [i]);
     }
+    this.home.addRooms(rooms, roomsIndex);
     postCreateRooms(newRooms, roomsIndex, this.home.getSelectedItems(),
         this.home.isBasePlanLocked(), this.home.isAllLevelsSelection());
   }
@@ -4969,8 +5294,14 @@ public class PlanController extends FurnitureController implements Controller {
                           Level [] roomsLevels,
                           Level uniqueRoomsLevel,
                           boolean basePlanLocked) {
+    boolean ascendingIndices = isAscending(roomsIndices);
+    if (ascendingIndices) {
+      this.home.addRooms(Arrays.asList(rooms), roomsIndices);
+    }
     for (int i = 0; i < roomsIndices.length; i++) {
-      this.home.addRoom (rooms [i], roomsIndices [i]);
+      if (!ascendingIndices) {
+        this.home.addRoom(rooms [i], roomsIndices [i]);
+      }
       rooms [i].setLevel(roomsLevels != null
           ? roomsLevels [i]
           : uniqueRoomsLevel);
@@ -4978,14 +5309,25 @@ public class PlanController extends FurnitureController implements Controller {
     this.home.setBasePlanLocked(basePlanLocked);
   }
 
+  /**
+   * Returns <code>true</code> if the given <code>indices</code> are in strictly ascending order,
+   * as expected by the batch methods of home.
+   */
+  private static boolean isAscending(int [] indices) {
+    for (int i = 1; i < indices.length; i++) {
+      if (indices [i] <= indices [i - 1]) {
+        return false;
+      }
+    }
+    return indices.length == 0 || indices [0] >= 0;
+  }
+
   /**
    * Deletes <code>rooms</code>.
    */
   private void doDeleteRooms(Room [] rooms,
                              boolean basePlanLocked) {
-    for (Room room : rooms) {
-      this.home.deleteRoom(room);
-    }
+    this.home.deleteRooms(Arrays.asList(rooms));
     this.home.setBasePlanLocked(basePlanLocked);
   }
 
@@ -4993,9 +5335,7 @@ public class PlanController extends FurnitureController implements Controller {
    * Add <code>dimensionLines</code> to home and post an undoable new dimension line operation.
    */
   public void addDimensionLines(List<DimensionLine> dimensionLines) {
-    for (DimensionLine dimensionLine : dimensionLines) {
-      this.home.addDimensionLine(dimensionLine);
-    }
+    this.home.addDimensionLines(dimensionLines);
     postCreateDimensionLines(dimensionLines, this.home.getSelectedItems(),
         this.home.isBasePlanLocked(), this.home.isAllLevelsSelection());
   }
@@ -5054,10 +5394,9 @@ public class PlanController extends FurnitureController implements Controller {
   private void doAddDimensionLines(DimensionLine [] dimensionLines,
                                    Level [] dimensionLinesLevels,
                                    Level uniqueDimensionLinesLevel, boolean basePlanLocked) {
+    this.home.addDimensionLines(Arrays.asList(dimensionLines));
     for (int i = 0; i < dimensionLines.length; i++) {
-      DimensionLine dimensionLine = dimensionLines [i];
-      this.home.addDimensionLine(dimensionLine);
-      dimensionLine.setLevel(dimensionLinesLevels != null
+      dimensionLines [i].setLevel(dimensionLinesLevels != null
           ? dimensionLinesLevels [i]
           : uniqueDimensionLinesLevel);
     }
@@ -5069,9 +5408,7 @@ public class PlanController extends FurnitureController implements Controller {
    */
   private void doDeleteDimensionLines(DimensionLine [] dimensionLines,
                                       boolean basePlanLocked) {
-    for (DimensionLine dimensionLine : dimensionLines) {
-      this.home.deleteDimensionLine(dimensionLine);
-    }
+    this.home.deleteDimensionLines(Arrays.asList(dimensionLines));
     this.home.setBasePlanLocked(basePlanLocked);
   }
 
@@ -5085,8 +5422,8 @@ public class PlanController extends FurnitureController implements Controller {
     int endIndex = home.getPolylines().size();
     for (int i = 0; i < polylinesIndex.length; i++) {
       polylinesIndex [i] = endIndex++;
-      this.home.addPolyline(newPolylines [i], polylinesIndex [i]);
     }
+    this.home.addPolylines(polylines, polylinesIndex);
     postCreatePolylines(newPolylines, polylinesIndex, this.home.getSelectedItems(),
         this.home.isBasePlanLocked(), this.home.isAllLevelsSelection());
   }
@@ -5163,8 +5500,14 @@ public class PlanController extends FurnitureController implements Controller {
                               Level [] polylinesLevels,
                               Level uniqueDimensionLinesLevel,
                               boolean basePlanLocked) {
+    boolean ascendingIndices = isAscending(polylinesIndex);
+    if (ascendingIndices) {
+      this.home.addPolylines(Arrays.asList(polylines), polylinesIndex);
+    }
     for (int i = 0; i < polylinesIndex.length; i++) {
-      this.home.addPolyline(polylines [i], polylinesIndex [i]);
+      if (!ascendingIndices) {
+        this.home.addPolyline(polylines [i], polylinesIndex [i]);
+      }
       polylines [i].setLevel(polylinesLevels != null
           ? polylinesLevels [i]
           : uniqueDimensionLinesLevel);
@@ -5177,9 +5520,7 @@ public class PlanController extends FurnitureController implements Controller {
    */
   private void doDeletePolylines(Polyline [] polylines,
                                  boolean basePlanLocked) {
-    for (Polyline polyline : polylines) {
-      this.home.deletePolyline(polyline);
-    }
+    this.home.deletePolylines(Arrays.asList(polylines));
     this.home.setBasePlanLocked(basePlanLocked);
   }
 
@@ -5187,9 +5528,7 @@ public class PlanController extends FurnitureController implements Controller {
    * Add <code>labels</code> to home and post an undoable new label operation.
    */
   public void addLabels(List<Label> labels) {
-    for (Label label : labels) {
-      this.home.addLabel(label);
-    }
+    this.home.addLabels(labels);
     postCreateLabels(labels, this.home.getSelectedItems(),
         this.home.isBasePlanLocked(), this.home.isAllLevelsSelection());
   }
@@ -5245,10 +5584,9 @@ public class PlanController extends FurnitureController implements Controller {
    * Adds the labels in <code>labels</code> to plan component.
    */
   private void doAddLabels(Label [] labels, Level [] labelsLevels, Level uniqueLabelLevel, boolean basePlanLocked) {
+    this.home.addLabels(Arrays.asList(labels));
     for (int i = 0; i < labels.length; i++) {
-      Label label = labels [i];
-      this.home.addLabel(label);
-      label.setLevel(labelsLevels != null
+      labels [i].setLevel(labelsLevels != null
           ? labelsLevels [i]
           : uniqueLabelLevel);
     }
@@ -5259,9 +5597,7 @@ public class PlanController extends FurnitureController implements Controller {
    * Deletes labels in <code>labels</code>.
    */
   private void doDeleteLabels(Label [] labels, boolean basePlanLocked) {
-    for (Label label : labels) {
-      this.home.deleteLabel(label);
-    }
+    this.home.deleteLabels(Arrays.asList(labels));
     this.home.setBasePlanLocked(basePlanLocked);
   }
 
@@ -6294,15 +6630,7 @@ public class PlanController extends FurnitureController implements Controller {
   private List<GeneralPath> getRoomPathsFromWalls() {
     if (this.roomPathsCache == null) {
       // Iterate over all the paths the walls area contains
-      Area wallsArea = getWallsArea(false);
-      List<GeneralPath> roomPaths = getAreaPaths(wallsArea);
-      Area insideWallsArea = new Area(wallsArea);
-      for (GeneralPath roomPath : roomPaths) {
-        insideWallsArea.add(new Area(roomPath));
-      }
-
-      this.roomPathsCache = roomPaths;
-      this.insideWallsAreaCache = insideWallsArea;
+      this.roomPathsCache = this.wallsGeometry.getWallsAreaPaths(getWallsAtSelectedLevel());
     }
     return this.roomPathsCache;
   }
@@ -6337,7 +6665,7 @@ public class PlanController extends FurnitureController implements Controller {
    */
   private Area getInsideWallsArea() {
     if (this.insideWallsAreaCache == null) {
-      getRoomPathsFromWalls();
+      this.insideWallsAreaCache = this.wallsGeometry.getInsideWallsArea(getWallsAtSelectedLevel());
     }
     return this.insideWallsAreaCache;
   }
@@ -6349,13 +6677,7 @@ public class PlanController extends FurnitureController implements Controller {
     if (!includeBaseboards && this.wallsAreaCache == null
         || includeBaseboards && this.wallsIncludingBaseboardsAreaCache == null) {
       // Compute walls area
-      Area wallsArea = new Area();
-      Level selectedLevel = this.home.getSelectedLevel();
-      for (Wall wall : this.home.getWalls()) {
-        if (wall.isAtLevel(selectedLevel)) {
-          wallsArea.add(new Area(getPath(wall.getPoints(includeBaseboards))));
-        }
-      }
+      Area wallsArea = this.wallsGeometry.getWallsArea(getWallsAtSelectedLevel(), includeBaseboards);
       if (includeBaseboards) {
         this.wallsIncludingBaseboardsAreaCache = wallsArea;
       } else {
@@ -6367,6 +6689,20 @@ public class PlanController extends FurnitureController implements Controller {
         : this.wallsAreaCache;
   }
 
+  /**
+   * Returns the walls at the selected level.
+   */
+  private List<Wall> getWallsAtSelectedLevel() {
+    List<Wall> walls = new ArrayList<>();
+    Level selectedLevel = this.home.getSelectedLevel();
+    for (Wall wall : this.home.getWalls()) {
+      if (wall.isAtLevel(selectedLevel)) {
+        walls.add(wall);
+      }
+    }
+    return walls;
+  }
+
   /**
    * Returns the shape matching the coordinates in <code>points</code> array.
    */
@@ -0,0 +1,248 @@
+/*
+ * PlanSpatialIndex.java 17 oct. 2026
+ *
+ * Sweet Home 3D, Copyright (c) 2026 Emmanuel PUYBARET / eTeks <info@eteks.com>
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation; either version 2 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA  02111-1307  USA
+ */
+package com.eteks.sweethome3d.viewcontroller;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Predicate;
+
+import com.eteks.sweethome3d.model.Level;
+import com.eteks.sweethome3d.model.Selectable;
+
+/**
+ * A spatial index of the bounds of selectable items displayed in plan,
+ * which stores items in a uniform grid for each level.
+ * Items with unknown bounds or spanning too many cells are kept apart
+ * and returned by all queries.
+ * @author Emmanuel Puybaret
+ */
+class PlanSpatialIndex {
+  private static final float CELL_SIZE      = 100;
+  private static final int   MAX_CELL_COUNT = 256;
+
+  private final Map<Level, Grid>       levelGrids = new HashMap<>();
+  private final Map<Selectable, Entry> entries    = new IdentityHashMap<>();
+
+  /**
+   * Adds the given <code>item</code> or updates its location in this index.
+   * @param level  the level of the item
+   * @param bounds the bounds of the item as {xMin, yMin, xMax, yMax},
+   *               or <code>null</code> if they're unknown
+   */
+  public void putItem(Selectable item, Level level, float [] bounds) {
+    removeItem(item);
+    Grid grid = this.levelGrids.get(level);
+    if (grid == null) {
+      grid = new Grid();
+      this.levelGrids.put(level, grid);
+    }
+    Entry entry = new Entry(item, level, bounds);
+    grid.add(entry);
+    this.entries.put(item, entry);
+  }
+
+  /**
+   * Removes the given <code>item</code> from this index.
+   */
+  public void removeItem(Selectable item) {
+    Entry entry = this.entries.remove(item);
+    if (entry != null) {
+      Grid grid = this.levelGrids.get(entry.level);
+      grid.remove(entry);
+      if (grid.isEmpty()) {
+        this.levelGrids.remove(entry.level);
+      }
+    }
+  }
+
+  /**
+   * Returns <code>true</code> if the given <code>item</code> is indexed.
+   */
+  public boolean containsItem(Selectable item) {
+    return this.entries.containsKey(item);
+  }
+
+  /**
+   * Returns the indexed items at an accepted level which bounds may intersect
+   * the rectangle of (<code>xMin</code>, <code>yMin</code>), (<code>xMax</code>, <code>yMax</code>)
+   * opposite corners.
+   */
+  public Set<Selectable> getItems(Predicate<Level> acceptedLevel,
+                                  float xMin, float yMin, float xMax, float yMax) {
+    Set<Selectable> items = Collections.newSetFromMap(new IdentityHashMap<>());
+    for (Map.Entry<Level, Grid> levelGrid : this.levelGrids.entrySet()) {
+      if (acceptedLevel.test(levelGrid.getKey())) {
+        levelGrid.getValue().collectItems(items, xMin, yMin, xMax, yMax);
+      }
+    }
+    return items;
+  }
+
+  /**
+   * Returns the index of the cell containing the given coordinate.
+   */
+  private static int getCellIndex(float coordinate) {
+    return (int)Math.floor(coordinate / CELL_SIZE);
+  }
+
+  /**
+   * Returns the key of the cell at the given indices.
+   */
+  private static long getCellKey(int column, int row) {
+    return ((long)column << 32) | (row & 0xFFFFFFFFL);
+  }
+
+  /**
+   * An indexed item.
+   */
+  private static class Entry {
+    private final Selectable item;
+    private final Level      level;
+    private final float []   bounds;
+    private final int        minColumn;
+    private final int        minRow;
+    private final int        maxColumn;
+    private final int        maxRow;
+
+    public Entry(Selectable item, Level level, float [] bounds) {
+      this.item = item;
+      this.level = level;
+      this.bounds = bounds;
+      if (bounds != null) {
+        this.minColumn = getCellIndex(bounds [0]);
+        this.minRow = getCellIndex(bounds [1]);
+        this.maxColumn = getCellIndex(bounds [2]);
+        this.maxRow = getCellIndex(bounds [3]);
+      } else {
+        this.minColumn = 0;
+        this.minRow = 0;
+        this.maxColumn = 0;
+        this.maxRow = 0;
+      }
+    }
+
+    public boolean isSpread() {
+      return this.bounds == null
+          || (long)(this.maxColumn - this.minColumn + 1) * (this.maxRow - this.minRow + 1) > MAX_CELL_COUNT;
+    }
+
+    public boolean intersects(float xMin, float yMin, float xMax, float yMax) {
+      return this.bounds == null
+          || this.bounds [0] <= xMax && this.bounds [2] >= xMin
+             && this.bounds [1] <= yMax && this.bounds [3] >= yMin;
+    }
+  }
+
+  /**
+   * The grid storing the entries of a level.
+   */
+  private static class Grid {
+    private final Map<Long, List<Entry>> cells = new HashMap<>();
+    private final List<Entry>            spreadEntries = new ArrayList<>();
+    private int                          entryCount;
+
+    public void add(Entry entry) {
+      if (entry.isSpread()) {
+        this.spreadEntries.add(entry);
+      } else {
+        for (int column = entry.minColumn; column <= entry.maxColumn; column++) {
+          for (int row = entry.minRow; row <= entry.maxRow; row++) {
+            Long key = getCellKey(column, row);
+            List<Entry> cellEntries = this.cells.get(key);
+            if (cellEntries == null) {
+              cellEntries = new ArrayList<>(4);
+              this.cells.put(key, cellEntries);
+            }
+            cellEntries.add(entry);
+          }
+        }
+      }
+      this.entryCount++;
+    }
+
+    public void remove(Entry entry) {
+      if (entry.isSpread()) {
+        this.spreadEntries.remove(entry);
+      } else {
+        for (int column = entry.minColumn; column <= entry.maxColumn; column++) {
+          for (int row = entry.minRow; row <= entry.maxRow; row++) {
+            Long key = getCellKey(column, row);
+            List<Entry> cellEntries = this.cells.get(key);
+            cellEntries.remove(entry);
+            if (cellEntries.isEmpty()) {
+              this.cells.remove(key);
+            }
+          }
+        }
+      }
+      this.entryCount--;
+    }
+
+    public boolean isEmpty() {
+      return this.entryCount == 0;
+    }
+
+    public void collectItems(Set<Selectable> items, float xMin, float yMin, float xMax, float yMax) {
+      for (Entry entry : this.spreadEntries) {
+        if (entry.intersects(xMin, yMin, xMax, yMax)) {
+          items.add(entry.item);
+        }
+      }
+      int minColumn = getCellIndex(xMin);
+      int minRow = getCellIndex(yMin);
+      int maxColumn = getCellIndex(xMax);
+      int maxRow = getCellIndex(yMax);
+      if ((long)(maxColumn - minColumn + 1) * (maxRow - minRow + 1) > this.cells.size()) {
+        // Browse existing cells rather than the cells of a large rectangle
+        for (Map.Entry<Long, List<Entry>> cell : this.cells.entrySet()) {
+          int column = (int)(cell.getKey() >> 32);
+          int row = (int)cell.getKey().longValue();
+          if (column >= minColumn && column <= maxColumn
+              && row >= minRow && row <= maxRow) {
+            collectItems(items, cell.getValue(), xMin, yMin, xMax, yMax);
+          }
+        }
+      } else {
+        for (int column = minColumn; column <= maxColumn; column++) {
+          for (int row = minRow; row <= maxRow; row++) {
+            List<Entry> cellEntries = this.cells.get(getCellKey(column, row));
+            if (cellEntries != null) {
+              collectItems(items, cellEntries, xMin, yMin, xMax, yMax);
+            }
+          }
+        }
+      }
+    }
+
+    private void collectItems(Set<Selectable> items, List<Entry> cellEntries,
+                              float xMin, float yMin, float xMax, float yMax) {
+      for (Entry entry : cellEntries) {
+        if (entry.intersects(xMin, yMin, xMax, yMax)) {
+          items.add(entry.item);
+        }
+      }
+    }
+  }
+}
@@ -0,0 +1,531 @@
+/*
+ * WallsGeometry.java 17 oct. 2026
+ *
+ * Sweet Home 3D, Copyright (c) 2026 Emmanuel PUYBARET / eTeks <info@eteks.com>
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation; either version 2 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA  02111-1307  USA
+ */
+package com.eteks.sweethome3d.viewcontroller;
+
+import java.awt.geom.Area;
+import java.awt.geom.GeneralPath;
+import java.awt.geom.Path2D;
+import java.awt.geom.PathIterator;
+import java.beans.PropertyChangeListener;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.WeakHashMap;
+
+import com.eteks.sweethome3d.model.BatchCollectionListener;
+import com.eteks.sweethome3d.model.CollectionEvent;
+import com.eteks.sweethome3d.model.Home;
+import com.eteks.sweethome3d.model.Wall;
+
+/**
+ * A service computing the area covered by the walls of a home and the closed paths
+ * drawn by walls, shared by the controller and the view of the plan.
+ * Walls are gathered in components of walls which bounding boxes overlap,
+ * and the geometry of each component is cached until one of its walls is modified,
+ * so that a wall change recomputes only the geometry of the component it belongs to.
+ * The methods of this class are synchronized because plan may be exported
+ * out of Event Dispatch Thread.
+ * @author Emmanuel Puybaret
+ */
+public class WallsGeometry {
+  private static final int MAX_CACHED_WALL_SUBLISTS = 8;
+
+  private static final Map<Home, WallsGeometry> instances = new WeakHashMap<>();
+
+  private final Map<Wall, WallEntry>  wallEntries = new IdentityHashMap<>();
+  private final Set<WallEntry>        looseWallEntries = Collections.newSetFromMap(new IdentityHashMap<>());
+  private final Set<WallsComponent>   components = Collections.newSetFromMap(new IdentityHashMap<>());
+
+  private WallsGeometry(Home home) {
+    // Listeners added to home don't refer to it to let it be garbage collected
+    final PropertyChangeListener wallChangeListener = ev -> {
+      String propertyName = ev.getPropertyName();
+      if (Wall.Property.X_START.name().equals(propertyName)
+          || Wall.Property.X_END.name().equals(propertyName)
+          || Wall.Property.Y_START.name().equals(propertyName)
+          || Wall.Property.Y_END.name().equals(propertyName)
+          || Wall.Property.WALL_AT_START.name().equals(propertyName)
+          || Wall.Property.WALL_AT_END.name().equals(propertyName)
+          || Wall.Property.THICKNESS.name().equals(propertyName)
+          || Wall.Property.ARC_EXTENT.name().equals(propertyName)
+          || Wall.Property.LEFT_SIDE_BASEBOARD.name().equals(propertyName)
+          || Wall.Property.RIGHT_SIDE_BASEBOARD.name().equals(propertyName)) {
+        // The shape of a wall depends on the walls joined to it
+        updateJoinedWalls((Wall)ev.getSource());
+        if (ev.getOldValue() instanceof Wall) {
+          updateJoinedWalls((Wall)ev.getOldValue());
+        }
+      }
+    };
+    for (Wall wall : home.getWalls()) {
+      wall.addPropertyChangeListener(wallChangeListener);
+      addWall(wall);
+    }
+    home.addWallsListener((BatchCollectionListener<Wall>)ev -> {
+      for (Wall wall : ev.getItems()) {
+        if (ev.getType() == CollectionEvent.Type.ADD) {
+          wall.addPropertyChangeListener(wallChangeListener);
+          addWall(wall);
+        } else if (ev.getType() == CollectionEvent.Type.DELETE) {
+          wall.removePropertyChangeListener(wallChangeListener);
+          deleteWall(wall);
+        }
+      }
+    });
+  }
+
+  /**
+   * Returns the walls geometry shared by all the users of the given <code>home</code>.
+   */
+  public static synchronized WallsGeometry getInstance(Home home) {
+    WallsGeometry wallsGeometry = instances.get(home);
+    if (wallsGeometry == null) {
+      wallsGeometry = new WallsGeometry(home);
+      instances.put(home, wallsGeometry);
+    }
+    return wallsGeometry;
+  }
+
+  /**
+   * Returns the area matching the union of the shapes of the given <code>walls</code>.
+   * The returned area is shared and shouldn't be modified.
+   * @param walls home walls in the order they should be combined
+   * @param includeBaseboards if <code>true</code> wall shapes include their baseboards
+   */
+  public synchronized Area getWallsArea(Collection<Wall> walls, boolean includeBaseboards) {
+    List<Area> areas = new ArrayList<>();
+    for (Map.Entry<WallsComponent, List<Wall>> componentWalls : getComponentWalls(walls).entrySet()) {
+      WallsComponent component = componentWalls.getKey();
+      areas.add(component != null
+          ? component.getWallsArea(componentWalls.getValue(), includeBaseboards)
+          : computeWallsArea(componentWalls.getValue(), includeBaseboards));
+    }
+    return areas.size() == 1
+        ? areas.get(0)
+        : union(areas);
+  }
+
+  /**
+   * Returns the closed paths described by the area of the given <code>walls</code>
+   * which may define rooms.
+   * The returned paths are shared and shouldn't be modified.
+   */
+  public synchronized List<GeneralPath> getWallsAreaPaths(Collection<Wall> walls) {
+    List<GeneralPath> paths = new ArrayList<>();
+    for (Map.Entry<WallsComponent, List<Wall>> componentWalls : getComponentWalls(walls).entrySet()) {
+      WallsComponent component = componentWalls.getKey();
+      paths.addAll(component != null
+          ? component.getWallsGeometry(componentWalls.getValue()).paths
+          : new ComponentGeometry(computeWallsArea(componentWalls.getValue(), false)).paths);
+    }
+    return Collections.unmodifiableList(paths);
+  }
+
+  /**
+   * Returns the area covered by the given <code>walls</code> and the closed paths they describe.
+   * The returned area is shared and shouldn't be modified.
+   */
+  public synchronized Area getInsideWallsArea(Collection<Wall> walls) {
+    List<Area> areas = new ArrayList<>();
+    for (Map.Entry<WallsComponent, List<Wall>> componentWalls : getComponentWalls(walls).entrySet()) {
+      WallsComponent component = componentWalls.getKey();
+      areas.add(component != null
+          ? component.getWallsGeometry(componentWalls.getValue()).getInsideArea()
+          : new ComponentGeometry(computeWallsArea(componentWalls.getValue(), false)).getInsideArea());
+    }
+    return areas.size() == 1
+        ? areas.get(0)
+        : union(areas);
+  }
+
+  /**
+   * Returns the given <code>walls</code> sorted by component. Walls which don't belong
+   * to home are gathered under a <code>null</code> key.
+   */
+  private Map<WallsComponent, List<Wall>> getComponentWalls(Collection<Wall> walls) {
+    updateComponents();
+    Map<WallsComponent, List<Wall>> componentWalls = new LinkedHashMap<>();
+    for (Wall wall : walls) {
+      WallEntry entry = this.wallEntries.get(wall);
+      WallsComponent component = entry != null
+          ? entry.component
+          : null;
+      List<Wall> sublist = componentWalls.get(component);
+      if (sublist == null) {
+        sublist = new ArrayList<>();
+        componentWalls.put(component, sublist);
+      }
+      sublist.add(wall);
+    }
+    return componentWalls;
+  }
+
+  private synchronized void addWall(Wall wall) {
+    WallEntry entry = new WallEntry(wall);
+    this.wallEntries.put(wall, entry);
+    this.looseWallEntries.add(entry);
+  }
+
+  private synchronized void deleteWall(Wall wall) {
+    WallEntry entry = this.wallEntries.remove(wall);
+    if (entry != null) {
+      dissolveComponent(entry);
+      this.looseWallEntries.remove(entry);
+    }
+  }
+
+  /**
+   * Resets the geometry of the given <code>wall</code> and of the walls joined to it.
+   */
+  private synchronized void updateJoinedWalls(Wall wall) {
+    updateWall(wall);
+    updateWall(wall.getWallAtStart());
+    updateWall(wall.getWallAtEnd());
+  }
+
+  private void updateWall(Wall wall) {
+    WallEntry entry = this.wallEntries.get(wall);
+    if (entry != null) {
+      entry.reset();
+      dissolveComponent(entry);
+    }
+  }
+
+  /**
+   * Removes the component of the given wall entry, and keeps its walls apart
+   * until components are computed again.
+   */
+  private void dissolveComponent(WallEntry entry) {
+    WallsComponent component = entry.component;
+    if (component != null) {
+      this.components.remove(component);
+      for (WallEntry componentEntry : component.wallEntries) {
+        componentEntry.component = null;
+        this.looseWallEntries.add(componentEntry);
+      }
+    }
+  }
+
+  /**
+   * Gathers the loose walls with the existing components which bounds they overlap.
+   */
+  private void updateComponents() {
+    if (!this.looseWallEntries.isEmpty()) {
+      // Sort components and loose walls along x axis, and merge the ones which bounds overlap
+      List<Cluster> clusters = new ArrayList<>(this.components.size() + this.looseWallEntries.size());
+      for (WallsComponent component : this.components) {
+        clusters.add(new Cluster(component, component.bounds));
+      }
+      for (WallEntry entry : this.looseWallEntries) {
+        clusters.add(new Cluster(null, entry.getBounds()));
+        clusters.get(clusters.size() - 1).wallEntries.add(entry);
+      }
+      clusters.sort(Comparator.comparingDouble(cluster -> cluster.bounds [0]));
+      List<Cluster> activeClusters = new ArrayList<>();
+      for (Cluster cluster : clusters) {
+        for (int i = activeClusters.size() - 1; i >= 0; i--) {
+          Cluster activeCluster = activeClusters.get(i);
+          if (activeCluster.bounds [2] < cluster.bounds [0]) {
+            activeClusters.remove(i);
+          } else if (activeCluster.bounds [1] <= cluster.bounds [3]
+                     && activeCluster.bounds [3] >= cluster.bounds [1]) {
+            cluster.getRoot().mergeWith(activeCluster.getRoot());
+          }
+        }
+        activeClusters.add(cluster);
+      }
+
+      for (Cluster cluster : clusters) {
+        Cluster root = cluster.getRoot();
+        if (root == cluster
+            && (root.component == null
+                || !root.wallEntries.isEmpty()
+                || root.mergedComponents != null)) {
+          // Build a new component from merged clusters
+          WallsComponent component = new WallsComponent();
+          if (root.component != null) {
+            this.components.remove(root.component);
+            component.wallEntries.addAll(root.component.wallEntries);
+          }
+          if (root.mergedComponents != null) {
+            for (WallsComponent mergedComponent : root.mergedComponents) {
+              this.components.remove(mergedComponent);
+              component.wallEntries.addAll(mergedComponent.wallEntries);
+            }
+          }
+          component.wallEntries.addAll(root.wallEntries);
+          for (WallEntry entry : component.wallEntries) {
+            entry.component = component;
+          }
+          component.bounds = root.mergedBounds;
+          this.components.add(component);
+        }
+      }
+      this.looseWallEntries.clear();
+    }
+  }
+
+  /**
+   * Returns the area matching the union of the shapes of the given <code>walls</code>.
+   */
+  private Area computeWallsArea(List<Wall> walls, boolean includeBaseboards) {
+    // Add wall areas one by one in the given order to get the same closed paths
+    // as the ones of the area built for all the walls of a level
+    Area wallsArea = new Area();
+    for (Wall wall : walls) {
+      WallEntry entry = this.wallEntries.get(wall);
+      wallsArea.add(entry != null
+          ? entry.getArea(includeBaseboards)
+          : new Area(getPath(wall.getPoints(includeBaseboards))));
+    }
+    return wallsArea;
+  }
+
+  /**
+   * Returns the union of the given <code>areas</code>. As the boundaries of an area are
+   * all oriented in the same direction, this union is computed at once with the non-zero
+   * winding rule rather than by adding areas one by one.
+   */
+  private static Area union(List<Area> areas) {
+    Path2D.Float path = new Path2D.Float(Path2D.WIND_NON_ZERO);
+    for (Area area : areas) {
+      path.append(area, false);
+    }
+    return new Area(path);
+  }
+
+  /**
+   * Returns the shape matching the coordinates in <code>points</code> array.
+   */
+  private static GeneralPath getPath(float [][] points) {
+    GeneralPath path = new GeneralPath();
+    path.moveTo(points [0][0], points [0][1]);
+    for (int i = 1; i < points.length; i++) {
+      path.lineTo(points [i][0], points [i][1]);
+    }
+    path.closePath();
+    return path;
+  }
+
+  /**
+   * The cached geometry of a wall.
+   */
+  private static class WallEntry {
+    private final Wall     wall;
+    private Area           area;
+    private Area           areaIncludingBaseboards;
+    private float []       bounds;
+    private WallsComponent component;
+
+    public WallEntry(Wall wall) {
+      this.wall = wall;
+    }
+
+    public void reset() {
+      this.area = null;
+      this.areaIncludingBaseboards = null;
+      this.bounds = null;
+    }
+
+    public Area getArea(boolean includeBaseboards) {
+      if (includeBaseboards) {
+        if (this.areaIncludingBaseboards == null) {
+          this.areaIncludingBaseboards = new Area(getPath(this.wall.getPoints(true)));
+        }
+        return this.areaIncludingBaseboards;
+      } else {
+        if (this.area == null) {
+          this.area = new Area(getPath(this.wall.getPoints(false)));
+        }
+        return this.area;
+      }
+    }
+
+    /**
+     * Returns the bounds {xMin, yMin, xMax, yMax} of this wall, baseboards included.
+     */
+    public float [] getBounds() {
+      if (this.bounds == null) {
+        float [] bounds = {Float.POSITIVE_INFINITY, Float.POSITIVE_INFINITY,
+                           Float.NEGATIVE_INFINITY, Float.NEGATIVE_INFINITY};
+        for (float [] point : this.wall.getPoints(true)) {
+          bounds [0] = Math.min(bounds [0], point [0]);
+          bounds [1] = Math.min(bounds [1], point [1]);
+          bounds [2] = Math.max(bounds [2], point [0]);
+          bounds [3] = Math.max(bounds [3], point [1]);
+        }
+        this.bounds = bounds;
+      }
+      return this.bounds;
+    }
+  }
+
+  /**
+   * A group of walls which bounds overlap and their cached geometry
+   * for the sublists of walls requested.
+   */
+  private class WallsComponent {
+    private final List<WallEntry>                     wallEntries = new ArrayList<>();
+    private float []                                  bounds;
+    private final Map<List<Wall>, Area>               areasCache = new WallSublistCache<>();
+    private final Map<List<Wall>, Area>               areasIncludingBaseboardsCache = new WallSublistCache<>();
+    private final Map<List<Wall>, ComponentGeometry>  geometriesCache = new WallSublistCache<>();
+
+    public Area getWallsArea(List<Wall> walls, boolean includeBaseboards) {
+      Map<List<Wall>, Area> cache = includeBaseboards
+          ? this.areasIncludingBaseboardsCache
+          : this.areasCache;
+      Area area = cache.get(walls);
+      if (area == null) {
+        area = computeWallsArea(walls, includeBaseboards);
+        cache.put(walls, area);
+      }
+      return area;
+    }
+
+    public ComponentGeometry getWallsGeometry(List<Wall> walls) {
+      ComponentGeometry geometry = this.geometriesCache.get(walls);
+      if (geometry == null) {
+        geometry = new ComponentGeometry(getWallsArea(walls, false));
+        this.geometriesCache.put(walls, geometry);
+      }
+      return geometry;
+    }
+  }
+
+  /**
+   * A map keeping the geometry computed for the last requested sublists of walls.
+   */
+  private static class WallSublistCache<V> extends LinkedHashMap<List<Wall>, V> {
+    private static final long serialVersionUID = 1L;
+
+    public WallSublistCache() {
+      super(4, 0.75f, true);
+    }
+
+    @Override
+    protected boolean removeEldestEntry(Map.Entry<List<Wall>, V> eldest) {
+      return size() > MAX_CACHED_WALL_SUBLISTS;
+    }
+  }
+
+  /**
+   * The closed paths of a walls area and the area they cover.
+   */
+  private static class ComponentGeometry {
+    private final Area              wallsArea;
+    private final List<GeneralPath> paths;
+    private Area                    insideArea;
+
+    public ComponentGeometry(Area wallsArea) {
+      this.wallsArea = wallsArea;
+      this.paths = new ArrayList<>();
+      GeneralPath path = new GeneralPath();
+      for (PathIterator it = wallsArea.getPathIterator(null, 0.5f); !it.isDone(); it.next()) {
+        float [] point = new float [2];
+        switch (it.currentSegment(point)) {
+          case PathIterator.SEG_MOVETO :
+            path.moveTo(point [0], point [1]);
+            break;
+          case PathIterator.SEG_LINETO :
+            path.lineTo(point [0], point [1]);
+            break;
+          case PathIterator.SEG_CLOSE :
+            path.closePath();
+            this.paths.add(path);
+            path = new GeneralPath();
+            break;
+        }
+      }
+    }
+
+    public Area getInsideArea() {
+      if (this.insideArea == null) {
+        List<Area> areas = new ArrayList<>(this.paths.size() + 1);
+        areas.add(this.wallsArea);
+        for (GeneralPath path : this.paths) {
+          areas.add(new Area(path));
+        }
+        this.insideArea = union(areas);
+      }
+      return this.insideArea;
+    }
+  }
+
+  /**
+   * A component or a loose wall sorted during components update.
+   */
+  private static class Cluster {
+    private final WallsComponent       component;
+    private final float []             bounds;
+    private final List<WallEntry>      wallEntries = new ArrayList<>();
+    private float []                   mergedBounds;
+    private List<WallsComponent>       mergedComponents;
+    private Cluster                    parent;
+
+    public Cluster(WallsComponent component, float [] bounds) {
+      this.component = component;
+      this.bounds = bounds;
+      this.mergedBounds = bounds;
+    }
+
+    public Cluster getRoot() {
+      Cluster root = this;
+      while (root.parent != null) {
+        root = root.parent;
+      }
+      return root;
+    }
+
+    /**
+     * Merges the given root cluster in this root cluster.
+     */
+    public void mergeWith(Cluster root) {
+      if (root != this) {
+        root.parent = this;
+        if (root.component != null) {
+          addMergedComponent(root.component);
+        }
+        if (root.mergedComponents != null) {
+          for (WallsComponent component : root.mergedComponents) {
+            addMergedComponent(component);
+          }
+        }
+        this.wallEntries.addAll(root.wallEntries);
+        this.mergedBounds = new float [] {
+            Math.min(this.mergedBounds [0], root.mergedBounds [0]), Math.min(this.mergedBounds [1], root.mergedBounds [1]),
+            Math.max(this.mergedBounds [2], root.mergedBounds [2]), Math.max(this.mergedBounds [3], root.mergedBounds [3])};
+      }
+    }
+
+    private void addMergedComponent(WallsComponent component) {
+      if (this.mergedComponents == null) {
+        this.mergedComponents = new ArrayList<>();
+      }
+      this.mergedComponents.add(component);
+    }
+  }
+}
@@ -0,0 +1,150 @@
+/*
+ * DefaultHomeOutputStreamBenchmark.java 17 oct. 2026
+ *
+ * Copyright (c) 2026 Emmanuel PUYBARET / eTeks <info@eteks.com>. All Rights
+ * Reserved.
+ *
+ * This program is free software; you can redistribute it and/or modify it under
+ * the terms of the GNU General Public License as published by the Free Software
+ * Foundation; either version 2 of the License, or (at your option) any later
+ * version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. See the GNU General Public License for more
+ * details.
+ *
+ * You should have received a copy of the GNU General Public License along with
+ * this program; if not, write to the Free Software Foundation, Inc., 59 Temple
+ * Place, Suite 330, Boston, MA 02111-1307 USA
+ */
+package com.eteks.sweethome3d.benchmark;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.eteks.sweethome3d.io.ContentRecording;
+import com.eteks.sweethome3d.io.DefaultHomeOutputStream;
+import com.eteks.sweethome3d.model.CatalogPieceOfFurniture;
+import com.eteks.sweethome3d.model.Content;
+import com.eteks.sweethome3d.model.Home;
+import com.eteks.sweethome3d.model.HomePieceOfFurniture;
+import com.eteks.sweethome3d.model.Wall;
+import com.eteks.sweethome3d.tools.URLContent;
+
+/**
+ * Compares the time spent by {@link DefaultHomeOutputStream} to save a home referencing 
+ * large models and images, with and without parallel compression.
+ * Run it with <code>java -cp test-classes:classes:... org.openjdk.jmh.Main DefaultHomeOutputStreamBenchmark</code>.
+ * @author Emmanuel Puybaret
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2)
+@Measurement(iterations = 5)
+@Fork(1)
+public class DefaultHomeOutputStreamBenchmark {
+  @Param({"0", "1", "9"})
+  private int compressionLevel;
+
+  @Param({"false", "true"})
+  private boolean parallelCompression;
+
+  @Param({"40"})
+  private int modelCount;
+
+  private File contentDirectory;
+  private Home home;
+
+  @Setup(Level.Trial)
+  public void createHome() throws IOException {
+    this.contentDirectory = File.createTempFile("benchmark", "");
+    this.contentDirectory.delete();
+    this.contentDirectory.mkdir();
+    Random random = new Random(0);
+    this.home = new Home();
+    this.home.addWall(new Wall(0, 0, 1000, 0, 10, 250));
+    for (int i = 0; i < this.modelCount; i++) {
+      // Create a 2 MB OBJ-like model and a 500 KB JPEG-like texture
+      StringBuilder model = new StringBuilder();
+      while (model.length() < 2 * 1024 * 1024) {
+        model.append("v ").append(random.nextFloat()).append(' ').append(random.nextFloat())
+            .append(' ').append(random.nextFloat()).append('\n');
+      }
+      Content modelContent = createContent("model" + i + ".obj", model.toString().getBytes("ISO-8859-1"));
+      byte [] image = new byte [500 * 1024];
+      random.nextBytes(image);
+      image [0] = (byte)0xFF;
+      image [1] = (byte)0xD8;
+      image [2] = (byte)0xFF;
+      Content iconContent = createContent("icon" + i + ".jpg", image);
+      HomePieceOfFurniture piece = new HomePieceOfFurniture(
+          new CatalogPieceOfFurniture(null, "Piece " + i, null, iconContent, modelContent, 50, 50, 50, 0, true,
+              new float [][] {{1, 0, 0}, {0, 1, 0}, {0, 0, 1}}, null, true, null, null));
+      piece.setX(i * 60);
+      this.home.addPieceOfFurniture(piece);
+    }
+  }
+
+  private Content createContent(String name, byte [] data) throws IOException {
+    File file = new File(this.contentDirectory, name);
+    try (OutputStream out = new FileOutputStream(file)) {
+      out.write(data);
+    }
+    return new URLContent(file.toURI().toURL());
+  }
+
+  @TearDown(Level.Trial)
+  public void deleteContent() {
+    for (File file : this.contentDirectory.listFiles()) {
+      file.delete();
+    }
+    this.contentDirectory.delete();
+  }
+
+  @Benchmark
+  public long writeHome() throws IOException {
+    CountingOutputStream out = new CountingOutputStream();
+    DefaultHomeOutputStream homeOut = new DefaultHomeOutputStream(out, this.compressionLevel,
+        ContentRecording.INCLUDE_ALL_CONTENT, true, null, this.parallelCompression);
+    homeOut.writeHome(this.home);
+    homeOut.close();
+    return out.count;
+  }
+
+  /**
+   * An output stream that only counts written bytes.
+   */
+  private static class CountingOutputStream extends OutputStream {
+    private long count;
+
+    @Override
+    public void write(int b) {
+      this.count++;
+    }
+
+    @Override
+    public void write(byte [] b, int off, int len) {
+      this.count += len;
+    }
+  }
+}
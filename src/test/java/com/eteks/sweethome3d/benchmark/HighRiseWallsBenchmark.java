@@ -0,0 +1,189 @@
+/*
+ * HighRiseWallsBenchmark.java 17 oct. 2026
+ *
+ * Copyright (c) 2026 Emmanuel PUYBARET / eTeks <info@eteks.com>. All Rights
+ * Reserved.
+ *
+ * This program is free software; you can redistribute it and/or modify it under
+ * the terms of the GNU General Public License as published by the Free Software
+ * Foundation; either version 2 of the License, or (at your option) any later
+ * version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. See the GNU General Public License for more
+ * details.
+ *
+ * You should have received a copy of the GNU General Public License along with
+ * this program; if not, write to the Free Software Foundation, Inc., 59 Temple
+ * Place, Suite 330, Boston, MA 02111-1307 USA
+ */
+package com.eteks.sweethome3d.benchmark;
+
+import java.awt.geom.Area;
+import java.awt.geom.GeneralPath;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.eteks.sweethome3d.j3d.DoorsAndWindowsIndex;
+import com.eteks.sweethome3d.j3d.Wall3D;
+import com.eteks.sweethome3d.model.CatalogDoorOrWindow;
+import com.eteks.sweethome3d.model.Home;
+import com.eteks.sweethome3d.model.HomeDoorOrWindow;
+import com.eteks.sweethome3d.model.HomePieceOfFurniture;
+import com.eteks.sweethome3d.model.Sash;
+import com.eteks.sweethome3d.model.Wall;
+
+/**
+ * Measures the time spent to search the doors and windows that cut out the walls
+ * of synthetic high-rise homes, where each level is surrounded by walls with
+ * a window every 1.5 m, and to build the 3D walls of these homes.
+ * Run it with <code>java -cp test-classes:classes:... org.openjdk.jmh.Main HighRiseWallsBenchmark</code>.
+ * @author Emmanuel Puybaret
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class HighRiseWallsBenchmark {
+  private static final float LEVEL_HEIGHT = 300;
+
+  @Param({"10", "40"})
+  private int levelCount;
+
+  private Home       home;
+  private List<Wall> walls;
+
+  @Setup(Level.Trial)
+  public void createHome() {
+    this.home = new Home();
+    CatalogDoorOrWindow catalogWindow = new CatalogDoorOrWindow("window", "Window", null, null, null,
+        100, 20, 150, 80, true, 1, 0, new Sash [0],
+        new float [][] {{1, 0, 0}, {0, 1, 0}, {0, 0, 1}}, null, true, null, null);
+    for (int i = 0; i < this.levelCount; i++) {
+      com.eteks.sweethome3d.model.Level level =
+          new com.eteks.sweethome3d.model.Level("Level " + i, i * LEVEL_HEIGHT, 20, LEVEL_HEIGHT);
+      this.home.addLevel(level);
+      this.home.setSelectedLevel(level);
+      // Outer walls joined together with windows along them
+      float [][] points = {{0, 0}, {4000, 0}, {4000, 2000}, {0, 2000}};
+      Wall [] outerWalls = new Wall [points.length];
+      for (int j = 0; j < points.length; j++) {
+        float [] start = points [j];
+        float [] end = points [(j + 1) % points.length];
+        outerWalls [j] = new Wall(start [0], start [1], end [0], end [1], 25, LEVEL_HEIGHT);
+        this.home.addWall(outerWalls [j]);
+        float length = (float)Math.hypot(end [0] - start [0], end [1] - start [1]);
+        float angle = (float)Math.atan2(end [1] - start [1], end [0] - start [0]);
+        for (float distance = 100; distance < length - 50; distance += 150) {
+          HomePieceOfFurniture window = new HomeDoorOrWindow(catalogWindow);
+          window.setX(start [0] + (end [0] - start [0]) * distance / length);
+          window.setY(start [1] + (end [1] - start [1]) * distance / length);
+          window.setAngle(angle);
+          window.setDepth(25);
+          this.home.addPieceOfFurniture(window);
+        }
+      }
+      for (int j = 0; j < outerWalls.length; j++) {
+        outerWalls [j].setWallAtEnd(outerWalls [(j + 1) % outerWalls.length]);
+        outerWalls [(j + 1) % outerWalls.length].setWallAtStart(outerWalls [j]);
+      }
+      // Inner walls splitting the level in offices
+      for (int x = 500; x < 4000; x += 500) {
+        this.home.addWall(new Wall(x, 0, x, 2000, 10, LEVEL_HEIGHT));
+      }
+      this.home.addWall(new Wall(0, 1000, 4000, 1000, 10, LEVEL_HEIGHT));
+    }
+    this.walls = new ArrayList<>(this.home.getWalls());
+  }
+
+  /**
+   * Searches the doors and windows intersecting each wall with the index of doors and windows.
+   */
+  @Benchmark
+  public int searchIndexedDoorsAndWindows() {
+    DoorsAndWindowsIndex index = DoorsAndWindowsIndex.getInstance(this.home);
+    int intersectionCount = 0;
+    for (Wall wall : this.walls) {
+      Area wallArea = getArea(wall.getPoints());
+      float [] elevationRange = getElevationRange(wall);
+      for (HomePieceOfFurniture piece : index.getVisibleDoorsAndWindows(wallArea.getBounds2D(),
+          elevationRange [0], elevationRange [1])) {
+        intersectionCount += intersect(wallArea, piece);
+      }
+    }
+    return intersectionCount;
+  }
+
+  /**
+   * Searches the doors and windows intersecting each wall by browsing all the doors and windows
+   * of home, as it was done before the introduction of the index of doors and windows.
+   */
+  @Benchmark
+  public int searchAllDoorsAndWindows() {
+    int intersectionCount = 0;
+    for (Wall wall : this.walls) {
+      Area wallArea = getArea(wall.getPoints());
+      float [] elevationRange = getElevationRange(wall);
+      for (HomePieceOfFurniture piece : this.home.getFurniture()) {
+        if (piece.isDoorOrWindow()) {
+          float pieceElevation = piece.getGroundElevation();
+          if (pieceElevation + piece.getHeight() > elevationRange [0]
+              && pieceElevation < elevationRange [1]) {
+            intersectionCount += intersect(wallArea, piece);
+          }
+        }
+      }
+    }
+    return intersectionCount;
+  }
+
+  /**
+   * Builds the 3D walls of home, as when the 3D view is displayed.
+   */
+  @Benchmark
+  public List<Wall3D> createWalls3D() {
+    List<Wall3D> walls3D = new ArrayList<>(this.walls.size());
+    for (Wall wall : this.walls) {
+      walls3D.add(new Wall3D(wall, this.home, true, true));
+    }
+    return walls3D;
+  }
+
+  private float [] getElevationRange(Wall wall) {
+    float elevation = wall.getLevel().getElevation();
+    return new float [] {elevation, elevation + wall.getHeight()};
+  }
+
+  private int intersect(Area wallArea, HomePieceOfFurniture piece) {
+    Area intersectionArea = getArea(piece.getPoints());
+    intersectionArea.intersect(wallArea);
+    return intersectionArea.isEmpty() ? 0 : 1;
+  }
+
+  private Area getArea(float [][] points) {
+    GeneralPath path = new GeneralPath();
+    path.moveTo(points [0][0], points [0][1]);
+    for (int i = 1; i < points.length; i++) {
+      path.lineTo(points [i][0], points [i][1]);
+    }
+    path.closePath();
+    return new Area(path);
+  }
+}
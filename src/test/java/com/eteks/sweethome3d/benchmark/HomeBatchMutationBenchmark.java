@@ -0,0 +1,180 @@
+/*
+ * HomeBatchMutationBenchmark.java 17 oct. 2026
+ *
+ * Copyright (c) 2026 Emmanuel PUYBARET / eTeks <info@eteks.com>. All Rights
+ * Reserved.
+ *
+ * This program is free software; you can redistribute it and/or modify it under
+ * the terms of the GNU General Public License as published by the Free Software
+ * Foundation; either version 2 of the License, or (at your option) any later
+ * version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. See the GNU General Public License for more
+ * details.
+ *
+ * You should have received a copy of the GNU General Public License along with
+ * this program; if not, write to the Free Software Foundation, Inc., 59 Temple
+ * Place, Suite 330, Boston, MA 02111-1307 USA
+ */
+package com.eteks.sweethome3d.benchmark;
+
+import java.awt.EventQueue;
+import java.lang.reflect.InvocationTargetException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import javax.swing.undo.UndoManager;
+import javax.swing.undo.UndoableEditSupport;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.eteks.sweethome3d.model.CatalogPieceOfFurniture;
+import com.eteks.sweethome3d.model.Home;
+import com.eteks.sweethome3d.model.HomePieceOfFurniture;
+import com.eteks.sweethome3d.model.LengthUnit;
+import com.eteks.sweethome3d.model.Library;
+import com.eteks.sweethome3d.model.UserPreferences;
+import com.eteks.sweethome3d.swing.FurnitureTable;
+import com.eteks.sweethome3d.swing.SwingViewFactory;
+import com.eteks.sweethome3d.viewcontroller.PlanController;
+
+/**
+ * Measures the time spent to add then delete many pieces in a home displayed
+ * in a furniture table and managed by a plan controller, with the batch methods
+ * used by controllers and piece by piece.
+ * Run it with <code>java -cp test-classes:classes:... org.openjdk.jmh.Main HomeBatchMutationBenchmark</code>.
+ * @author Emmanuel Puybaret
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class HomeBatchMutationBenchmark {
+  @Param({"2000"})
+  private int pieceCount;
+
+  private Home                       home;
+  private PlanController             planController;
+  private UndoManager                undoManager;
+  private List<HomePieceOfFurniture> pieces;
+
+  @Setup(Level.Trial)
+  public void createHome() throws InterruptedException, InvocationTargetException {
+    this.home = new Home();
+    for (int i = 0; i < this.pieceCount; i++) {
+      this.home.addPieceOfFurniture(createPiece(i));
+    }
+    this.pieces = new ArrayList<>();
+    for (int i = 0; i < this.pieceCount; i++) {
+      this.pieces.add(createPiece(i));
+    }
+    final UserPreferences preferences = new BenchmarkUserPreferences();
+    this.undoManager = new UndoManager();
+    final UndoableEditSupport undoSupport = new UndoableEditSupport();
+    undoSupport.addUndoableEditListener(this.undoManager);
+    EventQueue.invokeAndWait(() -> {
+        this.planController = new PlanController(this.home, preferences, new SwingViewFactory(), null, undoSupport);
+        new FurnitureTable(this.home, preferences);
+      });
+  }
+
+  private HomePieceOfFurniture createPiece(int i) {
+    HomePieceOfFurniture piece = new HomePieceOfFurniture(
+        new CatalogPieceOfFurniture(null, "Piece " + i, null, null, null, 50, 50, 80, 0, true,
+            new float [][] {{1, 0, 0}, {0, 1, 0}, {0, 0, 1}}, null, true, null, null));
+    piece.setX(i % 50 * 60);
+    piece.setY(i / 50 * 60);
+    return piece;
+  }
+
+  /**
+   * Pastes pieces in home with plan controller then undoes it,
+   * which adds and deletes furniture in batches.
+   */
+  @Benchmark
+  public int pasteAndUndo() throws InterruptedException, InvocationTargetException {
+    EventQueue.invokeAndWait(() -> {
+        this.planController.addItems(this.pieces);
+        this.undoManager.undo();
+      });
+    return this.home.getFurniture().size();
+  }
+
+  /**
+   * Adds then deletes pieces one by one.
+   */
+  @Benchmark
+  public int addAndDeletePieceByPiece() throws InterruptedException, InvocationTargetException {
+    EventQueue.invokeAndWait(() -> {
+        for (HomePieceOfFurniture piece : this.pieces) {
+          this.home.addPieceOfFurniture(piece);
+        }
+        for (HomePieceOfFurniture piece : this.pieces) {
+          this.home.deletePieceOfFurniture(piece);
+        }
+      });
+    return this.home.getFurniture().size();
+  }
+
+  /**
+   * Preferences which don't read catalogs.
+   */
+  private static class BenchmarkUserPreferences extends UserPreferences {
+    public BenchmarkUserPreferences() {
+      setUnit(LengthUnit.CENTIMETER);
+    }
+
+    @Override
+    public void write() {
+    }
+
+    @Override
+    public void addLanguageLibrary(String languageLibraryLocation) {
+    }
+
+    @Override
+    public boolean languageLibraryExists(String languageLibraryLocation) {
+      return false;
+    }
+
+    @Override
+    public void addFurnitureLibrary(String furnitureLibraryLocation) {
+    }
+
+    @Override
+    public boolean furnitureLibraryExists(String furnitureLibraryLocation) {
+      return false;
+    }
+
+    @Override
+    public void addTexturesLibrary(String texturesLibraryLocation) {
+    }
+
+    @Override
+    public boolean texturesLibraryExists(String texturesLibraryLocation) {
+      return false;
+    }
+
+    @Override
+    public List<Library> getLibraries() {
+      return Collections.emptyList();
+    }
+  }
+}
@@ -0,0 +1,223 @@
+/*
+ * HomeOpeningBenchmark.java 17 oct. 2026
+ *
+ * Copyright (c) 2026 Emmanuel PUYBARET / eTeks <info@eteks.com>. All Rights
+ * Reserved.
+ *
+ * This program is free software; you can redistribute it and/or modify it under
+ * the terms of the GNU General Public License as published by the Free Software
+ * Foundation; either version 2 of the License, or (at your option) any later
+ * version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. See the GNU General Public License for more
+ * details.
+ *
+ * You should have received a copy of the GNU General Public License along with
+ * this program; if not, write to the Free Software Foundation, Inc., 59 Temple
+ * Place, Suite 330, Boston, MA 02111-1307 USA
+ */
+package com.eteks.sweethome3d.benchmark;
+
+import java.awt.Dimension;
+import java.awt.Graphics2D;
+import java.awt.image.BufferedImage;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import javax.imageio.ImageIO;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.eteks.sweethome3d.io.HomeFileRecorder;
+import com.eteks.sweethome3d.j3d.ModelManager;
+import com.eteks.sweethome3d.model.CatalogPieceOfFurniture;
+import com.eteks.sweethome3d.model.Content;
+import com.eteks.sweethome3d.model.Home;
+import com.eteks.sweethome3d.model.HomePieceOfFurniture;
+import com.eteks.sweethome3d.model.LengthUnit;
+import com.eteks.sweethome3d.model.Library;
+import com.eteks.sweethome3d.model.RecorderException;
+import com.eteks.sweethome3d.model.UserPreferences;
+import com.eteks.sweethome3d.swing.PlanComponent;
+import com.eteks.sweethome3d.tools.URLContent;
+
+/**
+ * Measures the time spent to open a home file referencing large models and icons
+ * until its plan is painted for the first time, and until all its models are loaded
+ * for the 3D view, with and without lazy content loading.
+ * Run it with <code>java -cp test-classes:classes:... org.openjdk.jmh.Main HomeOpeningBenchmark</code>
+ * (<code>fully3DLoaded</code> requires a display to initialize Java 3D).
+ * @author Emmanuel Puybaret
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 10)
+@Fork(1)
+public class HomeOpeningBenchmark {
+  @Param({"false", "true"})
+  private boolean lazyContentLoading;
+
+  @Param({"40"})
+  private int modelCount;
+
+  private File            contentDirectory;
+  private File            homeFile;
+  private UserPreferences preferences;
+
+  @Setup(Level.Trial)
+  public void createHomeFile() throws IOException, RecorderException {
+    this.contentDirectory = File.createTempFile("benchmark", "");
+    this.contentDirectory.delete();
+    this.contentDirectory.mkdir();
+    Random random = new Random(0);
+    Home home = new Home();
+    for (int i = 0; i < this.modelCount; i++) {
+      // Create a grid model of about 700 KB and a 256x256 noisy icon
+      File modelFile = new File(this.contentDirectory, "model" + i + ".obj");
+      try (Writer writer = new OutputStreamWriter(new FileOutputStream(modelFile), "ISO-8859-1")) {
+        int gridSize = 120;
+        for (int x = 0; x < gridSize; x++) {
+          for (int y = 0; y < gridSize; y++) {
+            writer.write("v " + x + " " + y + " " + random.nextFloat() + "\n");
+          }
+        }
+        for (int x = 0; x < gridSize - 1; x++) {
+          for (int y = 0; y < gridSize - 1; y++) {
+            int index = x * gridSize + y + 1;
+            writer.write("f " + index + " " + (index + gridSize) + " " + (index + gridSize + 1) + " " + (index + 1) + "\n");
+          }
+        }
+      }
+      BufferedImage image = new BufferedImage(256, 256, BufferedImage.TYPE_INT_RGB);
+      for (int x = 0; x < image.getWidth(); x++) {
+        for (int y = 0; y < image.getHeight(); y++) {
+          image.setRGB(x, y, random.nextInt());
+        }
+      }
+      File iconFile = new File(this.contentDirectory, "icon" + i + ".png");
+      ImageIO.write(image, "PNG", iconFile);
+      Content iconContent = new URLContent(iconFile.toURI().toURL());
+      HomePieceOfFurniture piece = new HomePieceOfFurniture(new CatalogPieceOfFurniture(null, "Piece " + i, null,
+          iconContent, new URLContent(modelFile.toURI().toURL()), 50, 50, 50, 0, true,
+          new float [][] {{1, 0, 0}, {0, 1, 0}, {0, 0, 1}}, null, true, null, null));
+      piece.setX(i * 60);
+      home.addPieceOfFurniture(piece);
+    }
+    this.homeFile = new File(this.contentDirectory, "home.sh3d");
+    new HomeFileRecorder(0).writeHome(home, this.homeFile.getPath());
+    this.preferences = new BenchmarkUserPreferences();
+  }
+
+  @TearDown(Level.Trial)
+  public void deleteContent() {
+    for (File file : this.contentDirectory.listFiles()) {
+      file.delete();
+    }
+    this.contentDirectory.delete();
+  }
+
+  private Home readHome() throws RecorderException {
+    return new HomeFileRecorder(0, false, null, false, false, false, false, false, this.lazyContentLoading)
+        .readHome(this.homeFile.getPath());
+  }
+
+  /**
+   * Opens the home file and paints its plan once.
+   */
+  @Benchmark
+  public BufferedImage firstPlanPaint() throws RecorderException {
+    Home home = readHome();
+    PlanComponent planComponent = new PlanComponent(home, this.preferences, null);
+    Dimension size = planComponent.getPreferredSize();
+    planComponent.setSize(size);
+    BufferedImage image = new BufferedImage(size.width, size.height, BufferedImage.TYPE_INT_RGB);
+    Graphics2D g2D = image.createGraphics();
+    planComponent.paint(g2D);
+    g2D.dispose();
+    return image;
+  }
+
+  /**
+   * Opens the home file and loads all the models of its furniture.
+   */
+  @Benchmark
+  public int fully3DLoaded() throws RecorderException, IOException {
+    Home home = readHome();
+    List<HomePieceOfFurniture> furniture = home.getFurniture();
+    int loadedModelCount = 0;
+    for (HomePieceOfFurniture piece : furniture) {
+      if (ModelManager.getInstance().loadModel(piece.getModel()) != null) {
+        loadedModelCount++;
+      }
+    }
+    return loadedModelCount;
+  }
+
+  /**
+   * Preferences which don't read catalogs.
+   */
+  private static class BenchmarkUserPreferences extends UserPreferences {
+    public BenchmarkUserPreferences() {
+      setUnit(LengthUnit.CENTIMETER);
+    }
+
+    @Override
+    public void write() {
+    }
+
+    @Override
+    public void addLanguageLibrary(String languageLibraryLocation) {
+    }
+
+    @Override
+    public boolean languageLibraryExists(String languageLibraryLocation) {
+      return false;
+    }
+
+    @Override
+    public void addFurnitureLibrary(String furnitureLibraryLocation) {
+    }
+
+    @Override
+    public boolean furnitureLibraryExists(String furnitureLibraryLocation) {
+      return false;
+    }
+
+    @Override
+    public void addTexturesLibrary(String texturesLibraryLocation) {
+    }
+
+    @Override
+    public boolean texturesLibraryExists(String texturesLibraryLocation) {
+      return false;
+    }
+
+    @Override
+    public List<Library> getLibraries() {
+      return Collections.emptyList();
+    }
+  }
+}
@@ -0,0 +1,126 @@
+/*
+ * ModelCacheBenchmark.java 17 oct. 2026
+ *
+ * Copyright (c) 2026 Emmanuel PUYBARET / eTeks <info@eteks.com>. All Rights
+ * Reserved.
+ *
+ * This program is free software; you can redistribute it and/or modify it under
+ * the terms of the GNU General Public License as published by the Free Software
+ * Foundation; either version 2 of the License, or (at your option) any later
+ * version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. See the GNU General Public License for more
+ * details.
+ *
+ * You should have received a copy of the GNU General Public License along with
+ * this program; if not, write to the Free Software Foundation, Inc., 59 Temple
+ * Place, Suite 330, Boston, MA 02111-1307 USA
+ */
+package com.eteks.sweethome3d.benchmark;
+
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.util.Locale;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import javax.media.j3d.BranchGroup;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.eteks.sweethome3d.io.ContentDigestManager;
+import com.eteks.sweethome3d.j3d.ModelCache;
+import com.eteks.sweethome3d.j3d.ModelManager;
+import com.eteks.sweethome3d.tools.URLContent;
+
+/**
+ * Measures the time spent by model manager to load an OBJ file describing a terrain scan,
+ * rebuilt from model cache and parsed by loaders.
+ * Run it with <code>java -cp test-classes:classes:... org.openjdk.jmh.Main ModelCacheBenchmark</code>.
+ * @author Emmanuel Puybaret
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ModelCacheBenchmark {
+  @Param({"200"})
+  private int gridSide;
+
+  private File       objFile;
+  private URLContent content;
+  private ModelCache modelCache;
+
+  @Setup(Level.Trial)
+  public void createModelCache() throws IOException {
+    this.objFile = File.createTempFile("scan", ".obj");
+    Random random = new Random(0);
+    Writer writer = new BufferedWriter(new OutputStreamWriter(new FileOutputStream(this.objFile), "ISO-8859-1"));
+    writer.write("# Grid of " + this.gridSide + "x" + this.gridSide + " vertices\ng scan\n");
+    for (int i = 0; i < this.gridSide * this.gridSide; i++) {
+      int x = i % this.gridSide;
+      int z = i / this.gridSide;
+      writer.write(String.format(Locale.US, "v %.6f %.6f %.6f\n", x * 1.5, random.nextDouble() * 10, z * 1.5));
+    }
+    for (int z = 0; z < this.gridSide - 1; z++) {
+      for (int x = 0; x < this.gridSide - 1; x++) {
+        int i = z * this.gridSide + x + 1;
+        writer.write("f " + i + " " + (i + this.gridSide) + " " + (i + this.gridSide + 1) + " " + (i + 1) + "\n");
+      }
+    }
+    writer.close();
+    this.content = new URLContent(this.objFile.toURI().toURL());
+
+    File folder = File.createTempFile("models", "");
+    folder.delete();
+    this.modelCache = new ModelCache(folder, 100 << 20, ContentDigestManager.getInstance()::getContentDigest);
+    ModelManager.getInstance().setModelCache(this.modelCache);
+    ModelManager.getInstance().loadModel(this.content);
+  }
+
+  @TearDown(Level.Trial)
+  public void deleteModelCache() {
+    ModelManager.getInstance().setModelCache(null);
+    this.modelCache.clear();
+    this.modelCache.getFolder().delete();
+    this.objFile.delete();
+  }
+
+  /**
+   * Loads the model rebuilt from the binary file stored in cache.
+   */
+  @Benchmark
+  public BranchGroup loadCachedModel() throws IOException {
+    ModelManager.getInstance().setModelCache(this.modelCache);
+    return ModelManager.getInstance().loadModel(this.content);
+  }
+
+  /**
+   * Loads the model parsed by OBJ loader, computing its normals.
+   */
+  @Benchmark
+  public BranchGroup parseModel() throws IOException {
+    ModelManager.getInstance().setModelCache(null);
+    return ModelManager.getInstance().loadModel(this.content);
+  }
+}
@@ -0,0 +1,166 @@
+/*
+ * ModelManagerConcurrencyBenchmark.java 17 oct. 2026
+ *
+ * Copyright (c) 2026 Emmanuel PUYBARET / eTeks <info@eteks.com>. All Rights
+ * Reserved.
+ *
+ * This program is free software; you can redistribute it and/or modify it under
+ * the terms of the GNU General Public License as published by the Free Software
+ * Foundation; either version 2 of the License, or (at your option) any later
+ * version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. See the GNU General Public License for more
+ * details.
+ *
+ * You should have received a copy of the GNU General Public License along with
+ * this program; if not, write to the Free Software Foundation, Inc., 59 Temple
+ * Place, Suite 330, Boston, MA 02111-1307 USA
+ */
+package com.eteks.sweethome3d.benchmark;
+
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Random;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import javax.media.j3d.BranchGroup;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.eteks.sweethome3d.j3d.ModelManager;
+import com.eteks.sweethome3d.model.Content;
+import com.eteks.sweethome3d.tools.URLContent;
+
+/**
+ * Measures the time spent by model manager to answer many concurrent synchronous
+ * requests for a few distinct models, either already loaded or loaded during the requests.
+ * Run it with <code>java -cp test-classes:classes:... org.openjdk.jmh.Main ModelManagerConcurrencyBenchmark</code>.
+ * @author Emmanuel Puybaret
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ModelManagerConcurrencyBenchmark {
+  @Param({"1000"})
+  private int requestCount;
+  @Param({"50"})
+  private int contentCount;
+  @Param({"8"})
+  private int threadCount;
+
+  private List<File>      objFiles;
+  private List<Content>   contents;
+  private ExecutorService executor;
+
+  @Setup(Level.Trial)
+  public void createContents() throws IOException {
+    this.objFiles = new ArrayList<File>();
+    this.contents = new ArrayList<Content>();
+    Random random = new Random(0);
+    for (int i = 0; i < this.contentCount; i++) {
+      File objFile = File.createTempFile("model", ".obj");
+      Writer writer = new BufferedWriter(new OutputStreamWriter(new FileOutputStream(objFile), "ISO-8859-1"));
+      // Write a few groups of random triangles
+      for (int j = 0; j < 300; j++) {
+        writer.write(String.format(Locale.US, "v %.6f %.6f %.6f\n",
+            random.nextDouble() * 100, random.nextDouble() * 100, random.nextDouble() * 100));
+      }
+      for (int j = 0; j < 300; j += 3) {
+        if (j % 60 == 0) {
+          writer.write("g group" + j + "\n");
+        }
+        writer.write("f " + (j + 1) + " " + (j + 2) + " " + (j + 3) + "\n");
+      }
+      writer.close();
+      this.objFiles.add(objFile);
+      this.contents.add(new URLContent(objFile.toURI().toURL()));
+    }
+    this.executor = Executors.newFixedThreadPool(this.threadCount);
+  }
+
+  @TearDown(Level.Trial)
+  public void deleteContents() {
+    this.executor.shutdown();
+    for (File objFile : this.objFiles) {
+      objFile.delete();
+    }
+  }
+
+  @Setup(Level.Iteration)
+  public void loadModels() throws InterruptedException, ExecutionException {
+    ModelManager.getInstance().clear();
+    requestModels();
+  }
+
+  /**
+   * Requests concurrently the models of contents which were all loaded,
+   * measuring the time spent to clone them.
+   */
+  @Benchmark
+  public int requestLoadedModels() throws InterruptedException, ExecutionException {
+    return requestModels();
+  }
+
+  /**
+   * Requests concurrently the models of contents after clearing model manager,
+   * measuring the time spent to load each content once and clone it.
+   */
+  @Benchmark
+  public int requestUnloadedModels() throws InterruptedException, ExecutionException {
+    ModelManager.getInstance().clear();
+    return requestModels();
+  }
+
+  private int requestModels() throws InterruptedException, ExecutionException {
+    List<Future<BranchGroup>> models = new ArrayList<Future<BranchGroup>>(this.requestCount);
+    for (int i = 0; i < this.requestCount; i++) {
+      final Content content = this.contents.get(i % this.contents.size());
+      models.add(this.executor.submit(() -> {
+          final BranchGroup [] model = new BranchGroup [1];
+          ModelManager.getInstance().loadModel(content, true, new ModelManager.ModelObserver() {
+              public void modelUpdated(BranchGroup modelRoot) {
+                model [0] = modelRoot;
+              }
+
+              public void modelError(Exception ex) {
+                throw new IllegalStateException(ex);
+              }
+            });
+          return model [0];
+        }));
+    }
+    int childrenCount = 0;
+    for (Future<BranchGroup> model : models) {
+      childrenCount += model.get().numChildren();
+    }
+    return childrenCount;
+  }
+}
@@ -0,0 +1,121 @@
+/*
+ * OBJLoaderBenchmark.java 17 oct. 2026
+ *
+ * Copyright (c) 2026 Emmanuel PUYBARET / eTeks <info@eteks.com>. All Rights
+ * Reserved.
+ *
+ * This program is free software; you can redistribute it and/or modify it under
+ * the terms of the GNU General Public License as published by the Free Software
+ * Foundation; either version 2 of the License, or (at your option) any later
+ * version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. See the GNU General Public License for more
+ * details.
+ *
+ * You should have received a copy of the GNU General Public License along with
+ * this program; if not, write to the Free Software Foundation, Inc., 59 Temple
+ * Place, Suite 330, Boston, MA 02111-1307 USA
+ */
+package com.eteks.sweethome3d.benchmark;
+
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.util.Locale;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.eteks.sweethome3d.j3d.OBJLoader;
+import com.sun.j3d.loaders.Scene;
+
+/**
+ * Measures the time spent to load an OBJ file describing a textured terrain scan
+ * with the byte parser used for files and URLs, and with the tokenizer used for readers.
+ * Run it with <code>java -cp test-classes:classes:... org.openjdk.jmh.Main OBJLoaderBenchmark</code>.
+ * @author Emmanuel Puybaret
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class OBJLoaderBenchmark {
+  @Param({"300"})
+  private int gridSide;
+
+  private File objFile;
+
+  @Setup(Level.Trial)
+  public void createOBJFile() throws IOException {
+    this.objFile = File.createTempFile("scan", ".obj");
+    Random random = new Random(0);
+    Writer writer = new BufferedWriter(new OutputStreamWriter(new FileOutputStream(this.objFile), "ISO-8859-1"));
+    writer.write("# Grid of " + this.gridSide + "x" + this.gridSide + " vertices\ng scan\n");
+    for (int i = 0; i < this.gridSide * this.gridSide; i++) {
+      int x = i % this.gridSide;
+      int z = i / this.gridSide;
+      writer.write(String.format(Locale.US, "v %.6f %.6f %.6f\n", x * 1.5, random.nextDouble() * 10, z * 1.5));
+      writer.write(String.format(Locale.US, "vt %.6f %.6f\n", (float)x / this.gridSide, (float)z / this.gridSide));
+      writer.write(String.format(Locale.US, "vn %.6f %.6f %.6f\n", random.nextDouble() * 0.1, 0.99, random.nextDouble() * 0.1));
+    }
+    for (int z = 0; z < this.gridSide - 1; z++) {
+      for (int x = 0; x < this.gridSide - 1; x++) {
+        int i = z * this.gridSide + x + 1;
+        int [] indices = {i, i + this.gridSide, i + this.gridSide + 1, i + 1};
+        writer.write("f");
+        for (int index : indices) {
+          writer.write(" " + index + "/" + index + "/" + index);
+        }
+        writer.write("\n");
+      }
+    }
+    writer.close();
+  }
+
+  @TearDown(Level.Trial)
+  public void deleteOBJFile() {
+    this.objFile.delete();
+  }
+
+  /**
+   * Loads the OBJ file parsed from its bytes.
+   */
+  @Benchmark
+  public Scene loadFile() {
+    try {
+      return new OBJLoader().load(this.objFile.getAbsolutePath());
+    } catch (IOException ex) {
+      throw new RuntimeException(ex);
+    }
+  }
+
+  /**
+   * Loads the OBJ file parsed from a reader with a tokenizer.
+   */
+  @Benchmark
+  public Scene loadReader() throws IOException {
+    return new OBJLoader().load(new InputStreamReader(new FileInputStream(this.objFile), "ISO-8859-1"));
+  }
+}
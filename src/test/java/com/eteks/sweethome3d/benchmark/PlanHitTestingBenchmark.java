@@ -0,0 +1,215 @@
+/*
+ * PlanHitTestingBenchmark.java 17 oct. 2026
+ *
+ * Copyright (c) 2026 Emmanuel PUYBARET / eTeks <info@eteks.com>. All Rights
+ * Reserved.
+ *
+ * This program is free software; you can redistribute it and/or modify it under
+ * the terms of the GNU General Public License as published by the Free Software
+ * Foundation; either version 2 of the License, or (at your option) any later
+ * version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. See the GNU General Public License for more
+ * details.
+ *
+ * You should have received a copy of the GNU General Public License along with
+ * this program; if not, write to the Free Software Foundation, Inc., 59 Temple
+ * Place, Suite 330, Boston, MA 02111-1307 USA
+ */
+package com.eteks.sweethome3d.benchmark;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import javax.swing.undo.UndoableEditSupport;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.eteks.sweethome3d.model.CatalogPieceOfFurniture;
+import com.eteks.sweethome3d.model.Home;
+import com.eteks.sweethome3d.model.HomePieceOfFurniture;
+import com.eteks.sweethome3d.model.Label;
+import com.eteks.sweethome3d.model.LengthUnit;
+import com.eteks.sweethome3d.model.Library;
+import com.eteks.sweethome3d.model.Room;
+import com.eteks.sweethome3d.model.Selectable;
+import com.eteks.sweethome3d.model.UserPreferences;
+import com.eteks.sweethome3d.model.Wall;
+import com.eteks.sweethome3d.swing.SwingViewFactory;
+import com.eteks.sweethome3d.viewcontroller.PlanController;
+
+/**
+ * Measures the time spent by plan controller to search the items under the mouse
+ * and the items in a selection rectangle in homes containing many items.
+ * Run it with <code>java -cp test-classes:classes:... org.openjdk.jmh.Main PlanHitTestingBenchmark</code>.
+ * @author Emmanuel Puybaret
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class PlanHitTestingBenchmark {
+  private static final int QUERY_COUNT = 1024;
+
+  @Param({"1000", "10000", "100000"})
+  private int itemCount;
+
+  private Home                     home;
+  private BenchmarkPlanController  planController;
+  private float []                 queryPoints;
+  private int                      queryIndex;
+  private HomePieceOfFurniture     movedPiece;
+
+  @Setup(Level.Trial)
+  public void createHome() {
+    Random random = new Random(0);
+    this.home = new Home();
+    // Spread items on a square where each item occupies 1 m2 in average
+    float side = (float)Math.sqrt(this.itemCount) * 100;
+    for (int i = 0; i < this.itemCount; i++) {
+      float x = random.nextFloat() * side;
+      float y = random.nextFloat() * side;
+      switch (i % 10) {
+        case 0 :
+        case 1 :
+        case 2 :
+          Wall wall = new Wall(x, y, x + 50 + random.nextFloat() * 200, y, 10, 250);
+          this.home.addWall(wall);
+          break;
+        case 3 :
+        case 4 :
+          float roomSize = 50 + random.nextFloat() * 150;
+          this.home.addRoom(new Room(new float [][] {{x, y}, {x + roomSize, y},
+                                                     {x + roomSize, y + roomSize}, {x, y + roomSize}}));
+          break;
+        case 5 :
+          this.home.addLabel(new Label("Label " + i, x, y));
+          break;
+        default :
+          HomePieceOfFurniture piece = new HomePieceOfFurniture(new CatalogPieceOfFurniture(null, "Piece " + i,
+              null, null, null, 40 + random.nextFloat() * 60, 40 + random.nextFloat() * 60, 80, 0, true,
+              new float [][] {{1, 0, 0}, {0, 1, 0}, {0, 0, 1}}, null, true, null, null));
+          piece.setX(x);
+          piece.setY(y);
+          piece.setAngle(random.nextFloat() * 6);
+          this.home.addPieceOfFurniture(piece);
+          this.movedPiece = piece;
+          break;
+      }
+    }
+    this.queryPoints = new float [QUERY_COUNT * 2];
+    for (int i = 0; i < this.queryPoints.length; i++) {
+      this.queryPoints [i] = random.nextFloat() * side;
+    }
+    this.planController = new BenchmarkPlanController(this.home, new BenchmarkUserPreferences());
+    // Perform a first search to build lazily initialized data
+    this.planController.getSelectableItemsAt(0, 0);
+  }
+
+  /**
+   * Searches the items at a random point.
+   */
+  @Benchmark
+  public List<Selectable> getSelectableItemsAt() {
+    int i = this.queryIndex++ % QUERY_COUNT * 2;
+    return this.planController.getSelectableItemsAt(this.queryPoints [i], this.queryPoints [i + 1]);
+  }
+
+  /**
+   * Searches the items in a 5 x 3 m rectangle at a random point.
+   */
+  @Benchmark
+  public List<Selectable> getSelectableItemsIntersectingRectangle() {
+    int i = this.queryIndex++ % QUERY_COUNT * 2;
+    float x = this.queryPoints [i];
+    float y = this.queryPoints [i + 1];
+    return this.planController.getSelectableItemsIntersectingRectangle(x, y, x + 500, y + 300);
+  }
+
+  /**
+   * Moves a piece then searches the items at its location, as during a drag.
+   */
+  @Benchmark
+  public List<Selectable> getSelectableItemsAtAfterMove() {
+    int i = this.queryIndex++ % QUERY_COUNT * 2;
+    this.movedPiece.setX(this.queryPoints [i]);
+    this.movedPiece.setY(this.queryPoints [i + 1]);
+    return this.planController.getSelectableItemsAt(this.queryPoints [i], this.queryPoints [i + 1]);
+  }
+
+  /**
+   * A plan controller giving access to rectangle search.
+   */
+  private static class BenchmarkPlanController extends PlanController {
+    public BenchmarkPlanController(Home home, UserPreferences preferences) {
+      super(home, preferences, new SwingViewFactory(), null, new UndoableEditSupport());
+    }
+
+    @Override
+    public List<Selectable> getSelectableItemsIntersectingRectangle(float x0, float y0, float x1, float y1) {
+      return super.getSelectableItemsIntersectingRectangle(x0, y0, x1, y1);
+    }
+  }
+
+  /**
+   * Preferences which don't read catalogs.
+   */
+  private static class BenchmarkUserPreferences extends UserPreferences {
+    public BenchmarkUserPreferences() {
+      setUnit(LengthUnit.CENTIMETER);
+    }
+
+    @Override
+    public void write() {
+    }
+
+    @Override
+    public void addLanguageLibrary(String languageLibraryLocation) {
+    }
+
+    @Override
+    public boolean languageLibraryExists(String languageLibraryLocation) {
+      return false;
+    }
+
+    @Override
+    public void addFurnitureLibrary(String furnitureLibraryLocation) {
+    }
+
+    @Override
+    public boolean furnitureLibraryExists(String furnitureLibraryLocation) {
+      return false;
+    }
+
+    @Override
+    public void addTexturesLibrary(String texturesLibraryLocation) {
+    }
+
+    @Override
+    public boolean texturesLibraryExists(String texturesLibraryLocation) {
+      return false;
+    }
+
+    @Override
+    public List<Library> getLibraries() {
+      return Collections.emptyList();
+    }
+  }
+}
@@ -0,0 +1,222 @@
+/*
+ * PlanPaintingBenchmark.java 17 oct. 2026
+ *
+ * Copyright (c) 2026 Emmanuel PUYBARET / eTeks <info@eteks.com>. All Rights
+ * Reserved.
+ *
+ * This program is free software; you can redistribute it and/or modify it under
+ * the terms of the GNU General Public License as published by the Free Software
+ * Foundation; either version 2 of the License, or (at your option) any later
+ * version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. See the GNU General Public License for more
+ * details.
+ *
+ * You should have received a copy of the GNU General Public License along with
+ * this program; if not, write to the Free Software Foundation, Inc., 59 Temple
+ * Place, Suite 330, Boston, MA 02111-1307 USA
+ */
+package com.eteks.sweethome3d.benchmark;
+
+import java.awt.Dimension;
+import java.awt.EventQueue;
+import java.awt.Graphics2D;
+import java.awt.image.BufferedImage;
+import java.lang.reflect.InvocationTargetException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.eteks.sweethome3d.io.DefaultUserPreferences;
+import com.eteks.sweethome3d.model.CatalogTexture;
+import com.eteks.sweethome3d.model.DimensionLine;
+import com.eteks.sweethome3d.model.Home;
+import com.eteks.sweethome3d.model.Label;
+import com.eteks.sweethome3d.model.LengthUnit;
+import com.eteks.sweethome3d.model.Library;
+import com.eteks.sweethome3d.model.Room;
+import com.eteks.sweethome3d.model.Selectable;
+import com.eteks.sweethome3d.model.TextureImage;
+import com.eteks.sweethome3d.model.UserPreferences;
+import com.eteks.sweethome3d.model.Wall;
+import com.eteks.sweethome3d.swing.PlanComponent;
+import com.eteks.sweethome3d.tools.ResourceURLContent;
+
+/**
+ * Measures the time spent to paint the visible part of a plan displaying many rooms
+ * after panning, after a selection change and after a rectangle feedback change,
+ * in the event dispatch thread as in the application.
+ * Run it with <code>java -cp test-classes:classes:... org.openjdk.jmh.Main PlanPaintingBenchmark</code>.
+ * @author Emmanuel Puybaret
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class PlanPaintingBenchmark {
+  private static final int VIEW_WIDTH  = 1280;
+  private static final int VIEW_HEIGHT = 800;
+  private static final int PAN_STEP    = 16;
+
+  @Param({"3000"})
+  private int roomCount;
+
+  private Home          home;
+  private List<Room>    rooms;
+  private PlanComponent planComponent;
+  private BufferedImage viewImage;
+  private int           viewX;
+  private int           viewY;
+  private int           panDirection = 1;
+  private int           selectionIndex;
+  private int           feedbackIndex;
+
+  @Setup(Level.Trial)
+  public void createPlan() throws InterruptedException, InvocationTargetException {
+    this.home = new Home();
+    this.rooms = new ArrayList<>();
+    int side = (int)Math.ceil(Math.sqrt(this.roomCount));
+    for (int i = 0; i < this.roomCount; i++) {
+      float x = i % side * 350;
+      float y = i / side * 350;
+      Room room = new Room(new float [][] {{x, y}, {x + 300, y}, {x + 300, y + 300}, {x, y + 300}});
+      room.setName("Room " + i);
+      room.setAreaVisible(true);
+      if (i % 3 == 0) {
+        room.setFloorColor(0xC0D0E0);
+      }
+      this.home.addRoom(room);
+      this.rooms.add(room);
+      this.home.addWall(new Wall(x, y, x + 300, y, 10, 250));
+      this.home.addDimensionLine(new DimensionLine(x, y + 320, x + 300, y + 320, 10));
+      this.home.addLabel(new Label("Label " + i, x + 150, y + 200));
+    }
+    EventQueue.invokeAndWait(() -> {
+        this.planComponent = new PlanComponent(this.home, new BenchmarkUserPreferences(), null);
+        this.planComponent.setDoubleBuffered(false);
+        Dimension size = this.planComponent.getPreferredSize();
+        this.planComponent.setSize(size);
+        this.viewX = (size.width - VIEW_WIDTH) / 2;
+        this.viewY = (size.height - VIEW_HEIGHT) / 2;
+      });
+    this.viewImage = new BufferedImage(VIEW_WIDTH, VIEW_HEIGHT, BufferedImage.TYPE_INT_RGB);
+    paintView();
+  }
+
+  /**
+   * Paints the visible part of the plan in the view image, as a viewport would do.
+   */
+  private BufferedImage paintView() throws InterruptedException, InvocationTargetException {
+    EventQueue.invokeAndWait(() -> {
+        Graphics2D g2D = this.viewImage.createGraphics();
+        g2D.translate(-this.viewX, -this.viewY);
+        g2D.clipRect(this.viewX, this.viewY, VIEW_WIDTH, VIEW_HEIGHT);
+        this.planComponent.paint(g2D);
+        g2D.dispose();
+      });
+    return this.viewImage;
+  }
+
+  /**
+   * Moves the view horizontally back and forth, then paints it.
+   */
+  @Benchmark
+  public BufferedImage paintAfterPan() throws InterruptedException, InvocationTargetException {
+    int maxViewX = this.planComponent.getWidth() - VIEW_WIDTH;
+    if (this.viewX + this.panDirection * PAN_STEP < 0
+        || this.viewX + this.panDirection * PAN_STEP > maxViewX) {
+      this.panDirection = -this.panDirection;
+    }
+    this.viewX += this.panDirection * PAN_STEP;
+    return paintView();
+  }
+
+  /**
+   * Selects a different room, then paints the view.
+   */
+  @Benchmark
+  public BufferedImage paintAfterSelectionChange() throws InterruptedException, InvocationTargetException {
+    final List<Selectable> selectedItems = Arrays.<Selectable>asList(
+        this.rooms.get(this.selectionIndex++ % this.rooms.size()));
+    EventQueue.invokeAndWait(() -> this.home.setSelectedItems(selectedItems));
+    return paintView();
+  }
+
+  /**
+   * Updates the rectangle feedback as during a rectangle selection, then paints the view.
+   */
+  @Benchmark
+  public BufferedImage paintAfterRectangleFeedbackChange() throws InterruptedException, InvocationTargetException {
+    final float size = 200 + this.feedbackIndex++ % 100 * 10;
+    EventQueue.invokeAndWait(() -> this.planComponent.setRectangleFeedback(0, 0, size, size));
+    return paintView();
+  }
+
+  /**
+   * Preferences which don't read catalogs.
+   */
+  private static class BenchmarkUserPreferences extends UserPreferences {
+    public BenchmarkUserPreferences() {
+      setUnit(LengthUnit.CENTIMETER);
+      TextureImage wallPattern = new CatalogTexture("hatchUp",
+          new ResourceURLContent(DefaultUserPreferences.class, "resources/patterns/hatchUp.png"), 10, 10);
+      setWallPattern(wallPattern);
+      setNewWallPattern(wallPattern);
+    }
+
+    @Override
+    public void write() {
+    }
+
+    @Override
+    public void addLanguageLibrary(String languageLibraryLocation) {
+    }
+
+    @Override
+    public boolean languageLibraryExists(String languageLibraryLocation) {
+      return false;
+    }
+
+    @Override
+    public void addFurnitureLibrary(String furnitureLibraryLocation) {
+    }
+
+    @Override
+    public boolean furnitureLibraryExists(String furnitureLibraryLocation) {
+      return false;
+    }
+
+    @Override
+    public void addTexturesLibrary(String texturesLibraryLocation) {
+    }
+
+    @Override
+    public boolean texturesLibraryExists(String texturesLibraryLocation) {
+      return false;
+    }
+
+    @Override
+    public List<Library> getLibraries() {
+      return Collections.emptyList();
+    }
+  }
+}
@@ -0,0 +1,149 @@
+/*
+ * TextureSharingBenchmark.java 17 oct. 2026
+ *
+ * Copyright (c) 2026 Emmanuel PUYBARET / eTeks <info@eteks.com>. All Rights
+ * Reserved.
+ *
+ * This program is free software; you can redistribute it and/or modify it under
+ * the terms of the GNU General Public License as published by the Free Software
+ * Foundation; either version 2 of the License, or (at your option) any later
+ * version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. See the GNU General Public License for more
+ * details.
+ *
+ * You should have received a copy of the GNU General Public License along with
+ * this program; if not, write to the Free Software Foundation, Inc., 59 Temple
+ * Place, Suite 330, Boston, MA 02111-1307 USA
+ */
+package com.eteks.sweethome3d.benchmark;
+
+import java.awt.image.BufferedImage;
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import javax.imageio.ImageIO;
+import javax.media.j3d.Texture;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.eteks.sweethome3d.j3d.TextureManager;
+import com.eteks.sweethome3d.model.Content;
+import com.eteks.sweethome3d.tools.URLContent;
+
+/**
+ * Measures the time spent by texture manager to load concurrently image files
+ * among which some contain the same image as other files, and to share their textures.
+ * Run it with <code>java -cp test-classes:classes:... org.openjdk.jmh.Main TextureSharingBenchmark</code>.
+ * @author Emmanuel Puybaret
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class TextureSharingBenchmark {
+  @Param({"2000"})
+  private int textureCount;
+  @Param({"0.3"})
+  private float duplicateRatio;
+  @Param({"8"})
+  private int threadCount;
+
+  private List<File>      imageFiles;
+  private List<Content>   contents;
+  private ExecutorService executor;
+
+  @Setup(Level.Trial)
+  public void createContents() throws IOException {
+    this.imageFiles = new ArrayList<File>();
+    this.contents = new ArrayList<Content>();
+    Random random = new Random(0);
+    List<BufferedImage> images = new ArrayList<BufferedImage>();
+    for (int i = 0; i < this.textureCount; i++) {
+      BufferedImage image;
+      if (!images.isEmpty() 
+          && random.nextFloat() < this.duplicateRatio) {
+        // Save the image of an other file in a different file
+        image = images.get(random.nextInt(images.size()));
+      } else {
+        image = new BufferedImage(64, 64, BufferedImage.TYPE_INT_RGB);
+        for (int x = 0; x < image.getWidth(); x += 8) {
+          for (int y = 0; y < image.getHeight(); y += 8) {
+            int rgb = random.nextInt(0xFFFFFF);
+            for (int j = 0; j < 64; j++) {
+              image.setRGB(x + j % 8, y + j / 8, rgb);
+            }
+          }
+        }
+        images.add(image);
+      }
+      File imageFile = File.createTempFile("texture", ".png");
+      ImageIO.write(image, "PNG", imageFile);
+      this.imageFiles.add(imageFile);
+      this.contents.add(new URLContent(imageFile.toURI().toURL()));
+    }
+    this.executor = Executors.newFixedThreadPool(this.threadCount);
+  }
+
+  @TearDown(Level.Trial)
+  public void deleteContents() {
+    this.executor.shutdown();
+    for (File imageFile : this.imageFiles) {
+      imageFile.delete();
+    }
+  }
+
+  /**
+   * Loads concurrently the textures of all the contents after clearing texture manager,
+   * measuring the time spent to read each image and share its texture.
+   * @return the count of distinct textures
+   */
+  @Benchmark
+  public int loadTextures() throws InterruptedException, ExecutionException {
+    TextureManager.getInstance().clear();
+    List<Future<Texture>> textures = new ArrayList<Future<Texture>>(this.contents.size());
+    for (final Content content : this.contents) {
+      textures.add(this.executor.submit(() -> {
+          final Texture [] texture = new Texture [1];
+          TextureManager.getInstance().loadTexture(content, true, new TextureManager.TextureObserver() {
+              public void textureUpdated(Texture loadedTexture) {
+                texture [0] = loadedTexture;
+              }
+            });
+          return texture [0];
+        }));
+    }
+    Set<Texture> distinctTextures = Collections.newSetFromMap(new IdentityHashMap<Texture, Boolean>());
+    for (Future<Texture> texture : textures) {
+      distinctTextures.add(texture.get());
+    }
+    return distinctTextures.size();
+  }
+}
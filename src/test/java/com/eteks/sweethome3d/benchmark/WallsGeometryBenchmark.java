@@ -0,0 +1,133 @@
+/*
+ * WallsGeometryBenchmark.java 17 oct. 2026
+ *
+ * Copyright (c) 2026 Emmanuel PUYBARET / eTeks <info@eteks.com>. All Rights
+ * Reserved.
+ *
+ * This program is free software; you can redistribute it and/or modify it under
+ * the terms of the GNU General Public License as published by the Free Software
+ * Foundation; either version 2 of the License, or (at your option) any later
+ * version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. See the GNU General Public License for more
+ * details.
+ *
+ * You should have received a copy of the GNU General Public License along with
+ * this program; if not, write to the Free Software Foundation, Inc., 59 Temple
+ * Place, Suite 330, Boston, MA 02111-1307 USA
+ */
+package com.eteks.sweethome3d.benchmark;
+
+import java.awt.geom.Area;
+import java.awt.geom.GeneralPath;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.eteks.sweethome3d.model.Home;
+import com.eteks.sweethome3d.model.Wall;
+import com.eteks.sweethome3d.viewcontroller.WallsGeometry;
+
+/**
+ * Measures the time spent to get the walls area and the room paths of a home
+ * after a wall was moved, as during wall drawing, in homes made of houses
+ * of 4 rooms each.
+ * Run it with <code>java -cp test-classes:classes:... org.openjdk.jmh.Main WallsGeometryBenchmark</code>.
+ * @author Emmanuel Puybaret
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class WallsGeometryBenchmark {
+  @Param({"10", "100"})
+  private int houseCount;
+
+  private Home       home;
+  private List<Wall> walls;
+  private Wall       movedWall;
+  private int        moveCount;
+
+  @Setup(Level.Trial)
+  public void createHome() {
+    this.home = new Home();
+    int side = (int)Math.ceil(Math.sqrt(this.houseCount));
+    for (int i = 0; i < this.houseCount; i++) {
+      float x = i % side * 1500;
+      float y = i / side * 1500;
+      // Outer walls joined together
+      float [][] points = {{x, y}, {x + 1000, y}, {x + 1000, y + 800}, {x, y + 800}};
+      Wall [] outerWalls = new Wall [points.length];
+      for (int j = 0; j < points.length; j++) {
+        float [] start = points [j];
+        float [] end = points [(j + 1) % points.length];
+        outerWalls [j] = new Wall(start [0], start [1], end [0], end [1], 20, 250);
+        this.home.addWall(outerWalls [j]);
+      }
+      for (int j = 0; j < outerWalls.length; j++) {
+        outerWalls [j].setWallAtEnd(outerWalls [(j + 1) % outerWalls.length]);
+        outerWalls [(j + 1) % outerWalls.length].setWallAtStart(outerWalls [j]);
+      }
+      // Inner walls splitting the house in 4 rooms
+      this.home.addWall(new Wall(x + 500, y, x + 500, y + 800, 10, 250));
+      this.home.addWall(new Wall(x, y + 400, x + 1000, y + 400, 10, 250));
+      this.movedWall = outerWalls [0];
+    }
+    this.walls = new ArrayList<>(this.home.getWalls());
+    WallsGeometry.getInstance(this.home).getWallsAreaPaths(this.walls);
+  }
+
+  private void moveWall() {
+    // Move the last house top wall back and forth
+    this.movedWall.setYStart(this.movedWall.getYStart() + (this.moveCount++ % 2 == 0 ? 1 : -1));
+  }
+
+  /**
+   * Moves a wall then computes walls area and room paths with the shared walls geometry.
+   */
+  @Benchmark
+  public List<GeneralPath> incrementalGeometry() {
+    moveWall();
+    WallsGeometry wallsGeometry = WallsGeometry.getInstance(this.home);
+    wallsGeometry.getWallsArea(this.walls, false);
+    return wallsGeometry.getWallsAreaPaths(this.walls);
+  }
+
+  /**
+   * Moves a wall then computes walls area by adding the area of each wall one by one,
+   * as it was done before the introduction of the shared walls geometry.
+   */
+  @Benchmark
+  public Area fullWallsArea() {
+    moveWall();
+    Area wallsArea = new Area();
+    for (Wall wall : this.walls) {
+      float [][] points = wall.getPoints();
+      GeneralPath path = new GeneralPath();
+      path.moveTo(points [0][0], points [0][1]);
+      for (int i = 1; i < points.length; i++) {
+        path.lineTo(points [i][0], points [i][1]);
+      }
+      path.closePath();
+      wallsArea.add(new Area(path));
+    }
+    return wallsArea;
+  }
+}
@@ -0,0 +1,154 @@
+/*
+ * DoorsAndWindowsIndexTest.java 17 oct. 2026
+ *
+ * Copyright (c) 2026 Emmanuel PUYBARET / eTeks <info@eteks.com>. All Rights Reserved.
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation; either version 2 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA  02111-1307  USA
+ */
+package com.eteks.sweethome3d.junit;
+
+import java.awt.geom.Rectangle2D;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+import junit.framework.TestCase;
+
+import com.eteks.sweethome3d.j3d.DoorsAndWindowsIndex;
+import com.eteks.sweethome3d.model.CatalogDoorOrWindow;
+import com.eteks.sweethome3d.model.Home;
+import com.eteks.sweethome3d.model.HomeDoorOrWindow;
+import com.eteks.sweethome3d.model.HomeFurnitureGroup;
+import com.eteks.sweethome3d.model.HomePieceOfFurniture;
+import com.eteks.sweethome3d.model.Level;
+import com.eteks.sweethome3d.model.Sash;
+import com.eteks.sweethome3d.model.Wall;
+
+/**
+ * Tests {@link DoorsAndWindowsIndex} class.
+ * @author Emmanuel Puybaret
+ */
+public class DoorsAndWindowsIndexTest extends TestCase {
+  private Home home;
+
+  @Override
+  protected void setUp() {
+    this.home = new Home();
+    for (int i = 0; i < 3; i++) {
+      Level level = new Level("Level " + i, i * 300, 12, 300);
+      this.home.addLevel(level);
+      this.home.setSelectedLevel(level);
+      this.home.addWall(new Wall(0, 0, 2000, 0, 20, 300));
+      this.home.addWall(new Wall(2000, 0, 2000, 1500, 20, 300));
+      for (int j = 0; j < 10; j++) {
+        HomePieceOfFurniture window = createWindow();
+        window.setX(100 + j * 200);
+        window.setY(0);
+        this.home.addPieceOfFurniture(window);
+      }
+    }
+  }
+
+  private HomePieceOfFurniture createWindow() {
+    return new HomeDoorOrWindow(new CatalogDoorOrWindow("window", "Window", null, null, null,
+        100, 20, 120, 90, true, 1, 0, new Sash [0],
+        new float [][] {{1, 0, 0}, {0, 1, 0}, {0, 0, 1}}, null, true, null, null));
+  }
+
+  /**
+   * Tests the doors and windows found in index are the ones found by browsing home furniture.
+   */
+  public void testDoorsAndWindowsSearch() {
+    DoorsAndWindowsIndex index = DoorsAndWindowsIndex.getInstance(this.home);
+    assertSame("Index not shared", index, DoorsAndWindowsIndex.getInstance(this.home));
+    Random random = new Random(0);
+    for (int i = 0; i < 200; i++) {
+      Rectangle2D bounds = new Rectangle2D.Float(random.nextInt(2500) - 250, random.nextInt(200) - 100,
+          random.nextInt(1000), random.nextInt(200));
+      float minElevation = random.nextInt(1000) - 100;
+      float maxElevation = minElevation + random.nextInt(400);
+      assertEquals("Wrong doors and windows", getDoorsAndWindows(this.home.getFurniture(), bounds, minElevation, maxElevation),
+          index.getVisibleDoorsAndWindows(bounds, minElevation, maxElevation));
+    }
+
+    Rectangle2D bounds = new Rectangle2D.Float(0, -10, 2000, 20);
+    List<HomePieceOfFurniture> levelWindows = index.getVisibleDoorsAndWindows(bounds, 300, 600);
+    assertEquals("Wrong window count", 10, levelWindows.size());
+    assertSame("Wrong level", this.home.getLevels().get(1), levelWindows.get(0).getLevel());
+    // Check index is updated once a window moved
+    HomePieceOfFurniture movedWindow = levelWindows.get(0);
+    movedWindow.setY(1000);
+    assertEquals("Moved window found", 9, index.getVisibleDoorsAndWindows(bounds, 300, 600).size());
+    // Check hidden levels are ignored
+    this.home.getLevels().get(1).setVisible(false);
+    assertEquals("Hidden windows found", 0, index.getVisibleDoorsAndWindows(bounds, 300, 600).size());
+    this.home.getLevels().get(1).setVisible(true);
+    // Check windows added to groups are found
+    this.home.setSelectedLevel(this.home.getLevels().get(1));
+    HomePieceOfFurniture window = createWindow();
+    window.setX(100);
+    window.setY(500);
+    HomeFurnitureGroup group = new HomeFurnitureGroup(Arrays.asList(new HomePieceOfFurniture [] {window}), "Group");
+    this.home.addPieceOfFurniture(group);
+    HomePieceOfFurniture groupWindow = createWindow();
+    groupWindow.setX(300);
+    groupWindow.setY(500);
+    this.home.addPieceOfFurnitureToGroup(groupWindow, group, 1);
+    List<HomePieceOfFurniture> groupWindows = index.getVisibleDoorsAndWindows(new Rectangle2D.Float(0, 490, 350, 20), 300, 600);
+    assertEquals("Wrong windows", Arrays.asList(new HomePieceOfFurniture [] {window, groupWindow}), groupWindows);
+    group.setVisible(false);
+    assertEquals("Hidden group windows found", 0,
+        index.getVisibleDoorsAndWindows(new Rectangle2D.Float(0, 490, 350, 20), 300, 600).size());
+  }
+
+  /**
+   * Tests walls found in index.
+   */
+  public void testWallsSearch() {
+    DoorsAndWindowsIndex index = DoorsAndWindowsIndex.getInstance(this.home);
+    Rectangle2D bounds = new Rectangle2D.Float(500, -10, 100, 20);
+    List<Wall> walls = index.getWalls(bounds, 390, 510);
+    assertEquals("Wrong wall count", 1, walls.size());
+    assertSame("Wrong level", this.home.getLevels().get(1), walls.get(0).getLevel());
+    // Window crossing two levels
+    assertEquals("Wrong wall count", 2, index.getWalls(bounds, 250, 350).size());
+    assertEquals("Wrong wall count", 6, index.getWalls(new Rectangle2D.Float(1990, -10, 20, 20), 0, 900).size());
+    // Check index is updated once a wall moved
+    walls.get(0).setYStart(500);
+    walls.get(0).setYEnd(500);
+    assertEquals("Moved wall found", 0, index.getWalls(bounds, 390, 510).size());
+    this.home.deleteWall(walls.get(0));
+    assertEquals("Deleted wall found", 0, index.getWalls(new Rectangle2D.Float(500, 490, 100, 20), 390, 510).size());
+  }
+
+  private List<HomePieceOfFurniture> getDoorsAndWindows(List<HomePieceOfFurniture> furniture, Rectangle2D bounds,
+                                                        float minElevation, float maxElevation) {
+    List<HomePieceOfFurniture> doorsAndWindows = new ArrayList<HomePieceOfFurniture>();
+    for (HomePieceOfFurniture piece : furniture) {
+      float pieceElevation = piece.getGroundElevation();
+      Rectangle2D pieceBounds = new Rectangle2D.Float(piece.getX() - piece.getWidth() / 2,
+          piece.getY() - piece.getDepth() / 2, piece.getWidth(), piece.getDepth());
+      if (piece.isDoorOrWindow()
+          && pieceElevation + piece.getHeight() > minElevation
+          && pieceElevation < maxElevation
+          && pieceBounds.getMinX() <= bounds.getMaxX() && pieceBounds.getMaxX() >= bounds.getMinX()
+          && pieceBounds.getMinY() <= bounds.getMaxY() && pieceBounds.getMaxY() >= bounds.getMinY()) {
+        doorsAndWindows.add(piece);
+      }
+    }
+    return doorsAndWindows;
+  }
+}
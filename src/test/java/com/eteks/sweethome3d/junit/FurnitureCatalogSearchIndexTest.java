@@ -0,0 +1,128 @@
+/*
+ * FurnitureCatalogSearchIndexTest.java 17 oct. 2026
+ *
+ * Copyright (c) 2026 Emmanuel PUYBARET / eTeks <info@eteks.com>. All Rights Reserved.
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation; either version 2 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA  02111-1307  USA
+ */
+package com.eteks.sweethome3d.junit;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+
+import junit.framework.TestCase;
+
+import com.eteks.sweethome3d.model.CatalogPieceOfFurniture;
+import com.eteks.sweethome3d.model.FurnitureCatalog;
+import com.eteks.sweethome3d.model.FurnitureCatalogSearchIndex;
+import com.eteks.sweethome3d.model.FurnitureCategory;
+
+/**
+ * Tests {@link FurnitureCatalogSearchIndex} class.
+ * @author Emmanuel Puybaret
+ */
+public class FurnitureCatalogSearchIndexTest extends TestCase {
+  private static final String [] WORDS = {"Chair", "Table", "Bed", "Sofa", "Armchair", "Lamp", "Door", "Window",
+      "Shelf", "Desk", "Wooden", "Glass", "Round", "Small", "Large", "Caf", "lise", "Kitchen", "Garden"};
+
+  private FurnitureCatalog catalog;
+  private Random           random;
+
+  @Override
+  protected void setUp() {
+    this.catalog = new FurnitureCatalog();
+    this.random = new Random(0);
+    for (int i = 0; i < 500; i++) {
+      addPiece();
+    }
+  }
+
+  private CatalogPieceOfFurniture addPiece() {
+    CatalogPieceOfFurniture piece = new CatalogPieceOfFurniture(null, getWord() + " " + getWord(),
+        this.random.nextBoolean() ? getWord() : null, null, new String [] {getWord().toLowerCase()}, null, null,
+        null, null, null, 50, 50, 50, 0, true, null, null, this.random.nextBoolean() ? "eTeks" : null,
+        true, true, true, null, null, null);
+    this.catalog.add(new FurnitureCategory(getWord()), piece);
+    return piece;
+  }
+
+  private String getWord() {
+    return WORDS [this.random.nextInt(WORDS.length)];
+  }
+
+  /**
+   * Tests pieces found with index are the ones matching filter.
+   */
+  public void testSearch() {
+    FurnitureCatalogSearchIndex index = new FurnitureCatalogSearchIndex(this.catalog);
+    String [] filters = {"", "c", "ch", "cha", "chai", "chair", "AIR", "air wood", "cafe", "elis", "ise",
+        "teks", "e", "round-table", "xyz", "kitchen garden", "hai"};
+    for (String filter : filters) {
+      assertEquals("Wrong furniture for " + filter, getFurniture(null, filter), index.getFurniture(null, filter));
+      FurnitureCategory category = this.catalog.getCategory(2);
+      assertEquals("Wrong furniture for " + filter, getFurniture(category, filter), index.getFurniture(category, filter));
+    }
+
+    // Check index is updated when catalog changes
+    for (int i = 0; i < 100; i++) {
+      addPiece();
+    }
+    List<CatalogPieceOfFurniture> deletedFurniture = new ArrayList<CatalogPieceOfFurniture>(this.catalog.getCategory(0).getFurniture());
+    for (CatalogPieceOfFurniture piece : deletedFurniture) {
+      this.catalog.delete(piece);
+    }
+    for (String filter : filters) {
+      assertEquals("Wrong furniture for " + filter, getFurniture(null, filter), index.getFurniture(null, filter));
+    }
+    // Check index is rebuilt once most pieces were deleted
+    while (this.catalog.getCategoriesCount() > 1) {
+      this.catalog.delete(this.catalog.getCategory(0).getFurniture().get(0));
+    }
+    for (String filter : filters) {
+      assertEquals("Wrong furniture for " + filter, getFurniture(null, filter), index.getFurniture(null, filter));
+    }
+  }
+
+  /**
+   * Tests the refinement of found pieces once text is appended to filter.
+   */
+  public void testIncrementalSearch() {
+    FurnitureCatalogSearchIndex index = new FurnitureCatalogSearchIndex(this.catalog);
+    String typedFilter = "wooden tab";
+    List<CatalogPieceOfFurniture> furniture = index.getFurniture(null, "");
+    for (int i = 1; i <= typedFilter.length(); i++) {
+      String filter = typedFilter.substring(0, i);
+      furniture = index.getFurniture(furniture, null, filter);
+      assertEquals("Wrong furniture for " + filter, getFurniture(null, filter), furniture);
+    }
+    assertFalse("No furniture found", furniture.isEmpty());
+  }
+
+  private List<CatalogPieceOfFurniture> getFurniture(FurnitureCategory filterCategory, String filter) {
+    List<CatalogPieceOfFurniture> furniture = new ArrayList<CatalogPieceOfFurniture>();
+    for (FurnitureCategory category : this.catalog.getCategories()) {
+      for (CatalogPieceOfFurniture piece : category.getFurniture()) {
+        if ((filterCategory == null || piece.getCategory().equals(filterCategory))
+            && piece.matchesFilter(filter)) {
+          furniture.add(piece);
+        }
+      }
+    }
+    Collections.sort(furniture);
+    return furniture;
+  }
+}
@@ -0,0 +1,116 @@
+/*
+ * FurnitureCatalogTest.java 17 oct. 2026
+ *
+ * Copyright (c) 2026 Emmanuel PUYBARET / eTeks <info@eteks.com>. All Rights Reserved.
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation; either version 2 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA  02111-1307  USA
+ */
+package com.eteks.sweethome3d.junit;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.TreeMap;
+
+import junit.framework.TestCase;
+
+import com.eteks.sweethome3d.model.BatchCollectionListener;
+import com.eteks.sweethome3d.model.CatalogPieceOfFurniture;
+import com.eteks.sweethome3d.model.CollectionEvent;
+import com.eteks.sweethome3d.model.FurnitureCatalog;
+import com.eteks.sweethome3d.model.FurnitureCategory;
+
+/**
+ * Tests {@link FurnitureCatalog} class.
+ * @author Emmanuel Puybaret
+ */
+public class FurnitureCatalogTest extends TestCase {
+  private Random random = new Random(0);
+
+  /**
+   * Tests furniture added at once to a catalog is sorted and notified with a single event.
+   */
+  public void testAddFurniture() {
+    FurnitureCatalog catalog = new FurnitureCatalog();
+    for (int i = 0; i < 50; i++) {
+      catalog.add(new FurnitureCategory("Category " + (i % 3)), createPiece());
+    }
+    Map<String, Integer> expectedFurnitureCount = new TreeMap<>();
+    for (FurnitureCategory category : catalog.getCategories()) {
+      expectedFurnitureCount.put(category.getName(), category.getFurnitureCount());
+    }
+
+    Map<FurnitureCategory, List<CatalogPieceOfFurniture>> furniture = new HashMap<>();
+    for (int i = 0; i < 200; i++) {
+      FurnitureCategory category = new FurnitureCategory("Category " + (i % 5));
+      if (!furniture.containsKey(category)) {
+        furniture.put(category, new ArrayList<CatalogPieceOfFurniture>());
+      }
+      CatalogPieceOfFurniture piece = createPiece();
+      furniture.get(category).add(piece);
+      expectedFurnitureCount.merge(category.getName(), 1, Integer::sum);
+    }
+
+    final List<CollectionEvent<CatalogPieceOfFurniture>> batchEvents = new ArrayList<>();
+    catalog.addFurnitureListener((BatchCollectionListener<CatalogPieceOfFurniture>)ev -> batchEvents.add(ev));
+    final List<CollectionEvent<CatalogPieceOfFurniture>> events = new ArrayList<>();
+    catalog.addFurnitureListener(ev -> events.add(ev));
+    catalog.addFurniture(furniture);
+
+    assertEquals("Wrong category count", expectedFurnitureCount.size(), catalog.getCategoriesCount());
+    for (int i = 0; i < catalog.getCategoriesCount(); i++) {
+      FurnitureCategory category = catalog.getCategory(i);
+      assertEquals("Wrong category", "Category " + i, category.getName());
+      for (int j = 0; j < category.getFurnitureCount(); j++) {
+        assertSame("Wrong piece category", category, category.getPieceOfFurniture(j).getCategory());
+        if (j > 0) {
+          assertTrue("Furniture not sorted", 
+              category.getPieceOfFurniture(j - 1).compareTo(category.getPieceOfFurniture(j)) <= 0);
+        }
+      }
+      assertEquals("Wrong furniture count", expectedFurnitureCount.get(category.getName()).intValue(), 
+          category.getFurnitureCount());
+    }
+
+    assertEquals("Wrong batch event count", 1, batchEvents.size());
+    CollectionEvent<CatalogPieceOfFurniture> batchEvent = batchEvents.get(0);
+    assertEquals("Wrong event type", CollectionEvent.Type.ADD, batchEvent.getType());
+    assertEquals("Wrong item count", 200, batchEvent.getItems().size());
+    int [] indices = batchEvent.getIndices();
+    for (int i = 0; i < indices.length; i++) {
+      CatalogPieceOfFurniture piece = batchEvent.getItems().get(i);
+      assertSame("Wrong index", piece, piece.getCategory().getPieceOfFurniture(indices [i]));
+      if (i > 0) {
+        FurnitureCategory previousCategory = batchEvent.getItems().get(i - 1).getCategory();
+        if (previousCategory == piece.getCategory()) {
+          assertTrue("Indices not ascending", indices [i - 1] < indices [i]);
+        } else {
+          assertTrue("Categories not sorted", previousCategory.compareTo(piece.getCategory()) < 0);
+        }
+      }
+    }
+    assertEquals("Wrong event count", 200, events.size());
+    assertEquals("Wrong indices", Arrays.toString(indices), 
+        Arrays.toString(events.stream().mapToInt(ev -> ev.getIndex()).toArray()));
+  }
+
+  private CatalogPieceOfFurniture createPiece() {
+    return new CatalogPieceOfFurniture(null, "Piece " + this.random.nextInt(1000), null, null, null, null, null,
+        null, null, null, 50, 50, 50, 0, true, null, null, null, true, true, true, null, null, null);
+  }
+}
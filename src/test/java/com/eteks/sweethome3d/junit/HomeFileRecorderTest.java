@@ -22,25 +22,43 @@ package com.eteks.sweethome3d.junit;
 
 import java.io.BufferedInputStream;
 import java.io.File;
+import java.io.FileInputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.net.URISyntaxException;
 import java.net.URL;
+import java.nio.file.Files;
+import java.nio.file.attribute.PosixFileAttributeView;
+import java.nio.file.attribute.PosixFilePermission;
+import java.nio.file.attribute.PosixFilePermissions;
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Enumeration;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Set;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipException;
+import java.util.zip.ZipFile;
+import java.util.zip.ZipInputStream;
 
 import com.eteks.sweethome3d.io.DefaultFurnitureCatalog;
 import com.eteks.sweethome3d.io.DefaultUserPreferences;
 import com.eteks.sweethome3d.io.FileUserPreferences;
 import com.eteks.sweethome3d.io.HomeFileRecorder;
+import com.eteks.sweethome3d.io.HomeJournal;
+import com.eteks.sweethome3d.model.CatalogDoorOrWindow;
 import com.eteks.sweethome3d.model.Content;
 import com.eteks.sweethome3d.model.DamagedHomeRecorderException;
 import com.eteks.sweethome3d.model.FurnitureCatalog;
 import com.eteks.sweethome3d.model.Home;
+import com.eteks.sweethome3d.model.HomeDoorOrWindow;
 import com.eteks.sweethome3d.model.HomeFurnitureGroup;
 import com.eteks.sweethome3d.model.HomePieceOfFurniture;
 import com.eteks.sweethome3d.model.HomeRecorder;
 import com.eteks.sweethome3d.model.Level;
 import com.eteks.sweethome3d.model.RecorderException;
+import com.eteks.sweethome3d.model.Sash;
 import com.eteks.sweethome3d.model.TextStyle;
 import com.eteks.sweethome3d.model.Wall;
 import com.eteks.sweethome3d.tools.URLContent;
@@ -146,6 +164,344 @@ public class HomeFileRecorderTest extends TestCase {
     savedFileWithXmlEntry2.delete();
   }
 
+  /**
+   * Tests homes saved with content compressed in parallel can be read again.
+   */
+  public void testParallelCompression() throws URISyntaxException, RecorderException, IOException {
+    String testFile = new File(HomeControllerTest.class.getResource("resources/home1.sh3d").toURI()).getAbsolutePath();
+    // Read home from a file where all entries are stored to avoid its deflated content being copied as is 
+    File storedFile = File.createTempFile("stored", ".sh3d");
+    new HomeFileRecorder(0, false, null, false, false, false, true).writeHome(
+        new HomeFileRecorder().readHome(testFile), storedFile.getAbsolutePath());
+    Home home = new HomeFileRecorder().readHome(storedFile.getAbsolutePath());
+    for (int compressionLevel : new int [] {0, 1, 9}) {
+      File savedFile = File.createTempFile("parallel", ".sh3d");
+      new HomeFileRecorder(compressionLevel, false, null, false, true, false, true).writeHome(home, savedFile.getAbsolutePath());
+      try (ZipFile zipFile = new ZipFile(savedFile)) {
+        assertEquals("Home entry isn't first", "Home", zipFile.entries().nextElement().getName());
+        for (Enumeration<? extends ZipEntry> entries = zipFile.entries(); entries.hasMoreElements(); ) {
+          ZipEntry entry = entries.nextElement();
+          byte [] prefix = new byte [4];
+          try (InputStream in = zipFile.getInputStream(entry)) {
+            in.read(prefix);
+          }
+          // JPEG, PNG, GIF and zip data should be stored
+          boolean compressedData = (prefix [0] & 0xFF) == 0xFF && (prefix [1] & 0xFF) == 0xD8
+              || (prefix [0] & 0xFF) == 0x89 && prefix [1] == 'P' && prefix [2] == 'N' && prefix [3] == 'G'
+              || prefix [0] == 'G' && prefix [1] == 'I' && prefix [2] == 'F'
+              || prefix [0] == 'P' && prefix [1] == 'K';
+          assertEquals("Incorrect compression method for " + entry.getName(),
+              compressionLevel == 0 || compressedData ? ZipEntry.STORED : ZipEntry.DEFLATED, entry.getMethod());
+        }
+      }
+
+      Home readHome = new HomeFileRecorder(0, false, null, false, true).readHome(savedFile.getAbsolutePath());
+      assertEquals("Home walls wrong count", home.getWalls().size(), readHome.getWalls().size());
+      assertEquals("Home furniture wrong count", home.getFurniture().size(), readHome.getFurniture().size());
+      for (int i = 0; i < home.getFurniture().size(); i++) {
+        assertContentEquals("Different icon content",
+            home.getFurniture().get(i).getIcon(), readHome.getFurniture().get(i).getIcon());
+        assertContentEquals("Different model content",
+            home.getFurniture().get(i).getModel(), readHome.getFurniture().get(i).getModel());
+      }
+      savedFile.delete();
+    }
+    storedFile.delete();
+  }
+
+  /**
+   * Tests the content of a home read from a file is copied without being recompressed.
+   */
+  public void testRawCopiedContent() throws URISyntaxException, RecorderException, IOException {
+    String testFile = new File(HomeControllerTest.class.getResource("resources/home1.sh3d").toURI()).getAbsolutePath();
+    Home home = new HomeFileRecorder().readHome(testFile);
+    File savedFile1 = File.createTempFile("raw", ".sh3d");
+    new HomeFileRecorder(1, false, null, false, false, false, true).writeHome(home, savedFile1.getAbsolutePath());
+    // Save again the read home at a different compression level 
+    home = new HomeFileRecorder().readHome(savedFile1.getAbsolutePath());
+    File savedFile2 = File.createTempFile("raw", ".sh3d");
+    new HomeFileRecorder(9, false, null, false, false, false, true).writeHome(home, savedFile2.getAbsolutePath());
+
+    try (ZipFile zipFile1 = new ZipFile(savedFile1);
+         ZipFile zipFile2 = new ZipFile(savedFile2)) {
+      int contentEntryCount = 0;
+      for (Enumeration<? extends ZipEntry> entries = zipFile2.entries(); entries.hasMoreElements(); ) {
+        ZipEntry entry2 = entries.nextElement();
+        if (!"Home".equals(entry2.getName())
+            && !"ContentDigests".equals(entry2.getName())) {
+          ZipEntry entry1 = zipFile1.getEntry(entry2.getName());
+          assertEquals("Different CRC for " + entry2.getName(), entry1.getCrc(), entry2.getCrc());
+          assertEquals("Different compression method for " + entry2.getName(), entry1.getMethod(), entry2.getMethod());
+          assertEquals("Entry " + entry2.getName() + " not copied",
+              entry1.getCompressedSize(), entry2.getCompressedSize());
+          contentEntryCount++;
+        }
+      }
+      assertTrue("No content entries", contentEntryCount > 0);
+    }
+    Home readHome = new HomeFileRecorder().readHome(savedFile2.getAbsolutePath());
+    assertEquals("Home furniture wrong count", home.getFurniture().size(), readHome.getFurniture().size());
+    for (int i = 0; i < home.getFurniture().size(); i++) {
+      assertContentEquals("Different model content",
+          home.getFurniture().get(i).getModel(), readHome.getFurniture().get(i).getModel());
+    }
+    savedFile1.delete();
+    savedFile2.delete();
+  }
+
+  /**
+   * Tests content with data not matching its CRC isn't copied as is.
+   */
+  public void testDamagedCopiedContent() throws URISyntaxException, RecorderException, IOException {
+    String testFile = new File(HomeControllerTest.class.getResource("resources/home1.sh3d").toURI()).getAbsolutePath();
+    File storedFile = File.createTempFile("damaged", ".sh3d");
+    new HomeFileRecorder(0, false, null, false, false, false, true).writeHome(
+        new HomeFileRecorder().readHome(testFile), storedFile.getAbsolutePath());
+    Home home = new HomeFileRecorder().readHome(storedFile.getAbsolutePath());
+    // Change a byte in the stored data of the first model without updating its CRC
+    URLContent model = (URLContent)home.getFurniture().get(0).getModel();
+    String entryName = model.getJAREntryName();
+    File contentFile = new File(model.getJAREntryURL().toURI());
+    byte [] entryData;
+    try (ZipFile zipFile = new ZipFile(contentFile);
+         InputStream in = zipFile.getInputStream(zipFile.getEntry(entryName))) {
+      entryData = in.readAllBytes();
+    }
+    byte [] fileData = Files.readAllBytes(contentFile.toPath());
+    int dataOffset = -1;
+    for (int i = 0; i <= fileData.length - entryData.length && dataOffset < 0; i++) {
+      if (Arrays.equals(fileData, i, i + entryData.length, entryData, 0, entryData.length)) {
+        dataOffset = i;
+      }
+    }
+    assertTrue("Entry data not found", dataOffset >= 0);
+    fileData [dataOffset + entryData.length / 2] ^= 0xFF;
+    Files.write(contentFile.toPath(), fileData);
+
+    File savedFile = File.createTempFile("damaged", ".sh3d");
+    for (int compressionLevel : new int [] {0, 1}) {
+      new HomeFileRecorder(compressionLevel, false, null, false, false, false, true).writeHome(home, savedFile.getAbsolutePath());
+      // Check saved entries are consistent with their CRC
+      try (ZipInputStream zipIn = new ZipInputStream(new FileInputStream(savedFile))) {
+        for (ZipEntry entry; (entry = zipIn.getNextEntry()) != null; ) {
+          byte [] data = zipIn.readAllBytes();
+          if (entryName.equals(entry.getName())) {
+            assertFalse("Damaged entry copied", Arrays.equals(entryData, data));
+          }
+        }
+      } catch (ZipException ex) {
+        fail("Damaged entry copied with a wrong CRC");
+      }
+    }
+    savedFile.delete();
+    storedFile.delete();
+  }
+
+  /**
+   * Tests the content of a home read lazily is the same as the one read with all its content checked.
+   */
+  public void testLazyContentLoading() throws URISyntaxException, RecorderException, IOException {
+    String testFile = new File(HomeControllerTest.class.getResource("resources/home1.sh3d").toURI()).getAbsolutePath();
+    Home home = new HomeFileRecorder().readHome(testFile);
+    HomeRecorder lazyRecorder = new HomeFileRecorder(0, false, null, false, false, false, false, false, true);
+    Home lazyHome = lazyRecorder.readHome(testFile);
+    assertEquals("Home furniture wrong count", home.getFurniture().size(), lazyHome.getFurniture().size());
+    for (int i = 0; i < home.getFurniture().size(); i++) {
+      assertEquals(home.getFurniture().get(i), lazyHome.getFurniture().get(i));
+      assertContentEquals("Different model content",
+          home.getFurniture().get(i).getModel(), lazyHome.getFurniture().get(i).getModel());
+      assertContentEquals("Different icon content",
+          home.getFurniture().get(i).getIcon(), lazyHome.getFurniture().get(i).getIcon());
+    }
+    // Check home file isn't kept opened once its contents are read
+    File lazyHomeFile = new File(((URLContent)lazyHome.getFurniture().get(0).getModel()).getJAREntryURL().toURI());
+    File [] fileDescriptors = new File("/proc/self/fd").listFiles();
+    if (fileDescriptors != null) {
+      for (File fileDescriptor : fileDescriptors) {
+        try {
+          assertFalse("Home file still opened",
+              Files.isSameFile(lazyHomeFile.toPath(), Files.readSymbolicLink(fileDescriptor.toPath())));
+        } catch (IOException ex) {
+          // Ignore file descriptors closed or not linked to a file
+        }
+      }
+    }
+
+    // Save lazily read home and read it again
+    File savedFile = File.createTempFile("lazy", ".sh3d");
+    lazyRecorder.writeHome(lazyHome, savedFile.getPath());
+    Home readHome = lazyRecorder.readHome(savedFile.getPath());
+    assertEquals("Home furniture wrong count", home.getFurniture().size(), readHome.getFurniture().size());
+    for (int i = 0; i < home.getFurniture().size(); i++) {
+      assertContentEquals("Different model content",
+          home.getFurniture().get(i).getModel(), readHome.getFurniture().get(i).getModel());
+    }
+    savedFile.delete();
+  }
+
+  /**
+   * Tests a saved home replaces an existing file keeping its permissions and without leaving temporary files.
+   */
+  public void testReplacedFile() throws RecorderException, IOException {
+    File directory = Files.createTempDirectory("replaced").toFile();
+    File homeFile = new File(directory, "test.sh3d");
+    Home home = new Home();
+    home.addWall(new Wall(0, 10, 100, 80, 10, home.getWallHeight()));
+    HomeRecorder recorder = new HomeFileRecorder();
+    recorder.writeHome(home, homeFile.getPath());
+    boolean posixFileSystem = Files.getFileAttributeView(homeFile.toPath(), PosixFileAttributeView.class) != null;
+    Set<PosixFilePermission> permissions = PosixFilePermissions.fromString("rw-rw----");
+    if (posixFileSystem) {
+      Files.setPosixFilePermissions(homeFile.toPath(), permissions);
+    }
+
+    home.addWall(new Wall(100, 80, 100, 200, 10, home.getWallHeight()));
+    recorder.writeHome(home, homeFile.getPath());
+    assertEquals("Home walls wrong count", 2, recorder.readHome(homeFile.getPath()).getWalls().size());
+    if (posixFileSystem) {
+      assertEquals("Permissions not kept", permissions, Files.getPosixFilePermissions(homeFile.toPath()));
+    }
+    assertEquals("Temporary file not deleted", 1, directory.listFiles().length);
+    homeFile.delete();
+    directory.delete();
+  }
+
+  /**
+   * Tests a new saved home gets the default permissions of the files created in its directory.
+   */
+  public void testNewFilePermissions() throws RecorderException, IOException {
+    File directory = Files.createTempDirectory("new").toFile();
+    File homeFile = new File(directory, "test.sh3d");
+    Home home = new Home();
+    home.addWall(new Wall(0, 10, 100, 80, 10, home.getWallHeight()));
+    new HomeFileRecorder().writeHome(home, homeFile.getPath());
+    File otherFile = new File(directory, "other.sh3d");
+    Files.createFile(otherFile.toPath());
+    if (Files.getFileAttributeView(homeFile.toPath(), PosixFileAttributeView.class) != null) {
+      assertEquals("Default permissions not used", 
+          Files.getPosixFilePermissions(otherFile.toPath()), Files.getPosixFilePermissions(homeFile.toPath()));
+    }
+    homeFile.delete();
+    otherFile.delete();
+    directory.delete();
+  }
+
+  /**
+   * Tests a home saved through a symbolic link replaces the linked file.
+   */
+  public void testSymbolicLink() throws RecorderException, IOException {
+    File directory = Files.createTempDirectory("link").toFile();
+    File homeFile = new File(directory, "test.sh3d");
+    File linkFile = new File(directory, "link.sh3d");
+    Home home = new Home();
+    home.addWall(new Wall(0, 10, 100, 80, 10, home.getWallHeight()));
+    HomeRecorder recorder = new HomeFileRecorder();
+    recorder.writeHome(home, homeFile.getPath());
+    try {
+      Files.createSymbolicLink(linkFile.toPath(), homeFile.toPath());
+    } catch (UnsupportedOperationException | IOException ex) {
+      // Symbolic links not supported
+      homeFile.delete();
+      directory.delete();
+      return;
+    }
+
+    home.addWall(new Wall(100, 80, 100, 200, 10, home.getWallHeight()));
+    recorder.writeHome(home, linkFile.getPath());
+    assertTrue("Symbolic link not kept", Files.isSymbolicLink(linkFile.toPath()));
+    assertEquals("Home walls wrong count", 2, recorder.readHome(homeFile.getPath()).getWalls().size());
+    assertEquals("Temporary file not deleted", 2, directory.listFiles().length);
+    linkFile.delete();
+    homeFile.delete();
+    directory.delete();
+  }
+
+  /**
+   * Tests the changes of a home appended to its journal are replayed when the home is read.
+   */
+  public void testJournal() throws URISyntaxException, RecorderException, IOException {
+    String testFile = new File(HomeControllerTest.class.getResource("resources/home1.sh3d").toURI()).getAbsolutePath();
+    Home home = new HomeFileRecorder().readHome(testFile);
+    File directory = Files.createTempDirectory("journal").toFile();
+    File homeFile = new File(directory, "test.sh3d");
+    HomeFileRecorder recorder = new HomeFileRecorder(0, false, null, false, false, false, true, true);
+    HomeJournal journal = recorder.createJournal(home);
+    recorder.writeHome(home.clone(), homeFile.getPath(), journal);
+    assertTrue("No journal file", HomeJournal.getJournalFile(homeFile).exists());
+    long baseLength = homeFile.length();
+    
+    // Modify home and save its changes
+    HomePieceOfFurniture movedPiece = home.getFurniture().get(0);
+    movedPiece.setX(movedPiece.getX() + 100);
+    movedPiece.setAngle(1);
+    HomePieceOfFurniture deletedPiece = home.getFurniture().get(1);
+    home.deletePieceOfFurniture(deletedPiece);
+    HomeDoorOrWindow window = new HomeDoorOrWindow(new CatalogDoorOrWindow("window", "Window", null,
+        movedPiece.getIcon(), movedPiece.getModel(), 100, 20, 120, 90, true, 1, 0, new Sash [0],
+        new float [][] {{1, 0, 0}, {0, 1, 0}, {0, 0, 1}}, null, true, null, null));
+    home.addPieceOfFurniture(window);
+    Wall wall1 = new Wall(0, 10, 100, 10, 10, home.getWallHeight());
+    Wall wall2 = new Wall(100, 10, 100, 80, 10, home.getWallHeight());
+    home.addWall(wall1);
+    home.addWall(wall2);
+    assertTrue("Journal not appendable", journal.isAppendable());
+    recorder.writeHomeChanges(journal, journal.createRecord());
+    HomePieceOfFurniture addedPiece = movedPiece.clone();
+    addedPiece.setName("Added piece");
+    home.addPieceOfFurniture(addedPiece, 0);
+    home.addWall(new Wall(0, 10, 100, 80, 10, home.getWallHeight()));
+    // Move window and bind it to wall, as the setters of its location reset its boundToWall flag
+    window.setX(50);
+    window.setAngle(1);
+    window.setDepth(wall1.getThickness());
+    window.setBoundToWall(true);
+    wall1.setWallAtEnd(wall2);
+    wall2.setWallAtStart(wall1);
+    wall2.setXEnd(150);
+    home.getTopCamera().setZ(home.getTopCamera().getZ() + 50);
+    home.setBasePlanLocked(!home.isBasePlanLocked());
+    movedPiece.setName("Moved piece");
+    movedPiece.setProperty("replayed", "true");
+    recorder.writeHomeChanges(journal, journal.createRecord());
+    assertEquals("Base file modified", baseLength, homeFile.length());
+
+    Home readHome = recorder.readHome(homeFile.getPath());
+    assertEquals("Home furniture wrong count", home.getFurniture().size(), readHome.getFurniture().size());
+    for (int i = 0; i < home.getFurniture().size(); i++) {
+      assertEquals(home.getFurniture().get(i), readHome.getFurniture().get(i));
+    }
+    assertEquals("Home walls wrong count", home.getWalls().size(), readHome.getWalls().size());
+    for (Iterator<Wall> it = home.getWalls().iterator(), readIt = readHome.getWalls().iterator(); it.hasNext(); ) {
+      assertEquals(it.next(), readIt.next());
+    }
+    assertEquals("Wrong camera elevation", home.getTopCamera().getZ(), readHome.getTopCamera().getZ());
+    assertEquals("Wrong base plan lock", home.isBasePlanLocked(), readHome.isBasePlanLocked());
+    HomePieceOfFurniture readMovedPiece = readHome.getFurniture().get(home.getFurniture().indexOf(movedPiece));
+    assertEquals("Wrong piece name", "Moved piece", readMovedPiece.getName());
+    assertEquals("Wrong piece angle", movedPiece.getAngle(), readMovedPiece.getAngle());
+    assertEquals("Wrong piece property", "true", readMovedPiece.getProperty("replayed"));
+    HomeDoorOrWindow readWindow = (HomeDoorOrWindow)readHome.getFurniture().get(home.getFurniture().indexOf(window));
+    assertEquals("Wrong window abscissa", 50f, readWindow.getX());
+    assertEquals("Wrong window angle", window.getAngle(), readWindow.getAngle());
+    assertTrue("Window not bound to wall", readWindow.isBoundToWall());
+    List<Wall> walls = new ArrayList<Wall>(home.getWalls());
+    List<Wall> readWalls = new ArrayList<Wall>(readHome.getWalls());
+    Wall readWall1 = readWalls.get(walls.indexOf(wall1));
+    Wall readWall2 = readWalls.get(walls.indexOf(wall2));
+    assertSame("Wrong wall at end", readWall2, readWall1.getWallAtEnd());
+    assertSame("Wrong wall at start", readWall1, readWall2.getWallAtStart());
+    assertEquals("Wrong wall end", 150f, readWall2.getXEnd());
+    
+    // Check a full write removes journal
+    journal.dispose();
+    recorder.writeHome(readHome, homeFile.getPath());
+    assertFalse("Journal file not deleted", HomeJournal.getJournalFile(homeFile).exists());
+    assertEquals("Home furniture wrong count", home.getFurniture().size(), 
+        recorder.readHome(homeFile.getPath()).getFurniture().size());
+    homeFile.delete();
+    directory.delete();
+  }
+
   /**
    * Test repaired home file management.
    */
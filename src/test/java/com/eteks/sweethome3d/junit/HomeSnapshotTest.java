@@ -0,0 +1,148 @@
+/*
+ * HomeSnapshotTest.java 18 oct. 2026
+ *
+ * Copyright (c) 2026 Emmanuel PUYBARET / eTeks <info@eteks.com>. All Rights Reserved.
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation; either version 2 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA  02111-1307  USA
+ */
+package com.eteks.sweethome3d.junit;
+
+import java.util.Arrays;
+
+import junit.framework.TestCase;
+
+import com.eteks.sweethome3d.model.CatalogPieceOfFurniture;
+import com.eteks.sweethome3d.model.Home;
+import com.eteks.sweethome3d.model.HomeFurnitureGroup;
+import com.eteks.sweethome3d.model.HomePieceOfFurniture;
+import com.eteks.sweethome3d.model.HomeSnapshot;
+import com.eteks.sweethome3d.model.Level;
+import com.eteks.sweethome3d.model.Room;
+import com.eteks.sweethome3d.model.Wall;
+
+/**
+ * Tests {@link HomeSnapshot} class.
+ * @author Emmanuel Puybaret
+ */
+public class HomeSnapshotTest extends TestCase {
+  public void testSnapshots() {
+    Home home = new Home();
+    Level level0 = new Level("Level 0", 0, 12, 250);
+    Level level1 = new Level("Level 1", 262, 12, 250);
+    home.addLevel(level0);
+    home.addLevel(level1);
+    home.setSelectedLevel(level0);
+    Wall wall1 = new Wall(0, 0, 500, 0, 10, 250);
+    Wall wall2 = new Wall(500, 0, 500, 500, 10, 250);
+    Wall wall3 = new Wall(0, 800, 500, 800, 10, 250);
+    wall1.setWallAtEnd(wall2);
+    wall2.setWallAtStart(wall1);
+    home.addWall(wall1);
+    home.addWall(wall2);
+    home.addWall(wall3);
+    HomePieceOfFurniture piece1 = createPiece();
+    HomePieceOfFurniture piece2 = createPiece();
+    home.addPieceOfFurniture(piece1);
+    home.addPieceOfFurniture(piece2);
+    HomeFurnitureGroup group = new HomeFurnitureGroup(Arrays.asList(createPiece()), "Group");
+    home.addPieceOfFurniture(group);
+    home.setSelectedLevel(level1);
+    Room room = new Room(new float [][] {{0, 0}, {100, 0}, {100, 100}});
+    home.addRoom(room);
+
+    HomeSnapshot snapshot = HomeSnapshot.getInstance(home);
+    assertSame("Snapshot tracker not shared", snapshot, HomeSnapshot.getInstance(home));
+    Home snapshot1 = snapshot.getHome();
+    assertTrue("Not a snapshot", HomeSnapshot.isSnapshot(snapshot1));
+    assertFalse("Home is a snapshot", HomeSnapshot.isSnapshot(home));
+    // Check unmodified items are shared by a new home instance
+    Home unmodifiedSnapshot = snapshot.getHome();
+    assertNotSame("Snapshot home reused", snapshot1, unmodifiedSnapshot);
+    assertSame("Piece copied", snapshot1.getFurniture().get(0), unmodifiedSnapshot.getFurniture().get(0));
+    assertSame("Level copied", snapshot1.getLevels().get(1), unmodifiedSnapshot.getSelectedLevel());
+    assertEquals("Wrong furniture count", 3, snapshot1.getFurniture().size());
+    assertEquals("Wrong walls count", 3, snapshot1.getWalls().size());
+    assertEquals("Wrong levels count", 2, snapshot1.getLevels().size());
+    Wall wall1Copy = snapshot1.getWalls().iterator().next();
+    assertNotSame("Wall not copied", wall1, wall1Copy);
+    assertTrue("Walls not joined", snapshot1.getWalls().contains(wall1Copy.getWallAtEnd()));
+    assertSame("Wrong level", snapshot1.getLevels().get(0), wall1Copy.getLevel());
+    assertSame("Wrong level", snapshot1.getLevels().get(1), snapshot1.getRooms().get(0).getLevel());
+    assertSame("Wrong selected level", snapshot1.getLevels().get(1), snapshot1.getSelectedLevel());
+
+    // Check only modified pieces are copied again
+    long modificationCount = snapshot.getModificationCount();
+    piece1.setX(100);
+    assertTrue("Modification not counted", snapshot.getModificationCount() > modificationCount);
+    Home snapshot2 = snapshot.getHome();
+    assertNotSame("Snapshot reused", snapshot1, snapshot2);
+    assertEquals("Wrong abscissa", 100f, snapshot2.getFurniture().get(0).getX());
+    assertFalse("Previous snapshot modified", 100f == snapshot1.getFurniture().get(0).getX());
+    assertSame("Piece copied", snapshot1.getFurniture().get(1), snapshot2.getFurniture().get(1));
+    assertSame("Room copied", snapshot1.getRooms().get(0), snapshot2.getRooms().get(0));
+
+    // Check joined walls are copied together
+    wall2.setHeight(300f);
+    Home snapshot3 = snapshot.getHome();
+    Wall [] walls2 = snapshot2.getWalls().toArray(new Wall [3]);
+    Wall [] walls3 = snapshot3.getWalls().toArray(new Wall [3]);
+    assertNotSame("Wall not copied", walls2 [0], walls3 [0]);
+    assertNotSame("Wall not copied", walls2 [1], walls3 [1]);
+    assertSame("Wall copied", walls2 [2], walls3 [2]);
+    assertSame("Walls not joined", walls3 [1], walls3 [0].getWallAtEnd());
+    assertEquals("Wrong height", 300f, walls3 [1].getHeight());
+
+    // Check items of a modified level are copied again
+    level1.setHeight(300);
+    Home snapshot4 = snapshot.getHome();
+    assertNotSame("Level not copied", snapshot3.getLevels().get(1), snapshot4.getLevels().get(1));
+    assertSame("Level copied", snapshot3.getLevels().get(0), snapshot4.getLevels().get(0));
+    assertSame("Wrong level", snapshot4.getLevels().get(1), snapshot4.getRooms().get(0).getLevel());
+    assertSame("Piece copied", snapshot3.getFurniture().get(1), snapshot4.getFurniture().get(1));
+
+    // Check changes in groups and home lists
+    home.addPieceOfFurnitureToGroup(createPiece(), group, 1);
+    home.deletePieceOfFurniture(piece2);
+    Home snapshot5 = snapshot.getHome();
+    assertEquals("Wrong furniture count", 2, snapshot5.getFurniture().size());
+    assertEquals("Wrong group size", 2, ((HomeFurnitureGroup)snapshot5.getFurniture().get(1)).getFurniture().size());
+    group.getFurniture().get(1).setName("Piece in group");
+    assertEquals("Wrong name", "Piece in group", 
+        ((HomeFurnitureGroup)snapshot.getHome().getFurniture().get(1)).getFurniture().get(1).getName());
+
+    snapshot.dispose();
+    modificationCount = snapshot.getModificationCount();
+    piece1.setX(200);
+    assertEquals("Modification counted", modificationCount, snapshot.getModificationCount());
+    assertNotSame("Disposed snapshot tracker shared", snapshot, HomeSnapshot.getInstance(home));
+
+    // Check each snapshot is a different home sharing the same items
+    snapshot = HomeSnapshot.getInstance(home);
+    Home snapshot6 = snapshot.getHome();
+    Home snapshot7 = snapshot.getHome();
+    assertNotSame("Same snapshot", snapshot6, snapshot7);
+    assertSame("Piece copied", snapshot6.getFurniture().get(0), snapshot7.getFurniture().get(0));
+    HomeSnapshot.disposeInstance(home);
+    modificationCount = snapshot.getModificationCount();
+    piece1.setX(300);
+    assertEquals("Modification counted", modificationCount, snapshot.getModificationCount());
+    assertNotSame("Disposed snapshot tracker shared", snapshot, HomeSnapshot.getInstance(home));
+  }
+
+  private HomePieceOfFurniture createPiece() {
+    return new HomePieceOfFurniture(new CatalogPieceOfFurniture(null, "Piece", null, null, null, 50, 50, 50, 0, true,
+        new float [][] {{1, 0, 0}, {0, 1, 0}, {0, 0, 1}}, null, true, null, null));
+  }
+}
@@ -22,13 +22,19 @@ package com.eteks.sweethome3d.junit;
 import java.beans.PropertyChangeEvent;
 import java.beans.PropertyChangeListener;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collection;
 import java.util.List;
 
+import com.eteks.sweethome3d.model.BatchCollectionListener;
+import com.eteks.sweethome3d.model.CatalogPieceOfFurniture;
 import com.eteks.sweethome3d.model.CollectionEvent;
 import com.eteks.sweethome3d.model.CollectionListener;
 import com.eteks.sweethome3d.model.Home;
 import com.eteks.sweethome3d.model.HomeObject;
+import com.eteks.sweethome3d.model.HomePieceOfFurniture;
+import com.eteks.sweethome3d.model.Level;
+import com.eteks.sweethome3d.model.Selectable;
 import com.eteks.sweethome3d.model.Wall;
 
 import junit.framework.TestCase;
@@ -130,6 +136,85 @@ public class HomeTest extends TestCase {
     assertWallCollectionContains(deletedWalls, wall2);
   }
   
+  public void testHomeFurnitureBatch() {
+    // Create a home with 3 pieces
+    Home home = new Home();
+    HomePieceOfFurniture [] pieces = new HomePieceOfFurniture [6];
+    for (int i = 0; i < pieces.length; i++) {
+      pieces [i] = new HomePieceOfFurniture(
+          new CatalogPieceOfFurniture(null, "Piece " + i, null, null, null, 50, 50, 50, 0, true,
+              new float [][] {{1, 0, 0}, {0, 1, 0}, {0, 0, 1}}, null, true, null, null));
+    }
+    home.addPieceOfFurniture(pieces [0]);
+    home.addPieceOfFurniture(pieces [2]);
+    home.addPieceOfFurniture(pieces [4]);
+    // Add a batch listener and a listener that replays each change on a copy of home furniture
+    final List<CollectionEvent<HomePieceOfFurniture>> batchEvents = new ArrayList<CollectionEvent<HomePieceOfFurniture>>();
+    home.addFurnitureListener(new BatchCollectionListener<HomePieceOfFurniture>() {
+        public void collectionChanged(CollectionEvent<HomePieceOfFurniture> ev) {
+          batchEvents.add(ev);
+        }
+      });
+    final List<HomePieceOfFurniture> replayedFurniture = new ArrayList<HomePieceOfFurniture>(home.getFurniture());
+    home.addFurnitureListener(new CollectionListener<HomePieceOfFurniture>() {
+        public void collectionChanged(CollectionEvent<HomePieceOfFurniture> ev) {
+          assertFalse("Unexpected batch event", ev.isBatch());
+          if (ev.getType() == CollectionEvent.Type.ADD) {
+            replayedFurniture.add(ev.getIndex(), ev.getItem());
+          } else {
+            assertSame("Wrong deleted piece", ev.getItem(), replayedFurniture.remove(ev.getIndex()));
+          }
+        }
+      });
+
+    // Insert 3 pieces between existing ones
+    home.addFurniture(Arrays.asList(pieces [1], pieces [3], pieces [5]), new int [] {1, 3, 5});
+    assertEquals("Wrong furniture", Arrays.asList(pieces), home.getFurniture());
+    assertEquals("Wrong replayed furniture", home.getFurniture(), replayedFurniture);
+    assertEquals("Wrong batch events count", 1, batchEvents.size());
+    assertEquals("Wrong items count", 3, batchEvents.get(0).getItems().size());
+    assertTrue("Wrong indices", Arrays.equals(new int [] {1, 3, 5}, batchEvents.get(0).getIndices()));
+
+    // Delete 3 selected pieces
+    home.setSelectedItems(Arrays.<Selectable>asList(pieces [0], pieces [1]));
+    batchEvents.clear();
+    home.deleteFurniture(Arrays.asList(pieces [4], pieces [0], pieces [3]));
+    assertEquals("Wrong furniture", Arrays.asList(pieces [1], pieces [2], pieces [5]), home.getFurniture());
+    assertEquals("Wrong replayed furniture", home.getFurniture(), replayedFurniture);
+    assertEquals("Wrong batch events count", 1, batchEvents.size());
+    assertEquals("Wrong deleted items", Arrays.asList(pieces [4], pieces [3], pieces [0]), batchEvents.get(0).getItems());
+    assertEquals("Wrong selection", Arrays.asList(pieces [1]), home.getSelectedItems());
+
+    // Check invalid indices are rejected
+    try {
+      home.addFurniture(Arrays.asList(pieces [0], pieces [3]), new int [] {2, 1});
+      fail("Indices not in ascending order accepted");
+    } catch (IndexOutOfBoundsException ex) {
+      // Expected exception
+    }
+  }
+
+  public void testDeleteWallsAtBothEnds() {
+    // Create 3 walls joined one after the other
+    Home home = new Home();
+    Wall wall1 = new Wall(0, 0, 100, 0, 10, home.getWallHeight());
+    Wall wall2 = new Wall(100, 0, 100, 100, 10, home.getWallHeight());
+    Wall wall3 = new Wall(100, 100, 0, 100, 10, home.getWallHeight());
+    home.addWall(wall1);
+    home.addWall(wall2);
+    home.addWall(wall3);
+    wall1.setWallAtEnd(wall2);
+    wall2.setWallAtStart(wall1);
+    wall2.setWallAtEnd(wall3);
+    wall3.setWallAtStart(wall2);
+
+    // Delete the walls joined at both ends of the second wall
+    home.deleteWalls(Arrays.asList(wall1, wall3));
+    assertWallCollectionContains(home.getWalls(), wall2);
+    assertNull("Wall still joined at start", wall2.getWallAtStart());
+    assertNull("Wall still joined at end", wall2.getWallAtEnd());
+  }
+
   public void testProperties() {
     // Test properties management on a subclass of HomeObject
     HomeObject object = new HomeObject() { };
@@ -150,6 +235,37 @@ public class HomeTest extends TestCase {
     assertEquals("Wrong properties count on clone", 0, object.clone().getPropertyNames().size());
   }
 
+  public void testClone() {
+    // Test selection and levels of items are updated in home clone
+    Home home = new Home();
+    Level level0 = new Level("Level 0", 0, 12, 250);
+    Level level1 = new Level("Level 1", 262, 12, 250);
+    home.addLevel(level0);
+    home.addLevel(level1);
+    home.setSelectedLevel(level1);
+    Wall wall1 = new Wall(0, 0, 100, 0, 10, 250);
+    Wall wall2 = new Wall(100, 0, 100, 100, 10, 250);
+    wall1.setWallAtEnd(wall2);
+    wall2.setWallAtStart(wall1);
+    home.addWall(wall1);
+    home.addWall(wall2);
+    HomePieceOfFurniture piece = new HomePieceOfFurniture(
+        new CatalogPieceOfFurniture(null, "Piece", null, null, null, 50, 50, 50, 0, true,
+            new float [][] {{1, 0, 0}, {0, 1, 0}, {0, 0, 1}}, null, true, null, null));
+    home.addPieceOfFurniture(piece);
+    home.setSelectedItems(Arrays.asList(new Selectable [] {wall2, piece}));
+
+    Home clone = home.clone();
+    List<Wall> walls = new ArrayList<Wall>(clone.getWalls());
+    assertNotSame("Wall not copied", wall1, walls.get(0));
+    assertSame("Walls not joined", walls.get(1), walls.get(0).getWallAtEnd());
+    assertSame("Wrong selected level", clone.getLevels().get(1), clone.getSelectedLevel());
+    assertSame("Wrong wall level", clone.getLevels().get(1), walls.get(1).getLevel());
+    assertSame("Wrong piece level", clone.getLevels().get(1), clone.getFurniture().get(0).getLevel());
+    assertEquals("Wrong selection", Arrays.asList(new Selectable [] {clone.getFurniture().get(0), walls.get(1)}),
+        clone.getSelectedItems());
+  }
+
   private void assertWallCollectionContains(Collection<Wall> wallCollection, Wall ... walls) {
     assertEquals("Walls incorrect count", walls.length, wallCollection.size());
     for (Wall wall : walls) {
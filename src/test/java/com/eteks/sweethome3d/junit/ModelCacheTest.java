@@ -0,0 +1,179 @@
+/*
+ * ModelCacheTest.java 17 oct. 2026
+ *
+ * Copyright (c) 2026 Emmanuel PUYBARET / eTeks <info@eteks.com>. All Rights Reserved.
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation; either version 2 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA  02111-1307  USA
+ */
+package com.eteks.sweethome3d.junit;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Enumeration;
+import java.util.List;
+
+import javax.media.j3d.BranchGroup;
+import javax.media.j3d.GeometryArray;
+import javax.media.j3d.Group;
+import javax.media.j3d.Link;
+import javax.media.j3d.Node;
+import javax.media.j3d.Shape3D;
+
+import junit.framework.TestCase;
+
+import com.eteks.sweethome3d.io.ContentDigestManager;
+import com.eteks.sweethome3d.j3d.ModelCache;
+import com.eteks.sweethome3d.j3d.ModelManager;
+import com.eteks.sweethome3d.tools.URLContent;
+
+/**
+ * Tests {@link ModelCache} class.
+ * @author Emmanuel Puybaret
+ */
+public class ModelCacheTest extends TestCase {
+  private File folder;
+
+  @Override
+  protected void setUp() throws IOException {
+    this.folder = File.createTempFile("models", "");
+    this.folder.delete();
+    this.folder.mkdir();
+  }
+
+  @Override
+  protected void tearDown() {
+    ModelManager.getInstance().setModelCache(null);
+    for (File file : this.folder.listFiles()) {
+      file.delete();
+    }
+    this.folder.delete();
+  }
+
+  /**
+   * Tests models loaded by model manager are equal once read from cache.
+   */
+  public void testCachedModels() throws IOException {
+    ModelCache cache = new ModelCache(this.folder, 10 << 20, ContentDigestManager.getInstance()::getContentDigest);
+    ModelManager.getInstance().setModelCache(cache);
+    for (String model : new String [] {"resources/test.obj", "resources/test.dae"}) {
+      URLContent content = new URLContent(ModelCacheTest.class.getResource(model));
+      BranchGroup loadedModel = ModelManager.getInstance().loadModel(content);
+      BranchGroup cachedModel = ModelManager.getInstance().loadModel(content);
+      assertNotSame("Model not rebuilt", loadedModel, cachedModel);
+      assertSame("Wrong user data", content, cachedModel.getUserData());
+      assertShapesEqual(loadedModel, cachedModel);
+    }
+    assertEquals("Wrong hit count", 2, cache.getHitCount());
+    assertEquals("Wrong miss count", 2, cache.getMissCount());
+    assertEquals("Wrong write count", 2, cache.getWriteCount());
+    assertEquals("Wrong model count", 2, cache.getModelCount());
+    assertEquals("Wrong size", this.folder.listFiles()[0].length() + this.folder.listFiles()[1].length(), cache.getSize());
+
+    // Check a corrupted file is ignored and replaced
+    for (File file : this.folder.listFiles()) {
+      writeFile(file, 100);
+    }
+    URLContent content = new URLContent(ModelCacheTest.class.getResource("resources/test.obj"));
+    assertNotNull("Model not loaded", ModelManager.getInstance().loadModel(content));
+    assertEquals("Wrong hit count", 2, cache.getHitCount());
+    assertEquals("Wrong miss count", 3, cache.getMissCount());
+    assertEquals("Wrong write count", 3, cache.getWriteCount());
+
+    cache.clear();
+    assertEquals("Cache not cleared", 0, this.folder.listFiles().length);
+    assertEquals("Cache not cleared", 0, cache.getSize());
+  }
+
+  /**
+   * Tests the least recently used files are deleted when cache is too large.
+   */
+  public void testEviction() throws IOException {
+    for (int i = 0; i < 3; i++) {
+      File file = new File(this.folder, "model" + i + ".model");
+      writeFile(file, 400);
+      file.setLastModified(System.currentTimeMillis() - 100000 + i * 1000);
+    }
+    writeFile(new File(this.folder, "model.tmp"), 10);
+    ModelCache cache = new ModelCache(this.folder, 1000, ContentDigestManager.getInstance()::getContentDigest);
+    assertEquals("Wrong model count", 2, cache.getModelCount());
+    assertEquals("Wrong size", 800, cache.getSize());
+    assertEquals("Wrong eviction count", 1, cache.getEvictionCount());
+    assertFalse("Oldest file not deleted", new File(this.folder, "model0.model").exists());
+    assertTrue("File deleted", new File(this.folder, "model1.model").exists());
+    assertFalse("Temporary file not deleted", new File(this.folder, "model.tmp").exists());
+  }
+
+  /**
+   * Tests contents without digest are never found in cache.
+   */
+  public void testContentWithoutDigest() {
+    ModelCache cache = new ModelCache(this.folder, 1000, content -> new byte [0]);
+    assertNull("Model found", cache.getModel(new URLContent(ModelCacheTest.class.getResource("resources/test.obj"))));
+    assertEquals("Wrong miss count", 1, cache.getMissCount());
+    assertEquals("Wrong hit count", 0, cache.getHitCount());
+  }
+
+  private void writeFile(File file, int length) throws IOException {
+    FileOutputStream out = new FileOutputStream(file);
+    out.write(new byte [length]);
+    out.close();
+  }
+
+  private void assertShapesEqual(Node expectedNode, Node node) {
+    List<Shape3D> expectedShapes = new ArrayList<Shape3D>();
+    searchShapes(expectedNode, expectedShapes);
+    List<Shape3D> shapes = new ArrayList<Shape3D>();
+    searchShapes(node, shapes);
+    assertEquals("Wrong shapes count", expectedShapes.size(), shapes.size());
+    for (int i = 0; i < shapes.size(); i++) {
+      Shape3D expectedShape = expectedShapes.get(i);
+      Shape3D shape = shapes.get(i);
+      assertEquals("Wrong user data", expectedShape.getUserData(), shape.getUserData());
+      assertEquals("Wrong appearance name",
+          expectedShape.getAppearance().getName(), shape.getAppearance().getName());
+      assertEquals("Wrong texture", expectedShape.getAppearance().getTexture(), shape.getAppearance().getTexture());
+      GeometryArray expectedGeometry = (GeometryArray)expectedShape.getGeometry();
+      GeometryArray geometry = (GeometryArray)shape.getGeometry();
+      assertEquals("Wrong geometry class", expectedGeometry.getClass(), geometry.getClass());
+      assertEquals("Wrong vertex format", expectedGeometry.getVertexFormat(), geometry.getVertexFormat());
+      if ((geometry.getVertexFormat() & GeometryArray.INTERLEAVED) != 0) {
+        assertTrue("Wrong vertices",
+            Arrays.equals(expectedGeometry.getInterleavedVertices(), geometry.getInterleavedVertices()));
+      } else {
+        float [] expectedCoordinates = new float [expectedGeometry.getVertexCount() * 3];
+        float [] coordinates = new float [geometry.getVertexCount() * 3];
+        expectedGeometry.getCoordinates(0, expectedCoordinates);
+        geometry.getCoordinates(0, coordinates);
+        assertTrue("Wrong coordinates", Arrays.equals(expectedCoordinates, coordinates));
+      }
+    }
+  }
+
+  private void searchShapes(Node node, List<Shape3D> shapes) {
+    if (node instanceof Group) {
+      Enumeration<?> enumeration = ((Group)node).getAllChildren();
+      while (enumeration.hasMoreElements ()) {
+        searchShapes((Node)enumeration.nextElement(), shapes);
+      }
+    } else if (node instanceof Link) {
+      searchShapes(((Link)node).getSharedGroup(), shapes);
+    } else if (node instanceof Shape3D) {
+      shapes.add((Shape3D)node);
+    }
+  }
+}
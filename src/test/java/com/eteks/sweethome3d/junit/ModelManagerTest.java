@@ -19,10 +19,25 @@
  */
 package com.eteks.sweethome3d.junit;
 
+import java.io.File;
+import java.io.FileOutputStream;
 import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.Enumeration;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 
 import javax.media.j3d.BranchGroup;
+import javax.media.j3d.Geometry;
 import javax.media.j3d.Group;
 import javax.media.j3d.Link;
 import javax.media.j3d.Node;
@@ -31,6 +46,7 @@ import javax.media.j3d.Shape3D;
 import junit.framework.TestCase;
 
 import com.eteks.sweethome3d.j3d.ModelManager;
+import com.eteks.sweethome3d.model.Content;
 import com.eteks.sweethome3d.tools.URLContent;
 
 /**
@@ -50,6 +66,131 @@ public class ModelManagerTest extends TestCase {
     assertTrue("Model shouldn't be empty", getShapesCount(model) > 0);
   }
   
+  /**
+   * Tests only the loader matching the detected format of a content is used.
+   */
+  public void testFormatDetection() throws IOException {
+    ModelManager modelManager = ModelManager.getInstance();
+    BranchGroup model = modelManager.loadModel(
+        new URLContent(ModelManagerTest.class.getResource("resources/test.dae")));
+    assertTrue("Model shouldn't be empty", getShapesCount(model) > 0);
+    long objLoadCount = getLoadingStatistics("OBJ").getLoadCount();
+    long daeLoadCount = getLoadingStatistics("DAE").getLoadCount();
+    assertEquals("DAE file read by other loaders", 0, getLoadingStatistics("DAE").getFailureCount());
+
+    // Check a file starting with 3DS magic number is read only by 3DS loader
+    File file = File.createTempFile("model", ".obj");
+    FileOutputStream out = new FileOutputStream(file);
+    out.write(new byte [] {0x4D, 0x4D, 0x10, 0, 0, 0, 'v', ' ', '1', ' ', '2', ' ', '3', '\n'});
+    out.close();
+    try {
+      modelManager.loadModel(new URLContent(file.toURI().toURL()));
+      fail("Incorrect file loaded");
+    } catch (IOException ex) {
+      // Expected exception
+    }
+    file.delete();
+    assertEquals("Wrong 3DS load count", 1, getLoadingStatistics("3DS").getLoadCount());
+    assertEquals("Wrong 3DS failure count", 1, getLoadingStatistics("3DS").getFailureCount());
+    assertEquals("OBJ loader used", objLoadCount, getLoadingStatistics("OBJ").getLoadCount());
+    assertEquals("DAE loader used", daeLoadCount, getLoadingStatistics("DAE").getLoadCount());
+  }
+
+  /**
+   * Tests concurrent requests load each content once and get clones sharing geometries
+   * but with their own appearance.
+   */
+  public void testConcurrentLoading() throws Exception {
+    final ModelManager modelManager = ModelManager.getInstance();
+    List<Content> contents = new ArrayList<Content>();
+    List<File> files = new ArrayList<File>();
+    for (int i = 0; i < 5; i++) {
+      File file = File.createTempFile("model", ".obj");
+      InputStream in = ModelManagerTest.class.getResourceAsStream("resources/test.obj");
+      Files.copy(in, file.toPath(), StandardCopyOption.REPLACE_EXISTING);
+      in.close();
+      files.add(file);
+      contents.add(new URLContent(file.toURI().toURL()));
+    }
+    long objLoadCount = getLoadingStatistics("OBJ").getLoadCount();
+
+    ExecutorService executor = Executors.newFixedThreadPool(8);
+    List<Future<BranchGroup>> models = new ArrayList<Future<BranchGroup>>();
+    for (int i = 0; i < 100; i++) {
+      final Content content = contents.get(i % contents.size());
+      models.add(executor.submit(new Callable<BranchGroup>() {
+          public BranchGroup call() throws Exception {
+            final BranchGroup [] model = new BranchGroup [1];
+            modelManager.loadModel(content, true, new ModelManager.ModelObserver() {
+                public void modelUpdated(BranchGroup modelRoot) {
+                  model [0] = modelRoot;
+                }
+
+                public void modelError(Exception ex) {
+                  fail(ex.toString());
+                }
+              });
+            return model [0];
+          }
+        }));
+    }
+    executor.shutdown();
+
+    Set<Object> geometries = Collections.newSetFromMap(new IdentityHashMap<Object, Boolean>());
+    Set<Object> appearances = Collections.newSetFromMap(new IdentityHashMap<Object, Boolean>());
+    int geometriesCount = 0;
+    int appearancesCount = 0;
+    for (Future<BranchGroup> model : models) {
+      List<Shape3D> shapes = new ArrayList<Shape3D>();
+      searchShapes(model.get(), shapes);
+      for (Shape3D shape : shapes) {
+        Enumeration<?> enumeration = shape.getAllGeometries();
+        while (enumeration.hasMoreElements()) {
+          geometries.add((Geometry)enumeration.nextElement());
+          geometriesCount++;
+        }
+        if (shape.getAppearance() != null) {
+          appearances.add(shape.getAppearance());
+          appearancesCount++;
+          if (shape.getAppearance().getMaterial() != null) {
+            appearances.add(shape.getAppearance().getMaterial());
+            appearancesCount++;
+          }
+        }
+      }
+    }
+    assertEquals("Content loaded more than once", objLoadCount + contents.size(),
+        getLoadingStatistics("OBJ").getLoadCount());
+    assertEquals("Geometries not shared", geometriesCount / models.size() * contents.size(), geometries.size());
+    assertEquals("Appearances shared", appearancesCount, appearances.size());
+    for (File file : files) {
+      file.delete();
+    }
+  }
+
+  private void searchShapes(Node node, List<Shape3D> shapes) {
+    if (node instanceof Group) {
+      Enumeration<?> enumeration = ((Group)node).getAllChildren();
+      while (enumeration.hasMoreElements ()) {
+        searchShapes((Node)enumeration.nextElement(), shapes);
+      }
+    } else if (node instanceof Link) {
+      searchShapes(((Link)node).getSharedGroup(), shapes);
+    } else if (node instanceof Shape3D) {
+      shapes.add((Shape3D)node);
+    }
+  }
+
+  private ModelManager.LoadingStatistics getLoadingStatistics(String format) {
+    for (ModelManager.LoadingStatistics statistics : ModelManager.getInstance().getLoadingStatistics()) {
+      if (statistics.getFormat().equals(format)) {
+        return statistics;
+      }
+    }
+    fail("No statistics for " + format);
+    return null;
+  }
+
   private int getShapesCount(Node node) {
     if (node instanceof Group) {
       int shapesCount = 0;
@@ -0,0 +1,242 @@
+/*
+ * OBJLoaderTest.java 17 oct. 2026
+ *
+ * Copyright (c) 2026 Emmanuel PUYBARET / eTeks <info@eteks.com>. All Rights Reserved.
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation; either version 2 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA  02111-1307  USA
+ */
+package com.eteks.sweethome3d.junit;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.StringReader;
+import java.io.Writer;
+import java.net.URL;
+import java.util.Arrays;
+import java.util.Locale;
+import java.util.Random;
+
+import javax.media.j3d.Appearance;
+import javax.media.j3d.BranchGroup;
+import javax.media.j3d.GeometryArray;
+import javax.media.j3d.GeometryStripArray;
+import javax.media.j3d.Material;
+import javax.media.j3d.Shape3D;
+import javax.vecmath.Color3f;
+
+import junit.framework.TestCase;
+
+import com.eteks.sweethome3d.j3d.OBJLoader;
+import com.sun.j3d.loaders.IncorrectFormatException;
+import com.sun.j3d.loaders.Scene;
+
+/**
+ * Tests the scenes read by {@link OBJLoader} from OBJ files are equal
+ * to the ones read from a character stream parsed with a tokenizer.
+ * @author Emmanuel Puybaret
+ */
+public class OBJLoaderTest extends TestCase {
+  /**
+   * Compares the scenes read from test resource.
+   */
+  public void testOBJResource() throws IOException {
+    URL objUrl = OBJLoaderTest.class.getResource("resources/test.obj");
+    Scene tokenizedScene = new OBJLoader().load(new InputStreamReader(objUrl.openStream(), "ISO-8859-1"));
+    Scene scene = new OBJLoader().load(objUrl);
+    assertEquals("Wrong shapes count", 6, scene.getSceneGroup().numChildren());
+    assertScenesEqual(tokenizedScene, scene);
+  }
+
+  /**
+   * Compares the scenes read from a generated file using various number formats,
+   * line ends and index forms, long enough to be read in several buffers.
+   */
+  public void testGeneratedOBJFile() throws IOException {
+    String objContent = createOBJContent(new Random(0), 5000);
+    File objFile = File.createTempFile("test", ".obj");
+    objFile.deleteOnExit();
+    Writer writer = new OutputStreamWriter(new FileOutputStream(objFile), "ISO-8859-1");
+    writer.write(objContent);
+    writer.close();
+
+    Scene tokenizedScene = new OBJLoader().load(new StringReader(objContent));
+    Scene scene = new OBJLoader().load(objFile.getAbsolutePath());
+    assertScenesEqual(tokenizedScene, scene);
+    objFile.delete();
+  }
+
+  /**
+   * Tests incorrect OBJ files are rejected.
+   */
+  public void testIncorrectOBJFiles() throws IOException {
+    String [] incorrectContents = {
+        "v 1 2\n",
+        "v 1 2 3 4 5\n",
+        "v 1,0 2 3\n",
+        "vn 0 0 a\n",
+        "f 1 2.5 3\n",
+        "f 1/a/1 2 3\n",
+        "v 1 2 \\ 3\n",
+        "s\n",
+        "usemtl\n",
+        "\u0001\n"};
+    for (String content : incorrectContents) {
+      File objFile = File.createTempFile("test", ".obj");
+      objFile.deleteOnExit();
+      Writer writer = new OutputStreamWriter(new FileOutputStream(objFile), "ISO-8859-1");
+      writer.write(content);
+      writer.close();
+      try {
+        new OBJLoader().load(objFile.getAbsolutePath());
+        fail("Content " + content + " not rejected");
+      } catch (IncorrectFormatException ex) {
+        // Expected exception
+      }
+      objFile.delete();
+    }
+  }
+
+  /**
+   * Returns the content of an OBJ file describing a grid of random faces and lines.
+   */
+  private String createOBJContent(Random random, int vertexCount) {
+    StringBuilder content = new StringBuilder("# Generated OBJ file\nmtllib missing.mtl\n");
+    String [] lineEnds = {"\n", "\r\n", "\r"};
+    String [] materials = {"metal", "flesh", "bluish", "unknown material "};
+    for (int i = 0; i < vertexCount; i++) {
+      String lineEnd = lineEnds [i % lineEnds.length];
+      content.append("v ").append(formatNumber(random)).append(' ').append(formatNumber(random))
+          .append(' ').append(formatNumber(random)).append(lineEnd);
+      content.append("vt ").append(formatNumber(random)).append(' ').append(formatNumber(random)).append(lineEnd);
+      content.append("vn ").append(formatNumber(random)).append(' ').append(formatNumber(random))
+          .append(' ').append(formatNumber(random)).append(lineEnd);
+    }
+    for (int i = 0; i < vertexCount; i++) {
+      if (i % 1000 == 0) {
+        content.append("g group").append(i % 3000).append('\n');
+        content.append("usemtl ").append(materials [i / 1000 % materials.length]).append('\n');
+        content.append(i % 2000 == 0 ? "s off\n" : "s 1\n");
+      }
+      boolean line = random.nextInt(20) == 0;
+      // Lines accept only v and v/vt forms
+      int form = random.nextInt(line ? 2 : 4);
+      content.append(line ? "l" : "f");
+      for (int j = 3 + random.nextInt(3); j > 0; j--) {
+        int vertexIndex = random.nextInt(5) == 0
+            ? -1 - random.nextInt(vertexCount)
+            : 1 + random.nextInt(vertexCount);
+        content.append(' ').append(vertexIndex);
+        switch (form) {
+          case 1 :
+            content.append('/').append(1 + random.nextInt(vertexCount));
+            break;
+          case 2 :
+            content.append("//").append(1 + random.nextInt(vertexCount));
+            break;
+          case 3 :
+            content.append('/').append(1 + random.nextInt(vertexCount))
+                .append('/').append(1 + random.nextInt(vertexCount));
+            break;
+        }
+      }
+      content.append(lineEnds [i % lineEnds.length]);
+    }
+    return content.toString();
+  }
+
+  private String formatNumber(Random random) {
+    double number = (random.nextDouble() - 0.5) * Math.pow(10, random.nextInt(8) - 3);
+    switch (random.nextInt(5)) {
+      case 0 :
+        return Float.toString((float)number);
+      case 1 :
+        return Double.toString(number);
+      case 2 :
+        return String.format(Locale.US, "%.6f", number);
+      case 3 :
+        return String.format(Locale.US, "%.9f", number);
+      default :
+        return String.format(Locale.US, "%e", number);
+    }
+  }
+
+  /**
+   * Asserts the shapes of the given scenes are equal.
+   */
+  private void assertScenesEqual(Scene expectedScene, Scene scene) {
+    assertEquals("Wrong named objects", expectedScene.getNamedObjects().keySet(), scene.getNamedObjects().keySet());
+    BranchGroup expectedRoot = expectedScene.getSceneGroup();
+    BranchGroup root = scene.getSceneGroup();
+    assertEquals("Wrong shapes count", expectedRoot.numChildren(), root.numChildren());
+    for (int i = 0; i < root.numChildren(); i++) {
+      Shape3D expectedShape = (Shape3D)expectedRoot.getChild(i);
+      Shape3D shape = (Shape3D)root.getChild(i);
+      assertGeometriesEqual((GeometryArray)expectedShape.getGeometry(), (GeometryArray)shape.getGeometry());
+      assertAppearancesEqual(expectedShape.getAppearance(), shape.getAppearance());
+    }
+  }
+
+  private void assertGeometriesEqual(GeometryArray expectedGeometry, GeometryArray geometry) {
+    assertEquals("Wrong geometry class", expectedGeometry.getClass(), geometry.getClass());
+    assertEquals("Wrong vertex format", expectedGeometry.getVertexFormat(), geometry.getVertexFormat());
+    int vertexCount = geometry.getVertexCount();
+    assertEquals("Wrong vertex count", expectedGeometry.getVertexCount(), vertexCount);
+    if ((geometry.getVertexFormat() & GeometryArray.INTERLEAVED) != 0) {
+      assertTrue("Wrong vertices",
+          Arrays.equals(expectedGeometry.getInterleavedVertices(), geometry.getInterleavedVertices()));
+    } else {
+      float [] expectedCoordinates = new float [vertexCount * 3];
+      float [] coordinates = new float [vertexCount * 3];
+      expectedGeometry.getCoordinates(0, expectedCoordinates);
+      geometry.getCoordinates(0, coordinates);
+      assertTrue("Wrong coordinates", Arrays.equals(expectedCoordinates, coordinates));
+      if ((geometry.getVertexFormat() & GeometryArray.TEXTURE_COORDINATE_2) != 0) {
+        float [] expectedTextureCoordinates = new float [vertexCount * 2];
+        float [] textureCoordinates = new float [vertexCount * 2];
+        expectedGeometry.getTextureCoordinates(0, 0, expectedTextureCoordinates);
+        geometry.getTextureCoordinates(0, 0, textureCoordinates);
+        assertTrue("Wrong texture coordinates", Arrays.equals(expectedTextureCoordinates, textureCoordinates));
+      }
+    }
+    if (geometry instanceof GeometryStripArray) {
+      GeometryStripArray expectedStripArray = (GeometryStripArray)expectedGeometry;
+      GeometryStripArray stripArray = (GeometryStripArray)geometry;
+      int [] expectedStripCounts = new int [expectedStripArray.getNumStrips()];
+      int [] stripCounts = new int [stripArray.getNumStrips()];
+      expectedStripArray.getStripVertexCounts(expectedStripCounts);
+      stripArray.getStripVertexCounts(stripCounts);
+      assertTrue("Wrong strips", Arrays.equals(expectedStripCounts, stripCounts));
+    }
+  }
+
+  private void assertAppearancesEqual(Appearance expectedAppearance, Appearance appearance) {
+    assertEquals("Wrong texture generation", expectedAppearance.getTexCoordGeneration() != null,
+        appearance.getTexCoordGeneration() != null);
+    Material expectedMaterial = expectedAppearance.getMaterial();
+    Material material = appearance.getMaterial();
+    assertEquals("Wrong material", expectedMaterial != null, material != null);
+    if (material != null) {
+      Color3f expectedColor = new Color3f();
+      Color3f color = new Color3f();
+      expectedMaterial.getDiffuseColor(expectedColor);
+      material.getDiffuseColor(color);
+      assertEquals("Wrong diffuse color", expectedColor, color);
+      assertEquals("Wrong shininess", expectedMaterial.getShininess(), material.getShininess());
+    }
+  }
+}
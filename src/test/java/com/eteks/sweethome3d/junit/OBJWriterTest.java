@@ -23,11 +23,15 @@ import java.io.File;
 import java.io.IOException;
 import java.io.InputStreamReader;
 import java.io.LineNumberReader;
+import java.io.StringWriter;
 import java.net.URISyntaxException;
 import java.net.URL;
 
+import javax.media.j3d.GeometryArray;
+import javax.media.j3d.Shape3D;
 import javax.media.j3d.Transform3D;
 import javax.media.j3d.TransformGroup;
+import javax.media.j3d.TriangleArray;
 import javax.vecmath.Vector3f;
 
 import junit.framework.TestCase;
@@ -155,6 +159,11 @@ public class OBJWriterTest extends TestCase {
     
     assertEquals("Not same line count in OBJ file", 467, getLineCount(objFile.toURI().toURL()));
     assertEquals("Not same line count in MTL file", 45, getLineCount(mtlFile.toURI().toURL()));
+    // Compare with the files exported before number formatting was optimized
+    assertEquals("Not same OBJ content", getContent(OBJWriterTest.class.getResource("resources/holes.obj")),
+        getContent(objFile.toURI().toURL()));
+    assertEquals("Not same MTL content", getContent(OBJWriterTest.class.getResource("resources/holes.mtl")),
+        getContent(mtlFile.toURI().toURL()));
     // Read file to check if its content is correct
     new OBJLoader().load(objFile.getAbsolutePath());
     
@@ -168,6 +177,66 @@ public class OBJWriterTest extends TestCase {
     }
   }
 
+  /**
+   * Tests the numbers written by OBJWriter with default and given precision.
+   */
+  public void testOBJWriterNumberFormat() throws IOException {
+    // Default precision uses Float#toString format, or a decimal format for numbers in scientific notation
+    StringWriter out = new StringWriter();
+    OBJWriter writer = new OBJWriter(out);
+    writer.writeNode(createTriangle(), "triangle");
+    writer.close();
+    assertEquals("Wrong OBJ content",
+          "g triangle_1\n"
+        + "v 0.00002 30000000 1.5\n"
+        + "v -123.456 0.001 0.0001\n"
+        + "v 0.0 -0.0000001 12345678\n"
+        + "vt 0.25 0.0001 0\n"
+        + "vt 0.5 -7.5 0\n"
+        + "vt 1.0 0.33333334 0\n"
+        + "vn 0.0 0.0 1.0\n"
+        + "vn 0.6 0.8 0.0\n"
+        + "vn -0.0000003 0.0 -1.0\n"
+        + "f 1/1/1 2/2/2 3/3/3\n", out.toString());
+
+    // Given precision uses a number format
+    out = new StringWriter();
+    writer = new OBJWriter(out, null, 3);
+    writer.writeNode(createTriangle(), "triangle");
+    writer.close();
+    assertEquals("Wrong OBJ content",
+          "g triangle_1\n"
+        + "v 0 30,000,000 1.5\n"
+        + "v -123.456 0.001 0\n"
+        + "v 0 -0 12,345,678\n"
+        + "vt 0.25 0 0\n"
+        + "vt 0.5 -7.5 0\n"
+        + "vt 1 0.333 0\n"
+        + "vn 0 0 1\n"
+        + "vn 0.6 0.8 0\n"
+        + "vn -0 0 -1\n"
+        + "f 1/1/1 2/2/2 3/3/3\n", out.toString());
+  }
+
+  /**
+   * Returns a triangle with coordinates, texture coordinates and normals
+   * written in plain or scientific notation by Float#toString.
+   */
+  private Shape3D createTriangle() {
+    TriangleArray triangle = new TriangleArray(3,
+        GeometryArray.COORDINATES | GeometryArray.NORMALS | GeometryArray.TEXTURE_COORDINATE_2);
+    triangle.setCoordinates(0, new float [] {2E-5f, 3E7f, 1.5f,
+                                             -123.456f, 0.001f, 1E-4f,
+                                             0, -1E-7f, 12345678});
+    triangle.setTextureCoordinates(0, 0, new float [] {0.25f, 1E-4f,
+                                                       0.5f, -7.5f,
+                                                       1, 1 / 3f});
+    triangle.setNormals(0, new float [] {0, 0, 1,
+                                         0.6f, 0.8f, 0,
+                                         -3E-7f, 0, -1});
+    return new Shape3D(triangle);
+  }
+
   /**
    * Returns the line count in the given URL.
    */
@@ -178,4 +247,18 @@ public class OBJWriterTest extends TestCase {
     in.close();
     return in.getLineNumber();
   }
+
+  /**
+   * Returns the content of the given URL.
+   */
+  private String getContent(URL contentUrl) throws IOException {
+    InputStreamReader in = new InputStreamReader(contentUrl.openStream(), "ISO-8859-1");
+    StringBuilder content = new StringBuilder();
+    char [] buffer = new char [8192];
+    for (int length; (length = in.read(buffer)) != -1; ) {
+      content.append(buffer, 0, length);
+    }
+    in.close();
+    return content.toString();
+  }
 }
@@ -21,12 +21,18 @@
 package com.eteks.sweethome3d.junit;
 
 import java.awt.BorderLayout;
+import java.awt.Dimension;
+import java.awt.EventQueue;
+import java.awt.Graphics2D;
 import java.awt.Point;
 import java.awt.event.ActionEvent;
 import java.awt.event.ActionListener;
 import java.awt.event.InputEvent;
 import java.awt.event.KeyEvent;
+import java.awt.image.BufferedImage;
+import java.lang.reflect.InvocationTargetException;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collection;
 import java.util.List;
 import java.util.Locale;
@@ -50,6 +56,11 @@ import com.eteks.sweethome3d.model.CollectionEvent;
 import com.eteks.sweethome3d.model.CollectionListener;
 import com.eteks.sweethome3d.model.DimensionLine;
 import com.eteks.sweethome3d.model.Home;
+import com.eteks.sweethome3d.model.HomePieceOfFurniture;
+import com.eteks.sweethome3d.model.Label;
+import com.eteks.sweethome3d.model.Level;
+import com.eteks.sweethome3d.model.Polyline;
+import com.eteks.sweethome3d.model.Room;
 import com.eteks.sweethome3d.model.Selectable;
 import com.eteks.sweethome3d.model.UserPreferences;
 import com.eteks.sweethome3d.model.Wall;
@@ -407,6 +418,172 @@ public class PlanComponentTest extends ComponentTestFixture {
         Math.abs(50 - dimensionLine.getOffset()) < 1E-10);
   }
     
+  /**
+   * Checks the plan painted with cached tiles is the same as the plan painted directly
+   * after selection, item, level and scale changes.
+   */
+  public void testPlanTiles() throws InterruptedException, InvocationTargetException {
+    // Run test in Event Dispatch Thread where selection changes repaint only the overlay of plan tiles
+    EventQueue.invokeAndWait(new Runnable() {
+        public void run() {
+          runPlanTilesTest();
+        }
+      });
+  }
+
+  private void runPlanTilesTest() {
+    Home home = new Home();
+    Locale.setDefault(Locale.ENGLISH);
+    UserPreferences preferences = new DefaultUserPreferences();
+    preferences.setFurnitureViewedFromTop(false);
+    PlanController planController = new PlanController(home, preferences, new SwingViewFactory() {
+        @Override
+        public PlanView createPlanView(Home home, UserPreferences preferences, PlanController controller) {
+          return new PlanComponent(home, preferences, controller);
+        }
+      }, null, new UndoableEditSupport());
+    PlanComponent planComponent = (PlanComponent)planController.getView();
+    // Display plan in a scroll pane as in application to paint grid in the whole visible area
+    JScrollPane scrollPane = new JScrollPane(planComponent);
+
+    Wall wall1 = new Wall(0, 0, 600, 0, 20, 250);
+    Wall wall2 = new Wall(600, 0, 600, 400, 20, 250);
+    Wall wall3 = new Wall(600, 400, 0, 400, 20, 250);
+    home.addWall(wall1);
+    home.addWall(wall2);
+    home.addWall(wall3);
+    Room room = new Room(new float [][] {{0, 0}, {600, 0}, {600, 400}, {0, 400}});
+    room.setName("Living room");
+    room.setAreaVisible(true);
+    home.addRoom(room);
+    HomePieceOfFurniture piece = new HomePieceOfFurniture(
+        preferences.getFurnitureCatalog().getCategories().get(0).getFurniture().get(0));
+    piece.setX(200);
+    piece.setY(150);
+    piece.setNameVisible(true);
+    home.addPieceOfFurniture(piece);
+    Label label = new Label("Label", 400, 300);
+    home.addLabel(label);
+    DimensionLine dimensionLine = new DimensionLine(0, 450, 600, 450, 20);
+    home.addDimensionLine(dimensionLine);
+    Polyline polyline = new Polyline(new float [][] {{50, 50}, {300, 250}, {550, 50}});
+    home.addPolyline(polyline);
+    layoutScrollPane(scrollPane, planComponent);
+    assertSamePlanPainting(planComponent);
+    // Paint again with tiles in cache
+    assertSamePlanPainting(planComponent);
+
+    // Select items drawn in the overlay painted above tiles
+    home.setSelectedItems(Arrays.<Selectable>asList(wall1, piece));
+    assertSamePlanPainting(planComponent);
+    home.setSelectedItems(Arrays.<Selectable>asList(label, dimensionLine, polyline, room));
+    assertSamePlanPainting(planComponent);
+    planComponent.setSelectedItemsOutlinePainted(false);
+    assertSamePlanPainting(planComponent);
+    planComponent.setSelectedItemsOutlinePainted(true);
+    planComponent.setRectangleFeedback(10, 10, 300, 200);
+    assertSamePlanPainting(planComponent);
+    planComponent.deleteFeedback();
+    home.setSelectedItems(Arrays.<Selectable>asList());
+    assertSamePlanPainting(planComponent);
+
+    // Modify items
+    wall2.setXEnd(700);
+    room.setNameXOffset(50);
+    piece.setAngle(1);
+    label.setText("Modified label");
+    assertSamePlanPainting(planComponent);
+    home.setSelectedItems(Arrays.<Selectable>asList(piece));
+    piece.setX(300);
+    assertSamePlanPainting(planComponent);
+
+    // Add levels and select the upper one
+    Level level0 = new Level("Level 0", 0, 12, 250);
+    home.addLevel(level0);
+    for (Wall wall : home.getWalls()) {
+      wall.setLevel(level0);
+    }
+    room.setLevel(level0);
+    piece.setLevel(level0);
+    Level level1 = new Level("Level 1", 250, 12, 250);
+    home.addLevel(level1);
+    home.setSelectedLevel(level1);
+    assertSamePlanPainting(planComponent);
+    home.addWall(new Wall(100, 100, 500, 100, 10, 250));
+    assertSamePlanPainting(planComponent);
+    home.setSelectedLevel(level0);
+    assertSamePlanPainting(planComponent);
+
+    // Change scale
+    planComponent.setScale(1.3f);
+    layoutScrollPane(scrollPane, planComponent);
+    assertSamePlanPainting(planComponent);
+    preferences.setGridVisible(false);
+    assertSamePlanPainting(planComponent);
+  }
+
+  /**
+   * Lays out <code>scrollPane</code> to view the whole <code>planComponent</code>.
+   */
+  private void layoutScrollPane(JScrollPane scrollPane, PlanComponent planComponent) {
+    Dimension preferredSize = planComponent.getPreferredSize();
+    scrollPane.setSize(preferredSize.width + 20, preferredSize.height + 20);
+    scrollPane.doLayout();
+    scrollPane.getViewport().doLayout();
+  }
+
+  /**
+   * Asserts the image of <code>planComponent</code> painted with cached tiles
+   * is the same as the image painted directly.
+   */
+  private void assertSamePlanPainting(PlanComponent planComponent) {
+    BufferedImage directImage = null;
+    // Wait icons loaded in background are available
+    for (int i = 0; i < 50; i++) {
+      BufferedImage image = new BufferedImage(planComponent.getWidth(), planComponent.getHeight(), BufferedImage.TYPE_INT_RGB);
+      Graphics2D g2D = image.createGraphics();
+      planComponent.printAll(g2D);
+      g2D.dispose();
+      if (directImage != null
+          && getDifferentPixelCount(directImage, image) == 0) {
+        break;
+      }
+      directImage = image;
+      try {
+        Thread.sleep(100);
+      } catch (InterruptedException ex) {
+        fail("Interrupted");
+      }
+    }
+
+    BufferedImage tilesImage = new BufferedImage(planComponent.getWidth(), planComponent.getHeight(), BufferedImage.TYPE_INT_RGB);
+    Graphics2D g2D = tilesImage.createGraphics();
+    planComponent.paint(g2D);
+    g2D.dispose();
+    assertEquals("Plan painted with tiles different from plan", 0, getDifferentPixelCount(directImage, tilesImage));
+
+    // Paint again a part of the plan with tiles possibly in cache
+    BufferedImage clippedImage = new BufferedImage(planComponent.getWidth(), planComponent.getHeight(), BufferedImage.TYPE_INT_RGB);
+    g2D = clippedImage.createGraphics();
+    g2D.drawImage(directImage, 0, 0, null);
+    g2D.clipRect(100, 50, planComponent.getWidth() / 2, planComponent.getHeight() / 2);
+    planComponent.paint(g2D);
+    g2D.dispose();
+    assertEquals("Clipped plan painted with tiles different from plan", 0, getDifferentPixelCount(directImage, clippedImage));
+  }
+
+  private int getDifferentPixelCount(BufferedImage image1, BufferedImage image2) {
+    int count = 0;
+    for (int x = 0; x < image1.getWidth(); x++) {
+      for (int y = 0; y < image1.getHeight(); y++) {
+        if (image1.getRGB(x, y) != image2.getRGB(x, y)) {
+          count++;
+        }
+      }
+    }
+    return count;
+  }
+
   /**
    * Asserts the start point and the end point of 
    * <code>wall</code> are at (<code>xStart</code>, <code>yStart</code>), (<code>xEnd</code>, <code>yEnd</code>). 
@@ -21,12 +21,16 @@
 package com.eteks.sweethome3d.junit;
 
 import java.awt.EventQueue;
+import java.awt.geom.GeneralPath;
 import java.lang.reflect.InvocationTargetException;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
 import java.util.List;
 import java.util.Locale;
+import java.util.Random;
 
 import javax.swing.undo.UndoManager;
 import javax.swing.undo.UndoableEditSupport;
@@ -37,11 +41,20 @@ import com.eteks.sweethome3d.io.DefaultUserPreferences;
 import com.eteks.sweethome3d.model.CatalogPieceOfFurniture;
 import com.eteks.sweethome3d.model.CollectionEvent;
 import com.eteks.sweethome3d.model.CollectionListener;
+import com.eteks.sweethome3d.model.DimensionLine;
+import com.eteks.sweethome3d.model.Elevatable;
 import com.eteks.sweethome3d.model.FurnitureCategory;
 import com.eteks.sweethome3d.model.Home;
 import com.eteks.sweethome3d.model.HomeFurnitureGroup;
 import com.eteks.sweethome3d.model.HomePieceOfFurniture;
+import com.eteks.sweethome3d.model.Label;
+import com.eteks.sweethome3d.model.LengthUnit;
+import com.eteks.sweethome3d.model.Level;
+import com.eteks.sweethome3d.model.ObserverCamera;
+import com.eteks.sweethome3d.model.Polyline;
+import com.eteks.sweethome3d.model.Room;
 import com.eteks.sweethome3d.model.Selectable;
+import com.eteks.sweethome3d.model.TextStyle;
 import com.eteks.sweethome3d.model.UserPreferences;
 import com.eteks.sweethome3d.model.Wall;
 import com.eteks.sweethome3d.swing.SwingViewFactory;
@@ -304,6 +317,360 @@ public class PlanControllerTest extends TestCase {
     assertEquals("Wrong width in plan", 100f, box2.getWidthInPlan());
   }
 
+  /**
+   * Tests that the items found by plan controller at a point or in a rectangle
+   * are the same as the ones found by a scan of all home items, after random changes.
+   */
+  public void testSelectableItemsAfterRandomChanges() throws InterruptedException, InvocationTargetException {
+    EventQueue.invokeAndWait(new Runnable() {
+        public void run() {
+          runSelectableItemsAfterRandomChangesTest();
+        }
+      });
+  }
+
+  private void runSelectableItemsAfterRandomChangesTest() {
+    Home home = new Home();
+    Locale.setDefault(Locale.ENGLISH);
+    UserPreferences preferences = new DefaultUserPreferences();
+    preferences.setUnit(LengthUnit.CENTIMETER);
+    RectanglePlanController planController =
+        new RectanglePlanController(home, preferences, new SwingViewFactory(), new UndoableEditSupport());
+    List<CatalogPieceOfFurniture> catalogFurniture = new ArrayList<CatalogPieceOfFurniture>();
+    for (FurnitureCategory category : preferences.getFurnitureCatalog().getCategories()) {
+      catalogFurniture.addAll(category.getFurniture());
+    }
+
+    Random random = new Random(1234);
+    Level level0 = new Level("Level 0", 0, 12, 250);
+    Level level1 = new Level("Level 1", 250, 12, 250);
+    home.addLevel(level0);
+    home.addLevel(level1);
+    Level [] levels = {level0, level1};
+    for (int i = 0; i < 20; i++) {
+      Wall wall = new Wall(randomCoordinate(random), randomCoordinate(random),
+          randomCoordinate(random), randomCoordinate(random), 5 + random.nextInt(20), 250);
+      wall.setLevel(levels [random.nextInt(2)]);
+      home.addWall(wall);
+
+      Room room = new Room(randomPoints(random, 3 + random.nextInt(3)));
+      room.setName("Room " + i);
+      room.setAreaVisible(random.nextBoolean());
+      room.setLevel(levels [random.nextInt(2)]);
+      home.addRoom(room);
+
+      HomePieceOfFurniture piece = new HomePieceOfFurniture(
+          catalogFurniture.get(random.nextInt(catalogFurniture.size())));
+      piece.setX(randomCoordinate(random));
+      piece.setY(randomCoordinate(random));
+      piece.setNameVisible(random.nextBoolean());
+      home.addPieceOfFurniture(piece);
+      piece.setLevel(levels [random.nextInt(2)]);
+
+      Label label = new Label("Label " + i, randomCoordinate(random), randomCoordinate(random));
+      label.setLevel(levels [random.nextInt(2)]);
+      home.addLabel(label);
+
+      DimensionLine dimensionLine = new DimensionLine(randomCoordinate(random), randomCoordinate(random),
+          randomCoordinate(random), randomCoordinate(random), random.nextInt(40) - 20);
+      dimensionLine.setLevel(levels [random.nextInt(2)]);
+      home.addDimensionLine(dimensionLine);
+
+      Polyline polyline = new Polyline(randomPoints(random, 2 + random.nextInt(3)));
+      polyline.setLevel(levels [random.nextInt(2)]);
+      home.addPolyline(polyline);
+    }
+    home.setSelectedLevel(level0);
+    assertSameSelectableItems(planController, home, preferences, random);
+
+    LengthUnit [] units = LengthUnit.values();
+    for (int i = 0; i < 200; i++) {
+      switch (random.nextInt(10)) {
+        case 0 :
+          HomePieceOfFurniture piece = home.getFurniture().get(random.nextInt(home.getFurniture().size()));
+          piece.setX(randomCoordinate(random));
+          piece.setY(randomCoordinate(random));
+          piece.setAngle(random.nextFloat() * 6.28f);
+          piece.setWidth(10 + random.nextInt(200));
+          break;
+        case 1 :
+          piece = home.getFurniture().get(random.nextInt(home.getFurniture().size()));
+          piece.setNameXOffset(random.nextInt(400) - 200);
+          piece.setNameYOffset(random.nextInt(400) - 200);
+          piece.setNameVisible(random.nextBoolean());
+          piece.setVisible(random.nextInt(5) != 0);
+          break;
+        case 2 :
+          Room room = home.getRooms().get(random.nextInt(home.getRooms().size()));
+          room.setNameXOffset(random.nextInt(400) - 200);
+          room.setAreaYOffset(random.nextInt(400) - 200);
+          room.setAreaVisible(random.nextBoolean());
+          if (random.nextBoolean()) {
+            room.setPoints(randomPoints(random, 3 + random.nextInt(3)));
+          }
+          break;
+        case 3 :
+          Wall wall = new ArrayList<Wall>(home.getWalls()).get(random.nextInt(home.getWalls().size()));
+          wall.setXStart(randomCoordinate(random));
+          wall.setYEnd(randomCoordinate(random));
+          wall.setThickness(5 + random.nextInt(20));
+          break;
+        case 4 :
+          Label label = new ArrayList<Label>(home.getLabels()).get(random.nextInt(home.getLabels().size()));
+          label.setX(randomCoordinate(random));
+          label.setText("Label " + random.nextInt(1000000));
+          home.getPolylines().get(random.nextInt(home.getPolylines().size())).setPoints(
+              randomPoints(random, 2 + random.nextInt(3)));
+          break;
+        case 5 :
+          // Move an item to an other level
+          home.getFurniture().get(random.nextInt(home.getFurniture().size())).setLevel(levels [random.nextInt(2)]);
+          home.getRooms().get(random.nextInt(home.getRooms().size())).setLevel(levels [random.nextInt(2)]);
+          new ArrayList<DimensionLine>(home.getDimensionLines()).get(random.nextInt(home.getDimensionLines().size())).setLevel(levels [random.nextInt(2)]);
+          break;
+        case 6 :
+          home.setSelectedLevel(levels [random.nextInt(2)]);
+          level1.setViewable(random.nextInt(4) != 0);
+          level1.setElevation(random.nextBoolean() ? 0 : 250);
+          break;
+        case 7 :
+          preferences.setUnit(units [random.nextInt(units.length)]);
+          break;
+        case 8 :
+          planController.setScale(0.2f + random.nextFloat() * 2);
+          break;
+        case 9 :
+          // Replace a piece and a room
+          piece = home.getFurniture().get(random.nextInt(home.getFurniture().size()));
+          home.deletePieceOfFurniture(piece);
+          piece = new HomePieceOfFurniture(catalogFurniture.get(random.nextInt(catalogFurniture.size())));
+          piece.setX(randomCoordinate(random));
+          piece.setY(randomCoordinate(random));
+          home.addPieceOfFurniture(piece);
+          piece.setLevel(levels [random.nextInt(2)]);
+          home.deleteRoom(home.getRooms().get(random.nextInt(home.getRooms().size())));
+          room = new Room(randomPoints(random, 4));
+          room.setName("New room " + i);
+          room.setLevel(levels [random.nextInt(2)]);
+          home.addRoom(room);
+          break;
+      }
+      assertSameSelectableItems(planController, home, preferences, random);
+    }
+  }
+
+  private static float randomCoordinate(Random random) {
+    return random.nextInt(2000) - 200;
+  }
+
+  private static float [][] randomPoints(Random random, int count) {
+    float [][] points = new float [count][];
+    for (int i = 0; i < count; i++) {
+      points [i] = new float [] {randomCoordinate(random), randomCoordinate(random)};
+    }
+    return points;
+  }
+
+  /**
+   * Asserts the items found by <code>planController</code> at random points and in random rectangles
+   * are the same as the ones found by scanning home items.
+   */
+  private void assertSameSelectableItems(RectanglePlanController planController, Home home,
+                                         UserPreferences preferences, Random random) {
+    for (int i = 0; i < 20; i++) {
+      float x = randomCoordinate(random);
+      float y = randomCoordinate(random);
+      assertEquals("Different items at point " + x + ", " + y,
+          getSelectableItemsAt(planController, home, preferences, x, y),
+          planController.getSelectableItemsAt(x, y));
+      float x1 = x + random.nextInt(300);
+      float y1 = y + random.nextInt(300);
+      assertEquals("Different items in rectangle " + x + ", " + y + ", " + x1 + ", " + y1,
+          getSelectableItemsIntersectingRectangle(home, x, y, x1, y1),
+          planController.getSelectableItemsIntersectingRectangle(x, y, x1, y1));
+    }
+    // Check also points on texts displayed outside of their item
+    for (HomePieceOfFurniture piece : home.getFurniture()) {
+      float x = piece.getX() + piece.getNameXOffset();
+      float y = piece.getY() + piece.getNameYOffset();
+      assertEquals("Different items at piece name " + x + ", " + y,
+          getSelectableItemsAt(planController, home, preferences, x, y),
+          planController.getSelectableItemsAt(x, y));
+    }
+    for (Room room : home.getRooms()) {
+      float x = room.getXCenter() + room.getAreaXOffset();
+      float y = room.getYCenter() + room.getAreaYOffset();
+      assertEquals("Different items at room area " + x + ", " + y,
+          getSelectableItemsAt(planController, home, preferences, x, y),
+          planController.getSelectableItemsAt(x, y));
+    }
+  }
+
+  /**
+   * Returns the items at the given point found with a scan of all home items, in the order
+   * expected from {@link PlanController#getSelectableItemsAt(float, float)} when base plan isn't locked.
+   */
+  private List<Selectable> getSelectableItemsAt(PlanController planController, Home home,
+                                                UserPreferences preferences, float x, float y) {
+    List<Selectable> items = new ArrayList<Selectable>();
+    float margin = 4 / planController.getScale();
+    float textMargin = 2 / planController.getScale();
+    Level selectedLevel = home.getSelectedLevel();
+    for (Label label : home.getLabels()) {
+      if (isLevelNullOrViewable(label.getLevel())
+          && label.isAtLevel(selectedLevel)
+          && (label.containsPoint(x, y, margin)
+              || isTextAt(planController, preferences, label, label.getText(), label.getStyle(),
+                    label.getX(), label.getY(), label.getAngle(), x, y, textMargin))) {
+        items.add(label);
+      }
+    }
+    for (DimensionLine dimensionLine : home.getDimensionLines()) {
+      if (isLevelNullOrViewable(dimensionLine.getLevel())
+          && dimensionLine.isAtLevel(selectedLevel)
+          && dimensionLine.containsPoint(x, y, margin)) {
+        items.add(dimensionLine);
+      }
+    }
+    List<Polyline> polylines = home.getPolylines();
+    for (int i = polylines.size() - 1; i >= 0; i--) {
+      Polyline polyline = polylines.get(i);
+      if (isLevelNullOrViewable(polyline.getLevel())
+          && polyline.isAtLevel(selectedLevel)
+          && polyline.containsPoint(x, y, margin)) {
+        items.add(polyline);
+      }
+    }
+    List<HomePieceOfFurniture> furniture = home.getFurniture();
+    List<HomePieceOfFurniture> foundFurniture = new ArrayList<HomePieceOfFurniture>();
+    HomePieceOfFurniture foundPiece = null;
+    for (int i = furniture.size() - 1; i >= 0; i--) {
+      HomePieceOfFurniture piece = furniture.get(i);
+      if (piece.isVisible()
+          && isLevelNullOrViewable(piece.getLevel())
+          && (piece.getLevel() == selectedLevel
+              || piece.isAtLevel(selectedLevel))) {
+        if (piece.containsPoint(x, y, margin)) {
+          foundFurniture.add(piece);
+          if (foundPiece == null
+              || piece.getGroundElevation() > foundPiece.getGroundElevation()) {
+            foundPiece = piece;
+          }
+        } else if (foundPiece == null
+            && piece.getName() != null
+            && piece.isNameVisible()
+            && isTextAt(planController, preferences, piece, piece.getName(), piece.getNameStyle(),
+                piece.getX() + piece.getNameXOffset(), piece.getY() + piece.getNameYOffset(),
+                piece.getNameAngle(), x, y, textMargin)) {
+          foundFurniture.add(piece);
+          foundPiece = piece;
+        }
+      }
+    }
+    Collections.sort(foundFurniture, new Comparator<HomePieceOfFurniture>() {
+        public int compare(HomePieceOfFurniture piece1, HomePieceOfFurniture piece2) {
+          return -Float.compare(piece1.getGroundElevation(), piece2.getGroundElevation());
+        }
+      });
+    items.addAll(foundFurniture);
+    for (Wall wall : home.getWalls()) {
+      if (isLevelNullOrViewable(wall.getLevel())
+          && wall.isAtLevel(selectedLevel)
+          && wall.containsPoint(x, y, margin)) {
+        items.add(wall);
+      }
+    }
+    List<Room> rooms = home.getRooms();
+    for (int i = rooms.size() - 1; i >= 0; i--) {
+      Room room = rooms.get(i);
+      if (isLevelNullOrViewable(room.getLevel())
+          && room.isAtLevel(selectedLevel)) {
+        if (room.containsPoint(x, y, margin)) {
+          items.add(room);
+        } else {
+          if (room.getName() != null
+              && isTextAt(planController, preferences, room, room.getName(), room.getNameStyle(),
+                  room.getXCenter() + room.getNameXOffset(), room.getYCenter() + room.getNameYOffset(),
+                  room.getNameAngle(), x, y, textMargin)) {
+            items.add(room);
+          }
+          if (room.isAreaVisible()) {
+            String areaText = preferences.getLengthUnit().getAreaFormatWithUnit().format(room.getArea());
+            if (isTextAt(planController, preferences, room, areaText, room.getAreaStyle(),
+                  room.getXCenter() + room.getAreaXOffset(), room.getYCenter() + room.getAreaYOffset(),
+                  room.getAreaAngle(), x, y, textMargin)) {
+              items.add(room);
+            }
+          }
+        }
+      }
+    }
+    if (home.getCompass().containsPoint(x, y, textMargin)) {
+      items.add(home.getCompass());
+    }
+    return items;
+  }
+
+  private boolean isLevelNullOrViewable(Level level) {
+    return level == null || level.isViewable();
+  }
+
+  private boolean isTextAt(PlanController planController, UserPreferences preferences,
+                           Selectable item, String text, TextStyle textStyle,
+                           float xText, float yText, float textAngle,
+                           float x, float y, float textMargin) {
+    if (textStyle == null) {
+      textStyle = preferences.getDefaultTextStyle(item.getClass());
+    }
+    float [][] textBounds = planController.getView().getTextBounds(text, textStyle, xText, yText, textAngle);
+    GeneralPath path = new GeneralPath();
+    path.moveTo(textBounds [0][0], textBounds [0][1]);
+    for (int i = 1; i < textBounds.length; i++) {
+      path.lineTo(textBounds [i][0], textBounds [i][1]);
+    }
+    path.closePath();
+    return path.intersects(x - textMargin, y - textMargin, 2 * textMargin, 2 * textMargin);
+  }
+
+  /**
+   * Returns the items intersecting the given rectangle found with a scan of all home items.
+   */
+  private List<Selectable> getSelectableItemsIntersectingRectangle(Home home,
+                                                                   float x0, float y0, float x1, float y1) {
+    List<Selectable> items = new ArrayList<Selectable>();
+    Level selectedLevel = home.getSelectedLevel();
+    for (Selectable item : home.getSelectableViewableItems()) {
+      if ((item instanceof HomePieceOfFurniture
+            ? ((HomePieceOfFurniture)item).getLevel() == selectedLevel
+                || ((HomePieceOfFurniture)item).isAtLevel(selectedLevel)
+            : !(item instanceof Elevatable)
+                || ((Elevatable)item).isAtLevel(selectedLevel))
+          && item.intersectsRectangle(x0, y0, x1, y1)) {
+        items.add(item);
+      }
+    }
+    ObserverCamera camera = home.getObserverCamera();
+    if (camera.intersectsRectangle(x0, y0, x1, y1)) {
+      items.add(camera);
+    }
+    return items;
+  }
+
+  /**
+   * A plan controller giving access to the items intersecting a rectangle.
+   */
+  private static class RectanglePlanController extends PlanController {
+    public RectanglePlanController(Home home, UserPreferences preferences,
+                                   ViewFactory viewFactory, UndoableEditSupport undoSupport) {
+      super(home, preferences, viewFactory, null, undoSupport);
+    }
+
+    @Override
+    public List<Selectable> getSelectableItemsIntersectingRectangle(float x0, float y0, float x1, float y1) {
+      return super.getSelectableItemsIntersectingRectangle(x0, y0, x1, y1);
+    }
+  }
+
   /**
    * Asserts the start point and the end point of 
    * <code>wall</code> are at (<code>xStart</code>, <code>yStart</code>), (<code>xEnd</code>, <code>yEnd</code>). 
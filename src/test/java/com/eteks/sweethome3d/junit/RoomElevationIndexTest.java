@@ -0,0 +1,79 @@
+/*
+ * RoomElevationIndexTest.java 17 oct. 2026
+ *
+ * Copyright (c) 2026 Emmanuel PUYBARET / eTeks <info@eteks.com>. All Rights Reserved.
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation; either version 2 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA  02111-1307  USA
+ */
+package com.eteks.sweethome3d.junit;
+
+import java.util.Arrays;
+import java.util.Collections;
+
+import junit.framework.TestCase;
+
+import com.eteks.sweethome3d.j3d.RoomElevationIndex;
+import com.eteks.sweethome3d.model.Home;
+import com.eteks.sweethome3d.model.Level;
+import com.eteks.sweethome3d.model.Room;
+
+/**
+ * Tests {@link RoomElevationIndex} class.
+ * @author Emmanuel Puybaret
+ */
+public class RoomElevationIndexTest extends TestCase {
+  public void testRoomsSearch() {
+    Home home = new Home();
+    Room roomWithoutLevel = createRoom();
+    home.addRoom(roomWithoutLevel);
+    Level level0 = new Level("Level 0", 0, 12, 250);
+    Level level1 = new Level("Level 1", 262, 12, 250);
+    Level level1Bis = new Level("Level 1 bis", 262, 12, 200);
+    home.addLevel(level0);
+    home.addLevel(level1);
+    home.addLevel(level1Bis);
+    Room [] rooms = new Room [6];
+    for (int i = 0; i < rooms.length; i++) {
+      home.setSelectedLevel(home.getLevels().get(i % 3));
+      rooms [i] = createRoom();
+      home.addRoom(rooms [i]);
+    }
+
+    RoomElevationIndex index = RoomElevationIndex.getInstance(home);
+    assertSame("Index not shared", index, RoomElevationIndex.getInstance(home));
+    assertEquals("Wrong rooms without level", Collections.singletonList(roomWithoutLevel), index.getRoomsWithoutLevel());
+    assertEquals("Wrong rooms at floor elevation",
+        Arrays.asList(rooms [1], rooms [2], rooms [4], rooms [5]), index.getRooms(262f, null));
+    assertEquals("Wrong rooms at ceiling elevation",
+        Arrays.asList(rooms [1], rooms [4]), index.getRooms(null, 512f));
+    // Floor of level 1 and ceilings at its floor bottom elevation
+    assertEquals("Wrong rooms at floor and ceiling elevation",
+        Arrays.asList(rooms [0], rooms [1], rooms [2], rooms [3], rooms [4], rooms [5]), index.getRooms(262f, 250f));
+
+    // Check index is updated once levels or rooms changed
+    level1Bis.setElevation(500);
+    assertEquals("Wrong rooms at floor elevation",
+        Arrays.asList(rooms [1], rooms [4]), index.getRooms(262f, null));
+    rooms [1].setLevel(level0);
+    assertEquals("Wrong rooms at floor elevation",
+        Arrays.asList(rooms [4]), index.getRooms(262f, null));
+    home.deleteRoom(rooms [4]);
+    assertEquals("Wrong rooms at floor elevation", 0, index.getRooms(262f, null).size());
+  }
+
+  private Room createRoom() {
+    return new Room(new float [][] {{0, 0}, {100, 0}, {100, 100}, {0, 100}});
+  }
+}
@@ -0,0 +1,97 @@
+/*
+ * TexturePyramidTest.java 18 oct. 2026
+ *
+ * Copyright (c) 2026 Emmanuel PUYBARET / eTeks <info@eteks.com>. All Rights Reserved.
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation; either version 2 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA  02111-1307  USA
+ */
+package com.eteks.sweethome3d.junit;
+
+import java.awt.image.BufferedImage;
+import java.io.File;
+import java.io.IOException;
+
+import javax.imageio.ImageIO;
+
+import junit.framework.TestCase;
+
+import com.eteks.sweethome3d.j3d.TexturePyramid;
+import com.eteks.sweethome3d.tools.URLContent;
+
+/**
+ * Tests {@link TexturePyramid} class.
+ * @author Emmanuel Puybaret
+ */
+public class TexturePyramidTest extends TestCase {
+  private File imageFile;
+
+  @Override
+  protected void setUp() throws IOException {
+    this.imageFile = File.createTempFile("texture", ".png");
+    // Write an opaque image decoded with 3 bytes per pixel
+    ImageIO.write(new BufferedImage(1024, 512, BufferedImage.TYPE_INT_RGB), "png", this.imageFile);
+  }
+
+  @Override
+  protected void tearDown() {
+    this.imageFile.delete();
+  }
+
+  /**
+   * Tests images are decoded at the level matching the requested size and then found in cache.
+   */
+  public void testLevels() throws IOException {
+    TexturePyramid pyramid = new TexturePyramid(10 << 20);
+    URLContent content = new URLContent(this.imageFile.toURI().toURL());
+    assertNull("Level known", pyramid.getLevel(content, 100));
+    BufferedImage image = pyramid.getImage(content, 100);
+    assertEquals("Wrong width", 128, image.getWidth());
+    assertEquals("Wrong height", 64, image.getHeight());
+    assertEquals("Wrong level", Integer.valueOf(3), pyramid.getLevel(content, 100));
+    assertEquals("Wrong level", Integer.valueOf(3), pyramid.getLevel(content, 128));
+    assertEquals("Wrong level", Integer.valueOf(2), pyramid.getLevel(content, 129));
+    assertEquals("Wrong level", Integer.valueOf(0), pyramid.getLevel(content, Integer.MAX_VALUE));
+    assertSame("Image not cached", image, pyramid.getImage(content, 120));
+    BufferedImage fullImage = pyramid.getImage(content, Integer.MAX_VALUE);
+    assertEquals("Wrong width", 1024, fullImage.getWidth());
+    assertEquals("Wrong hit count", 1, pyramid.getHitCount());
+    assertEquals("Wrong miss count", 2, pyramid.getMissCount());
+    assertEquals("Wrong image count", 2, pyramid.getImageCount());
+    assertEquals("Wrong size", (128 * 64 + 1024 * 512) * 3, pyramid.getSize());
+
+    pyramid.clear();
+    assertEquals("Cache not cleared", 0, pyramid.getImageCount());
+    assertEquals("Cache not cleared", 0, pyramid.getSize());
+  }
+
+  /**
+   * Tests the least recently used images are removed when cache is too large.
+   */
+  public void testEviction() throws IOException {
+    TexturePyramid pyramid = new TexturePyramid(300 << 10);
+    URLContent content = new URLContent(this.imageFile.toURI().toURL());
+    pyramid.getImage(content, 256);
+    pyramid.getImage(content, 128);
+    pyramid.getImage(content, 256);
+    assertEquals("Wrong eviction count", 0, pyramid.getEvictionCount());
+    pyramid.getImage(content, 512);
+    // Image at level 1 is larger than level 2 and 3 images, which are both removed 
+    assertEquals("Wrong eviction count", 2, pyramid.getEvictionCount());
+    assertEquals("Wrong image count", 1, pyramid.getImageCount());
+    assertEquals("Wrong size", 512 * 256 * 3, pyramid.getSize());
+    assertNull("Unknown content has a level", pyramid.getLevel(new URLContent(
+        TexturePyramidTest.class.getResource("resources/test.obj")), 100));
+  }
+}
@@ -0,0 +1,304 @@
+/*
+ * WallsGeometryTest.java 18 oct. 2026
+ *
+ * Copyright (c) 2026 Emmanuel PUYBARET / eTeks <info@eteks.com>. All Rights Reserved.
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation; either version 2 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA  02111-1307  USA
+ */
+package com.eteks.sweethome3d.junit;
+
+import java.awt.geom.Area;
+import java.awt.geom.GeneralPath;
+import java.awt.geom.PathIterator;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import junit.framework.TestCase;
+
+import com.eteks.sweethome3d.model.Baseboard;
+import com.eteks.sweethome3d.model.Home;
+import com.eteks.sweethome3d.model.Level;
+import com.eteks.sweethome3d.model.Wall;
+import com.eteks.sweethome3d.viewcontroller.WallsGeometry;
+
+/**
+ * Tests {@link WallsGeometry} class.
+ * @author Emmanuel Puybaret
+ */
+public class WallsGeometryTest extends TestCase {
+  private static final float TOLERANCE = 1f;
+
+  /**
+   * Checks walls area, room paths and inside walls area computed by walls geometry
+   * are the same as the ones computed by adding the area of each wall one by one,
+   * after random wall changes.
+   */
+  public void testRandomWallChanges() {
+    Home home = new Home();
+    Level level0 = new Level("Level 0", 0, 12, 250);
+    Level level1 = new Level("Level 1", 250, 12, 250);
+    home.addLevel(level0);
+    home.addLevel(level1);
+    Level [] levels = {level0, level1};
+    Random random = new Random(4321);
+    for (int i = 0; i < 6; i++) {
+      home.setSelectedLevel(levels [i % 2]);
+      addHouse(home, random.nextInt(3000), random.nextInt(3000));
+    }
+    WallsGeometry wallsGeometry = WallsGeometry.getInstance(home);
+    assertSame("Walls geometry not shared", wallsGeometry, WallsGeometry.getInstance(home));
+    assertSameGeometry(wallsGeometry, home, levels, random);
+
+    for (int i = 0; i < 150; i++) {
+      List<Wall> walls = new ArrayList<Wall>(home.getWalls());
+      Wall wall = walls.get(random.nextInt(walls.size()));
+      switch (random.nextInt(8)) {
+        case 0 :
+          wall.setXStart(wall.getXStart() + random.nextInt(200) - 100);
+          wall.setYStart(wall.getYStart() + random.nextInt(200) - 100);
+          if (wall.getWallAtStart() != null) {
+            moveJoinedWallEnd(wall.getWallAtStart(), wall, wall.getXStart(), wall.getYStart());
+          }
+          break;
+        case 1 :
+          wall.setXEnd(wall.getXEnd() + random.nextInt(200) - 100);
+          if (wall.getWallAtEnd() != null) {
+            moveJoinedWallEnd(wall.getWallAtEnd(), wall, wall.getXEnd(), wall.getYEnd());
+          }
+          break;
+        case 2 :
+          wall.setThickness(5 + random.nextInt(30));
+          break;
+        case 3 :
+          wall.setArcExtent(random.nextBoolean()
+              ? (float)(random.nextFloat() * Math.PI - Math.PI / 2)
+              : null);
+          break;
+        case 4 :
+          wall.setLeftSideBaseboard(random.nextBoolean()
+              ? Baseboard.getInstance(1 + random.nextInt(3), 10, null, null)
+              : null);
+          break;
+        case 5 :
+          // Move a whole wall to an other place
+          float dx = random.nextInt(1000) - 500;
+          float dy = random.nextInt(1000) - 500;
+          wall.setXStart(wall.getXStart() + dx);
+          wall.setYStart(wall.getYStart() + dy);
+          wall.setXEnd(wall.getXEnd() + dx);
+          wall.setYEnd(wall.getYEnd() + dy);
+          break;
+        case 6 :
+          wall.setLevel(levels [random.nextInt(2)]);
+          break;
+        case 7 :
+          if (random.nextBoolean()) {
+            home.deleteWall(wall);
+          } else {
+            home.setSelectedLevel(levels [random.nextInt(2)]);
+            addHouse(home, random.nextInt(3000), random.nextInt(3000));
+          }
+          break;
+      }
+      assertSameGeometry(wallsGeometry, home, levels, random);
+    }
+  }
+
+  /**
+   * Adds to home 4 walls joined to each other at the given location, split by an inner wall.
+   */
+  private void addHouse(Home home, float x, float y) {
+    float [][] points = {{x, y}, {x + 600, y}, {x + 600, y + 400}, {x, y + 400}};
+    Wall [] walls = new Wall [points.length];
+    for (int i = 0; i < points.length; i++) {
+      float [] start = points [i];
+      float [] end = points [(i + 1) % points.length];
+      walls [i] = new Wall(start [0], start [1], end [0], end [1], 20, 250);
+      home.addWall(walls [i]);
+    }
+    for (int i = 0; i < walls.length; i++) {
+      walls [i].setWallAtEnd(walls [(i + 1) % walls.length]);
+      walls [(i + 1) % walls.length].setWallAtStart(walls [i]);
+    }
+    home.addWall(new Wall(x + 300, y, x + 300, y + 400, 10, 250));
+  }
+
+  /**
+   * Moves the point of <code>wall</code> joined to <code>joinedWall</code> at (<code>x</code>, <code>y</code>).
+   */
+  private void moveJoinedWallEnd(Wall wall, Wall joinedWall, float x, float y) {
+    if (wall.getWallAtStart() == joinedWall) {
+      wall.setXStart(x);
+      wall.setYStart(y);
+    } else if (wall.getWallAtEnd() == joinedWall) {
+      wall.setXEnd(x);
+      wall.setYEnd(y);
+    }
+  }
+
+  /**
+   * Asserts the geometry of the walls at each level is the same as the one computed sequentially.
+   */
+  private void assertSameGeometry(WallsGeometry wallsGeometry, Home home, Level [] levels, Random random) {
+    for (Level level : levels) {
+      List<Wall> walls = new ArrayList<Wall>();
+      for (Wall wall : home.getWalls()) {
+        if (wall.isAtLevel(level)) {
+          walls.add(wall);
+        }
+      }
+      for (boolean includeBaseboards : new boolean [] {false, true}) {
+        Area wallsArea = getSequentialWallsArea(walls, includeBaseboards);
+        assertSameArea("Different walls area", wallsArea, wallsGeometry.getWallsArea(walls, includeBaseboards));
+      }
+
+      Area wallsArea = getSequentialWallsArea(walls, false);
+      List<GeneralPath> roomPaths = getAreaPaths(wallsArea);
+      Area insideWallsArea = new Area(wallsArea);
+      for (GeneralPath roomPath : roomPaths) {
+        insideWallsArea.add(new Area(roomPath));
+      }
+      assertSameArea("Different inside walls area", insideWallsArea, wallsGeometry.getInsideWallsArea(walls));
+
+      // Each room path should match a path of walls geometry
+      List<GeneralPath> geometryRoomPaths = new ArrayList<GeneralPath>(wallsGeometry.getWallsAreaPaths(walls));
+      for (GeneralPath roomPath : roomPaths) {
+        Area roomArea = new Area(roomPath);
+        if (getSurface(roomArea) > TOLERANCE) {
+          GeneralPath matchingPath = null;
+          for (GeneralPath geometryRoomPath : geometryRoomPaths) {
+            Area difference = new Area(roomArea);
+            difference.exclusiveOr(new Area(geometryRoomPath));
+            if (getSurface(difference) < TOLERANCE) {
+              matchingPath = geometryRoomPath;
+              break;
+            }
+          }
+          assertNotNull("Missing room path", matchingPath);
+          geometryRoomPaths.remove(matchingPath);
+        }
+      }
+      for (GeneralPath geometryRoomPath : geometryRoomPaths) {
+        assertTrue("Unexpected room path", getSurface(new Area(geometryRoomPath)) < TOLERANCE);
+      }
+
+      // Check the room detected at random points in the same way as PlanController#createRoomAt
+      for (int i = 0; i < 20; i++) {
+        float x = random.nextInt(3600);
+        float y = random.nextInt(3400);
+        GeneralPath roomPath = getFirstPathContainingPoint(roomPaths, x, y);
+        GeneralPath geometryRoomPath = getFirstPathContainingPoint(wallsGeometry.getWallsAreaPaths(walls), x, y);
+        if (roomPath == null) {
+          assertNull("Unexpected room at " + x + ", " + y, geometryRoomPath);
+        } else {
+          assertNotNull("Missing room at " + x + ", " + y, geometryRoomPath);
+          assertSameArea("Different room at " + x + ", " + y, new Area(roomPath), new Area(geometryRoomPath));
+        }
+      }
+    }
+  }
+
+  private GeneralPath getFirstPathContainingPoint(List<GeneralPath> paths, float x, float y) {
+    for (GeneralPath path : paths) {
+      if (path.contains(x, y)) {
+        return path;
+      }
+    }
+    return null;
+  }
+
+  /**
+   * Returns the area of the given <code>walls</code> computed by adding the area of each wall one by one.
+   */
+  private Area getSequentialWallsArea(List<Wall> walls, boolean includeBaseboards) {
+    Area wallsArea = new Area();
+    for (Wall wall : walls) {
+      float [][] points = wall.getPoints(includeBaseboards);
+      GeneralPath path = new GeneralPath();
+      path.moveTo(points [0][0], points [0][1]);
+      for (int i = 1; i < points.length; i++) {
+        path.lineTo(points [i][0], points [i][1]);
+      }
+      path.closePath();
+      wallsArea.add(new Area(path));
+    }
+    return wallsArea;
+  }
+
+  /**
+   * Returns the closed paths of the given <code>area</code>.
+   */
+  private List<GeneralPath> getAreaPaths(Area area) {
+    List<GeneralPath> paths = new ArrayList<GeneralPath>();
+    GeneralPath path = new GeneralPath();
+    for (PathIterator it = area.getPathIterator(null, 0.5f); !it.isDone(); it.next()) {
+      float [] point = new float [2];
+      switch (it.currentSegment(point)) {
+        case PathIterator.SEG_MOVETO :
+          path.moveTo(point [0], point [1]);
+          break;
+        case PathIterator.SEG_LINETO :
+          path.lineTo(point [0], point [1]);
+          break;
+        case PathIterator.SEG_CLOSE :
+          path.closePath();
+          paths.add(path);
+          path = new GeneralPath();
+          break;
+      }
+    }
+    return paths;
+  }
+
+  /**
+   * Asserts the surface of the exclusive or of the given areas is negligible.
+   */
+  private void assertSameArea(String message, Area expectedArea, Area area) {
+    Area difference = new Area(expectedArea);
+    difference.exclusiveOr(area);
+    float surface = getSurface(difference);
+    assertTrue(message + " " + surface, surface < TOLERANCE);
+  }
+
+  /**
+   * Returns the surface of the given <code>area</code>.
+   */
+  private float getSurface(Area area) {
+    double surface = 0;
+    double [] point = new double [6];
+    double xStart = 0;
+    double yStart = 0;
+    double xPrevious = 0;
+    double yPrevious = 0;
+    for (PathIterator it = area.getPathIterator(null, 0.1f); !it.isDone(); it.next()) {
+      switch (it.currentSegment(point)) {
+        case PathIterator.SEG_MOVETO :
+          xStart = xPrevious = point [0];
+          yStart = yPrevious = point [1];
+          break;
+        case PathIterator.SEG_LINETO :
+          surface += xPrevious * point [1] - point [0] * yPrevious;
+          xPrevious = point [0];
+          yPrevious = point [1];
+          break;
+        case PathIterator.SEG_CLOSE :
+          surface += xPrevious * yStart - xStart * yPrevious;
+          break;
+      }
+    }
+    return (float)Math.abs(surface / 2);
+  }
+}